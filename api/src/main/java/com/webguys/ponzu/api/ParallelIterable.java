@@ -0,0 +1,123 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.api;
+
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.api.set.MutableSet;
+
+/**
+ * A ParallelIterable is a deferred iterable whose terminal methods run in parallel batches on an executor.  Like a
+ * LazyIterable, methods like filter, filterNot, transform and flatTransform only describe the work to be done; when a
+ * terminal method is called each batch of the source is passed through the whole chain of operations at once, so no
+ * intermediate collection is created for each step, and the per-batch results are then merged into the final result.
+ * <p/>
+ * The functions, predicates and procedures passed to a ParallelIterable may be called from several threads at once,
+ * so they must be stateless or thread-safe.
+ *
+ * @since 1.3
+ */
+public interface ParallelIterable<T>
+{
+    /**
+     * Creates a deferred parallel iterable for filtering elements from the current iterable.
+     */
+    ParallelIterable<T> filter(Predicate<? super T> predicate);
+
+    /**
+     * Creates a deferred parallel iterable for filtering out elements from the current iterable.
+     */
+    ParallelIterable<T> filterNot(Predicate<? super T> predicate);
+
+    /**
+     * Creates a deferred parallel iterable for collecting elements from the current iterable.
+     */
+    <V> ParallelIterable<V> transform(Function<? super T, ? extends V> function);
+
+    /**
+     * Creates a deferred parallel flattening iterable for the current iterable.
+     */
+    <V> ParallelIterable<V> flatTransform(Function<? super T, ? extends Iterable<V>> function);
+
+    /**
+     * Evaluates the procedure for each element, in parallel.  The order in which elements are passed to the
+     * procedure is not specified.
+     */
+    void forEach(Procedure<? super T> procedure);
+
+    /**
+     * Returns the number of elements that satisfy the predicate.
+     */
+    int count(Predicate<? super T> predicate);
+
+    /**
+     * Returns true if any element satisfies the predicate.  Once a batch finds a matching element the remaining
+     * batches stop iterating.
+     */
+    boolean anySatisfy(Predicate<? super T> predicate);
+
+    /**
+     * Returns true if every element satisfies the predicate.  Once a batch finds an element that does not match the
+     * remaining batches stop iterating.
+     */
+    boolean allSatisfy(Predicate<? super T> predicate);
+
+    /**
+     * Returns the sum of the int values calculated by the function for each element, accumulated as a long.
+     */
+    long sumOfInt(IntFunction<? super T> function);
+
+    /**
+     * Returns the sum of the long values calculated by the function for each element.
+     */
+    long sumOfLong(LongFunction<? super T> function);
+
+    /**
+     * Returns the sum of the double values calculated by the function for each element, using compensated summation.
+     */
+    double sumOfDouble(DoubleFunction<? super T> function);
+
+    /**
+     * Returns a new list with all of the elements.  When the source is ordered, the list has the elements in the
+     * order of the source.
+     */
+    MutableList<T> toList();
+
+    /**
+     * Returns a new set with all of the elements.
+     */
+    MutableSet<T> toSet();
+
+    /**
+     * Returns a new bag with all of the elements.
+     */
+    MutableBag<T> toBag();
+
+    /**
+     * Returns a new multimap with the elements grouped by the result of the function.  When the source is ordered,
+     * the values for each key are in the order of the source.
+     */
+    <V> MutableMultimap<V, T> groupBy(Function<? super T, ? extends V> function);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.api.bag;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Accumulates the elements of an ImmutableBag in a hash table which becomes the bag when {@link #build()} is called,
+ * rather than filling a MutableBag and copying it with toImmutable().  A builder is filled by one thread at a time.
+ * Partial builders filled on different threads are combined with {@link #merge(ImmutableBagBuilder)}.  A builder
+ * cannot be used after it has been built or merged into another.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public interface ImmutableBagBuilder<T>
+{
+    ImmutableBagBuilder<T> add(T element);
+
+    ImmutableBagBuilder<T> addOccurrences(T element, int occurrences);
+
+    ImmutableBagBuilder<T> addAll(Iterable<? extends T> elements);
+
+    /**
+     * Adds the occurrences of the other builder to this one, and uses up the other builder.  The smaller of the two
+     * hash tables is added into the larger.
+     */
+    ImmutableBagBuilder<T> merge(ImmutableBagBuilder<T> other);
+
+    int size();
+
+    ImmutableBag<T> build();
+}
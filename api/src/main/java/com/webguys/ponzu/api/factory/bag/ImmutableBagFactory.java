@@ -17,6 +17,7 @@
 package com.webguys.ponzu.api.factory.bag;
 
 import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.ImmutableBagBuilder;
 
 public interface ImmutableBagFactory
 {
@@ -27,4 +28,11 @@ public interface ImmutableBagFactory
     <T> ImmutableBag<T> of(T... elements);
 
     <T> ImmutableBag<T> ofAll(Iterable<? extends T> items);
+
+    /**
+     * Returns a builder sized for the expected number of elements, whose storage becomes the result of build().
+     *
+     * @since 1.3
+     */
+    <T> ImmutableBagBuilder<T> builder(int expectedSize);
 }
@@ -17,6 +17,7 @@
 package com.webguys.ponzu.api.factory.list;
 
 import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.ImmutableListBuilder;
 
 public interface ImmutableListFactory
 {
@@ -45,4 +46,11 @@ public interface ImmutableListFactory
     <T> ImmutableList<T> of(T... items);
 
     <T> ImmutableList<T> ofAll(Iterable<? extends T> items);
+
+    /**
+     * Returns a builder sized for the expected number of elements, whose storage becomes the result of build().
+     *
+     * @since 1.3
+     */
+    <T> ImmutableListBuilder<T> builder(int expectedSize);
 }
@@ -16,7 +16,10 @@
 
 package com.webguys.ponzu.api.factory.map;
 
+import java.util.Map;
+
 import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.map.ImmutableMapBuilder;
 import com.webguys.ponzu.api.map.MutableMap;
 
 public interface ImmutableMapFactory
@@ -32,4 +35,26 @@ public interface ImmutableMapFactory
     <K, V> ImmutableMap<K, V> of(K key1, V value1, K key2, V value2, K key3, V value3, K key4, V value4);
 
     <K, V> ImmutableMap<K, V> ofMap(MutableMap<K, V> map);
+
+    /**
+     * Returns an empty map backed by a persistent hash trie.  newWithKeyValue and newWithoutKey on such a map copy only
+     * the O(log n) nodes on the path to the key and share the rest with the original.
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableMap<K, V> ofPersistent();
+
+    /**
+     * Same as {@link #ofPersistent()}, holding the mappings of the specified map.
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableMap<K, V> ofPersistentMap(Map<K, V> map);
+
+    /**
+     * Returns a builder sized for the expected number of entries, whose storage becomes the result of build().
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableMapBuilder<K, V> builder(int expectedSize);
 }
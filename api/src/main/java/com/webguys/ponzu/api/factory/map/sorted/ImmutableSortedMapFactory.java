@@ -44,4 +44,27 @@ public interface ImmutableSortedMapFactory
     <K, V> ImmutableSortedMap<K, V> of(Comparator<? super K> comparator, K key1, V value1, K key2, V value2, K key3, V value3, K key4, V value4);
 
     <K, V> ImmutableSortedMap<K, V> ofSortedMap(SortedMap<K, V> map);
+
+    /**
+     * Returns an empty map in natural order backed by a persistent balanced tree.  newWithKeyValue and newWithoutKey
+     * on such a map copy only the O(log n) nodes on the path to the key and share the rest with the original, and
+     * headMap, tailMap and subMap take O(log n).
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableSortedMap<K, V> ofPersistent();
+
+    /**
+     * Same as {@link #ofPersistent()}, ordered by the specified comparator.
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableSortedMap<K, V> ofPersistent(Comparator<? super K> comparator);
+
+    /**
+     * Same as {@link #ofPersistent()}, holding the mappings and using the comparator of the specified map.
+     *
+     * @since 1.3
+     */
+    <K, V> ImmutableSortedMap<K, V> ofPersistentSortedMap(SortedMap<K, V> map);
 }
@@ -17,6 +17,7 @@
 package com.webguys.ponzu.api.factory.set;
 
 import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.ImmutableSetBuilder;
 
 public interface ImmutableSetFactory
 {
@@ -33,4 +34,11 @@ public interface ImmutableSetFactory
     <T> ImmutableSet<T> of(T... items);
 
     <T> ImmutableSet<T> ofAll(Iterable<? extends T> items);
+
+    /**
+     * Returns a builder sized for the expected number of elements, whose storage becomes the result of build().
+     *
+     * @since 1.3
+     */
+    <T> ImmutableSetBuilder<T> builder(int expectedSize);
 }
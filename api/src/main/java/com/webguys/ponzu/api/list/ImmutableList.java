@@ -40,6 +40,15 @@ public interface ImmutableList<T>
 
     ImmutableList<T> newWithout(T element);
 
+    /**
+     * Returns a copy of this list with the element at the specified index replaced, the immutable equivalent of
+     * {@link java.util.List#set(int, Object)}.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @since 1.3
+     */
+    ImmutableList<T> newWithSet(int index, T element);
+
     ImmutableList<T> newWithAll(Iterable<? extends T> elements);
 
     ImmutableList<T> newWithoutAll(Iterable<? extends T> elements);
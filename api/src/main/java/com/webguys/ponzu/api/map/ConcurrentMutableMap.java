@@ -18,10 +18,36 @@ package com.webguys.ponzu.api.map;
 
 import java.util.concurrent.ConcurrentMap;
 
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+
 /**
  * A ConcurrentMutableMap provides an api which combines and supports both MutableMap and ConcurrentMap.
  */
 public interface ConcurrentMutableMap<K, V>
         extends MutableMap<K, V>, ConcurrentMap<K, V>
 {
+    /**
+     * Returns the value for the key, or if the key is absent, puts the value of the generator and returns it.  This
+     * is atomic: the generator is evaluated at most once for an absent key, however many threads ask for that key at
+     * the same time.  The other threads wait for the generated value, but no lock is held which stops threads from
+     * reading or writing other keys while the generator runs.
+     */
+    V getIfAbsentPut(K key, Generator<? extends V> function);
+
+    /**
+     * Same as {@link #getIfAbsentPut(Object, Generator)} with a function and parameter in place of the generator.
+     */
+    <P> V getIfAbsentPutWith(K key, Function<? super P, ? extends V> function, P parameter);
+
+    /**
+     * Looks up the value for the key, or if the key is absent uses the value of the factory, then applies the
+     * function to it, puts the result and returns it.  The factory is evaluated at most once for an absent key, as
+     * with {@link #getIfAbsentPut(Object, Generator)}.  Updates of a present key are made with a compare-and-replace
+     * of its value, so the function may be applied more than once when threads race to update the same key, and
+     * should not have side effects.
+     *
+     * @since 1.3
+     */
+    V updateValue(K key, Generator<? extends V> factory, Function<? super V, ? extends V> function);
 }
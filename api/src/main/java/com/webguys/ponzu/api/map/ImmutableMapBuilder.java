@@ -0,0 +1,48 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.api.map;
+
+import java.util.Map;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Accumulates the entries of an ImmutableMap in a hash table which becomes the map when {@link #build()} is called,
+ * rather than filling a MutableMap and copying it with toImmutable().  A builder is filled by one thread at a time.
+ * Partial builders filled on different threads are combined with {@link #merge(ImmutableMapBuilder)}.  A builder
+ * cannot be used after it has been built or merged into another.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public interface ImmutableMapBuilder<K, V>
+{
+    ImmutableMapBuilder<K, V> put(K key, V value);
+
+    ImmutableMapBuilder<K, V> putAll(Map<? extends K, ? extends V> map);
+
+    /**
+     * Adds the entries of the other builder to this one, and uses up the other builder.  Where both have a key, the
+     * value from the other builder wins, as if its entries had been put after those of this one.  The smaller of the
+     * two hash tables is added into the larger.
+     */
+    ImmutableMapBuilder<K, V> merge(ImmutableMapBuilder<K, V> other);
+
+    int size();
+
+    ImmutableMap<K, V> build();
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.bag.immutable;
+
+import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.ImmutableBagBuilder;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.impl.bag.mutable.HashBag;
+import com.webguys.ponzu.impl.factory.Bags;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Fills a HashBag which becomes the delegate of an {@link ImmutableHashBag} when the bag is built.  Bags small enough
+ * for an ImmutableArrayBag are copied into one of those instead.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+final class ImmutableBagBuilderImpl<T> implements ImmutableBagBuilder<T>
+{
+    private HashBag<T> bag;
+
+    ImmutableBagBuilderImpl(int expectedSize)
+    {
+        this.bag = HashBag.newBag(expectedSize);
+    }
+
+    public ImmutableBagBuilder<T> add(T element)
+    {
+        this.storage().add(element);
+        return this;
+    }
+
+    public ImmutableBagBuilder<T> addOccurrences(T element, int occurrences)
+    {
+        this.storage().addOccurrences(element, occurrences);
+        return this;
+    }
+
+    public ImmutableBagBuilder<T> addAll(Iterable<? extends T> elements)
+    {
+        this.storage().addAllIterable(elements);
+        return this;
+    }
+
+    public ImmutableBagBuilder<T> merge(ImmutableBagBuilder<T> other)
+    {
+        ImmutableBagBuilderImpl<T> that = (ImmutableBagBuilderImpl<T>) other;
+        if (that == this)
+        {
+            throw new IllegalArgumentException("Cannot merge a builder into itself");
+        }
+        HashBag<T> mine = this.storage();
+        HashBag<T> theirs = that.storage();
+        that.bag = null;
+        if (theirs.sizeDistinct() > mine.sizeDistinct())
+        {
+            this.bag = theirs;
+            addAllOccurrences(mine, theirs);
+        }
+        else
+        {
+            addAllOccurrences(theirs, mine);
+        }
+        return this;
+    }
+
+    private static <T> void addAllOccurrences(HashBag<T> source, final HashBag<T> target)
+    {
+        source.forEachWithOccurrences(new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                target.addOccurrences(each, occurrences);
+            }
+        });
+    }
+
+    public int size()
+    {
+        return this.storage().size();
+    }
+
+    public ImmutableBag<T> build()
+    {
+        HashBag<T> result = this.storage();
+        this.bag = null;
+        if (result.size() < ImmutableArrayBag.MAXIMUM_USEFUL_ARRAY_BAG_SIZE)
+        {
+            return Bags.immutable.ofAll(result);
+        }
+        return ImmutableHashBag.adopt(result);
+    }
+
+    private HashBag<T> storage()
+    {
+        if (this.bag == null)
+        {
+            throw new IllegalStateException("The builder has already been built or merged into another");
+        }
+        return this.bag;
+    }
+}
@@ -17,6 +17,7 @@
 package com.webguys.ponzu.impl.bag.immutable;
 
 import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.ImmutableBagBuilder;
 import com.webguys.ponzu.api.factory.bag.ImmutableBagFactory;
 import com.webguys.ponzu.impl.utility.Iterate;
 
@@ -58,4 +59,9 @@ public final class ImmutableBagFactoryImpl implements ImmutableBagFactory
 
         return this.of((T[]) Iterate.toArray(items));
     }
+
+    public <T> ImmutableBagBuilder<T> builder(int expectedSize)
+    {
+        return new ImmutableBagBuilderImpl<T>(expectedSize);
+    }
 }
@@ -73,6 +73,11 @@ public class ImmutableHashBag<T>
         this.delegate = HashBag.newBag(source);
     }
 
+    private ImmutableHashBag(HashBag<T> delegate)
+    {
+        this.delegate = delegate;
+    }
+
     public static <T> ImmutableHashBag<T> newBag()
     {
         return new ImmutableHashBag<T>();
@@ -93,6 +98,14 @@ public class ImmutableHashBag<T>
         return new ImmutableHashBag<T>(bag);
     }
 
+    /**
+     * Wraps the bag without copying it, unlike the public constructors.  The caller must not modify the bag afterwards.
+     */
+    static <T> ImmutableHashBag<T> adopt(HashBag<T> bag)
+    {
+        return new ImmutableHashBag<T>(bag);
+    }
+
     public ImmutableBag<T> newWith(T element)
     {
         return HashBag.newBag(this.delegate).with(element).toImmutable();
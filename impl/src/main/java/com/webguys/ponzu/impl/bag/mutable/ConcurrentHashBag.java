@@ -0,0 +1,868 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.bag.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.webguys.ponzu.api.bag.Bag;
+import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.predicate.Predicate2;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.partition.bag.PartitionMutableBag;
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.Counter;
+import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.collection.mutable.AbstractMutableCollection;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.ConcurrentUnifiedMap;
+import com.webguys.ponzu.impl.multimap.bag.HashBagMultimap;
+import com.webguys.ponzu.impl.partition.bag.PartitionHashBag;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A ConcurrentHashBag is a MutableBag which many threads can add to at once without contending on a lock.  Each
+ * distinct item is mapped in a {@link ConcurrentUnifiedMap} to its own counter, so threads counting different items
+ * never touch the same memory.  The counter of an item starts as a single int and is spread over a row of cells, one
+ * cache line apart, the first time two threads collide on it, so a hot item is counted in parallel as well.
+ * <p/>
+ * occurrencesOf, contains, size and sizeDistinct read the counters without blocking, and so are only weakly
+ * consistent while the bag is being added to.  forEachWithOccurrences, iteration, toImmutable, equals and
+ * serialization instead work on a snapshot of every count taken at a single point in time: taking the snapshot waits
+ * for the additions already in progress to finish and holds off new ones while the counts are copied.  The procedure
+ * passed to forEachWithOccurrences runs on the snapshot after the bag has been released, so it may itself modify the
+ * bag.  Removals are expected to be rare and are made in the same way as a snapshot, which lets a count be checked and
+ * lowered without going below zero.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentHashBag<T>
+        extends AbstractMutableCollection<T>
+        implements Externalizable, MutableBag<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stands in for the null item, since the map of counters does not allow null keys.
+     */
+    private static final Object NULL_ITEM = new Object();
+
+    private static final int WRITER_STRIPE_BITS = 5;
+
+    private static final int OCCURRENCE_CELL_BITS = 4;
+
+    /**
+     * The distance between two stripes or cells, so that each sits on its own cache line.
+     */
+    private static final int SPACING = 16;
+
+    private ConcurrentUnifiedMap<Object, Occurrences> items;
+
+    /**
+     * The number of additions in progress, striped by thread.
+     */
+    private final AtomicIntegerArray writers = new AtomicIntegerArray((1 << WRITER_STRIPE_BITS) * SPACING);
+
+    private final ReentrantLock exclusiveLock = new ReentrantLock();
+
+    private volatile boolean exclusive;
+
+    public ConcurrentHashBag()
+    {
+        this.items = ConcurrentUnifiedMap.newMap();
+    }
+
+    public ConcurrentHashBag(int size)
+    {
+        this.items = ConcurrentUnifiedMap.newMap(size);
+    }
+
+    public static <E> ConcurrentHashBag<E> newBag()
+    {
+        return new ConcurrentHashBag<E>();
+    }
+
+    public static <E> ConcurrentHashBag<E> newBag(int size)
+    {
+        return new ConcurrentHashBag<E>(size);
+    }
+
+    public static <E> ConcurrentHashBag<E> newBag(Iterable<? extends E> source)
+    {
+        return Iterate.addAllTo(source, ConcurrentHashBag.<E>newBag());
+    }
+
+    public static <E> ConcurrentHashBag<E> newBag(Bag<? extends E> source)
+    {
+        final ConcurrentHashBag<E> result = ConcurrentHashBag.newBag(source.sizeDistinct());
+        source.forEachWithOccurrences(new ObjectIntProcedure<E>()
+        {
+            public void value(E each, int occurrences)
+            {
+                result.addOccurrences(each, occurrences);
+            }
+        });
+        return result;
+    }
+
+    public static <E> ConcurrentHashBag<E> newBagWith(E... elements)
+    {
+        //noinspection SSBasedInspection
+        return ConcurrentHashBag.newBag(Arrays.asList(elements));
+    }
+
+    private static Object toKey(Object item)
+    {
+        return item == null ? NULL_ITEM : item;
+    }
+
+    private static <T> T toItem(Object key)
+    {
+        return key == NULL_ITEM ? null : (T) key;
+    }
+
+    /**
+     * Picks the stripe or cell of the current thread among 2^bits of them.
+     */
+    private static int indexForCurrentThread(int bits)
+    {
+        long id = Thread.currentThread().getId();
+        return ((int) (id ^ id >>> 32) * 0x9E3779B9 >>> 32 - bits) * SPACING;
+    }
+
+    @Override
+    public MutableBag<T> newEmpty()
+    {
+        return ConcurrentHashBag.newBag();
+    }
+
+    public ConcurrentHashBag<T> with(T element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public ConcurrentHashBag<T> with(T element1, T element2)
+    {
+        this.add(element1);
+        this.add(element2);
+        return this;
+    }
+
+    public ConcurrentHashBag<T> with(T element1, T element2, T element3)
+    {
+        this.add(element1);
+        this.add(element2);
+        this.add(element3);
+        return this;
+    }
+
+    public ConcurrentHashBag<T> with(T... elements)
+    {
+        this.addAll(Arrays.asList(elements));
+        return this;
+    }
+
+    public ConcurrentHashBag<T> withAll(Iterable<? extends T> iterable)
+    {
+        this.addAllIterable(iterable);
+        return this;
+    }
+
+    public MutableBag<T> without(T element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public MutableBag<T> withoutAll(Iterable<? extends T> elements)
+    {
+        this.removeAllIterable(elements);
+        return this;
+    }
+
+    @Override
+    public boolean add(T item)
+    {
+        this.addOccurrences(item, 1);
+        return true;
+    }
+
+    public void addOccurrences(T item, int occurrences)
+    {
+        if (occurrences < 0)
+        {
+            throw new IllegalArgumentException("Cannot add a negative number of occurrences");
+        }
+        if (occurrences == 0)
+        {
+            return;
+        }
+        Object key = toKey(item);
+        while (true)
+        {
+            Occurrences counter = this.items.get(key);
+            if (counter == null)
+            {
+                Occurrences newCounter = new Occurrences();
+                counter = this.items.putIfAbsent(key, newCounter);
+                if (counter == null)
+                {
+                    counter = newCounter;
+                }
+            }
+            if (counter.removed)
+            {
+                this.items.replace(key, counter, new Occurrences());
+            }
+            else
+            {
+                int stripe = this.enterShared();
+                try
+                {
+                    if (!counter.removed)
+                    {
+                        counter.add(occurrences);
+                        return;
+                    }
+                }
+                finally
+                {
+                    this.writers.decrementAndGet(stripe);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object item)
+    {
+        return this.removeOccurrences(item, 1);
+    }
+
+    public boolean removeOccurrences(Object item, int occurrences)
+    {
+        if (occurrences < 0)
+        {
+            throw new IllegalArgumentException("Cannot remove a negative number of occurrences");
+        }
+        if (occurrences == 0)
+        {
+            return false;
+        }
+        Object key = toKey(item);
+        while (true)
+        {
+            Occurrences counter = this.items.get(key);
+            if (counter == null)
+            {
+                return false;
+            }
+            int previous = this.takeOccurrences(counter, occurrences);
+            if (previous < 0 || previous > 0 && occurrences >= previous)
+            {
+                this.items.remove(key, counter);
+            }
+            if (previous >= 0)
+            {
+                return previous > 0;
+            }
+        }
+    }
+
+    /**
+     * Takes up to the given number of occurrences from the counter, marking it as removed if none are left, and
+     * returns the count it had before, or -1 if it had already been removed.
+     */
+    private int takeOccurrences(Occurrences counter, int occurrences)
+    {
+        this.lockExclusively();
+        try
+        {
+            if (counter.removed)
+            {
+                return -1;
+            }
+            int previous = counter.sum();
+            if (occurrences >= previous)
+            {
+                counter.removed = previous > 0;
+            }
+            else
+            {
+                counter.add(-occurrences);
+            }
+            return previous;
+        }
+        finally
+        {
+            this.unlockExclusively();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        Entries removed = new Entries(this.items.size());
+        this.lockExclusively();
+        try
+        {
+            this.items.forEachKeyValue(removed);
+            for (int i = 0; i < removed.size; i++)
+            {
+                removed.counters[i].removed = true;
+            }
+        }
+        finally
+        {
+            this.unlockExclusively();
+        }
+        for (int i = 0; i < removed.size; i++)
+        {
+            this.items.remove(removed.keys[i], removed.counters[i]);
+        }
+    }
+
+    /**
+     * Registers an addition in progress in the stripe of the current thread and returns the stripe, first waiting
+     * for any snapshot or removal being made to finish.
+     */
+    private int enterShared()
+    {
+        int stripe = indexForCurrentThread(WRITER_STRIPE_BITS);
+        while (true)
+        {
+            this.writers.incrementAndGet(stripe);
+            if (!this.exclusive)
+            {
+                return stripe;
+            }
+            this.writers.decrementAndGet(stripe);
+            this.exclusiveLock.lock();
+            this.exclusiveLock.unlock();
+        }
+    }
+
+    /**
+     * Stops new additions from starting and waits for those in progress to finish.  No code of the items, such as
+     * hashCode or equals, is run while the bag is held this way, so it cannot call back into the bag.
+     */
+    private void lockExclusively()
+    {
+        this.exclusiveLock.lock();
+        this.exclusive = true;
+        for (int i = 0; i < this.writers.length(); i += SPACING)
+        {
+            while (this.writers.get(i) != 0)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void unlockExclusively()
+    {
+        this.exclusive = false;
+        this.exclusiveLock.unlock();
+    }
+
+    /**
+     * Copies every count at a single point in time.
+     */
+    private Entries snapshot()
+    {
+        Entries result = new Entries(this.items.size());
+        this.lockExclusively();
+        try
+        {
+            this.items.forEachKeyValue(result);
+        }
+        finally
+        {
+            this.unlockExclusively();
+        }
+        return result;
+    }
+
+    private HashBag<T> toHashBag()
+    {
+        final HashBag<T> result = HashBag.newBag();
+        this.forEachWithOccurrences(new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                result.addOccurrences(each, occurrences);
+            }
+        });
+        return result;
+    }
+
+    public int sizeDistinct()
+    {
+        final Counter result = new Counter();
+        this.items.forEachValue(new Procedure<Occurrences>()
+        {
+            public void value(Occurrences counter)
+            {
+                if (counter.get() > 0)
+                {
+                    result.increment();
+                }
+            }
+        });
+        return result.getCount();
+    }
+
+    public int occurrencesOf(Object item)
+    {
+        Occurrences counter = this.items.get(toKey(item));
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public boolean contains(Object item)
+    {
+        return this.occurrencesOf(item) > 0;
+    }
+
+    @Override
+    public int size()
+    {
+        final Counter result = new Counter();
+        this.items.forEachValue(new Procedure<Occurrences>()
+        {
+            public void value(Occurrences counter)
+            {
+                result.add(counter.get());
+            }
+        });
+        return result.getCount();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.sizeDistinct() == 0;
+    }
+
+    @Override
+    public boolean notEmpty()
+    {
+        return this.sizeDistinct() > 0;
+    }
+
+    public void forEachWithOccurrences(ObjectIntProcedure<? super T> procedure)
+    {
+        Entries snapshot = this.snapshot();
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            procedure.value(ConcurrentHashBag.<T>toItem(snapshot.keys[i]), snapshot.counts[i]);
+        }
+    }
+
+    @Override
+    public void forEach(final Procedure<? super T> procedure)
+    {
+        this.forEachWithOccurrences(new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                for (int i = 0; i < occurrences; i++)
+                {
+                    procedure.value(each);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void forEachWithIndex(final ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        final Counter index = new Counter();
+        this.forEachWithOccurrences(new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                for (int i = 0; i < occurrences; i++)
+                {
+                    objectIntProcedure.value(each, index.getCount());
+                    index.increment();
+                }
+            }
+        });
+    }
+
+    @Override
+    public <P> void forEachWith(final Procedure2<? super T, ? super P> procedure, final P parameter)
+    {
+        this.forEachWithOccurrences(new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                for (int i = 0; i < occurrences; i++)
+                {
+                    procedure.value(each, parameter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the bag.  Its remove method removes one occurrence of the last item
+     * returned from this bag.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new SnapshotIterator();
+    }
+
+    public ImmutableBag<T> toImmutable()
+    {
+        return this.toHashBag().toImmutable();
+    }
+
+    public MutableMap<T, Integer> toMapOfItemToCount()
+    {
+        return this.toHashBag().toMapOfItemToCount();
+    }
+
+    @Override
+    public MutableBag<T> toBag()
+    {
+        return this.toHashBag();
+    }
+
+    @Override
+    public MutableList<T> toList()
+    {
+        FastList<T> result = FastList.newList();
+        this.forEach(CollectionAddProcedure.on(result));
+        return result;
+    }
+
+    @Override
+    public MutableSet<T> toSet()
+    {
+        return this.toHashBag().toSet();
+    }
+
+    @Override
+    public MutableBag<T> filter(Predicate<? super T> predicate)
+    {
+        return this.toHashBag().filter(predicate);
+    }
+
+    @Override
+    public <P> MutableBag<T> filterWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.toHashBag().filterWith(predicate, parameter);
+    }
+
+    @Override
+    public MutableBag<T> filterNot(Predicate<? super T> predicate)
+    {
+        return this.toHashBag().filterNot(predicate);
+    }
+
+    @Override
+    public <P> MutableBag<T> filterNotWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.toHashBag().filterNotWith(predicate, parameter);
+    }
+
+    public PartitionMutableBag<T> partition(Predicate<? super T> predicate)
+    {
+        return PartitionHashBag.of(this.toHashBag(), predicate);
+    }
+
+    @Override
+    public <V> MutableBag<V> transform(Function<? super T, ? extends V> function)
+    {
+        return this.toHashBag().transform(function);
+    }
+
+    @Override
+    public <P, V> MutableBag<V> transformWith(Function2<? super T, ? super P, ? extends V> function, P parameter)
+    {
+        return this.toHashBag().transformWith(function, parameter);
+    }
+
+    @Override
+    public <V> MutableBag<V> transformIf(Predicate<? super T> predicate, Function<? super T, ? extends V> function)
+    {
+        return this.toHashBag().transformIf(predicate, function);
+    }
+
+    @Override
+    public <V> MutableBag<V> flatTransform(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.toHashBag().flatTransform(function);
+    }
+
+    public <V> HashBagMultimap<V, T> groupBy(Function<? super T, ? extends V> function)
+    {
+        return this.toHashBag().groupBy(function);
+    }
+
+    public <V> HashBagMultimap<V, T> groupByEach(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.toHashBag().groupByEach(function);
+    }
+
+    public <S> MutableBag<Pair<T, S>> zip(Iterable<S> that)
+    {
+        return this.toHashBag().zip(that);
+    }
+
+    public MutableBag<Pair<T, Integer>> zipWithIndex()
+    {
+        return this.toHashBag().zipWithIndex();
+    }
+
+    @Override
+    public UnmodifiableBag<T> asUnmodifiable()
+    {
+        return UnmodifiableBag.of(this);
+    }
+
+    @Override
+    public SynchronizedBag<T> asSynchronized()
+    {
+        return new SynchronizedBag<T>(this);
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        if (!(other instanceof Bag))
+        {
+            return false;
+        }
+        Bag<?> bag = (Bag<?>) other;
+        Entries snapshot = this.snapshot();
+        if (snapshot.size != bag.sizeDistinct())
+        {
+            return false;
+        }
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            if (bag.occurrencesOf(toItem(snapshot.keys[i])) != snapshot.counts[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        Entries snapshot = this.snapshot();
+        int result = 0;
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            Object each = toItem(snapshot.keys[i]);
+            result += (each == null ? 0 : each.hashCode()) ^ snapshot.counts[i];
+        }
+        return result;
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        Entries snapshot = this.snapshot();
+        out.writeInt(snapshot.size);
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            out.writeObject(toItem(snapshot.keys[i]));
+            out.writeInt(snapshot.counts[i]);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        int size = in.readInt();
+        this.items = ConcurrentUnifiedMap.newMap(size);
+        for (int i = 0; i < size; i++)
+        {
+            this.addOccurrences((T) in.readObject(), in.readInt());
+        }
+    }
+
+    private final class SnapshotIterator implements Iterator<T>
+    {
+        private final Entries snapshot = ConcurrentHashBag.this.snapshot();
+        private int index;
+        private int remainingOccurrences;
+        private T current;
+        private boolean canRemove;
+
+        public boolean hasNext()
+        {
+            return this.remainingOccurrences > 0 || this.index < this.snapshot.size;
+        }
+
+        public T next()
+        {
+            if (this.remainingOccurrences == 0)
+            {
+                if (this.index == this.snapshot.size)
+                {
+                    throw new NoSuchElementException();
+                }
+                this.current = toItem(this.snapshot.keys[this.index]);
+                this.remainingOccurrences = this.snapshot.counts[this.index];
+                this.index++;
+            }
+            this.remainingOccurrences--;
+            this.canRemove = true;
+            return this.current;
+        }
+
+        public void remove()
+        {
+            if (!this.canRemove)
+            {
+                throw new IllegalStateException();
+            }
+            ConcurrentHashBag.this.remove(this.current);
+            this.canRemove = false;
+        }
+    }
+
+    /**
+     * The items and counts copied out of the map while the bag is held exclusively.  Counters which are empty or have
+     * been removed are skipped.
+     */
+    private static final class Entries implements Procedure2<Object, Occurrences>
+    {
+        private Object[] keys;
+        private Occurrences[] counters;
+        private int[] counts;
+        private int size;
+
+        private Entries(int initialCapacity)
+        {
+            int capacity = Math.max(initialCapacity, 4);
+            this.keys = new Object[capacity];
+            this.counters = new Occurrences[capacity];
+            this.counts = new int[capacity];
+        }
+
+        public void value(Object key, Occurrences counter)
+        {
+            int count = counter.get();
+            if (count > 0)
+            {
+                if (this.size == this.keys.length)
+                {
+                    int capacity = this.size << 1;
+                    this.keys = Arrays.copyOf(this.keys, capacity);
+                    this.counters = Arrays.copyOf(this.counters, capacity);
+                    this.counts = Arrays.copyOf(this.counts, capacity);
+                }
+                this.keys[this.size] = key;
+                this.counters[this.size] = counter;
+                this.counts[this.size] = count;
+                this.size++;
+            }
+        }
+    }
+
+    /**
+     * The count of one item.  It is a single int until a compare-and-set on it fails, after which each thread adds
+     * to the cell picked by its id and the count is the sum of the int and the cells.  A counter is marked as removed,
+     * while the bag is held exclusively, before it is taken out of the map, so an addition which looked it up just
+     * before can tell that it has to look the item up again.
+     */
+    private static final class Occurrences
+    {
+        private static final AtomicIntegerFieldUpdater<Occurrences> BASE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Occurrences.class, "base");
+
+        private static final AtomicReferenceFieldUpdater<Occurrences, AtomicIntegerArray> CELLS_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Occurrences.class, AtomicIntegerArray.class, "cells");
+
+        private volatile int base;
+
+        private volatile AtomicIntegerArray cells;
+
+        private volatile boolean removed;
+
+        private void add(int delta)
+        {
+            AtomicIntegerArray currentCells = this.cells;
+            if (currentCells == null)
+            {
+                int current = this.base;
+                if (BASE_UPDATER.compareAndSet(this, current, current + delta))
+                {
+                    return;
+                }
+                CELLS_UPDATER.compareAndSet(this, null, new AtomicIntegerArray((1 << OCCURRENCE_CELL_BITS) * SPACING));
+                currentCells = this.cells;
+            }
+            currentCells.addAndGet(indexForCurrentThread(OCCURRENCE_CELL_BITS), delta);
+        }
+
+        private int sum()
+        {
+            int result = this.base;
+            AtomicIntegerArray currentCells = this.cells;
+            if (currentCells != null)
+            {
+                for (int i = 0; i < currentCells.length(); i += SPACING)
+                {
+                    result += currentCells.get(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the count, or 0 once the counter has been removed.
+         */
+        private int get()
+        {
+            return this.removed ? 0 : this.sum();
+        }
+    }
+}
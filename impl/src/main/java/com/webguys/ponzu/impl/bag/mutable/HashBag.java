@@ -22,17 +22,14 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 
 import com.webguys.ponzu.api.bag.Bag;
 import com.webguys.ponzu.api.bag.ImmutableBag;
 import com.webguys.ponzu.api.bag.MutableBag;
 import com.webguys.ponzu.api.block.function.Function;
 import com.webguys.ponzu.api.block.function.Function2;
-import com.webguys.ponzu.api.block.function.Generator;
 import com.webguys.ponzu.api.block.predicate.Predicate;
 import com.webguys.ponzu.api.block.predicate.Predicate2;
 import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
@@ -52,12 +49,14 @@ import com.webguys.ponzu.impl.block.procedure.FlatTransformProcedure;
 import com.webguys.ponzu.impl.block.procedure.MultimapEachPutProcedure;
 import com.webguys.ponzu.impl.block.procedure.MultimapPutProcedure;
 import com.webguys.ponzu.impl.block.procedure.TransformProcedure;
-import com.webguys.ponzu.impl.block.procedure.checked.CheckedProcedure2;
+import com.webguys.ponzu.impl.block.procedure.checked.CheckedObjectIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
 import com.webguys.ponzu.impl.collection.mutable.AbstractMutableCollection;
 import com.webguys.ponzu.impl.collection.mutable.CollectionAdapter;
 import com.webguys.ponzu.impl.factory.Bags;
 import com.webguys.ponzu.impl.list.mutable.FastList;
 import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.map.mutable.primitive.ObjectIntHashMap;
 import com.webguys.ponzu.impl.multimap.bag.HashBagMultimap;
 import com.webguys.ponzu.impl.partition.bag.PartitionHashBag;
 import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
@@ -67,7 +66,8 @@ import com.webguys.ponzu.impl.utility.internal.SetIterate;
 
 /**
  * A HashBag is a MutableBag which uses a Map as it's underlying data store.  Each key in the Map represents some item,
- * and the value in the map represents the current number of occurrences of that item.
+ * and the value in the map represents the current number of occurrences of that item.  The counts are held as
+ * primitive ints in an {@link ObjectIntHashMap}, so there is no counter object per distinct item.
  *
  * @since 1.0
  */
@@ -75,26 +75,18 @@ public class HashBag<T>
         extends AbstractMutableCollection<T>
         implements Externalizable, MutableBag<T>
 {
-    private static final Generator<Counter> NEW_COUNTER_BLOCK = new Generator<Counter>()
-    {
-        public Counter value()
-        {
-            return new Counter();
-        }
-    };
-
     private static final long serialVersionUID = 1L;
 
-    private UnifiedMap<T, Counter> items;
+    private ObjectIntHashMap<T> items;
 
     public HashBag()
     {
-        this.items = UnifiedMap.newMap();
+        this.items = ObjectIntHashMap.newMap();
     }
 
     public HashBag(int size)
     {
-        this.items = UnifiedMap.newMap(size);
+        this.items = ObjectIntHashMap.newMap(size);
     }
 
     public static <E> HashBag<E> newBag()
@@ -114,7 +106,7 @@ public class HashBag<T>
 
     public static <E> HashBag<E> newBag(Bag<? extends E> source)
     {
-        final HashBag<E> result = HashBag.newBag();
+        final HashBag<E> result = HashBag.newBag(source.sizeDistinct());
         source.forEachWithOccurrences(new ObjectIntProcedure<E>()
         {
             public void value(E each, int index)
@@ -191,11 +183,11 @@ public class HashBag<T>
     @Override
     public void forEach(final Procedure<? super T> procedure)
     {
-        this.items.forEachKeyValue(new Procedure2<T, Counter>()
+        this.items.forEachKeyValue(new ObjectIntProcedure<T>()
         {
-            public void value(T key, Counter value)
+            public void value(T key, int count)
             {
-                for (int i = 0; i < value.getCount(); i++)
+                for (int i = 0; i < count; i++)
                 {
                     procedure.value(key);
                 }
@@ -207,11 +199,11 @@ public class HashBag<T>
     public void forEachWithIndex(final ObjectIntProcedure<? super T> objectIntProcedure)
     {
         final Counter index = new Counter();
-        this.items.forEachKeyValue(new Procedure2<T, Counter>()
+        this.items.forEachKeyValue(new ObjectIntProcedure<T>()
         {
-            public void value(T key, Counter value)
+            public void value(T key, int count)
             {
-                for (int i = 0; i < value.getCount(); i++)
+                for (int i = 0; i < count; i++)
                 {
                     objectIntProcedure.value(key, index.getCount());
                     index.increment();
@@ -223,11 +215,11 @@ public class HashBag<T>
     @Override
     public <P> void forEachWith(final Procedure2<? super T, ? super P> procedure, final P parameter)
     {
-        this.items.forEachKeyValue(new Procedure2<T, Counter>()
+        this.items.forEachKeyValue(new ObjectIntProcedure<T>()
         {
-            public void value(T key, Counter value)
+            public void value(T key, int count)
             {
-                for (int i = 0; i < value.getCount(); i++)
+                for (int i = 0; i < count; i++)
                 {
                     procedure.value(key, parameter);
                 }
@@ -330,9 +322,9 @@ public class HashBag<T>
             return false;
         }
 
-        for (Map.Entry<T, Counter> entry : this.items.entrySet())
+        for (T each : this.items.keySet())
         {
-            if (bag.occurrencesOf(entry.getKey()) != entry.getValue().getCount())
+            if (bag.occurrencesOf(each) != this.items.get(each))
             {
                 return false;
             }
@@ -425,8 +417,7 @@ public class HashBag<T>
 
     public int occurrencesOf(Object item)
     {
-        Counter counter = this.items.get(item);
-        return counter == null ? 0 : counter.getCount();
+        return this.items.get(item);
     }
 
     public void addOccurrences(T item, int occurrences)
@@ -437,24 +428,22 @@ public class HashBag<T>
         }
         if (occurrences > 0)
         {
-            this.items.getIfAbsentPut(item, NEW_COUNTER_BLOCK).add(occurrences);
+            this.items.addToValue(item, occurrences);
         }
     }
 
     @Override
     public boolean remove(Object item)
     {
-        Counter counter = this.items.get(item);
-        if (counter != null)
+        int count = this.items.get(item);
+        if (count > 1)
         {
-            if (counter.getCount() > 1)
-            {
-                counter.decrement();
-            }
-            else
-            {
-                this.items.remove(item);
-            }
+            this.items.addToValue((T) item, -1);
+            return true;
+        }
+        if (count == 1)
+        {
+            this.items.removeKey(item);
             return true;
         }
         return false;
@@ -472,49 +461,42 @@ public class HashBag<T>
             return false;
         }
 
-        Counter counter = this.items.get(item);
-        if (counter == null)
+        int start = this.items.get(item);
+        if (start == 0)
         {
             return false;
         }
-        int start = counter.getCount();
 
         if (occurrences >= start)
         {
-            this.items.remove(item);
+            this.items.removeKey(item);
             return true;
         }
 
-        counter.add(occurrences * -1);
+        this.items.addToValue((T) item, occurrences * -1);
         return true;
     }
 
     public void forEachWithOccurrences(final ObjectIntProcedure<? super T> objectIntProcedure)
     {
-        this.items.forEachKeyValue(new Procedure2<T, Counter>()
-        {
-            public void value(T item, Counter count)
-            {
-                objectIntProcedure.value(item, count.getCount());
-            }
-        });
+        this.items.forEachKeyValue(objectIntProcedure);
     }
 
     @Override
     public Iterator<T> iterator()
     {
-        return this.items.keyValuesView().flatTransform(new NCopiesFunction<T>()).iterator();
+        return new InternalIterator();
     }
 
     @Override
     public int size()
     {
         final Counter result = new Counter(0);
-        this.items.forEachValue(new Procedure<Counter>()
+        this.items.forEachValue(new IntProcedure()
         {
-            public void value(Counter each)
+            public void value(int each)
             {
-                result.add(each.getCount());
+                result.add(each);
             }
         });
         return result.getCount();
@@ -528,19 +510,58 @@ public class HashBag<T>
     @Override
     public boolean add(T item)
     {
-        Counter counter = this.items.getIfAbsentPut(item, NEW_COUNTER_BLOCK);
-        counter.increment();
+        this.items.addToValue(item, 1);
         return true;
     }
 
-    private class NCopiesFunction<T>
-            implements Function<Pair<T, Counter>, List<T>>
+    private class InternalIterator implements Iterator<T>
     {
-        private static final long serialVersionUID = 1L;
+        private final Iterator<Pair<T, Integer>> keyValueIterator = HashBag.this.items.keyValuesView().iterator();
+        private T currentItem;
+        private int currentOccurrences;
+        private int remainingOccurrences;
+        private boolean canRemove;
 
-        public List<T> valueOf(Pair<T, Counter> each)
+        public boolean hasNext()
         {
-            return Collections.nCopies(each.getTwo().getCount(), each.getOne());
+            return this.remainingOccurrences > 0 || this.keyValueIterator.hasNext();
+        }
+
+        public T next()
+        {
+            if (this.remainingOccurrences == 0)
+            {
+                if (!this.keyValueIterator.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                Pair<T, Integer> pair = this.keyValueIterator.next();
+                this.currentItem = pair.getOne();
+                this.currentOccurrences = pair.getTwo();
+                this.remainingOccurrences = this.currentOccurrences;
+            }
+            this.remainingOccurrences--;
+            this.canRemove = true;
+            return this.currentItem;
+        }
+
+        public void remove()
+        {
+            if (!this.canRemove)
+            {
+                throw new IllegalStateException();
+            }
+            if (this.currentOccurrences > 1)
+            {
+                HashBag.this.items.addToValue(this.currentItem, -1);
+            }
+            else
+            {
+                // removing a key only leaves a marker in its slot, so the iteration is not disturbed
+                HashBag.this.items.removeKey(this.currentItem);
+            }
+            this.currentOccurrences--;
+            this.canRemove = false;
         }
     }
 
@@ -601,13 +622,13 @@ public class HashBag<T>
         out.writeInt(this.items.size());
         try
         {
-            this.items.forEachKeyValue(new CheckedProcedure2<T, Counter>()
+            this.items.forEachKeyValue(new CheckedObjectIntProcedure<T>()
             {
                 @Override
-                public void safeValue(T object, Counter parameter) throws Exception
+                public void safeValue(T object, int count) throws Exception
                 {
                     out.writeObject(object);
-                    out.writeInt(parameter.getCount());
+                    out.writeInt(count);
                 }
             });
         }
@@ -624,7 +645,7 @@ public class HashBag<T>
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
     {
         int size = in.readInt();
-        this.items = UnifiedMap.newMap(size);
+        this.items = ObjectIntHashMap.newMap(size);
         for (int i = 0; i < size; i++)
         {
             this.addOccurrences((T) in.readObject(), in.readInt());
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.block.function.primitive;
+
+import java.io.Serializable;
+
+/**
+ * A DoubleToObjectFunction is used to convert a double primitive into an object, without boxing the double first.
+ *
+ * @since 1.3
+ */
+public interface DoubleToObjectFunction<V>
+        extends Serializable
+{
+    V valueOf(double each);
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.block.predicate.primitive;
+
+import java.io.Serializable;
+
+/**
+ * A Predicate that accepts a int value and an object, usually a key and its value in a primitive-keyed map.
+ *
+ * @since 1.3
+ */
+public interface IntObjectPredicate<T>
+        extends Serializable
+{
+    boolean accept(int each, T parameter);
+}
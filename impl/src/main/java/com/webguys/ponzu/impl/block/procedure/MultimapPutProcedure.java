@@ -50,4 +50,9 @@ public final class MultimapPutProcedure<K, V> implements Procedure<V>
     {
         this.multimap.put(this.keyFunction.valueOf(each), each);
     }
+
+    public MutableMultimap<K, V> getResult()
+    {
+        return this.multimap;
+    }
 }
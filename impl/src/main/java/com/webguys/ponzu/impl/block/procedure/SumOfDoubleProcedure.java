@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.block.procedure;
+
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * Applies a DoubleFunction to each object and adds the result to a running total using Kahan summation, so the
+ * rounding error does not grow with the number of values added.
+ *
+ * @since 1.3
+ */
+public class SumOfDoubleProcedure<T> implements Procedure<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final DoubleFunction<? super T> function;
+    private double result;
+    private double compensation;
+
+    public SumOfDoubleProcedure(DoubleFunction<? super T> function)
+    {
+        this.function = function;
+    }
+
+    public void value(T each)
+    {
+        double adjustedValue = this.function.doubleValueOf(each) - this.compensation;
+        double nextSum = this.result + adjustedValue;
+        this.compensation = nextSum - this.result - adjustedValue;
+        this.result = nextSum;
+    }
+
+    public double getResult()
+    {
+        return this.result;
+    }
+
+    /**
+     * Returns the low order bits lost from the result so far, to be subtracted when the result is combined with
+     * other partial sums.
+     */
+    public double getCompensation()
+    {
+        return this.compensation;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.block.procedure;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * Applies a LongFunction to each object and adds the result to a running long total.
+ *
+ * @since 1.3
+ */
+public class SumOfLongProcedure<T> implements Procedure<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final LongFunction<? super T> function;
+    private long result;
+
+    public SumOfLongProcedure(LongFunction<? super T> function)
+    {
+        this.function = function;
+    }
+
+    public void value(T each)
+    {
+        this.result += this.function.longValueOf(each);
+    }
+
+    public long getResult()
+    {
+        return this.result;
+    }
+}
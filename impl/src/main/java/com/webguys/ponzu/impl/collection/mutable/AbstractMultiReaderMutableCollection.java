@@ -49,9 +49,30 @@ import com.webguys.ponzu.api.tuple.Twin;
 /**
  * AbstractMultiReaderMutableCollection is a common abstraction that provides thread-safe collection behaviors.
  * Subclasses of this class must provide implementations of getDelegate() and getLock().
+ * <p/>
+ * If the lock is an {@link OptimisticReadWriteLock}, constant time reads which run no code passed in by the caller,
+ * such as size, isEmpty and getFirst, are first made without taking the read lock and are only repeated under it if a
+ * writer came in between.  Every other read takes the read lock, including contains, which may scan the collection and
+ * calls equals on the elements.
  */
 public abstract class AbstractMultiReaderMutableCollection<T> implements MutableCollection<T>
 {
+    private static final Function<MutableCollection<?>, Object> GET_FIRST = new Function<MutableCollection<?>, Object>()
+    {
+        public Object valueOf(MutableCollection<?> delegate)
+        {
+            return delegate.getFirst();
+        }
+    };
+
+    private static final Function<MutableCollection<?>, Object> GET_LAST = new Function<MutableCollection<?>, Object>()
+    {
+        public Object valueOf(MutableCollection<?> delegate)
+        {
+            return delegate.getLast();
+        }
+    };
+
     protected abstract MutableCollection<T> getDelegate();
 
     protected abstract ReadWriteLock getLock();
@@ -76,6 +97,61 @@ public abstract class AbstractMultiReaderMutableCollection<T> implements Mutable
         this.getLock().readLock().unlock();
     }
 
+    /**
+     * Returns a stamp for a read made without taking the read lock, or 0 if the read lock has to be taken because the
+     * lock is not an OptimisticReadWriteLock or a writer holds it.
+     */
+    protected long tryOptimisticRead()
+    {
+        ReadWriteLock lock = this.getLock();
+        return lock instanceof OptimisticReadWriteLock ? ((OptimisticReadWriteLock) lock).tryOptimisticRead() : 0L;
+    }
+
+    /**
+     * Returns true if no writer has taken the lock since the stamp was returned by tryOptimisticRead.
+     */
+    protected boolean validate(long stamp)
+    {
+        return ((OptimisticReadWriteLock) this.getLock()).validate(stamp);
+    }
+
+    /**
+     * Applies the read to the delegate, first without taking the read lock if the lock allows it, and again under the
+     * read lock if a writer came in while it ran.  The read must take constant time, must not run code passed in by the
+     * caller and must not change anything, since an optimistic attempt may see the delegate halfway through a write.
+     */
+    protected <R> R optimisticRead(Function<? super MutableCollection<T>, ? extends R> read)
+    {
+        long stamp = this.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            try
+            {
+                R result = read.valueOf(this.getDelegate());
+                if (this.validate(stamp))
+                {
+                    return result;
+                }
+            }
+            catch (RuntimeException e)
+            {
+                if (this.validate(stamp))
+                {
+                    throw e;
+                }
+            }
+        }
+        this.acquireReadLock();
+        try
+        {
+            return read.valueOf(this.getDelegate());
+        }
+        finally
+        {
+            this.unlockReadLock();
+        }
+    }
+
     protected void withReadLockRun(Runnable block)
     {
         this.acquireReadLock();
@@ -541,41 +617,17 @@ public abstract class AbstractMultiReaderMutableCollection<T> implements Mutable
 
     public T getFirst()
     {
-        this.acquireReadLock();
-        try
-        {
-            return this.getDelegate().getFirst();
-        }
-        finally
-        {
-            this.unlockReadLock();
-        }
+        return (T) this.optimisticRead(GET_FIRST);
     }
 
     public T getLast()
     {
-        this.acquireReadLock();
-        try
-        {
-            return this.getDelegate().getLast();
-        }
-        finally
-        {
-            this.unlockReadLock();
-        }
+        return (T) this.optimisticRead(GET_LAST);
     }
 
     public boolean notEmpty()
     {
-        this.acquireReadLock();
-        try
-        {
-            return this.getDelegate().notEmpty();
-        }
-        finally
-        {
-            this.unlockReadLock();
-        }
+        return this.size() != 0;
     }
 
     public <P> Twin<MutableList<T>> partitionWith(
@@ -867,15 +919,7 @@ public abstract class AbstractMultiReaderMutableCollection<T> implements Mutable
 
     public boolean isEmpty()
     {
-        this.acquireReadLock();
-        try
-        {
-            return this.getDelegate().isEmpty();
-        }
-        finally
-        {
-            this.unlockReadLock();
-        }
+        return this.size() == 0;
     }
 
     /**
@@ -980,6 +1024,15 @@ public abstract class AbstractMultiReaderMutableCollection<T> implements Mutable
 
     public int size()
     {
+        long stamp = this.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            int size = this.getDelegate().size();
+            if (this.validate(stamp))
+            {
+                return size;
+            }
+        }
         this.acquireReadLock();
         try
         {
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.collection.mutable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * An OptimisticReadWriteLock is a ReentrantReadWriteLock which also lets short reads go ahead without taking any lock
+ * at all.  It keeps a sequence number which is odd while the write lock is held and moves on every time the write
+ * lock is taken or released.  A reader takes a stamp with {@link #tryOptimisticRead()}, reads, and then checks with
+ * {@link #validate(long)} that no writer came in between; if one did, or the write lock was held to begin with, it
+ * reads again under the read lock.  Optimistic readers only ever read the sequence number, so unlike the read lock they
+ * do not write to a cache line shared with every other reader.
+ * <p/>
+ * A read made under a stamp may see the guarded data in the middle of a change, so it must not loop forever or
+ * have side effects on data it has not validated yet, and it may throw, in which case the exception only counts if
+ * the stamp is still valid.  Long scans, and anything which runs code passed in by the caller, should take the read
+ * lock instead.
+ * <p/>
+ * While a writer waits on a {@link Condition} of the write lock the sequence stays odd, so optimistic readers fall back
+ * to the read lock until the writer has taken the lock back and released it.
+ *
+ * @see AbstractMultiReaderMutableCollection
+ * @since 1.3
+ */
+@ThreadSafe
+public final class OptimisticReadWriteLock implements ReadWriteLock
+{
+    private static final int FENCE_STRIPES = 64;
+
+    /**
+     * The distance between two fence stripes, so that each stripe sits on its own cache line.
+     */
+    private static final int FENCE_STRIPE_SPACING = 16;
+
+    /**
+     * Written to by validate.  A volatile write keeps the reads made under a stamp from being reordered after the
+     * sequence number is read again, which a plain volatile read does not do on its own; the writes are striped by
+     * thread so that readers do not contend on them.
+     */
+    private static final AtomicIntegerArray FENCES = new AtomicIntegerArray(FENCE_STRIPES * FENCE_STRIPE_SPACING);
+
+    private final ReentrantReadWriteLock lock;
+    private final Lock writeLock;
+    private final AtomicLong sequence = new AtomicLong(2L);
+
+    public OptimisticReadWriteLock()
+    {
+        this(false);
+    }
+
+    public OptimisticReadWriteLock(boolean fair)
+    {
+        this.lock = new ReentrantReadWriteLock(fair);
+        this.writeLock = new WriteLock();
+    }
+
+    public Lock readLock()
+    {
+        return this.lock.readLock();
+    }
+
+    /**
+     * Returns the write lock.  Taking it for the first time on a thread, and releasing it for the last time, moves the
+     * sequence number on, which invalidates every outstanding stamp.
+     */
+    public Lock writeLock()
+    {
+        return this.writeLock;
+    }
+
+    /**
+     * Returns a stamp to validate an optimistic read against later, or 0 if the write lock is held.
+     */
+    public long tryOptimisticRead()
+    {
+        long stamp = this.sequence.get();
+        return (stamp & 1L) == 0L ? stamp : 0L;
+    }
+
+    /**
+     * Returns true if the write lock has not been taken since the stamp was returned by tryOptimisticRead.  Always
+     * returns false for a stamp of 0.
+     */
+    public boolean validate(long stamp)
+    {
+        long id = Thread.currentThread().getId();
+        FENCES.set(((int) (id ^ id >>> 32) & FENCE_STRIPES - 1) * FENCE_STRIPE_SPACING, 0);
+        return stamp != 0L && this.sequence.get() == stamp;
+    }
+
+    public boolean isWriteLocked()
+    {
+        return this.lock.isWriteLocked();
+    }
+
+    @Override
+    public String toString()
+    {
+        return super.toString() + "[sequence = " + this.sequence.get() + ", " + this.lock + ']';
+    }
+
+    private final class WriteLock implements Lock
+    {
+        private final Lock delegate = OptimisticReadWriteLock.this.lock.writeLock();
+
+        public void lock()
+        {
+            this.delegate.lock();
+            this.acquired();
+        }
+
+        public void lockInterruptibly() throws InterruptedException
+        {
+            this.delegate.lockInterruptibly();
+            this.acquired();
+        }
+
+        public boolean tryLock()
+        {
+            if (this.delegate.tryLock())
+            {
+                this.acquired();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+        {
+            if (this.delegate.tryLock(time, unit))
+            {
+                this.acquired();
+                return true;
+            }
+            return false;
+        }
+
+        public void unlock()
+        {
+            if (OptimisticReadWriteLock.this.lock.getWriteHoldCount() == 1)
+            {
+                OptimisticReadWriteLock.this.sequence.incrementAndGet();
+            }
+            this.delegate.unlock();
+        }
+
+        public Condition newCondition()
+        {
+            return this.delegate.newCondition();
+        }
+
+        private void acquired()
+        {
+            if (OptimisticReadWriteLock.this.lock.getWriteHoldCount() == 1)
+            {
+                OptimisticReadWriteLock.this.sequence.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.factory;
+
+import com.webguys.ponzu.impl.list.primitive.ImmutableDoubleListFactory;
+import com.webguys.ponzu.impl.list.primitive.MutableDoubleListFactory;
+
+/**
+ * The primitive double counterpart of {@link Lists}.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("ConstantNamingConvention")
+public final class DoubleLists
+{
+    public static final ImmutableDoubleListFactory immutable = new ImmutableDoubleListFactory();
+    public static final MutableDoubleListFactory mutable = new MutableDoubleListFactory();
+
+    private DoubleLists()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.factory;
+
+import com.webguys.ponzu.impl.set.primitive.IntSet;
+import com.webguys.ponzu.impl.set.primitive.MutableIntSet;
+import com.webguys.ponzu.impl.set.primitive.MutableIntSetFactory;
+
+/**
+ * The primitive int counterpart of {@link Sets}, including its set algebra operations.  None of the operations
+ * modify their input sets.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("ConstantNamingConvention")
+public final class IntSets
+{
+    public static final MutableIntSetFactory mutable = new MutableIntSetFactory();
+
+    private IntSets()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+
+    public static MutableIntSet union(IntSet setA, IntSet setB)
+    {
+        MutableIntSet result = mutable.ofAll(setA);
+        result.addAll(setB);
+        return result;
+    }
+
+    public static MutableIntSet intersect(IntSet setA, IntSet setB)
+    {
+        MutableIntSet result = mutable.ofAll(setA);
+        result.retainAll(setB);
+        return result;
+    }
+
+    public static MutableIntSet difference(IntSet minuendSet, IntSet subtrahendSet)
+    {
+        MutableIntSet result = mutable.ofAll(minuendSet);
+        result.removeAll(subtrahendSet);
+        return result;
+    }
+
+    public static MutableIntSet symmetricDifference(IntSet setA, IntSet setB)
+    {
+        return difference(setA, setB).withAll(difference(setB, setA));
+    }
+
+    public static boolean isSubsetOf(IntSet candidateSubset, IntSet candidateSuperset)
+    {
+        return candidateSubset.isSubsetOf(candidateSuperset);
+    }
+
+    public static boolean isProperSubsetOf(IntSet candidateSubset, IntSet candidateSuperset)
+    {
+        return candidateSubset.isProperSubsetOf(candidateSuperset);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.factory;
+
+import com.webguys.ponzu.impl.set.primitive.LongSet;
+import com.webguys.ponzu.impl.set.primitive.MutableLongSet;
+import com.webguys.ponzu.impl.set.primitive.MutableLongSetFactory;
+
+/**
+ * The primitive long counterpart of {@link Sets}, including its set algebra operations.  None of the operations
+ * modify their input sets.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("ConstantNamingConvention")
+public final class LongSets
+{
+    public static final MutableLongSetFactory mutable = new MutableLongSetFactory();
+
+    private LongSets()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+
+    public static MutableLongSet union(LongSet setA, LongSet setB)
+    {
+        MutableLongSet result = mutable.ofAll(setA);
+        result.addAll(setB);
+        return result;
+    }
+
+    public static MutableLongSet intersect(LongSet setA, LongSet setB)
+    {
+        MutableLongSet result = mutable.ofAll(setA);
+        result.retainAll(setB);
+        return result;
+    }
+
+    public static MutableLongSet difference(LongSet minuendSet, LongSet subtrahendSet)
+    {
+        MutableLongSet result = mutable.ofAll(minuendSet);
+        result.removeAll(subtrahendSet);
+        return result;
+    }
+
+    public static MutableLongSet symmetricDifference(LongSet setA, LongSet setB)
+    {
+        return difference(setA, setB).withAll(difference(setB, setA));
+    }
+
+    public static boolean isSubsetOf(LongSet candidateSubset, LongSet candidateSuperset)
+    {
+        return candidateSubset.isSubsetOf(candidateSuperset);
+    }
+
+    public static boolean isProperSubsetOf(LongSet candidateSubset, LongSet candidateSuperset)
+    {
+        return candidateSubset.isProperSubsetOf(candidateSuperset);
+    }
+}
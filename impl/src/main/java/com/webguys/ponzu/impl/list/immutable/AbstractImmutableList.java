@@ -156,6 +156,13 @@ abstract class AbstractImmutableList<T> extends AbstractImmutableCollection<T>
         return this;
     }
 
+    public ImmutableList<T> newWithSet(int index, T element)
+    {
+        T[] array = (T[]) this.toArray();
+        array[index] = element;
+        return Lists.immutable.of(array);
+    }
+
     public ImmutableList<T> newWithAll(Iterable<? extends T> elements)
     {
         final int oldSize = this.size();
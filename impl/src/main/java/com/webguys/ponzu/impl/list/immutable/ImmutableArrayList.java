@@ -237,6 +237,10 @@ final class ImmutableArrayList<T>
         T[] array = (T[]) new Object[oldSize + 1];
         this.toArray(array);
         array[oldSize] = newItem;
+        if (array.length > ImmutableTreeList.THRESHOLD)
+        {
+            return ImmutableTreeList.newListWith(array);
+        }
         return new ImmutableArrayList<T>(array);
     }
 }
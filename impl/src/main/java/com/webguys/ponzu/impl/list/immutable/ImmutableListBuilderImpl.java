@@ -0,0 +1,164 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.immutable;
+
+import java.util.Arrays;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.ImmutableListBuilder;
+import com.webguys.ponzu.impl.factory.Lists;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Fills fixed-size leaves which become the leaves of an {@link ImmutableTreeList} when the list is built, so large
+ * lists are never copied.  Lists of up to ImmutableTreeList.THRESHOLD elements are copied into the usual small
+ * immutable lists instead.  Merging joins the trees of the two builders in O(log n).
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+final class ImmutableListBuilderImpl<T> implements ImmutableListBuilder<T>
+{
+    private static final int WIDTH = ImmutableTreeList.WIDTH;
+
+    /**
+     * The elements merged in from other builders, which come before the leaves.
+     */
+    private ImmutableTreeList<T> prefix;
+    private Object[] leaves;
+    private int leafCount;
+    private Object[] leaf;
+    private int leafSize;
+    private boolean finished;
+
+    ImmutableListBuilderImpl(int expectedSize)
+    {
+        this.leaves = new Object[expectedSize / WIDTH];
+        this.leaf = new Object[Math.min(expectedSize, WIDTH)];
+    }
+
+    public ImmutableListBuilder<T> add(T element)
+    {
+        this.checkNotFinished();
+        if (this.leafSize == this.leaf.length)
+        {
+            this.growLeaf();
+        }
+        this.leaf[this.leafSize++] = element;
+        return this;
+    }
+
+    public ImmutableListBuilder<T> addAll(Iterable<? extends T> elements)
+    {
+        for (T each : elements)
+        {
+            this.add(each);
+        }
+        return this;
+    }
+
+    private void growLeaf()
+    {
+        if (this.leaf.length < WIDTH)
+        {
+            this.leaf = Arrays.copyOf(this.leaf, Math.min(Math.max(this.leaf.length << 1, 4), WIDTH));
+            return;
+        }
+        if (this.leafCount == this.leaves.length)
+        {
+            this.leaves = Arrays.copyOf(this.leaves, Math.max(this.leaves.length << 1, 4));
+        }
+        this.leaves[this.leafCount++] = this.leaf;
+        this.leaf = new Object[WIDTH];
+        this.leafSize = 0;
+    }
+
+    public ImmutableListBuilder<T> merge(ImmutableListBuilder<T> other)
+    {
+        ImmutableListBuilderImpl<T> that = (ImmutableListBuilderImpl<T>) other;
+        if (that == this)
+        {
+            throw new IllegalArgumentException("Cannot merge a builder into itself");
+        }
+        this.checkNotFinished();
+        that.checkNotFinished();
+        that.finished = true;
+        if (that.prefix == null && that.leafCount == 0)
+        {
+            for (int i = 0; i < that.leafSize; i++)
+            {
+                this.add((T) that.leaf[i]);
+            }
+            return this;
+        }
+        this.prefix = (ImmutableTreeList<T>) this.toTreeList().newWithAll(that.toTreeList());
+        this.leaves = new Object[0];
+        this.leafCount = 0;
+        this.leaf = new Object[WIDTH];
+        this.leafSize = 0;
+        return this;
+    }
+
+    public int size()
+    {
+        int prefixSize = this.prefix == null ? 0 : this.prefix.size();
+        return prefixSize + this.leafCount * WIDTH + this.leafSize;
+    }
+
+    public ImmutableList<T> build()
+    {
+        this.checkNotFinished();
+        this.finished = true;
+        int size = this.size();
+        if (size > ImmutableTreeList.THRESHOLD)
+        {
+            return this.toTreeList();
+        }
+        Object[] array = new Object[size];
+        int index = 0;
+        if (this.prefix != null)
+        {
+            this.prefix.toArray(array);
+            index = this.prefix.size();
+        }
+        for (int i = 0; i < this.leafCount; i++)
+        {
+            System.arraycopy(this.leaves[i], 0, array, index, WIDTH);
+            index += WIDTH;
+        }
+        System.arraycopy(this.leaf, 0, array, index, this.leafSize);
+        return Lists.immutable.of((T[]) array);
+    }
+
+    private ImmutableTreeList<T> toTreeList()
+    {
+        Object[] fullLeaves = this.leafCount == this.leaves.length
+                ? this.leaves
+                : Arrays.copyOf(this.leaves, this.leafCount);
+        Object[] tail = this.leafSize == this.leaf.length ? this.leaf : Arrays.copyOf(this.leaf, this.leafSize);
+        ImmutableTreeList<T> list = ImmutableTreeList.newListFromLeaves(fullLeaves, tail);
+        return this.prefix == null ? list : (ImmutableTreeList<T>) this.prefix.newWithAll(list);
+    }
+
+    private void checkNotFinished()
+    {
+        if (this.finished)
+        {
+            throw new IllegalStateException("The builder has already been built or merged into another");
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.webguys.ponzu.impl.list.immutable;
 
 import com.webguys.ponzu.api.factory.list.ImmutableListFactory;
 import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.ImmutableListBuilder;
 import com.webguys.ponzu.impl.utility.Iterate;
 
 public final class ImmutableListFactoryImpl implements ImmutableListFactory
@@ -108,6 +109,10 @@ public final class ImmutableListFactoryImpl implements ImmutableListFactory
                 return this.of(items[0], items[1], items[2], items[3], items[4], items[5], items[6], items[7], items[8], items[9]);
 
             default:
+                if (items.length > ImmutableTreeList.THRESHOLD)
+                {
+                    return ImmutableTreeList.newListWith(items);
+                }
                 return ImmutableArrayList.newListWith(items);
         }
     }
@@ -121,4 +126,9 @@ public final class ImmutableListFactoryImpl implements ImmutableListFactory
 
         return this.of((T[]) Iterate.toArray(items));
     }
+
+    public <T> ImmutableListBuilder<T> builder(int expectedSize)
+    {
+        return new ImmutableListBuilderImpl<T>(expectedSize);
+    }
 }
@@ -0,0 +1,718 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.immutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableTreeList is a persistent list stored as a 32-way balanced tree.  Each branch keeps the cumulative sizes
+ * of its children, so the tree is relaxed radix-balanced: an index is looked up by guessing the child from its radix
+ * digit and stepping forward over the size table, which is exact wherever the children are full.  Every node other than
+ * the root holds between 16 and 32 entries and all leaves are at the same depth.
+ * <p/>
+ * The last elements are kept outside the tree in a tail of up to 32, so newWith copies at most the tail and pushes a
+ * full leaf into the tree once every 32 calls.  newWithSet and newWithout copy only the path to the index, and
+ * newWithAll of another ImmutableTreeList and subList join and split trees along a single path, so all of them are
+ * O(log n) in time and allocation.
+ * <p/>
+ * get is O(log n) rather than O(1), so ImmutableListFactoryImpl uses ImmutableArrayList for lists of up to
+ * {@link #THRESHOLD} elements.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableTreeList<T>
+        extends AbstractImmutableList<T>
+        implements Serializable
+{
+    /**
+     * The largest list which ImmutableListFactoryImpl builds as an array.
+     */
+    static final int THRESHOLD = 128;
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 5;
+
+    /**
+     * The size of a full leaf.
+     */
+    static final int WIDTH = 1 << SHIFT;
+
+    private static final int MIN_WIDTH = WIDTH >> 1;
+
+    private static final Object[] EMPTY_ARRAY = {};
+    private static final Tree EMPTY_TREE = new Tree(null, 0);
+
+    private final Object root;
+    private final int height;
+    private final int treeSize;
+    private final Object[] tail;
+
+    private ImmutableTreeList(Tree tree, Object[] tail)
+    {
+        this.root = tree.node;
+        this.height = tree.height;
+        this.treeSize = tree.size();
+        this.tail = tail;
+    }
+
+    public static <E> ImmutableTreeList<E> newList(Iterable<? extends E> iterable)
+    {
+        return ImmutableTreeList.build(Iterate.toArray(iterable));
+    }
+
+    public static <E> ImmutableTreeList<E> newListWith(E... elements)
+    {
+        return ImmutableTreeList.build(elements);
+    }
+
+    /**
+     * Packs the elements into full leaves, leaving the remainder as the tail.
+     */
+    private static <E> ImmutableTreeList<E> build(Object[] items)
+    {
+        int tailLength = items.length % WIDTH;
+        int treeLength = items.length - tailLength;
+        Object[] tail = tailLength == 0 ? EMPTY_ARRAY : Arrays.copyOfRange(items, treeLength, items.length);
+        Object[] leaves = new Object[treeLength / WIDTH];
+        for (int i = 0; i < leaves.length; i++)
+        {
+            leaves[i] = Arrays.copyOfRange(items, i * WIDTH, i * WIDTH + WIDTH);
+        }
+        return ImmutableTreeList.newListFromLeaves(leaves, tail);
+    }
+
+    /**
+     * Builds the branches bottom up over full leaves, adopting the leaves and the tail without copying them.
+     */
+    static <E> ImmutableTreeList<E> newListFromLeaves(Object[] leaves, Object[] tail)
+    {
+        if (leaves.length == 0)
+        {
+            return new ImmutableTreeList<E>(EMPTY_TREE, tail);
+        }
+        Object[] level = leaves;
+        int height = 0;
+        while (level.length > 1)
+        {
+            Object[] parents = new Object[(level.length + WIDTH - 1) / WIDTH];
+            for (int i = 0; i < parents.length; i++)
+            {
+                int from = i * WIDTH;
+                int to = Math.min(from + WIDTH, level.length);
+                if (i == parents.length - 2 && level.length - to < MIN_WIDTH)
+                {
+                    // Share the last two groups evenly rather than leave the last one underfull
+                    to = from + (level.length - from) / 2;
+                    parents[i] = branch(Arrays.copyOfRange(level, from, to), height);
+                    parents[i + 1] = branch(Arrays.copyOfRange(level, to, level.length), height);
+                    break;
+                }
+                parents[i] = branch(Arrays.copyOfRange(level, from, to), height);
+            }
+            level = parents;
+            height++;
+        }
+        return new ImmutableTreeList<E>(new Tree(level[0], height), tail);
+    }
+
+    public int size()
+    {
+        return this.treeSize + this.tail.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    @Override
+    public T get(int index)
+    {
+        if (index < 0 || index >= this.size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size());
+        }
+        if (index >= this.treeSize)
+        {
+            return (T) this.tail[index - this.treeSize];
+        }
+        Object node = this.root;
+        int localIndex = index;
+        for (int h = this.height; h > 0; h--)
+        {
+            Branch branch = (Branch) node;
+            int child = branch.childIndex(localIndex, h);
+            localIndex -= branch.offset(child);
+            node = branch.children[child];
+        }
+        return (T) ((Object[]) node)[localIndex];
+    }
+
+    public ImmutableList<T> newWith(T element)
+    {
+        int tailLength = this.tail.length;
+        if (tailLength < WIDTH)
+        {
+            Object[] newTail = new Object[tailLength + 1];
+            System.arraycopy(this.tail, 0, newTail, 0, tailLength);
+            newTail[tailLength] = element;
+            return new ImmutableTreeList<T>(this.tree(), newTail);
+        }
+        return new ImmutableTreeList<T>(joinTrees(this.tree(), new Tree(this.tail, 0)), new Object[]{element});
+    }
+
+    @Override
+    public ImmutableList<T> newWithSet(int index, T element)
+    {
+        if (index < 0 || index >= this.size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size());
+        }
+        if (index >= this.treeSize)
+        {
+            Object[] newTail = this.tail.clone();
+            newTail[index - this.treeSize] = element;
+            return new ImmutableTreeList<T>(this.tree(), newTail);
+        }
+        Object newRoot = setInNode(this.root, this.height, index, element);
+        return new ImmutableTreeList<T>(new Tree(newRoot, this.height), this.tail);
+    }
+
+    @Override
+    public ImmutableList<T> newWithout(T element)
+    {
+        int index = this.indexOf(element);
+        if (index < 0)
+        {
+            return this;
+        }
+        if (index >= this.treeSize)
+        {
+            int tailIndex = index - this.treeSize;
+            Object[] newTail = new Object[this.tail.length - 1];
+            System.arraycopy(this.tail, 0, newTail, 0, tailIndex);
+            System.arraycopy(this.tail, tailIndex + 1, newTail, tailIndex, newTail.length - tailIndex);
+            return new ImmutableTreeList<T>(this.tree(), newTail);
+        }
+        Tree tree = this.tree();
+        return new ImmutableTreeList<T>(joinTrees(take(tree, index), drop(tree, index + 1)), this.tail);
+    }
+
+    @Override
+    public ImmutableList<T> newWithAll(Iterable<? extends T> elements)
+    {
+        ImmutableTreeList<T> other = elements instanceof ImmutableTreeList
+                ? (ImmutableTreeList<T>) elements
+                : ImmutableTreeList.<T>newList(elements);
+        if (other.isEmpty())
+        {
+            return this;
+        }
+        if (other.treeSize == 0 && this.tail.length + other.tail.length <= WIDTH)
+        {
+            Object[] newTail = new Object[this.tail.length + other.tail.length];
+            System.arraycopy(this.tail, 0, newTail, 0, this.tail.length);
+            System.arraycopy(other.tail, 0, newTail, this.tail.length, other.tail.length);
+            return new ImmutableTreeList<T>(this.tree(), newTail);
+        }
+        return new ImmutableTreeList<T>(joinTrees(this.flattenedTree(), other.tree()), other.tail);
+    }
+
+    /**
+     * Returns the elements from fromIndex, inclusive, to toIndex, exclusive, as another ImmutableTreeList which shares
+     * all but O(log n) of its nodes with this one.
+     */
+    @Override
+    public List<T> subList(int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0)
+        {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        }
+        if (toIndex > this.size())
+        {
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        }
+        if (fromIndex > toIndex)
+        {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ')');
+        }
+        Tree tree = this.flattenedTree();
+        return new ImmutableTreeList<T>(drop(take(tree, toIndex), fromIndex), EMPTY_ARRAY);
+    }
+
+    @Override
+    public int indexOf(Object object)
+    {
+        int index = 0;
+        for (Iterator<T> iterator = this.iterator(); iterator.hasNext(); index++)
+        {
+            if (Comparators.nullSafeEquals(iterator.next(), object))
+            {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public void forEach(Procedure<? super T> procedure)
+    {
+        if (this.root != null)
+        {
+            forEachInNode(this.root, this.height, (Procedure<Object>) procedure);
+        }
+        for (Object each : this.tail)
+        {
+            procedure.value((T) each);
+        }
+    }
+
+    @Override
+    public void forEachWithIndex(ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        int index = 0;
+        for (Iterator<T> iterator = this.iterator(); iterator.hasNext(); index++)
+        {
+            objectIntProcedure.value(iterator.next(), index);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new LeafIterator();
+    }
+
+    private Tree tree()
+    {
+        return this.root == null ? EMPTY_TREE : new Tree(this.root, this.height);
+    }
+
+    /**
+     * Returns the tree with the tail joined on as its last leaf.
+     */
+    private Tree flattenedTree()
+    {
+        return this.tail.length == 0 ? this.tree() : joinTrees(this.tree(), new Tree(this.tail, 0));
+    }
+
+    private Object[] leafFor(int index)
+    {
+        if (index >= this.treeSize)
+        {
+            return this.tail;
+        }
+        Object node = this.root;
+        int localIndex = index;
+        for (int h = this.height; h > 0; h--)
+        {
+            Branch branch = (Branch) node;
+            int child = branch.childIndex(localIndex, h);
+            localIndex -= branch.offset(child);
+            node = branch.children[child];
+        }
+        return (Object[]) node;
+    }
+
+    private Object writeReplace()
+    {
+        return new ImmutableTreeListSerializationProxy<T>(this);
+    }
+
+    private static int sizeOf(Object node, int height)
+    {
+        if (height == 0)
+        {
+            return ((Object[]) node).length;
+        }
+        int[] sizes = ((Branch) node).sizes;
+        return sizes[sizes.length - 1];
+    }
+
+    private static Branch branch(Object[] children, int childHeight)
+    {
+        int[] sizes = new int[children.length];
+        int total = 0;
+        for (int i = 0; i < children.length; i++)
+        {
+            total += sizeOf(children[i], childHeight);
+            sizes[i] = total;
+        }
+        return new Branch(children, sizes);
+    }
+
+    private static Object[] entries(Object node, int height)
+    {
+        return height == 0 ? (Object[]) node : ((Branch) node).children;
+    }
+
+    private static Object nodeOf(Object[] entries, int height)
+    {
+        return height == 0 ? entries : branch(entries, height - 1);
+    }
+
+    private static Object setInNode(Object node, int height, int index, Object element)
+    {
+        if (height == 0)
+        {
+            Object[] leaf = ((Object[]) node).clone();
+            leaf[index] = element;
+            return leaf;
+        }
+        Branch branch = (Branch) node;
+        int child = branch.childIndex(index, height);
+        Object[] children = branch.children.clone();
+        children[child] = setInNode(children[child], height - 1, index - branch.offset(child), element);
+        return new Branch(children, branch.sizes);
+    }
+
+    private static void forEachInNode(Object node, int height, Procedure<Object> procedure)
+    {
+        if (height == 0)
+        {
+            for (Object each : (Object[]) node)
+            {
+                procedure.value(each);
+            }
+        }
+        else
+        {
+            for (Object child : ((Branch) node).children)
+            {
+                forEachInNode(child, height - 1, procedure);
+            }
+        }
+    }
+
+    /**
+     * Concatenates two trees.  Only the nodes along the right edge of the first tree and the left edge of the second,
+     * down to the height of the shorter one, are copied.
+     */
+    private static Tree joinTrees(Tree left, Tree right)
+    {
+        if (left.node == null)
+        {
+            return right;
+        }
+        if (right.node == null)
+        {
+            return left;
+        }
+        Object[] nodes = join(left.node, left.height, right.node, right.height);
+        int height = Math.max(left.height, right.height);
+        if (nodes.length == 1)
+        {
+            return new Tree(nodes[0], height);
+        }
+        return new Tree(branch(nodes, height), height + 1);
+    }
+
+    /**
+     * Returns one or two nodes of the height of the taller argument.  The shorter tree is joined with the edge node of
+     * the taller one at its own height, and any overflow is split on the way back up.
+     */
+    private static Object[] join(Object left, int leftHeight, Object right, int rightHeight)
+    {
+        if (leftHeight == rightHeight)
+        {
+            return joinNodes(left, right, leftHeight);
+        }
+        if (leftHeight > rightHeight)
+        {
+            Object[] children = ((Branch) left).children;
+            int last = children.length - 1;
+            Object[] joined = join(children[last], leftHeight - 1, right, rightHeight);
+            Object[] newChildren = new Object[last + joined.length];
+            System.arraycopy(children, 0, newChildren, 0, last);
+            System.arraycopy(joined, 0, newChildren, last, joined.length);
+            return branches(newChildren, leftHeight - 1);
+        }
+        Object[] children = ((Branch) right).children;
+        Object[] joined = join(left, leftHeight, children[0], rightHeight - 1);
+        Object[] newChildren = new Object[children.length - 1 + joined.length];
+        System.arraycopy(joined, 0, newChildren, 0, joined.length);
+        System.arraycopy(children, 1, newChildren, joined.length, children.length - 1);
+        return branches(newChildren, rightHeight - 1);
+    }
+
+    /**
+     * Joins two nodes of the same height, either of which may be a root with fewer than MIN_WIDTH entries.
+     */
+    private static Object[] joinNodes(Object left, Object right, int height)
+    {
+        Object[] leftEntries = entries(left, height);
+        Object[] rightEntries = entries(right, height);
+        if (leftEntries.length >= MIN_WIDTH && rightEntries.length >= MIN_WIDTH)
+        {
+            return new Object[]{left, right};
+        }
+        int total = leftEntries.length + rightEntries.length;
+        Object[] all = new Object[total];
+        System.arraycopy(leftEntries, 0, all, 0, leftEntries.length);
+        System.arraycopy(rightEntries, 0, all, leftEntries.length, rightEntries.length);
+        if (total <= WIDTH)
+        {
+            return new Object[]{nodeOf(all, height)};
+        }
+        int half = total >>> 1;
+        return new Object[]{
+                nodeOf(Arrays.copyOfRange(all, 0, half), height),
+                nodeOf(Arrays.copyOfRange(all, half, total), height)};
+    }
+
+    private static Object[] branches(Object[] children, int childHeight)
+    {
+        if (children.length <= WIDTH)
+        {
+            return new Object[]{branch(children, childHeight)};
+        }
+        int half = children.length >>> 1;
+        return new Object[]{
+                branch(Arrays.copyOfRange(children, 0, half), childHeight),
+                branch(Arrays.copyOfRange(children, half, children.length), childHeight)};
+    }
+
+    /**
+     * Returns the first count elements of the tree.
+     */
+    private static Tree take(Tree tree, int count)
+    {
+        if (count == 0)
+        {
+            return EMPTY_TREE;
+        }
+        if (count == tree.size())
+        {
+            return tree;
+        }
+        return takeFromNode(tree.node, tree.height, count);
+    }
+
+    private static Tree takeFromNode(Object node, int height, int count)
+    {
+        if (height == 0)
+        {
+            return new Tree(Arrays.copyOf((Object[]) node, count), 0);
+        }
+        Branch branch = (Branch) node;
+        int child = branch.childIndex(count - 1, height);
+        int childCount = count - branch.offset(child);
+        Tree piece = childCount == branch.sizes[child] - branch.offset(child)
+                ? new Tree(branch.children[child], height - 1)
+                : takeFromNode(branch.children[child], height - 1, childCount);
+        return joinTrees(branch.subTree(0, child, height), piece);
+    }
+
+    /**
+     * Returns the tree without its first count elements.
+     */
+    private static Tree drop(Tree tree, int count)
+    {
+        if (count == 0)
+        {
+            return tree;
+        }
+        if (count == tree.size())
+        {
+            return EMPTY_TREE;
+        }
+        return dropFromNode(tree.node, tree.height, count);
+    }
+
+    private static Tree dropFromNode(Object node, int height, int count)
+    {
+        if (height == 0)
+        {
+            Object[] leaf = (Object[]) node;
+            return new Tree(Arrays.copyOfRange(leaf, count, leaf.length), 0);
+        }
+        Branch branch = (Branch) node;
+        int child = branch.childIndex(count, height);
+        int childCount = count - branch.offset(child);
+        Tree piece = childCount == 0
+                ? new Tree(branch.children[child], height - 1)
+                : dropFromNode(branch.children[child], height - 1, childCount);
+        return joinTrees(piece, branch.subTree(child + 1, branch.children.length, height));
+    }
+
+    private static final class Tree
+    {
+        private final Object node;
+        private final int height;
+
+        private Tree(Object node, int height)
+        {
+            this.node = node;
+            this.height = height;
+        }
+
+        private int size()
+        {
+            return this.node == null ? 0 : sizeOf(this.node, this.height);
+        }
+    }
+
+    private static final class Branch
+    {
+        private final Object[] children;
+
+        /**
+         * The cumulative sizes of the children.
+         */
+        private final int[] sizes;
+
+        private Branch(Object[] children, int[] sizes)
+        {
+            this.children = children;
+            this.sizes = sizes;
+        }
+
+        /**
+         * Returns the child holding the index.  A child at this height holds at most 32^height elements, so the radix
+         * digit of the index is never past the right child, and is the right child when the earlier ones are full.
+         */
+        private int childIndex(int index, int height)
+        {
+            int shift = SHIFT * height;
+            int child = shift < Integer.SIZE ? index >>> shift : 0;
+            while (this.sizes[child] <= index)
+            {
+                child++;
+            }
+            return child;
+        }
+
+        private int offset(int child)
+        {
+            return child == 0 ? 0 : this.sizes[child - 1];
+        }
+
+        private Tree subTree(int from, int to, int height)
+        {
+            switch (to - from)
+            {
+                case 0:
+                    return EMPTY_TREE;
+                case 1:
+                    return new Tree(this.children[from], height - 1);
+                default:
+                    return new Tree(branch(Arrays.copyOfRange(this.children, from, to), height - 1), height);
+            }
+        }
+    }
+
+    /**
+     * Walks the leaves in order, looking up each leaf from the root when the previous one is used up.
+     */
+    private final class LeafIterator implements Iterator<T>
+    {
+        private int index;
+        private Object[] leaf = EMPTY_ARRAY;
+        private int leafIndex;
+
+        public boolean hasNext()
+        {
+            return this.index < ImmutableTreeList.this.size();
+        }
+
+        public T next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (this.leafIndex == this.leaf.length)
+            {
+                this.leaf = ImmutableTreeList.this.leafFor(this.index);
+                this.leafIndex = 0;
+            }
+            this.index++;
+            return (T) this.leaf[this.leafIndex++];
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Cannot remove from an Immutable List");
+        }
+    }
+
+    private static class ImmutableTreeListSerializationProxy<T> implements Externalizable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ImmutableTreeList<T> list;
+
+        @SuppressWarnings("UnusedDeclaration")
+        public ImmutableTreeListSerializationProxy()
+        {
+            // For Externalizable use only
+        }
+
+        private ImmutableTreeListSerializationProxy(ImmutableTreeList<T> list)
+        {
+            this.list = list;
+        }
+
+        public void writeExternal(final ObjectOutput out) throws IOException
+        {
+            out.writeInt(this.list.size());
+            for (T each : this.list)
+            {
+                out.writeObject(each);
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+        {
+            Object[] items = new Object[in.readInt()];
+            for (int i = 0; i < items.length; i++)
+            {
+                items[i] = in.readObject();
+            }
+            this.list = ImmutableTreeList.build(items);
+        }
+
+        protected Object readResolve()
+        {
+            return this.list;
+        }
+    }
+}
@@ -0,0 +1,742 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.predicate.Predicate2;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.multimap.list.MutableListMultimap;
+import com.webguys.ponzu.api.partition.list.PartitionMutableList;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.UnmodifiableIteratorAdapter;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * CopyOnWriteFastList is a thread-safe MutableList for lists which are read and iterated far more often than they are
+ * changed, such as lists of listeners.  The elements are held in a FastList which is never changed once it has been
+ * published.  Every read, including forEach, filter, anySatisfy and the other internal iteration methods, runs against
+ * whichever FastList is current when it starts, without taking a lock, and so always sees the list as it was between
+ * two changes.
+ * <p/>
+ * Every change copies the current FastList, makes the change to the copy and publishes it, under a lock which only
+ * writers take.  A change of many elements, such as withAll, removeAll or removeIf, makes a single copy, and any
+ * number of changes can be made with a single copy through {@link #withWriteLockAndDelegate(Procedure)}.  The one
+ * exception is add, which writes into spare room past the end of the published elements and publishes a new FastList
+ * over the same array, so a list built up one element at a time costs amortized constant time per element.
+ * <p/>
+ * Like those of CopyOnWriteArrayList, the iterators of a CopyOnWriteFastList are read-only views of the FastList which
+ * was current when they were created, and its subLists write through to the list but throw a
+ * ConcurrentModificationException once the list has been changed other than through them.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class CopyOnWriteFastList<T>
+        extends AbstractListAdapter<T>
+        implements RandomAccess, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock = new Object();
+
+    private volatile FastList<T> items;
+
+    /**
+     * The array add last allocated, which only this list writes to, and only past the end of the current elements.
+     */
+    @GuardedBy("lock")
+    private T[] appendableItems;
+
+    @SuppressWarnings("UnusedDeclaration")
+    public CopyOnWriteFastList()
+    {
+        this(FastList.<T>newList());
+    }
+
+    private CopyOnWriteFastList(FastList<T> newItems)
+    {
+        this.items = newItems;
+    }
+
+    public static <T> CopyOnWriteFastList<T> newList()
+    {
+        return new CopyOnWriteFastList<T>();
+    }
+
+    public static <T> CopyOnWriteFastList<T> newList(Iterable<? extends T> iterable)
+    {
+        return new CopyOnWriteFastList<T>(FastList.<T>newList(iterable));
+    }
+
+    public static <T> CopyOnWriteFastList<T> newListWith(T... elements)
+    {
+        return new CopyOnWriteFastList<T>(FastList.newListWith(elements));
+    }
+
+    @Override
+    protected FastList<T> getDelegate()
+    {
+        return this.items;
+    }
+
+    /**
+     * Returns a copy of the current elements with room for the given number of elements more.
+     */
+    @GuardedBy("lock")
+    private FastList<T> copy(int extraCapacity)
+    {
+        FastList<T> current = this.items;
+        FastList<T> result = FastList.newList(current.size() + extraCapacity);
+        result.addAll(current);
+        return result;
+    }
+
+    /**
+     * Applies the procedure to a copy of the list and publishes the copy once the procedure returns, so that readers
+     * see either none or all of its changes.  If the procedure throws, none of its changes are published.  The list
+     * passed to the procedure must not be used after it returns.
+     */
+    public void withWriteLockAndDelegate(Procedure<MutableList<T>> procedure)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            procedure.value(copy);
+            this.items = copy;
+        }
+    }
+
+    /**
+     * Appends in place if the current elements are held in an array this list allocated and which still has room, and
+     * otherwise copies them into an array half as large again.  A clone shares the array but not the room after it.
+     */
+    @Override
+    public boolean add(T element)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> current = this.items;
+            int size = current.size;
+            T[] array = current.items;
+            if (array != this.appendableItems || size == array.length)
+            {
+                array = (T[]) new Object[size + (size >> 1) + 1];
+                System.arraycopy(current.items, 0, array, 0, size);
+                this.appendableItems = array;
+            }
+            array[size] = element;
+            this.items = new FastList<T>(size + 1, array);
+            return true;
+        }
+    }
+
+    @Override
+    public void add(int index, T element)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(1);
+            copy.add(index, element);
+            this.items = copy;
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection)
+    {
+        return this.addAllIterable(collection);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(collection.size());
+            boolean changed = copy.addAll(index, collection);
+            this.items = copy;
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean addAllIterable(Iterable<? extends T> iterable)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(iterable instanceof Collection ? ((Collection<?>) iterable).size() : 0);
+            boolean changed = copy.addAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public T set(int index, T element)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            T previous = copy.set(index, element);
+            this.items = copy;
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean remove(Object element)
+    {
+        synchronized (this.lock)
+        {
+            int index = this.items.indexOf(element);
+            if (index < 0)
+            {
+                return false;
+            }
+            FastList<T> copy = this.copy(0);
+            copy.remove(index);
+            this.items = copy;
+            return true;
+        }
+    }
+
+    @Override
+    public T remove(int index)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            T previous = copy.remove(index);
+            this.items = copy;
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        return this.removeAllIterable(collection);
+    }
+
+    @Override
+    public boolean removeAllIterable(Iterable<?> iterable)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            boolean changed = copy.removeAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        return this.retainAllIterable(collection);
+    }
+
+    @Override
+    public boolean retainAllIterable(Iterable<?> iterable)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            boolean changed = copy.retainAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public void removeIf(Predicate<? super T> predicate)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.items.filterNot(predicate);
+            if (copy.size() != this.items.size())
+            {
+                this.items = copy;
+            }
+        }
+    }
+
+    @Override
+    public <P> void removeIfWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.items.filterNotWith(predicate, parameter);
+            if (copy.size() != this.items.size())
+            {
+                this.items = copy;
+            }
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.items = FastList.newList();
+        }
+    }
+
+    public CopyOnWriteFastList<T> sortThis(Comparator<? super T> comparator)
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            copy.sortThis(comparator);
+            this.items = copy;
+            return this;
+        }
+    }
+
+    public CopyOnWriteFastList<T> sortThis()
+    {
+        return this.sortThis(Comparators.naturalOrder());
+    }
+
+    public <V extends Comparable<? super V>> CopyOnWriteFastList<T> sortThisBy(Function<? super T, ? extends V> function)
+    {
+        return this.sortThis(Comparators.byFunction(function));
+    }
+
+    @Override
+    public CopyOnWriteFastList<T> reverseThis()
+    {
+        synchronized (this.lock)
+        {
+            FastList<T> copy = this.copy(0);
+            copy.reverseThis();
+            this.items = copy;
+            return this;
+        }
+    }
+
+    public CopyOnWriteFastList<T> with(T element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public CopyOnWriteFastList<T> with(T element1, T element2)
+    {
+        return this.withAll(FastList.newListWith(element1, element2));
+    }
+
+    public CopyOnWriteFastList<T> with(T element1, T element2, T element3)
+    {
+        return this.withAll(FastList.newListWith(element1, element2, element3));
+    }
+
+    public CopyOnWriteFastList<T> with(T... elements)
+    {
+        return this.withAll(FastList.newListWith(elements));
+    }
+
+    public CopyOnWriteFastList<T> without(T element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public CopyOnWriteFastList<T> withAll(Iterable<? extends T> elements)
+    {
+        this.addAllIterable(elements);
+        return this;
+    }
+
+    public CopyOnWriteFastList<T> withoutAll(Iterable<? extends T> elements)
+    {
+        this.removeAllIterable(elements);
+        return this;
+    }
+
+    /**
+     * Returns an iterator over the list as it is now.  It does not support remove.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new UnmodifiableIteratorAdapter<T>(this.items.iterator());
+    }
+
+    /**
+     * Returns a list iterator over the list as it is now.  It does not support add, set or remove.
+     */
+    @Override
+    public ListIterator<T> listIterator()
+    {
+        return new UnmodifiableListIteratorAdapter<T>(this.items.listIterator());
+    }
+
+    /**
+     * @see #listIterator()
+     */
+    @Override
+    public ListIterator<T> listIterator(int index)
+    {
+        return new UnmodifiableListIteratorAdapter<T>(this.items.listIterator(index));
+    }
+
+    @Override
+    public MutableList<T> subList(int fromIndex, int toIndex)
+    {
+        FastList<T> current = this.items;
+        if (fromIndex < 0)
+        {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        }
+        if (toIndex > current.size())
+        {
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        }
+        if (fromIndex > toIndex)
+        {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ')');
+        }
+        return ListAdapter.adapt(new SubList(current, fromIndex, toIndex - fromIndex));
+    }
+
+    public ImmutableList<T> toImmutable()
+    {
+        return this.items.toImmutable();
+    }
+
+    public MutableList<T> asUnmodifiable()
+    {
+        return UnmodifiableMutableList.of(this);
+    }
+
+    public MutableList<T> asSynchronized()
+    {
+        return SynchronizedMutableList.of(this);
+    }
+
+    /**
+     * Returns a CopyOnWriteFastList with the same elements.  The copy and this list share the current elements until
+     * either of them is changed.
+     */
+    @Override
+    public CopyOnWriteFastList<T> clone()
+    {
+        return new CopyOnWriteFastList<T>(this.items);
+    }
+
+    public MutableList<T> newEmpty()
+    {
+        return CopyOnWriteFastList.newList();
+    }
+
+    @Override
+    public void forEach(Procedure<? super T> procedure)
+    {
+        this.items.forEach(procedure);
+    }
+
+    public void reverseForEach(Procedure<? super T> procedure)
+    {
+        this.items.reverseForEach(procedure);
+    }
+
+    @Override
+    public void forEachWithIndex(ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        this.items.forEachWithIndex(objectIntProcedure);
+    }
+
+    @Override
+    public <P> void forEachWith(Procedure2<? super T, ? super P> procedure, P parameter)
+    {
+        this.items.forEachWith(procedure, parameter);
+    }
+
+    public void forEach(int fromIndex, int toIndex, Procedure<? super T> procedure)
+    {
+        this.items.forEach(fromIndex, toIndex, procedure);
+    }
+
+    public void forEachWithIndex(int fromIndex, int toIndex, ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        this.items.forEachWithIndex(fromIndex, toIndex, objectIntProcedure);
+    }
+
+    @Override
+    public T find(Predicate<? super T> predicate)
+    {
+        return this.items.find(predicate);
+    }
+
+    @Override
+    public T findIfNone(Predicate<? super T> predicate, Generator<? extends T> function)
+    {
+        return this.items.findIfNone(predicate, function);
+    }
+
+    @Override
+    public int count(Predicate<? super T> predicate)
+    {
+        return this.items.count(predicate);
+    }
+
+    @Override
+    public boolean anySatisfy(Predicate<? super T> predicate)
+    {
+        return this.items.anySatisfy(predicate);
+    }
+
+    @Override
+    public boolean allSatisfy(Predicate<? super T> predicate)
+    {
+        return this.items.allSatisfy(predicate);
+    }
+
+    @Override
+    public <IV> IV foldLeft(IV initialValue, Function2<? super IV, ? super T, ? extends IV> function)
+    {
+        return this.items.foldLeft(initialValue, function);
+    }
+
+    @Override
+    public MutableList<T> filter(Predicate<? super T> predicate)
+    {
+        return this.items.filter(predicate);
+    }
+
+    @Override
+    public MutableList<T> filterNot(Predicate<? super T> predicate)
+    {
+        return this.items.filterNot(predicate);
+    }
+
+    @Override
+    public <P> MutableList<T> filterWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.items.filterWith(predicate, parameter);
+    }
+
+    @Override
+    public <P> MutableList<T> filterNotWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.items.filterNotWith(predicate, parameter);
+    }
+
+    @Override
+    public PartitionMutableList<T> partition(Predicate<? super T> predicate)
+    {
+        return this.items.partition(predicate);
+    }
+
+    @Override
+    public <V> MutableList<V> transform(Function<? super T, ? extends V> function)
+    {
+        return this.items.transform(function);
+    }
+
+    @Override
+    public <V> MutableList<V> flatTransform(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.items.flatTransform(function);
+    }
+
+    @Override
+    public <V> MutableList<V> transformIf(
+            Predicate<? super T> predicate,
+            Function<? super T, ? extends V> function)
+    {
+        return this.items.transformIf(predicate, function);
+    }
+
+    @Override
+    public <P, V> MutableList<V> transformWith(Function2<? super T, ? super P, ? extends V> function, P parameter)
+    {
+        return this.items.transformWith(function, parameter);
+    }
+
+    @Override
+    public <V> MutableListMultimap<V, T> groupBy(Function<? super T, ? extends V> function)
+    {
+        return this.items.groupBy(function);
+    }
+
+    @Override
+    public <V> MutableListMultimap<V, T> groupByEach(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.items.groupByEach(function);
+    }
+
+    @Override
+    public <S> MutableList<Pair<T, S>> zip(Iterable<S> that)
+    {
+        return this.items.zip(that);
+    }
+
+    @Override
+    public MutableList<Pair<T, Integer>> zipWithIndex()
+    {
+        return this.items.zipWithIndex();
+    }
+
+    /**
+     * A view of part of the list which writes through to it, as long as nothing else changes the list.
+     */
+    private final class SubList
+            extends AbstractList<T>
+            implements RandomAccess, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int offset;
+        private int size;
+        private FastList<T> expected;
+
+        private SubList(FastList<T> expected, int offset, int size)
+        {
+            this.expected = expected;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        private void checkForComodification()
+        {
+            if (CopyOnWriteFastList.this.items != this.expected)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private void rangeCheck(int index, int bound)
+        {
+            if (index < 0 || index >= bound)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size);
+            }
+        }
+
+        @Override
+        public T get(int index)
+        {
+            FastList<T> current = this.expected;
+            this.checkForComodification();
+            this.rangeCheck(index, this.size);
+            return current.get(this.offset + index);
+        }
+
+        @Override
+        public int size()
+        {
+            this.checkForComodification();
+            return this.size;
+        }
+
+        @Override
+        public T set(int index, T element)
+        {
+            synchronized (CopyOnWriteFastList.this.lock)
+            {
+                this.checkForComodification();
+                this.rangeCheck(index, this.size);
+                FastList<T> copy = CopyOnWriteFastList.this.copy(0);
+                T previous = copy.set(this.offset + index, element);
+                this.publish(copy);
+                return previous;
+            }
+        }
+
+        @Override
+        public void add(int index, T element)
+        {
+            synchronized (CopyOnWriteFastList.this.lock)
+            {
+                this.checkForComodification();
+                this.rangeCheck(index, this.size + 1);
+                FastList<T> copy = CopyOnWriteFastList.this.copy(1);
+                copy.add(this.offset + index, element);
+                this.publish(copy);
+                this.size++;
+                this.modCount++;
+            }
+        }
+
+        @Override
+        public T remove(int index)
+        {
+            synchronized (CopyOnWriteFastList.this.lock)
+            {
+                this.checkForComodification();
+                this.rangeCheck(index, this.size);
+                FastList<T> copy = CopyOnWriteFastList.this.copy(0);
+                T previous = copy.remove(this.offset + index);
+                this.publish(copy);
+                this.size--;
+                this.modCount++;
+                return previous;
+            }
+        }
+
+        @GuardedBy("CopyOnWriteFastList.this.lock")
+        private void publish(FastList<T> copy)
+        {
+            CopyOnWriteFastList.this.items = copy;
+            this.expected = copy;
+        }
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeObject(this.items);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        this.items = (FastList<T>) in.readObject();
+    }
+}
@@ -28,8 +28,10 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.concurrent.Executor;
 
 import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.ParallelIterable;
 import com.webguys.ponzu.api.block.function.Function2;
 import com.webguys.ponzu.api.block.function.Function3;
 import com.webguys.ponzu.api.block.function.Generator;
@@ -46,6 +48,7 @@ import com.webguys.ponzu.api.tuple.Twin;
 import com.webguys.ponzu.impl.block.factory.Comparators;
 import com.webguys.ponzu.impl.block.factory.Predicates2;
 import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.parallel.ParallelIterableAdapter;
 import com.webguys.ponzu.impl.tuple.Tuples;
 import com.webguys.ponzu.impl.utility.ArrayIterate;
 import com.webguys.ponzu.impl.utility.ArrayListIterate;
@@ -1023,6 +1026,17 @@ public class FastList<T>
         return result;
     }
 
+    /**
+     * Returns a deferred parallel view of this list.  Chained operations are fused and run in batches of roughly
+     * batchSize elements on the executor when a terminal method is called.
+     *
+     * @since 1.3
+     */
+    public ParallelIterable<T> asParallel(Executor executor, int batchSize)
+    {
+        return new ParallelIterableAdapter<T>(this, executor, batchSize);
+    }
+
     @Override
     public FastList<T> toList()
     {
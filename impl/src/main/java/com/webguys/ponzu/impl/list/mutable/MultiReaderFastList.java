@@ -42,6 +42,7 @@ import com.webguys.ponzu.api.multimap.list.MutableListMultimap;
 import com.webguys.ponzu.api.partition.list.PartitionMutableList;
 import com.webguys.ponzu.api.tuple.Pair;
 import com.webguys.ponzu.impl.collection.mutable.AbstractMultiReaderMutableCollection;
+import com.webguys.ponzu.impl.collection.mutable.OptimisticReadWriteLock;
 import com.webguys.ponzu.impl.factory.Lists;
 import com.webguys.ponzu.impl.utility.LazyIterate;
 
@@ -56,6 +57,9 @@ import static com.webguys.ponzu.impl.factory.Iterables.*;
  * FastList is returned.  This wrapper guarantees that no external pointer can ever reference the underlying FastList
  * outside of a locked procedure.  In the case of the read lock method, an Unmodifiable version of the collection is
  * offered, which will throw UnsupportedOperationExceptions on any write methods like add or remove.
+ * <p/>
+ * The lock may be chosen with newList(ReadWriteLock); an {@link OptimisticReadWriteLock} lets constant time reads
+ * such as size and get(int) go ahead without taking the read lock.
  */
 public final class MultiReaderFastList<T>
         extends AbstractMultiReaderMutableCollection<T>
@@ -98,6 +102,36 @@ public final class MultiReaderFastList<T>
         return new MultiReaderFastList<T>(FastList.<T>newList(iterable));
     }
 
+    /**
+     * Returns an empty list guarded by the given lock.  Pass an {@link OptimisticReadWriteLock} for lists which are
+     * read far more often than they are written, so that short reads do not contend on the read lock.  The lock is
+     * not serialized; a deserialized list is guarded by a ReentrantReadWriteLock.
+     *
+     * @since 1.3
+     */
+    public static <T> MultiReaderFastList<T> newList(ReadWriteLock lock)
+    {
+        return new MultiReaderFastList<T>(FastList.<T>newList(), lock);
+    }
+
+    /**
+     * @see #newList(ReadWriteLock)
+     * @since 1.3
+     */
+    public static <T> MultiReaderFastList<T> newList(int capacity, ReadWriteLock lock)
+    {
+        return new MultiReaderFastList<T>(FastList.<T>newList(capacity), lock);
+    }
+
+    /**
+     * @see #newList(ReadWriteLock)
+     * @since 1.3
+     */
+    public static <T> MultiReaderFastList<T> newList(Iterable<T> iterable, ReadWriteLock lock)
+    {
+        return new MultiReaderFastList<T>(FastList.<T>newList(iterable), lock);
+    }
+
     public static <T> MultiReaderFastList<T> newListWith(T... elements)
     {
         return new MultiReaderFastList<T>(FastList.<T>newListWith(elements));
@@ -425,6 +459,25 @@ public final class MultiReaderFastList<T>
 
     public T get(int index)
     {
+        long stamp = this.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            try
+            {
+                T result = this.delegate.get(index);
+                if (this.validate(stamp))
+                {
+                    return result;
+                }
+            }
+            catch (RuntimeException e)
+            {
+                if (this.validate(stamp))
+                {
+                    throw e;
+                }
+            }
+        }
         this.acquireReadLock();
         try
         {
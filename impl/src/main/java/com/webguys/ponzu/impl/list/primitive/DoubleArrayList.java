@@ -0,0 +1,722 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+import com.webguys.ponzu.impl.primitive.DoubleIterator;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * DoubleArrayList is similar to {@link FastList}, and is memory-optimized for double primitives.  The elements are held
+ * in a double[] instead of as Double objects, so a list of n elements costs roughly the size of n double values
+ * instead of n references plus n boxed objects.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class DoubleArrayList
+        implements MutableDoubleList, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+    private static final double[] DEFAULT_SIZED_EMPTY_ARRAY = {};
+    private static final double[] ZERO_SIZED_ARRAY = {};
+
+    private int size;
+    private transient double[] items = DEFAULT_SIZED_EMPTY_ARRAY;
+
+    public DoubleArrayList()
+    {
+    }
+
+    public DoubleArrayList(int initialCapacity)
+    {
+        this.items = initialCapacity == 0 ? ZERO_SIZED_ARRAY : new double[initialCapacity];
+    }
+
+    private DoubleArrayList(double[] array)
+    {
+        this.size = array.length;
+        this.items = array;
+    }
+
+    public static DoubleArrayList newList()
+    {
+        return new DoubleArrayList();
+    }
+
+    public static DoubleArrayList newList(int initialCapacity)
+    {
+        return new DoubleArrayList(initialCapacity);
+    }
+
+    public static DoubleArrayList newList(DoubleIterable source)
+    {
+        return new DoubleArrayList(source.toArray());
+    }
+
+    /**
+     * Creates a new list by applying the function to each element of the iterable, without boxing the results.
+     */
+    public static <T> DoubleArrayList newList(Iterable<T> iterable, final DoubleFunction<? super T> function)
+    {
+        final DoubleArrayList result = new DoubleArrayList(Iterate.sizeOf(iterable));
+        Iterate.forEach(iterable, new Procedure<T>()
+        {
+            public void value(T each)
+            {
+                result.add(function.doubleValueOf(each));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Creates a new list using the passed <code>elements</code> argument as the backing store.
+     * <p/>
+     * !!! WARNING: This method uses the passed in array, so can be very unsafe if the original
+     * array is held onto anywhere else. !!!
+     */
+    public static DoubleArrayList newListWith(double... elements)
+    {
+        return new DoubleArrayList(elements);
+    }
+
+    public static DoubleArrayList wrapCopy(double... array)
+    {
+        double[] newArray = new double[array.length];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return new DoubleArrayList(newArray);
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size > 0;
+    }
+
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+    public boolean contains(double value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(double... source)
+    {
+        for (double value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double get(int index)
+    {
+        if (index < this.size)
+        {
+            return this.items[index];
+        }
+        throw this.newIndexOutOfBoundsException(index);
+    }
+
+    private IndexOutOfBoundsException newIndexOutOfBoundsException(int index)
+    {
+        return new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size);
+    }
+
+    public double getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public double getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.size - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(double value)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (Double.compare(this.items[i], value) == 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(double value)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            if (Double.compare(this.items[i], value) == 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void trimToSize()
+    {
+        if (this.size < this.items.length)
+        {
+            this.transferItemsToNewArrayWithCapacity(this.size);
+        }
+    }
+
+    public void ensureCapacity(int minCapacity)
+    {
+        int oldCapacity = this.items.length;
+        if (minCapacity > oldCapacity)
+        {
+            int newCapacity = Math.max(this.sizePlusFiftyPercent(oldCapacity), minCapacity);
+            this.transferItemsToNewArrayWithCapacity(newCapacity);
+        }
+    }
+
+    private void transferItemsToNewArrayWithCapacity(int newCapacity)
+    {
+        double[] newItems = new double[newCapacity];
+        System.arraycopy(this.items, 0, newItems, 0, Math.min(this.size, newCapacity));
+        this.items = newItems;
+    }
+
+    private int sizePlusFiftyPercent(int oldSize)
+    {
+        return (oldSize * 3) / 2 + 1;
+    }
+
+    private void ensureCapacityForAdd()
+    {
+        if (this.items == DEFAULT_SIZED_EMPTY_ARRAY)
+        {
+            this.items = new double[10];
+        }
+        else
+        {
+            this.transferItemsToNewArrayWithCapacity(this.sizePlusFiftyPercent(this.size));
+        }
+    }
+
+    public boolean add(double newItem)
+    {
+        if (this.items.length == this.size)
+        {
+            this.ensureCapacityForAdd();
+        }
+        this.items[this.size++] = newItem;
+        return true;
+    }
+
+    public boolean addAll(double... source)
+    {
+        if (source.length < 1)
+        {
+            return false;
+        }
+        int sourceSize = source.length;
+        int newSize = this.size + sourceSize;
+        this.ensureCapacity(newSize);
+        System.arraycopy(source, 0, this.items, this.size, sourceSize);
+        this.size = newSize;
+        return true;
+    }
+
+    public boolean addAll(DoubleIterable source)
+    {
+        return this.addAll(source.toArray());
+    }
+
+    public void addAtIndex(int index, double element)
+    {
+        if (index > -1 && index < this.size)
+        {
+            this.addAtIndexLessThanSize(index, element);
+        }
+        else if (index == this.size)
+        {
+            this.add(element);
+        }
+        else
+        {
+            throw this.newIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void addAtIndexLessThanSize(int index, double element)
+    {
+        int oldSize = this.size++;
+        if (this.items.length == oldSize)
+        {
+            double[] newItems = new double[this.sizePlusFiftyPercent(oldSize)];
+            if (index > 0)
+            {
+                System.arraycopy(this.items, 0, newItems, 0, index);
+            }
+            System.arraycopy(this.items, index, newItems, index + 1, oldSize - index);
+            this.items = newItems;
+        }
+        else
+        {
+            System.arraycopy(this.items, index, this.items, index + 1, oldSize - index);
+        }
+        this.items[index] = element;
+    }
+
+    public boolean remove(double value)
+    {
+        int index = this.indexOf(value);
+        if (index >= 0)
+        {
+            this.removeAtIndex(index);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean removeAll(double... source)
+    {
+        boolean changed = false;
+        for (double value : source)
+        {
+            while (this.remove(value))
+            {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public double removeAtIndex(int index)
+    {
+        double previous = this.get(index);
+        int totalOffset = this.size - index - 1;
+        if (totalOffset > 0)
+        {
+            System.arraycopy(this.items, index + 1, this.items, index, totalOffset);
+        }
+        --this.size;
+        return previous;
+    }
+
+    public double set(int index, double element)
+    {
+        double previous = this.get(index);
+        this.items[index] = element;
+        return previous;
+    }
+
+    public DoubleArrayList with(double element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public DoubleArrayList without(double element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public DoubleArrayList withAll(DoubleIterable elements)
+    {
+        this.addAll(elements.toArray());
+        return this;
+    }
+
+    public DoubleIterator doubleIterator()
+    {
+        return new InternalDoubleIterator();
+    }
+
+    public void forEach(DoubleProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public void forEachWithIndex(DoubleIntProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(DoubleProcedure procedure)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int count(DoublePredicate predicate)
+    {
+        int count = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(DoublePredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(DoublePredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (!predicate.accept(this.items[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double find(DoublePredicate predicate, double ifNone)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            double item = this.items[i];
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public DoubleArrayList filter(DoublePredicate predicate)
+    {
+        DoubleArrayList result = new DoubleArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            double item = this.items[i];
+            if (predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public DoubleArrayList filterNot(DoublePredicate predicate)
+    {
+        DoubleArrayList result = new DoubleArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            double item = this.items[i];
+            if (!predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public <V> FastList<V> transform(DoubleToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            target.add(function.valueOf(this.items[i]));
+        }
+        return target;
+    }
+
+    public double sum()
+    {
+        double result = 0.0;
+        double compensation = 0.0;
+        for (int i = 0; i < this.size; i++)
+        {
+            double adjustedValue = this.items[i] - compensation;
+            double nextSum = result + adjustedValue;
+            compensation = nextSum - result - adjustedValue;
+            result = nextSum;
+        }
+        return result;
+    }
+
+    public double min()
+    {
+        this.checkEmpty();
+        double min = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            double value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public double max()
+    {
+        this.checkEmpty();
+        double max = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            double value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.size;
+    }
+
+    public double[] toArray()
+    {
+        double[] newItems = new double[this.size];
+        System.arraycopy(this.items, 0, newItems, 0, this.size);
+        return newItems;
+    }
+
+    public double[] toSortedArray()
+    {
+        double[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public DoubleArrayList toList()
+    {
+        return new DoubleArrayList(this.toArray());
+    }
+
+    public DoubleArrayList toSortedList()
+    {
+        return new DoubleArrayList(this.toSortedArray());
+    }
+
+    public ImmutableDoubleList toImmutable()
+    {
+        return ImmutableDoubleArrayList.newList(this);
+    }
+
+    public DoubleArrayList sortThis()
+    {
+        Arrays.sort(this.items, 0, this.size);
+        return this;
+    }
+
+    public DoubleArrayList reverseThis()
+    {
+        int endIndex = this.size - 1;
+        for (int i = 0; i < this.size / 2; i++)
+        {
+            double tempSwapValue = this.items[i];
+            this.items[i] = this.items[endIndex - i];
+            this.items[endIndex - i] = tempSwapValue;
+        }
+        return this;
+    }
+
+    public MutableDoubleList asUnmodifiable()
+    {
+        return new UnmodifiableDoubleList(this);
+    }
+
+    public MutableDoubleList asSynchronized()
+    {
+        return new SynchronizedDoubleList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof DoubleList))
+        {
+            return false;
+        }
+        DoubleList list = (DoubleList) otherList;
+        if (this.size != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++)
+        {
+            if (Double.compare(this.items[i], list.get(i)) != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++)
+        {
+            double item = this.items[i];
+            long bits = Double.doubleToLongBits(item);
+            hashCode = 31 * hashCode + (int) (bits ^ bits >>> 32);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.size; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            out.writeDouble(this.items[i]);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException
+    {
+        this.size = in.readInt();
+        this.items = new double[this.size];
+        for (int i = 0; i < this.size; i++)
+        {
+            this.items[i] = in.readDouble();
+        }
+    }
+
+    private class InternalDoubleIterator
+            implements DoubleIterator
+    {
+        /**
+         * Index of element to be returned by subsequent call to next.
+         */
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != DoubleArrayList.this.size();
+        }
+
+        public double next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            double next = DoubleArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
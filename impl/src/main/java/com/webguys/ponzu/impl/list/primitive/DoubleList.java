@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ListIterable;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+
+/**
+ * An ordered, indexed DoubleIterable.  Two DoubleLists are equal if they contain the same elements in the same order,
+ * and the hashCode is computed the same way as {@link java.util.List#hashCode()} would for the boxed values.
+ *
+ * @since 1.3
+ */
+public interface DoubleList
+        extends DoubleIterable
+{
+    double get(int index);
+
+    double getFirst();
+
+    double getLast();
+
+    int indexOf(double value);
+
+    int lastIndexOf(double value);
+
+    void forEachWithIndex(DoubleIntProcedure procedure);
+
+    void reverseForEach(DoubleProcedure procedure);
+
+    DoubleList filter(DoublePredicate predicate);
+
+    DoubleList filterNot(DoublePredicate predicate);
+
+    <V> ListIterable<V> transform(DoubleToObjectFunction<? extends V> function);
+
+    /**
+     * Returns a new mutable copy of this list.
+     */
+    MutableDoubleList toList();
+
+    /**
+     * Returns a new mutable copy of this list, sorted in ascending order.
+     */
+    MutableDoubleList toSortedList();
+
+    ImmutableDoubleList toImmutable();
+
+    boolean equals(Object o);
+
+    int hashCode();
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+import com.webguys.ponzu.impl.primitive.DoubleIterator;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableDoubleList backed by a double array which is never exposed or modified after construction.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableDoubleArrayList
+        implements ImmutableDoubleList, Serializable
+{
+    static final ImmutableDoubleArrayList EMPTY = new ImmutableDoubleArrayList(new double[0]);
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] items;
+
+    private ImmutableDoubleArrayList(double[] newElements)
+    {
+        this.items = newElements;
+    }
+
+    public static ImmutableDoubleArrayList newList(DoubleIterable iterable)
+    {
+        return ImmutableDoubleArrayList.newListWith(iterable.toArray());
+    }
+
+    public static ImmutableDoubleArrayList newListWith(double... elements)
+    {
+        if (elements.length == 0)
+        {
+            return EMPTY;
+        }
+        double[] newArray = new double[elements.length];
+        System.arraycopy(elements, 0, newArray, 0, elements.length);
+        return new ImmutableDoubleArrayList(newArray);
+    }
+
+    public double get(int index)
+    {
+        return this.items[index];
+    }
+
+    public double getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public double getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.items.length - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.items.length == 0)
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(double value)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (Double.compare(this.items[i], value) == 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(double value)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            if (Double.compare(this.items[i], value) == 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public DoubleIterator doubleIterator()
+    {
+        return new InternalDoubleIterator();
+    }
+
+    public void forEach(DoubleProcedure procedure)
+    {
+        for (double item : this.items)
+        {
+            procedure.value(item);
+        }
+    }
+
+    public void forEachWithIndex(DoubleIntProcedure procedure)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(DoubleProcedure procedure)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int size()
+    {
+        return this.items.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.items.length == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.items.length > 0;
+    }
+
+    public boolean contains(double value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(double... source)
+    {
+        for (double value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(DoublePredicate predicate)
+    {
+        int count = 0;
+        for (double item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(DoublePredicate predicate)
+    {
+        for (double item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(DoublePredicate predicate)
+    {
+        for (double item : this.items)
+        {
+            if (!predicate.accept(item))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double find(DoublePredicate predicate, double ifNone)
+    {
+        for (double item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public ImmutableDoubleList filter(DoublePredicate predicate)
+    {
+        return this.toList().filter(predicate).toImmutable();
+    }
+
+    public ImmutableDoubleList filterNot(DoublePredicate predicate)
+    {
+        return this.toList().filterNot(predicate).toImmutable();
+    }
+
+    public <V> ImmutableList<V> transform(DoubleToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.items.length);
+        for (double item : this.items)
+        {
+            target.add(function.valueOf(item));
+        }
+        return target.toImmutable();
+    }
+
+    public double sum()
+    {
+        double result = 0.0;
+        double compensation = 0.0;
+        for (int i = 0; i < this.items.length; i++)
+        {
+            double adjustedValue = this.items[i] - compensation;
+            double nextSum = result + adjustedValue;
+            compensation = nextSum - result - adjustedValue;
+            result = nextSum;
+        }
+        return result;
+    }
+
+    public double min()
+    {
+        this.checkEmpty();
+        double min = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            double value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public double max()
+    {
+        this.checkEmpty();
+        double max = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            double value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.items.length;
+    }
+
+    public double[] toArray()
+    {
+        double[] newItems = new double[this.items.length];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        return newItems;
+    }
+
+    public double[] toSortedArray()
+    {
+        double[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public MutableDoubleList toList()
+    {
+        return DoubleArrayList.newListWith(this.toArray());
+    }
+
+    public MutableDoubleList toSortedList()
+    {
+        return DoubleArrayList.newListWith(this.toSortedArray());
+    }
+
+    public ImmutableDoubleList toImmutable()
+    {
+        return this;
+    }
+
+    public ImmutableDoubleList newWith(double element)
+    {
+        double[] newItems = new double[this.items.length + 1];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        newItems[this.items.length] = element;
+        return new ImmutableDoubleArrayList(newItems);
+    }
+
+    public ImmutableDoubleList newWithout(double element)
+    {
+        int index = this.indexOf(element);
+        if (index < 0)
+        {
+            return this;
+        }
+        double[] newItems = new double[this.items.length - 1];
+        System.arraycopy(this.items, 0, newItems, 0, index);
+        System.arraycopy(this.items, index + 1, newItems, index, this.items.length - index - 1);
+        return newItems.length == 0 ? EMPTY : new ImmutableDoubleArrayList(newItems);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof DoubleList))
+        {
+            return false;
+        }
+        DoubleList list = (DoubleList) otherList;
+        if (this.items.length != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (Double.compare(this.items[i], list.get(i)) != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (double item : this.items)
+        {
+            long bits = Double.doubleToLongBits(item);
+            hashCode = 31 * hashCode + (int) (bits ^ bits >>> 32);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    private Object readResolve()
+    {
+        return this.items.length == 0 ? EMPTY : this;
+    }
+
+    private class InternalDoubleIterator
+            implements DoubleIterator
+    {
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != ImmutableDoubleArrayList.this.items.length;
+        }
+
+        public double next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            double next = ImmutableDoubleArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
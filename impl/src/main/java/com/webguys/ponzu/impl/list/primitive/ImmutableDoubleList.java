@@ -0,0 +1,40 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+
+/**
+ * A DoubleList which can never change.  The "modifying" methods return new copies of the list.
+ *
+ * @since 1.3
+ */
+public interface ImmutableDoubleList
+        extends DoubleList
+{
+    ImmutableDoubleList newWith(double element);
+
+    ImmutableDoubleList newWithout(double element);
+
+    ImmutableDoubleList filter(DoublePredicate predicate);
+
+    ImmutableDoubleList filterNot(DoublePredicate predicate);
+
+    <V> ImmutableList<V> transform(DoubleToObjectFunction<? extends V> function);
+}
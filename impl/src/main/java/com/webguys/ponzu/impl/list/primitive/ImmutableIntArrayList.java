@@ -0,0 +1,440 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableIntList backed by a int array which is never exposed or modified after construction.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableIntArrayList
+        implements ImmutableIntList, Serializable
+{
+    static final ImmutableIntArrayList EMPTY = new ImmutableIntArrayList(new int[0]);
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] items;
+
+    private ImmutableIntArrayList(int[] newElements)
+    {
+        this.items = newElements;
+    }
+
+    public static ImmutableIntArrayList newList(IntIterable iterable)
+    {
+        return ImmutableIntArrayList.newListWith(iterable.toArray());
+    }
+
+    public static ImmutableIntArrayList newListWith(int... elements)
+    {
+        if (elements.length == 0)
+        {
+            return EMPTY;
+        }
+        int[] newArray = new int[elements.length];
+        System.arraycopy(elements, 0, newArray, 0, elements.length);
+        return new ImmutableIntArrayList(newArray);
+    }
+
+    public int get(int index)
+    {
+        return this.items[index];
+    }
+
+    public int getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public int getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.items.length - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.items.length == 0)
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(int value)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(int value)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public IntIterator intIterator()
+    {
+        return new InternalIntIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        for (int item : this.items)
+        {
+            procedure.value(item);
+        }
+    }
+
+    public void forEachWithIndex(IntIntProcedure procedure)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(IntProcedure procedure)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int size()
+    {
+        return this.items.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.items.length == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.items.length > 0;
+    }
+
+    public boolean contains(int value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(int... source)
+    {
+        for (int value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        int count = 0;
+        for (int item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        for (int item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        for (int item : this.items)
+        {
+            if (!predicate.accept(item))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        for (int item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public ImmutableIntList filter(IntPredicate predicate)
+    {
+        return this.toList().filter(predicate).toImmutable();
+    }
+
+    public ImmutableIntList filterNot(IntPredicate predicate)
+    {
+        return this.toList().filterNot(predicate).toImmutable();
+    }
+
+    public <V> ImmutableList<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.items.length);
+        for (int item : this.items)
+        {
+            target.add(function.valueOf(item));
+        }
+        return target.toImmutable();
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        for (int i = 0; i < this.items.length; i++)
+        {
+            result += this.items[i];
+        }
+        return result;
+    }
+
+    public int min()
+    {
+        this.checkEmpty();
+        int min = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            int value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public int max()
+    {
+        this.checkEmpty();
+        int max = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            int value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.items.length;
+    }
+
+    public int[] toArray()
+    {
+        int[] newItems = new int[this.items.length];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        return newItems;
+    }
+
+    public int[] toSortedArray()
+    {
+        int[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public MutableIntList toList()
+    {
+        return IntArrayList.newListWith(this.toArray());
+    }
+
+    public MutableIntList toSortedList()
+    {
+        return IntArrayList.newListWith(this.toSortedArray());
+    }
+
+    public ImmutableIntList toImmutable()
+    {
+        return this;
+    }
+
+    public ImmutableIntList newWith(int element)
+    {
+        int[] newItems = new int[this.items.length + 1];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        newItems[this.items.length] = element;
+        return new ImmutableIntArrayList(newItems);
+    }
+
+    public ImmutableIntList newWithout(int element)
+    {
+        int index = this.indexOf(element);
+        if (index < 0)
+        {
+            return this;
+        }
+        int[] newItems = new int[this.items.length - 1];
+        System.arraycopy(this.items, 0, newItems, 0, index);
+        System.arraycopy(this.items, index + 1, newItems, index, this.items.length - index - 1);
+        return newItems.length == 0 ? EMPTY : new ImmutableIntArrayList(newItems);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof IntList))
+        {
+            return false;
+        }
+        IntList list = (IntList) otherList;
+        if (this.items.length != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (this.items[i] != list.get(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (int item : this.items)
+        {
+            hashCode = 31 * hashCode + item;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    private Object readResolve()
+    {
+        return this.items.length == 0 ? EMPTY : this;
+    }
+
+    private class InternalIntIterator
+            implements IntIterator
+    {
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != ImmutableIntArrayList.this.items.length;
+        }
+
+        public int next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            int next = ImmutableIntArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
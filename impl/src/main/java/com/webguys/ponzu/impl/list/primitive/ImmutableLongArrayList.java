@@ -0,0 +1,440 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableLongList backed by a long array which is never exposed or modified after construction.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableLongArrayList
+        implements ImmutableLongList, Serializable
+{
+    static final ImmutableLongArrayList EMPTY = new ImmutableLongArrayList(new long[0]);
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[] items;
+
+    private ImmutableLongArrayList(long[] newElements)
+    {
+        this.items = newElements;
+    }
+
+    public static ImmutableLongArrayList newList(LongIterable iterable)
+    {
+        return ImmutableLongArrayList.newListWith(iterable.toArray());
+    }
+
+    public static ImmutableLongArrayList newListWith(long... elements)
+    {
+        if (elements.length == 0)
+        {
+            return EMPTY;
+        }
+        long[] newArray = new long[elements.length];
+        System.arraycopy(elements, 0, newArray, 0, elements.length);
+        return new ImmutableLongArrayList(newArray);
+    }
+
+    public long get(int index)
+    {
+        return this.items[index];
+    }
+
+    public long getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public long getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.items.length - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.items.length == 0)
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(long value)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(long value)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public LongIterator longIterator()
+    {
+        return new InternalLongIterator();
+    }
+
+    public void forEach(LongProcedure procedure)
+    {
+        for (long item : this.items)
+        {
+            procedure.value(item);
+        }
+    }
+
+    public void forEachWithIndex(LongIntProcedure procedure)
+    {
+        for (int i = 0; i < this.items.length; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(LongProcedure procedure)
+    {
+        for (int i = this.items.length - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int size()
+    {
+        return this.items.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.items.length == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.items.length > 0;
+    }
+
+    public boolean contains(long value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(long... source)
+    {
+        for (long value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        int count = 0;
+        for (long item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        for (long item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        for (long item : this.items)
+        {
+            if (!predicate.accept(item))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        for (long item : this.items)
+        {
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public ImmutableLongList filter(LongPredicate predicate)
+    {
+        return this.toList().filter(predicate).toImmutable();
+    }
+
+    public ImmutableLongList filterNot(LongPredicate predicate)
+    {
+        return this.toList().filterNot(predicate).toImmutable();
+    }
+
+    public <V> ImmutableList<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.items.length);
+        for (long item : this.items)
+        {
+            target.add(function.valueOf(item));
+        }
+        return target.toImmutable();
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        for (int i = 0; i < this.items.length; i++)
+        {
+            result += this.items[i];
+        }
+        return result;
+    }
+
+    public long min()
+    {
+        this.checkEmpty();
+        long min = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            long value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public long max()
+    {
+        this.checkEmpty();
+        long max = this.items[0];
+        for (int i = 1; i < this.items.length; i++)
+        {
+            long value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.items.length;
+    }
+
+    public long[] toArray()
+    {
+        long[] newItems = new long[this.items.length];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        return newItems;
+    }
+
+    public long[] toSortedArray()
+    {
+        long[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public MutableLongList toList()
+    {
+        return LongArrayList.newListWith(this.toArray());
+    }
+
+    public MutableLongList toSortedList()
+    {
+        return LongArrayList.newListWith(this.toSortedArray());
+    }
+
+    public ImmutableLongList toImmutable()
+    {
+        return this;
+    }
+
+    public ImmutableLongList newWith(long element)
+    {
+        long[] newItems = new long[this.items.length + 1];
+        System.arraycopy(this.items, 0, newItems, 0, this.items.length);
+        newItems[this.items.length] = element;
+        return new ImmutableLongArrayList(newItems);
+    }
+
+    public ImmutableLongList newWithout(long element)
+    {
+        int index = this.indexOf(element);
+        if (index < 0)
+        {
+            return this;
+        }
+        long[] newItems = new long[this.items.length - 1];
+        System.arraycopy(this.items, 0, newItems, 0, index);
+        System.arraycopy(this.items, index + 1, newItems, index, this.items.length - index - 1);
+        return newItems.length == 0 ? EMPTY : new ImmutableLongArrayList(newItems);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof LongList))
+        {
+            return false;
+        }
+        LongList list = (LongList) otherList;
+        if (this.items.length != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (this.items[i] != list.get(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (long item : this.items)
+        {
+            hashCode = 31 * hashCode + (int) (item ^ item >>> 32);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.items.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    private Object readResolve()
+    {
+        return this.items.length == 0 ? EMPTY : this;
+    }
+
+    private class InternalLongIterator
+            implements LongIterator
+    {
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != ImmutableLongArrayList.this.items.length;
+        }
+
+        public long next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            long next = ImmutableLongArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+
+/**
+ * The factory behind {@link com.webguys.ponzu.impl.factory.LongLists#immutable}.
+ *
+ * @since 1.3
+ */
+public final class ImmutableLongListFactory
+{
+    public ImmutableLongList of()
+    {
+        return ImmutableLongArrayList.EMPTY;
+    }
+
+    public ImmutableLongList of(long... items)
+    {
+        return ImmutableLongArrayList.newListWith(items);
+    }
+
+    public ImmutableLongList ofAll(LongIterable items)
+    {
+        if (items instanceof ImmutableLongList)
+        {
+            return (ImmutableLongList) items;
+        }
+        return ImmutableLongArrayList.newList(items);
+    }
+
+    /**
+     * Returns an immutable list of the results of applying the function to each element of the iterable.
+     */
+    public <T> ImmutableLongList transform(Iterable<T> iterable, LongFunction<? super T> function)
+    {
+        return LongArrayList.newList(iterable, function).toImmutable();
+    }
+}
@@ -0,0 +1,717 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * IntArrayList is similar to {@link FastList}, and is memory-optimized for int primitives.  The elements are held
+ * in a int[] instead of as Integer objects, so a list of n elements costs roughly the size of n int values
+ * instead of n references plus n boxed objects.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class IntArrayList
+        implements MutableIntList, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+    private static final int[] DEFAULT_SIZED_EMPTY_ARRAY = {};
+    private static final int[] ZERO_SIZED_ARRAY = {};
+
+    private int size;
+    private transient int[] items = DEFAULT_SIZED_EMPTY_ARRAY;
+
+    public IntArrayList()
+    {
+    }
+
+    public IntArrayList(int initialCapacity)
+    {
+        this.items = initialCapacity == 0 ? ZERO_SIZED_ARRAY : new int[initialCapacity];
+    }
+
+    private IntArrayList(int[] array)
+    {
+        this.size = array.length;
+        this.items = array;
+    }
+
+    public static IntArrayList newList()
+    {
+        return new IntArrayList();
+    }
+
+    public static IntArrayList newList(int initialCapacity)
+    {
+        return new IntArrayList(initialCapacity);
+    }
+
+    public static IntArrayList newList(IntIterable source)
+    {
+        return new IntArrayList(source.toArray());
+    }
+
+    /**
+     * Creates a new list by applying the function to each element of the iterable, without boxing the results.
+     */
+    public static <T> IntArrayList newList(Iterable<T> iterable, final IntFunction<? super T> function)
+    {
+        final IntArrayList result = new IntArrayList(Iterate.sizeOf(iterable));
+        Iterate.forEach(iterable, new Procedure<T>()
+        {
+            public void value(T each)
+            {
+                result.add(function.intValueOf(each));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Creates a new list using the passed <code>elements</code> argument as the backing store.
+     * <p/>
+     * !!! WARNING: This method uses the passed in array, so can be very unsafe if the original
+     * array is held onto anywhere else. !!!
+     */
+    public static IntArrayList newListWith(int... elements)
+    {
+        return new IntArrayList(elements);
+    }
+
+    public static IntArrayList wrapCopy(int... array)
+    {
+        int[] newArray = new int[array.length];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return new IntArrayList(newArray);
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size > 0;
+    }
+
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+    public boolean contains(int value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(int... source)
+    {
+        for (int value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int get(int index)
+    {
+        if (index < this.size)
+        {
+            return this.items[index];
+        }
+        throw this.newIndexOutOfBoundsException(index);
+    }
+
+    private IndexOutOfBoundsException newIndexOutOfBoundsException(int index)
+    {
+        return new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size);
+    }
+
+    public int getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public int getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.size - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(int value)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(int value)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void trimToSize()
+    {
+        if (this.size < this.items.length)
+        {
+            this.transferItemsToNewArrayWithCapacity(this.size);
+        }
+    }
+
+    public void ensureCapacity(int minCapacity)
+    {
+        int oldCapacity = this.items.length;
+        if (minCapacity > oldCapacity)
+        {
+            int newCapacity = Math.max(this.sizePlusFiftyPercent(oldCapacity), minCapacity);
+            this.transferItemsToNewArrayWithCapacity(newCapacity);
+        }
+    }
+
+    private void transferItemsToNewArrayWithCapacity(int newCapacity)
+    {
+        int[] newItems = new int[newCapacity];
+        System.arraycopy(this.items, 0, newItems, 0, Math.min(this.size, newCapacity));
+        this.items = newItems;
+    }
+
+    private int sizePlusFiftyPercent(int oldSize)
+    {
+        return (oldSize * 3) / 2 + 1;
+    }
+
+    private void ensureCapacityForAdd()
+    {
+        if (this.items == DEFAULT_SIZED_EMPTY_ARRAY)
+        {
+            this.items = new int[10];
+        }
+        else
+        {
+            this.transferItemsToNewArrayWithCapacity(this.sizePlusFiftyPercent(this.size));
+        }
+    }
+
+    public boolean add(int newItem)
+    {
+        if (this.items.length == this.size)
+        {
+            this.ensureCapacityForAdd();
+        }
+        this.items[this.size++] = newItem;
+        return true;
+    }
+
+    public boolean addAll(int... source)
+    {
+        if (source.length < 1)
+        {
+            return false;
+        }
+        int sourceSize = source.length;
+        int newSize = this.size + sourceSize;
+        this.ensureCapacity(newSize);
+        System.arraycopy(source, 0, this.items, this.size, sourceSize);
+        this.size = newSize;
+        return true;
+    }
+
+    public boolean addAll(IntIterable source)
+    {
+        return this.addAll(source.toArray());
+    }
+
+    public void addAtIndex(int index, int element)
+    {
+        if (index > -1 && index < this.size)
+        {
+            this.addAtIndexLessThanSize(index, element);
+        }
+        else if (index == this.size)
+        {
+            this.add(element);
+        }
+        else
+        {
+            throw this.newIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void addAtIndexLessThanSize(int index, int element)
+    {
+        int oldSize = this.size++;
+        if (this.items.length == oldSize)
+        {
+            int[] newItems = new int[this.sizePlusFiftyPercent(oldSize)];
+            if (index > 0)
+            {
+                System.arraycopy(this.items, 0, newItems, 0, index);
+            }
+            System.arraycopy(this.items, index, newItems, index + 1, oldSize - index);
+            this.items = newItems;
+        }
+        else
+        {
+            System.arraycopy(this.items, index, this.items, index + 1, oldSize - index);
+        }
+        this.items[index] = element;
+    }
+
+    public boolean remove(int value)
+    {
+        int index = this.indexOf(value);
+        if (index >= 0)
+        {
+            this.removeAtIndex(index);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean removeAll(int... source)
+    {
+        boolean changed = false;
+        for (int value : source)
+        {
+            while (this.remove(value))
+            {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public int removeAtIndex(int index)
+    {
+        int previous = this.get(index);
+        int totalOffset = this.size - index - 1;
+        if (totalOffset > 0)
+        {
+            System.arraycopy(this.items, index + 1, this.items, index, totalOffset);
+        }
+        --this.size;
+        return previous;
+    }
+
+    public int set(int index, int element)
+    {
+        int previous = this.get(index);
+        this.items[index] = element;
+        return previous;
+    }
+
+    public IntArrayList with(int element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public IntArrayList without(int element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public IntArrayList withAll(IntIterable elements)
+    {
+        this.addAll(elements.toArray());
+        return this;
+    }
+
+    public IntIterator intIterator()
+    {
+        return new InternalIntIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public void forEachWithIndex(IntIntProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(IntProcedure procedure)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        int count = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (!predicate.accept(this.items[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            int item = this.items[i];
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public IntArrayList filter(IntPredicate predicate)
+    {
+        IntArrayList result = new IntArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            int item = this.items[i];
+            if (predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public IntArrayList filterNot(IntPredicate predicate)
+    {
+        IntArrayList result = new IntArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            int item = this.items[i];
+            if (!predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public <V> FastList<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            target.add(function.valueOf(this.items[i]));
+        }
+        return target;
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        for (int i = 0; i < this.size; i++)
+        {
+            result += this.items[i];
+        }
+        return result;
+    }
+
+    public int min()
+    {
+        this.checkEmpty();
+        int min = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            int value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public int max()
+    {
+        this.checkEmpty();
+        int max = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            int value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.size;
+    }
+
+    public int[] toArray()
+    {
+        int[] newItems = new int[this.size];
+        System.arraycopy(this.items, 0, newItems, 0, this.size);
+        return newItems;
+    }
+
+    public int[] toSortedArray()
+    {
+        int[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public IntArrayList toList()
+    {
+        return new IntArrayList(this.toArray());
+    }
+
+    public IntArrayList toSortedList()
+    {
+        return new IntArrayList(this.toSortedArray());
+    }
+
+    public ImmutableIntList toImmutable()
+    {
+        return ImmutableIntArrayList.newList(this);
+    }
+
+    public IntArrayList sortThis()
+    {
+        Arrays.sort(this.items, 0, this.size);
+        return this;
+    }
+
+    public IntArrayList reverseThis()
+    {
+        int endIndex = this.size - 1;
+        for (int i = 0; i < this.size / 2; i++)
+        {
+            int tempSwapValue = this.items[i];
+            this.items[i] = this.items[endIndex - i];
+            this.items[endIndex - i] = tempSwapValue;
+        }
+        return this;
+    }
+
+    public MutableIntList asUnmodifiable()
+    {
+        return new UnmodifiableIntList(this);
+    }
+
+    public MutableIntList asSynchronized()
+    {
+        return new SynchronizedIntList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof IntList))
+        {
+            return false;
+        }
+        IntList list = (IntList) otherList;
+        if (this.size != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++)
+        {
+            if (this.items[i] != list.get(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++)
+        {
+            int item = this.items[i];
+            hashCode = 31 * hashCode + item;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.size; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            out.writeInt(this.items[i]);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException
+    {
+        this.size = in.readInt();
+        this.items = new int[this.size];
+        for (int i = 0; i < this.size; i++)
+        {
+            this.items[i] = in.readInt();
+        }
+    }
+
+    private class InternalIntIterator
+            implements IntIterator
+    {
+        /**
+         * Index of element to be returned by subsequent call to next.
+         */
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != IntArrayList.this.size();
+        }
+
+        public int next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            int next = IntArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.parallel.ParallelIterate;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An IntInterval is a range of int values that may be iterated over using a step value.  It is the primitive
+ * counterpart of {@link Interval}: it iterates without boxing, and size, contains, sum, average, min and max are
+ * computed in constant time from the bounds instead of by visiting every element.
+ * <p/>
+ * Usage Example:
+ * <pre>
+ * IntInterval interval1 = IntInterval.from(1).to(5);         // results in: 1, 2, 3, 4, 5.
+ * IntInterval interval2 = IntInterval.from(1).to(10).by(2);  // results in: 1, 3, 5, 7, 9.
+ * </pre>
+ *
+ * @since 1.3
+ */
+@Immutable
+public final class IntInterval
+        implements ImmutableIntList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int step;
+    private final int size;
+
+    private IntInterval(int from, int to, int step)
+    {
+        this.from = from;
+        this.to = to;
+        this.step = step;
+        this.size = sizeOf(from, to, step);
+    }
+
+    private static int sizeOf(int from, int to, int step)
+    {
+        long size = ((long) to - (long) from) / step + 1L;
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("An IntInterval cannot have more than Integer.MAX_VALUE elements");
+        }
+        return (int) size;
+    }
+
+    /**
+     * This static <code>from</code> method allows IntInterval to act as a fluent builder for itself.
+     * It works in conjunction with the instance methods {@link #to(int)} and {@link #by(int)}.
+     */
+    public static IntInterval from(int newFrom)
+    {
+        return IntInterval.fromToBy(newFrom, newFrom, 1);
+    }
+
+    /**
+     * This instance <code>to</code> method allows IntInterval to act as a fluent builder for itself.
+     * It works in conjunction with the static method {@link #from(int)} and instance method {@link #by(int)}.
+     */
+    public IntInterval to(int newTo)
+    {
+        return IntInterval.fromToBy(this.from, newTo, this.step);
+    }
+
+    /**
+     * This instance <code>by</code> method allows IntInterval to act as a fluent builder for itself.
+     * It works in conjunction with the static method {@link #from(int)} and instance method {@link #to(int)}.
+     */
+    public IntInterval by(int newStep)
+    {
+        return IntInterval.fromToBy(this.from, this.to, newStep);
+    }
+
+    /**
+     * Returns an IntInterval starting at zero.
+     */
+    public static IntInterval zero()
+    {
+        return IntInterval.from(0);
+    }
+
+    /**
+     * Returns an IntInterval starting from 1 to the specified count value with a step value of 1.
+     */
+    public static IntInterval oneTo(int count)
+    {
+        return IntInterval.oneToBy(count, 1);
+    }
+
+    /**
+     * Returns an IntInterval starting from 1 to the specified count value with a step value of step.
+     */
+    public static IntInterval oneToBy(int count, int step)
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("Only positive ranges allowed using oneToBy");
+        }
+        return IntInterval.fromToBy(1, count, step);
+    }
+
+    /**
+     * Returns an IntInterval starting from 0 to the specified count value with a step value of 1.
+     */
+    public static IntInterval zeroTo(int count)
+    {
+        return IntInterval.zeroToBy(count, 1);
+    }
+
+    /**
+     * Returns an IntInterval starting from 0 to the specified count value with a step value of step.
+     */
+    public static IntInterval zeroToBy(int count, int step)
+    {
+        return IntInterval.fromToBy(0, count, step);
+    }
+
+    /**
+     * Returns an IntInterval starting from the value from to the specified value to with a step value of 1, or
+     * of -1 if from is greater than to.
+     */
+    public static IntInterval fromTo(int from, int to)
+    {
+        return IntInterval.fromToBy(from, to, from <= to ? 1 : -1);
+    }
+
+    /**
+     * Returns an IntInterval representing the even values from the value from to the value to.
+     */
+    public static IntInterval evensFromTo(int from, int to)
+    {
+        int first = from % 2 == 0 ? from : from < to ? from + 1 : from - 1;
+        int last = to % 2 == 0 ? to : to > first ? to - 1 : to + 1;
+        return IntInterval.fromToBy(first, last, last > first ? 2 : -2);
+    }
+
+    /**
+     * Returns an IntInterval representing the odd values from the value from to the value to.
+     */
+    public static IntInterval oddsFromTo(int from, int to)
+    {
+        int first = from % 2 != 0 ? from : from < to ? from + 1 : from - 1;
+        int last = to % 2 != 0 ? to : to > first ? to - 1 : to + 1;
+        return IntInterval.fromToBy(first, last, last > first ? 2 : -2);
+    }
+
+    /**
+     * Returns an IntInterval for the range of values inclusively between from and to with the specified stepBy
+     * value.
+     */
+    public static IntInterval fromToBy(int from, int to, int stepBy)
+    {
+        if (stepBy == 0)
+        {
+            throw new IllegalArgumentException("Cannot use a step by of 0");
+        }
+        if (from > to && stepBy > 0 || from < to && stepBy < 0)
+        {
+            throw new IllegalArgumentException("Step by is incorrect for the range");
+        }
+        return new IntInterval(from, to, stepBy);
+    }
+
+    private int valueAtIndex(int index)
+    {
+        // cannot overflow, as the result lies between from and to
+        return this.from + this.step * index;
+    }
+
+    public IntIterator intIterator()
+    {
+        return new IntIntervalIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        this.forEachInRange(procedure, 0, this.size);
+    }
+
+    private void forEachInRange(IntProcedure procedure, int startIndex, int count)
+    {
+        int value = this.valueAtIndex(startIndex);
+        for (int i = 0; i < count; i++)
+        {
+            procedure.value(value);
+            value += this.step;
+        }
+    }
+
+    /**
+     * Executes the procedure for each value on the executor, splitting the interval into one contiguous range per
+     * task using the default task count of {@link ParallelIterate}, and waits for all of the ranges to complete.
+     */
+    public void forEach(IntProcedure procedure, Executor executor)
+    {
+        this.forEach(procedure, ParallelIterate.getDefaultTaskCount(), executor);
+    }
+
+    /**
+     * Executes the procedure for each value on the executor, splitting the interval into taskCount contiguous ranges
+     * of nearly equal size, and waits for all of the ranges to complete.  Each range is iterated as a primitive loop,
+     * so there is one task per range rather than one per value.
+     */
+    public void forEach(final IntProcedure procedure, int taskCount, Executor executor)
+    {
+        int sectionCount = Math.max(1, Math.min(taskCount, this.size));
+        final CountDownLatch latch = new CountDownLatch(sectionCount);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        int sectionSize = this.size / sectionCount;
+        int remainder = this.size % sectionCount;
+        int startIndex = 0;
+        for (int section = 0; section < sectionCount; section++)
+        {
+            final int sectionStart = startIndex;
+            final int count = section < remainder ? sectionSize + 1 : sectionSize;
+            startIndex += count;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        IntInterval.this.forEachInRange(procedure, sectionStart, count);
+                    }
+                    catch (Throwable newError)
+                    {
+                        error.compareAndSet(null, newError);
+                    }
+                    finally
+                    {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException("Combine failed", e);
+        }
+        if (error.get() != null)
+        {
+            throw new RuntimeException("One or more parallel tasks failed", error.get());
+        }
+    }
+
+    public void forEachWithIndex(IntIntProcedure procedure)
+    {
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(value, i);
+            value += this.step;
+        }
+    }
+
+    public void reverseForEach(IntProcedure procedure)
+    {
+        int value = this.getLast();
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(value);
+            value -= this.step;
+        }
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return false;
+    }
+
+    public boolean notEmpty()
+    {
+        return true;
+    }
+
+    public int get(int index)
+    {
+        if (index < 0 || index >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size);
+        }
+        return this.valueAtIndex(index);
+    }
+
+    public int getFirst()
+    {
+        return this.from;
+    }
+
+    public int getLast()
+    {
+        return this.valueAtIndex(this.size - 1);
+    }
+
+    public int indexOf(int value)
+    {
+        if (!this.contains(value))
+        {
+            return -1;
+        }
+        return (int) (((long) value - this.from) / this.step);
+    }
+
+    public int lastIndexOf(int value)
+    {
+        return this.indexOf(value);
+    }
+
+    public boolean contains(int value)
+    {
+        return value >= this.min() && value <= this.max() && ((long) value - this.from) % this.step == 0L;
+    }
+
+    public boolean containsAll(int... source)
+    {
+        for (int value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        int count = 0;
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(value))
+            {
+                count++;
+            }
+            value += this.step;
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(value))
+            {
+                return true;
+            }
+            value += this.step;
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (!predicate.accept(value))
+            {
+                return false;
+            }
+            value += this.step;
+        }
+        return true;
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(value))
+            {
+                return value;
+            }
+            value += this.step;
+        }
+        return ifNone;
+    }
+
+    public ImmutableIntList filter(IntPredicate predicate)
+    {
+        return this.toList().filter(predicate).toImmutable();
+    }
+
+    public ImmutableIntList filterNot(IntPredicate predicate)
+    {
+        return this.toList().filterNot(predicate).toImmutable();
+    }
+
+    public <V> ImmutableList<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.size);
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            target.add(function.valueOf(value));
+            value += this.step;
+        }
+        return target.toImmutable();
+    }
+
+    /**
+     * Returns the sum of the values, computed in constant time.  As with summing the values one by one, the result
+     * wraps around if it does not fit in a long.
+     */
+    public long sum()
+    {
+        long size = this.size;
+        // size * (size - 1) cannot overflow, as size is at most Integer.MAX_VALUE
+        return size * this.from + (size * (size - 1L) / 2L) * this.step;
+    }
+
+    public int min()
+    {
+        return this.step > 0 ? this.from : this.getLast();
+    }
+
+    public int max()
+    {
+        return this.step > 0 ? this.getLast() : this.from;
+    }
+
+    public double average()
+    {
+        return ((double) this.from + (double) this.getLast()) / 2.0;
+    }
+
+    public int[] toArray()
+    {
+        int[] result = new int[this.size];
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            result[i] = value;
+            value += this.step;
+        }
+        return result;
+    }
+
+    public int[] toSortedArray()
+    {
+        return this.step > 0 ? this.toArray() : this.reverseThis().toArray();
+    }
+
+    /**
+     * Returns a new IntInterval with the same values in reverse order.
+     */
+    public IntInterval reverseThis()
+    {
+        return IntInterval.fromToBy(this.getLast(), this.from, -this.step);
+    }
+
+    public MutableIntList toList()
+    {
+        return IntArrayList.newListWith(this.toArray());
+    }
+
+    public MutableIntList toSortedList()
+    {
+        return IntArrayList.newListWith(this.toSortedArray());
+    }
+
+    public ImmutableIntList toImmutable()
+    {
+        return this;
+    }
+
+    public ImmutableIntList newWith(int element)
+    {
+        return this.toList().with(element).toImmutable();
+    }
+
+    public ImmutableIntList newWithout(int element)
+    {
+        return this.toList().without(element).toImmutable();
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof IntList))
+        {
+            return false;
+        }
+        IntList list = (IntList) otherList;
+        if (otherList instanceof IntInterval)
+        {
+            IntInterval interval = (IntInterval) otherList;
+            return this.from == interval.from && this.size == interval.size && (this.size == 1 || this.step == interval.step);
+        }
+        if (this.size != list.size())
+        {
+            return false;
+        }
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (value != list.get(i))
+            {
+                return false;
+            }
+            value += this.step;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            hashCode = 31 * hashCode + value;
+            value += this.step;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        int value = this.from;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(value);
+            value += this.step;
+        }
+        return builder.append(end).toString();
+    }
+
+    private final class IntIntervalIterator implements IntIterator
+    {
+        private int index;
+        private int current = IntInterval.this.from;
+
+        public boolean hasNext()
+        {
+            return this.index < IntInterval.this.size;
+        }
+
+        public int next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            int result = this.current;
+            this.current += IntInterval.this.step;
+            this.index++;
+            return result;
+        }
+    }
+}
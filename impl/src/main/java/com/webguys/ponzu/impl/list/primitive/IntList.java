@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ListIterable;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * An ordered, indexed IntIterable.  Two IntLists are equal if they contain the same elements in the same order,
+ * and the hashCode is computed the same way as {@link java.util.List#hashCode()} would for the boxed values.
+ *
+ * @since 1.3
+ */
+public interface IntList
+        extends IntIterable
+{
+    int get(int index);
+
+    int getFirst();
+
+    int getLast();
+
+    int indexOf(int value);
+
+    int lastIndexOf(int value);
+
+    void forEachWithIndex(IntIntProcedure procedure);
+
+    void reverseForEach(IntProcedure procedure);
+
+    IntList filter(IntPredicate predicate);
+
+    IntList filterNot(IntPredicate predicate);
+
+    <V> ListIterable<V> transform(IntToObjectFunction<? extends V> function);
+
+    /**
+     * Returns a new mutable copy of this list.
+     */
+    MutableIntList toList();
+
+    /**
+     * Returns a new mutable copy of this list, sorted in ascending order.
+     */
+    MutableIntList toSortedList();
+
+    ImmutableIntList toImmutable();
+
+    boolean equals(Object o);
+
+    int hashCode();
+}
@@ -0,0 +1,717 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * LongArrayList is similar to {@link FastList}, and is memory-optimized for long primitives.  The elements are held
+ * in a long[] instead of as Long objects, so a list of n elements costs roughly the size of n long values
+ * instead of n references plus n boxed objects.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class LongArrayList
+        implements MutableLongList, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+    private static final long[] DEFAULT_SIZED_EMPTY_ARRAY = {};
+    private static final long[] ZERO_SIZED_ARRAY = {};
+
+    private int size;
+    private transient long[] items = DEFAULT_SIZED_EMPTY_ARRAY;
+
+    public LongArrayList()
+    {
+    }
+
+    public LongArrayList(int initialCapacity)
+    {
+        this.items = initialCapacity == 0 ? ZERO_SIZED_ARRAY : new long[initialCapacity];
+    }
+
+    private LongArrayList(long[] array)
+    {
+        this.size = array.length;
+        this.items = array;
+    }
+
+    public static LongArrayList newList()
+    {
+        return new LongArrayList();
+    }
+
+    public static LongArrayList newList(int initialCapacity)
+    {
+        return new LongArrayList(initialCapacity);
+    }
+
+    public static LongArrayList newList(LongIterable source)
+    {
+        return new LongArrayList(source.toArray());
+    }
+
+    /**
+     * Creates a new list by applying the function to each element of the iterable, without boxing the results.
+     */
+    public static <T> LongArrayList newList(Iterable<T> iterable, final LongFunction<? super T> function)
+    {
+        final LongArrayList result = new LongArrayList(Iterate.sizeOf(iterable));
+        Iterate.forEach(iterable, new Procedure<T>()
+        {
+            public void value(T each)
+            {
+                result.add(function.longValueOf(each));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Creates a new list using the passed <code>elements</code> argument as the backing store.
+     * <p/>
+     * !!! WARNING: This method uses the passed in array, so can be very unsafe if the original
+     * array is held onto anywhere else. !!!
+     */
+    public static LongArrayList newListWith(long... elements)
+    {
+        return new LongArrayList(elements);
+    }
+
+    public static LongArrayList wrapCopy(long... array)
+    {
+        long[] newArray = new long[array.length];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return new LongArrayList(newArray);
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size > 0;
+    }
+
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+    public boolean contains(long value)
+    {
+        return this.indexOf(value) >= 0;
+    }
+
+    public boolean containsAll(long... source)
+    {
+        for (long value : source)
+        {
+            if (!this.contains(value))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long get(int index)
+    {
+        if (index < this.size)
+        {
+            return this.items[index];
+        }
+        throw this.newIndexOutOfBoundsException(index);
+    }
+
+    private IndexOutOfBoundsException newIndexOutOfBoundsException(int index)
+    {
+        return new IndexOutOfBoundsException("Index: " + index + " Size: " + this.size);
+    }
+
+    public long getFirst()
+    {
+        this.checkEmpty();
+        return this.items[0];
+    }
+
+    public long getLast()
+    {
+        this.checkEmpty();
+        return this.items[this.size - 1];
+    }
+
+    private void checkEmpty()
+    {
+        if (this.isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public int indexOf(long value)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(long value)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            if (this.items[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void trimToSize()
+    {
+        if (this.size < this.items.length)
+        {
+            this.transferItemsToNewArrayWithCapacity(this.size);
+        }
+    }
+
+    public void ensureCapacity(int minCapacity)
+    {
+        int oldCapacity = this.items.length;
+        if (minCapacity > oldCapacity)
+        {
+            int newCapacity = Math.max(this.sizePlusFiftyPercent(oldCapacity), minCapacity);
+            this.transferItemsToNewArrayWithCapacity(newCapacity);
+        }
+    }
+
+    private void transferItemsToNewArrayWithCapacity(int newCapacity)
+    {
+        long[] newItems = new long[newCapacity];
+        System.arraycopy(this.items, 0, newItems, 0, Math.min(this.size, newCapacity));
+        this.items = newItems;
+    }
+
+    private int sizePlusFiftyPercent(int oldSize)
+    {
+        return (oldSize * 3) / 2 + 1;
+    }
+
+    private void ensureCapacityForAdd()
+    {
+        if (this.items == DEFAULT_SIZED_EMPTY_ARRAY)
+        {
+            this.items = new long[10];
+        }
+        else
+        {
+            this.transferItemsToNewArrayWithCapacity(this.sizePlusFiftyPercent(this.size));
+        }
+    }
+
+    public boolean add(long newItem)
+    {
+        if (this.items.length == this.size)
+        {
+            this.ensureCapacityForAdd();
+        }
+        this.items[this.size++] = newItem;
+        return true;
+    }
+
+    public boolean addAll(long... source)
+    {
+        if (source.length < 1)
+        {
+            return false;
+        }
+        int sourceSize = source.length;
+        int newSize = this.size + sourceSize;
+        this.ensureCapacity(newSize);
+        System.arraycopy(source, 0, this.items, this.size, sourceSize);
+        this.size = newSize;
+        return true;
+    }
+
+    public boolean addAll(LongIterable source)
+    {
+        return this.addAll(source.toArray());
+    }
+
+    public void addAtIndex(int index, long element)
+    {
+        if (index > -1 && index < this.size)
+        {
+            this.addAtIndexLessThanSize(index, element);
+        }
+        else if (index == this.size)
+        {
+            this.add(element);
+        }
+        else
+        {
+            throw this.newIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void addAtIndexLessThanSize(int index, long element)
+    {
+        int oldSize = this.size++;
+        if (this.items.length == oldSize)
+        {
+            long[] newItems = new long[this.sizePlusFiftyPercent(oldSize)];
+            if (index > 0)
+            {
+                System.arraycopy(this.items, 0, newItems, 0, index);
+            }
+            System.arraycopy(this.items, index, newItems, index + 1, oldSize - index);
+            this.items = newItems;
+        }
+        else
+        {
+            System.arraycopy(this.items, index, this.items, index + 1, oldSize - index);
+        }
+        this.items[index] = element;
+    }
+
+    public boolean remove(long value)
+    {
+        int index = this.indexOf(value);
+        if (index >= 0)
+        {
+            this.removeAtIndex(index);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean removeAll(long... source)
+    {
+        boolean changed = false;
+        for (long value : source)
+        {
+            while (this.remove(value))
+            {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public long removeAtIndex(int index)
+    {
+        long previous = this.get(index);
+        int totalOffset = this.size - index - 1;
+        if (totalOffset > 0)
+        {
+            System.arraycopy(this.items, index + 1, this.items, index, totalOffset);
+        }
+        --this.size;
+        return previous;
+    }
+
+    public long set(int index, long element)
+    {
+        long previous = this.get(index);
+        this.items[index] = element;
+        return previous;
+    }
+
+    public LongArrayList with(long element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public LongArrayList without(long element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public LongArrayList withAll(LongIterable elements)
+    {
+        this.addAll(elements.toArray());
+        return this;
+    }
+
+    public LongIterator longIterator()
+    {
+        return new InternalLongIterator();
+    }
+
+    public void forEach(LongProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public void forEachWithIndex(LongIntProcedure procedure)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            procedure.value(this.items[i], i);
+        }
+    }
+
+    public void reverseForEach(LongProcedure procedure)
+    {
+        for (int i = this.size - 1; i >= 0; i--)
+        {
+            procedure.value(this.items[i]);
+        }
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        int count = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (predicate.accept(this.items[i]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            if (!predicate.accept(this.items[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            long item = this.items[i];
+            if (predicate.accept(item))
+            {
+                return item;
+            }
+        }
+        return ifNone;
+    }
+
+    public LongArrayList filter(LongPredicate predicate)
+    {
+        LongArrayList result = new LongArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            long item = this.items[i];
+            if (predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public LongArrayList filterNot(LongPredicate predicate)
+    {
+        LongArrayList result = new LongArrayList();
+        for (int i = 0; i < this.size; i++)
+        {
+            long item = this.items[i];
+            if (!predicate.accept(item))
+            {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public <V> FastList<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        FastList<V> target = FastList.newList(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            target.add(function.valueOf(this.items[i]));
+        }
+        return target;
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        for (int i = 0; i < this.size; i++)
+        {
+            result += this.items[i];
+        }
+        return result;
+    }
+
+    public long min()
+    {
+        this.checkEmpty();
+        long min = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            long value = this.items[i];
+            if (value < min)
+            {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public long max()
+    {
+        this.checkEmpty();
+        long max = this.items[0];
+        for (int i = 1; i < this.size; i++)
+        {
+            long value = this.items[i];
+            if (value > max)
+            {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty list");
+        }
+        return (double) this.sum() / (double) this.size;
+    }
+
+    public long[] toArray()
+    {
+        long[] newItems = new long[this.size];
+        System.arraycopy(this.items, 0, newItems, 0, this.size);
+        return newItems;
+    }
+
+    public long[] toSortedArray()
+    {
+        long[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public LongArrayList toList()
+    {
+        return new LongArrayList(this.toArray());
+    }
+
+    public LongArrayList toSortedList()
+    {
+        return new LongArrayList(this.toSortedArray());
+    }
+
+    public ImmutableLongList toImmutable()
+    {
+        return ImmutableLongArrayList.newList(this);
+    }
+
+    public LongArrayList sortThis()
+    {
+        Arrays.sort(this.items, 0, this.size);
+        return this;
+    }
+
+    public LongArrayList reverseThis()
+    {
+        int endIndex = this.size - 1;
+        for (int i = 0; i < this.size / 2; i++)
+        {
+            long tempSwapValue = this.items[i];
+            this.items[i] = this.items[endIndex - i];
+            this.items[endIndex - i] = tempSwapValue;
+        }
+        return this;
+    }
+
+    public MutableLongList asUnmodifiable()
+    {
+        return new UnmodifiableLongList(this);
+    }
+
+    public MutableLongList asSynchronized()
+    {
+        return new SynchronizedLongList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        if (otherList == this)
+        {
+            return true;
+        }
+        if (!(otherList instanceof LongList))
+        {
+            return false;
+        }
+        LongList list = (LongList) otherList;
+        if (this.size != list.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++)
+        {
+            if (this.items[i] != list.get(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++)
+        {
+            long item = this.items[i];
+            hashCode = 31 * hashCode + (int) (item ^ item >>> 32);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        for (int i = 0; i < this.size; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(separator);
+            }
+            builder.append(this.items[i]);
+        }
+        return builder.append(end).toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            out.writeLong(this.items[i]);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException
+    {
+        this.size = in.readInt();
+        this.items = new long[this.size];
+        for (int i = 0; i < this.size; i++)
+        {
+            this.items[i] = in.readLong();
+        }
+    }
+
+    private class InternalLongIterator
+            implements LongIterator
+    {
+        /**
+         * Index of element to be returned by subsequent call to next.
+         */
+        private int currentIndex;
+
+        public boolean hasNext()
+        {
+            return this.currentIndex != LongArrayList.this.size();
+        }
+
+        public long next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            long next = LongArrayList.this.items[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+    }
+}
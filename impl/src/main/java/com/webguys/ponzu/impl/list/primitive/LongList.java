@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ListIterable;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+
+/**
+ * An ordered, indexed LongIterable.  Two LongLists are equal if they contain the same elements in the same order,
+ * and the hashCode is computed the same way as {@link java.util.List#hashCode()} would for the boxed values.
+ *
+ * @since 1.3
+ */
+public interface LongList
+        extends LongIterable
+{
+    long get(int index);
+
+    long getFirst();
+
+    long getLast();
+
+    int indexOf(long value);
+
+    int lastIndexOf(long value);
+
+    void forEachWithIndex(LongIntProcedure procedure);
+
+    void reverseForEach(LongProcedure procedure);
+
+    LongList filter(LongPredicate predicate);
+
+    LongList filterNot(LongPredicate predicate);
+
+    <V> ListIterable<V> transform(LongToObjectFunction<? extends V> function);
+
+    /**
+     * Returns a new mutable copy of this list.
+     */
+    MutableLongList toList();
+
+    /**
+     * Returns a new mutable copy of this list, sorted in ascending order.
+     */
+    MutableLongList toSortedList();
+
+    ImmutableLongList toImmutable();
+
+    boolean equals(Object o);
+
+    int hashCode();
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+
+/**
+ * A DoubleList which may be modified in place.
+ *
+ * @since 1.3
+ */
+public interface MutableDoubleList
+        extends DoubleList
+{
+    boolean add(double element);
+
+    boolean addAll(double... source);
+
+    boolean addAll(DoubleIterable source);
+
+    void addAtIndex(int index, double element);
+
+    /**
+     * Removes the first occurrence of the value from the list, returning true if the list was changed.
+     */
+    boolean remove(double value);
+
+    boolean removeAll(double... source);
+
+    double removeAtIndex(int index);
+
+    /**
+     * Replaces the element at the specified index, returning the element previously at that index.
+     */
+    double set(int index, double element);
+
+    void clear();
+
+    MutableDoubleList with(double element);
+
+    MutableDoubleList without(double element);
+
+    MutableDoubleList withAll(DoubleIterable elements);
+
+    MutableDoubleList filter(DoublePredicate predicate);
+
+    MutableDoubleList filterNot(DoublePredicate predicate);
+
+    <V> MutableList<V> transform(DoubleToObjectFunction<? extends V> function);
+
+    /**
+     * Sorts the list in place into ascending order and returns it.
+     */
+    MutableDoubleList sortThis();
+
+    MutableDoubleList reverseThis();
+
+    MutableDoubleList asUnmodifiable();
+
+    MutableDoubleList asSynchronized();
+}
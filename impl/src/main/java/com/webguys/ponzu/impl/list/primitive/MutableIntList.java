@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * A IntList which may be modified in place.
+ *
+ * @since 1.3
+ */
+public interface MutableIntList
+        extends IntList
+{
+    boolean add(int element);
+
+    boolean addAll(int... source);
+
+    boolean addAll(IntIterable source);
+
+    void addAtIndex(int index, int element);
+
+    /**
+     * Removes the first occurrence of the value from the list, returning true if the list was changed.
+     */
+    boolean remove(int value);
+
+    boolean removeAll(int... source);
+
+    int removeAtIndex(int index);
+
+    /**
+     * Replaces the element at the specified index, returning the element previously at that index.
+     */
+    int set(int index, int element);
+
+    void clear();
+
+    MutableIntList with(int element);
+
+    MutableIntList without(int element);
+
+    MutableIntList withAll(IntIterable elements);
+
+    MutableIntList filter(IntPredicate predicate);
+
+    MutableIntList filterNot(IntPredicate predicate);
+
+    <V> MutableList<V> transform(IntToObjectFunction<? extends V> function);
+
+    /**
+     * Sorts the list in place into ascending order and returns it.
+     */
+    MutableIntList sortThis();
+
+    MutableIntList reverseThis();
+
+    MutableIntList asUnmodifiable();
+
+    MutableIntList asSynchronized();
+}
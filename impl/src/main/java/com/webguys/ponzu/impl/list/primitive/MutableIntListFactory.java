@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * The factory behind {@link com.webguys.ponzu.impl.factory.IntLists#mutable}.
+ *
+ * @since 1.3
+ */
+public final class MutableIntListFactory
+{
+    public MutableIntList of()
+    {
+        return IntArrayList.newList();
+    }
+
+    public MutableIntList of(int... items)
+    {
+        return IntArrayList.wrapCopy(items);
+    }
+
+    public MutableIntList ofAll(IntIterable items)
+    {
+        return IntArrayList.newList(items);
+    }
+
+    /**
+     * Returns a list of the results of applying the function to each element of the iterable.
+     */
+    public <T> MutableIntList transform(Iterable<T> iterable, IntFunction<? super T> function)
+    {
+        return IntArrayList.newList(iterable, function);
+    }
+}
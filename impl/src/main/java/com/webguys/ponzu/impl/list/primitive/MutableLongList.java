@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+
+/**
+ * A LongList which may be modified in place.
+ *
+ * @since 1.3
+ */
+public interface MutableLongList
+        extends LongList
+{
+    boolean add(long element);
+
+    boolean addAll(long... source);
+
+    boolean addAll(LongIterable source);
+
+    void addAtIndex(int index, long element);
+
+    /**
+     * Removes the first occurrence of the value from the list, returning true if the list was changed.
+     */
+    boolean remove(long value);
+
+    boolean removeAll(long... source);
+
+    long removeAtIndex(int index);
+
+    /**
+     * Replaces the element at the specified index, returning the element previously at that index.
+     */
+    long set(int index, long element);
+
+    void clear();
+
+    MutableLongList with(long element);
+
+    MutableLongList without(long element);
+
+    MutableLongList withAll(LongIterable elements);
+
+    MutableLongList filter(LongPredicate predicate);
+
+    MutableLongList filterNot(LongPredicate predicate);
+
+    <V> MutableList<V> transform(LongToObjectFunction<? extends V> function);
+
+    /**
+     * Sorts the list in place into ascending order and returns it.
+     */
+    MutableLongList sortThis();
+
+    MutableLongList reverseThis();
+
+    MutableLongList asUnmodifiable();
+
+    MutableLongList asSynchronized();
+}
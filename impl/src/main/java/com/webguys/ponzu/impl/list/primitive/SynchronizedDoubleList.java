@@ -0,0 +1,493 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+import com.webguys.ponzu.impl.primitive.DoubleIterator;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A synchronized view of a MutableDoubleList.  It is imperative that the user manually synchronize on the lock when
+ * iterating over it using the DoubleIterator, as per {@link java.util.Collections#synchronizedList(java.util.List)}.
+ *
+ * @see MutableDoubleList#asSynchronized()
+ * @since 1.3
+ */
+@ThreadSafe
+public final class SynchronizedDoubleList
+        implements MutableDoubleList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock;
+    @GuardedBy("this.lock")
+    private final MutableDoubleList list;
+
+    SynchronizedDoubleList(MutableDoubleList list)
+    {
+        this(list, null);
+    }
+
+    SynchronizedDoubleList(MutableDoubleList list, Object newLock)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create a SynchronizedDoubleList on a null list");
+        }
+        this.list = list;
+        this.lock = newLock == null ? this : newLock;
+    }
+
+    public static SynchronizedDoubleList of(MutableDoubleList list)
+    {
+        return new SynchronizedDoubleList(list);
+    }
+
+    public static SynchronizedDoubleList of(MutableDoubleList list, Object lock)
+    {
+        return new SynchronizedDoubleList(list, lock);
+    }
+
+    public boolean add(double element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.add(element);
+        }
+    }
+
+    public boolean addAll(double... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public boolean addAll(DoubleIterable source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public void addAtIndex(int index, double element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAtIndex(index, element);
+        }
+    }
+
+    public boolean remove(double value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.remove(value);
+        }
+    }
+
+    public boolean removeAll(double... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAll(source);
+        }
+    }
+
+    public double removeAtIndex(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAtIndex(index);
+        }
+    }
+
+    public double set(int index, double element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.set(index, element);
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.list.clear();
+        }
+    }
+
+    public SynchronizedDoubleList with(double element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.add(element);
+            return this;
+        }
+    }
+
+    public SynchronizedDoubleList without(double element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.remove(element);
+            return this;
+        }
+    }
+
+    public SynchronizedDoubleList withAll(DoubleIterable elements)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAll(elements);
+            return this;
+        }
+    }
+
+    public SynchronizedDoubleList sortThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.sortThis();
+            return this;
+        }
+    }
+
+    public SynchronizedDoubleList reverseThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseThis();
+            return this;
+        }
+    }
+
+    public double get(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.get(index);
+        }
+    }
+
+    public double getFirst()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getFirst();
+        }
+    }
+
+    public double getLast()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getLast();
+        }
+    }
+
+    public int indexOf(double value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.indexOf(value);
+        }
+    }
+
+    public int lastIndexOf(double value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.lastIndexOf(value);
+        }
+    }
+
+    /**
+     * Must be called in a synchronized block.
+     */
+    public DoubleIterator doubleIterator()
+    {
+        return this.list.doubleIterator();
+    }
+
+    public void forEach(DoubleProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEach(procedure);
+        }
+    }
+
+    public void forEachWithIndex(DoubleIntProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEachWithIndex(procedure);
+        }
+    }
+
+    public void reverseForEach(DoubleProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseForEach(procedure);
+        }
+    }
+
+    public int size()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.size();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.isEmpty();
+        }
+    }
+
+    public boolean notEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.notEmpty();
+        }
+    }
+
+    public boolean contains(double value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.contains(value);
+        }
+    }
+
+    public boolean containsAll(double... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.containsAll(source);
+        }
+    }
+
+    public int count(DoublePredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.count(predicate);
+        }
+    }
+
+    public boolean anySatisfy(DoublePredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.anySatisfy(predicate);
+        }
+    }
+
+    public boolean allSatisfy(DoublePredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.allSatisfy(predicate);
+        }
+    }
+
+    public double find(DoublePredicate predicate, double ifNone)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.find(predicate, ifNone);
+        }
+    }
+
+    public MutableDoubleList filter(DoublePredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filter(predicate);
+        }
+    }
+
+    public MutableDoubleList filterNot(DoublePredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filterNot(predicate);
+        }
+    }
+
+    public <V> MutableList<V> transform(DoubleToObjectFunction<? extends V> function)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.transform(function);
+        }
+    }
+
+    public double sum()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.sum();
+        }
+    }
+
+    public double min()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.min();
+        }
+    }
+
+    public double max()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.max();
+        }
+    }
+
+    public double average()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.average();
+        }
+    }
+
+    public double[] toArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toArray();
+        }
+    }
+
+    public double[] toSortedArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedArray();
+        }
+    }
+
+    public MutableDoubleList toList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toList();
+        }
+    }
+
+    public MutableDoubleList toSortedList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedList();
+        }
+    }
+
+    public ImmutableDoubleList toImmutable()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toImmutable();
+        }
+    }
+
+    public MutableDoubleList asUnmodifiable()
+    {
+        synchronized (this.lock)
+        {
+            return new UnmodifiableDoubleList(this);
+        }
+    }
+
+    public MutableDoubleList asSynchronized()
+    {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.equals(otherList);
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.hashCode();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toString();
+        }
+    }
+
+    public String makeString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString();
+        }
+    }
+
+    public String makeString(String separator)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(separator);
+        }
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(start, separator, end);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A synchronized view of a MutableIntList.  It is imperative that the user manually synchronize on the lock when
+ * iterating over it using the IntIterator, as per {@link java.util.Collections#synchronizedList(java.util.List)}.
+ *
+ * @see MutableIntList#asSynchronized()
+ * @since 1.3
+ */
+@ThreadSafe
+public final class SynchronizedIntList
+        implements MutableIntList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock;
+    @GuardedBy("this.lock")
+    private final MutableIntList list;
+
+    SynchronizedIntList(MutableIntList list)
+    {
+        this(list, null);
+    }
+
+    SynchronizedIntList(MutableIntList list, Object newLock)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create a SynchronizedIntList on a null list");
+        }
+        this.list = list;
+        this.lock = newLock == null ? this : newLock;
+    }
+
+    public static SynchronizedIntList of(MutableIntList list)
+    {
+        return new SynchronizedIntList(list);
+    }
+
+    public static SynchronizedIntList of(MutableIntList list, Object lock)
+    {
+        return new SynchronizedIntList(list, lock);
+    }
+
+    public boolean add(int element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.add(element);
+        }
+    }
+
+    public boolean addAll(int... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public boolean addAll(IntIterable source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public void addAtIndex(int index, int element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAtIndex(index, element);
+        }
+    }
+
+    public boolean remove(int value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.remove(value);
+        }
+    }
+
+    public boolean removeAll(int... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAll(source);
+        }
+    }
+
+    public int removeAtIndex(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAtIndex(index);
+        }
+    }
+
+    public int set(int index, int element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.set(index, element);
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.list.clear();
+        }
+    }
+
+    public SynchronizedIntList with(int element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.add(element);
+            return this;
+        }
+    }
+
+    public SynchronizedIntList without(int element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.remove(element);
+            return this;
+        }
+    }
+
+    public SynchronizedIntList withAll(IntIterable elements)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAll(elements);
+            return this;
+        }
+    }
+
+    public SynchronizedIntList sortThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.sortThis();
+            return this;
+        }
+    }
+
+    public SynchronizedIntList reverseThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseThis();
+            return this;
+        }
+    }
+
+    public int get(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.get(index);
+        }
+    }
+
+    public int getFirst()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getFirst();
+        }
+    }
+
+    public int getLast()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getLast();
+        }
+    }
+
+    public int indexOf(int value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.indexOf(value);
+        }
+    }
+
+    public int lastIndexOf(int value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.lastIndexOf(value);
+        }
+    }
+
+    /**
+     * Must be called in a synchronized block.
+     */
+    public IntIterator intIterator()
+    {
+        return this.list.intIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEach(procedure);
+        }
+    }
+
+    public void forEachWithIndex(IntIntProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEachWithIndex(procedure);
+        }
+    }
+
+    public void reverseForEach(IntProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseForEach(procedure);
+        }
+    }
+
+    public int size()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.size();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.isEmpty();
+        }
+    }
+
+    public boolean notEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.notEmpty();
+        }
+    }
+
+    public boolean contains(int value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.contains(value);
+        }
+    }
+
+    public boolean containsAll(int... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.containsAll(source);
+        }
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.count(predicate);
+        }
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.anySatisfy(predicate);
+        }
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.allSatisfy(predicate);
+        }
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.find(predicate, ifNone);
+        }
+    }
+
+    public MutableIntList filter(IntPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filter(predicate);
+        }
+    }
+
+    public MutableIntList filterNot(IntPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filterNot(predicate);
+        }
+    }
+
+    public <V> MutableList<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.transform(function);
+        }
+    }
+
+    public long sum()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.sum();
+        }
+    }
+
+    public int min()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.min();
+        }
+    }
+
+    public int max()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.max();
+        }
+    }
+
+    public double average()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.average();
+        }
+    }
+
+    public int[] toArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toArray();
+        }
+    }
+
+    public int[] toSortedArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedArray();
+        }
+    }
+
+    public MutableIntList toList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toList();
+        }
+    }
+
+    public MutableIntList toSortedList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedList();
+        }
+    }
+
+    public ImmutableIntList toImmutable()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toImmutable();
+        }
+    }
+
+    public MutableIntList asUnmodifiable()
+    {
+        synchronized (this.lock)
+        {
+            return new UnmodifiableIntList(this);
+        }
+    }
+
+    public MutableIntList asSynchronized()
+    {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.equals(otherList);
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.hashCode();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toString();
+        }
+    }
+
+    public String makeString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString();
+        }
+    }
+
+    public String makeString(String separator)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(separator);
+        }
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(start, separator, end);
+        }
+    }
+}
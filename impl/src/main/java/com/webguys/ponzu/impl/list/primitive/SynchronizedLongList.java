@@ -0,0 +1,493 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A synchronized view of a MutableLongList.  It is imperative that the user manually synchronize on the lock when
+ * iterating over it using the LongIterator, as per {@link java.util.Collections#synchronizedList(java.util.List)}.
+ *
+ * @see MutableLongList#asSynchronized()
+ * @since 1.3
+ */
+@ThreadSafe
+public final class SynchronizedLongList
+        implements MutableLongList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock;
+    @GuardedBy("this.lock")
+    private final MutableLongList list;
+
+    SynchronizedLongList(MutableLongList list)
+    {
+        this(list, null);
+    }
+
+    SynchronizedLongList(MutableLongList list, Object newLock)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create a SynchronizedLongList on a null list");
+        }
+        this.list = list;
+        this.lock = newLock == null ? this : newLock;
+    }
+
+    public static SynchronizedLongList of(MutableLongList list)
+    {
+        return new SynchronizedLongList(list);
+    }
+
+    public static SynchronizedLongList of(MutableLongList list, Object lock)
+    {
+        return new SynchronizedLongList(list, lock);
+    }
+
+    public boolean add(long element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.add(element);
+        }
+    }
+
+    public boolean addAll(long... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public boolean addAll(LongIterable source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.addAll(source);
+        }
+    }
+
+    public void addAtIndex(int index, long element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAtIndex(index, element);
+        }
+    }
+
+    public boolean remove(long value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.remove(value);
+        }
+    }
+
+    public boolean removeAll(long... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAll(source);
+        }
+    }
+
+    public long removeAtIndex(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.removeAtIndex(index);
+        }
+    }
+
+    public long set(int index, long element)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.set(index, element);
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.list.clear();
+        }
+    }
+
+    public SynchronizedLongList with(long element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.add(element);
+            return this;
+        }
+    }
+
+    public SynchronizedLongList without(long element)
+    {
+        synchronized (this.lock)
+        {
+            this.list.remove(element);
+            return this;
+        }
+    }
+
+    public SynchronizedLongList withAll(LongIterable elements)
+    {
+        synchronized (this.lock)
+        {
+            this.list.addAll(elements);
+            return this;
+        }
+    }
+
+    public SynchronizedLongList sortThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.sortThis();
+            return this;
+        }
+    }
+
+    public SynchronizedLongList reverseThis()
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseThis();
+            return this;
+        }
+    }
+
+    public long get(int index)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.get(index);
+        }
+    }
+
+    public long getFirst()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getFirst();
+        }
+    }
+
+    public long getLast()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.getLast();
+        }
+    }
+
+    public int indexOf(long value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.indexOf(value);
+        }
+    }
+
+    public int lastIndexOf(long value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.lastIndexOf(value);
+        }
+    }
+
+    /**
+     * Must be called in a synchronized block.
+     */
+    public LongIterator longIterator()
+    {
+        return this.list.longIterator();
+    }
+
+    public void forEach(LongProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEach(procedure);
+        }
+    }
+
+    public void forEachWithIndex(LongIntProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.forEachWithIndex(procedure);
+        }
+    }
+
+    public void reverseForEach(LongProcedure procedure)
+    {
+        synchronized (this.lock)
+        {
+            this.list.reverseForEach(procedure);
+        }
+    }
+
+    public int size()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.size();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.isEmpty();
+        }
+    }
+
+    public boolean notEmpty()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.notEmpty();
+        }
+    }
+
+    public boolean contains(long value)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.contains(value);
+        }
+    }
+
+    public boolean containsAll(long... source)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.containsAll(source);
+        }
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.count(predicate);
+        }
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.anySatisfy(predicate);
+        }
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.allSatisfy(predicate);
+        }
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.find(predicate, ifNone);
+        }
+    }
+
+    public MutableLongList filter(LongPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filter(predicate);
+        }
+    }
+
+    public MutableLongList filterNot(LongPredicate predicate)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.filterNot(predicate);
+        }
+    }
+
+    public <V> MutableList<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.transform(function);
+        }
+    }
+
+    public long sum()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.sum();
+        }
+    }
+
+    public long min()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.min();
+        }
+    }
+
+    public long max()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.max();
+        }
+    }
+
+    public double average()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.average();
+        }
+    }
+
+    public long[] toArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toArray();
+        }
+    }
+
+    public long[] toSortedArray()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedArray();
+        }
+    }
+
+    public MutableLongList toList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toList();
+        }
+    }
+
+    public MutableLongList toSortedList()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toSortedList();
+        }
+    }
+
+    public ImmutableLongList toImmutable()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toImmutable();
+        }
+    }
+
+    public MutableLongList asUnmodifiable()
+    {
+        synchronized (this.lock)
+        {
+            return new UnmodifiableLongList(this);
+        }
+    }
+
+    public MutableLongList asSynchronized()
+    {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.equals(otherList);
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.hashCode();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.toString();
+        }
+    }
+
+    public String makeString()
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString();
+        }
+    }
+
+    public String makeString(String separator)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(separator);
+        }
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        synchronized (this.lock)
+        {
+            return this.list.makeString(start, separator, end);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.primitive.DoubleIterable;
+import com.webguys.ponzu.impl.primitive.DoubleIterator;
+
+/**
+ * An unmodifiable view of a MutableDoubleList.
+ *
+ * @see MutableDoubleList#asUnmodifiable()
+ * @since 1.3
+ */
+public final class UnmodifiableDoubleList
+        implements MutableDoubleList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final MutableDoubleList list;
+
+    UnmodifiableDoubleList(MutableDoubleList list)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create an UnmodifiableDoubleList on a null list");
+        }
+        this.list = list;
+    }
+
+    public static UnmodifiableDoubleList of(MutableDoubleList list)
+    {
+        return new UnmodifiableDoubleList(list);
+    }
+
+    public boolean add(double element)
+    {
+        throw new UnsupportedOperationException("Cannot call add() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(double... source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(DoubleIterable source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public void addAtIndex(int index, double element)
+    {
+        throw new UnsupportedOperationException("Cannot call addAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean remove(double value)
+    {
+        throw new UnsupportedOperationException("Cannot call remove() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean removeAll(double... source)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAll() on " + this.getClass().getSimpleName());
+    }
+
+    public double removeAtIndex(int index)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public double set(int index, double element)
+    {
+        throw new UnsupportedOperationException("Cannot call set() on " + this.getClass().getSimpleName());
+    }
+
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot call clear() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableDoubleList with(double element)
+    {
+        throw new UnsupportedOperationException("Cannot call with() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableDoubleList without(double element)
+    {
+        throw new UnsupportedOperationException("Cannot call without() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableDoubleList withAll(DoubleIterable elements)
+    {
+        throw new UnsupportedOperationException("Cannot call withAll() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableDoubleList sortThis()
+    {
+        throw new UnsupportedOperationException("Cannot call sortThis() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableDoubleList reverseThis()
+    {
+        throw new UnsupportedOperationException("Cannot call reverseThis() on " + this.getClass().getSimpleName());
+    }
+
+    public double get(int index)
+    {
+        return this.list.get(index);
+    }
+
+    public double getFirst()
+    {
+        return this.list.getFirst();
+    }
+
+    public double getLast()
+    {
+        return this.list.getLast();
+    }
+
+    public int indexOf(double value)
+    {
+        return this.list.indexOf(value);
+    }
+
+    public int lastIndexOf(double value)
+    {
+        return this.list.lastIndexOf(value);
+    }
+
+    public DoubleIterator doubleIterator()
+    {
+        return this.list.doubleIterator();
+    }
+
+    public void forEach(DoubleProcedure procedure)
+    {
+        this.list.forEach(procedure);
+    }
+
+    public void forEachWithIndex(DoubleIntProcedure procedure)
+    {
+        this.list.forEachWithIndex(procedure);
+    }
+
+    public void reverseForEach(DoubleProcedure procedure)
+    {
+        this.list.reverseForEach(procedure);
+    }
+
+    public int size()
+    {
+        return this.list.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return this.list.isEmpty();
+    }
+
+    public boolean notEmpty()
+    {
+        return this.list.notEmpty();
+    }
+
+    public boolean contains(double value)
+    {
+        return this.list.contains(value);
+    }
+
+    public boolean containsAll(double... source)
+    {
+        return this.list.containsAll(source);
+    }
+
+    public int count(DoublePredicate predicate)
+    {
+        return this.list.count(predicate);
+    }
+
+    public boolean anySatisfy(DoublePredicate predicate)
+    {
+        return this.list.anySatisfy(predicate);
+    }
+
+    public boolean allSatisfy(DoublePredicate predicate)
+    {
+        return this.list.allSatisfy(predicate);
+    }
+
+    public double find(DoublePredicate predicate, double ifNone)
+    {
+        return this.list.find(predicate, ifNone);
+    }
+
+    public MutableDoubleList filter(DoublePredicate predicate)
+    {
+        return this.list.filter(predicate);
+    }
+
+    public MutableDoubleList filterNot(DoublePredicate predicate)
+    {
+        return this.list.filterNot(predicate);
+    }
+
+    public <V> MutableList<V> transform(DoubleToObjectFunction<? extends V> function)
+    {
+        return this.list.transform(function);
+    }
+
+    public double sum()
+    {
+        return this.list.sum();
+    }
+
+    public double min()
+    {
+        return this.list.min();
+    }
+
+    public double max()
+    {
+        return this.list.max();
+    }
+
+    public double average()
+    {
+        return this.list.average();
+    }
+
+    public double[] toArray()
+    {
+        return this.list.toArray();
+    }
+
+    public double[] toSortedArray()
+    {
+        return this.list.toSortedArray();
+    }
+
+    public MutableDoubleList toList()
+    {
+        return this.list.toList();
+    }
+
+    public MutableDoubleList toSortedList()
+    {
+        return this.list.toSortedList();
+    }
+
+    public ImmutableDoubleList toImmutable()
+    {
+        return this.list.toImmutable();
+    }
+
+    public MutableDoubleList asUnmodifiable()
+    {
+        return this;
+    }
+
+    public MutableDoubleList asSynchronized()
+    {
+        return new SynchronizedDoubleList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        return this.list.equals(otherList);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.list.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.list.toString();
+    }
+
+    public String makeString()
+    {
+        return this.list.makeString();
+    }
+
+    public String makeString(String separator)
+    {
+        return this.list.makeString(separator);
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        return this.list.makeString(start, separator, end);
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+
+/**
+ * An unmodifiable view of a MutableIntList.
+ *
+ * @see MutableIntList#asUnmodifiable()
+ * @since 1.3
+ */
+public final class UnmodifiableIntList
+        implements MutableIntList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final MutableIntList list;
+
+    UnmodifiableIntList(MutableIntList list)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create an UnmodifiableIntList on a null list");
+        }
+        this.list = list;
+    }
+
+    public static UnmodifiableIntList of(MutableIntList list)
+    {
+        return new UnmodifiableIntList(list);
+    }
+
+    public boolean add(int element)
+    {
+        throw new UnsupportedOperationException("Cannot call add() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(int... source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(IntIterable source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public void addAtIndex(int index, int element)
+    {
+        throw new UnsupportedOperationException("Cannot call addAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean remove(int value)
+    {
+        throw new UnsupportedOperationException("Cannot call remove() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean removeAll(int... source)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAll() on " + this.getClass().getSimpleName());
+    }
+
+    public int removeAtIndex(int index)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public int set(int index, int element)
+    {
+        throw new UnsupportedOperationException("Cannot call set() on " + this.getClass().getSimpleName());
+    }
+
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot call clear() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableIntList with(int element)
+    {
+        throw new UnsupportedOperationException("Cannot call with() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableIntList without(int element)
+    {
+        throw new UnsupportedOperationException("Cannot call without() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableIntList withAll(IntIterable elements)
+    {
+        throw new UnsupportedOperationException("Cannot call withAll() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableIntList sortThis()
+    {
+        throw new UnsupportedOperationException("Cannot call sortThis() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableIntList reverseThis()
+    {
+        throw new UnsupportedOperationException("Cannot call reverseThis() on " + this.getClass().getSimpleName());
+    }
+
+    public int get(int index)
+    {
+        return this.list.get(index);
+    }
+
+    public int getFirst()
+    {
+        return this.list.getFirst();
+    }
+
+    public int getLast()
+    {
+        return this.list.getLast();
+    }
+
+    public int indexOf(int value)
+    {
+        return this.list.indexOf(value);
+    }
+
+    public int lastIndexOf(int value)
+    {
+        return this.list.lastIndexOf(value);
+    }
+
+    public IntIterator intIterator()
+    {
+        return this.list.intIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        this.list.forEach(procedure);
+    }
+
+    public void forEachWithIndex(IntIntProcedure procedure)
+    {
+        this.list.forEachWithIndex(procedure);
+    }
+
+    public void reverseForEach(IntProcedure procedure)
+    {
+        this.list.reverseForEach(procedure);
+    }
+
+    public int size()
+    {
+        return this.list.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return this.list.isEmpty();
+    }
+
+    public boolean notEmpty()
+    {
+        return this.list.notEmpty();
+    }
+
+    public boolean contains(int value)
+    {
+        return this.list.contains(value);
+    }
+
+    public boolean containsAll(int... source)
+    {
+        return this.list.containsAll(source);
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        return this.list.count(predicate);
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        return this.list.anySatisfy(predicate);
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        return this.list.allSatisfy(predicate);
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        return this.list.find(predicate, ifNone);
+    }
+
+    public MutableIntList filter(IntPredicate predicate)
+    {
+        return this.list.filter(predicate);
+    }
+
+    public MutableIntList filterNot(IntPredicate predicate)
+    {
+        return this.list.filterNot(predicate);
+    }
+
+    public <V> MutableList<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        return this.list.transform(function);
+    }
+
+    public long sum()
+    {
+        return this.list.sum();
+    }
+
+    public int min()
+    {
+        return this.list.min();
+    }
+
+    public int max()
+    {
+        return this.list.max();
+    }
+
+    public double average()
+    {
+        return this.list.average();
+    }
+
+    public int[] toArray()
+    {
+        return this.list.toArray();
+    }
+
+    public int[] toSortedArray()
+    {
+        return this.list.toSortedArray();
+    }
+
+    public MutableIntList toList()
+    {
+        return this.list.toList();
+    }
+
+    public MutableIntList toSortedList()
+    {
+        return this.list.toSortedList();
+    }
+
+    public ImmutableIntList toImmutable()
+    {
+        return this.list.toImmutable();
+    }
+
+    public MutableIntList asUnmodifiable()
+    {
+        return this;
+    }
+
+    public MutableIntList asSynchronized()
+    {
+        return new SynchronizedIntList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        return this.list.equals(otherList);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.list.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.list.toString();
+    }
+
+    public String makeString()
+    {
+        return this.list.makeString();
+    }
+
+    public String makeString(String separator)
+    {
+        return this.list.makeString(separator);
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        return this.list.makeString(start, separator, end);
+    }
+}
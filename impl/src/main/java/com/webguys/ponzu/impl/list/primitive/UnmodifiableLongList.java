@@ -0,0 +1,318 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.io.Serializable;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+
+/**
+ * An unmodifiable view of a MutableLongList.
+ *
+ * @see MutableLongList#asUnmodifiable()
+ * @since 1.3
+ */
+public final class UnmodifiableLongList
+        implements MutableLongList, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final MutableLongList list;
+
+    UnmodifiableLongList(MutableLongList list)
+    {
+        if (list == null)
+        {
+            throw new IllegalArgumentException("Cannot create an UnmodifiableLongList on a null list");
+        }
+        this.list = list;
+    }
+
+    public static UnmodifiableLongList of(MutableLongList list)
+    {
+        return new UnmodifiableLongList(list);
+    }
+
+    public boolean add(long element)
+    {
+        throw new UnsupportedOperationException("Cannot call add() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(long... source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean addAll(LongIterable source)
+    {
+        throw new UnsupportedOperationException("Cannot call addAll() on " + this.getClass().getSimpleName());
+    }
+
+    public void addAtIndex(int index, long element)
+    {
+        throw new UnsupportedOperationException("Cannot call addAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean remove(long value)
+    {
+        throw new UnsupportedOperationException("Cannot call remove() on " + this.getClass().getSimpleName());
+    }
+
+    public boolean removeAll(long... source)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAll() on " + this.getClass().getSimpleName());
+    }
+
+    public long removeAtIndex(int index)
+    {
+        throw new UnsupportedOperationException("Cannot call removeAtIndex() on " + this.getClass().getSimpleName());
+    }
+
+    public long set(int index, long element)
+    {
+        throw new UnsupportedOperationException("Cannot call set() on " + this.getClass().getSimpleName());
+    }
+
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot call clear() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableLongList with(long element)
+    {
+        throw new UnsupportedOperationException("Cannot call with() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableLongList without(long element)
+    {
+        throw new UnsupportedOperationException("Cannot call without() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableLongList withAll(LongIterable elements)
+    {
+        throw new UnsupportedOperationException("Cannot call withAll() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableLongList sortThis()
+    {
+        throw new UnsupportedOperationException("Cannot call sortThis() on " + this.getClass().getSimpleName());
+    }
+
+    public MutableLongList reverseThis()
+    {
+        throw new UnsupportedOperationException("Cannot call reverseThis() on " + this.getClass().getSimpleName());
+    }
+
+    public long get(int index)
+    {
+        return this.list.get(index);
+    }
+
+    public long getFirst()
+    {
+        return this.list.getFirst();
+    }
+
+    public long getLast()
+    {
+        return this.list.getLast();
+    }
+
+    public int indexOf(long value)
+    {
+        return this.list.indexOf(value);
+    }
+
+    public int lastIndexOf(long value)
+    {
+        return this.list.lastIndexOf(value);
+    }
+
+    public LongIterator longIterator()
+    {
+        return this.list.longIterator();
+    }
+
+    public void forEach(LongProcedure procedure)
+    {
+        this.list.forEach(procedure);
+    }
+
+    public void forEachWithIndex(LongIntProcedure procedure)
+    {
+        this.list.forEachWithIndex(procedure);
+    }
+
+    public void reverseForEach(LongProcedure procedure)
+    {
+        this.list.reverseForEach(procedure);
+    }
+
+    public int size()
+    {
+        return this.list.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return this.list.isEmpty();
+    }
+
+    public boolean notEmpty()
+    {
+        return this.list.notEmpty();
+    }
+
+    public boolean contains(long value)
+    {
+        return this.list.contains(value);
+    }
+
+    public boolean containsAll(long... source)
+    {
+        return this.list.containsAll(source);
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        return this.list.count(predicate);
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        return this.list.anySatisfy(predicate);
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        return this.list.allSatisfy(predicate);
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        return this.list.find(predicate, ifNone);
+    }
+
+    public MutableLongList filter(LongPredicate predicate)
+    {
+        return this.list.filter(predicate);
+    }
+
+    public MutableLongList filterNot(LongPredicate predicate)
+    {
+        return this.list.filterNot(predicate);
+    }
+
+    public <V> MutableList<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        return this.list.transform(function);
+    }
+
+    public long sum()
+    {
+        return this.list.sum();
+    }
+
+    public long min()
+    {
+        return this.list.min();
+    }
+
+    public long max()
+    {
+        return this.list.max();
+    }
+
+    public double average()
+    {
+        return this.list.average();
+    }
+
+    public long[] toArray()
+    {
+        return this.list.toArray();
+    }
+
+    public long[] toSortedArray()
+    {
+        return this.list.toSortedArray();
+    }
+
+    public MutableLongList toList()
+    {
+        return this.list.toList();
+    }
+
+    public MutableLongList toSortedList()
+    {
+        return this.list.toSortedList();
+    }
+
+    public ImmutableLongList toImmutable()
+    {
+        return this.list.toImmutable();
+    }
+
+    public MutableLongList asUnmodifiable()
+    {
+        return this;
+    }
+
+    public MutableLongList asSynchronized()
+    {
+        return new SynchronizedLongList(this);
+    }
+
+    @Override
+    public boolean equals(Object otherList)
+    {
+        return this.list.equals(otherList);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.list.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.list.toString();
+    }
+
+    public String makeString()
+    {
+        return this.list.makeString();
+    }
+
+    public String makeString(String separator)
+    {
+        return this.list.makeString(separator);
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        return this.list.makeString(start, separator, end);
+    }
+}
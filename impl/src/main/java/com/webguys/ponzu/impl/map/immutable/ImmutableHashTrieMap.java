@@ -0,0 +1,1021 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.immutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableMap stored as a compressed hash array mapped prefix trie (CHAMP).  Each node of the trie covers five
+ * more bits of the hash of its keys and holds two bitmaps: one marking the slots which hold an entry inline and one
+ * marking those which hold a child node.  Entries are packed at the front of the node's array and children at the
+ * back, so a node is never larger than what it holds.  Keys whose hashes agree on all 32 bits share a collision node
+ * at the bottom of the trie.
+ * <p/>
+ * newWithKeyValue and newWithoutKey copy only the nodes on the path to the key, at most seven of them, and share
+ * everything else with the original map, so a point update costs O(log32 n) in both time and allocation.  After a
+ * removal a node left with a single entry is folded into its parent, which keeps the trie in the same shape however it
+ * was built.  The bulk operations and {@link #newMap(Map)} build in place: the nodes they create are marked with a
+ * token private to that one call, and are mutated rather than copied until the call returns.
+ * <p/>
+ * Null keys and null values are allowed.  Iteration order follows the hashes of the keys.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableHashTrieMap<K, V>
+        extends AbstractImmutableMap<K, V>
+        implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int BIT_PARTITION_SIZE = 5;
+
+    private static final int BIT_PARTITION_MASK = 0x1f;
+
+    private static final int HASH_CODE_LENGTH = 32;
+
+    /**
+     * Seven levels of bitmap nodes and one of collision nodes.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final ImmutableHashTrieMap<?, ?> EMPTY =
+            new ImmutableHashTrieMap<Object, Object>(BitmapIndexedNode.EMPTY_NODE, 0);
+
+    private final Node root;
+    private final int size;
+
+    private ImmutableHashTrieMap(Node root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    static <K, V> ImmutableHashTrieMap<K, V> empty()
+    {
+        return (ImmutableHashTrieMap<K, V>) EMPTY;
+    }
+
+    static <K, V> ImmutableHashTrieMap<K, V> newMap(Map<? extends K, ? extends V> map)
+    {
+        if (map instanceof ImmutableHashTrieMap)
+        {
+            return (ImmutableHashTrieMap<K, V>) map;
+        }
+        Object owner = new Object();
+        Change change = new Change();
+        Node root = BitmapIndexedNode.EMPTY_NODE;
+        int size = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+        {
+            change.reset();
+            K key = entry.getKey();
+            root = root.updated(owner, key, entry.getValue(), hash(key), 0, change);
+            if (change.modified && !change.replaced)
+            {
+                size++;
+            }
+        }
+        return new ImmutableHashTrieMap<K, V>(root, size);
+    }
+
+    private static int hash(Object key)
+    {
+        if (key == null)
+        {
+            return 0;
+        }
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int mask(int hash, int shift)
+    {
+        return (hash >>> shift) & BIT_PARTITION_MASK;
+    }
+
+    private static int bitpos(int mask)
+    {
+        return 1 << mask;
+    }
+
+    private static boolean eq(Object one, Object two)
+    {
+        return one == two || one != null && one.equals(two);
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean notEmpty()
+    {
+        return this.size != 0;
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return this.root.get(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        for (Iterator<V> iterator = this.valuesView().iterator(); iterator.hasNext(); )
+        {
+            if (eq(iterator.next(), value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(Object key)
+    {
+        Object result = this.root.get(key, hash(key), 0);
+        return result == NOT_FOUND ? null : (V) result;
+    }
+
+    @Override
+    public ImmutableMap<K, V> newWithKeyValue(K key, V value)
+    {
+        Change change = new Change();
+        Node newRoot = this.root.updated(null, key, value, hash(key), 0, change);
+        if (!change.modified)
+        {
+            return this;
+        }
+        return new ImmutableHashTrieMap<K, V>(newRoot, change.replaced ? this.size : this.size + 1);
+    }
+
+    @Override
+    public ImmutableMap<K, V> newWithAllKeyValues(Iterable<? extends Pair<? extends K, ? extends V>> keyValues)
+    {
+        Object owner = new Object();
+        Change change = new Change();
+        Node newRoot = this.root;
+        int newSize = this.size;
+        for (Pair<? extends K, ? extends V> pair : keyValues)
+        {
+            change.reset();
+            K key = pair.getOne();
+            newRoot = newRoot.updated(owner, key, pair.getTwo(), hash(key), 0, change);
+            if (change.modified && !change.replaced)
+            {
+                newSize++;
+            }
+        }
+        return newRoot == this.root ? this : new ImmutableHashTrieMap<K, V>(newRoot, newSize);
+    }
+
+    @Override
+    public ImmutableMap<K, V> newWithAllKeyValueArguments(Pair<? extends K, ? extends V>... keyValuePairs)
+    {
+        return this.newWithAllKeyValues(java.util.Arrays.asList(keyValuePairs));
+    }
+
+    @Override
+    public ImmutableMap<K, V> newWithoutKey(K key)
+    {
+        Change change = new Change();
+        Node newRoot = this.root.removed(null, key, hash(key), 0, change);
+        if (!change.modified)
+        {
+            return this;
+        }
+        return new ImmutableHashTrieMap<K, V>(newRoot, this.size - 1);
+    }
+
+    @Override
+    public ImmutableMap<K, V> newWithoutAllKeys(Iterable<? extends K> keys)
+    {
+        Object owner = new Object();
+        Change change = new Change();
+        Node newRoot = this.root;
+        int newSize = this.size;
+        for (K key : keys)
+        {
+            change.reset();
+            newRoot = newRoot.removed(owner, key, hash(key), 0, change);
+            if (change.modified)
+            {
+                newSize--;
+            }
+        }
+        return newRoot == this.root ? this : new ImmutableHashTrieMap<K, V>(newRoot, newSize);
+    }
+
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        this.root.forEachKeyValue((Procedure2<Object, Object>) procedure);
+    }
+
+    @Override
+    public void forEachKey(final Procedure<? super K> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(key);
+            }
+        });
+    }
+
+    @Override
+    public void forEachValue(final Procedure<? super V> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(value);
+            }
+        });
+    }
+
+    public RichIterable<K> keysView()
+    {
+        return LazyIterate.adapt(new Iterable<K>()
+        {
+            public Iterator<K> iterator()
+            {
+                return new TrieIterator<K>(ImmutableHashTrieMap.this.root)
+                {
+                    @Override
+                    protected K valueOf(Object key, Object value)
+                    {
+                        return (K) key;
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<V> valuesView()
+    {
+        return LazyIterate.adapt(new Iterable<V>()
+        {
+            public Iterator<V> iterator()
+            {
+                return new TrieIterator<V>(ImmutableHashTrieMap.this.root)
+                {
+                    @Override
+                    protected V valueOf(Object key, Object value)
+                    {
+                        return (V) value;
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<Pair<K, V>> keyValuesView()
+    {
+        return LazyIterate.adapt(new Iterable<Pair<K, V>>()
+        {
+            public Iterator<Pair<K, V>> iterator()
+            {
+                return new TrieIterator<Pair<K, V>>(ImmutableHashTrieMap.this.root)
+                {
+                    @Override
+                    protected Pair<K, V> valueOf(Object key, Object value)
+                    {
+                        return Tuples.pair((K) key, (V) value);
+                    }
+                };
+            }
+        });
+    }
+
+    public Set<K> keySet()
+    {
+        return this.keysView().toSet().toImmutable().castToSet();
+    }
+
+    public Collection<V> values()
+    {
+        return this.valuesView().toList().toImmutable().castToList();
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        if (!(other instanceof Map))
+        {
+            return false;
+        }
+        final Map<K, V> that = (Map<K, V>) other;
+        if (that.size() != this.size)
+        {
+            return false;
+        }
+        for (Iterator<Pair<K, V>> iterator = this.keyValuesView().iterator(); iterator.hasNext(); )
+        {
+            Pair<K, V> pair = iterator.next();
+            if (!this.keyAndValueEquals(pair.getOne(), pair.getTwo(), that))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int[] result = new int[1];
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                result[0] += ImmutableHashTrieMap.this.keyAndValueHashCode(key, value);
+            }
+        });
+        return result[0];
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("{");
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                if (builder.length() > 1)
+                {
+                    builder.append(", ");
+                }
+                builder.append(key).append('=').append(value);
+            }
+        });
+        return builder.append('}').toString();
+    }
+
+    private Object writeReplace()
+    {
+        return new HashTrieMapSerializationProxy<K, V>(this);
+    }
+
+    /**
+     * What an update did: whether it changed the trie at all, whether it replaced the value of a key which was already
+     * there, and the value which it replaced or removed.
+     */
+    private static final class Change
+    {
+        private boolean modified;
+        private boolean replaced;
+
+        private void reset()
+        {
+            this.modified = false;
+            this.replaced = false;
+        }
+    }
+
+    private abstract static class Node
+    {
+        protected static final int SIZE_EMPTY = 0;
+        protected static final int SIZE_ONE = 1;
+        protected static final int SIZE_MORE_THAN_ONE = 2;
+
+        /**
+         * Returns the value of the key, or NOT_FOUND.
+         */
+        abstract Object get(Object key, int hash, int shift);
+
+        /**
+         * Returns the node with the key mapped to the value, which is this same node when nothing changed or when the
+         * node belongs to owner and could be changed in place.  A null owner never matches.
+         */
+        abstract Node updated(Object owner, Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node removed(Object owner, Object key, int hash, int shift, Change change);
+
+        abstract int nodeArity();
+
+        abstract Node getNode(int index);
+
+        abstract int payloadArity();
+
+        abstract Object getKey(int index);
+
+        abstract Object getValue(int index);
+
+        abstract int sizePredicate();
+
+        void forEachKeyValue(Procedure2<Object, Object> procedure)
+        {
+            int payloadArity = this.payloadArity();
+            for (int i = 0; i < payloadArity; i++)
+            {
+                procedure.value(this.getKey(i), this.getValue(i));
+            }
+            int nodeArity = this.nodeArity();
+            for (int i = 0; i < nodeArity; i++)
+            {
+                this.getNode(i).forEachKeyValue(procedure);
+            }
+        }
+    }
+
+    private static final class BitmapIndexedNode extends Node
+    {
+        private static final BitmapIndexedNode EMPTY_NODE = new BitmapIndexedNode(null, 0, 0, new Object[0]);
+
+        private final Object owner;
+        private int dataMap;
+        private int nodeMap;
+
+        /**
+         * The key and value of each entry, in bit order, followed by the child nodes in reverse bit order.
+         */
+        private Object[] content;
+
+        private BitmapIndexedNode(Object owner, int dataMap, int nodeMap, Object[] content)
+        {
+            this.owner = owner;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private boolean isOwnedBy(Object candidate)
+        {
+            return candidate != null && this.owner == candidate;
+        }
+
+        private int dataIndex(int bit)
+        {
+            return Integer.bitCount(this.dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit)
+        {
+            return Integer.bitCount(this.nodeMap & (bit - 1));
+        }
+
+        private Node nodeAt(int bit)
+        {
+            return (Node) this.content[this.content.length - 1 - this.nodeIndex(bit)];
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift)
+        {
+            int bit = bitpos(mask(hash, shift));
+            if ((this.dataMap & bit) != 0)
+            {
+                int index = this.dataIndex(bit) << 1;
+                return eq(this.content[index], key) ? this.content[index + 1] : NOT_FOUND;
+            }
+            if ((this.nodeMap & bit) != 0)
+            {
+                return this.nodeAt(bit).get(key, hash, shift + BIT_PARTITION_SIZE);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node updated(Object owner, Object key, Object value, int hash, int shift, Change change)
+        {
+            int bit = bitpos(mask(hash, shift));
+            if ((this.dataMap & bit) != 0)
+            {
+                int index = this.dataIndex(bit) << 1;
+                Object currentKey = this.content[index];
+                if (eq(currentKey, key))
+                {
+                    change.replaced = true;
+                    if (this.content[index + 1] == value)
+                    {
+                        return this;
+                    }
+                    change.modified = true;
+                    return this.copyAndSet(owner, index + 1, value);
+                }
+                Node subNode = mergeTwoKeyValPairs(
+                        owner,
+                        currentKey, this.content[index + 1], hash(currentKey),
+                        key, value, hash,
+                        shift + BIT_PARTITION_SIZE);
+                change.modified = true;
+                return this.copyAndMigrateFromInlineToNode(owner, bit, subNode);
+            }
+            if ((this.nodeMap & bit) != 0)
+            {
+                Node subNode = this.nodeAt(bit);
+                Node newSubNode = subNode.updated(owner, key, value, hash, shift + BIT_PARTITION_SIZE, change);
+                if (newSubNode == subNode)
+                {
+                    return this;
+                }
+                return this.copyAndSet(owner, this.content.length - 1 - this.nodeIndex(bit), newSubNode);
+            }
+            change.modified = true;
+            return this.copyAndInsertValue(owner, bit, key, value);
+        }
+
+        @Override
+        Node removed(Object owner, Object key, int hash, int shift, Change change)
+        {
+            int bit = bitpos(mask(hash, shift));
+            if ((this.dataMap & bit) != 0)
+            {
+                int index = this.dataIndex(bit) << 1;
+                if (!eq(this.content[index], key))
+                {
+                    return this;
+                }
+                change.modified = true;
+                if (this.payloadArity() == 2 && this.nodeArity() == 0)
+                {
+                    // The remaining entry may be pulled up to the root, so it is given the bit it would have there.
+                    int newDataMap = shift == 0 ? this.dataMap ^ bit : bitpos(mask(hash, 0));
+                    return index == 0
+                            ? new BitmapIndexedNode(owner, newDataMap, 0, new Object[]{this.content[2], this.content[3]})
+                            : new BitmapIndexedNode(owner, newDataMap, 0, new Object[]{this.content[0], this.content[1]});
+                }
+                return this.copyAndRemoveValue(owner, bit);
+            }
+            if ((this.nodeMap & bit) != 0)
+            {
+                Node subNode = this.nodeAt(bit);
+                Node newSubNode = subNode.removed(owner, key, hash, shift + BIT_PARTITION_SIZE, change);
+                if (!change.modified)
+                {
+                    return this;
+                }
+                if (newSubNode.sizePredicate() == SIZE_ONE)
+                {
+                    if (this.payloadArity() == 0 && this.nodeArity() == 1)
+                    {
+                        return newSubNode;
+                    }
+                    return this.copyAndMigrateFromNodeToInline(owner, bit, newSubNode);
+                }
+                if (newSubNode == subNode)
+                {
+                    return this;
+                }
+                return this.copyAndSet(owner, this.content.length - 1 - this.nodeIndex(bit), newSubNode);
+            }
+            return this;
+        }
+
+        private Node copyAndSet(Object owner, int index, Object element)
+        {
+            if (this.isOwnedBy(owner))
+            {
+                this.content[index] = element;
+                return this;
+            }
+            Object[] newContent = this.content.clone();
+            newContent[index] = element;
+            return new BitmapIndexedNode(owner, this.dataMap, this.nodeMap, newContent);
+        }
+
+        private Node copyAndInsertValue(Object owner, int bit, Object key, Object value)
+        {
+            int index = this.dataIndex(bit) << 1;
+            Object[] src = this.content;
+            Object[] dst = new Object[src.length + 2];
+            System.arraycopy(src, 0, dst, 0, index);
+            dst[index] = key;
+            dst[index + 1] = value;
+            System.arraycopy(src, index, dst, index + 2, src.length - index);
+            return this.withContent(owner, this.dataMap | bit, this.nodeMap, dst);
+        }
+
+        private Node copyAndRemoveValue(Object owner, int bit)
+        {
+            int index = this.dataIndex(bit) << 1;
+            Object[] src = this.content;
+            Object[] dst = new Object[src.length - 2];
+            System.arraycopy(src, 0, dst, 0, index);
+            System.arraycopy(src, index + 2, dst, index, src.length - index - 2);
+            return this.withContent(owner, this.dataMap ^ bit, this.nodeMap, dst);
+        }
+
+        private Node copyAndMigrateFromInlineToNode(Object owner, int bit, Node node)
+        {
+            int indexOld = this.dataIndex(bit) << 1;
+            int indexNew = this.content.length - 2 - this.nodeIndex(bit);
+            Object[] src = this.content;
+            Object[] dst = new Object[src.length - 1];
+            System.arraycopy(src, 0, dst, 0, indexOld);
+            System.arraycopy(src, indexOld + 2, dst, indexOld, indexNew - indexOld);
+            dst[indexNew] = node;
+            System.arraycopy(src, indexNew + 2, dst, indexNew + 1, src.length - indexNew - 2);
+            return this.withContent(owner, this.dataMap ^ bit, this.nodeMap | bit, dst);
+        }
+
+        private Node copyAndMigrateFromNodeToInline(Object owner, int bit, Node node)
+        {
+            int indexOld = this.content.length - 1 - this.nodeIndex(bit);
+            int indexNew = this.dataIndex(bit) << 1;
+            Object[] src = this.content;
+            Object[] dst = new Object[src.length + 1];
+            System.arraycopy(src, 0, dst, 0, indexNew);
+            dst[indexNew] = node.getKey(0);
+            dst[indexNew + 1] = node.getValue(0);
+            System.arraycopy(src, indexNew, dst, indexNew + 2, indexOld - indexNew);
+            System.arraycopy(src, indexOld + 1, dst, indexOld + 2, src.length - indexOld - 1);
+            return this.withContent(owner, this.dataMap | bit, this.nodeMap ^ bit, dst);
+        }
+
+        private Node withContent(Object owner, int newDataMap, int newNodeMap, Object[] newContent)
+        {
+            if (this.isOwnedBy(owner))
+            {
+                this.dataMap = newDataMap;
+                this.nodeMap = newNodeMap;
+                this.content = newContent;
+                return this;
+            }
+            return new BitmapIndexedNode(owner, newDataMap, newNodeMap, newContent);
+        }
+
+        @Override
+        int nodeArity()
+        {
+            return Integer.bitCount(this.nodeMap);
+        }
+
+        @Override
+        Node getNode(int index)
+        {
+            return (Node) this.content[this.content.length - 1 - index];
+        }
+
+        @Override
+        int payloadArity()
+        {
+            return Integer.bitCount(this.dataMap);
+        }
+
+        @Override
+        Object getKey(int index)
+        {
+            return this.content[index << 1];
+        }
+
+        @Override
+        Object getValue(int index)
+        {
+            return this.content[(index << 1) + 1];
+        }
+
+        @Override
+        int sizePredicate()
+        {
+            if (this.nodeMap != 0)
+            {
+                return SIZE_MORE_THAN_ONE;
+            }
+            int payloadArity = this.payloadArity();
+            if (payloadArity == 0)
+            {
+                return SIZE_EMPTY;
+            }
+            return payloadArity == 1 ? SIZE_ONE : SIZE_MORE_THAN_ONE;
+        }
+    }
+
+    private static Node mergeTwoKeyValPairs(
+            Object owner,
+            Object key0, Object value0, int hash0,
+            Object key1, Object value1, int hash1,
+            int shift)
+    {
+        if (shift >= HASH_CODE_LENGTH)
+        {
+            return new HashCollisionNode(hash0, new Object[]{key0, key1}, new Object[]{value0, value1});
+        }
+        int mask0 = mask(hash0, shift);
+        int mask1 = mask(hash1, shift);
+        if (mask0 != mask1)
+        {
+            int dataMap = bitpos(mask0) | bitpos(mask1);
+            return mask0 < mask1
+                    ? new BitmapIndexedNode(owner, dataMap, 0, new Object[]{key0, value0, key1, value1})
+                    : new BitmapIndexedNode(owner, dataMap, 0, new Object[]{key1, value1, key0, value0});
+        }
+        Node node = mergeTwoKeyValPairs(owner, key0, value0, hash0, key1, value1, hash1, shift + BIT_PARTITION_SIZE);
+        return new BitmapIndexedNode(owner, 0, bitpos(mask0), new Object[]{node});
+    }
+
+    /**
+     * Holds keys whose hashes are equal in all 32 bits.  Collision nodes are rare, so they are always copied.
+     */
+    private static final class HashCollisionNode extends Node
+    {
+        private final int hash;
+        private final Object[] keys;
+        private final Object[] values;
+
+        private HashCollisionNode(int hash, Object[] keys, Object[] values)
+        {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private int indexOf(Object key)
+        {
+            for (int i = 0; i < this.keys.length; i++)
+            {
+                if (eq(this.keys[i], key))
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift)
+        {
+            if (this.hash == hash)
+            {
+                int index = this.indexOf(key);
+                if (index >= 0)
+                {
+                    return this.values[index];
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node updated(Object owner, Object key, Object value, int hash, int shift, Change change)
+        {
+            int index = this.indexOf(key);
+            if (index >= 0)
+            {
+                change.replaced = true;
+                if (this.values[index] == value)
+                {
+                    return this;
+                }
+                change.modified = true;
+                Object[] newValues = this.values.clone();
+                newValues[index] = value;
+                return new HashCollisionNode(this.hash, this.keys, newValues);
+            }
+            change.modified = true;
+            int length = this.keys.length;
+            Object[] newKeys = new Object[length + 1];
+            Object[] newValues = new Object[length + 1];
+            System.arraycopy(this.keys, 0, newKeys, 0, length);
+            System.arraycopy(this.values, 0, newValues, 0, length);
+            newKeys[length] = key;
+            newValues[length] = value;
+            return new HashCollisionNode(this.hash, newKeys, newValues);
+        }
+
+        @Override
+        Node removed(Object owner, Object key, int hash, int shift, Change change)
+        {
+            int index = this.indexOf(key);
+            if (index < 0)
+            {
+                return this;
+            }
+            change.modified = true;
+            int length = this.keys.length;
+            if (length == 2)
+            {
+                int remaining = 1 - index;
+                return new BitmapIndexedNode(
+                        owner,
+                        bitpos(mask(hash, 0)),
+                        0,
+                        new Object[]{this.keys[remaining], this.values[remaining]});
+            }
+            Object[] newKeys = new Object[length - 1];
+            Object[] newValues = new Object[length - 1];
+            System.arraycopy(this.keys, 0, newKeys, 0, index);
+            System.arraycopy(this.values, 0, newValues, 0, index);
+            System.arraycopy(this.keys, index + 1, newKeys, index, length - index - 1);
+            System.arraycopy(this.values, index + 1, newValues, index, length - index - 1);
+            return new HashCollisionNode(this.hash, newKeys, newValues);
+        }
+
+        @Override
+        int nodeArity()
+        {
+            return 0;
+        }
+
+        @Override
+        Node getNode(int index)
+        {
+            throw new IndexOutOfBoundsException("A collision node has no child nodes");
+        }
+
+        @Override
+        int payloadArity()
+        {
+            return this.keys.length;
+        }
+
+        @Override
+        Object getKey(int index)
+        {
+            return this.keys[index];
+        }
+
+        @Override
+        Object getValue(int index)
+        {
+            return this.values[index];
+        }
+
+        @Override
+        int sizePredicate()
+        {
+            return SIZE_MORE_THAN_ONE;
+        }
+    }
+
+    /**
+     * Walks the trie depth first, returning the entries of each node before descending into its children.
+     */
+    private abstract static class TrieIterator<R> implements Iterator<R>
+    {
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] nodeCursors = new int[MAX_DEPTH];
+        private int depth = -1;
+
+        private Node payloadNode;
+        private int payloadCursor;
+        private int payloadLength;
+
+        private TrieIterator(Node root)
+        {
+            if (root.nodeArity() > 0)
+            {
+                this.depth = 0;
+                this.nodes[0] = root;
+            }
+            this.payloadNode = root;
+            this.payloadLength = root.payloadArity();
+        }
+
+        protected abstract R valueOf(Object key, Object value);
+
+        public boolean hasNext()
+        {
+            return this.payloadCursor < this.payloadLength || this.findNextPayloadNode();
+        }
+
+        private boolean findNextPayloadNode()
+        {
+            while (this.depth >= 0)
+            {
+                Node node = this.nodes[this.depth];
+                int cursor = this.nodeCursors[this.depth];
+                if (cursor < node.nodeArity())
+                {
+                    this.nodeCursors[this.depth]++;
+                    Node next = node.getNode(cursor);
+                    if (next.nodeArity() > 0)
+                    {
+                        this.depth++;
+                        this.nodes[this.depth] = next;
+                        this.nodeCursors[this.depth] = 0;
+                    }
+                    if (next.payloadArity() > 0)
+                    {
+                        this.payloadNode = next;
+                        this.payloadCursor = 0;
+                        this.payloadLength = next.payloadArity();
+                        return true;
+                    }
+                }
+                else
+                {
+                    this.nodes[this.depth] = null;
+                    this.depth--;
+                }
+            }
+            return false;
+        }
+
+        public R next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            int index = this.payloadCursor++;
+            return this.valueOf(this.payloadNode.getKey(index), this.payloadNode.getValue(index));
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Cannot remove from an ImmutableMap");
+        }
+    }
+
+    /**
+     * Writes the entries rather than the trie, since hash codes need not be the same in the reading JVM.
+     */
+    private static class HashTrieMapSerializationProxy<K, V> implements Externalizable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ImmutableHashTrieMap<K, V> map;
+
+        @SuppressWarnings("UnusedDeclaration")
+        public HashTrieMapSerializationProxy()
+        {
+            // For Externalizable use only
+        }
+
+        private HashTrieMapSerializationProxy(ImmutableHashTrieMap<K, V> map)
+        {
+            this.map = map;
+        }
+
+        public void writeExternal(final ObjectOutput out) throws IOException
+        {
+            out.writeInt(this.map.size());
+            for (Iterator<Pair<K, V>> iterator = this.map.keyValuesView().iterator(); iterator.hasNext(); )
+            {
+                Pair<K, V> pair = iterator.next();
+                out.writeObject(pair.getOne());
+                out.writeObject(pair.getTwo());
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+        {
+            int size = in.readInt();
+            Object owner = new Object();
+            Change change = new Change();
+            Node root = BitmapIndexedNode.EMPTY_NODE;
+            for (int i = 0; i < size; i++)
+            {
+                Object key = in.readObject();
+                Object value = in.readObject();
+                change.reset();
+                root = root.updated(owner, key, value, hash(key), 0, change);
+            }
+            this.map = new ImmutableHashTrieMap<K, V>(root, size);
+        }
+
+        protected Object readResolve()
+        {
+            return this.map;
+        }
+    }
+}
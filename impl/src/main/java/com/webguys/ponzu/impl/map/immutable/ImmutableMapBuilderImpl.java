@@ -0,0 +1,113 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.immutable;
+
+import java.util.Map;
+
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.map.ImmutableMapBuilder;
+import com.webguys.ponzu.impl.factory.Maps;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Fills a UnifiedMap which becomes the delegate of an {@link ImmutableUnifiedMap} when the map is built.  Maps small
+ * enough for the fixed-size immutable maps are copied into one of those instead.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+final class ImmutableMapBuilderImpl<K, V> implements ImmutableMapBuilder<K, V>
+{
+    private static final int LARGEST_FIXED_SIZE_MAP = 3;
+
+    private UnifiedMap<K, V> map;
+
+    ImmutableMapBuilderImpl(int expectedSize)
+    {
+        this.map = UnifiedMap.newMap(expectedSize);
+    }
+
+    public ImmutableMapBuilder<K, V> put(K key, V value)
+    {
+        this.storage().put(key, value);
+        return this;
+    }
+
+    public ImmutableMapBuilder<K, V> putAll(Map<? extends K, ? extends V> map)
+    {
+        this.storage().putAll(map);
+        return this;
+    }
+
+    public ImmutableMapBuilder<K, V> merge(ImmutableMapBuilder<K, V> other)
+    {
+        ImmutableMapBuilderImpl<K, V> that = (ImmutableMapBuilderImpl<K, V>) other;
+        if (that == this)
+        {
+            throw new IllegalArgumentException("Cannot merge a builder into itself");
+        }
+        UnifiedMap<K, V> mine = this.storage();
+        final UnifiedMap<K, V> theirs = that.storage();
+        that.map = null;
+        if (theirs.size() > mine.size())
+        {
+            mine.forEachKeyValue(new Procedure2<K, V>()
+            {
+                public void value(K key, V value)
+                {
+                    if (!theirs.containsKey(key))
+                    {
+                        theirs.put(key, value);
+                    }
+                }
+            });
+            this.map = theirs;
+        }
+        else
+        {
+            mine.putAll(theirs);
+        }
+        return this;
+    }
+
+    public int size()
+    {
+        return this.storage().size();
+    }
+
+    public ImmutableMap<K, V> build()
+    {
+        UnifiedMap<K, V> result = this.storage();
+        this.map = null;
+        if (result.size() <= LARGEST_FIXED_SIZE_MAP)
+        {
+            return Maps.immutable.ofMap(result);
+        }
+        return ImmutableUnifiedMap.adopt(result);
+    }
+
+    private UnifiedMap<K, V> storage()
+    {
+        if (this.map == null)
+        {
+            throw new IllegalStateException("The builder has already been built or merged into another");
+        }
+        return this.map;
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.webguys.ponzu.api.factory.map.ImmutableMapFactory;
 import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.map.ImmutableMapBuilder;
 import com.webguys.ponzu.api.map.MutableMap;
 import com.webguys.ponzu.impl.block.factory.Comparators;
 import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
@@ -103,4 +104,19 @@ public final class ImmutableMapFactoryImpl implements ImmutableMapFactory
                 throw new AssertionError();
         }
     }
+
+    public <K, V> ImmutableMap<K, V> ofPersistent()
+    {
+        return ImmutableHashTrieMap.empty();
+    }
+
+    public <K, V> ImmutableMap<K, V> ofPersistentMap(Map<K, V> map)
+    {
+        return ImmutableHashTrieMap.newMap(map);
+    }
+
+    public <K, V> ImmutableMapBuilder<K, V> builder(int expectedSize)
+    {
+        return new ImmutableMapBuilderImpl<K, V>(expectedSize);
+    }
 }
@@ -46,6 +46,19 @@ public class ImmutableUnifiedMap<K, V>
         this.delegate = UnifiedMap.newMap(delegate);
     }
 
+    private ImmutableUnifiedMap(UnifiedMap<K, V> delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wraps the map without copying it, unlike the public constructor.  The caller must not modify the map afterwards.
+     */
+    static <K, V> ImmutableUnifiedMap<K, V> adopt(UnifiedMap<K, V> map)
+    {
+        return new ImmutableUnifiedMap<K, V>(map);
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -0,0 +1,1003 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * CachingMap is a MutableMap which holds at most a maximum number of entries, or entries of at most a maximum total
+ * weight, and evicts entries to stay within that bound as new ones are put.  It keeps its entries in a UnifiedMap and
+ * links them into queues in the order they should be evicted.
+ * <p/>
+ * A map created by {@link #newLruMap(long)} evicts the least recently used entry.  A map created by
+ * {@link #newLfuMap(long)} is frequency aware in the manner of W-TinyLFU: new entries go into a window holding one
+ * percent of the capacity, which is evicted in least recently used order, and an entry leaving the window only stays
+ * if its key has recently been used more often than the key of the entry it would replace in the rest of the map, as
+ * estimated by a {@link FrequencySketch}.  The rest of the map is split into a probation queue and a protected queue
+ * of eighty percent of its capacity for entries which have been used again while on probation.  This keeps the
+ * popular entries in the map through a scan of many keys which are each used only once, where an LRU map would lose
+ * them all.
+ * <p/>
+ * Entries may also be given a time to live with {@link #withExpireAfterWrite(long, TimeUnit)}.  An expired entry is
+ * never returned, and expired entries are removed the next time the map is written to or its size is taken.
+ * <p/>
+ * Every get counts as a hit or a miss, and every entry which is evicted or expires is counted as an eviction; see
+ * {@link #getHitCount()}, {@link #getMissCount()} and {@link #getEvictionCount()}.  Lookups made by containsKey,
+ * equals and iteration are not counted and do not change the order of eviction.
+ * <p/>
+ * Neither keys nor values may be null.  {@link ConcurrentCachingMap} is the thread-safe counterpart.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class CachingMap<K, V>
+        extends AbstractMutableMap<K, V>
+        implements Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private boolean frequencyAware;
+    private long maximumWeight;
+    private Function2<? super K, ? super V, Integer> weigher;
+    private long expireAfterWriteNanos;
+    private Clock clock = Clock.SYSTEM;
+
+    private UnifiedMap<K, Node<K, V>> nodes;
+    private FrequencySketch sketch;
+
+    /**
+     * The least recently used map keeps all of its entries on probation.
+     */
+    private final Node<K, V> window = Node.newSentinel();
+    private final Node<K, V> probation = Node.newSentinel();
+    private final Node<K, V> protectedQueue = Node.newSentinel();
+    private final Node<K, V> writeOrder = Node.newSentinel();
+
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * For Externalizable use only.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public CachingMap()
+    {
+        this(false, 0L, null, Clock.SYSTEM);
+    }
+
+    CachingMap(boolean frequencyAware, long maximumWeight, Function2<? super K, ? super V, Integer> weigher, Clock clock)
+    {
+        if (maximumWeight < 0L)
+        {
+            throw new IllegalArgumentException("maximum weight cannot be less than 0");
+        }
+        this.frequencyAware = frequencyAware;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.clock = clock;
+        this.nodes = UnifiedMap.newMap(weigher == null ? (int) Math.min(maximumWeight, 1024L) : 16);
+        this.sketch = frequencyAware ? new FrequencySketch(weigher == null ? maximumWeight : 16L) : null;
+    }
+
+    public static <K, V> CachingMap<K, V> newLruMap(long maximumSize)
+    {
+        return new CachingMap<K, V>(false, maximumSize, null, Clock.SYSTEM);
+    }
+
+    public static <K, V> CachingMap<K, V> newLfuMap(long maximumSize)
+    {
+        return new CachingMap<K, V>(true, maximumSize, null, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a least recently used map which keeps the total of the weights of its entries, as given by the weigher,
+     * within maximumWeight.  Weights may not be negative.
+     */
+    public static <K, V> CachingMap<K, V> newWeightedLruMap(
+            long maximumWeight,
+            Function2<? super K, ? super V, Integer> weigher)
+    {
+        return new CachingMap<K, V>(false, maximumWeight, checkWeigher(weigher), Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a frequency-aware map which keeps the total of the weights of its entries, as given by the weigher,
+     * within maximumWeight.  Weights may not be negative.
+     */
+    public static <K, V> CachingMap<K, V> newWeightedLfuMap(
+            long maximumWeight,
+            Function2<? super K, ? super V, Integer> weigher)
+    {
+        return new CachingMap<K, V>(true, maximumWeight, checkWeigher(weigher), Clock.SYSTEM);
+    }
+
+    static <K, V> Function2<? super K, ? super V, Integer> checkWeigher(Function2<? super K, ? super V, Integer> weigher)
+    {
+        if (weigher == null)
+        {
+            throw new IllegalArgumentException("weigher cannot be null");
+        }
+        return weigher;
+    }
+
+    /**
+     * Makes each entry expire once the given time has passed since its value was last put, including the entries
+     * already in the map.
+     */
+    public CachingMap<K, V> withExpireAfterWrite(long duration, TimeUnit unit)
+    {
+        if (duration <= 0L)
+        {
+            throw new IllegalArgumentException("duration must be greater than 0");
+        }
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public long getMaximumWeight()
+    {
+        return this.maximumWeight;
+    }
+
+    /**
+     * Returns the number of gets which found a value.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of gets which found no value, including those of expired entries.
+     */
+    public long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of entries which have been evicted to stay within the maximum weight or have expired.
+     */
+    public long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    @Override
+    public CachingMap<K, V> withKeyValue(K key, V value)
+    {
+        return (CachingMap<K, V>) super.withKeyValue(key, value);
+    }
+
+    @Override
+    public CachingMap<K, V> withoutKey(K key)
+    {
+        return (CachingMap<K, V>) super.withoutKey(key);
+    }
+
+    /**
+     * Returns a map with the same bound, eviction policy, and expiry, holding the same entries.
+     */
+    @Override
+    public CachingMap<K, V> clone()
+    {
+        CachingMap<K, V> clone = this.newEmpty();
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            clone.put(node.key, node.value);
+        }
+        return clone;
+    }
+
+    /**
+     * Returns an empty map with the same bound, eviction policy, and expiry.
+     */
+    public CachingMap<K, V> newEmpty()
+    {
+        CachingMap<K, V> empty = new CachingMap<K, V>(this.frequencyAware, this.maximumWeight, this.weigher, this.clock);
+        empty.expireAfterWriteNanos = this.expireAfterWriteNanos;
+        return empty;
+    }
+
+    /**
+     * Returns an unbounded UnifiedMap, as the results of filter, transform and the like are not caches.
+     */
+    @Override
+    public <KK, VV> MutableMap<KK, VV> newEmpty(int capacity)
+    {
+        return UnifiedMap.newMap(capacity);
+    }
+
+    private long now()
+    {
+        return this.expireAfterWriteNanos == 0L ? 0L : this.clock.nanoTime();
+    }
+
+    private boolean hasExpired(Node<K, V> node, long now)
+    {
+        return this.expireAfterWriteNanos != 0L && now - node.writeTime >= this.expireAfterWriteNanos;
+    }
+
+    public V get(Object key)
+    {
+        Node<K, V> node = this.nodes.get(key);
+        if (this.sketch != null)
+        {
+            this.sketch.increment(key);
+        }
+        if (node == null)
+        {
+            this.missCount++;
+            return null;
+        }
+        if (this.hasExpired(node, this.now()))
+        {
+            this.evict(node);
+            this.missCount++;
+            return null;
+        }
+        this.hitCount++;
+        this.recordAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Returns the value of key without counting a hit or a miss or changing the order of eviction.
+     */
+    V peek(Object key)
+    {
+        Node<K, V> node = this.nodes.get(key);
+        return node == null || this.hasExpired(node, this.now()) ? null : node.value;
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return this.peek(key) != null;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            if (iterator.nextNode().value.equals(value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V put(K key, V value)
+    {
+        if (key == null)
+        {
+            throw new NullPointerException("CachingMap does not support null keys");
+        }
+        if (value == null)
+        {
+            throw new NullPointerException("CachingMap does not support null values");
+        }
+        long now = this.now();
+        this.expireEntries(now);
+        int weight = this.weigh(key, value);
+        if (this.sketch != null)
+        {
+            this.sketch.increment(key);
+        }
+        Node<K, V> node = this.nodes.get(key);
+        if (node != null)
+        {
+            V previous = node.value;
+            node.value = value;
+            this.reweigh(node, weight);
+            node.writeTime = now;
+            unlinkWrite(node);
+            linkLastWrite(this.writeOrder, node);
+            this.recordAccess(node);
+            this.evictToFit(node);
+            return previous;
+        }
+        node = new Node<K, V>(key, value, weight, now);
+        this.nodes.put(key, node);
+        linkLastWrite(this.writeOrder, node);
+        this.weightedSize += weight;
+        if (this.frequencyAware)
+        {
+            node.queue = WINDOW;
+            linkLast(this.window, node);
+            this.windowWeight += weight;
+            if (this.weigher != null && this.nodes.size() > this.sketch.capacity())
+            {
+                this.sketch.ensureCapacity(this.nodes.size() * 2L);
+            }
+        }
+        else
+        {
+            node.queue = PROBATION;
+            linkLast(this.probation, node);
+        }
+        this.evictToFit(node);
+        return null;
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+        {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public <E> MutableMap<K, V> transformKeysAndValues(
+            Collection<E> collection,
+            Function<? super E, ? extends K> keyFunction,
+            Function<? super E, ? extends V> valueFunction)
+    {
+        Iterate.addToMap(collection, keyFunction, valueFunction, this);
+        return this;
+    }
+
+    private int weigh(K key, V value)
+    {
+        if (this.weigher == null)
+        {
+            return 1;
+        }
+        int weight = this.weigher.value(key, value);
+        if (weight < 0)
+        {
+            throw new IllegalArgumentException("weight cannot be less than 0 but was " + weight);
+        }
+        return weight;
+    }
+
+    private void reweigh(Node<K, V> node, int weight)
+    {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        this.weightedSize += delta;
+        if (node.queue == WINDOW)
+        {
+            this.windowWeight += delta;
+        }
+        else if (node.queue == PROTECTED)
+        {
+            this.protectedWeight += delta;
+        }
+    }
+
+    public V remove(Object key)
+    {
+        Node<K, V> node = this.nodes.get(key);
+        if (node == null)
+        {
+            return null;
+        }
+        if (this.hasExpired(node, this.now()))
+        {
+            this.evict(node);
+            return null;
+        }
+        this.unlinkEntry(node);
+        return node.value;
+    }
+
+    public V removeKey(K key)
+    {
+        return this.remove(key);
+    }
+
+    public void clear()
+    {
+        this.nodes.clear();
+        this.window.prev = this.window.next = this.window;
+        this.probation.prev = this.probation.next = this.probation;
+        this.protectedQueue.prev = this.protectedQueue.next = this.protectedQueue;
+        this.writeOrder.prevWrite = this.writeOrder.nextWrite = this.writeOrder;
+        this.weightedSize = 0L;
+        this.windowWeight = 0L;
+        this.protectedWeight = 0L;
+    }
+
+    public int size()
+    {
+        this.expireEntries(this.now());
+        return this.nodes.size();
+    }
+
+    /**
+     * Moves a node which has just been used to the back of the queue it is evicted from, and promotes a node which is
+     * used again while on probation to the protected queue.
+     */
+    private void recordAccess(Node<K, V> node)
+    {
+        if (node.queue == PROBATION && this.frequencyAware)
+        {
+            unlink(node);
+            node.queue = PROTECTED;
+            linkLast(this.protectedQueue, node);
+            this.protectedWeight += node.weight;
+            long protectedMaximum = (this.maximumWeight - this.windowMaximum()) * 4L / 5L;
+            while (this.protectedWeight > protectedMaximum)
+            {
+                Node<K, V> demoted = this.protectedQueue.next;
+                unlink(demoted);
+                this.protectedWeight -= demoted.weight;
+                demoted.queue = PROBATION;
+                linkLast(this.probation, demoted);
+            }
+        }
+        else
+        {
+            unlink(node);
+            linkLast(node.queue == WINDOW ? this.window : node.queue == PROTECTED ? this.protectedQueue : this.probation, node);
+        }
+    }
+
+    private long windowMaximum()
+    {
+        return Math.max(1L, this.maximumWeight / 100L);
+    }
+
+    /**
+     * Evicts entries until the map is within its maximum weight after node has been put.  A node heavier than the
+     * maximum weight is evicted on its own rather than pushing every other entry out first.  In a frequency-aware map
+     * each entry pushed out of the window is a candidate for the rest of the map, and it is admitted only while its
+     * key is used more often than the key of the entry which would be evicted to make room for it.
+     */
+    private void evictToFit(Node<K, V> node)
+    {
+        if (node.weight > this.maximumWeight)
+        {
+            this.evict(node);
+            return;
+        }
+        if (this.frequencyAware)
+        {
+            long windowMaximum = this.windowMaximum();
+            while (this.windowWeight > windowMaximum)
+            {
+                Node<K, V> candidate = this.window.next;
+                unlink(candidate);
+                this.windowWeight -= candidate.weight;
+                candidate.queue = PROBATION;
+                linkLast(this.probation, candidate);
+                while (this.weightedSize > this.maximumWeight)
+                {
+                    Node<K, V> victim = this.probation.next == candidate ? this.protectedQueue.next : this.probation.next;
+                    if (victim == this.protectedQueue
+                            || this.sketch.frequency(candidate.key) <= this.sketch.frequency(victim.key))
+                    {
+                        this.evict(candidate);
+                        break;
+                    }
+                    this.evict(victim);
+                }
+            }
+        }
+        while (this.weightedSize > this.maximumWeight)
+        {
+            Node<K, V> victim = this.probation.next;
+            if (victim == this.probation)
+            {
+                victim = this.protectedQueue.next != this.protectedQueue ? this.protectedQueue.next : this.window.next;
+            }
+            this.evict(victim);
+        }
+    }
+
+    private void expireEntries(long now)
+    {
+        if (this.expireAfterWriteNanos != 0L)
+        {
+            while (this.writeOrder.nextWrite != this.writeOrder && this.hasExpired(this.writeOrder.nextWrite, now))
+            {
+                this.evict(this.writeOrder.nextWrite);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node)
+    {
+        this.unlinkEntry(node);
+        this.evictionCount++;
+    }
+
+    private void unlinkEntry(Node<K, V> node)
+    {
+        this.nodes.remove(node.key);
+        unlink(node);
+        unlinkWrite(node);
+        this.weightedSize -= node.weight;
+        if (node.queue == WINDOW)
+        {
+            this.windowWeight -= node.weight;
+        }
+        else if (node.queue == PROTECTED)
+        {
+            this.protectedWeight -= node.weight;
+        }
+    }
+
+    private static <K, V> void linkLast(Node<K, V> sentinel, Node<K, V> node)
+    {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node)
+    {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    private static <K, V> void linkLastWrite(Node<K, V> sentinel, Node<K, V> node)
+    {
+        node.prevWrite = sentinel.prevWrite;
+        node.nextWrite = sentinel;
+        sentinel.prevWrite.nextWrite = node;
+        sentinel.prevWrite = node;
+    }
+
+    private static <K, V> void unlinkWrite(Node<K, V> node)
+    {
+        node.prevWrite.nextWrite = node.nextWrite;
+        node.nextWrite.prevWrite = node.prevWrite;
+    }
+
+    /**
+     * Applies the procedure to each entry, in roughly the order they would be evicted.
+     */
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            procedure.value(node.key, node.value);
+        }
+    }
+
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    public Collection<V> values()
+    {
+        return new Values();
+    }
+
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new EntrySet();
+    }
+
+    @Override
+    public Iterator<V> iterator()
+    {
+        return new ValueIterator();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof Map))
+        {
+            return false;
+        }
+        Map<?, ?> other = (Map<?, ?>) object;
+        if (this.size() != other.size())
+        {
+            return false;
+        }
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            if (!node.value.equals(other.get(node.key)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            hashCode += node.key.hashCode() ^ node.value.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            buf.append(node.key == this ? "(this Map)" : node.key);
+            buf.append('=');
+            buf.append(node.value == this ? "(this Map)" : node.value);
+            if (iterator.hasNext())
+            {
+                buf.append(", ");
+            }
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+    /**
+     * Writes the bound, eviction policy, and expiry followed by the entries in the order they would be evicted.  The
+     * counts of hits, misses and evictions are not written, and the entries are read back as if they had just been
+     * put.
+     */
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeBoolean(this.frequencyAware);
+        out.writeLong(this.maximumWeight);
+        out.writeObject(this.weigher);
+        out.writeLong(this.expireAfterWriteNanos);
+        out.writeInt(this.size());
+        for (NodeIterator iterator = new NodeIterator(); iterator.hasNext(); )
+        {
+            Node<K, V> node = iterator.nextNode();
+            out.writeObject(node.key);
+            out.writeObject(node.value);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        boolean newFrequencyAware = in.readBoolean();
+        long newMaximumWeight = in.readLong();
+        Function2<? super K, ? super V, Integer> newWeigher = (Function2<? super K, ? super V, Integer>) in.readObject();
+        CachingMap<K, V> configured = new CachingMap<K, V>(newFrequencyAware, newMaximumWeight, newWeigher, Clock.SYSTEM);
+        this.frequencyAware = configured.frequencyAware;
+        this.maximumWeight = configured.maximumWeight;
+        this.weigher = configured.weigher;
+        this.nodes = configured.nodes;
+        this.sketch = configured.sketch;
+        this.expireAfterWriteNanos = in.readLong();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+        {
+            this.put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * The source of the time entries are written at, which tests can replace.
+     */
+    abstract static class Clock
+    {
+        static final Clock SYSTEM = new Clock()
+        {
+            @Override
+            long nanoTime()
+            {
+                return System.nanoTime();
+            }
+        };
+
+        abstract long nanoTime();
+    }
+
+    private static final class Node<K, V>
+    {
+        private final K key;
+        private V value;
+        private int weight;
+        private long writeTime;
+        private byte queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private Node<K, V> prevWrite;
+        private Node<K, V> nextWrite;
+
+        private Node(K key, V value, int weight, long writeTime)
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+
+        private static <K, V> Node<K, V> newSentinel()
+        {
+            Node<K, V> sentinel = new Node<K, V>(null, null, 0, 0L);
+            sentinel.prev = sentinel.next = sentinel;
+            sentinel.prevWrite = sentinel.nextWrite = sentinel;
+            return sentinel;
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of the entries taken in the order they would be evicted, after removing the expired
+     * entries, so that the map may be read and written while it is iterated.
+     */
+    private class NodeIterator
+    {
+        private final Node<K, V>[] snapshot;
+        private int index;
+        private Node<K, V> lastReturned;
+
+        NodeIterator()
+        {
+            CachingMap<K, V> map = CachingMap.this;
+            map.expireEntries(map.now());
+            this.snapshot = new Node[map.nodes.size()];
+            int count = 0;
+            for (Node<K, V> queue : new Node[]{map.probation, map.protectedQueue, map.window})
+            {
+                for (Node<K, V> node = queue.next; node != queue; node = node.next)
+                {
+                    this.snapshot[count++] = node;
+                }
+            }
+        }
+
+        public boolean hasNext()
+        {
+            return this.index < this.snapshot.length;
+        }
+
+        Node<K, V> nextNode()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastReturned = this.snapshot[this.index++];
+            return this.lastReturned;
+        }
+
+        public void remove()
+        {
+            if (this.lastReturned == null)
+            {
+                throw new IllegalStateException();
+            }
+            if (CachingMap.this.nodes.get(this.lastReturned.key) == this.lastReturned)
+            {
+                CachingMap.this.unlinkEntry(this.lastReturned);
+            }
+            this.lastReturned = null;
+        }
+    }
+
+    private final class KeyIterator extends NodeIterator implements Iterator<K>
+    {
+        public K next()
+        {
+            return this.nextNode().key;
+        }
+    }
+
+    private final class ValueIterator extends NodeIterator implements Iterator<V>
+    {
+        public V next()
+        {
+            return this.nextNode().value;
+        }
+    }
+
+    private final class EntryIterator extends NodeIterator implements Iterator<Map.Entry<K, V>>
+    {
+        public Map.Entry<K, V> next()
+        {
+            return new WriteThroughEntry(this.nextNode());
+        }
+    }
+
+    private final class WriteThroughEntry implements Map.Entry<K, V>
+    {
+        private final K key;
+        private V value;
+
+        private WriteThroughEntry(Node<K, V> node)
+        {
+            this.key = node.key;
+            this.value = node.value;
+        }
+
+        public K getKey()
+        {
+            return this.key;
+        }
+
+        public V getValue()
+        {
+            return this.value;
+        }
+
+        public V setValue(V value)
+        {
+            V previous = this.value;
+            CachingMap.this.put(this.key, value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) object;
+            return this.key.equals(other.getKey()) && this.value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.key.hashCode() ^ this.value.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return new KeyIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return CachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return CachingMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            return CachingMap.this.remove(key) != null;
+        }
+
+        @Override
+        public void clear()
+        {
+            CachingMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V>
+    {
+        @Override
+        public Iterator<V> iterator()
+        {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return CachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object value)
+        {
+            return CachingMap.this.containsValue(value);
+        }
+
+        @Override
+        public void clear()
+        {
+            CachingMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return CachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            Object value = CachingMap.this.peek(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object)
+        {
+            if (!this.contains(object))
+            {
+                return false;
+            }
+            CachingMap.this.remove(((Map.Entry<?, ?>) object).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear()
+        {
+            CachingMap.this.clear();
+        }
+    }
+}
@@ -0,0 +1,844 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * ConcurrentCachingMap is the thread-safe counterpart of {@link CachingMap}.  Its entries are spread by the hash codes
+ * of their keys over up to sixteen segments, each of which is a CachingMap with its share of the maximum weight,
+ * guarded by its own lock, so threads using keys in different segments do not wait for each other.  The eviction
+ * policy applies to each segment on its own, which makes it an approximation of the policy over the whole map, as in
+ * most concurrent caches.  Each segment has at least 64 of the maximum weight; an entry heavier than its segment's
+ * share is evicted as soon as it is put.
+ * <p/>
+ * getIfAbsentPut, getIfAbsentPutWith and updateValue compute the value of an absent key at most once, without
+ * holding the lock of its segment, so a slow load does not hold up the other keys of the segment; see
+ * {@link ConcurrentMutableMap#getIfAbsentPut(Object, Generator)}.
+ * <p/>
+ * Iteration, forEachKeyValue, equals, hashCode and toString work on a copy of the entries of each segment taken in
+ * turn, so they are weakly consistent and never throw ConcurrentModificationException.  The counts of hits, misses
+ * and evictions are the sums of those of the segments.
+ * <p/>
+ * Neither keys nor values may be null.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentCachingMap<K, V>
+        extends AbstractMutableMap<K, V>
+        implements ConcurrentMutableMap<K, V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+    private static final long MINIMUM_SEGMENT_WEIGHT = 64L;
+
+    private CachingMap<K, V>[] segments;
+    private final InFlightComputations<K, V> inFlightComputations = new InFlightComputations<K, V>();
+    private final ConcurrentMap<K, V> uncounted = new UncountedView();
+
+    /**
+     * For Externalizable use only.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public ConcurrentCachingMap()
+    {
+        this(false, 0L, null, CachingMap.Clock.SYSTEM);
+    }
+
+    ConcurrentCachingMap(
+            boolean frequencyAware,
+            long maximumWeight,
+            Function2<? super K, ? super V, Integer> weigher,
+            CachingMap.Clock clock)
+    {
+        if (maximumWeight < 0L)
+        {
+            throw new IllegalArgumentException("maximum weight cannot be less than 0");
+        }
+        int segmentCount = 1;
+        while (segmentCount < MAXIMUM_SEGMENTS && segmentCount * 2L * MINIMUM_SEGMENT_WEIGHT <= maximumWeight)
+        {
+            segmentCount <<= 1;
+        }
+        this.segments = new CachingMap[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+        {
+            long segmentWeight = maximumWeight / segmentCount + (i < maximumWeight % segmentCount ? 1L : 0L);
+            this.segments[i] = new CachingMap<K, V>(frequencyAware, segmentWeight, weigher, clock);
+        }
+    }
+
+    public static <K, V> ConcurrentCachingMap<K, V> newLruMap(long maximumSize)
+    {
+        return new ConcurrentCachingMap<K, V>(false, maximumSize, null, CachingMap.Clock.SYSTEM);
+    }
+
+    public static <K, V> ConcurrentCachingMap<K, V> newLfuMap(long maximumSize)
+    {
+        return new ConcurrentCachingMap<K, V>(true, maximumSize, null, CachingMap.Clock.SYSTEM);
+    }
+
+    /**
+     * @see CachingMap#newWeightedLruMap(long, Function2)
+     */
+    public static <K, V> ConcurrentCachingMap<K, V> newWeightedLruMap(
+            long maximumWeight,
+            Function2<? super K, ? super V, Integer> weigher)
+    {
+        return new ConcurrentCachingMap<K, V>(false, maximumWeight, CachingMap.checkWeigher(weigher), CachingMap.Clock.SYSTEM);
+    }
+
+    /**
+     * @see CachingMap#newWeightedLfuMap(long, Function2)
+     */
+    public static <K, V> ConcurrentCachingMap<K, V> newWeightedLfuMap(
+            long maximumWeight,
+            Function2<? super K, ? super V, Integer> weigher)
+    {
+        return new ConcurrentCachingMap<K, V>(true, maximumWeight, CachingMap.checkWeigher(weigher), CachingMap.Clock.SYSTEM);
+    }
+
+    /**
+     * @see CachingMap#withExpireAfterWrite(long, TimeUnit)
+     */
+    public ConcurrentCachingMap<K, V> withExpireAfterWrite(long duration, TimeUnit unit)
+    {
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                segment.withExpireAfterWrite(duration, unit);
+            }
+        }
+        return this;
+    }
+
+    public long getMaximumWeight()
+    {
+        long maximumWeight = 0L;
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            maximumWeight += segment.getMaximumWeight();
+        }
+        return maximumWeight;
+    }
+
+    public long getHitCount()
+    {
+        long count = 0L;
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                count += segment.getHitCount();
+            }
+        }
+        return count;
+    }
+
+    public long getMissCount()
+    {
+        long count = 0L;
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                count += segment.getMissCount();
+            }
+        }
+        return count;
+    }
+
+    public long getEvictionCount()
+    {
+        long count = 0L;
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                count += segment.getEvictionCount();
+            }
+        }
+        return count;
+    }
+
+    private CachingMap<K, V> segmentFor(Object key)
+    {
+        long hash = (key.hashCode() * 0x9E3779B9) & 0xFFFFFFFFL;
+        return this.segments[(int) ((hash * this.segments.length) >>> 32)];
+    }
+
+    @Override
+    public ConcurrentCachingMap<K, V> withKeyValue(K key, V value)
+    {
+        return (ConcurrentCachingMap<K, V>) super.withKeyValue(key, value);
+    }
+
+    @Override
+    public ConcurrentCachingMap<K, V> withoutKey(K key)
+    {
+        return (ConcurrentCachingMap<K, V>) super.withoutKey(key);
+    }
+
+    /**
+     * Returns a map with the same bound, eviction policy, and expiry, holding the same entries.
+     */
+    @Override
+    public ConcurrentCachingMap<K, V> clone()
+    {
+        ConcurrentCachingMap<K, V> clone = this.newEmpty();
+        clone.putAll(this);
+        return clone;
+    }
+
+    /**
+     * Returns an empty map with the same bound, eviction policy, and expiry.
+     */
+    public ConcurrentCachingMap<K, V> newEmpty()
+    {
+        ConcurrentCachingMap<K, V> empty = new ConcurrentCachingMap<K, V>();
+        empty.segments = new CachingMap[this.segments.length];
+        for (int i = 0; i < this.segments.length; i++)
+        {
+            synchronized (this.segments[i])
+            {
+                empty.segments[i] = this.segments[i].newEmpty();
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Returns an unbounded ConcurrentUnifiedMap, as the results of filter, transform and the like are not caches.
+     */
+    @Override
+    public <KK, VV> MutableMap<KK, VV> newEmpty(int capacity)
+    {
+        return ConcurrentUnifiedMap.newMap(capacity);
+    }
+
+    public V get(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.get(key);
+        }
+    }
+
+    private V peek(Object key)
+    {
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.peek(key);
+        }
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return key != null && this.peek(key) != null;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                if (segment.containsValue(value))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public V put(K key, V value)
+    {
+        if (key == null)
+        {
+            throw new NullPointerException("ConcurrentCachingMap does not support null keys");
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.put(key, value);
+        }
+    }
+
+    public V putIfAbsent(K key, V value)
+    {
+        if (key == null)
+        {
+            throw new NullPointerException("ConcurrentCachingMap does not support null keys");
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            V existing = segment.peek(key);
+            if (existing != null)
+            {
+                return existing;
+            }
+            segment.put(key, value);
+            return null;
+        }
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+        {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public <E> MutableMap<K, V> transformKeysAndValues(
+            Collection<E> collection,
+            Function<? super E, ? extends K> keyFunction,
+            Function<? super E, ? extends V> valueFunction)
+    {
+        Iterate.addToMap(collection, keyFunction, valueFunction, this);
+        return this;
+    }
+
+    public V remove(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.remove(key);
+        }
+    }
+
+    public V removeKey(K key)
+    {
+        return this.remove(key);
+    }
+
+    public boolean remove(Object key, Object value)
+    {
+        if (key == null || value == null)
+        {
+            return false;
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            if (value.equals(segment.peek(key)))
+            {
+                segment.remove(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public V replace(K key, V value)
+    {
+        if (value == null)
+        {
+            throw new NullPointerException("ConcurrentCachingMap does not support null values");
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.peek(key) == null ? null : segment.put(key, value);
+        }
+    }
+
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        if (oldValue == null || newValue == null)
+        {
+            throw new NullPointerException("ConcurrentCachingMap does not support null values");
+        }
+        CachingMap<K, V> segment = this.segmentFor(key);
+        synchronized (segment)
+        {
+            if (oldValue.equals(segment.peek(key)))
+            {
+                segment.put(key, newValue);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public V getIfAbsentPut(K key, Generator<? extends V> function)
+    {
+        V result = this.get(key);
+        return result == null ? this.inFlightComputations.getIfAbsentPut(this.uncounted, key, function) : result;
+    }
+
+    @Override
+    public <P> V getIfAbsentPutWith(K key, Function<? super P, ? extends V> function, P parameter)
+    {
+        V result = this.get(key);
+        return result == null
+                ? this.inFlightComputations.getIfAbsentPutWith(this.uncounted, key, function, parameter)
+                : result;
+    }
+
+    public V updateValue(K key, Generator<? extends V> factory, Function<? super V, ? extends V> function)
+    {
+        return this.inFlightComputations.updateValue(this.uncounted, key, factory, function);
+    }
+
+    public void clear()
+    {
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        for (Iterator<Map.Entry<K, V>> iterator = new EntryIterator(); iterator.hasNext(); )
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            procedure.value(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    public Collection<V> values()
+    {
+        return new Values();
+    }
+
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new EntrySet();
+    }
+
+    @Override
+    public Iterator<V> iterator()
+    {
+        return new ValueIterator();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof Map))
+        {
+            return false;
+        }
+        Map<?, ?> other = (Map<?, ?>) object;
+        if (this.size() != other.size())
+        {
+            return false;
+        }
+        for (Iterator<Map.Entry<K, V>> iterator = new EntryIterator(); iterator.hasNext(); )
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            if (!entry.getValue().equals(other.get(entry.getKey())))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        for (Iterator<Map.Entry<K, V>> iterator = new EntryIterator(); iterator.hasNext(); )
+        {
+            hashCode += iterator.next().hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        for (Iterator<Map.Entry<K, V>> iterator = new EntryIterator(); iterator.hasNext(); )
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            buf.append(entry.getKey() == this ? "(this Map)" : entry.getKey());
+            buf.append('=');
+            buf.append(entry.getValue() == this ? "(this Map)" : entry.getValue());
+            if (iterator.hasNext())
+            {
+                buf.append(", ");
+            }
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+    /**
+     * Writes each segment in turn.  The counts of hits, misses and evictions are not written.
+     */
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.segments.length);
+        for (CachingMap<K, V> segment : this.segments)
+        {
+            CachingMap<K, V> copy;
+            synchronized (segment)
+            {
+                copy = segment.clone();
+            }
+            out.writeObject(copy);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        this.segments = new CachingMap[in.readInt()];
+        for (int i = 0; i < this.segments.length; i++)
+        {
+            this.segments[i] = (CachingMap<K, V>) in.readObject();
+        }
+    }
+
+    /**
+     * The map as seen by the computations of getIfAbsentPut and updateValue, whose lookups are not counted as hits or
+     * misses.
+     */
+    private final class UncountedView extends AbstractMap<K, V> implements ConcurrentMap<K, V>
+    {
+        @Override
+        public V get(Object key)
+        {
+            return ConcurrentCachingMap.this.peek(key);
+        }
+
+        public V putIfAbsent(K key, V value)
+        {
+            return ConcurrentCachingMap.this.putIfAbsent(key, value);
+        }
+
+        public boolean remove(Object key, Object value)
+        {
+            return ConcurrentCachingMap.this.remove(key, value);
+        }
+
+        public boolean replace(K key, V oldValue, V newValue)
+        {
+            return ConcurrentCachingMap.this.replace(key, oldValue, newValue);
+        }
+
+        public V replace(K key, V value)
+        {
+            return ConcurrentCachingMap.this.replace(key, value);
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet()
+        {
+            return ConcurrentCachingMap.this.entrySet();
+        }
+    }
+
+    /**
+     * Iterates over the entries of one segment at a time, copied while holding its lock.
+     */
+    private class SnapshotIterator
+    {
+        private final FastList<Map.Entry<K, V>> entries = FastList.newList();
+        private int segmentIndex;
+        private int index;
+        private Map.Entry<K, V> lastReturned;
+
+        public boolean hasNext()
+        {
+            while (this.index == this.entries.size() && this.segmentIndex < ConcurrentCachingMap.this.segments.length)
+            {
+                this.entries.clear();
+                this.index = 0;
+                CachingMap<K, V> segment = ConcurrentCachingMap.this.segments[this.segmentIndex++];
+                synchronized (segment)
+                {
+                    for (Map.Entry<K, V> entry : segment.entrySet())
+                    {
+                        this.entries.add(new WriteThroughEntry(entry.getKey(), entry.getValue()));
+                    }
+                }
+            }
+            return this.index < this.entries.size();
+        }
+
+        Map.Entry<K, V> nextEntry()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastReturned = this.entries.get(this.index++);
+            return this.lastReturned;
+        }
+
+        public void remove()
+        {
+            if (this.lastReturned == null)
+            {
+                throw new IllegalStateException();
+            }
+            ConcurrentCachingMap.this.remove(this.lastReturned.getKey());
+            this.lastReturned = null;
+        }
+    }
+
+    private final class KeyIterator extends SnapshotIterator implements Iterator<K>
+    {
+        public K next()
+        {
+            return this.nextEntry().getKey();
+        }
+    }
+
+    private final class ValueIterator extends SnapshotIterator implements Iterator<V>
+    {
+        public V next()
+        {
+            return this.nextEntry().getValue();
+        }
+    }
+
+    private final class EntryIterator extends SnapshotIterator implements Iterator<Map.Entry<K, V>>
+    {
+        public Map.Entry<K, V> next()
+        {
+            return this.nextEntry();
+        }
+    }
+
+    private final class WriteThroughEntry implements Map.Entry<K, V>
+    {
+        private final K key;
+        private V value;
+
+        private WriteThroughEntry(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey()
+        {
+            return this.key;
+        }
+
+        public V getValue()
+        {
+            return this.value;
+        }
+
+        public V setValue(V value)
+        {
+            V previous = this.value;
+            ConcurrentCachingMap.this.put(this.key, value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) object;
+            return this.key.equals(other.getKey()) && this.value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.key.hashCode() ^ this.value.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return new KeyIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentCachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return ConcurrentCachingMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            return ConcurrentCachingMap.this.remove(key) != null;
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentCachingMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V>
+    {
+        @Override
+        public Iterator<V> iterator()
+        {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentCachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object value)
+        {
+            return ConcurrentCachingMap.this.containsValue(value);
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentCachingMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentCachingMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            Object value = entry.getKey() == null ? null : ConcurrentCachingMap.this.peek(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return entry.getKey() != null && ConcurrentCachingMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentCachingMap.this.clear();
+        }
+    }
+}
@@ -50,6 +50,7 @@ public final class ConcurrentMutableHashMap<K, V>
     private static final String JAVA_SPECIFICATION_VERSION = System.getProperty("java.specification.version");
 
     private final ConcurrentMap<K, V> delegate;
+    private final transient InFlightComputations<K, V> inFlightComputations = new InFlightComputations<K, V>();
 
     private ConcurrentMutableHashMap()
     {
@@ -81,6 +82,15 @@ public final class ConcurrentMutableHashMap<K, V>
         return new ConcurrentMutableHashMap<NK, NV>(new ConcurrentHashMap<NK, NV>(map));
     }
 
+    /**
+     * The in-flight computations are transient, so rebuild the map around the deserialized delegate to give it a fresh
+     * set. This also covers streams written before the field existed.
+     */
+    private Object readResolve()
+    {
+        return new ConcurrentMutableHashMap<K, V>(this.delegate);
+    }
+
     @Override
     public ConcurrentMutableHashMap<K, V> withKeyValue(K key, V value)
     {
@@ -255,26 +265,19 @@ public final class ConcurrentMutableHashMap<K, V>
     public V getIfAbsentPut(K key, Generator<? extends V> function)
     {
         V result = this.delegate.get(key);
-        if (result == null)
-        {
-            V blockValue = function.value();
-            V putResult = this.delegate.putIfAbsent(key, blockValue);
-            return putResult == null ? blockValue : putResult;
-        }
-        return result;
+        return result == null ? this.inFlightComputations.getIfAbsentPut(this.delegate, key, function) : result;
     }
 
     @Override
     public <P> V getIfAbsentPutWith(K key, Function<? super P, ? extends V> function, P parameter)
     {
         V result = this.delegate.get(key);
-        if (result == null)
-        {
-            V functionValue = function.valueOf(parameter);
-            V putResult = this.delegate.putIfAbsent(key, functionValue);
-            return putResult == null ? functionValue : putResult;
-        }
-        return result;
+        return result == null ? this.inFlightComputations.getIfAbsentPutWith(this.delegate, key, function, parameter) : result;
+    }
+
+    public V updateValue(K key, Generator<? extends V> factory, Function<? super V, ? extends V> function)
+    {
+        return this.inFlightComputations.updateValue(this.delegate, key, factory, function);
     }
 
     @Override
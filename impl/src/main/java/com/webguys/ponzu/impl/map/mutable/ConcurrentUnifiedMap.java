@@ -0,0 +1,1351 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.webguys.ponzu.api.ParallelIterable;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.api.map.MapIterable;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.parallel.BatchIterable;
+import com.webguys.ponzu.impl.parallel.ConcurrentBatchIterable;
+import com.webguys.ponzu.impl.parallel.ParallelIterableAdapter;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * ConcurrentUnifiedMap is a lock-free implementation of ConcurrentMutableMap.
+ * <p/>
+ * Like UnifiedMap it keeps everything in a single power of two table indexed by the spread hash code of the key, but
+ * as a key and its value cannot be swapped into two slots in one atomic step, each slot holds the head of a short
+ * chain of immutable entries.  Every update builds the new chain for its slot and installs it with a single
+ * compare-and-set, so readers never block and never see a half written entry.
+ * <p/>
+ * When the table fills up it is doubled cooperatively: the thread which starts the resize and every writer which runs
+ * into it claim chunks of slots and copy them into the next table.  A slot being copied is replaced by a forwarding
+ * marker which still holds the old chain, so reads keep going against it until the copy of that slot is done, after
+ * which they follow the table into the next one.
+ * <p/>
+ * The size is kept in a single counter until writers start to contend on it, at which point it is striped over a
+ * number of padded counters.  Iteration, forEach and batchForEach are weakly consistent; they never throw
+ * ConcurrentModificationException, and forEach, forEachKey, forEachValue and forEachKeyValue walk the table without
+ * allocating anything per entry.  A parallel iteration splits a single table read once at its start, so a resize
+ * while it runs can neither skip an entry nor visit one twice.
+ * <p/>
+ * getIfAbsentPut, getIfAbsentPutWith and updateValue evaluate their generator at most once for an absent key; see
+ * {@link ConcurrentMutableMap#getIfAbsentPut(Object, Generator)}.
+ * <p/>
+ * Neither keys nor values may be null.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentUnifiedMap<K, V>
+        extends AbstractMutableMap<K, V>
+        implements ConcurrentMutableMap<K, V>, ConcurrentBatchIterable<V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The number of slots a thread claims at a time while helping with a resize.
+     */
+    private static final int TRANSFER_CHUNK = 16;
+
+    private static final int SIZE_STRIPES = 32;
+
+    /**
+     * The distance between two size stripes, so that each stripe sits on its own cache line.
+     */
+    private static final int SIZE_STRIPE_SPACING = 16;
+
+    /**
+     * Once the size counter is striped, an insert only sums the stripes to check for a resize when its own stripe
+     * reaches a multiple of this step.
+     */
+    private static final int SIZE_CHECK_STEP = 8;
+
+    /**
+     * Marks a slot whose entries have all been copied into the next table.
+     */
+    private static final Object RESIZED = new Object();
+
+    /**
+     * Held in the last slot of a table from the moment a resize is started until its ResizeContainer is published.
+     */
+    private static final Object RESIZE_SENTINEL = new Object();
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentUnifiedMap, AtomicReferenceArray> TABLE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentUnifiedMap.class, AtomicReferenceArray.class, "table");
+
+    private static final AtomicIntegerFieldUpdater<ConcurrentUnifiedMap> SIZE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ConcurrentUnifiedMap.class, "size");
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentUnifiedMap, AtomicIntegerArray> SIZE_STRIPES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentUnifiedMap.class, AtomicIntegerArray.class, "sizeStripes");
+
+    /**
+     * The slots of the table, followed by one extra slot which holds the ResizeContainer while the table is resized.
+     */
+    private volatile AtomicReferenceArray<Object> table;
+
+    private volatile int size;
+
+    private volatile AtomicIntegerArray sizeStripes;
+
+    private final InFlightComputations<K, V> inFlightComputations = new InFlightComputations<K, V>();
+
+    public ConcurrentUnifiedMap()
+    {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public ConcurrentUnifiedMap(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("initial capacity cannot be less than 0");
+        }
+        this.table = newTable(initialCapacity);
+    }
+
+    public ConcurrentUnifiedMap(Map<? extends K, ? extends V> map)
+    {
+        this(map.size());
+        this.putAll(map);
+    }
+
+    public static <K, V> ConcurrentUnifiedMap<K, V> newMap()
+    {
+        return new ConcurrentUnifiedMap<K, V>();
+    }
+
+    public static <K, V> ConcurrentUnifiedMap<K, V> newMap(int initialCapacity)
+    {
+        return new ConcurrentUnifiedMap<K, V>(initialCapacity);
+    }
+
+    public static <K, V> ConcurrentUnifiedMap<K, V> newMap(Map<? extends K, ? extends V> map)
+    {
+        return new ConcurrentUnifiedMap<K, V>(map);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> withKeyValue(K key, V value)
+    {
+        return (ConcurrentUnifiedMap<K, V>) super.withKeyValue(key, value);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> withAllKeyValues(Iterable<? extends Pair<? extends K, ? extends V>> keyValues)
+    {
+        return (ConcurrentUnifiedMap<K, V>) super.withAllKeyValues(keyValues);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> withAllKeyValueArguments(Pair<? extends K, ? extends V>... keyValues)
+    {
+        return (ConcurrentUnifiedMap<K, V>) super.withAllKeyValueArguments(keyValues);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> withoutKey(K key)
+    {
+        return (ConcurrentUnifiedMap<K, V>) super.withoutKey(key);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> withoutAllKeys(Iterable<? extends K> keys)
+    {
+        return (ConcurrentUnifiedMap<K, V>) super.withoutAllKeys(keys);
+    }
+
+    @Override
+    public ConcurrentUnifiedMap<K, V> clone()
+    {
+        return new ConcurrentUnifiedMap<K, V>(this);
+    }
+
+    @Override
+    public <KK, VV> MutableMap<KK, VV> newEmpty(int capacity)
+    {
+        return ConcurrentUnifiedMap.newMap(capacity);
+    }
+
+    public MutableMap<K, V> newEmpty()
+    {
+        return ConcurrentUnifiedMap.newMap();
+    }
+
+    /**
+     * Allocates a table large enough to hold the expected number of entries without being resized.
+     */
+    private static AtomicReferenceArray<Object> newTable(int expectedSize)
+    {
+        int threshold = Math.min(expectedSize, MAXIMUM_CAPACITY - (MAXIMUM_CAPACITY >> 2));
+        int capacity = 1;
+        while (capacity - (capacity >> 2) < threshold)
+        {
+            capacity <<= 1;
+        }
+        return new AtomicReferenceArray<Object>(capacity + 1);
+    }
+
+    private static int spread(Object key)
+    {
+        // The same spreading function as UnifiedMap.
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    private static int capacity(AtomicReferenceArray<Object> currentTable)
+    {
+        return currentTable.length() - 1;
+    }
+
+    private static int indexFor(int hash, AtomicReferenceArray<Object> currentTable)
+    {
+        return hash & currentTable.length() - 2;
+    }
+
+    private static <K, V> Entry<K, V> chainOf(Object slot)
+    {
+        if (slot instanceof Forwarding)
+        {
+            return ((Forwarding<K, V>) slot).chain;
+        }
+        return (Entry<K, V>) slot;
+    }
+
+    private static <K, V> Entry<K, V> find(Entry<K, V> chain, Object key)
+    {
+        for (Entry<K, V> e = chain; e != null; e = e.next)
+        {
+            if (e.key == key || e.key.equals(key))
+            {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of the chain in which target has been replaced by an entry holding newValue, or removed if
+     * newValue is null.  Only the entries in front of target are copied, the rest of the chain is shared.
+     */
+    private static <K, V> Entry<K, V> replaceInChain(Entry<K, V> chain, Entry<K, V> target, V newValue)
+    {
+        Entry<K, V> result = newValue == null ? target.next : new Entry<K, V>(target.key, newValue, target.next);
+        for (Entry<K, V> e = chain; e != target; e = e.next)
+        {
+            result = new Entry<K, V>(e.key, e.value, result);
+        }
+        return result;
+    }
+
+    public V get(Object key)
+    {
+        int hash = spread(key);
+        AtomicReferenceArray<Object> currentTable = this.table;
+        while (true)
+        {
+            Object slot = currentTable.get(indexFor(hash, currentTable));
+            if (slot != RESIZED)
+            {
+                Entry<K, V> entry = find(ConcurrentUnifiedMap.<K, V>chainOf(slot), key);
+                return entry == null ? null : entry.value;
+            }
+            currentTable = this.nextTable(currentTable);
+        }
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return this.get(key) != null;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        Iterator<V> iterator = this.iterator();
+        while (iterator.hasNext())
+        {
+            if (value.equals(iterator.next()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V put(K key, V value)
+    {
+        return this.put(key, value, false);
+    }
+
+    public V putIfAbsent(K key, V value)
+    {
+        return this.put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent)
+    {
+        if (value == null)
+        {
+            throw new NullPointerException("ConcurrentUnifiedMap does not support null values");
+        }
+        int hash = spread(key);
+        AtomicReferenceArray<Object> currentTable = this.table;
+        while (true)
+        {
+            int index = indexFor(hash, currentTable);
+            Object slot = currentTable.get(index);
+            if (slot == null)
+            {
+                if (currentTable.compareAndSet(index, null, new Entry<K, V>(key, value, null)))
+                {
+                    if (this.addToSize(1))
+                    {
+                        this.resizeIfFull(currentTable);
+                    }
+                    return null;
+                }
+            }
+            else if (slot instanceof Entry)
+            {
+                Entry<K, V> chain = (Entry<K, V>) slot;
+                Entry<K, V> existing = find(chain, key);
+                if (existing != null)
+                {
+                    if (onlyIfAbsent || currentTable.compareAndSet(index, slot, replaceInChain(chain, existing, value)))
+                    {
+                        return existing.value;
+                    }
+                }
+                else if (currentTable.compareAndSet(index, slot, new Entry<K, V>(key, value, chain)))
+                {
+                    if (this.addToSize(1))
+                    {
+                        this.resizeIfFull(currentTable);
+                    }
+                    return null;
+                }
+            }
+            else
+            {
+                currentTable = this.helpResize(currentTable);
+            }
+        }
+    }
+
+    public V remove(Object key)
+    {
+        return this.replaceOrRemove(key, null, null);
+    }
+
+    public boolean remove(Object key, Object value)
+    {
+        return value != null && this.replaceOrRemove(key, value, null) != null;
+    }
+
+    public V removeKey(K key)
+    {
+        return this.remove(key);
+    }
+
+    public V replace(K key, V value)
+    {
+        if (value == null)
+        {
+            throw new NullPointerException("ConcurrentUnifiedMap does not support null values");
+        }
+        return this.replaceOrRemove(key, null, value);
+    }
+
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        if (oldValue == null || newValue == null)
+        {
+            throw new NullPointerException("ConcurrentUnifiedMap does not support null values");
+        }
+        return this.replaceOrRemove(key, oldValue, newValue) != null;
+    }
+
+    /**
+     * Replaces the value of key by newValue, or removes key if newValue is null, provided that key is present and, if
+     * expectedValue is not null, currently mapped to expectedValue.
+     *
+     * @return the value replaced or removed, or null if the map was not changed.
+     */
+    private V replaceOrRemove(Object key, Object expectedValue, V newValue)
+    {
+        int hash = spread(key);
+        AtomicReferenceArray<Object> currentTable = this.table;
+        while (true)
+        {
+            int index = indexFor(hash, currentTable);
+            Object slot = currentTable.get(index);
+            if (slot == null)
+            {
+                return null;
+            }
+            if (slot instanceof Entry)
+            {
+                Entry<K, V> chain = (Entry<K, V>) slot;
+                Entry<K, V> existing = find(chain, key);
+                if (existing == null || expectedValue != null && !expectedValue.equals(existing.value))
+                {
+                    return null;
+                }
+                if (currentTable.compareAndSet(index, slot, replaceInChain(chain, existing, newValue)))
+                {
+                    if (newValue == null)
+                    {
+                        this.addToSize(-1);
+                    }
+                    return existing.value;
+                }
+            }
+            else
+            {
+                currentTable = this.helpResize(currentTable);
+            }
+        }
+    }
+
+    @Override
+    public V getIfAbsentPut(K key, Generator<? extends V> function)
+    {
+        V result = this.get(key);
+        return result == null ? this.inFlightComputations.getIfAbsentPut(this, key, function) : result;
+    }
+
+    @Override
+    public <P> V getIfAbsentPutWith(K key, Function<? super P, ? extends V> function, P parameter)
+    {
+        V result = this.get(key);
+        return result == null ? this.inFlightComputations.getIfAbsentPutWith(this, key, function, parameter) : result;
+    }
+
+    public V updateValue(K key, Generator<? extends V> factory, Function<? super V, ? extends V> function)
+    {
+        return this.inFlightComputations.updateValue(this, key, factory, function);
+    }
+
+    @Override
+    public V getIfAbsent(K key, Generator<? extends V> function)
+    {
+        V result = this.get(key);
+        return result == null ? function.value() : result;
+    }
+
+    @Override
+    public <P> V getIfAbsentWith(K key, Function<? super P, ? extends V> function, P parameter)
+    {
+        V result = this.get(key);
+        return result == null ? function.valueOf(parameter) : result;
+    }
+
+    @Override
+    public <A> A ifPresentApply(K key, Function<? super V, ? extends A> function)
+    {
+        V result = this.get(key);
+        return result == null ? null : function.valueOf(result);
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        if (map instanceof MapIterable)
+        {
+            ((MapIterable<K, V>) map).forEachKeyValue(new Procedure2<K, V>()
+            {
+                public void value(K key, V value)
+                {
+                    ConcurrentUnifiedMap.this.put(key, value);
+                }
+            });
+        }
+        else
+        {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+            {
+                this.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public <E> MutableMap<K, V> transformKeysAndValues(
+            Collection<E> collection,
+            Function<? super E, ? extends K> keyFunction,
+            Function<? super E, ? extends V> valueFunction)
+    {
+        Iterate.addToMap(collection, keyFunction, valueFunction, this);
+        return this;
+    }
+
+    public void clear()
+    {
+        AtomicReferenceArray<Object> currentTable = this.table;
+        int index = 0;
+        while (index < capacity(currentTable))
+        {
+            Object slot = currentTable.get(index);
+            if (slot == null)
+            {
+                index++;
+            }
+            else if (slot instanceof Entry)
+            {
+                if (currentTable.compareAndSet(index, slot, null))
+                {
+                    int removed = 0;
+                    for (Entry<K, V> e = (Entry<K, V>) slot; e != null; e = e.next)
+                    {
+                        removed++;
+                    }
+                    this.addToSize(-removed);
+                    index++;
+                }
+            }
+            else
+            {
+                currentTable = this.helpResize(currentTable);
+                index = 0;
+            }
+        }
+    }
+
+    public int size()
+    {
+        int result = this.size;
+        AtomicIntegerArray stripes = this.sizeStripes;
+        if (stripes != null)
+        {
+            for (int i = 0; i < SIZE_STRIPES; i++)
+            {
+                result += stripes.get(i * SIZE_STRIPE_SPACING);
+            }
+        }
+        return Math.max(result, 0);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean notEmpty()
+    {
+        return this.size() > 0;
+    }
+
+    /**
+     * Adds to the single size counter while it is uncontended.  The first time a compare-and-set on it fails the
+     * counter is striped, and from then on each thread adds to the stripe picked by its id.
+     *
+     * @return whether the size is worth checking against the resize threshold, which is always while the counter is
+     *         uncontended and otherwise only when the stripe reaches a multiple of {@link #SIZE_CHECK_STEP}
+     */
+    private boolean addToSize(int delta)
+    {
+        AtomicIntegerArray stripes = this.sizeStripes;
+        if (stripes == null)
+        {
+            int current = this.size;
+            if (SIZE_UPDATER.compareAndSet(this, current, current + delta))
+            {
+                return true;
+            }
+            SIZE_STRIPES_UPDATER.compareAndSet(this, null, new AtomicIntegerArray(SIZE_STRIPES * SIZE_STRIPE_SPACING));
+            stripes = this.sizeStripes;
+        }
+        long id = Thread.currentThread().getId();
+        int stripe = (int) (id ^ id >>> 32) * 0x9E3779B9 >>> 27;
+        return (stripes.addAndGet(stripe * SIZE_STRIPE_SPACING, delta) & SIZE_CHECK_STEP - 1) == 0;
+    }
+
+    private void resizeIfFull(AtomicReferenceArray<Object> currentTable)
+    {
+        int capacity = capacity(currentTable);
+        if (capacity < MAXIMUM_CAPACITY && this.size() > capacity - (capacity >> 2))
+        {
+            this.resize(currentTable);
+        }
+    }
+
+    private void resize(AtomicReferenceArray<Object> oldTable)
+    {
+        int capacity = capacity(oldTable);
+        if (oldTable.compareAndSet(capacity, null, RESIZE_SENTINEL))
+        {
+            ResizeContainer container = new ResizeContainer(new AtomicReferenceArray<Object>((capacity << 1) + 1), capacity);
+            oldTable.set(capacity, container);
+            this.transfer(oldTable, container);
+            container.awaitTransfer();
+            while (!TABLE_UPDATER.compareAndSet(this, oldTable, container.nextTable))
+            {
+                // The resize of the previous table has not been published yet.
+                Thread.yield();
+            }
+        }
+        else
+        {
+            Object last = oldTable.get(capacity);
+            if (last instanceof ResizeContainer)
+            {
+                this.transfer(oldTable, (ResizeContainer) last);
+            }
+        }
+    }
+
+    /**
+     * Helps to finish the resize of currentTable and returns the table its entries were copied into.
+     */
+    private AtomicReferenceArray<Object> helpResize(AtomicReferenceArray<Object> currentTable)
+    {
+        ResizeContainer container = awaitResizeContainer(currentTable);
+        this.transfer(currentTable, container);
+        container.awaitTransfer();
+        return container.nextTable;
+    }
+
+    private AtomicReferenceArray<Object> nextTable(AtomicReferenceArray<Object> currentTable)
+    {
+        return awaitResizeContainer(currentTable).nextTable;
+    }
+
+    private static ResizeContainer awaitResizeContainer(AtomicReferenceArray<Object> currentTable)
+    {
+        int last = capacity(currentTable);
+        Object container = currentTable.get(last);
+        while (!(container instanceof ResizeContainer))
+        {
+            Thread.yield();
+            container = currentTable.get(last);
+        }
+        return (ResizeContainer) container;
+    }
+
+    private void transfer(AtomicReferenceArray<Object> source, ResizeContainer container)
+    {
+        int capacity = capacity(source);
+        int start = container.claimChunk();
+        while (start < capacity)
+        {
+            int end = Math.min(start + TRANSFER_CHUNK, capacity);
+            for (int index = start; index < end; index++)
+            {
+                transferSlot(source, container.nextTable, index, capacity);
+            }
+            container.chunkTransferred(end - start);
+            start = container.claimChunk();
+        }
+    }
+
+    /**
+     * Moves the chain in a slot of the source table into the two slots of the next table which it splits into.  The
+     * chain stays readable through the forwarding marker while it is copied.  The longest run at the end of the chain
+     * whose entries all go to the same slot is reused rather than copied.
+     */
+    private static <K, V> void transferSlot(
+            AtomicReferenceArray<Object> source,
+            AtomicReferenceArray<Object> destination,
+            int index,
+            int capacity)
+    {
+        while (true)
+        {
+            Object slot = source.get(index);
+            if (slot == null)
+            {
+                if (source.compareAndSet(index, null, RESIZED))
+                {
+                    return;
+                }
+            }
+            else if (source.compareAndSet(index, slot, new Forwarding<K, V>((Entry<K, V>) slot)))
+            {
+                Entry<K, V> chain = (Entry<K, V>) slot;
+                Entry<K, V> lastRun = chain;
+                int lastRunBit = spread(chain.key) & capacity;
+                for (Entry<K, V> e = chain.next; e != null; e = e.next)
+                {
+                    int bit = spread(e.key) & capacity;
+                    if (bit != lastRunBit)
+                    {
+                        lastRun = e;
+                        lastRunBit = bit;
+                    }
+                }
+                Entry<K, V> low = lastRunBit == 0 ? lastRun : null;
+                Entry<K, V> high = lastRunBit == 0 ? null : lastRun;
+                for (Entry<K, V> e = chain; e != lastRun; e = e.next)
+                {
+                    if ((spread(e.key) & capacity) == 0)
+                    {
+                        low = new Entry<K, V>(e.key, e.value, low);
+                    }
+                    else
+                    {
+                        high = new Entry<K, V>(e.key, e.value, high);
+                    }
+                }
+                destination.set(index, low);
+                destination.set(index + capacity, high);
+                source.set(index, RESIZED);
+                return;
+            }
+        }
+    }
+
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        AtomicReferenceArray<Object> currentTable = this.table;
+        for (int index = 0; index < capacity(currentTable); index++)
+        {
+            this.forEachInSlot(currentTable, index, procedure);
+        }
+    }
+
+    /**
+     * Applies the procedure to the entries of a slot.  If the slot has already been copied into the next table, its
+     * entries are the ones now held in the two slots of the next table which it was split into.
+     */
+    private void forEachInSlot(AtomicReferenceArray<Object> currentTable, int index, Procedure2<? super K, ? super V> procedure)
+    {
+        Object slot = currentTable.get(index);
+        if (slot == RESIZED)
+        {
+            AtomicReferenceArray<Object> next = this.nextTable(currentTable);
+            this.forEachInSlot(next, index, procedure);
+            this.forEachInSlot(next, index + capacity(currentTable), procedure);
+        }
+        else
+        {
+            for (Entry<K, V> e = ConcurrentUnifiedMap.<K, V>chainOf(slot); e != null; e = e.next)
+            {
+                procedure.value(e.key, e.value);
+            }
+        }
+    }
+
+    @Override
+    public void forEachKey(final Procedure<? super K> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(key);
+            }
+        });
+    }
+
+    @Override
+    public void forEachValue(final Procedure<? super V> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(value);
+            }
+        });
+    }
+
+    @Override
+    public void forEach(Procedure<? super V> procedure)
+    {
+        this.forEachValue(procedure);
+    }
+
+    @Override
+    public <P> void forEachWith(final Procedure2<? super V, ? super P> procedure, final P parameter)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(value, parameter);
+            }
+        });
+    }
+
+    @Override
+    public void forEachWithIndex(final ObjectIntProcedure<? super V> objectIntProcedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            private int index;
+
+            public void value(K key, V value)
+            {
+                objectIntProcedure.value(value, this.index++);
+            }
+        });
+    }
+
+    public int getBatchCount(int batchSize)
+    {
+        return this.batchSnapshot().getBatchCount(batchSize);
+    }
+
+    /**
+     * Applies the procedure to the values in one section of the current table.  Separate calls may see different
+     * tables if the map is resized in between, so the sections of one parallel iteration should all be taken from a
+     * single {@link #batchSnapshot()}, as ParallelIterate does.
+     */
+    public void batchForEach(Procedure<? super V> procedure, int sectionIndex, int sectionCount)
+    {
+        this.batchSnapshot().batchForEach(procedure, sectionIndex, sectionCount);
+    }
+
+    public BatchIterable<V> batchSnapshot()
+    {
+        return new TableBatches(this.table);
+    }
+
+    /**
+     * Returns a deferred parallel view of the values of this map.  Chained operations are fused and run in batches of
+     * roughly batchSize table slots on the executor when a terminal method is called.
+     */
+    public ParallelIterable<V> asParallel(Executor executor, int batchSize)
+    {
+        return new ParallelIterableAdapter<V>(this, executor, batchSize);
+    }
+
+    @Override
+    public Iterator<V> iterator()
+    {
+        return new ValueIterator();
+    }
+
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    public Collection<V> values()
+    {
+        return new Values();
+    }
+
+    /**
+     * Returns a view of the entries of this map.  The entries are snapshots of a key and its value at the time they
+     * were read and do not support setValue.
+     */
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new EntrySet();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof Map))
+        {
+            return false;
+        }
+        Map<?, ?> other = (Map<?, ?>) object;
+        if (this.size() != other.size())
+        {
+            return false;
+        }
+        Iterator<Map.Entry<K, V>> iterator = new EntryIterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            if (!entry.getValue().equals(other.get(entry.getKey())))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        Iterator<Map.Entry<K, V>> iterator = new EntryIterator();
+        while (iterator.hasNext())
+        {
+            hashCode += iterator.next().hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        Iterator<Map.Entry<K, V>> iterator = new EntryIterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            buf.append(entry.getKey() == this ? "(this Map)" : entry.getKey());
+            buf.append('=');
+            buf.append(entry.getValue() == this ? "(this Map)" : entry.getValue());
+            if (iterator.hasNext())
+            {
+                buf.append(", ");
+            }
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+    public void writeExternal(final ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size());
+        Iterator<Map.Entry<K, V>> iterator = new EntryIterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<K, V> entry = iterator.next();
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+        // The size may have changed while writing, so the entries are terminated by a null key.
+        out.writeObject(null);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        int expectedSize = in.readInt();
+        this.table = newTable(expectedSize);
+        K key = (K) in.readObject();
+        while (key != null)
+        {
+            this.put(key, (V) in.readObject());
+            key = (K) in.readObject();
+        }
+    }
+
+    private static final class Entry<K, V> implements Map.Entry<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final Entry<K, V> next;
+
+        private Entry(K key, V value, Entry<K, V> next)
+        {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        public K getKey()
+        {
+            return this.key;
+        }
+
+        public V getValue()
+        {
+            return this.value;
+        }
+
+        public V setValue(V value)
+        {
+            throw new UnsupportedOperationException("Cannot call setValue() on " + this.getClass().getSimpleName());
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) object;
+            return this.key.equals(other.getKey()) && this.value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.key.hashCode() ^ this.value.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    /**
+     * Replaces a chain in its slot while the chain is copied into the next table.
+     */
+    private static final class Forwarding<K, V>
+    {
+        private final Entry<K, V> chain;
+
+        private Forwarding(Entry<K, V> chain)
+        {
+            this.chain = chain;
+        }
+    }
+
+    private static final class ResizeContainer
+    {
+        private final AtomicReferenceArray<Object> nextTable;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicInteger remaining;
+
+        private ResizeContainer(AtomicReferenceArray<Object> nextTable, int slotsToTransfer)
+        {
+            this.nextTable = nextTable;
+            this.remaining = new AtomicInteger(slotsToTransfer);
+        }
+
+        private int claimChunk()
+        {
+            return this.nextChunk.getAndAdd(TRANSFER_CHUNK);
+        }
+
+        private void chunkTransferred(int slots)
+        {
+            this.remaining.addAndGet(-slots);
+        }
+
+        private void awaitTransfer()
+        {
+            while (this.remaining.get() > 0)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Splits the values of one table into sections by slot.  Slots which are copied into the next table while a
+     * section runs are followed into it, so every entry of the table is visited exactly once across the sections.
+     */
+    private final class TableBatches implements BatchIterable<V>
+    {
+        private final AtomicReferenceArray<Object> snapshot;
+
+        private TableBatches(AtomicReferenceArray<Object> snapshot)
+        {
+            this.snapshot = snapshot;
+        }
+
+        public int size()
+        {
+            return ConcurrentUnifiedMap.this.size();
+        }
+
+        public int getBatchCount(int batchSize)
+        {
+            return Math.max(1, capacity(this.snapshot) / batchSize);
+        }
+
+        public void batchForEach(Procedure<? super V> procedure, int sectionIndex, int sectionCount)
+        {
+            long capacity = capacity(this.snapshot);
+            this.forEachInSlots(
+                    procedure,
+                    (int) (capacity * sectionIndex / sectionCount),
+                    (int) (capacity * (sectionIndex + 1) / sectionCount));
+        }
+
+        public void forEach(Procedure<? super V> procedure)
+        {
+            this.forEachInSlots(procedure, 0, capacity(this.snapshot));
+        }
+
+        private void forEachInSlots(final Procedure<? super V> procedure, int start, int end)
+        {
+            Procedure2<K, V> valueProcedure = new Procedure2<K, V>()
+            {
+                public void value(K key, V value)
+                {
+                    procedure.value(value);
+                }
+            };
+            for (int index = start; index < end; index++)
+            {
+                ConcurrentUnifiedMap.this.forEachInSlot(this.snapshot, index, valueProcedure);
+            }
+        }
+    }
+
+    /**
+     * Walks the table slot by slot.  When it meets a slot which has already been copied into the next table it
+     * walks the two slots of the next table which that slot was split into instead.
+     */
+    private abstract class SlotIterator<E> implements Iterator<E>
+    {
+        private final AtomicReferenceArray<Object> rootTable = ConcurrentUnifiedMap.this.table;
+        private final FastList<Object> pendingSlots = FastList.newList(0);
+        private int rootIndex;
+        private Entry<K, V> next;
+        private Entry<K, V> lastReturned;
+
+        protected SlotIterator()
+        {
+            this.advance();
+        }
+
+        private void advance()
+        {
+            while (this.next == null)
+            {
+                if (this.pendingSlots.notEmpty())
+                {
+                    int index = (Integer) this.pendingSlots.remove(this.pendingSlots.size() - 1);
+                    AtomicReferenceArray<Object> pendingTable = (AtomicReferenceArray<Object>) this.pendingSlots.remove(this.pendingSlots.size() - 1);
+                    this.visit(pendingTable, index);
+                }
+                else if (this.rootIndex < capacity(this.rootTable))
+                {
+                    this.visit(this.rootTable, this.rootIndex++);
+                }
+                else
+                {
+                    return;
+                }
+            }
+        }
+
+        private void visit(AtomicReferenceArray<Object> currentTable, int index)
+        {
+            Object slot = currentTable.get(index);
+            if (slot == RESIZED)
+            {
+                AtomicReferenceArray<Object> nextTable = ConcurrentUnifiedMap.this.nextTable(currentTable);
+                this.pendingSlots.add(nextTable);
+                this.pendingSlots.add(index + capacity(currentTable));
+                this.pendingSlots.add(nextTable);
+                this.pendingSlots.add(index);
+            }
+            else
+            {
+                this.next = chainOf(slot);
+            }
+        }
+
+        public boolean hasNext()
+        {
+            return this.next != null;
+        }
+
+        protected Entry<K, V> nextEntry()
+        {
+            if (this.next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastReturned = this.next;
+            this.next = this.next.next;
+            if (this.next == null)
+            {
+                this.advance();
+            }
+            return this.lastReturned;
+        }
+
+        public void remove()
+        {
+            if (this.lastReturned == null)
+            {
+                throw new IllegalStateException();
+            }
+            ConcurrentUnifiedMap.this.remove(this.lastReturned.key);
+            this.lastReturned = null;
+        }
+    }
+
+    private final class KeyIterator extends SlotIterator<K>
+    {
+        public K next()
+        {
+            return this.nextEntry().key;
+        }
+    }
+
+    private final class ValueIterator extends SlotIterator<V>
+    {
+        public V next()
+        {
+            return this.nextEntry().value;
+        }
+    }
+
+    private final class EntryIterator extends SlotIterator<Map.Entry<K, V>>
+    {
+        public Map.Entry<K, V> next()
+        {
+            return this.nextEntry();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return new KeyIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentUnifiedMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return ConcurrentUnifiedMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return key != null && ConcurrentUnifiedMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            return key != null && ConcurrentUnifiedMap.this.remove(key) != null;
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentUnifiedMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V>
+    {
+        @Override
+        public Iterator<V> iterator()
+        {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentUnifiedMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return ConcurrentUnifiedMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object value)
+        {
+            return value != null && ConcurrentUnifiedMap.this.containsValue(value);
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentUnifiedMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentUnifiedMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return ConcurrentUnifiedMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            Object value = entry.getKey() == null ? null : ConcurrentUnifiedMap.this.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object)
+        {
+            if (!(object instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return entry.getKey() != null && ConcurrentUnifiedMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentUnifiedMap.this.clear();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+/**
+ * An approximate count of how often each key has been used recently, for the frequency-aware eviction of a
+ * {@link CachingMap}.  It is a count-min sketch of four-bit counters, sixteen to a long, so it takes eight bytes per
+ * entry the cache can hold whatever the keys are.  Each key is counted in four counters chosen by different hashes
+ * and its frequency is the smallest of them.  Once the number of increments reaches ten times the capacity, every
+ * counter is halved, so that keys which were popular a long time ago do not keep newer ones out forever.
+ *
+ * @since 1.3
+ */
+final class FrequencySketch
+{
+    private static final int MAXIMUM_CAPACITY = 1 << 26;
+    private static final int[] SEEDS = {0x97cb3127, 0x2d2d1ba5, 0x5bd1e995, 0x6a09e667};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedSize)
+    {
+        this.ensureCapacity(expectedSize);
+    }
+
+    /**
+     * Grows the sketch to count at least the given number of keys well.  The counts so far are lost when it grows.
+     */
+    void ensureCapacity(long expectedSize)
+    {
+        int capacity = (int) Math.min(Math.max(expectedSize, 16L), MAXIMUM_CAPACITY);
+        if (this.table != null && this.table.length >= capacity)
+        {
+            return;
+        }
+        int length = Integer.highestOneBit(capacity - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * length;
+        this.additions = 0;
+    }
+
+    int capacity()
+    {
+        return this.table.length;
+    }
+
+    int frequency(Object key)
+    {
+        int hash = spread(key);
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++)
+        {
+            int indexHash = indexHash(hash, i);
+            int count = (int) ((this.table[indexHash & this.tableMask] >>> counterShift(indexHash)) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object key)
+    {
+        int hash = spread(key);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++)
+        {
+            int indexHash = indexHash(hash, i);
+            int index = indexHash & this.tableMask;
+            int shift = counterShift(indexHash);
+            if (((this.table[index] >>> shift) & 0xFL) != 0xFL)
+            {
+                this.table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++this.additions == this.sampleSize)
+        {
+            this.reset();
+        }
+    }
+
+    private void reset()
+    {
+        for (int i = 0; i < this.table.length; i++)
+        {
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.additions >>>= 1;
+    }
+
+    private static int spread(Object key)
+    {
+        int hash = key == null ? 0 : key.hashCode();
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static int indexHash(int hash, int i)
+    {
+        int indexHash = (hash + SEEDS[i]) * SEEDS[i];
+        return indexHash ^ (indexHash >>> 17);
+    }
+
+    /**
+     * The top bits of the index hash, which are not used to pick the long, pick one of its sixteen counters.
+     */
+    private static int counterShift(int indexHash)
+    {
+        return (indexHash >>> 28) << 2;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+
+/**
+ * Implements getIfAbsentPut and updateValue for a ConcurrentMap so that the value of an absent key is computed by at
+ * most one thread.  The first thread to miss a key takes out a reservation on it in a separate map of reservations
+ * and computes the value, while other threads which miss the same key wait for that reservation to be released and
+ * then read the value it put.  Nothing is locked while a value is computed except the reservation for its own key, so
+ * the computations of different keys run concurrently.
+ *
+ * @since 1.3
+ */
+final class InFlightComputations<K, V> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final AtomicReferenceFieldUpdater<InFlightComputations, ConcurrentUnifiedMap> RESERVATIONS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(InFlightComputations.class, ConcurrentUnifiedMap.class, "reservations");
+
+    private transient volatile ConcurrentUnifiedMap<K, Reservation> reservations;
+
+    private ConcurrentUnifiedMap<K, Reservation> getReservations()
+    {
+        ConcurrentUnifiedMap<K, Reservation> result = this.reservations;
+        if (result == null)
+        {
+            RESERVATIONS_UPDATER.compareAndSet(this, null, ConcurrentUnifiedMap.<K, Reservation>newMap());
+            result = this.reservations;
+        }
+        return result;
+    }
+
+    public V getIfAbsentPut(ConcurrentMap<K, V> map, K key, Generator<? extends V> function)
+    {
+        while (true)
+        {
+            V result = map.get(key);
+            if (result != null)
+            {
+                return result;
+            }
+            Reservation reservation = this.reserve(key);
+            if (reservation != null)
+            {
+                try
+                {
+                    result = map.get(key);
+                    if (result == null)
+                    {
+                        V newValue = function.value();
+                        V previous = map.putIfAbsent(key, newValue);
+                        result = previous == null ? newValue : previous;
+                    }
+                    return result;
+                }
+                finally
+                {
+                    this.release(key, reservation);
+                }
+            }
+        }
+    }
+
+    public <P> V getIfAbsentPutWith(
+            ConcurrentMap<K, V> map,
+            K key,
+            final Function<? super P, ? extends V> function,
+            final P parameter)
+    {
+        V result = map.get(key);
+        if (result != null)
+        {
+            return result;
+        }
+        return this.getIfAbsentPut(map, key, new Generator<V>()
+        {
+            public V value()
+            {
+                return function.valueOf(parameter);
+            }
+        });
+    }
+
+    /**
+     * Applies the function to the value of key, or to the value of the factory if key is absent, and puts and
+     * returns the result.  The factory is evaluated at most once for an absent key, under its reservation.  When the
+     * key is present the new value is put with a compare-and-replace, so under contention the function may be
+     * applied more than once and must not have side effects.
+     */
+    public V updateValue(
+            ConcurrentMap<K, V> map,
+            K key,
+            Generator<? extends V> factory,
+            Function<? super V, ? extends V> function)
+    {
+        while (true)
+        {
+            V current = map.get(key);
+            if (current != null)
+            {
+                V newValue = function.valueOf(current);
+                if (map.replace(key, current, newValue))
+                {
+                    return newValue;
+                }
+            }
+            else
+            {
+                Reservation reservation = this.reserve(key);
+                if (reservation != null)
+                {
+                    try
+                    {
+                        if (map.get(key) == null)
+                        {
+                            V newValue = function.valueOf(factory.value());
+                            if (map.putIfAbsent(key, newValue) == null)
+                            {
+                                return newValue;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        this.release(key, reservation);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a new reservation for key, or returns null once the reservation already held by another thread has
+     * been released.
+     */
+    private Reservation reserve(K key)
+    {
+        Reservation reservation = new Reservation();
+        Reservation existing = this.getReservations().putIfAbsent(key, reservation);
+        if (existing == null)
+        {
+            return reservation;
+        }
+        existing.await();
+        return null;
+    }
+
+    private void release(K key, Reservation reservation)
+    {
+        this.reservations.remove(key, reservation);
+        reservation.released.countDown();
+    }
+
+    private static final class Reservation
+    {
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private void await()
+        {
+            if (this.owner == Thread.currentThread())
+            {
+                throw new IllegalStateException("The value of a key cannot be computed while computing the value of the same key");
+            }
+            boolean interrupted = false;
+            while (true)
+            {
+                try
+                {
+                    this.released.await();
+                    break;
+                }
+                catch (InterruptedException ignored)
+                {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
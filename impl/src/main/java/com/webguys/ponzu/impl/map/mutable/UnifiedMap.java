@@ -26,10 +26,14 @@ import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import com.webguys.ponzu.api.ParallelIterable;
 import com.webguys.ponzu.api.block.function.Function;
 import com.webguys.ponzu.api.block.function.Generator;
 import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
@@ -45,6 +49,8 @@ import com.webguys.ponzu.impl.block.procedure.MapTransformProcedure;
 import com.webguys.ponzu.impl.factory.Sets;
 import com.webguys.ponzu.impl.list.mutable.FastList;
 import com.webguys.ponzu.impl.parallel.BatchIterable;
+import com.webguys.ponzu.impl.parallel.BucketRangePartition;
+import com.webguys.ponzu.impl.parallel.ParallelIterableAdapter;
 import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
 import com.webguys.ponzu.impl.tuple.ImmutableEntry;
 import com.webguys.ponzu.impl.utility.ArrayIterate;
@@ -176,6 +182,86 @@ public class UnifiedMap<K, V> extends AbstractMutableMap<K, V>
         return new UnifiedMap<K, V>(pairs);
     }
 
+    /**
+     * Builds a map of the keys and values computed from each element of the iterable, using the executor to load a
+     * presized table in parallel.  Keys and values are first computed in parallel chunks, and the elements are then
+     * grouped by the range of buckets their keys fall into so that each range of the table is filled by its own task
+     * without locking and without ever resizing.  When a key appears more than once the value of its last element
+     * wins, just as with a sequence of puts.  Small inputs are simply loaded on the calling thread.
+     * <p/>
+     * The key and value functions must be safe to call from several threads at once.
+     *
+     * @since 1.3
+     */
+    public static <T, K, V> UnifiedMap<K, V> newMapParallel(
+            Iterable<T> iterable,
+            final Function<? super T, ? extends K> keyFunction,
+            final Function<? super T, ? extends V> valueFunction,
+            Executor executor)
+    {
+        final List<T> list = iterable instanceof List && iterable instanceof RandomAccess
+                ? (List<T>) iterable
+                : FastList.newList(iterable);
+        final int size = list.size();
+        final UnifiedMap<K, V> map = new UnifiedMap<K, V>(Math.max(size, DEFAULT_INITIAL_CAPACITY));
+        int capacity = map.table.length >> 1;
+        final int rangeCount = BucketRangePartition.rangeCount(size, capacity, executor);
+        if (rangeCount == 1)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                T each = list.get(i);
+                map.put(keyFunction.valueOf(each), valueFunction.valueOf(each));
+            }
+            return map;
+        }
+
+        final Object[] keys = new Object[size];
+        final Object[] values = new Object[size];
+        final int[] buckets = new int[size];
+        BucketRangePartition.forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer chunk)
+            {
+                int end = BucketRangePartition.chunkStart(size, rangeCount, chunk + 1);
+                for (int i = BucketRangePartition.chunkStart(size, rangeCount, chunk); i < end; i++)
+                {
+                    T each = list.get(i);
+                    Object key = map.toSentinelIfNull(keyFunction.valueOf(each));
+                    keys[i] = key;
+                    values[i] = valueFunction.valueOf(each);
+                    buckets[i] = map.index(key) >> 1;
+                }
+            }
+        }, executor);
+
+        final BucketRangePartition partition = BucketRangePartition.partition(buckets, capacity, rangeCount, executor);
+        final int[] added = new int[rangeCount];
+        BucketRangePartition.forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer range)
+            {
+                int count = 0;
+                int end = partition.getRangeEnd(range);
+                for (int position = partition.getRangeStart(range); position < end; position++)
+                {
+                    int i = partition.getSourceIndex(position);
+                    if (map.loadIntoBucket(keys[i], buckets[i] << 1, values[i]))
+                    {
+                        count++;
+                    }
+                }
+                added[range] = count;
+            }
+        }, executor);
+
+        for (int count : added)
+        {
+            map.occupied += count;
+        }
+        return map;
+    }
+
     public static <K, V> UnifiedMap<K, V> newWithKeysValues(K key, V value)
     {
         return new UnifiedMap<K, V>(1).withKeysValues(key, value);
@@ -390,6 +476,60 @@ public class UnifiedMap<K, V> extends AbstractMutableMap<K, V>
         return result;
     }
 
+    /**
+     * Puts the key and value into the bucket at the specified index without counting the new entry or resizing the
+     * table, and returns whether the key was new.  Only used by a parallel load, whose tasks each own a separate range
+     * of buckets.
+     */
+    private boolean loadIntoBucket(Object realKey, int index, Object value)
+    {
+        Object cur = this.table[index];
+        if (cur == null)
+        {
+            this.table[index] = realKey;
+            this.table[index + 1] = value;
+            return true;
+        }
+        if (realKey == cur || cur.equals(realKey))
+        {
+            this.table[index + 1] = value;
+            return false;
+        }
+        if (cur == CHAINED_KEY)
+        {
+            Object[] chain = (Object[]) this.table[index + 1];
+            int i = 0;
+            for (; i < chain.length; i += 2)
+            {
+                if (chain[i] == null)
+                {
+                    chain[i] = realKey;
+                    chain[i + 1] = value;
+                    return true;
+                }
+                if (realKey == chain[i] || chain[i].equals(realKey))
+                {
+                    chain[i + 1] = value;
+                    return false;
+                }
+            }
+            Object[] newChain = new Object[chain.length + 4];
+            System.arraycopy(chain, 0, newChain, 0, chain.length);
+            newChain[i] = realKey;
+            newChain[i + 1] = value;
+            this.table[index + 1] = newChain;
+            return true;
+        }
+        Object[] newChain = new Object[4];
+        newChain[0] = cur;
+        newChain[1] = this.table[index + 1];
+        newChain[2] = realKey;
+        newChain[3] = value;
+        this.table[index] = CHAINED_KEY;
+        this.table[index + 1] = newChain;
+        return true;
+    }
+
     @Override
     public V getIfAbsentPut(K key, Generator<? extends V> function)
     {
@@ -693,6 +833,17 @@ public class UnifiedMap<K, V> extends AbstractMutableMap<K, V>
         return Math.max(1, this.table.length / 2 / batchSize);
     }
 
+    /**
+     * Returns a deferred parallel view of the values of this map.  Chained operations are fused and run in batches of
+     * roughly batchSize table slots on the executor when a terminal method is called.
+     *
+     * @since 1.3
+     */
+    public ParallelIterable<V> asParallel(Executor executor, int batchSize)
+    {
+        return new ParallelIterableAdapter<V>(this, executor, batchSize);
+    }
+
     public void batchForEach(Procedure<? super V> procedure, int sectionIndex, int sectionCount)
     {
         this.mapBatchForEach(this.table, procedure, sectionIndex, sectionCount);
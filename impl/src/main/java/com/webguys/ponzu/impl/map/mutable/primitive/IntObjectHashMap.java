@@ -0,0 +1,940 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.IntObjectToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntObjectPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntObjectProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.parallel.BatchIterable;
+import com.webguys.ponzu.impl.primitive.AbstractIntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * IntObjectHashMap is a map from primitive int keys to objects.  It is the int-keyed counterpart of
+ * {@link UnifiedMap}, for lookup tables keyed by surrogate ids, where a UnifiedMap would box the key on every put and
+ * get.
+ * <p/>
+ * The keys are stored in a int[] and the values in a parallel Object[], using open addressing with linear probing,
+ * so there are no Entry objects and no boxed keys.  Two key values are reserved as sentinels in the table: 0 marks an
+ * empty slot and 1 marks a removed slot.  The mappings for the keys 0 and 1 themselves are held in fields instead.
+ * <p/>
+ * The map iterates over its values and implements {@link BatchIterable}, so ParallelIterate can split it in the same
+ * way as a UnifiedMap.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class IntObjectHashMap<V>
+        implements Iterable<V>, BatchIterable<V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int EMPTY_KEY = 0;
+    private static final int REMOVED_KEY = 1;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    // positions used by the iterators for the mappings of the sentinel keys, which are held outside the table
+    private static final int EMPTY_KEY_POSITION = -2;
+    private static final int REMOVED_KEY_POSITION = -1;
+
+    private int[] keys;
+    private Object[] values;
+    private int occupiedWithData;
+    private int occupiedWithSentinels;
+
+    private boolean containsEmptyKey;
+    private V emptyKeyValue;
+    private boolean containsRemovedKey;
+    private V removedKeyValue;
+
+    public IntObjectHashMap()
+    {
+        this.allocateTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public IntObjectHashMap(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("initial capacity cannot be less than 0");
+        }
+        this.allocateTable(smallestPowerOfTwoGreaterThan(initialCapacity + (initialCapacity >> 1) + 1));
+    }
+
+    public static <V> IntObjectHashMap<V> newMap()
+    {
+        return new IntObjectHashMap<V>();
+    }
+
+    public static <V> IntObjectHashMap<V> newMap(int initialCapacity)
+    {
+        return new IntObjectHashMap<V>(initialCapacity);
+    }
+
+    public static <V> IntObjectHashMap<V> newWithKeysValues(int key, V value)
+    {
+        return new IntObjectHashMap<V>(1).withKeyValue(key, value);
+    }
+
+    public static <V> IntObjectHashMap<V> newWithKeysValues(int key1, V value1, int key2, V value2)
+    {
+        return new IntObjectHashMap<V>(2).withKeyValue(key1, value1).withKeyValue(key2, value2);
+    }
+
+    public static <V> IntObjectHashMap<V> newWithKeysValues(int key1, V value1, int key2, V value2, int key3, V value3)
+    {
+        return new IntObjectHashMap<V>(3).withKeyValue(key1, value1).withKeyValue(key2, value2).withKeyValue(key3, value3);
+    }
+
+    private static int smallestPowerOfTwoGreaterThan(int n)
+    {
+        return n > 1 ? Integer.highestOneBit(n - 1) << 1 : 1;
+    }
+
+    private void allocateTable(int sizeToAllocate)
+    {
+        this.keys = new int[sizeToAllocate];
+        this.values = new Object[sizeToAllocate];
+    }
+
+    private int maxOccupiedWithData()
+    {
+        int capacity = this.keys.length;
+        return Math.min(capacity - 1, capacity - (capacity >> 2));
+    }
+
+    private static boolean isNonSentinel(int key)
+    {
+        return key != EMPTY_KEY && key != REMOVED_KEY;
+    }
+
+    // exposed for testing
+    int spreadAndMask(int key)
+    {
+        // the finalization mix of MurmurHash3, so that keys which differ only in their high bits do not collide
+        int code = key;
+        code ^= code >>> 16;
+        code *= 0x85ebca6b;
+        code ^= code >>> 13;
+        code *= 0xc2b2ae35;
+        code ^= code >>> 16;
+        return code & (this.keys.length - 1);
+    }
+
+    /**
+     * Returns the index of the slot holding the key, or if it is absent, the index of the first slot the key could be
+     * stored in.
+     */
+    private int probe(int key)
+    {
+        int mask = this.keys.length - 1;
+        int index = this.spreadAndMask(key);
+        int removedIndex = -1;
+        while (true)
+        {
+            int current = this.keys[index];
+            if (current == key)
+            {
+                return index;
+            }
+            if (current == EMPTY_KEY)
+            {
+                return removedIndex == -1 ? index : removedIndex;
+            }
+            if (current == REMOVED_KEY && removedIndex == -1)
+            {
+                removedIndex = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehashAndGrow()
+    {
+        int capacity = this.keys.length;
+        // if most of the occupied slots are removed markers, rehashing into the same capacity reclaims them
+        this.rehash(this.occupiedWithData > this.maxOccupiedWithData() >> 1 ? capacity << 1 : capacity);
+    }
+
+    private void rehash(int newCapacity)
+    {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.allocateTable(newCapacity);
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            int key = oldKeys[i];
+            if (isNonSentinel(key))
+            {
+                int index = this.probe(key);
+                this.keys[index] = key;
+                this.values[index] = oldValues[i];
+                this.occupiedWithData++;
+            }
+        }
+    }
+
+    private void addKeyValueAtIndex(int key, V value, int index)
+    {
+        if (this.keys[index] == REMOVED_KEY)
+        {
+            this.occupiedWithSentinels--;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.occupiedWithData++;
+        if (this.occupiedWithData + this.occupiedWithSentinels > this.maxOccupiedWithData())
+        {
+            this.rehashAndGrow();
+        }
+    }
+
+    private void removeKeyAtIndex(int index)
+    {
+        this.keys[index] = REMOVED_KEY;
+        this.values[index] = null;
+        this.occupiedWithData--;
+        this.occupiedWithSentinels++;
+    }
+
+    private boolean isOccupied(int position)
+    {
+        if (position == EMPTY_KEY_POSITION)
+        {
+            return this.containsEmptyKey;
+        }
+        if (position == REMOVED_KEY_POSITION)
+        {
+            return this.containsRemovedKey;
+        }
+        return isNonSentinel(this.keys[position]);
+    }
+
+    private int keyAt(int position)
+    {
+        if (position == EMPTY_KEY_POSITION)
+        {
+            return EMPTY_KEY;
+        }
+        if (position == REMOVED_KEY_POSITION)
+        {
+            return REMOVED_KEY;
+        }
+        return this.keys[position];
+    }
+
+    private V valueAt(int position)
+    {
+        if (position == EMPTY_KEY_POSITION)
+        {
+            return this.emptyKeyValue;
+        }
+        if (position == REMOVED_KEY_POSITION)
+        {
+            return this.removedKeyValue;
+        }
+        return (V) this.values[position];
+    }
+
+    private void removeAt(int position)
+    {
+        if (position == EMPTY_KEY_POSITION)
+        {
+            this.containsEmptyKey = false;
+            this.emptyKeyValue = null;
+        }
+        else if (position == REMOVED_KEY_POSITION)
+        {
+            this.containsRemovedKey = false;
+            this.removedKeyValue = null;
+        }
+        else
+        {
+            this.removeKeyAtIndex(position);
+        }
+    }
+
+    /**
+     * Associates the value with the key, and returns the value previously associated with it, or null if there was
+     * no mapping for the key.
+     */
+    public V put(int key, V value)
+    {
+        if (key == EMPTY_KEY)
+        {
+            V oldValue = this.emptyKeyValue;
+            this.containsEmptyKey = true;
+            this.emptyKeyValue = value;
+            return oldValue;
+        }
+        if (key == REMOVED_KEY)
+        {
+            V oldValue = this.removedKeyValue;
+            this.containsRemovedKey = true;
+            this.removedKeyValue = value;
+            return oldValue;
+        }
+        int index = this.probe(key);
+        if (this.keys[index] == key)
+        {
+            V oldValue = (V) this.values[index];
+            this.values[index] = value;
+            return oldValue;
+        }
+        this.addKeyValueAtIndex(key, value, index);
+        return null;
+    }
+
+    public IntObjectHashMap<V> withKeyValue(int key, V value)
+    {
+        this.put(key, value);
+        return this;
+    }
+
+    public void putAll(IntObjectHashMap<? extends V> map)
+    {
+        if (map.containsEmptyKey)
+        {
+            this.put(EMPTY_KEY, map.emptyKeyValue);
+        }
+        if (map.containsRemovedKey)
+        {
+            this.put(REMOVED_KEY, map.removedKeyValue);
+        }
+        for (int i = 0; i < map.keys.length; i++)
+        {
+            int key = map.keys[i];
+            if (isNonSentinel(key))
+            {
+                this.put(key, (V) map.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the value associated with the key, or null if there is no mapping for the key.
+     */
+    public V get(int key)
+    {
+        if (key == EMPTY_KEY)
+        {
+            return this.emptyKeyValue;
+        }
+        if (key == REMOVED_KEY)
+        {
+            return this.removedKeyValue;
+        }
+        int index = this.probe(key);
+        return this.keys[index] == key ? (V) this.values[index] : null;
+    }
+
+    public V getIfAbsent(int key, Generator<? extends V> function)
+    {
+        if (this.containsKey(key))
+        {
+            return this.get(key);
+        }
+        return function.value();
+    }
+
+    public <P> V getIfAbsentWith(int key, Function<? super P, ? extends V> function, P parameter)
+    {
+        if (this.containsKey(key))
+        {
+            return this.get(key);
+        }
+        return function.valueOf(parameter);
+    }
+
+    public V getIfAbsentPut(int key, V value)
+    {
+        if (key == EMPTY_KEY || key == REMOVED_KEY)
+        {
+            if (!this.containsKey(key))
+            {
+                this.put(key, value);
+            }
+            return this.get(key);
+        }
+        int index = this.probe(key);
+        if (this.keys[index] == key)
+        {
+            return (V) this.values[index];
+        }
+        this.addKeyValueAtIndex(key, value, index);
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the key, first evaluating the function and associating its result with the
+     * key if there is no mapping for the key.  The key is probed only once.
+     */
+    public V getIfAbsentPut(int key, Generator<? extends V> function)
+    {
+        if (key == EMPTY_KEY || key == REMOVED_KEY)
+        {
+            if (!this.containsKey(key))
+            {
+                this.put(key, function.value());
+            }
+            return this.get(key);
+        }
+        int index = this.probe(key);
+        if (this.keys[index] == key)
+        {
+            return (V) this.values[index];
+        }
+        V value = function.value();
+        this.addKeyValueAtIndex(key, value, index);
+        return value;
+    }
+
+    public <P> V getIfAbsentPutWith(int key, Function<? super P, ? extends V> function, P parameter)
+    {
+        if (key == EMPTY_KEY || key == REMOVED_KEY)
+        {
+            if (!this.containsKey(key))
+            {
+                this.put(key, function.valueOf(parameter));
+            }
+            return this.get(key);
+        }
+        int index = this.probe(key);
+        if (this.keys[index] == key)
+        {
+            return (V) this.values[index];
+        }
+        V value = function.valueOf(parameter);
+        this.addKeyValueAtIndex(key, value, index);
+        return value;
+    }
+
+    public boolean containsKey(int key)
+    {
+        if (key == EMPTY_KEY)
+        {
+            return this.containsEmptyKey;
+        }
+        if (key == REMOVED_KEY)
+        {
+            return this.containsRemovedKey;
+        }
+        return this.keys[this.probe(key)] == key;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        if (this.containsEmptyKey && nullSafeEquals(this.emptyKeyValue, value))
+        {
+            return true;
+        }
+        if (this.containsRemovedKey && nullSafeEquals(this.removedKeyValue, value))
+        {
+            return true;
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (isNonSentinel(this.keys[i]) && nullSafeEquals(this.values[i], value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean nullSafeEquals(Object value, Object other)
+    {
+        return value == null ? other == null : value == other || value.equals(other);
+    }
+
+    /**
+     * Removes the mapping for the key, and returns the value that was associated with it, or null if there was no
+     * mapping for the key.
+     */
+    public V removeKey(int key)
+    {
+        if (key == EMPTY_KEY || key == REMOVED_KEY)
+        {
+            V oldValue = this.get(key);
+            this.removeAt(key == EMPTY_KEY ? EMPTY_KEY_POSITION : REMOVED_KEY_POSITION);
+            return oldValue;
+        }
+        int index = this.probe(key);
+        if (this.keys[index] == key)
+        {
+            V oldValue = (V) this.values[index];
+            this.removeKeyAtIndex(index);
+            return oldValue;
+        }
+        return null;
+    }
+
+    public void clear()
+    {
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        this.containsEmptyKey = false;
+        this.emptyKeyValue = null;
+        this.containsRemovedKey = false;
+        this.removedKeyValue = null;
+        Arrays.fill(this.keys, EMPTY_KEY);
+        Arrays.fill(this.values, null);
+    }
+
+    public int size()
+    {
+        return this.occupiedWithData + (this.containsEmptyKey ? 1 : 0) + (this.containsRemovedKey ? 1 : 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    public void forEach(Procedure<? super V> procedure)
+    {
+        this.forEachValue(procedure);
+    }
+
+    public void forEachValue(Procedure<? super V> procedure)
+    {
+        if (this.containsEmptyKey)
+        {
+            procedure.value(this.emptyKeyValue);
+        }
+        if (this.containsRemovedKey)
+        {
+            procedure.value(this.removedKeyValue);
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (isNonSentinel(this.keys[i]))
+            {
+                procedure.value((V) this.values[i]);
+            }
+        }
+    }
+
+    public void forEachKey(IntProcedure procedure)
+    {
+        if (this.containsEmptyKey)
+        {
+            procedure.value(EMPTY_KEY);
+        }
+        if (this.containsRemovedKey)
+        {
+            procedure.value(REMOVED_KEY);
+        }
+        for (int key : this.keys)
+        {
+            if (isNonSentinel(key))
+            {
+                procedure.value(key);
+            }
+        }
+    }
+
+    public void forEachKeyValue(IntObjectProcedure<? super V> procedure)
+    {
+        if (this.containsEmptyKey)
+        {
+            procedure.value(EMPTY_KEY, this.emptyKeyValue);
+        }
+        if (this.containsRemovedKey)
+        {
+            procedure.value(REMOVED_KEY, this.removedKeyValue);
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                procedure.value(key, (V) this.values[i]);
+            }
+        }
+    }
+
+    public int getBatchCount(int batchSize)
+    {
+        return Math.max(1, this.keys.length / batchSize);
+    }
+
+    public void batchForEach(Procedure<? super V> procedure, int sectionIndex, int sectionCount)
+    {
+        int sectionSize = this.keys.length / sectionCount;
+        int start = sectionIndex * sectionSize;
+        int end = sectionIndex == sectionCount - 1 ? this.keys.length : start + sectionSize;
+        if (sectionIndex == 0)
+        {
+            if (this.containsEmptyKey)
+            {
+                procedure.value(this.emptyKeyValue);
+            }
+            if (this.containsRemovedKey)
+            {
+                procedure.value(this.removedKeyValue);
+            }
+        }
+        for (int i = start; i < end; i++)
+        {
+            if (isNonSentinel(this.keys[i]))
+            {
+                procedure.value((V) this.values[i]);
+            }
+        }
+    }
+
+    /**
+     * The key-value form of {@link #batchForEach(Procedure, int, int)}, used by ParallelMapIterate.
+     */
+    public void batchForEachKeyValue(IntObjectProcedure<? super V> procedure, int sectionIndex, int sectionCount)
+    {
+        int sectionSize = this.keys.length / sectionCount;
+        int start = sectionIndex * sectionSize;
+        int end = sectionIndex == sectionCount - 1 ? this.keys.length : start + sectionSize;
+        if (sectionIndex == 0)
+        {
+            if (this.containsEmptyKey)
+            {
+                procedure.value(EMPTY_KEY, this.emptyKeyValue);
+            }
+            if (this.containsRemovedKey)
+            {
+                procedure.value(REMOVED_KEY, this.removedKeyValue);
+            }
+        }
+        for (int i = start; i < end; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                procedure.value(key, (V) this.values[i]);
+            }
+        }
+    }
+
+    public Iterator<V> iterator()
+    {
+        return new ValuesIterator();
+    }
+
+    /**
+     * Returns a new map containing the mappings which satisfy the predicate.
+     */
+    public IntObjectHashMap<V> filter(IntObjectPredicate<? super V> predicate)
+    {
+        return this.filter(predicate, true);
+    }
+
+    /**
+     * Returns a new map containing the mappings which do not satisfy the predicate.
+     */
+    public IntObjectHashMap<V> filterNot(IntObjectPredicate<? super V> predicate)
+    {
+        return this.filter(predicate, false);
+    }
+
+    private IntObjectHashMap<V> filter(IntObjectPredicate<? super V> predicate, boolean expected)
+    {
+        IntObjectHashMap<V> result = IntObjectHashMap.newMap();
+        if (this.containsEmptyKey && predicate.accept(EMPTY_KEY, this.emptyKeyValue) == expected)
+        {
+            result.put(EMPTY_KEY, this.emptyKeyValue);
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED_KEY, this.removedKeyValue) == expected)
+        {
+            result.put(REMOVED_KEY, this.removedKeyValue);
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key) && predicate.accept(key, (V) this.values[i]) == expected)
+            {
+                result.put(key, (V) this.values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new map with the same keys, where each value is the result of applying the function to the key and the
+     * original value.
+     */
+    public <R> IntObjectHashMap<R> transformValues(IntObjectToObjectFunction<? super V, ? extends R> function)
+    {
+        IntObjectHashMap<R> result = new IntObjectHashMap<R>();
+        result.allocateTable(this.keys.length);
+        if (this.containsEmptyKey)
+        {
+            result.put(EMPTY_KEY, function.valueOf(EMPTY_KEY, this.emptyKeyValue));
+        }
+        if (this.containsRemovedKey)
+        {
+            result.put(REMOVED_KEY, function.valueOf(REMOVED_KEY, this.removedKeyValue));
+        }
+        // the result has the same capacity, so each key can be copied into the same slot without probing
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                result.keys[i] = key;
+                result.values[i] = function.valueOf(key, (V) this.values[i]);
+                result.occupiedWithData++;
+            }
+            else if (key == REMOVED_KEY)
+            {
+                result.keys[i] = REMOVED_KEY;
+                result.occupiedWithSentinels++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a live view of the keys of this map as a primitive iterable.
+     */
+    public IntIterable keysView()
+    {
+        return new KeysView();
+    }
+
+    /**
+     * Returns a lazy, unmodifiable view of the values of this map.
+     */
+    public RichIterable<V> valuesView()
+    {
+        return LazyIterate.adapt(this);
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof IntObjectHashMap))
+        {
+            return false;
+        }
+        IntObjectHashMap<?> other = (IntObjectHashMap<?>) object;
+        if (this.size() != other.size())
+        {
+            return false;
+        }
+        if (this.containsEmptyKey && !(other.containsEmptyKey && nullSafeEquals(this.emptyKeyValue, other.emptyKeyValue)))
+        {
+            return false;
+        }
+        if (this.containsRemovedKey && !(other.containsRemovedKey && nullSafeEquals(this.removedKeyValue, other.removedKeyValue)))
+        {
+            return false;
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                int index = other.probe(key);
+                if (other.keys[index] != key || !nullSafeEquals(this.values[i], other.values[index]))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        if (this.containsEmptyKey)
+        {
+            hashCode += this.emptyKeyValue == null ? 0 : this.emptyKeyValue.hashCode();
+        }
+        if (this.containsRemovedKey)
+        {
+            hashCode += 1 ^ (this.removedKeyValue == null ? 0 : this.removedKeyValue.hashCode());
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            int key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                Object value = this.values[i];
+                hashCode += (key) ^ (value == null ? 0 : value.hashCode());
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("{");
+        ValuesIterator positions = new ValuesIterator();
+        while (positions.hasNext())
+        {
+            int position = positions.nextPosition();
+            Object value = this.valueAt(position);
+            builder.append(this.keyAt(position)).append('=').append(value == this ? "(this Map)" : value);
+            if (positions.hasNext())
+            {
+                builder.append(", ");
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size());
+        ValuesIterator positions = new ValuesIterator();
+        while (positions.hasNext())
+        {
+            int position = positions.nextPosition();
+            out.writeInt(this.keyAt(position));
+            out.writeObject(this.valueAt(position));
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        int size = in.readInt();
+        this.allocateTable(smallestPowerOfTwoGreaterThan(size + (size >> 1) + 1));
+        for (int i = 0; i < size; i++)
+        {
+            this.put(in.readInt(), (V) in.readObject());
+        }
+    }
+
+    private abstract class PositionIterator
+    {
+        private final int[] table = IntObjectHashMap.this.keys;
+        private int position = EMPTY_KEY_POSITION;
+        private int lastReturned = Integer.MIN_VALUE;
+
+        public boolean hasNext()
+        {
+            this.checkForComodification();
+            while (this.position < this.table.length && !IntObjectHashMap.this.isOccupied(this.position))
+            {
+                this.position++;
+            }
+            return this.position < this.table.length;
+        }
+
+        protected int nextPosition()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastReturned = this.position;
+            this.position++;
+            return this.lastReturned;
+        }
+
+        public void remove()
+        {
+            if (this.lastReturned == Integer.MIN_VALUE)
+            {
+                throw new IllegalStateException();
+            }
+            this.checkForComodification();
+            IntObjectHashMap.this.removeAt(this.lastReturned);
+            this.lastReturned = Integer.MIN_VALUE;
+        }
+
+        private void checkForComodification()
+        {
+            if (this.table != IntObjectHashMap.this.keys)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private final class ValuesIterator extends PositionIterator implements Iterator<V>
+    {
+        public V next()
+        {
+            return IntObjectHashMap.this.valueAt(this.nextPosition());
+        }
+    }
+
+    private final class KeysIterator extends PositionIterator implements IntIterator
+    {
+        public int next()
+        {
+            return IntObjectHashMap.this.keyAt(this.nextPosition());
+        }
+    }
+
+    private final class KeysView extends AbstractIntIterable
+    {
+        public IntIterator intIterator()
+        {
+            return new KeysIterator();
+        }
+
+        @Override
+        public void forEach(IntProcedure procedure)
+        {
+            IntObjectHashMap.this.forEachKey(procedure);
+        }
+
+        public int size()
+        {
+            return IntObjectHashMap.this.size();
+        }
+
+        @Override
+        public boolean contains(int value)
+        {
+            return IntObjectHashMap.this.containsKey(value);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.webguys.ponzu.api.LazyIterable;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * ObjectIntHashMap is a map from objects to primitive ints.  It is the int-valued counterpart of {@link UnifiedMap},
+ * intended for counting and histogramming, where a UnifiedMap would need a boxed Integer or a mutable counter object
+ * per key.
+ * <p/>
+ * The keys are stored in one array and the values in a parallel int[], using open addressing with linear probing, so
+ * there are no Entry objects and neither a lookup nor an update of an existing key allocates.  A null key is
+ * supported.  Keys which are not present have a value of 0 for {@link #get(Object)} and {@link #addToValue(Object, int)}.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class ObjectIntHashMap<K>
+        implements Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    private static final Object NULL_KEY = new Object()
+    {
+        @Override
+        public int hashCode()
+        {
+            return 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ObjectIntHashMap.NULL_KEY";
+        }
+    };
+
+    private static final Object REMOVED_KEY = new Object()
+    {
+        @Override
+        public String toString()
+        {
+            return "ObjectIntHashMap.REMOVED_KEY";
+        }
+    };
+
+    private Object[] keys;
+    private int[] values;
+    private int occupiedWithData;
+    private int occupiedWithSentinels;
+
+    public ObjectIntHashMap()
+    {
+        this.allocateTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public ObjectIntHashMap(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("initial capacity cannot be less than 0");
+        }
+        this.allocateTable(smallestPowerOfTwoGreaterThan(initialCapacity + (initialCapacity >> 1) + 1));
+    }
+
+    public static <K> ObjectIntHashMap<K> newMap()
+    {
+        return new ObjectIntHashMap<K>();
+    }
+
+    public static <K> ObjectIntHashMap<K> newMap(int initialCapacity)
+    {
+        return new ObjectIntHashMap<K>(initialCapacity);
+    }
+
+    public static <K> ObjectIntHashMap<K> newWithKeysValues(K key, int value)
+    {
+        return new ObjectIntHashMap<K>(1).withKeyValue(key, value);
+    }
+
+    public static <K> ObjectIntHashMap<K> newWithKeysValues(K key1, int value1, K key2, int value2)
+    {
+        return new ObjectIntHashMap<K>(2).withKeyValue(key1, value1).withKeyValue(key2, value2);
+    }
+
+    public static <K> ObjectIntHashMap<K> newWithKeysValues(K key1, int value1, K key2, int value2, K key3, int value3)
+    {
+        return new ObjectIntHashMap<K>(3).withKeyValue(key1, value1).withKeyValue(key2, value2).withKeyValue(key3, value3);
+    }
+
+    private static int smallestPowerOfTwoGreaterThan(int n)
+    {
+        return n > 1 ? Integer.highestOneBit(n - 1) << 1 : 1;
+    }
+
+    private void allocateTable(int sizeToAllocate)
+    {
+        this.keys = new Object[sizeToAllocate];
+        this.values = new int[sizeToAllocate];
+    }
+
+    private int maxOccupiedWithData()
+    {
+        int capacity = this.keys.length;
+        return Math.min(capacity - 1, capacity - (capacity >> 2));
+    }
+
+    private static boolean isNonSentinel(Object key)
+    {
+        return key != null && key != REMOVED_KEY;
+    }
+
+    private static Object toSentinelIfNull(Object key)
+    {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static <K> K toNonSentinel(Object key)
+    {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    // exposed for testing
+    int spreadAndMask(Object key)
+    {
+        // the same spreading function as UnifiedMap, so that hashCodes which differ only by constant multiples at each
+        // bit position have a bounded number of collisions, and small keys keep their natural order
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h = h ^ (h >>> 7) ^ (h >>> 4);
+        return h & (this.keys.length - 1);
+    }
+
+    /**
+     * Returns the index of the slot holding the key, or if it is absent, the index of the first slot the key could be
+     * stored in.  The key must already have been converted with {@link #toSentinelIfNull(Object)}.
+     */
+    private int probe(Object key)
+    {
+        int mask = this.keys.length - 1;
+        int index = this.spreadAndMask(key);
+        int removedIndex = -1;
+        while (true)
+        {
+            Object current = this.keys[index];
+            if (current == null)
+            {
+                return removedIndex == -1 ? index : removedIndex;
+            }
+            if (current == REMOVED_KEY)
+            {
+                if (removedIndex == -1)
+                {
+                    removedIndex = index;
+                }
+            }
+            else if (current == key || current.equals(key))
+            {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehashAndGrow()
+    {
+        int capacity = this.keys.length;
+        // if most of the occupied slots are removed markers, rehashing into the same capacity reclaims them
+        this.rehash(this.occupiedWithData > this.maxOccupiedWithData() >> 1 ? capacity << 1 : capacity);
+    }
+
+    private void rehash(int newCapacity)
+    {
+        Object[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.allocateTable(newCapacity);
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            Object key = oldKeys[i];
+            if (isNonSentinel(key))
+            {
+                int index = this.probe(key);
+                this.keys[index] = key;
+                this.values[index] = oldValues[i];
+                this.occupiedWithData++;
+            }
+        }
+    }
+
+    private void addKeyValueAtIndex(Object key, int value, int index)
+    {
+        if (this.keys[index] == REMOVED_KEY)
+        {
+            this.occupiedWithSentinels--;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.occupiedWithData++;
+        if (this.occupiedWithData + this.occupiedWithSentinels > this.maxOccupiedWithData())
+        {
+            this.rehashAndGrow();
+        }
+    }
+
+    private void removeKeyAtIndex(int index)
+    {
+        this.keys[index] = REMOVED_KEY;
+        this.values[index] = 0;
+        this.occupiedWithData--;
+        this.occupiedWithSentinels++;
+    }
+
+    public void put(K key, int value)
+    {
+        Object sentinelKey = toSentinelIfNull(key);
+        int index = this.probe(sentinelKey);
+        if (isNonSentinel(this.keys[index]))
+        {
+            this.values[index] = value;
+            return;
+        }
+        this.addKeyValueAtIndex(sentinelKey, value, index);
+    }
+
+    public ObjectIntHashMap<K> withKeyValue(K key, int value)
+    {
+        this.put(key, value);
+        return this;
+    }
+
+    /**
+     * Returns the value mapped to the key, or 0 if there is no mapping for the key.
+     */
+    public int get(Object key)
+    {
+        return this.getIfAbsent(key, 0);
+    }
+
+    public int getIfAbsent(Object key, int ifAbsent)
+    {
+        int index = this.probe(toSentinelIfNull(key));
+        return isNonSentinel(this.keys[index]) ? this.values[index] : ifAbsent;
+    }
+
+    /**
+     * Returns the value mapped to the key, first putting the specified value if there is no mapping for the key.
+     */
+    public int getIfAbsentPut(K key, int value)
+    {
+        Object sentinelKey = toSentinelIfNull(key);
+        int index = this.probe(sentinelKey);
+        if (isNonSentinel(this.keys[index]))
+        {
+            return this.values[index];
+        }
+        this.addKeyValueAtIndex(sentinelKey, value, index);
+        return value;
+    }
+
+    /**
+     * Adds the specified amount to the value mapped to the key, treating a missing mapping as 0, and returns the
+     * updated value.  This is a single probe of the table, unlike a get followed by a put.
+     */
+    public int addToValue(K key, int toBeAdded)
+    {
+        Object sentinelKey = toSentinelIfNull(key);
+        int index = this.probe(sentinelKey);
+        if (isNonSentinel(this.keys[index]))
+        {
+            this.values[index] += toBeAdded;
+            return this.values[index];
+        }
+        this.addKeyValueAtIndex(sentinelKey, toBeAdded, index);
+        return toBeAdded;
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return isNonSentinel(this.keys[this.probe(toSentinelIfNull(key))]);
+    }
+
+    public boolean containsValue(int value)
+    {
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (isNonSentinel(this.keys[i]) && this.values[i] == value)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void removeKey(Object key)
+    {
+        int index = this.probe(toSentinelIfNull(key));
+        if (isNonSentinel(this.keys[index]))
+        {
+            this.removeKeyAtIndex(index);
+        }
+    }
+
+    /**
+     * Removes the mapping for the key and returns the value it was mapped to, or returns the specified value if there
+     * was no mapping for the key.
+     */
+    public int removeKeyIfAbsent(Object key, int value)
+    {
+        int index = this.probe(toSentinelIfNull(key));
+        if (isNonSentinel(this.keys[index]))
+        {
+            int oldValue = this.values[index];
+            this.removeKeyAtIndex(index);
+            return oldValue;
+        }
+        return value;
+    }
+
+    public void clear()
+    {
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, 0);
+    }
+
+    public int size()
+    {
+        return this.occupiedWithData;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.occupiedWithData == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.occupiedWithData != 0;
+    }
+
+    public void forEachKeyValue(ObjectIntProcedure<? super K> procedure)
+    {
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (isNonSentinel(this.keys[i]))
+            {
+                procedure.value(ObjectIntHashMap.<K>toNonSentinel(this.keys[i]), this.values[i]);
+            }
+        }
+    }
+
+    public void forEachKey(Procedure<? super K> procedure)
+    {
+        for (Object key : this.keys)
+        {
+            if (isNonSentinel(key))
+            {
+                procedure.value(ObjectIntHashMap.<K>toNonSentinel(key));
+            }
+        }
+    }
+
+    public void forEachValue(IntProcedure procedure)
+    {
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (isNonSentinel(this.keys[i]))
+            {
+                procedure.value(this.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a set view of the keys.  The set supports removal, which removes the corresponding mapping from this map,
+     * but not addition.
+     */
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    /**
+     * Returns a lazy, unmodifiable view of the mappings as pairs.
+     */
+    public LazyIterable<Pair<K, Integer>> keyValuesView()
+    {
+        return LazyIterate.adapt(new Iterable<Pair<K, Integer>>()
+        {
+            public Iterator<Pair<K, Integer>> iterator()
+            {
+                return new KeyValuesIterator();
+            }
+        });
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof ObjectIntHashMap))
+        {
+            return false;
+        }
+        ObjectIntHashMap<?> other = (ObjectIntHashMap<?>) object;
+        if (this.size() != other.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            Object key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                int index = other.probe(key);
+                if (!isNonSentinel(other.keys[index]) || other.values[index] != this.values[i])
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            Object key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                hashCode += (key == NULL_KEY ? 0 : key.hashCode()) ^ this.values[i];
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("{");
+        boolean first = true;
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            Object key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                if (!first)
+                {
+                    builder.append(", ");
+                }
+                builder.append(key == NULL_KEY ? null : key == this ? "(this Map)" : key).append('=').append(this.values[i]);
+                first = false;
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size());
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            Object key = this.keys[i];
+            if (isNonSentinel(key))
+            {
+                out.writeObject(toNonSentinel(key));
+                out.writeInt(this.values[i]);
+            }
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        int size = in.readInt();
+        this.allocateTable(smallestPowerOfTwoGreaterThan(size + (size >> 1) + 1));
+        for (int i = 0; i < size; i++)
+        {
+            this.put((K) in.readObject(), in.readInt());
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return new KeySetIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ObjectIntHashMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return ObjectIntHashMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            int oldSize = ObjectIntHashMap.this.size();
+            ObjectIntHashMap.this.removeKey(key);
+            return ObjectIntHashMap.this.size() != oldSize;
+        }
+
+        @Override
+        public void clear()
+        {
+            ObjectIntHashMap.this.clear();
+        }
+    }
+
+    private final class KeySetIterator extends TableIterator<K>
+    {
+        @Override
+        protected K valueAt(int index)
+        {
+            return ObjectIntHashMap.<K>toNonSentinel(this.table[index]);
+        }
+    }
+
+    private final class KeyValuesIterator extends TableIterator<Pair<K, Integer>>
+    {
+        @Override
+        protected Pair<K, Integer> valueAt(int index)
+        {
+            return Tuples.pair(ObjectIntHashMap.<K>toNonSentinel(this.table[index]), ObjectIntHashMap.this.values[index]);
+        }
+    }
+
+    private abstract class TableIterator<T> implements Iterator<T>
+    {
+        protected final Object[] table = ObjectIntHashMap.this.keys;
+        private int position;
+        private int lastReturned = -1;
+
+        public boolean hasNext()
+        {
+            this.checkForComodification();
+            while (this.position < this.table.length && !isNonSentinel(this.table[this.position]))
+            {
+                this.position++;
+            }
+            return this.position < this.table.length;
+        }
+
+        protected abstract T valueAt(int index);
+
+        public T next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastReturned = this.position;
+            this.position++;
+            return this.valueAt(this.lastReturned);
+        }
+
+        public void remove()
+        {
+            if (this.lastReturned == -1)
+            {
+                throw new IllegalStateException();
+            }
+            this.checkForComodification();
+            ObjectIntHashMap.this.removeKeyAtIndex(this.lastReturned);
+            this.lastReturned = -1;
+        }
+
+        private void checkForComodification()
+        {
+            if (this.table != ObjectIntHashMap.this.keys)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,904 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.sorted.immutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.sorted.ImmutableSortedMap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableSortedMap stored as a persistent weight-balanced binary tree.  Every node keeps the size of its subtree,
+ * and the tree is kept in balance by requiring that neither child of a node is more than {@link #DELTA} times the
+ * size of the other, which bounds the height at about 2.4 log2 n.
+ * <p/>
+ * newWithKeyValue and newWithoutKey copy only the nodes on the path to the key and share everything else with the
+ * original map, so a point update costs O(log n) in both time and allocation.  headMap, tailMap and subMap split the
+ * tree along the path to each bound, joining the subtrees hanging off that path back together, so they return a map
+ * of their own in O(log n) rather than a view which filters the original.
+ * <p/>
+ * Iteration walks the tree in order with a stack of the nodes still to be visited, and allocates nothing per entry.
+ * A map built by {@link #newMap(SortedMap)} is perfectly balanced, with its nodes allocated in key order.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableBalancedTreeMap<K, V>
+        extends AbstractImmutableSortedMap<K, V>
+        implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The most by which the size of one child of a node may exceed the size of the other.
+     */
+    private static final int DELTA = 3;
+
+    /**
+     * Decides between a single and a double rotation when rebalancing.
+     */
+    private static final int RATIO = 2;
+
+    private static final ImmutableBalancedTreeMap<?, ?> EMPTY = new ImmutableBalancedTreeMap<Object, Object>(null, null);
+
+    private final Comparator<? super K> comparator;
+    private final Node root;
+
+    private ImmutableBalancedTreeMap(Comparator<? super K> comparator, Node root)
+    {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    static <K, V> ImmutableBalancedTreeMap<K, V> empty()
+    {
+        return (ImmutableBalancedTreeMap<K, V>) EMPTY;
+    }
+
+    static <K, V> ImmutableBalancedTreeMap<K, V> empty(Comparator<? super K> comparator)
+    {
+        if (comparator == null)
+        {
+            return ImmutableBalancedTreeMap.empty();
+        }
+        return new ImmutableBalancedTreeMap<K, V>(comparator, null);
+    }
+
+    /**
+     * Builds the tree directly from the entries of the sorted map, which are already in order, without comparing any
+     * keys.
+     */
+    static <K, V> ImmutableBalancedTreeMap<K, V> newMap(SortedMap<K, ? extends V> map)
+    {
+        if (map instanceof ImmutableBalancedTreeMap)
+        {
+            return (ImmutableBalancedTreeMap<K, V>) map;
+        }
+        Object[] keys = new Object[map.size()];
+        Object[] values = new Object[map.size()];
+        int index = 0;
+        for (Map.Entry<K, ? extends V> entry : map.entrySet())
+        {
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+            index++;
+        }
+        return new ImmutableBalancedTreeMap<K, V>(map.comparator(), buildFromSorted(keys, values, 0, index));
+    }
+
+    private static Node buildFromSorted(Object[] keys, Object[] values, int from, int to)
+    {
+        if (from == to)
+        {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node left = buildFromSorted(keys, values, from, middle);
+        Node right = buildFromSorted(keys, values, middle + 1, to);
+        return new Node(keys[middle], values[middle], left, right);
+    }
+
+    private ImmutableBalancedTreeMap<K, V> withRoot(Node newRoot)
+    {
+        if (newRoot == this.root)
+        {
+            return this;
+        }
+        if (newRoot == null)
+        {
+            return ImmutableBalancedTreeMap.empty(this.comparator);
+        }
+        return new ImmutableBalancedTreeMap<K, V>(this.comparator, newRoot);
+    }
+
+    private int compare(Object key1, Object key2)
+    {
+        if (this.comparator == null)
+        {
+            return ((Comparable<Object>) key1).compareTo(key2);
+        }
+        return ((Comparator<Object>) this.comparator).compare(key1, key2);
+    }
+
+    private Node find(Object key)
+    {
+        if (this.comparator == null && key == null)
+        {
+            throw new NullPointerException("This map uses natural ordering and does not allow null keys");
+        }
+        Node node = this.root;
+        while (node != null)
+        {
+            int result = this.compare(key, node.key);
+            if (result == 0)
+            {
+                return node;
+            }
+            node = result < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public int size()
+    {
+        return size(this.root);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.root == null;
+    }
+
+    @Override
+    public boolean notEmpty()
+    {
+        return this.root != null;
+    }
+
+    public Comparator<? super K> comparator()
+    {
+        return this.comparator;
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return this.find(key) != null;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        for (Iterator<V> iterator = this.valuesView().iterator(); iterator.hasNext(); )
+        {
+            V each = iterator.next();
+            if (each == value || each != null && each.equals(value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(Object key)
+    {
+        Node node = this.find(key);
+        return node == null ? null : (V) node.value;
+    }
+
+    public K firstKey()
+    {
+        if (this.root == null)
+        {
+            throw new NoSuchElementException();
+        }
+        Node node = this.root;
+        while (node.left != null)
+        {
+            node = node.left;
+        }
+        return (K) node.key;
+    }
+
+    public K lastKey()
+    {
+        if (this.root == null)
+        {
+            throw new NoSuchElementException();
+        }
+        Node node = this.root;
+        while (node.right != null)
+        {
+            node = node.right;
+        }
+        return (K) node.key;
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithKeyValue(K key, V value)
+    {
+        return this.withRoot(this.insert(this.root, key, value));
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithAllKeyValues(Iterable<? extends Pair<? extends K, ? extends V>> keyValues)
+    {
+        Node newRoot = this.root;
+        for (Pair<? extends K, ? extends V> pair : keyValues)
+        {
+            newRoot = this.insert(newRoot, pair.getOne(), pair.getTwo());
+        }
+        return this.withRoot(newRoot);
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithAllKeyValueArguments(Pair<? extends K, ? extends V>... keyValuePairs)
+    {
+        return this.newWithAllKeyValues(Arrays.asList(keyValuePairs));
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithoutKey(K key)
+    {
+        return this.withRoot(this.remove(this.root, key));
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithoutAllKeys(Iterable<? extends K> keys)
+    {
+        Node newRoot = this.root;
+        for (K key : keys)
+        {
+            newRoot = this.remove(newRoot, key);
+        }
+        return this.withRoot(newRoot);
+    }
+
+    /**
+     * Maps the values of each node in place of the original, keeping the shape of the tree, so no keys are compared.
+     */
+    @Override
+    public <R> ImmutableSortedMap<K, R> transformValues(Function2<? super K, ? super V, ? extends R> function)
+    {
+        return new ImmutableBalancedTreeMap<K, R>(
+                this.comparator,
+                transformValues(this.root, (Function2<Object, Object, Object>) function));
+    }
+
+    private static Node transformValues(Node node, Function2<Object, Object, Object> function)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        Node left = transformValues(node.left, function);
+        Object value = function.value(node.key, node.value);
+        Node right = transformValues(node.right, function);
+        return new Node(node.key, value, left, right, node.size);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey)
+    {
+        return this.withRoot(this.lessThan(this.root, toKey));
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey)
+    {
+        return this.withRoot(this.atLeast(this.root, fromKey));
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey)
+    {
+        if (this.compare(fromKey, toKey) > 0)
+        {
+            throw new IllegalArgumentException("fromKey(" + fromKey + ") > toKey(" + toKey + ')');
+        }
+        return this.withRoot(this.lessThan(this.atLeast(this.root, fromKey), toKey));
+    }
+
+    private Node insert(Node node, Object key, Object value)
+    {
+        if (node == null)
+        {
+            if (this.comparator == null && key == null)
+            {
+                throw new NullPointerException("This map uses natural ordering and does not allow null keys");
+            }
+            return new Node(key, value, null, null);
+        }
+        int result = this.compare(key, node.key);
+        if (result < 0)
+        {
+            Node left = this.insert(node.left, key, value);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (result > 0)
+        {
+            Node right = this.insert(node.right, key, value);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.value == value)
+        {
+            return node;
+        }
+        return new Node(node.key, value, node.left, node.right, node.size);
+    }
+
+    private Node remove(Node node, Object key)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        int result = this.compare(key, node.key);
+        if (result < 0)
+        {
+            Node left = this.remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (result > 0)
+        {
+            Node right = this.remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        return glue(node.left, node.right);
+    }
+
+    /**
+     * Returns the tree of the entries whose keys are less than the key.
+     */
+    private Node lessThan(Node node, Object key)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        int result = this.compare(key, node.key);
+        if (result < 0)
+        {
+            return this.lessThan(node.left, key);
+        }
+        if (result > 0)
+        {
+            Node right = this.lessThan(node.right, key);
+            return right == node.right ? node : link(node.key, node.value, node.left, right);
+        }
+        return node.left;
+    }
+
+    /**
+     * Returns the tree of the entries whose keys are greater than or equal to the key.
+     */
+    private Node atLeast(Node node, Object key)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        int result = this.compare(key, node.key);
+        if (result < 0)
+        {
+            Node left = this.atLeast(node.left, key);
+            return left == node.left ? node : link(node.key, node.value, left, node.right);
+        }
+        if (result > 0)
+        {
+            return this.atLeast(node.right, key);
+        }
+        return node.left == null ? node : insertMin(node.key, node.value, node.right);
+    }
+
+    private static int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Creates a node over two subtrees which were in balance until one of them gained or lost a single entry.
+     */
+    private static Node balance(Object key, Object value, Node left, Node right)
+    {
+        int leftSize = size(left);
+        int rightSize = size(right);
+        if (leftSize + rightSize > 1)
+        {
+            if (rightSize > DELTA * leftSize)
+            {
+                return rotateLeft(key, value, left, right);
+            }
+            if (leftSize > DELTA * rightSize)
+            {
+                return rotateRight(key, value, left, right);
+            }
+        }
+        return new Node(key, value, left, right);
+    }
+
+    private static Node rotateLeft(Object key, Object value, Node left, Node right)
+    {
+        Node middle = right.left;
+        if (size(middle) < RATIO * size(right.right))
+        {
+            return new Node(right.key, right.value, new Node(key, value, left, middle), right.right);
+        }
+        return new Node(
+                middle.key,
+                middle.value,
+                new Node(key, value, left, middle.left),
+                new Node(right.key, right.value, middle.right, right.right));
+    }
+
+    private static Node rotateRight(Object key, Object value, Node left, Node right)
+    {
+        Node middle = left.right;
+        if (size(middle) < RATIO * size(left.left))
+        {
+            return new Node(left.key, left.value, left.left, new Node(key, value, middle, right));
+        }
+        return new Node(
+                middle.key,
+                middle.value,
+                new Node(left.key, left.value, left.left, middle.left),
+                new Node(key, value, middle.right, right));
+    }
+
+    /**
+     * Joins two trees of any sizes, all of whose keys are ordered left, key, right, descending the larger tree until
+     * the two sides are in balance.
+     */
+    private static Node link(Object key, Object value, Node left, Node right)
+    {
+        if (left == null)
+        {
+            return insertMin(key, value, right);
+        }
+        if (right == null)
+        {
+            return insertMax(key, value, left);
+        }
+        if (DELTA * left.size < right.size)
+        {
+            return balance(right.key, right.value, link(key, value, left, right.left), right.right);
+        }
+        if (DELTA * right.size < left.size)
+        {
+            return balance(left.key, left.value, left.left, link(key, value, left.right, right));
+        }
+        return new Node(key, value, left, right);
+    }
+
+    private static Node insertMin(Object key, Object value, Node node)
+    {
+        if (node == null)
+        {
+            return new Node(key, value, null, null);
+        }
+        return balance(node.key, node.value, insertMin(key, value, node.left), node.right);
+    }
+
+    private static Node insertMax(Object key, Object value, Node node)
+    {
+        if (node == null)
+        {
+            return new Node(key, value, null, null);
+        }
+        return balance(node.key, node.value, node.left, insertMax(key, value, node.right));
+    }
+
+    /**
+     * Joins the two children of a removed node, which are in balance with each other, by moving the nearest entry up
+     * from the larger one.
+     */
+    private static Node glue(Node left, Node right)
+    {
+        if (left == null)
+        {
+            return right;
+        }
+        if (right == null)
+        {
+            return left;
+        }
+        if (left.size > right.size)
+        {
+            Node max = left;
+            while (max.right != null)
+            {
+                max = max.right;
+            }
+            return balance(max.key, max.value, removeMax(left), right);
+        }
+        Node min = right;
+        while (min.left != null)
+        {
+            min = min.left;
+        }
+        return balance(min.key, min.value, left, removeMin(right));
+    }
+
+    private static Node removeMin(Node node)
+    {
+        if (node.left == null)
+        {
+            return node.right;
+        }
+        return balance(node.key, node.value, removeMin(node.left), node.right);
+    }
+
+    private static Node removeMax(Node node)
+    {
+        if (node.right == null)
+        {
+            return node.left;
+        }
+        return balance(node.key, node.value, node.left, removeMax(node.right));
+    }
+
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        forEachKeyValue(this.root, (Procedure2<Object, Object>) procedure);
+    }
+
+    private static void forEachKeyValue(Node node, Procedure2<Object, Object> procedure)
+    {
+        while (node != null)
+        {
+            forEachKeyValue(node.left, procedure);
+            procedure.value(node.key, node.value);
+            node = node.right;
+        }
+    }
+
+    @Override
+    public void forEachKey(final Procedure<? super K> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(key);
+            }
+        });
+    }
+
+    @Override
+    public void forEachValue(final Procedure<? super V> procedure)
+    {
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                procedure.value(value);
+            }
+        });
+    }
+
+    public RichIterable<K> keysView()
+    {
+        return LazyIterate.adapt(new Iterable<K>()
+        {
+            public Iterator<K> iterator()
+            {
+                return new TreeIterator<K>(ImmutableBalancedTreeMap.this.root)
+                {
+                    @Override
+                    protected K valueOf(Node node)
+                    {
+                        return (K) node.key;
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<V> valuesView()
+    {
+        return LazyIterate.adapt(new Iterable<V>()
+        {
+            public Iterator<V> iterator()
+            {
+                return new TreeIterator<V>(ImmutableBalancedTreeMap.this.root)
+                {
+                    @Override
+                    protected V valueOf(Node node)
+                    {
+                        return (V) node.value;
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<Pair<K, V>> keyValuesView()
+    {
+        return LazyIterate.adapt(new Iterable<Pair<K, V>>()
+        {
+            public Iterator<Pair<K, V>> iterator()
+            {
+                return new TreeIterator<Pair<K, V>>(ImmutableBalancedTreeMap.this.root)
+                {
+                    @Override
+                    protected Pair<K, V> valueOf(Node node)
+                    {
+                        return Tuples.pair((K) node.key, (V) node.value);
+                    }
+                };
+            }
+        });
+    }
+
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    public Collection<V> values()
+    {
+        return this.valuesView().toList().toImmutable().castToList();
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        if (!(other instanceof Map))
+        {
+            return false;
+        }
+        Map<K, V> that = (Map<K, V>) other;
+        if (that.size() != this.size())
+        {
+            return false;
+        }
+        for (Iterator<Pair<K, V>> iterator = this.keyValuesView().iterator(); iterator.hasNext(); )
+        {
+            Pair<K, V> pair = iterator.next();
+            if (!this.keyAndValueEquals(pair.getOne(), pair.getTwo(), that))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int[] result = new int[1];
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                result[0] += ImmutableBalancedTreeMap.this.keyAndValueHashCode(key, value);
+            }
+        });
+        return result[0];
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("{");
+        this.forEachKeyValue(new Procedure2<K, V>()
+        {
+            public void value(K key, V value)
+            {
+                if (builder.length() > 1)
+                {
+                    builder.append(", ");
+                }
+                builder.append(key).append('=').append(value);
+            }
+        });
+        return builder.append('}').toString();
+    }
+
+    private Object writeReplace()
+    {
+        return new BalancedTreeMapSerializationProxy<K, V>(this);
+    }
+
+    private static final class Node
+    {
+        private final Object key;
+        private final Object value;
+        private final Node left;
+        private final Node right;
+        private final int size;
+
+        private Node(Object key, Object value, Node left, Node right)
+        {
+            this(key, value, left, right, size(left) + size(right) + 1);
+        }
+
+        private Node(Object key, Object value, Node left, Node right, int size)
+        {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Walks the tree in order, keeping the nodes whose left subtrees are being visited on a stack.
+     */
+    private abstract static class TreeIterator<R> implements Iterator<R>
+    {
+        private Node[] stack = new Node[16];
+        private int depth;
+
+        private TreeIterator(Node root)
+        {
+            this.pushLeftEdge(root);
+        }
+
+        private void pushLeftEdge(Node node)
+        {
+            while (node != null)
+            {
+                if (this.depth == this.stack.length)
+                {
+                    this.stack = Arrays.copyOf(this.stack, this.depth << 1);
+                }
+                this.stack[this.depth++] = node;
+                node = node.left;
+            }
+        }
+
+        protected abstract R valueOf(Node node);
+
+        public boolean hasNext()
+        {
+            return this.depth > 0;
+        }
+
+        public R next()
+        {
+            if (this.depth == 0)
+            {
+                throw new NoSuchElementException();
+            }
+            Node node = this.stack[--this.depth];
+            this.stack[this.depth] = null;
+            this.pushLeftEdge(node.right);
+            return this.valueOf(node);
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Cannot remove from an ImmutableSortedMap");
+        }
+    }
+
+    /**
+     * Presents the keys in order, looking them up in the tree rather than copying them.
+     */
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return ImmutableBalancedTreeMap.this.keysView().iterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ImmutableBalancedTreeMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return ImmutableBalancedTreeMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            throw new UnsupportedOperationException("Cannot remove from an ImmutableSortedMap");
+        }
+
+        @Override
+        public void clear()
+        {
+            throw new UnsupportedOperationException("Cannot clear an ImmutableSortedMap");
+        }
+    }
+
+    /**
+     * Writes the comparator and the entries in order, from which the reading side builds a balanced tree without
+     * comparing keys.
+     */
+    private static class BalancedTreeMapSerializationProxy<K, V> implements Externalizable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ImmutableBalancedTreeMap<K, V> map;
+
+        @SuppressWarnings("UnusedDeclaration")
+        public BalancedTreeMapSerializationProxy()
+        {
+            // For Externalizable use only
+        }
+
+        private BalancedTreeMapSerializationProxy(ImmutableBalancedTreeMap<K, V> map)
+        {
+            this.map = map;
+        }
+
+        public void writeExternal(final ObjectOutput out) throws IOException
+        {
+            out.writeObject(this.map.comparator());
+            out.writeInt(this.map.size());
+            for (Iterator<Pair<K, V>> iterator = this.map.keyValuesView().iterator(); iterator.hasNext(); )
+            {
+                Pair<K, V> pair = iterator.next();
+                out.writeObject(pair.getOne());
+                out.writeObject(pair.getTwo());
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+        {
+            Comparator<? super K> comparator = (Comparator<? super K>) in.readObject();
+            int size = in.readInt();
+            Object[] keys = new Object[size];
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++)
+            {
+                keys[i] = in.readObject();
+                values[i] = in.readObject();
+            }
+            this.map = size == 0
+                    ? ImmutableBalancedTreeMap.<K, V>empty(comparator)
+                    : new ImmutableBalancedTreeMap<K, V>(comparator, buildFromSorted(keys, values, 0, size));
+        }
+
+        protected Object readResolve()
+        {
+            return this.map;
+        }
+    }
+}
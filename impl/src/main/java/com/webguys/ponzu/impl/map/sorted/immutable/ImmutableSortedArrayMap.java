@@ -0,0 +1,543 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.sorted.immutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.sorted.ImmutableSortedMap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableSortedMap which keeps its keys in one sorted array and its values at the same indices in another.  get
+ * and containsKey are a binary search over the keys, firstKey and lastKey are O(1), and iteration walks the arrays
+ * with no per-entry allocation.  This is the map created by SortedMaps.immutable and by toImmutable on a sorted map.
+ * <p/>
+ * headMap, tailMap and subMap find their bounds by binary search and return a map over a range of the same arrays, so
+ * they cost O(log n) and never copy.  Such a map keeps the whole arrays reachable, and serializes only its own range.
+ * newWithKeyValue and newWithoutKey copy the arrays, so a map which changes often is better held in the persistent
+ * tree returned by SortedMaps.immutable.ofPersistent.
+ *
+ * @since 1.3
+ */
+@Immutable
+public final class ImmutableSortedArrayMap<K, V>
+        extends AbstractImmutableSortedMap<K, V>
+        implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Comparator<? super K> comparator;
+    private final Object[] keys;
+    private final Object[] values;
+    private final int from;
+    private final int to;
+
+    private ImmutableSortedArrayMap(Comparator<? super K> comparator, Object[] keys, Object[] values, int from, int to)
+    {
+        this.comparator = comparator;
+        this.keys = keys;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Copies the entries of the sorted map, which are already in order, without comparing any keys.
+     */
+    public static <K, V> ImmutableSortedMap<K, V> newMap(SortedMap<K, ? extends V> map)
+    {
+        if (map.isEmpty())
+        {
+            return ImmutableSortedArrayMap.empty(map.comparator());
+        }
+        Object[] keys = new Object[map.size()];
+        Object[] values = new Object[map.size()];
+        int index = 0;
+        for (Map.Entry<K, ? extends V> entry : map.entrySet())
+        {
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+            index++;
+        }
+        return new ImmutableSortedArrayMap<K, V>(map.comparator(), keys, values, 0, index);
+    }
+
+    private static <K, V> ImmutableSortedMap<K, V> empty(Comparator<? super K> comparator)
+    {
+        if (comparator == null)
+        {
+            return (ImmutableSortedMap<K, V>) ImmutableEmptySortedMap.INSTANCE;
+        }
+        return new ImmutableEmptySortedMap<K, V>(comparator);
+    }
+
+    private int compare(Object key1, Object key2)
+    {
+        if (this.comparator == null)
+        {
+            return ((Comparable<Object>) key1).compareTo(key2);
+        }
+        return ((Comparator<Object>) this.comparator).compare(key1, key2);
+    }
+
+    private int indexOf(Object key)
+    {
+        return Arrays.binarySearch(this.keys, this.from, this.to, key, (Comparator<Object>) this.comparator);
+    }
+
+    /**
+     * Returns the index of the first key which is not less than the key.
+     */
+    private int lowerBound(Object key)
+    {
+        int index = this.indexOf(key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private ImmutableSortedMap<K, V> range(int newFrom, int newTo)
+    {
+        if (newFrom >= newTo)
+        {
+            return ImmutableSortedArrayMap.empty(this.comparator);
+        }
+        if (newFrom == this.from && newTo == this.to)
+        {
+            return this;
+        }
+        return new ImmutableSortedArrayMap<K, V>(this.comparator, this.keys, this.values, newFrom, newTo);
+    }
+
+    public int size()
+    {
+        return this.to - this.from;
+    }
+
+    public Comparator<? super K> comparator()
+    {
+        return this.comparator;
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return this.indexOf(key) >= 0;
+    }
+
+    public boolean containsValue(Object value)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            Object each = this.values[i];
+            if (each == value || each != null && each.equals(value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(Object key)
+    {
+        int index = this.indexOf(key);
+        return index >= 0 ? (V) this.values[index] : null;
+    }
+
+    public K firstKey()
+    {
+        return (K) this.keys[this.from];
+    }
+
+    public K lastKey()
+    {
+        return (K) this.keys[this.to - 1];
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithKeyValue(K key, V value)
+    {
+        int index = this.indexOf(key);
+        int size = this.size();
+        if (index >= 0)
+        {
+            if (this.values[index] == value)
+            {
+                return this;
+            }
+            Object[] newValues = new Object[size];
+            System.arraycopy(this.values, this.from, newValues, 0, size);
+            newValues[index - this.from] = value;
+            return new ImmutableSortedArrayMap<K, V>(
+                    this.comparator,
+                    Arrays.copyOfRange(this.keys, this.from, this.to),
+                    newValues,
+                    0,
+                    size);
+        }
+        int insertion = -index - 1 - this.from;
+        Object[] newKeys = new Object[size + 1];
+        Object[] newValues = new Object[size + 1];
+        System.arraycopy(this.keys, this.from, newKeys, 0, insertion);
+        System.arraycopy(this.values, this.from, newValues, 0, insertion);
+        newKeys[insertion] = key;
+        newValues[insertion] = value;
+        System.arraycopy(this.keys, this.from + insertion, newKeys, insertion + 1, size - insertion);
+        System.arraycopy(this.values, this.from + insertion, newValues, insertion + 1, size - insertion);
+        return new ImmutableSortedArrayMap<K, V>(this.comparator, newKeys, newValues, 0, size + 1);
+    }
+
+    @Override
+    public ImmutableSortedMap<K, V> newWithoutKey(K key)
+    {
+        int index = this.indexOf(key);
+        if (index < 0)
+        {
+            return this;
+        }
+        if (index == this.from)
+        {
+            return this.range(this.from + 1, this.to);
+        }
+        if (index == this.to - 1)
+        {
+            return this.range(this.from, this.to - 1);
+        }
+        int removal = index - this.from;
+        int size = this.size() - 1;
+        Object[] newKeys = new Object[size];
+        Object[] newValues = new Object[size];
+        System.arraycopy(this.keys, this.from, newKeys, 0, removal);
+        System.arraycopy(this.values, this.from, newValues, 0, removal);
+        System.arraycopy(this.keys, index + 1, newKeys, removal, size - removal);
+        System.arraycopy(this.values, index + 1, newValues, removal, size - removal);
+        return new ImmutableSortedArrayMap<K, V>(this.comparator, newKeys, newValues, 0, size);
+    }
+
+    /**
+     * Maps the values into a new array beside the same keys, so no keys are compared.  The key array is shared unless
+     * this map covers only part of it.
+     */
+    @Override
+    public <R> ImmutableSortedMap<K, R> transformValues(Function2<? super K, ? super V, ? extends R> function)
+    {
+        int size = this.size();
+        Object[] newKeys = size == this.keys.length ? this.keys : Arrays.copyOfRange(this.keys, this.from, this.to);
+        Object[] newValues = new Object[size];
+        for (int i = this.from; i < this.to; i++)
+        {
+            newValues[i - this.from] = function.value((K) this.keys[i], (V) this.values[i]);
+        }
+        return new ImmutableSortedArrayMap<K, R>(this.comparator, newKeys, newValues, 0, size);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey)
+    {
+        return (SortedMap<K, V>) this.range(this.from, this.lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey)
+    {
+        return (SortedMap<K, V>) this.range(this.lowerBound(fromKey), this.to);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey)
+    {
+        if (this.compare(fromKey, toKey) > 0)
+        {
+            throw new IllegalArgumentException("fromKey(" + fromKey + ") > toKey(" + toKey + ')');
+        }
+        return (SortedMap<K, V>) this.range(this.lowerBound(fromKey), this.lowerBound(toKey));
+    }
+
+    public void forEachKeyValue(Procedure2<? super K, ? super V> procedure)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            procedure.value((K) this.keys[i], (V) this.values[i]);
+        }
+    }
+
+    @Override
+    public void forEachKey(Procedure<? super K> procedure)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            procedure.value((K) this.keys[i]);
+        }
+    }
+
+    @Override
+    public void forEachValue(Procedure<? super V> procedure)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            procedure.value((V) this.values[i]);
+        }
+    }
+
+    public RichIterable<K> keysView()
+    {
+        return LazyIterate.adapt(new Iterable<K>()
+        {
+            public Iterator<K> iterator()
+            {
+                return new RangeIterator<K>()
+                {
+                    @Override
+                    protected K valueOf(int index)
+                    {
+                        return (K) ImmutableSortedArrayMap.this.keys[index];
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<V> valuesView()
+    {
+        return LazyIterate.adapt(new Iterable<V>()
+        {
+            public Iterator<V> iterator()
+            {
+                return new RangeIterator<V>()
+                {
+                    @Override
+                    protected V valueOf(int index)
+                    {
+                        return (V) ImmutableSortedArrayMap.this.values[index];
+                    }
+                };
+            }
+        });
+    }
+
+    public RichIterable<Pair<K, V>> keyValuesView()
+    {
+        return LazyIterate.adapt(new Iterable<Pair<K, V>>()
+        {
+            public Iterator<Pair<K, V>> iterator()
+            {
+                return new RangeIterator<Pair<K, V>>()
+                {
+                    @Override
+                    protected Pair<K, V> valueOf(int index)
+                    {
+                        return Tuples.pair((K) ImmutableSortedArrayMap.this.keys[index], (V) ImmutableSortedArrayMap.this.values[index]);
+                    }
+                };
+            }
+        });
+    }
+
+    public Set<K> keySet()
+    {
+        return new KeySet();
+    }
+
+    public Collection<V> values()
+    {
+        return this.valuesView().toList().toImmutable().castToList();
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        if (!(other instanceof Map))
+        {
+            return false;
+        }
+        Map<K, V> that = (Map<K, V>) other;
+        if (that.size() != this.size())
+        {
+            return false;
+        }
+        for (int i = this.from; i < this.to; i++)
+        {
+            if (!this.keyAndValueEquals((K) this.keys[i], (V) this.values[i], that))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 0;
+        for (int i = this.from; i < this.to; i++)
+        {
+            result += this.keyAndValueHashCode((K) this.keys[i], (V) this.values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = this.from; i < this.to; i++)
+        {
+            if (i > this.from)
+            {
+                builder.append(", ");
+            }
+            builder.append(this.keys[i]).append('=').append(this.values[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private Object writeReplace()
+    {
+        return new SortedArrayMapSerializationProxy<K, V>(this);
+    }
+
+    private abstract class RangeIterator<R> implements Iterator<R>
+    {
+        private int index = ImmutableSortedArrayMap.this.from;
+
+        protected abstract R valueOf(int index);
+
+        public boolean hasNext()
+        {
+            return this.index < ImmutableSortedArrayMap.this.to;
+        }
+
+        public R next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return this.valueOf(this.index++);
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Cannot remove from an ImmutableSortedMap");
+        }
+    }
+
+    /**
+     * Presents the keys in order, searching the key array rather than copying it.
+     */
+    private final class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return ImmutableSortedArrayMap.this.keysView().iterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return ImmutableSortedArrayMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object key)
+        {
+            return ImmutableSortedArrayMap.this.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key)
+        {
+            throw new UnsupportedOperationException("Cannot remove from an ImmutableSortedMap");
+        }
+
+        @Override
+        public void clear()
+        {
+            throw new UnsupportedOperationException("Cannot clear an ImmutableSortedMap");
+        }
+    }
+
+    private static class SortedArrayMapSerializationProxy<K, V> implements Externalizable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ImmutableSortedArrayMap<K, V> map;
+
+        @SuppressWarnings("UnusedDeclaration")
+        public SortedArrayMapSerializationProxy()
+        {
+            // For Externalizable use only
+        }
+
+        private SortedArrayMapSerializationProxy(ImmutableSortedArrayMap<K, V> map)
+        {
+            this.map = map;
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException
+        {
+            out.writeObject(this.map.comparator);
+            out.writeInt(this.map.size());
+            for (int i = this.map.from; i < this.map.to; i++)
+            {
+                out.writeObject(this.map.keys[i]);
+                out.writeObject(this.map.values[i]);
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+        {
+            Comparator<? super K> comparator = (Comparator<? super K>) in.readObject();
+            int size = in.readInt();
+            Object[] keys = new Object[size];
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++)
+            {
+                keys[i] = in.readObject();
+                values[i] = in.readObject();
+            }
+            this.map = new ImmutableSortedArrayMap<K, V>(comparator, keys, values, 0, size);
+        }
+
+        protected Object readResolve()
+        {
+            return this.map;
+        }
+    }
+}
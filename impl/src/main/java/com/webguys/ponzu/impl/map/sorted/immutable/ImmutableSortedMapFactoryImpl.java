@@ -89,6 +89,21 @@ public final class ImmutableSortedMapFactoryImpl implements ImmutableSortedMapFa
         {
             return this.of(map.comparator());
         }
-        return ImmutableTreeMap.newMap(map);
+        return ImmutableSortedArrayMap.newMap(map);
+    }
+
+    public <K, V> ImmutableSortedMap<K, V> ofPersistent()
+    {
+        return ImmutableBalancedTreeMap.empty();
+    }
+
+    public <K, V> ImmutableSortedMap<K, V> ofPersistent(Comparator<? super K> comparator)
+    {
+        return ImmutableBalancedTreeMap.empty(comparator);
+    }
+
+    public <K, V> ImmutableSortedMap<K, V> ofPersistentSortedMap(SortedMap<K, V> map)
+    {
+        return ImmutableBalancedTreeMap.newMap(map);
     }
 }
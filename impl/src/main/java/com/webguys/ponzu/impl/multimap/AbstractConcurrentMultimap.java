@@ -0,0 +1,372 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.multimap;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.webguys.ponzu.api.collection.MutableCollection;
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.ConcurrentUnifiedMap;
+import com.webguys.ponzu.impl.utility.Iterate;
+
+/**
+ * The base of the multimaps which many threads can read and write at once.  Keys are mapped in a
+ * {@link ConcurrentUnifiedMap} to value collections which can be read without locking, so get, containsKeyAndValue,
+ * forEachKeyValue and the other reads never block and are weakly consistent.
+ * <p/>
+ * A write synchronizes only on the collection of its own key, and checks under that lock that the collection is still
+ * the one mapped to the key, since removeAll, replaceValues and the removal of the last value take a collection out of
+ * the map while holding its lock.  A write which finds its collection gone looks the key up again, so no value is ever
+ * added to a collection which is no longer reachable.
+ * <p/>
+ * The total size is kept in a single counter until writers start to contend on it, at which point it is striped over
+ * a number of padded counters, so threads writing to different keys share no memory at all.
+ * <p/>
+ * A multimap can be serialized while it is being written.  The values of each key are copied under the lock of their
+ * collection, and the keys are terminated by a null key rather than counted up front.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractConcurrentMultimap<K, V, C extends MutableCollection<V>>
+        extends AbstractMutableMultimap<K, V, C>
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int SIZE_STRIPES = 32;
+
+    /**
+     * The distance between two size stripes, so that each stripe sits on its own cache line.
+     */
+    private static final int SIZE_STRIPE_SPACING = 16;
+
+    private static final AtomicIntegerFieldUpdater<AbstractConcurrentMultimap> SIZE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractConcurrentMultimap.class, "size");
+
+    private static final AtomicReferenceFieldUpdater<AbstractConcurrentMultimap, AtomicIntegerArray> SIZE_STRIPES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractConcurrentMultimap.class, AtomicIntegerArray.class, "sizeStripes");
+
+    private volatile int size;
+
+    private volatile AtomicIntegerArray sizeStripes;
+
+    protected AbstractConcurrentMultimap()
+    {
+    }
+
+    protected AbstractConcurrentMultimap(int keyCount)
+    {
+        super(keyCount);
+    }
+
+    @Override
+    protected MutableMap<K, C> createMap()
+    {
+        return ConcurrentUnifiedMap.newMap();
+    }
+
+    @Override
+    protected MutableMap<K, C> createMapWithKeyCount(int keyCount)
+    {
+        return ConcurrentUnifiedMap.newMap(keyCount);
+    }
+
+    private ConcurrentMutableMap<K, C> concurrentMap()
+    {
+        return (ConcurrentMutableMap<K, C>) this.map;
+    }
+
+    @Override
+    public int size()
+    {
+        int result = this.size;
+        AtomicIntegerArray stripes = this.sizeStripes;
+        if (stripes != null)
+        {
+            for (int i = 0; i < SIZE_STRIPES; i++)
+            {
+                result += stripes.get(i * SIZE_STRIPE_SPACING);
+            }
+        }
+        return Math.max(result, 0);
+    }
+
+    @Override
+    protected void incrementTotalSize()
+    {
+        this.addToSize(1);
+    }
+
+    @Override
+    protected void decrementTotalSize()
+    {
+        this.addToSize(-1);
+    }
+
+    @Override
+    protected void addToTotalSize(int value)
+    {
+        this.addToSize(value);
+    }
+
+    @Override
+    protected void subtractFromTotalSize(int value)
+    {
+        this.addToSize(-value);
+    }
+
+    /**
+     * Adds to the single size counter while it is uncontended.  The first time a compare-and-set on it fails the
+     * counter is striped, and from then on each thread adds to the stripe picked by its id.
+     */
+    private void addToSize(int delta)
+    {
+        if (delta == 0)
+        {
+            return;
+        }
+        AtomicIntegerArray stripes = this.sizeStripes;
+        if (stripes == null)
+        {
+            int current = this.size;
+            if (SIZE_UPDATER.compareAndSet(this, current, current + delta))
+            {
+                return;
+            }
+            SIZE_STRIPES_UPDATER.compareAndSet(this, null, new AtomicIntegerArray(SIZE_STRIPES * SIZE_STRIPE_SPACING));
+            stripes = this.sizeStripes;
+        }
+        long id = Thread.currentThread().getId();
+        int stripe = (int) (id ^ id >>> 32) * 0x9E3779B9 >>> 27;
+        stripes.addAndGet(stripe * SIZE_STRIPE_SPACING, delta);
+    }
+
+    @Override
+    public boolean put(K key, V value)
+    {
+        while (true)
+        {
+            C collection = this.map.getIfAbsentPut(key, this.createCollectionBlock());
+            synchronized (collection)
+            {
+                if (this.map.get(key) == collection)
+                {
+                    if (collection.add(value))
+                    {
+                        this.incrementTotalSize();
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean putAll(K key, Iterable<? extends V> values)
+    {
+        if (Iterate.isEmpty(values))
+        {
+            return false;
+        }
+        while (true)
+        {
+            C collection = this.map.getIfAbsentPut(key, this.createCollectionBlock());
+            synchronized (collection)
+            {
+                if (this.map.get(key) == collection)
+                {
+                    int oldSize = collection.size();
+                    int newSize = Iterate.addAllTo(values, collection).size();
+                    this.addToTotalSize(newSize - oldSize);
+                    return newSize > oldSize;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        while (true)
+        {
+            C collection = this.map.get(key);
+            if (collection == null)
+            {
+                return false;
+            }
+            synchronized (collection)
+            {
+                if (this.map.get(key) == collection)
+                {
+                    if (!collection.remove(value))
+                    {
+                        return false;
+                    }
+                    this.decrementTotalSize();
+                    if (collection.isEmpty())
+                    {
+                        this.concurrentMap().remove(key, collection);
+                    }
+                    return true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public C replaceValues(K key, Iterable<? extends V> values)
+    {
+        if (Iterate.isEmpty(values))
+        {
+            return this.removeAll(key);
+        }
+
+        C newValues = Iterate.addAllTo(values, this.createCollection());
+        while (true)
+        {
+            C oldValues = this.map.get(key);
+            if (oldValues == null)
+            {
+                if (this.concurrentMap().putIfAbsent(key, newValues) == null)
+                {
+                    this.addToTotalSize(newValues.size());
+                    return (C) this.createCollection().asUnmodifiable();
+                }
+            }
+            else
+            {
+                synchronized (oldValues)
+                {
+                    if (this.concurrentMap().replace(key, oldValues, newValues))
+                    {
+                        this.addToTotalSize(newValues.size() - oldValues.size());
+                        return (C) oldValues.asUnmodifiable();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public C removeAll(Object key)
+    {
+        while (true)
+        {
+            C collection = this.map.get(key);
+            if (collection == null)
+            {
+                return (C) this.createCollection().asUnmodifiable();
+            }
+            synchronized (collection)
+            {
+                if (this.concurrentMap().remove(key, collection))
+                {
+                    this.subtractFromTotalSize(collection.size());
+                    return (C) collection.asUnmodifiable();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the keys one at a time, so values put while the multimap is being cleared may be kept.
+     */
+    @Override
+    public void clear()
+    {
+        for (K key : this.map.keySet())
+        {
+            C collection = this.map.get(key);
+            if (collection != null)
+            {
+                synchronized (collection)
+                {
+                    if (this.concurrentMap().remove(key, collection))
+                    {
+                        this.subtractFromTotalSize(collection.size());
+                        collection.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes each key followed by a copy of its values taken under the lock of its collection.  The number of keys may
+     * change while writing, so the keys are terminated by a null key, which the map never holds.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.map.size());
+        for (K key : this.map.keySet())
+        {
+            C collection = this.map.get(key);
+            if (collection == null)
+            {
+                continue;
+            }
+            FastList<V> values;
+            synchronized (collection)
+            {
+                if (this.map.get(key) != collection)
+                {
+                    continue;
+                }
+                values = FastList.newList(collection);
+            }
+            if (values.isEmpty())
+            {
+                // The collection was mapped by a put which has not yet taken its lock
+                continue;
+            }
+            out.writeObject(key);
+            out.writeInt(values.size());
+            for (int i = 0; i < values.size(); i++)
+            {
+                out.writeObject(values.get(i));
+            }
+        }
+        out.writeObject(null);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        this.map = this.createMapWithKeyCount(in.readInt());
+        K key = (K) in.readObject();
+        while (key != null)
+        {
+            int valuesSize = in.readInt();
+            C values = this.createCollection();
+            for (int v = 0; v < valuesSize; v++)
+            {
+                values.add((V) in.readObject());
+            }
+            this.addToTotalSize(valuesSize);
+            this.map.put(key, values);
+            key = (K) in.readObject();
+        }
+    }
+}
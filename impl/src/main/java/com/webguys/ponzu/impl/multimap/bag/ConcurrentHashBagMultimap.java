@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.multimap.bag;
+
+import java.io.Externalizable;
+
+import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.multimap.Multimap;
+import com.webguys.ponzu.api.multimap.bag.ImmutableBagMultimap;
+import com.webguys.ponzu.api.multimap.bag.MutableBagMultimap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.bag.mutable.ConcurrentHashBag;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.multimap.AbstractConcurrentMultimap;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A Multimap which many threads can read and write at once.  The values of each key are held in a
+ * {@link ConcurrentHashBag}, so counting and looking up the values of a key never blocks, and adding a value which is
+ * already there only bumps its counter rather than copying anything.  Each of those bags keeps its own counters,
+ * which makes this multimap best suited to a moderate number of keys with many values each.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentHashBagMultimap<K, V>
+        extends AbstractConcurrentMultimap<K, V, MutableBag<V>>
+        implements MutableBagMultimap<K, V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrentHashBagMultimap()
+    {
+    }
+
+    public ConcurrentHashBagMultimap(int keyCount)
+    {
+        super(keyCount);
+    }
+
+    public ConcurrentHashBagMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        this(multimap.sizeDistinct());
+        this.putAll(multimap);
+    }
+
+    public ConcurrentHashBagMultimap(Pair<K, V>... pairs)
+    {
+        this(pairs.length);
+        this.putAllPairs(pairs);
+    }
+
+    @Override
+    protected MutableBag<V> createCollection()
+    {
+        return ConcurrentHashBag.newBag();
+    }
+
+    public static <K, V> ConcurrentHashBagMultimap<K, V> newMultimap()
+    {
+        return new ConcurrentHashBagMultimap<K, V>();
+    }
+
+    public static <K, V> ConcurrentHashBagMultimap<K, V> newMultimap(int keyCount)
+    {
+        return new ConcurrentHashBagMultimap<K, V>(keyCount);
+    }
+
+    public static <K, V> ConcurrentHashBagMultimap<K, V> newMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        return new ConcurrentHashBagMultimap<K, V>(multimap);
+    }
+
+    public static <K, V> ConcurrentHashBagMultimap<K, V> newMultimap(Pair<K, V>... pairs)
+    {
+        return new ConcurrentHashBagMultimap<K, V>(pairs);
+    }
+
+    public ConcurrentHashBagMultimap<K, V> newEmpty()
+    {
+        return new ConcurrentHashBagMultimap<K, V>();
+    }
+
+    public MutableBagMultimap<K, V> toMutable()
+    {
+        return new ConcurrentHashBagMultimap<K, V>(this);
+    }
+
+    public ImmutableBagMultimap<K, V> toImmutable()
+    {
+        final MutableMap<K, ImmutableBag<V>> map = UnifiedMap.newMap();
+
+        this.map.forEachKeyValue(new Procedure2<K, MutableBag<V>>()
+        {
+            public void value(K key, MutableBag<V> bag)
+            {
+                map.put(key, bag.toImmutable());
+            }
+        });
+
+        return new ImmutableBagMultimapImpl<K, V>(map);
+    }
+}
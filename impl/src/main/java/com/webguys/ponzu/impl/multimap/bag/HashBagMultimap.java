@@ -32,7 +32,6 @@ import com.webguys.ponzu.api.tuple.Pair;
 import com.webguys.ponzu.impl.bag.mutable.HashBag;
 import com.webguys.ponzu.impl.block.procedure.checked.CheckedObjectIntProcedure;
 import com.webguys.ponzu.impl.block.procedure.checked.CheckedProcedure2;
-import com.webguys.ponzu.impl.factory.Bags;
 import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
 import com.webguys.ponzu.impl.multimap.AbstractMutableMultimap;
 
@@ -149,7 +148,7 @@ public final class HashBagMultimap<K, V>
         {
             K key = (K) in.readObject();
             int valuesSize = in.readInt();
-            MutableBag<V> bag = Bags.mutable.of();
+            MutableBag<V> bag = HashBag.newBag(valuesSize);
             for (int j = 0; j < valuesSize; j++)
             {
                 V value = (V) in.readObject();
@@ -157,7 +156,13 @@ public final class HashBagMultimap<K, V>
 
                 bag.addOccurrences(value, count);
             }
-            this.putAll(key, bag);
+            if (bag.notEmpty())
+            {
+                // the counts were read straight into the per-key bag, so it is stored as is rather than copied one
+                // occurrence at a time by putAll
+                this.map.put(key, bag);
+                this.addToTotalSize(bag.size());
+            }
         }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.multimap.list;
+
+import java.io.Externalizable;
+
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.multimap.Multimap;
+import com.webguys.ponzu.api.multimap.list.ImmutableListMultimap;
+import com.webguys.ponzu.api.multimap.list.MutableListMultimap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.list.mutable.CopyOnWriteFastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.multimap.AbstractConcurrentMultimap;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A Multimap which many threads can read and write at once.  The values of each key are held in a
+ * {@link CopyOnWriteFastList}, so reads never block, while writes to the same key are serialized.  put appends to the
+ * list without copying it, so it takes amortized constant time; removals copy the values of the key.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentFastListMultimap<K, V>
+        extends AbstractConcurrentMultimap<K, V, MutableList<V>>
+        implements MutableListMultimap<K, V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrentFastListMultimap()
+    {
+    }
+
+    public ConcurrentFastListMultimap(int keyCount)
+    {
+        super(keyCount);
+    }
+
+    public ConcurrentFastListMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        this(multimap.sizeDistinct());
+        this.putAll(multimap);
+    }
+
+    public ConcurrentFastListMultimap(Pair<K, V>... pairs)
+    {
+        this(pairs.length);
+        this.putAllPairs(pairs);
+    }
+
+    @Override
+    protected MutableList<V> createCollection()
+    {
+        return CopyOnWriteFastList.newList();
+    }
+
+    public static <K, V> ConcurrentFastListMultimap<K, V> newMultimap()
+    {
+        return new ConcurrentFastListMultimap<K, V>();
+    }
+
+    public static <K, V> ConcurrentFastListMultimap<K, V> newMultimap(int keyCount)
+    {
+        return new ConcurrentFastListMultimap<K, V>(keyCount);
+    }
+
+    public static <K, V> ConcurrentFastListMultimap<K, V> newMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        return new ConcurrentFastListMultimap<K, V>(multimap);
+    }
+
+    public static <K, V> ConcurrentFastListMultimap<K, V> newMultimap(Pair<K, V>... pairs)
+    {
+        return new ConcurrentFastListMultimap<K, V>(pairs);
+    }
+
+    public ConcurrentFastListMultimap<K, V> newEmpty()
+    {
+        return new ConcurrentFastListMultimap<K, V>();
+    }
+
+    public MutableListMultimap<K, V> toMutable()
+    {
+        return new ConcurrentFastListMultimap<K, V>(this);
+    }
+
+    public ImmutableListMultimap<K, V> toImmutable()
+    {
+        final MutableMap<K, ImmutableList<V>> map = UnifiedMap.newMap();
+
+        this.map.forEachKeyValue(new Procedure2<K, MutableList<V>>()
+        {
+            public void value(K key, MutableList<V> list)
+            {
+                map.put(key, list.toImmutable());
+            }
+        });
+
+        return new ImmutableListMultimapImpl<K, V>(map);
+    }
+}
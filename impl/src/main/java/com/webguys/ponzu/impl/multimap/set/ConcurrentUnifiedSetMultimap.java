@@ -0,0 +1,205 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.multimap.set;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.multimap.Multimap;
+import com.webguys.ponzu.api.multimap.set.ImmutableSetMultimap;
+import com.webguys.ponzu.api.multimap.set.MutableSetMultimap;
+import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.map.mutable.ConcurrentUnifiedMap;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.multimap.AbstractConcurrentMultimap;
+import com.webguys.ponzu.impl.set.mutable.SetAdapter;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A Multimap which many threads can read and write at once.  The values of each key are held as the keys of their own
+ * {@link ConcurrentUnifiedMap}, so reads never block and are weakly consistent, while writes to the same key are
+ * serialized and take amortized constant time.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentUnifiedSetMultimap<K, V>
+        extends AbstractConcurrentMultimap<K, V, MutableSet<V>>
+        implements MutableSetMultimap<K, V>, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrentUnifiedSetMultimap()
+    {
+    }
+
+    public ConcurrentUnifiedSetMultimap(int keyCount)
+    {
+        super(keyCount);
+    }
+
+    public ConcurrentUnifiedSetMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        this(multimap.sizeDistinct());
+        this.putAll(multimap);
+    }
+
+    public ConcurrentUnifiedSetMultimap(Pair<K, V>... pairs)
+    {
+        this(pairs.length);
+        this.putAllPairs(pairs);
+    }
+
+    @Override
+    protected MutableSet<V> createCollection()
+    {
+        return SetAdapter.adapt(new ValueSet<V>());
+    }
+
+    public static <K, V> ConcurrentUnifiedSetMultimap<K, V> newMultimap()
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>();
+    }
+
+    public static <K, V> ConcurrentUnifiedSetMultimap<K, V> newMultimap(int keyCount)
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>(keyCount);
+    }
+
+    public static <K, V> ConcurrentUnifiedSetMultimap<K, V> newMultimap(Multimap<? extends K, ? extends V> multimap)
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>(multimap);
+    }
+
+    public static <K, V> ConcurrentUnifiedSetMultimap<K, V> newMultimap(Pair<K, V>... pairs)
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>(pairs);
+    }
+
+    public ConcurrentUnifiedSetMultimap<K, V> newEmpty()
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>();
+    }
+
+    public MutableSetMultimap<K, V> toMutable()
+    {
+        return new ConcurrentUnifiedSetMultimap<K, V>(this);
+    }
+
+    public ImmutableSetMultimap<K, V> toImmutable()
+    {
+        final MutableMap<K, ImmutableSet<V>> map = UnifiedMap.newMap();
+
+        this.map.forEachKeyValue(new Procedure2<K, MutableSet<V>>()
+        {
+            public void value(K key, MutableSet<V> set)
+            {
+                map.put(key, set.toImmutable());
+            }
+        });
+
+        return new ImmutableSetMultimapImpl<K, V>(map);
+    }
+
+    /**
+     * The values of one key.  Null is held as a stand-in, since the map does not allow null keys.
+     */
+    private static final class ValueSet<V>
+            extends AbstractSet<V>
+            implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private static final Object NULL_VALUE = new Object();
+
+        private final ConcurrentUnifiedMap<Object, Boolean> values = ConcurrentUnifiedMap.newMap();
+
+        private static Object toKey(Object value)
+        {
+            return value == null ? NULL_VALUE : value;
+        }
+
+        @Override
+        public int size()
+        {
+            return this.values.size();
+        }
+
+        @Override
+        public boolean contains(Object value)
+        {
+            return this.values.containsKey(toKey(value));
+        }
+
+        @Override
+        public boolean add(V value)
+        {
+            return this.values.putIfAbsent(toKey(value), Boolean.TRUE) == null;
+        }
+
+        @Override
+        public boolean remove(Object value)
+        {
+            return this.values.remove(toKey(value)) != null;
+        }
+
+        @Override
+        public void clear()
+        {
+            this.values.clear();
+        }
+
+        @Override
+        public Iterator<V> iterator()
+        {
+            final Iterator<Object> keys = this.values.keySet().iterator();
+            return new Iterator<V>()
+            {
+                public boolean hasNext()
+                {
+                    return keys.hasNext();
+                }
+
+                public V next()
+                {
+                    Object key = keys.next();
+                    return key == NULL_VALUE ? null : (V) key;
+                }
+
+                public void remove()
+                {
+                    keys.remove();
+                }
+            };
+        }
+
+        /**
+         * The stand-in for null is not serializable, so a set which is written out is read back as a UnifiedSet.
+         */
+        private Object writeReplace()
+        {
+            return UnifiedSet.newSet(this);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.ParallelIterable;
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.impl.bag.mutable.HashBag;
+import com.webguys.ponzu.impl.block.factory.Predicates;
+import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.block.procedure.CountProcedure;
+import com.webguys.ponzu.impl.block.procedure.MultimapPutProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.multimap.list.FastListMultimap;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+
+/**
+ * AbstractParallelIterable implements the terminal methods of {@link ParallelIterable} in terms of a single method,
+ * {@link #forEach(ProcedureFactory, Combiner)}, which runs one procedure from the factory per batch of the source and
+ * passes the procedures to the combiner.  Each intermediate operation wraps the procedures of the operation after
+ * it, so a whole chain runs element by element within a batch, and only the terminal procedure accumulates a result.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractParallelIterable<T>
+        implements ParallelIterable<T>
+{
+    /**
+     * Runs a procedure created by the factory over each batch of this iterable, and passes the procedures to the
+     * combiner once all of the batches have completed.
+     */
+    protected abstract <BT extends Procedure<? super T>> void forEach(ProcedureFactory<BT> procedureFactory, Combiner<BT> combiner);
+
+    public ParallelIterable<T> filter(Predicate<? super T> predicate)
+    {
+        return new FilterParallelIterable<T>(this, predicate);
+    }
+
+    public ParallelIterable<T> filterNot(Predicate<? super T> predicate)
+    {
+        return new FilterParallelIterable<T>(this, Predicates.not(predicate));
+    }
+
+    public <V> ParallelIterable<V> transform(Function<? super T, ? extends V> function)
+    {
+        return new TransformParallelIterable<T, V>(this, function);
+    }
+
+    public <V> ParallelIterable<V> flatTransform(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return new FlatTransformParallelIterable<T, V>(this, function);
+    }
+
+    public void forEach(Procedure<? super T> procedure)
+    {
+        this.forEach(new PassThruProcedureFactory<Procedure<? super T>>(procedure), new PassThruCombiner<Procedure<? super T>>());
+    }
+
+    public int count(Predicate<? super T> predicate)
+    {
+        CountCombiner<T> combiner = new CountCombiner<T>();
+        this.forEach(new CountProcedureFactory<T>(predicate), combiner);
+        return combiner.getCount();
+    }
+
+    public boolean anySatisfy(Predicate<? super T> predicate)
+    {
+        FindProcedureFactory<T> procedureFactory = new FindProcedureFactory<T>(predicate);
+        this.forEach(procedureFactory, new PassThruCombiner<FindProcedureFactory.FindProcedure<T>>());
+        return procedureFactory.isFound();
+    }
+
+    public boolean allSatisfy(Predicate<? super T> predicate)
+    {
+        return !this.anySatisfy(Predicates.not(predicate));
+    }
+
+    public long sumOfInt(IntFunction<? super T> function)
+    {
+        SumOfIntCombiner<T> combiner = new SumOfIntCombiner<T>();
+        this.forEach(new SumOfIntProcedureFactory<T>(function), combiner);
+        return combiner.getResult();
+    }
+
+    public long sumOfLong(LongFunction<? super T> function)
+    {
+        SumOfLongCombiner<T> combiner = new SumOfLongCombiner<T>();
+        this.forEach(new SumOfLongProcedureFactory<T>(function), combiner);
+        return combiner.getResult();
+    }
+
+    public double sumOfDouble(DoubleFunction<? super T> function)
+    {
+        SumOfDoubleCombiner<T> combiner = new SumOfDoubleCombiner<T>();
+        this.forEach(new SumOfDoubleProcedureFactory<T>(function), combiner);
+        return combiner.getResult();
+    }
+
+    public MutableList<T> toList()
+    {
+        final MutableList<T> result = FastList.newList();
+        this.forEach(new ProcedureFactory<CollectionAddProcedure<T>>()
+        {
+            public CollectionAddProcedure<T> create()
+            {
+                return CollectionAddProcedure.on(FastList.<T>newList());
+            }
+        }, new AbstractProcedureCombiner<CollectionAddProcedure<T>>(false)
+        {
+            private static final long serialVersionUID = 1L;
+
+            public void combineOne(CollectionAddProcedure<T> procedure)
+            {
+                result.addAll(procedure.getResult());
+            }
+        });
+        return result;
+    }
+
+    public MutableSet<T> toSet()
+    {
+        final MutableSet<T> result = UnifiedSet.newSet();
+        this.forEach(new ProcedureFactory<CollectionAddProcedure<T>>()
+        {
+            public CollectionAddProcedure<T> create()
+            {
+                return CollectionAddProcedure.on(UnifiedSet.<T>newSet());
+            }
+        }, new AbstractProcedureCombiner<CollectionAddProcedure<T>>(true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            public void combineOne(CollectionAddProcedure<T> procedure)
+            {
+                result.addAll(procedure.getResult());
+            }
+        });
+        return result;
+    }
+
+    public MutableBag<T> toBag()
+    {
+        final MutableBag<T> result = HashBag.newBag();
+        final ObjectIntProcedure<T> addOccurrences = new ObjectIntProcedure<T>()
+        {
+            public void value(T each, int occurrences)
+            {
+                result.addOccurrences(each, occurrences);
+            }
+        };
+        this.forEach(new ProcedureFactory<CollectionAddProcedure<T>>()
+        {
+            public CollectionAddProcedure<T> create()
+            {
+                return CollectionAddProcedure.on(HashBag.<T>newBag());
+            }
+        }, new AbstractProcedureCombiner<CollectionAddProcedure<T>>(true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            public void combineOne(CollectionAddProcedure<T> procedure)
+            {
+                ((MutableBag<T>) procedure.getResult()).forEachWithOccurrences(addOccurrences);
+            }
+        });
+        return result;
+    }
+
+    public <V> MutableMultimap<V, T> groupBy(final Function<? super T, ? extends V> function)
+    {
+        final MutableMultimap<V, T> result = FastListMultimap.newMultimap();
+        this.forEach(new ProcedureFactory<MultimapPutProcedure<V, T>>()
+        {
+            public MultimapPutProcedure<V, T> create()
+            {
+                return MultimapPutProcedure.on(FastListMultimap.<V, T>newMultimap(), function);
+            }
+        }, new AbstractProcedureCombiner<MultimapPutProcedure<V, T>>(false)
+        {
+            private static final long serialVersionUID = 1L;
+
+            public void combineOne(MultimapPutProcedure<V, T> procedure)
+            {
+                result.putAll(procedure.getResult());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The procedure of an intermediate operation, which passes its results on to the procedure of the next one.
+     */
+    protected abstract static class StageProcedure<T, BT> implements Procedure<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final BT downstream;
+
+        protected StageProcedure(BT downstream)
+        {
+            this.downstream = downstream;
+        }
+    }
+
+    /**
+     * Unwraps the procedures of an intermediate operation and passes the procedures they wrap to the combiner of the
+     * next operation.
+     */
+    protected static final class StageCombiner<T, BT>
+            implements Combiner<StageProcedure<T, BT>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Combiner<BT> combiner;
+
+        StageCombiner(Combiner<BT> combiner)
+        {
+            this.combiner = combiner;
+        }
+
+        public void combineAll(Iterable<StageProcedure<T, BT>> thingsToCombine)
+        {
+            MutableList<BT> downstreamProcedures = FastList.newList();
+            for (StageProcedure<T, BT> each : thingsToCombine)
+            {
+                downstreamProcedures.add(each.downstream);
+            }
+            this.combiner.combineAll(downstreamProcedures);
+        }
+
+        public void combineOne(StageProcedure<T, BT> thingToCombine)
+        {
+            this.combiner.combineOne(thingToCombine.downstream);
+        }
+
+        public boolean useCombineOne()
+        {
+            return this.combiner.useCombineOne();
+        }
+    }
+}
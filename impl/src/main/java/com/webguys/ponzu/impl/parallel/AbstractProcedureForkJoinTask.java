@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import com.webguys.ponzu.impl.list.mutable.FastList;
+
+/**
+ * The common part of the ForkJoinPool based parallel engine.  A task covers a range of positions in the source, and
+ * while the range is longer than the leaf size it splits itself in half, forks the upper half and computes the lower
+ * half itself.  A leaf is a fraction of the section each task of the other executors is given, so the work of a slow
+ * stretch of the source is left behind as unfinished halves which idle workers steal, rather than as a single section
+ * which one worker has to get through on its own.  Each leaf is run against its own procedure from the factory, and
+ * the procedures are concatenated back up the tree in order, so the Combiner always sees them in the order of the
+ * source and only ever from the thread that started the execution.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractProcedureForkJoinTask<BT>
+        extends RecursiveTask<FastList<BT>>
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * How many leaves the work of each requested task is split into.
+     */
+    protected static final int LEAVES_PER_TASK = 4;
+
+    protected final int from;
+    protected final int to;
+    protected final int leafSize;
+
+    protected AbstractProcedureForkJoinTask(int from, int to, int leafSize)
+    {
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Returns how many positions a leaf covers when size positions are shared by taskCount tasks.
+     */
+    protected static int leafSize(int size, int taskCount)
+    {
+        return Math.max(1, size / Math.max(1, taskCount * LEAVES_PER_TASK));
+    }
+
+    /**
+     * Creates the procedure for a single leaf.
+     */
+    protected abstract BT newProcedure();
+
+    /**
+     * Runs the procedure over the positions from (inclusive) to (exclusive) of the source.
+     */
+    protected abstract void executeRange(int newFrom, int newTo, BT procedure);
+
+    /**
+     * Creates a task over the same source covering the positions from newFrom (inclusive) to newTo (exclusive).
+     */
+    protected abstract AbstractProcedureForkJoinTask<BT> newSubTask(int newFrom, int newTo);
+
+    @Override
+    protected FastList<BT> compute()
+    {
+        if (this.to - this.from <= this.leafSize)
+        {
+            BT procedure = this.newProcedure();
+            try
+            {
+                this.executeRange(this.from, this.to, procedure);
+            }
+            catch (SectionStoppedException ignored)
+            {
+                // The procedure ended its leaf early
+            }
+            return FastList.newListWith(procedure);
+        }
+        int leafCount = (this.to - this.from + this.leafSize - 1) / this.leafSize;
+        int middle = this.from + leafCount / 2 * this.leafSize;
+        AbstractProcedureForkJoinTask<BT> upperHalf = this.newSubTask(middle, this.to);
+        upperHalf.fork();
+        FastList<BT> procedures = this.newSubTask(this.from, middle).compute();
+        procedures.addAll(upperHalf.join());
+        return procedures;
+    }
+
+    /**
+     * Runs the task on the pool, or directly on the current worker if already running inside the pool, and passes
+     * the resulting procedures to the combiner in section order.
+     */
+    public void executeAndCombine(ForkJoinPool pool, Combiner<BT> combiner)
+    {
+        FastList<BT> procedures;
+        try
+        {
+            procedures = ForkJoinTask.getPool() == pool ? this.invoke() : pool.invoke(this);
+        }
+        catch (RuntimeException e)
+        {
+            throw new RuntimeException("One or more parallel tasks failed", e);
+        }
+        catch (Error e)
+        {
+            throw new RuntimeException("One or more parallel tasks failed", e);
+        }
+        if (combiner.useCombineOne())
+        {
+            for (int i = 0; i < procedures.size(); i++)
+            {
+                combiner.combineOne(procedures.get(i));
+            }
+        }
+        else
+        {
+            combiner.combineAll(procedures);
+        }
+    }
+}
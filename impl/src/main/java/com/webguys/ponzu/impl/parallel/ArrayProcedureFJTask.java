@@ -50,6 +50,10 @@ public final class ArrayProcedureFJTask<T, BT extends Procedure<? super T>> impl
             this.procedure = this.procedureFactory.create();
             ArrayIterate.forEach(this.array, this.start, this.end - 1, this.procedure);
         }
+        catch (SectionStoppedException ignored)
+        {
+            // The procedure ended its section early
+        }
         catch (Throwable newError)
         {
             this.taskRunner.setFailed(newError);
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.utility.ArrayIterate;
+
+/**
+ * The ForkJoinPool counterpart of {@link ArrayProcedureFJTask}, recursively splitting an array.
+ *
+ * @since 1.3
+ */
+public final class ArrayProcedureForkJoinTask<T, BT extends Procedure<? super T>>
+        extends AbstractProcedureForkJoinTask<BT>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final ProcedureFactory<BT> procedureFactory;
+    private final T[] array;
+
+    public ArrayProcedureForkJoinTask(ProcedureFactory<BT> procedureFactory, T[] array, int taskCount)
+    {
+        this(procedureFactory, array, 0, array.length, leafSize(array.length, taskCount));
+    }
+
+    private ArrayProcedureForkJoinTask(
+            ProcedureFactory<BT> procedureFactory,
+            T[] array,
+            int from,
+            int to,
+            int leafSize)
+    {
+        super(from, to, leafSize);
+        this.procedureFactory = procedureFactory;
+        this.array = array;
+    }
+
+    @Override
+    protected BT newProcedure()
+    {
+        return this.procedureFactory.create();
+    }
+
+    @Override
+    protected void executeRange(int newFrom, int newTo, BT procedure)
+    {
+        ArrayIterate.forEach(this.array, newFrom, newTo - 1, procedure);
+    }
+
+    @Override
+    protected ArrayProcedureForkJoinTask<T, BT> newSubTask(int newFrom, int newTo)
+    {
+        return new ArrayProcedureForkJoinTask<T, BT>(this.procedureFactory, this.array, newFrom, newTo, this.leafSize);
+    }
+}
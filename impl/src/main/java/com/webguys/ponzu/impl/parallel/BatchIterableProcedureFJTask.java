@@ -51,6 +51,10 @@ public final class BatchIterableProcedureFJTask<T, BT extends Procedure<? super
             this.procedure = this.procedureFactory.create();
             this.iterable.batchForEach(this.procedure, this.sectionIndex, this.sectionCount);
         }
+        catch (SectionStoppedException ignored)
+        {
+            // The procedure ended its section early
+        }
         catch (Throwable newError)
         {
             this.taskRunner.setFailed(newError);
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * The ForkJoinPool counterpart of {@link BatchIterableProcedureFJTask}, recursively splitting the batches of a
+ * {@link BatchIterable}.
+ *
+ * @since 1.3
+ */
+public final class BatchIterableProcedureForkJoinTask<T, BT extends Procedure<? super T>>
+        extends AbstractProcedureForkJoinTask<BT>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final ProcedureFactory<BT> procedureFactory;
+    private final BatchIterable<T> iterable;
+    private final int batchCount;
+
+    /**
+     * Splits the iterable into batches of about a leaf each, and runs each batch as a leaf.
+     */
+    public BatchIterableProcedureForkJoinTask(ProcedureFactory<BT> procedureFactory, BatchIterable<T> iterable, int taskCount)
+    {
+        super(0, iterable.getBatchCount(leafSize(iterable.size(), taskCount)), 1);
+        this.procedureFactory = procedureFactory;
+        this.iterable = iterable;
+        this.batchCount = this.to;
+    }
+
+    private BatchIterableProcedureForkJoinTask(
+            ProcedureFactory<BT> procedureFactory,
+            BatchIterable<T> iterable,
+            int from,
+            int to,
+            int batchCount)
+    {
+        super(from, to, 1);
+        this.procedureFactory = procedureFactory;
+        this.iterable = iterable;
+        this.batchCount = batchCount;
+    }
+
+    @Override
+    protected BT newProcedure()
+    {
+        return this.procedureFactory.create();
+    }
+
+    @Override
+    protected void executeRange(int newFrom, int newTo, BT procedure)
+    {
+        for (int i = newFrom; i < newTo; i++)
+        {
+            this.iterable.batchForEach(procedure, i, this.batchCount);
+        }
+    }
+
+    @Override
+    protected BatchIterableProcedureForkJoinTask<T, BT> newSubTask(int newFrom, int newTo)
+    {
+        return new BatchIterableProcedureForkJoinTask<T, BT>(this.procedureFactory, this.iterable, newFrom, newTo, this.batchCount);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.Executor;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.list.Interval;
+
+/**
+ * Groups the elements of a bulk load into a hash table by the range of buckets each of them falls into, so that every
+ * range can then be filled by its own task without locking.  The buckets are split into a power of two number of equal
+ * ranges, which makes the range of a bucket just its high bits.  Elements keep their source order within a range, so
+ * a key which appears more than once still ends up with the same winner as a sequential load.
+ * <p/>
+ * Both the counting and the placing of the elements are done on the executor, each task working through one chunk of
+ * the source and keeping its counts to itself.
+ *
+ * @since 1.3
+ */
+public final class BucketRangePartition
+{
+    private final int[] order;
+    private final int[] rangeStarts;
+
+    private BucketRangePartition(int[] order, int[] rangeStarts)
+    {
+        this.order = order;
+        this.rangeStarts = rangeStarts;
+    }
+
+    /**
+     * Returns how many ranges a table with the specified number of buckets should be split into to load size elements
+     * on the executor, which is 1 when the load is too small to be worth running in parallel.
+     */
+    public static int rangeCount(int size, int capacity, Executor executor)
+    {
+        if (size < ParallelIterate.DEFAULT_MIN_FORK_SIZE)
+        {
+            return 1;
+        }
+        return Math.min(capacity, ParallelIterate.calculatePartitionCount(executor));
+    }
+
+    /**
+     * Returns the first source position of the specified chunk when size positions are split into chunkCount chunks.
+     */
+    public static int chunkStart(int size, int chunkCount, int chunk)
+    {
+        return (int) ((long) size * chunk / chunkCount);
+    }
+
+    /**
+     * Runs the procedure once for each index from 0 to count - 1, each on its own task.
+     */
+    public static void forEachTask(int count, Procedure<Integer> procedure, Executor executor)
+    {
+        ParallelIterate.forEach(Interval.zeroTo(count - 1), procedure, 1, count, executor);
+    }
+
+    /**
+     * Groups the source positions by range, given the bucket of every position in a table of capacity buckets.  Both
+     * capacity and rangeCount must be powers of two.
+     */
+    public static BucketRangePartition partition(
+            final int[] buckets,
+            int capacity,
+            final int rangeCount,
+            Executor executor)
+    {
+        final int size = buckets.length;
+        final int shift = Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(rangeCount);
+        final int[][] counts = new int[rangeCount][];
+        forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer chunk)
+            {
+                int[] chunkCounts = new int[rangeCount];
+                int end = chunkStart(size, rangeCount, chunk + 1);
+                for (int i = chunkStart(size, rangeCount, chunk); i < end; i++)
+                {
+                    chunkCounts[buckets[i] >>> shift]++;
+                }
+                counts[chunk] = chunkCounts;
+            }
+        }, executor);
+
+        // Turns the counts into the position at which each chunk starts placing the elements of each range.
+        int[] rangeStarts = new int[rangeCount + 1];
+        int position = 0;
+        for (int range = 0; range < rangeCount; range++)
+        {
+            rangeStarts[range] = position;
+            for (int chunk = 0; chunk < rangeCount; chunk++)
+            {
+                int count = counts[chunk][range];
+                counts[chunk][range] = position;
+                position += count;
+            }
+        }
+        rangeStarts[rangeCount] = position;
+
+        final int[] order = new int[size];
+        forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer chunk)
+            {
+                int[] next = counts[chunk];
+                int end = chunkStart(size, rangeCount, chunk + 1);
+                for (int i = chunkStart(size, rangeCount, chunk); i < end; i++)
+                {
+                    order[next[buckets[i] >>> shift]++] = i;
+                }
+            }
+        }, executor);
+        return new BucketRangePartition(order, rangeStarts);
+    }
+
+    public int getRangeCount()
+    {
+        return this.rangeStarts.length - 1;
+    }
+
+    /**
+     * Returns the first position of the range, to be passed to {@link #getSourceIndex(int)}.
+     */
+    public int getRangeStart(int range)
+    {
+        return this.rangeStarts[range];
+    }
+
+    /**
+     * Returns the position just past the last one of the range.
+     */
+    public int getRangeEnd(int range)
+    {
+        return this.rangeStarts[range + 1];
+    }
+
+    /**
+     * Returns the index in the source of the element at the specified position.
+     */
+    public int getSourceIndex(int position)
+    {
+        return this.order[position];
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.impl.block.procedure.ComparatorProcedure;
+
+/**
+ * Combines the results of a Collection of ComparatorProcedures by feeding each of their results into another
+ * procedure from the same factory.  Procedures are combined in section order and sections that held no elements are
+ * skipped, so ties are resolved the same way as by a sequential min or max.
+ *
+ * @since 1.3
+ */
+public final class ComparatorProcedureCombiner<T>
+        extends AbstractProcedureCombiner<ComparatorProcedure<T>>
+{
+    private static final long serialVersionUID = 1L;
+    private final ComparatorProcedure<T> result;
+
+    public ComparatorProcedureCombiner(ComparatorProcedureFactory<T> procedureFactory)
+    {
+        super(false);
+        this.result = procedureFactory.create();
+    }
+
+    public void combineOne(ComparatorProcedure<T> procedure)
+    {
+        if (procedure.isVisitedAtLeastOnce())
+        {
+            this.result.value(procedure.getResult());
+        }
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if none of the procedures saw an element
+     */
+    public T getResult()
+    {
+        return this.result.getResult();
+    }
+}
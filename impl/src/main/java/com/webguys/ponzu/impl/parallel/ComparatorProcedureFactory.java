@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.Comparator;
+
+import com.webguys.ponzu.impl.block.procedure.ComparatorProcedure;
+import com.webguys.ponzu.impl.block.procedure.MaxComparatorProcedure;
+import com.webguys.ponzu.impl.block.procedure.MinComparatorProcedure;
+
+/**
+ * Creates either MinComparatorProcedures or MaxComparatorProcedures for the specified Comparator.
+ *
+ * @since 1.3
+ */
+public final class ComparatorProcedureFactory<T> implements ProcedureFactory<ComparatorProcedure<T>>
+{
+    private final Comparator<? super T> comparator;
+    private final boolean max;
+
+    private ComparatorProcedureFactory(Comparator<? super T> comparator, boolean max)
+    {
+        this.comparator = comparator;
+        this.max = max;
+    }
+
+    public static <T> ComparatorProcedureFactory<T> min(Comparator<? super T> comparator)
+    {
+        return new ComparatorProcedureFactory<T>(comparator, false);
+    }
+
+    public static <T> ComparatorProcedureFactory<T> max(Comparator<? super T> comparator)
+    {
+        return new ComparatorProcedureFactory<T>(comparator, true);
+    }
+
+    public ComparatorProcedure<T> create()
+    {
+        if (this.max)
+        {
+            return new MaxComparatorProcedure<T>(this.comparator);
+        }
+        return new MinComparatorProcedure<T>(this.comparator);
+    }
+}
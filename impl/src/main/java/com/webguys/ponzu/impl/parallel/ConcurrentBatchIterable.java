@@ -0,0 +1,33 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.parallel;
+
+/**
+ * A BatchIterable which may be modified while it is iterated.  Before splitting it into sections, {@link ParallelIterate}
+ * asks it for a view to split, so that every section of one parallel iteration is taken from the same state of its
+ * storage, even if that storage is replaced in between.
+ *
+ * @since 1.3
+ */
+public interface ConcurrentBatchIterable<E> extends BatchIterable<E>
+{
+    /**
+     * Returns a BatchIterable whose sections are all cut from the storage of this iterable as it is at the time of the
+     * call.
+     */
+    BatchIterable<E> batchSnapshot();
+}
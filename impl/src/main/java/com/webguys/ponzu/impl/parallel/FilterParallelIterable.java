@@ -0,0 +1,73 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * A ParallelIterable that only passes on the elements of its source which satisfy a predicate.
+ *
+ * @since 1.3
+ */
+public final class FilterParallelIterable<T>
+        extends AbstractParallelIterable<T>
+{
+    private final AbstractParallelIterable<T> parent;
+    private final Predicate<? super T> predicate;
+
+    public FilterParallelIterable(AbstractParallelIterable<T> parent, Predicate<? super T> predicate)
+    {
+        this.parent = parent;
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected <BT extends Procedure<? super T>> void forEach(final ProcedureFactory<BT> procedureFactory, Combiner<BT> combiner)
+    {
+        this.parent.forEach(new ProcedureFactory<StageProcedure<T, BT>>()
+        {
+            public StageProcedure<T, BT> create()
+            {
+                return new FilterStageProcedure<T, BT>(FilterParallelIterable.this.predicate, procedureFactory.create());
+            }
+        }, new StageCombiner<T, BT>(combiner));
+    }
+
+    private static final class FilterStageProcedure<T, BT extends Procedure<? super T>>
+            extends StageProcedure<T, BT>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Predicate<? super T> predicate;
+
+        private FilterStageProcedure(Predicate<? super T> predicate, BT downstream)
+        {
+            super(downstream);
+            this.predicate = predicate;
+        }
+
+        public void value(T each)
+        {
+            if (this.predicate.accept(each))
+            {
+                this.downstream.value(each);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+/**
+ * Keeps the result of the first FindProcedure, in section order, that found an element.
+ *
+ * @since 1.3
+ */
+public final class FindCombiner<T>
+        extends AbstractProcedureCombiner<FindProcedureFactory.FindProcedure<T>>
+{
+    private static final long serialVersionUID = 1L;
+    private boolean found;
+    private T result;
+
+    public FindCombiner()
+    {
+        super(false);
+    }
+
+    public void combineOne(FindProcedureFactory.FindProcedure<T> procedure)
+    {
+        if (!this.found && procedure.isFound())
+        {
+            this.found = true;
+            this.result = procedure.getResult();
+        }
+    }
+
+    public boolean isFound()
+    {
+        return this.found;
+    }
+
+    public T getResult()
+    {
+        return this.result;
+    }
+}
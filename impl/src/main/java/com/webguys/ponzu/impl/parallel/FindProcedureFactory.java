@@ -0,0 +1,94 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * Creates FindProcedures that share a single flag.  As soon as any procedure finds an element satisfying the
+ * predicate it raises the flag, and every procedure, including those for sections that have not started yet, ends its
+ * section at the next element it is given by throwing {@link SectionStoppedException}, so the rest of the source is
+ * never walked.  FindProcedures are therefore only meant to be run by the parallel section runners.
+ *
+ * @since 1.3
+ */
+public final class FindProcedureFactory<T> implements ProcedureFactory<FindProcedureFactory.FindProcedure<T>>
+{
+    private final Predicate<? super T> predicate;
+    private final AtomicBoolean found = new AtomicBoolean();
+
+    public FindProcedureFactory(Predicate<? super T> predicate)
+    {
+        this.predicate = predicate;
+    }
+
+    public FindProcedure<T> create()
+    {
+        return new FindProcedure<T>(this.predicate, this.found);
+    }
+
+    public boolean isFound()
+    {
+        return this.found.get();
+    }
+
+    public static final class FindProcedure<T> implements Procedure<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Predicate<? super T> predicate;
+        private final AtomicBoolean anyFound;
+        private boolean found;
+        private T result;
+
+        private FindProcedure(Predicate<? super T> predicate, AtomicBoolean anyFound)
+        {
+            this.predicate = predicate;
+            this.anyFound = anyFound;
+        }
+
+        public void value(T each)
+        {
+            if (this.anyFound.get())
+            {
+                throw SectionStoppedException.INSTANCE;
+            }
+            if (this.predicate.accept(each))
+            {
+                this.found = true;
+                this.result = each;
+                // The volatile write publishes the result before any other section can see the flag raised
+                this.anyFound.set(true);
+                throw SectionStoppedException.INSTANCE;
+            }
+        }
+
+        public boolean isFound()
+        {
+            return this.found;
+        }
+
+        public T getResult()
+        {
+            return this.result;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.Executor;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.multimap.list.FastListMultimap;
+
+/**
+ * Combines the partitioned multimaps built by a Collection of GroupByProcedures.  Each partition is merged on its own
+ * task, appending the values of every batch in section order, so the values for a key keep the order in which they
+ * appeared in the source.  The merged partitions hold disjoint keys and are then gathered into a single multimap.
+ *
+ * @since 1.3
+ */
+public final class GroupByCombiner<K, V>
+        extends AbstractProcedureCombiner<GroupByProcedureFactory.GroupByProcedure<K, V>>
+{
+    private static final long serialVersionUID = 1L;
+    private final int partitionCount;
+    private final FastList<GroupByProcedureFactory.GroupByProcedure<K, V>> procedures = FastList.newList();
+
+    public GroupByCombiner(int partitionCount)
+    {
+        super(false);
+        this.partitionCount = partitionCount;
+    }
+
+    public void combineOne(GroupByProcedureFactory.GroupByProcedure<K, V> procedure)
+    {
+        this.procedures.add(procedure);
+    }
+
+    public MutableMultimap<K, V> getResult(Executor executor)
+    {
+        final FastListMultimap<K, V>[] merged = this.newPartitionArray();
+        ParallelIterate.forEach(Interval.zeroTo(this.partitionCount - 1), new Procedure<Integer>()
+        {
+            public void value(Integer index)
+            {
+                merged[index] = GroupByCombiner.this.mergePartition(index);
+            }
+        }, 1, this.partitionCount, executor);
+        return GroupByCombiner.gather(merged);
+    }
+
+    int getPartitionCount()
+    {
+        return this.partitionCount;
+    }
+
+    static <K, V> MutableMultimap<K, V> gather(FastListMultimap<K, V>[] merged)
+    {
+        FastListMultimap<K, V> result = FastListMultimap.newMultimap();
+        for (FastListMultimap<K, V> partition : merged)
+        {
+            if (partition != null)
+            {
+                result.putAll(partition);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    FastListMultimap<K, V>[] newPartitionArray()
+    {
+        return new FastListMultimap[this.partitionCount];
+    }
+
+    FastListMultimap<K, V> mergePartition(int index)
+    {
+        FastListMultimap<K, V> target = null;
+        for (int i = 0; i < this.procedures.size(); i++)
+        {
+            FastListMultimap<K, V> partition = this.procedures.get(i).getPartition(index);
+            if (partition != null)
+            {
+                if (target == null)
+                {
+                    target = partition;
+                }
+                else
+                {
+                    target.putAll(partition);
+                }
+            }
+        }
+        return target;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.impl.multimap.list.FastListMultimap;
+import com.webguys.ponzu.impl.utility.Iterate;
+
+/**
+ * Creates GroupByProcedures which group the elements of their batch into a fixed number of private multimaps,
+ * partitioned by the hash of the key.  As every batch uses the same partitioning, partition {@code n} of one batch
+ * only shares keys with partition {@code n} of another, so the partitions can later be merged independently and in
+ * parallel without any locking.
+ *
+ * @since 1.3
+ */
+public final class GroupByProcedureFactory<K, V> implements ProcedureFactory<GroupByProcedureFactory.GroupByProcedure<K, V>>
+{
+    private final Function<? super V, ? extends K> function;
+    private final Function<? super V, ? extends Iterable<K>> eachFunction;
+    private final int partitionCount;
+
+    private GroupByProcedureFactory(
+            Function<? super V, ? extends K> function,
+            Function<? super V, ? extends Iterable<K>> eachFunction,
+            int partitionCount)
+    {
+        if (Integer.bitCount(partitionCount) != 1)
+        {
+            throw new IllegalArgumentException("Partition count must be a power of two: " + partitionCount);
+        }
+        this.function = function;
+        this.eachFunction = eachFunction;
+        this.partitionCount = partitionCount;
+    }
+
+    public static <K, V> GroupByProcedureFactory<K, V> groupBy(
+            Function<? super V, ? extends K> function,
+            int partitionCount)
+    {
+        return new GroupByProcedureFactory<K, V>(function, null, partitionCount);
+    }
+
+    public static <K, V> GroupByProcedureFactory<K, V> groupByEach(
+            Function<? super V, ? extends Iterable<K>> function,
+            int partitionCount)
+    {
+        return new GroupByProcedureFactory<K, V>(null, function, partitionCount);
+    }
+
+    public GroupByProcedure<K, V> create()
+    {
+        return new GroupByProcedure<K, V>(this.function, this.eachFunction, this.partitionCount);
+    }
+
+    public int getPartitionCount()
+    {
+        return this.partitionCount;
+    }
+
+    static int partitionIndex(Object key, int partitionCount)
+    {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 20 ^ hash >>> 12;
+        hash ^= hash >>> 7 ^ hash >>> 4;
+        return hash & partitionCount - 1;
+    }
+
+    public static final class GroupByProcedure<K, V> implements Procedure<V>, Procedure2<K, V>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Function<? super V, ? extends K> function;
+        private final Function<? super V, ? extends Iterable<K>> eachFunction;
+        private final FastListMultimap<K, V>[] partitions;
+
+        @SuppressWarnings("unchecked")
+        private GroupByProcedure(
+                Function<? super V, ? extends K> function,
+                Function<? super V, ? extends Iterable<K>> eachFunction,
+                int partitionCount)
+        {
+            this.function = function;
+            this.eachFunction = eachFunction;
+            this.partitions = new FastListMultimap[partitionCount];
+        }
+
+        public void value(V each)
+        {
+            if (this.eachFunction == null)
+            {
+                this.value(this.function.valueOf(each), each);
+            }
+            else
+            {
+                Iterate.forEachWith(this.eachFunction.valueOf(each), this, each);
+            }
+        }
+
+        public void value(K key, V each)
+        {
+            int index = GroupByProcedureFactory.partitionIndex(key, this.partitions.length);
+            FastListMultimap<K, V> partition = this.partitions[index];
+            if (partition == null)
+            {
+                partition = FastListMultimap.newMultimap();
+                this.partitions[index] = partition;
+            }
+            partition.put(key, each);
+        }
+
+        /**
+         * Returns the elements of this batch whose keys fall into the specified partition, or null if there are none.
+         */
+        public FastListMultimap<K, V> getPartition(int index)
+        {
+            return this.partitions[index];
+        }
+    }
+}
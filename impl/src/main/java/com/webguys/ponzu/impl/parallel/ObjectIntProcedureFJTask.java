@@ -70,6 +70,10 @@ public final class ObjectIntProcedureFJTask<T, BT extends ObjectIntProcedure<? s
                 ListIterate.forEachWithIndex(this.list, this.start, stop, this.procedure);
             }
         }
+        catch (SectionStoppedException ignored)
+        {
+            // The procedure ended its section early
+        }
         catch (Throwable newError)
         {
             this.taskRunner.setFailed(newError);
@@ -17,6 +17,7 @@
 package com.webguys.ponzu.impl.parallel;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import com.webguys.ponzu.api.block.procedure.Procedure;
 import com.webguys.ponzu.impl.utility.ArrayIterate;
@@ -26,7 +27,8 @@ import static com.webguys.ponzu.impl.factory.Iterables.*;
 /**
  * The ParallelArrayIterate class contains a parallel forEach algorithm that work with Java arrays.  The forEach
  * algorithm employs a batching fork and join approach approach.  All Collections that are not array based use
- * ParallelArrayIterate to parallelize, by converting themselves to an array using toArray().
+ * ParallelArrayIterate to parallelize, by converting themselves to an array using toArray().  On a
+ * {@link ForkJoinPool} the array is split recursively, as described in {@link ParallelIterate}.
  */
 public final class ParallelArrayIterate
 {
@@ -68,13 +70,28 @@ public final class ParallelArrayIterate
             if (size < minForkSize)
             {
                 BT procedure = procedureFactory.create();
-                ArrayIterate.forEach(array, procedure);
+                try
+                {
+                    ArrayIterate.forEach(array, procedure);
+                }
+                catch (SectionStoppedException ignored)
+                {
+                    // The procedure ended the only section early
+                }
                 ParallelArrayIterate.<T, BT>combineSingleProcedure(combiner, procedure);
             }
             else
             {
                 int threadCount = Math.min(size, taskCount);
-                new ArrayProcedureFJTaskRunner<T, BT>(combiner, threadCount).executeAndCombine(executor, procedureFactory, array);
+                if (executor instanceof ForkJoinPool)
+                {
+                    new ArrayProcedureForkJoinTask<T, BT>(procedureFactory, array, threadCount)
+                            .executeAndCombine((ForkJoinPool) executor, combiner);
+                }
+                else
+                {
+                    new ArrayProcedureFJTaskRunner<T, BT>(combiner, threadCount).executeAndCombine(executor, procedureFactory, array);
+                }
             }
         }
     }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * The handle returned by the async methods of {@link ParallelIterate}.  The work is forked onto the executor as a
+ * number of sections, and whichever section finishes last runs the step which combines them, either completing the
+ * future with the result or forking a further stage of sections.  No thread ever waits for another, so the caller is
+ * free to go on with other work and only blocks if and when it calls get.
+ * <p/>
+ * Cancelling the future completes it straight away.  Sections which have not started by then are skipped, while those
+ * already running finish their own chunk of work, whose result is discarded.  The first section to fail completes the
+ * future with its error, and also stops the sections which have not started yet.
+ *
+ * @since 1.3
+ */
+final class ParallelFuture<R> implements Future<R>
+{
+    private static final int RUNNING = 0;
+    private static final int COMPLETED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private final AtomicInteger pendingSections = new AtomicInteger();
+
+    /**
+     * Written once under the monitor of the future, after the result or the error, so that isDone can read it without
+     * locking.
+     */
+    private volatile int state = RUNNING;
+
+    private R result;
+
+    private Throwable error;
+
+    /**
+     * Runs the section procedure once for each index from 0 to count - 1, each on its own task, and then runs the
+     * completion on the thread of the last section to finish, unless the future is done by then.  If the executor
+     * rejects a section the future fails with the rejection, and the sections which were never submitted are no
+     * longer waited for.
+     */
+    void fork(int count, final Procedure<Integer> section, final Runnable completion, Executor executor)
+    {
+        if (count == 0)
+        {
+            this.runCompletion(completion);
+            return;
+        }
+        this.pendingSections.set(count);
+        for (int i = 0; i < count; i++)
+        {
+            final int index = i;
+            try
+            {
+                executor.execute(new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            if (!ParallelFuture.this.isDone())
+                            {
+                                section.value(index);
+                            }
+                        }
+                        catch (Throwable error)
+                        {
+                            ParallelFuture.this.fail(error);
+                        }
+                        finally
+                        {
+                            if (ParallelFuture.this.pendingSections.decrementAndGet() == 0)
+                            {
+                                ParallelFuture.this.runCompletion(completion);
+                            }
+                        }
+                    }
+                });
+            }
+            catch (RejectedExecutionException error)
+            {
+                this.fail(error);
+                if (this.pendingSections.addAndGet(i - count) == 0)
+                {
+                    this.runCompletion(completion);
+                }
+                return;
+            }
+        }
+    }
+
+    private void runCompletion(Runnable completion)
+    {
+        if (this.isDone())
+        {
+            return;
+        }
+        try
+        {
+            completion.run();
+        }
+        catch (Throwable error)
+        {
+            this.fail(error);
+        }
+    }
+
+    void complete(R result)
+    {
+        this.finish(COMPLETED, result, null);
+    }
+
+    void fail(Throwable error)
+    {
+        this.finish(FAILED, null, error);
+    }
+
+    /**
+     * Completes the future straight away.  Sections which are already running are not interrupted, whatever
+     * mayInterruptIfRunning says.
+     */
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        return this.finish(CANCELLED, null, null);
+    }
+
+    private synchronized boolean finish(int newState, R newResult, Throwable newError)
+    {
+        if (this.state != RUNNING)
+        {
+            return false;
+        }
+        this.result = newResult;
+        this.error = newError;
+        this.state = newState;
+        this.notifyAll();
+        return true;
+    }
+
+    public boolean isCancelled()
+    {
+        return this.state == CANCELLED;
+    }
+
+    public boolean isDone()
+    {
+        return this.state != RUNNING;
+    }
+
+    public synchronized R get() throws InterruptedException, ExecutionException
+    {
+        while (this.state == RUNNING)
+        {
+            this.wait();
+        }
+        return this.report();
+    }
+
+    public synchronized R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+    {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        while (this.state == RUNNING)
+        {
+            if (remaining <= 0L)
+            {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return this.report();
+    }
+
+    private R report() throws ExecutionException
+    {
+        if (this.state == CANCELLED)
+        {
+            throw new CancellationException();
+        }
+        if (this.state == FAILED)
+        {
+            throw new ExecutionException(this.error);
+        }
+        return this.result;
+    }
+
+    /**
+     * Returns the first index of the specified section when size elements are split into count sections.
+     */
+    static int sectionStart(int size, int count, int section)
+    {
+        return (int) ((long) size * section / count);
+    }
+}
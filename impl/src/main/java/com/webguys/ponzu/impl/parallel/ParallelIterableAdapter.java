@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.Executor;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * The source of a chain of {@link com.webguys.ponzu.api.ParallelIterable} operations.  The source is divided into
+ * batches of roughly batchSize elements by {@link ParallelIterate}, so random access lists are split by index and
+ * {@link BatchIterable}s by their own batches, and the batches are run on the executor.
+ *
+ * @since 1.3
+ */
+public final class ParallelIterableAdapter<T>
+        extends AbstractParallelIterable<T>
+{
+    private final Iterable<T> source;
+    private final Executor executor;
+    private final int batchSize;
+
+    public ParallelIterableAdapter(Iterable<T> source, Executor executor, int batchSize)
+    {
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be at least 1 but was " + batchSize);
+        }
+        this.source = source;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected <BT extends Procedure<? super T>> void forEach(ProcedureFactory<BT> procedureFactory, Combiner<BT> combiner)
+    {
+        ParallelIterate.forEach(this.source, procedureFactory, combiner, this.batchSize, this.executor);
+    }
+}
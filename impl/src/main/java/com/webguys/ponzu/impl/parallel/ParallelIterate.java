@@ -17,23 +17,34 @@
 package com.webguys.ponzu.impl.parallel;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.RandomAccess;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
 import com.webguys.ponzu.api.block.predicate.Predicate;
 import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
 import com.webguys.ponzu.api.block.procedure.Procedure;
 import com.webguys.ponzu.api.list.ListIterable;
 import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import com.webguys.ponzu.impl.block.factory.Predicates;
+import com.webguys.ponzu.impl.block.procedure.MultimapEachPutProcedure;
 import com.webguys.ponzu.impl.block.procedure.MultimapPutProcedure;
 import com.webguys.ponzu.impl.list.fixed.ArrayAdapter;
-import com.webguys.ponzu.impl.multimap.list.SynchronizedPutFastListMultimap;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.multimap.list.FastListMultimap;
 import com.webguys.ponzu.impl.utility.Iterate;
 
 import static com.webguys.ponzu.impl.factory.Iterables.*;
@@ -45,6 +56,11 @@ import static com.webguys.ponzu.impl.factory.Iterables.*;
  * <p/>
  * All Collections that are not either a {@link RandomAccess} or {@link List} are first converted to a Java array
  * using {@link Iterate#toArray(Iterable)}, and then run with one of the {@code ParallelArrayIterate.forEach} methods.
+ * <p/>
+ * When the executor is a {@link ForkJoinPool}, which is the default, the source is split recursively into leaves of a
+ * fraction of a section each, so idle workers steal the unfinished halves of a slow stretch from busy ones, and the
+ * procedures are gathered back in order before being passed to the {@link Combiner}.  Any other executor is given one
+ * task per section.
  *
  * @see ParallelArrayIterate
  */
@@ -54,7 +70,7 @@ public final class ParallelIterate
     static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
     static final int TASK_RATIO = 2;
     static final int DEFAULT_PARALLEL_TASK_COUNT = ParallelIterate.getDefaultTaskCount();
-    static final ExecutorService EXECUTOR_SERVICE = ParallelIterate.newPooledExecutor(ParallelIterate.class.getSimpleName(), true);
+    static final ExecutorService EXECUTOR_SERVICE = ParallelIterate.newForkJoinPool(ParallelIterate.getDefaultMaxThreadPoolSize());
 
     private ParallelIterate()
     {
@@ -232,9 +248,17 @@ public final class ParallelIterate
         else
         {
             int threadCount = Math.min(size, taskCount);
-            ObjectIntProcedureFJTaskRunner<T, BT> runner =
-                    new ObjectIntProcedureFJTaskRunner<T, BT>(combiner, threadCount);
-            runner.executeAndCombine(executor, procedureFactory, list);
+            if (executor instanceof ForkJoinPool)
+            {
+                new ObjectIntProcedureForkJoinTask<T, BT>(procedureFactory, list, threadCount)
+                        .executeAndCombine((ForkJoinPool) executor, combiner);
+            }
+            else
+            {
+                ObjectIntProcedureFJTaskRunner<T, BT> runner =
+                        new ObjectIntProcedureFJTaskRunner<T, BT>(combiner, threadCount);
+                runner.executeAndCombine(executor, procedureFactory, list);
+            }
         }
     }
 
@@ -428,6 +452,16 @@ public final class ParallelIterate
                         taskCount,
                         executor);
             }
+            else if (iterable instanceof ConcurrentBatchIterable)
+            {
+                ParallelIterate.forEachInBatchWithExecutor(
+                        ((ConcurrentBatchIterable<T>) iterable).batchSnapshot(),
+                        procedureFactory,
+                        combiner,
+                        minForkSize,
+                        taskCount,
+                        executor);
+            }
             else if (iterable instanceof BatchIterable)
             {
                 ParallelIterate.forEachInBatchWithExecutor(
@@ -463,7 +497,14 @@ public final class ParallelIterate
         if (size < minForkSize)
         {
             BT procedure = procedureFactory.create();
-            Iterate.forEach(list, procedure);
+            try
+            {
+                Iterate.forEach(list, procedure);
+            }
+            catch (SectionStoppedException ignored)
+            {
+                // The procedure ended the only section early
+            }
             if (combiner.useCombineOne())
             {
                 combiner.combineOne(procedure);
@@ -476,9 +517,17 @@ public final class ParallelIterate
         else
         {
             int threadCount = Math.min(size, taskCount);
-            ProcedureFJTaskRunner<T, BT> runner =
-                    new ProcedureFJTaskRunner<T, BT>(combiner, threadCount);
-            runner.executeAndCombine(executor, procedureFactory, list);
+            if (executor instanceof ForkJoinPool)
+            {
+                new ProcedureForkJoinTask<T, BT>(procedureFactory, list, threadCount)
+                        .executeAndCombine((ForkJoinPool) executor, combiner);
+            }
+            else
+            {
+                ProcedureFJTaskRunner<T, BT> runner =
+                        new ProcedureFJTaskRunner<T, BT>(combiner, threadCount);
+                runner.executeAndCombine(executor, procedureFactory, list);
+            }
         }
     }
 
@@ -494,7 +543,14 @@ public final class ParallelIterate
         if (size < minForkSize)
         {
             BT procedure = procedureFactory.create();
-            set.forEach(procedure);
+            try
+            {
+                set.forEach(procedure);
+            }
+            catch (SectionStoppedException ignored)
+            {
+                // The procedure ended the only section early
+            }
             if (combiner.useCombineOne())
             {
                 combiner.combineOne(procedure);
@@ -506,10 +562,18 @@ public final class ParallelIterate
         }
         else
         {
-            int threadCount = Math.min(size, Math.min(taskCount, set.getBatchCount((int) Math.ceil((double) size / (double) taskCount))));
-            BatchIterableProcedureFJTaskRunner<T, BT> runner =
-                    new BatchIterableProcedureFJTaskRunner<T, BT>(combiner, threadCount);
-            runner.executeAndCombine(executor, procedureFactory, set);
+            if (executor instanceof ForkJoinPool)
+            {
+                new BatchIterableProcedureForkJoinTask<T, BT>(procedureFactory, set, taskCount)
+                        .executeAndCombine((ForkJoinPool) executor, combiner);
+            }
+            else
+            {
+                int threadCount = Math.min(size, Math.min(taskCount, set.getBatchCount((int) Math.ceil((double) size / (double) taskCount))));
+                BatchIterableProcedureFJTaskRunner<T, BT> runner =
+                        new BatchIterableProcedureFJTaskRunner<T, BT>(combiner, threadCount);
+                runner.executeAndCombine(executor, procedureFactory, set);
+            }
         }
     }
 
@@ -707,6 +771,265 @@ public final class ParallelIterate
         return combiner.getCount();
     }
 
+    /**
+     * Returns the sum of the int values calculated by the function for each element, executed in parallel
+     * batches.  The result is accumulated as a long, so it does not
+     * overflow for large iterables.
+     *
+     * @since 1.3
+     */
+    public static <T> long sumOfInt(Iterable<T> iterable, IntFunction<? super T> function)
+    {
+        return ParallelIterate.sumOfInt(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #sumOfInt(Iterable, IntFunction)
+     * @since 1.3
+     */
+    public static <T> long sumOfInt(
+            Iterable<T> iterable,
+            IntFunction<? super T> function,
+            int batchSize,
+            Executor executor)
+    {
+        SumOfIntCombiner<T> combiner = new SumOfIntCombiner<T>();
+        ParallelIterate.forEach(iterable, new SumOfIntProcedureFactory<T>(function), combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
+    /**
+     * Returns the sum of the long values calculated by the function for each element, executed in parallel
+     * batches.
+     *
+     * @since 1.3
+     */
+    public static <T> long sumOfLong(Iterable<T> iterable, LongFunction<? super T> function)
+    {
+        return ParallelIterate.sumOfLong(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #sumOfLong(Iterable, LongFunction)
+     * @since 1.3
+     */
+    public static <T> long sumOfLong(
+            Iterable<T> iterable,
+            LongFunction<? super T> function,
+            int batchSize,
+            Executor executor)
+    {
+        SumOfLongCombiner<T> combiner = new SumOfLongCombiner<T>();
+        ParallelIterate.forEach(iterable, new SumOfLongProcedureFactory<T>(function), combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
+    /**
+     * Returns the sum of the double values calculated by the function for each element, executed in parallel
+     * batches.  The partial sums are accumulated and combined
+     * with Kahan summation, so the result does not depend on how the elements were divided between the tasks
+     * beyond ordinary rounding.
+     *
+     * @since 1.3
+     */
+    public static <T> double sumOfDouble(Iterable<T> iterable, DoubleFunction<? super T> function)
+    {
+        return ParallelIterate.sumOfDouble(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #sumOfDouble(Iterable, DoubleFunction)
+     * @since 1.3
+     */
+    public static <T> double sumOfDouble(
+            Iterable<T> iterable,
+            DoubleFunction<? super T> function,
+            int batchSize,
+            Executor executor)
+    {
+        SumOfDoubleCombiner<T> combiner = new SumOfDoubleCombiner<T>();
+        ParallelIterate.forEach(iterable, new SumOfDoubleProcedureFactory<T>(function), combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
+    /**
+     * Same effect as {@link Iterate#min(Iterable, Comparator)}, but executed in parallel batches.  When several
+     * elements are equally the minimum, the one returned is the first of them in iteration order.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T> T min(Iterable<T> iterable, Comparator<? super T> comparator)
+    {
+        return ParallelIterate.min(iterable, comparator, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #min(Iterable, Comparator)
+     * @since 1.3
+     */
+    public static <T> T min(
+            Iterable<T> iterable,
+            Comparator<? super T> comparator,
+            int batchSize,
+            Executor executor)
+    {
+        ComparatorProcedureFactory<T> procedureFactory = ComparatorProcedureFactory.min(comparator);
+        ComparatorProcedureCombiner<T> combiner = new ComparatorProcedureCombiner<T>(procedureFactory);
+        ParallelIterate.forEach(iterable, procedureFactory, combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
+    /**
+     * Same effect as {@link Iterate#min(Iterable)}, but executed in parallel batches.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T> T min(Iterable<T> iterable)
+    {
+        return ParallelIterate.min(iterable, Comparators.naturalOrder());
+    }
+
+    /**
+     * Returns the element for which the function returns the minimum value, executed in parallel batches.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T, V extends Comparable<? super V>> T minBy(Iterable<T> iterable, Function<? super T, ? extends V> function)
+    {
+        return ParallelIterate.min(iterable, Comparators.byFunction(function));
+    }
+
+    /**
+     * Same effect as {@link Iterate#max(Iterable, Comparator)}, but executed in parallel batches.  When several
+     * elements are equally the maximum, the one returned is the first of them in iteration order.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T> T max(Iterable<T> iterable, Comparator<? super T> comparator)
+    {
+        return ParallelIterate.max(iterable, comparator, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #max(Iterable, Comparator)
+     * @since 1.3
+     */
+    public static <T> T max(
+            Iterable<T> iterable,
+            Comparator<? super T> comparator,
+            int batchSize,
+            Executor executor)
+    {
+        ComparatorProcedureFactory<T> procedureFactory = ComparatorProcedureFactory.max(comparator);
+        ComparatorProcedureCombiner<T> combiner = new ComparatorProcedureCombiner<T>(procedureFactory);
+        ParallelIterate.forEach(iterable, procedureFactory, combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
+    /**
+     * Same effect as {@link Iterate#max(Iterable)}, but executed in parallel batches.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T> T max(Iterable<T> iterable)
+    {
+        return ParallelIterate.max(iterable, Comparators.naturalOrder());
+    }
+
+    /**
+     * Returns the element for which the function returns the maximum value, executed in parallel batches.
+     *
+     * @throws NoSuchElementException if the iterable is empty
+     * @since 1.3
+     */
+    public static <T, V extends Comparable<? super V>> T maxBy(Iterable<T> iterable, Function<? super T, ? extends V> function)
+    {
+        return ParallelIterate.max(iterable, Comparators.byFunction(function));
+    }
+
+    /**
+     * Same effect as {@link Iterate#anySatisfy(Iterable, Predicate)}, but executed in parallel batches.  As soon as
+     * any task finds a matching element, the remaining tasks stop iterating.
+     *
+     * @since 1.3
+     */
+    public static <T> boolean anySatisfy(Iterable<T> iterable, Predicate<? super T> predicate)
+    {
+        return ParallelIterate.anySatisfy(iterable, predicate, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #anySatisfy(Iterable, Predicate)
+     * @since 1.3
+     */
+    public static <T> boolean anySatisfy(
+            Iterable<T> iterable,
+            Predicate<? super T> predicate,
+            int batchSize,
+            Executor executor)
+    {
+        FindProcedureFactory<T> procedureFactory = new FindProcedureFactory<T>(predicate);
+        ParallelIterate.forEach(iterable, procedureFactory, new PassThruCombiner<FindProcedureFactory.FindProcedure<T>>(), batchSize, executor);
+        return procedureFactory.isFound();
+    }
+
+    /**
+     * Same effect as {@link Iterate#allSatisfy(Iterable, Predicate)}, but executed in parallel batches.  As soon as
+     * any task finds an element that does not match, the remaining tasks stop iterating.
+     *
+     * @since 1.3
+     */
+    public static <T> boolean allSatisfy(Iterable<T> iterable, Predicate<? super T> predicate)
+    {
+        return ParallelIterate.allSatisfy(iterable, predicate, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #allSatisfy(Iterable, Predicate)
+     * @since 1.3
+     */
+    public static <T> boolean allSatisfy(
+            Iterable<T> iterable,
+            Predicate<? super T> predicate,
+            int batchSize,
+            Executor executor)
+    {
+        return !ParallelIterate.anySatisfy(iterable, Predicates.not(predicate), batchSize, executor);
+    }
+
+    /**
+     * Same effect as {@link Iterate#find(Iterable, Predicate)}, but executed in parallel batches.  As soon as any
+     * task finds a matching element, the remaining tasks stop iterating.  Because of this, when more
+     * than one element matches, the element returned is not necessarily the first match in iteration order.
+     *
+     * @return a matching element, or null if there is none
+     * @since 1.3
+     */
+    public static <T> T find(Iterable<T> iterable, Predicate<? super T> predicate)
+    {
+        return ParallelIterate.find(iterable, predicate, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #find(Iterable, Predicate)
+     * @since 1.3
+     */
+    public static <T> T find(
+            Iterable<T> iterable,
+            Predicate<? super T> predicate,
+            int batchSize,
+            Executor executor)
+    {
+        FindCombiner<T> combiner = new FindCombiner<T>();
+        ParallelIterate.forEach(iterable, new FindProcedureFactory<T>(predicate), combiner, batchSize, executor);
+        return combiner.getResult();
+    }
+
     /**
      * Same effect as {@link Iterate#transform(Iterable, Function)},
      * but executed in parallel batches.
@@ -921,7 +1244,9 @@ public final class ParallelIterate
 
     /**
      * Same effect as {@link Iterate#groupBy(Iterable, Function)},
-     * but executed in parallel batches, and writing output into a SynchronizedPutFastListMultimap.
+     * but executed in parallel batches, and returning a FastListMultimap.
+     *
+     * @see #groupBy(Iterable, Function, int, Executor)
      */
     public static <K, V> MutableMultimap<K, V> groupBy(
             Iterable<V> iterable,
@@ -957,7 +1282,9 @@ public final class ParallelIterate
 
     /**
      * Same effect as {@link Iterate#groupBy(Iterable, Function)},
-     * but executed in parallel batches, and writing output into a SynchronizedPutFastListMultimap.
+     * but executed in parallel batches, and returning a FastListMultimap.
+     *
+     * @see #groupBy(Iterable, Function, int, Executor)
      */
     public static <K, V> MutableMultimap<K, V> groupBy(
             Iterable<V> iterable,
@@ -969,7 +1296,12 @@ public final class ParallelIterate
 
     /**
      * Same effect as {@link Iterate#groupBy(Iterable, Function)},
-     * but executed in parallel batches, and writing output into a SynchronizedPutFastListMultimap.
+     * but executed in parallel batches, and returning a FastListMultimap.
+     * <p/>
+     * Rather than having every batch put into one shared multimap, each batch groups its elements into private
+     * multimaps partitioned by the hash of the key.  The partitions are then merged in parallel, one task per
+     * partition, and as no two partitions share a key there is no locking at any stage.  The values for each key are
+     * in the same order as {@link Iterate#groupBy(Iterable, Function)} would put them.
      */
     public static <K, V> MutableMultimap<K, V> groupBy(
             Iterable<V> iterable,
@@ -977,7 +1309,8 @@ public final class ParallelIterate
             int batchSize,
             Executor executor)
     {
-        return ParallelIterate.groupBy(iterable, function, SynchronizedPutFastListMultimap.<K, V>newMultimap(), batchSize, executor);
+        int partitionCount = ParallelIterate.calculatePartitionCount(executor);
+        return ParallelIterate.partitionedGroupBy(iterable, GroupByProcedureFactory.<K, V>groupBy(function, partitionCount), batchSize, executor);
     }
 
     /**
@@ -1000,6 +1333,318 @@ public final class ParallelIterate
         return concurrentMultimap;
     }
 
+    /**
+     * Same effect as {@link Iterate#groupByEach(Iterable, Function)},
+     * but executed in parallel batches, and returning a FastListMultimap.
+     *
+     * @see #groupBy(Iterable, Function, int, Executor)
+     * @since 1.3
+     */
+    public static <K, V> MutableMultimap<K, V> groupByEach(
+            Iterable<V> iterable,
+            Function<? super V, ? extends Iterable<K>> function)
+    {
+        return ParallelIterate.groupByEach(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #groupByEach(Iterable, Function)
+     * @since 1.3
+     */
+    public static <K, V> MutableMultimap<K, V> groupByEach(
+            Iterable<V> iterable,
+            Function<? super V, ? extends Iterable<K>> function,
+            int batchSize)
+    {
+        return ParallelIterate.groupByEach(iterable, function, batchSize, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #groupByEach(Iterable, Function)
+     * @since 1.3
+     */
+    public static <K, V> MutableMultimap<K, V> groupByEach(
+            Iterable<V> iterable,
+            Function<? super V, ? extends Iterable<K>> function,
+            int batchSize,
+            Executor executor)
+    {
+        int partitionCount = ParallelIterate.calculatePartitionCount(executor);
+        return ParallelIterate.partitionedGroupBy(iterable, GroupByProcedureFactory.<K, V>groupByEach(function, partitionCount), batchSize, executor);
+    }
+
+    /**
+     * Same effect as {@link Iterate#groupByEach(Iterable, Function)},
+     * but executed in parallel batches, and writing output into the specified concurrent multimap.
+     *
+     * @since 1.3
+     */
+    public static <K, V, R extends MutableMultimap<K, V>> MutableMultimap<K, V> groupByEach(
+            Iterable<V> iterable,
+            Function<? super V, ? extends Iterable<K>> function,
+            R concurrentMultimap,
+            int batchSize,
+            Executor executor)
+    {
+        ParallelIterate.forEach(
+                iterable,
+                new PassThruProcedureFactory<Procedure<V>>(new MultimapEachPutProcedure<K, V>(concurrentMultimap, function)),
+                Combiners.<Procedure<V>>passThru(),
+                batchSize,
+                executor);
+        return concurrentMultimap;
+    }
+
+    /**
+     * Same effect as {@link #forEach(Iterable, Procedure)}, but returns straight away with a Future which is completed
+     * by the last batch to finish.  Cancelling the Future stops the batches which have not started yet.
+     *
+     * @since 1.3
+     */
+    public static <T> Future<Void> forEachAsync(Iterable<T> iterable, Procedure<? super T> procedure)
+    {
+        return ParallelIterate.forEachAsync(iterable, procedure, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #forEachAsync(Iterable, Procedure)
+     * @since 1.3
+     */
+    public static <T> Future<Void> forEachAsync(
+            Iterable<T> iterable,
+            Procedure<? super T> procedure,
+            int batchSize,
+            Executor executor)
+    {
+        final ParallelFuture<Void> future = new ParallelFuture<Void>();
+        ParallelIterate.forkBatches(
+                iterable,
+                new PassThruProcedureFactory<Procedure<? super T>>(procedure),
+                new PassThruCombiner<Procedure<? super T>>(),
+                ParallelIterate.calculateTaskCount(iterable, batchSize),
+                future,
+                new Runnable()
+                {
+                    public void run()
+                    {
+                        future.complete(null);
+                    }
+                },
+                executor);
+        return future;
+    }
+
+    /**
+     * Same effect as {@link #filter(Iterable, Predicate)}, but returns straight away with a Future of the filtered
+     * elements, which is completed by the last batch to finish.  Cancelling the Future stops the batches which have not
+     * started yet.
+     *
+     * @since 1.3
+     */
+    public static <T> Future<Collection<T>> filterAsync(Iterable<T> iterable, Predicate<? super T> predicate)
+    {
+        return ParallelIterate.filterAsync(iterable, predicate, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #filterAsync(Iterable, Predicate)
+     * @since 1.3
+     */
+    public static <T> Future<Collection<T>> filterAsync(
+            Iterable<T> iterable,
+            Predicate<? super T> predicate,
+            int batchSize,
+            Executor executor)
+    {
+        final ParallelFuture<Collection<T>> future = new ParallelFuture<Collection<T>>();
+        final FilterProcedureCombiner<T> combiner = new FilterProcedureCombiner<T>(iterable, null, 10, false);
+        ParallelIterate.forkBatches(
+                iterable,
+                new FilterProcedureFactory<T>(predicate, batchSize),
+                combiner,
+                ParallelIterate.calculateTaskCount(iterable, batchSize),
+                future,
+                new Runnable()
+                {
+                    public void run()
+                    {
+                        future.complete(combiner.getResult());
+                    }
+                },
+                executor);
+        return future;
+    }
+
+    /**
+     * Same effect as {@link #transform(Iterable, Function)}, but returns straight away with a Future of the
+     * transformed elements, which is completed by the last batch to finish.  Cancelling the Future stops the batches
+     * which have not started yet.
+     *
+     * @since 1.3
+     */
+    public static <T, V> Future<Collection<V>> transformAsync(Iterable<T> iterable, Function<? super T, V> function)
+    {
+        return ParallelIterate.transformAsync(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #transformAsync(Iterable, Function)
+     * @since 1.3
+     */
+    public static <T, V> Future<Collection<V>> transformAsync(
+            Iterable<T> iterable,
+            Function<? super T, V> function,
+            int batchSize,
+            Executor executor)
+    {
+        int size = Iterate.sizeOf(iterable);
+        final ParallelFuture<Collection<V>> future = new ParallelFuture<Collection<V>>();
+        final TransformProcedureCombiner<T, V> combiner = new TransformProcedureCombiner<T, V>(iterable, null, size, false);
+        int taskCount = ParallelIterate.calculateTaskCount(size, batchSize);
+        ParallelIterate.forkBatches(
+                iterable,
+                new TransformProcedureFactory<T, V>(function, size / taskCount),
+                combiner,
+                taskCount,
+                future,
+                new Runnable()
+                {
+                    public void run()
+                    {
+                        future.complete(combiner.getResult());
+                    }
+                },
+                executor);
+        return future;
+    }
+
+    /**
+     * Same effect as {@link #groupBy(Iterable, Function)}, but returns straight away with a Future of the multimap.
+     * The batches group their elements into partitions by key hash as {@link #groupBy(Iterable, Function, int, Executor)}
+     * does, and the last batch to finish forks the merging of the partitions, the last of which completes the Future.
+     * Cancelling the Future stops the batches and merges which have not started yet.
+     *
+     * @since 1.3
+     */
+    public static <K, V> Future<MutableMultimap<K, V>> groupByAsync(
+            Iterable<V> iterable,
+            Function<? super V, ? extends K> function)
+    {
+        return ParallelIterate.groupByAsync(iterable, function, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    /**
+     * @see #groupByAsync(Iterable, Function)
+     * @since 1.3
+     */
+    public static <K, V> Future<MutableMultimap<K, V>> groupByAsync(
+            Iterable<V> iterable,
+            Function<? super V, ? extends K> function,
+            int batchSize,
+            final Executor executor)
+    {
+        final ParallelFuture<MutableMultimap<K, V>> future = new ParallelFuture<MutableMultimap<K, V>>();
+        final GroupByCombiner<K, V> combiner = new GroupByCombiner<K, V>(ParallelIterate.calculatePartitionCount(executor));
+        final FastListMultimap<K, V>[] merged = combiner.newPartitionArray();
+        ParallelIterate.forkBatches(
+                iterable,
+                GroupByProcedureFactory.<K, V>groupBy(function, combiner.getPartitionCount()),
+                combiner,
+                ParallelIterate.calculateTaskCount(iterable, batchSize),
+                future,
+                new Runnable()
+                {
+                    public void run()
+                    {
+                        future.fork(combiner.getPartitionCount(), new Procedure<Integer>()
+                        {
+                            public void value(Integer index)
+                            {
+                                merged[index] = combiner.mergePartition(index);
+                            }
+                        }, new Runnable()
+                        {
+                            public void run()
+                            {
+                                future.complete(GroupByCombiner.gather(merged));
+                            }
+                        }, executor);
+                    }
+                },
+                executor);
+        return future;
+    }
+
+    /**
+     * Forks the batches of an async method onto the future, combines them on the thread of the last batch to finish,
+     * and then runs whenCombined on the same thread.
+     */
+    private static <T, BT extends Procedure<? super T>> void forkBatches(
+            Iterable<T> iterable,
+            final ProcedureFactory<BT> procedureFactory,
+            final Combiner<BT> combiner,
+            int taskCount,
+            ParallelFuture<?> future,
+            final Runnable whenCombined,
+            Executor executor)
+    {
+        final List<T> list = iterable instanceof List && iterable instanceof RandomAccess
+                ? (List<T>) iterable
+                : FastList.newList(iterable);
+        final int size = list.size();
+        final int batchCount = Math.min(size, taskCount);
+        final BT[] procedures = (BT[]) new Procedure<?>[batchCount];
+        future.fork(batchCount, new Procedure<Integer>()
+        {
+            public void value(Integer batch)
+            {
+                BT procedure = procedureFactory.create();
+                int end = ParallelFuture.sectionStart(size, batchCount, batch + 1);
+                for (int i = ParallelFuture.sectionStart(size, batchCount, batch); i < end; i++)
+                {
+                    procedure.value(list.get(i));
+                }
+                procedures[batch] = procedure;
+            }
+        }, new Runnable()
+        {
+            public void run()
+            {
+                if (combiner.useCombineOne())
+                {
+                    for (BT procedure : procedures)
+                    {
+                        combiner.combineOne(procedure);
+                    }
+                }
+                else
+                {
+                    combiner.combineAll(ArrayAdapter.adapt(procedures));
+                }
+                whenCombined.run();
+            }
+        }, executor);
+    }
+
+    private static <K, V> MutableMultimap<K, V> partitionedGroupBy(
+            Iterable<V> iterable,
+            GroupByProcedureFactory<K, V> procedureFactory,
+            int batchSize,
+            Executor executor)
+    {
+        GroupByCombiner<K, V> combiner = new GroupByCombiner<K, V>(procedureFactory.getPartitionCount());
+        ParallelIterate.forEach(iterable, procedureFactory, combiner, batchSize, executor);
+        return combiner.getResult(executor);
+    }
+
+    static int calculatePartitionCount(Executor executor)
+    {
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : ParallelIterate.getDefaultMaxThreadPoolSize();
+        return Integer.highestOneBit(parallelism * ParallelIterate.getTaskRatio() - 1) << 1;
+    }
+
     /**
      * Returns a brand new ExecutorService using the specified poolName with the specified maximum thread pool size. The
      * same poolName may be used more than once resulting in multiple pools with the same name.
@@ -1019,6 +1664,16 @@ public final class ParallelIterate
                 new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
+    /**
+     * Returns a brand new ForkJoinPool with the specified parallelism.  Executing the parallel algorithms on a
+     * ForkJoinPool uses the work-stealing engine rather than one task per section, which keeps all of the workers busy
+     * when the cost of processing each element is uneven.  The worker threads are daemon threads.
+     */
+    public static ForkJoinPool newForkJoinPool(int parallelism)
+    {
+        return new ForkJoinPool(parallelism);
+    }
+
     /**
      * Returns a brand new ExecutorService using the specified poolName and uses the optional property named
      * to set the maximum thread pool size.  The same poolName may be used more than
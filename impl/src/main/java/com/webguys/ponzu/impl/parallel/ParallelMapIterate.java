@@ -22,6 +22,11 @@ import java.util.concurrent.Executor;
 import com.webguys.ponzu.api.block.procedure.Procedure;
 import com.webguys.ponzu.api.block.procedure.Procedure2;
 import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntObjectProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongObjectProcedure;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.map.mutable.primitive.IntObjectHashMap;
+import com.webguys.ponzu.impl.map.mutable.primitive.LongObjectHashMap;
 import com.webguys.ponzu.impl.utility.MapIterate;
 
 /**
@@ -117,6 +122,96 @@ public final class ParallelMapIterate
         }
     }
 
+    /**
+     * A parallel form of forEachKeyValue for {@link IntObjectHashMap}.  The map's table is split into sections
+     * directly, so neither the keys nor the entries are copied or boxed.
+     *
+     * @see IntObjectHashMap#forEachKeyValue(IntObjectProcedure)
+     */
+    public static <V> void forEachKeyValue(IntObjectHashMap<V> map, IntObjectProcedure<? super V> procedure)
+    {
+        ParallelMapIterate.forEachKeyValue(map, procedure, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.DEFAULT_PARALLEL_TASK_COUNT);
+    }
+
+    public static <V> void forEachKeyValue(
+            IntObjectHashMap<V> map,
+            IntObjectProcedure<? super V> procedure,
+            int minForkSize,
+            int taskCount)
+    {
+        ParallelMapIterate.forEachKeyValue(map, procedure, minForkSize, taskCount, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    public static <V> void forEachKeyValue(
+            final IntObjectHashMap<V> map,
+            final IntObjectProcedure<? super V> procedure,
+            int minForkSize,
+            int taskCount,
+            Executor executor)
+    {
+        int size = map.size();
+        if (size > minForkSize)
+        {
+            final int sectionCount = Math.min(taskCount, map.getBatchCount((int) Math.ceil((double) size / (double) taskCount)));
+            ParallelIterate.forEach(Interval.zeroTo(sectionCount - 1), new Procedure<Integer>()
+            {
+                public void value(Integer sectionIndex)
+                {
+                    map.batchForEachKeyValue(procedure, sectionIndex, sectionCount);
+                }
+            }, 1, sectionCount, executor);
+        }
+        else
+        {
+            map.forEachKeyValue(procedure);
+        }
+    }
+
+    /**
+     * A parallel form of forEachKeyValue for {@link LongObjectHashMap}.  The map's table is split into sections
+     * directly, so neither the keys nor the entries are copied or boxed.
+     *
+     * @see LongObjectHashMap#forEachKeyValue(LongObjectProcedure)
+     */
+    public static <V> void forEachKeyValue(LongObjectHashMap<V> map, LongObjectProcedure<? super V> procedure)
+    {
+        ParallelMapIterate.forEachKeyValue(map, procedure, ParallelIterate.DEFAULT_MIN_FORK_SIZE, ParallelIterate.DEFAULT_PARALLEL_TASK_COUNT);
+    }
+
+    public static <V> void forEachKeyValue(
+            LongObjectHashMap<V> map,
+            LongObjectProcedure<? super V> procedure,
+            int minForkSize,
+            int taskCount)
+    {
+        ParallelMapIterate.forEachKeyValue(map, procedure, minForkSize, taskCount, ParallelIterate.EXECUTOR_SERVICE);
+    }
+
+    public static <V> void forEachKeyValue(
+            final LongObjectHashMap<V> map,
+            final LongObjectProcedure<? super V> procedure,
+            int minForkSize,
+            int taskCount,
+            Executor executor)
+    {
+        int size = map.size();
+        if (size > minForkSize)
+        {
+            final int sectionCount = Math.min(taskCount, map.getBatchCount((int) Math.ceil((double) size / (double) taskCount)));
+            ParallelIterate.forEach(Interval.zeroTo(sectionCount - 1), new Procedure<Integer>()
+            {
+                public void value(Integer sectionIndex)
+                {
+                    map.batchForEachKeyValue(procedure, sectionIndex, sectionCount);
+                }
+            }, 1, sectionCount, executor);
+        }
+        else
+        {
+            map.forEachKeyValue(procedure);
+        }
+    }
+
     private static final class PairProcedure<T1, T2> implements Procedure<Pair<T1, T2>>
     {
         private static final long serialVersionUID = 1L;
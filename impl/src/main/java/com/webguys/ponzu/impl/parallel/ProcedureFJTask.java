@@ -70,6 +70,10 @@ public final class ProcedureFJTask<T, BT extends Procedure<? super T>> implement
                 ListIterate.forEach(this.list, this.start, stop, this.procedure);
             }
         }
+        catch (SectionStoppedException ignored)
+        {
+            // The procedure ended its section early
+        }
         catch (Throwable newError)
         {
             this.taskRunner.setFailed(newError);
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.ListIterable;
+import com.webguys.ponzu.impl.utility.ArrayListIterate;
+import com.webguys.ponzu.impl.utility.ListIterate;
+
+/**
+ * The ForkJoinPool counterpart of {@link ProcedureFJTask}, recursively splitting a random access list.
+ *
+ * @since 1.3
+ */
+public final class ProcedureForkJoinTask<T, BT extends Procedure<? super T>>
+        extends AbstractProcedureForkJoinTask<BT>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final ProcedureFactory<BT> procedureFactory;
+    private final List<T> list;
+
+    public ProcedureForkJoinTask(ProcedureFactory<BT> procedureFactory, List<T> list, int taskCount)
+    {
+        this(procedureFactory, list, 0, list.size(), leafSize(list.size(), taskCount));
+    }
+
+    private ProcedureForkJoinTask(
+            ProcedureFactory<BT> procedureFactory,
+            List<T> list,
+            int from,
+            int to,
+            int leafSize)
+    {
+        super(from, to, leafSize);
+        this.procedureFactory = procedureFactory;
+        this.list = list;
+    }
+
+    @Override
+    protected BT newProcedure()
+    {
+        return this.procedureFactory.create();
+    }
+
+    @Override
+    protected void executeRange(int newFrom, int newTo, BT procedure)
+    {
+        int stop = newTo - 1;
+        if (this.list instanceof ListIterable)
+        {
+            ((ListIterable<T>) this.list).forEach(newFrom, stop, procedure);
+        }
+        else if (this.list instanceof ArrayList)
+        {
+            ArrayListIterate.forEach((ArrayList<T>) this.list, newFrom, stop, procedure);
+        }
+        else
+        {
+            ListIterate.forEach(this.list, newFrom, stop, procedure);
+        }
+    }
+
+    @Override
+    protected ProcedureForkJoinTask<T, BT> newSubTask(int newFrom, int newTo)
+    {
+        return new ProcedureForkJoinTask<T, BT>(this.procedureFactory, this.list, newFrom, newTo, this.leafSize);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.parallel;
+
+/**
+ * Thrown by a procedure to end the section it is running over, once the outcome of the whole execution is already
+ * known.  The section runners treat it as the normal end of the section and still pass the procedure to the
+ * combiner.  It carries no stack trace, so a single shared instance is used.
+ *
+ * @since 1.3
+ */
+final class SectionStoppedException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    static final SectionStoppedException INSTANCE = new SectionStoppedException();
+
+    private SectionStoppedException()
+    {
+        super("Section stopped early", null, false, false);
+    }
+}
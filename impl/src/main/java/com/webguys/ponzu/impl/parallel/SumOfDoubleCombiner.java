@@ -0,0 +1,58 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.impl.block.procedure.SumOfDoubleProcedure;
+
+/**
+ * Combines the partial sums held by a Collection of SumOfDoubleProcedures, carrying the Kahan compensation of each
+ * partial sum into the total so that the result is as accurate as a sequential compensated sum.
+ *
+ * @since 1.3
+ */
+public final class SumOfDoubleCombiner<T>
+        extends AbstractProcedureCombiner<SumOfDoubleProcedure<T>>
+{
+    private static final long serialVersionUID = 1L;
+    private double result;
+    private double compensation;
+
+    public SumOfDoubleCombiner()
+    {
+        super(true);
+    }
+
+    public void combineOne(SumOfDoubleProcedure<T> procedure)
+    {
+        this.add(procedure.getResult());
+        this.add(-procedure.getCompensation());
+    }
+
+    private void add(double value)
+    {
+        double adjustedValue = value - this.compensation;
+        double nextSum = this.result + adjustedValue;
+        this.compensation = nextSum - this.result - adjustedValue;
+        this.result = nextSum;
+    }
+
+    public double getResult()
+    {
+        return this.result;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.impl.block.procedure.SumOfIntProcedure;
+
+/**
+ * Combines the partial sums held by a Collection of SumOfIntProcedures.
+ *
+ * @since 1.3
+ */
+public final class SumOfIntCombiner<T>
+        extends AbstractProcedureCombiner<SumOfIntProcedure<T>>
+{
+    private static final long serialVersionUID = 1L;
+    private long result;
+
+    public SumOfIntCombiner()
+    {
+        super(true);
+    }
+
+    public void combineOne(SumOfIntProcedure<T> procedure)
+    {
+        this.result += procedure.getResult();
+    }
+
+    public long getResult()
+    {
+        return this.result;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.impl.block.procedure.SumOfIntProcedure;
+
+public final class SumOfIntProcedureFactory<T> implements ProcedureFactory<SumOfIntProcedure<T>>
+{
+    private final IntFunction<? super T> function;
+
+    public SumOfIntProcedureFactory(IntFunction<? super T> function)
+    {
+        this.function = function;
+    }
+
+    public SumOfIntProcedure<T> create()
+    {
+        return new SumOfIntProcedure<T>(this.function);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+
+/**
+ * A ParallelIterable that passes on the result of applying a function to each element of its source.
+ *
+ * @since 1.3
+ */
+public final class TransformParallelIterable<T, V>
+        extends AbstractParallelIterable<V>
+{
+    private final AbstractParallelIterable<T> parent;
+    private final Function<? super T, ? extends V> function;
+
+    public TransformParallelIterable(AbstractParallelIterable<T> parent, Function<? super T, ? extends V> function)
+    {
+        this.parent = parent;
+        this.function = function;
+    }
+
+    @Override
+    protected <BT extends Procedure<? super V>> void forEach(final ProcedureFactory<BT> procedureFactory, Combiner<BT> combiner)
+    {
+        this.parent.forEach(new ProcedureFactory<StageProcedure<T, BT>>()
+        {
+            public StageProcedure<T, BT> create()
+            {
+                return new TransformStageProcedure<T, V, BT>(TransformParallelIterable.this.function, procedureFactory.create());
+            }
+        }, new StageCombiner<T, BT>(combiner));
+    }
+
+    private static final class TransformStageProcedure<T, V, BT extends Procedure<? super V>>
+            extends StageProcedure<T, BT>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Function<? super T, ? extends V> function;
+
+        private TransformStageProcedure(Function<? super T, ? extends V> function, BT downstream)
+        {
+            super(downstream);
+            this.function = function;
+        }
+
+        public void value(T each)
+        {
+            this.downstream.value(this.function.valueOf(each));
+        }
+    }
+}
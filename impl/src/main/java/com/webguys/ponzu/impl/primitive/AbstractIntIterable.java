@@ -0,0 +1,277 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.list.primitive.IntArrayList;
+
+/**
+ * A skeletal implementation of {@link IntIterable} in terms of {@link #intIterator()} and {@link #size()}, for
+ * views which do not own an array of their elements.  Subclasses should override the methods for which they have a
+ * faster implementation, such as forEach and contains.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractIntIterable
+        implements IntIterable
+{
+    public void forEach(IntProcedure procedure)
+    {
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            procedure.value(iterator.next());
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    public boolean contains(int value)
+    {
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next() == value)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean containsAll(int... source)
+    {
+        for (int each : source)
+        {
+            if (!this.contains(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        int count = 0;
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            if (predicate.accept(iterator.next()))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            if (predicate.accept(iterator.next()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            if (!predicate.accept(iterator.next()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            int value = iterator.next();
+            if (predicate.accept(value))
+            {
+                return value;
+            }
+        }
+        return ifNone;
+    }
+
+    public IntIterable filter(IntPredicate predicate)
+    {
+        IntArrayList result = new IntArrayList();
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            int value = iterator.next();
+            if (predicate.accept(value))
+            {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public IntIterable filterNot(IntPredicate predicate)
+    {
+        IntArrayList result = new IntArrayList();
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            int value = iterator.next();
+            if (!predicate.accept(value))
+            {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public <V> RichIterable<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        FastList<V> result = FastList.newList(this.size());
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            result.add(function.valueOf(iterator.next()));
+        }
+        return result;
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            result += iterator.next();
+        }
+        return result;
+    }
+
+    public int min()
+    {
+        IntIterator iterator = this.intIterator();
+        if (!iterator.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        int min = iterator.next();
+        while (iterator.hasNext())
+        {
+            min = Math.min(min, iterator.next());
+        }
+        return min;
+    }
+
+    public int max()
+    {
+        IntIterator iterator = this.intIterator();
+        if (!iterator.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        int max = iterator.next();
+        while (iterator.hasNext())
+        {
+            max = Math.max(max, iterator.next());
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty iterable");
+        }
+        return (double) this.sum() / (double) this.size();
+    }
+
+    public int[] toArray()
+    {
+        int[] result = new int[this.size()];
+        int index = 0;
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            result[index++] = iterator.next();
+        }
+        return result;
+    }
+
+    public int[] toSortedArray()
+    {
+        int[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            builder.append(iterator.next());
+            if (iterator.hasNext())
+            {
+                builder.append(separator);
+            }
+        }
+        return builder.append(end).toString();
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.list.primitive.LongArrayList;
+
+/**
+ * A skeletal implementation of {@link LongIterable} in terms of {@link #longIterator()} and {@link #size()}, for
+ * views which do not own an array of their elements.  Subclasses should override the methods for which they have a
+ * faster implementation, such as forEach and contains.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractLongIterable
+        implements LongIterable
+{
+    public void forEach(LongProcedure procedure)
+    {
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            procedure.value(iterator.next());
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    public boolean contains(long value)
+    {
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next() == value)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean containsAll(long... source)
+    {
+        for (long each : source)
+        {
+            if (!this.contains(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        int count = 0;
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            if (predicate.accept(iterator.next()))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            if (predicate.accept(iterator.next()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            if (!predicate.accept(iterator.next()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            long value = iterator.next();
+            if (predicate.accept(value))
+            {
+                return value;
+            }
+        }
+        return ifNone;
+    }
+
+    public LongIterable filter(LongPredicate predicate)
+    {
+        LongArrayList result = new LongArrayList();
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            long value = iterator.next();
+            if (predicate.accept(value))
+            {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public LongIterable filterNot(LongPredicate predicate)
+    {
+        LongArrayList result = new LongArrayList();
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            long value = iterator.next();
+            if (!predicate.accept(value))
+            {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public <V> RichIterable<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        FastList<V> result = FastList.newList(this.size());
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            result.add(function.valueOf(iterator.next()));
+        }
+        return result;
+    }
+
+    public long sum()
+    {
+        long result = 0L;
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            result += iterator.next();
+        }
+        return result;
+    }
+
+    public long min()
+    {
+        LongIterator iterator = this.longIterator();
+        if (!iterator.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        long min = iterator.next();
+        while (iterator.hasNext())
+        {
+            min = Math.min(min, iterator.next());
+        }
+        return min;
+    }
+
+    public long max()
+    {
+        LongIterator iterator = this.longIterator();
+        if (!iterator.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        long max = iterator.next();
+        while (iterator.hasNext())
+        {
+            max = Math.max(max, iterator.next());
+        }
+        return max;
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty iterable");
+        }
+        return (double) this.sum() / (double) this.size();
+    }
+
+    public long[] toArray()
+    {
+        long[] result = new long[this.size()];
+        int index = 0;
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            result[index++] = iterator.next();
+        }
+        return result;
+    }
+
+    public long[] toSortedArray()
+    {
+        long[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            builder.append(iterator.next());
+            if (iterator.hasNext())
+            {
+                builder.append(separator);
+            }
+        }
+        return builder.append(end).toString();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.primitive;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+
+/**
+ * DoubleIterable is the primitive counterpart of RichIterable for double values.  Implementations store their elements
+ * as double primitives, and all of the internal iteration methods take primitive blocks, so no Double objects are
+ * created while iterating.
+ *
+ * @since 1.3
+ */
+public interface DoubleIterable
+{
+    /**
+     * Returns a primitive iterator that can be used to iterate over the DoubleIterable as an external iterator.
+     */
+    DoubleIterator doubleIterator();
+
+    void forEach(DoubleProcedure procedure);
+
+    /**
+     * Returns the number of items in this iterable.
+     */
+    int size();
+
+    /**
+     * Returns true if this iterable has zero items.
+     */
+    boolean isEmpty();
+
+    /**
+     * The English equivalent of !this.isEmpty()
+     */
+    boolean notEmpty();
+
+    /**
+     * Returns true if the value is contained in the DoubleIterable, and false if it is not.
+     */
+    boolean contains(double value);
+
+    /**
+     * Returns true if all of the values specified in the source array are contained in the DoubleIterable, and false
+     * if they are not.
+     */
+    boolean containsAll(double... source);
+
+    /**
+     * Returns the count of the number of elements that evaluate to true for the specified predicate.
+     */
+    int count(DoublePredicate predicate);
+
+    /**
+     * Returns true if any of the elements evaluate to true for the specified predicate.
+     */
+    boolean anySatisfy(DoublePredicate predicate);
+
+    /**
+     * Returns true if all of the elements evaluate to true for the specified predicate, or if the iterable is empty.
+     */
+    boolean allSatisfy(DoublePredicate predicate);
+
+    /**
+     * Returns the first element which evaluates to true for the specified predicate, or ifNone if no element does.
+     */
+    double find(DoublePredicate predicate, double ifNone);
+
+    /**
+     * Returns a new DoubleIterable with all of the elements that evaluate to true for the specified predicate.
+     */
+    DoubleIterable filter(DoublePredicate predicate);
+
+    /**
+     * Returns a new DoubleIterable with all of the elements that evaluate to false for the specified predicate.
+     */
+    DoubleIterable filterNot(DoublePredicate predicate);
+
+    /**
+     * Returns a new RichIterable with the results of applying the specified function to each element.
+     */
+    <V> RichIterable<V> transform(DoubleToObjectFunction<? extends V> function);
+
+    /**
+     * Returns the sum of the elements, computed with compensated (Kahan) summation to limit the loss of precision
+     * over large iterables.
+     */
+    double sum();
+
+    /**
+     * Returns the minimum element.
+     *
+     * @throws java.util.NoSuchElementException if the iterable is empty
+     */
+    double min();
+
+    /**
+     * Returns the maximum element.
+     *
+     * @throws java.util.NoSuchElementException if the iterable is empty
+     */
+    double max();
+
+    /**
+     * Returns the arithmetic mean of the elements.
+     *
+     * @throws ArithmeticException if the iterable is empty
+     */
+    double average();
+
+    /**
+     * Converts the DoubleIterable to a primitive double array.
+     */
+    double[] toArray();
+
+    /**
+     * Converts the DoubleIterable to a primitive double array, sorted in ascending order.
+     */
+    double[] toSortedArray();
+
+    /**
+     * Returns a string representation of this iterable.  The string representation consists of a list of the
+     * iterable's elements in the order they are returned by its iterator, enclosed in square brackets
+     * (<tt>"[]"</tt>).  Adjacent elements are separated by the characters <tt>", "</tt> (comma and space).
+     */
+    String toString();
+
+    /**
+     * Returns a string representation of this iterable by delegating to {@link #makeString(String)} and defaulting
+     * the separator parameter to the characters <tt>", "</tt> (comma and space).
+     */
+    String makeString();
+
+    /**
+     * Returns a string representation of this iterable by delegating to {@link #makeString(String, String, String)}
+     * and defaulting the start and end parameters to <tt>""</tt> (the empty String).
+     */
+    String makeString(String separator);
+
+    /**
+     * Returns a string representation of this iterable.  The string representation consists of a list of the
+     * iterable's elements in the order they are returned by its iterator, enclosed in the start and end strings.
+     * Adjacent elements are separated by the separator string.
+     */
+    String makeString(String start, String separator, String end);
+}
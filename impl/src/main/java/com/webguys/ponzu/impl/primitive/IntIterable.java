@@ -0,0 +1,163 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.primitive;
+
+import com.webguys.ponzu.api.RichIterable;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+
+/**
+ * IntIterable is the primitive counterpart of RichIterable for int values.  Implementations store their elements
+ * as int primitives, and all of the internal iteration methods take primitive blocks, so no Integer objects are
+ * created while iterating.
+ *
+ * @since 1.3
+ */
+public interface IntIterable
+{
+    /**
+     * Returns a primitive iterator that can be used to iterate over the IntIterable as an external iterator.
+     */
+    IntIterator intIterator();
+
+    void forEach(IntProcedure procedure);
+
+    /**
+     * Returns the number of items in this iterable.
+     */
+    int size();
+
+    /**
+     * Returns true if this iterable has zero items.
+     */
+    boolean isEmpty();
+
+    /**
+     * The English equivalent of !this.isEmpty()
+     */
+    boolean notEmpty();
+
+    /**
+     * Returns true if the value is contained in the IntIterable, and false if it is not.
+     */
+    boolean contains(int value);
+
+    /**
+     * Returns true if all of the values specified in the source array are contained in the IntIterable, and false
+     * if they are not.
+     */
+    boolean containsAll(int... source);
+
+    /**
+     * Returns the count of the number of elements that evaluate to true for the specified predicate.
+     */
+    int count(IntPredicate predicate);
+
+    /**
+     * Returns true if any of the elements evaluate to true for the specified predicate.
+     */
+    boolean anySatisfy(IntPredicate predicate);
+
+    /**
+     * Returns true if all of the elements evaluate to true for the specified predicate, or if the iterable is empty.
+     */
+    boolean allSatisfy(IntPredicate predicate);
+
+    /**
+     * Returns the first element which evaluates to true for the specified predicate, or ifNone if no element does.
+     */
+    int find(IntPredicate predicate, int ifNone);
+
+    /**
+     * Returns a new IntIterable with all of the elements that evaluate to true for the specified predicate.
+     */
+    IntIterable filter(IntPredicate predicate);
+
+    /**
+     * Returns a new IntIterable with all of the elements that evaluate to false for the specified predicate.
+     */
+    IntIterable filterNot(IntPredicate predicate);
+
+    /**
+     * Returns a new RichIterable with the results of applying the specified function to each element.
+     */
+    <V> RichIterable<V> transform(IntToObjectFunction<? extends V> function);
+
+    /**
+     * Returns the sum of the elements.  The result is accumulated as a long so that it does not overflow for large
+     * iterables.
+     */
+    long sum();
+
+    /**
+     * Returns the minimum element.
+     *
+     * @throws java.util.NoSuchElementException if the iterable is empty
+     */
+    int min();
+
+    /**
+     * Returns the maximum element.
+     *
+     * @throws java.util.NoSuchElementException if the iterable is empty
+     */
+    int max();
+
+    /**
+     * Returns the arithmetic mean of the elements.
+     *
+     * @throws ArithmeticException if the iterable is empty
+     */
+    double average();
+
+    /**
+     * Converts the IntIterable to a primitive int array.
+     */
+    int[] toArray();
+
+    /**
+     * Converts the IntIterable to a primitive int array, sorted in ascending order.
+     */
+    int[] toSortedArray();
+
+    /**
+     * Returns a string representation of this iterable.  The string representation consists of a list of the
+     * iterable's elements in the order they are returned by its iterator, enclosed in square brackets
+     * (<tt>"[]"</tt>).  Adjacent elements are separated by the characters <tt>", "</tt> (comma and space).
+     */
+    String toString();
+
+    /**
+     * Returns a string representation of this iterable by delegating to {@link #makeString(String)} and defaulting
+     * the separator parameter to the characters <tt>", "</tt> (comma and space).
+     */
+    String makeString();
+
+    /**
+     * Returns a string representation of this iterable by delegating to {@link #makeString(String, String, String)}
+     * and defaulting the start and end parameters to <tt>""</tt> (the empty String).
+     */
+    String makeString(String separator);
+
+    /**
+     * Returns a string representation of this iterable.  The string representation consists of a list of the
+     * iterable's elements in the order they are returned by its iterator, enclosed in the start and end strings.
+     * Adjacent elements are separated by the separator string.
+     */
+    String makeString(String start, String separator, String end);
+}
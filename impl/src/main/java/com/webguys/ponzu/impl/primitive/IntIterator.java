@@ -0,0 +1,34 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.primitive;
+
+/**
+ * IntIterator is an Iterator over int primitives which does not box the values it returns.
+ *
+ * @since 1.3
+ */
+public interface IntIterator
+{
+    boolean hasNext();
+
+    /**
+     * Returns the next int in the iteration.
+     *
+     * @throws java.util.NoSuchElementException if the iteration has no more elements
+     */
+    int next();
+}
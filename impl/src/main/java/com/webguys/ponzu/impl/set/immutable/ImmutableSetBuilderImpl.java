@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.immutable;
+
+import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.ImmutableSetBuilder;
+import com.webguys.ponzu.impl.factory.Sets;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Fills a UnifiedSet which becomes the delegate of an {@link ImmutableUnifiedSet} when the set is built.  Sets small
+ * enough for the fixed-size immutable sets are copied into one of those instead.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+final class ImmutableSetBuilderImpl<T> implements ImmutableSetBuilder<T>
+{
+    private static final int LARGEST_FIXED_SIZE_SET = 4;
+
+    private UnifiedSet<T> set;
+
+    ImmutableSetBuilderImpl(int expectedSize)
+    {
+        this.set = UnifiedSet.newSet(expectedSize);
+    }
+
+    public ImmutableSetBuilder<T> add(T element)
+    {
+        this.storage().add(element);
+        return this;
+    }
+
+    public ImmutableSetBuilder<T> addAll(Iterable<? extends T> elements)
+    {
+        this.storage().addAllIterable(elements);
+        return this;
+    }
+
+    public ImmutableSetBuilder<T> merge(ImmutableSetBuilder<T> other)
+    {
+        ImmutableSetBuilderImpl<T> that = (ImmutableSetBuilderImpl<T>) other;
+        if (that == this)
+        {
+            throw new IllegalArgumentException("Cannot merge a builder into itself");
+        }
+        UnifiedSet<T> mine = this.storage();
+        UnifiedSet<T> theirs = that.storage();
+        that.set = null;
+        if (theirs.size() > mine.size())
+        {
+            theirs.addAll(mine);
+            this.set = theirs;
+        }
+        else
+        {
+            mine.addAll(theirs);
+        }
+        return this;
+    }
+
+    public int size()
+    {
+        return this.storage().size();
+    }
+
+    public ImmutableSet<T> build()
+    {
+        UnifiedSet<T> result = this.storage();
+        this.set = null;
+        if (result.size() <= LARGEST_FIXED_SIZE_SET)
+        {
+            return Sets.immutable.ofAll(result);
+        }
+        return ImmutableUnifiedSet.adopt(result);
+    }
+
+    private UnifiedSet<T> storage()
+    {
+        if (this.set == null)
+        {
+            throw new IllegalStateException("The builder has already been built or merged into another");
+        }
+        return this.set;
+    }
+}
@@ -18,6 +18,7 @@ package com.webguys.ponzu.impl.set.immutable;
 
 import com.webguys.ponzu.api.factory.set.ImmutableSetFactory;
 import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.ImmutableSetBuilder;
 import com.webguys.ponzu.impl.block.factory.Comparators;
 import com.webguys.ponzu.impl.utility.Iterate;
 
@@ -119,4 +120,9 @@ public final class ImmutableSetFactoryImpl implements ImmutableSetFactory
 
         return this.of((T[]) Iterate.toArray(items));
     }
+
+    public <T> ImmutableSetBuilder<T> builder(int expectedSize)
+    {
+        return new ImmutableSetBuilderImpl<T>(expectedSize);
+    }
 }
@@ -81,6 +81,14 @@ final class ImmutableUnifiedSet<T>
         return this.delegate.getLast();
     }
 
+    /**
+     * Wraps the set without copying it.  The caller must not modify the set afterwards.
+     */
+    static <T> ImmutableUnifiedSet<T> adopt(UnifiedSet<T> set)
+    {
+        return new ImmutableUnifiedSet<T>(set);
+    }
+
     public static <T> ImmutableSet<T> newSetWith(T... elements)
     {
         return new ImmutableUnifiedSet<T>(UnifiedSet.newSetWith(elements));
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.mutable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import com.webguys.ponzu.api.set.Pool;
+import com.webguys.ponzu.impl.map.mutable.ConcurrentUnifiedMap;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * ConcurrentPool is a thread-safe Pool which can be shared by any number of threads, for example to intern the value
+ * objects read by several loader threads so that each distinct value is kept only once.  It is built on a
+ * ConcurrentUnifiedMap, so get never blocks and put adds an object with a single compare-and-set unless an equal
+ * object is already pooled, in which case the pooled object is returned.
+ * <p/>
+ * A pool created by {@link #newWeakPool()} holds its objects through weak references, so an object which is no longer
+ * used anywhere else can be garbage collected, after which it drops out of the pool.  The entries of collected objects
+ * are removed by the next put or size, so size may count objects which have been collected but not yet removed.
+ * <p/>
+ * Null cannot be pooled.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentPool<V>
+        implements Pool<V>
+{
+    private final ConcurrentUnifiedMap<Object, Object> pooled;
+
+    /**
+     * The queue the collected objects of a weak pool are reported to, or null for a pool which holds its objects
+     * strongly.
+     */
+    private final ReferenceQueue<V> collected;
+
+    private ConcurrentPool(int initialCapacity, boolean weak)
+    {
+        this.pooled = ConcurrentUnifiedMap.newMap(initialCapacity);
+        this.collected = weak ? new ReferenceQueue<V>() : null;
+    }
+
+    public static <V> ConcurrentPool<V> newPool()
+    {
+        return new ConcurrentPool<V>(16, false);
+    }
+
+    public static <V> ConcurrentPool<V> newPool(int initialCapacity)
+    {
+        return new ConcurrentPool<V>(initialCapacity, false);
+    }
+
+    public static <V> ConcurrentPool<V> newWeakPool()
+    {
+        return new ConcurrentPool<V>(16, true);
+    }
+
+    public static <V> ConcurrentPool<V> newWeakPool(int initialCapacity)
+    {
+        return new ConcurrentPool<V>(initialCapacity, true);
+    }
+
+    public V get(V key)
+    {
+        if (this.collected == null)
+        {
+            return (V) this.pooled.get(key);
+        }
+        return this.referent(this.pooled.get(new Lookup(key)));
+    }
+
+    public V put(V key)
+    {
+        if (this.collected == null)
+        {
+            Object existing = this.pooled.putIfAbsent(key, key);
+            return existing == null ? key : (V) existing;
+        }
+        this.expungeCollected();
+        WeakKey<V> weakKey = new WeakKey<V>(key, this.collected);
+        while (true)
+        {
+            Object existing = this.pooled.putIfAbsent(weakKey, weakKey);
+            if (existing == null)
+            {
+                return key;
+            }
+            V existingValue = this.referent(existing);
+            if (existingValue != null)
+            {
+                return existingValue;
+            }
+            this.pooled.remove(existing, existing);
+        }
+    }
+
+    public V removeFromPool(V key)
+    {
+        if (this.collected == null)
+        {
+            return (V) this.pooled.remove(key);
+        }
+        return this.referent(this.pooled.remove(new Lookup(key)));
+    }
+
+    public int size()
+    {
+        this.expungeCollected();
+        return this.pooled.size();
+    }
+
+    public void clear()
+    {
+        this.pooled.clear();
+    }
+
+    private V referent(Object weakKey)
+    {
+        return weakKey == null ? null : ((WeakKey<V>) weakKey).get();
+    }
+
+    private void expungeCollected()
+    {
+        if (this.collected != null)
+        {
+            for (Reference<? extends V> each = this.collected.poll(); each != null; each = this.collected.poll())
+            {
+                this.pooled.remove(each, each);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentPool{size=" + this.pooled.size() + '}';
+    }
+
+    /**
+     * The key of a pooled object in a weak pool.  It is equal to any other key or lookup for an equal object, and once
+     * its object has been collected it is equal only to itself, so that it can still be removed.
+     */
+    private static final class WeakKey<V> extends WeakReference<V>
+    {
+        private final int hashCode;
+
+        private WeakKey(V referent, ReferenceQueue<V> queue)
+        {
+            super(referent, queue);
+            this.hashCode = referent.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            V referent = this.get();
+            if (referent == null)
+            {
+                return false;
+            }
+            if (obj instanceof Lookup)
+            {
+                return referent.equals(((Lookup) obj).key);
+            }
+            if (obj instanceof WeakKey)
+            {
+                Object other = ((WeakKey<?>) obj).get();
+                return other != null && referent.equals(other);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * Looks up an object in a weak pool without creating a weak reference to it.
+     */
+    private static final class Lookup
+    {
+        private final Object key;
+
+        private Lookup(Object key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof WeakKey && obj.equals(this);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.mutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.webguys.ponzu.api.LazyIterable;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.block.predicate.Predicate2;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.multimap.set.MutableSetMultimap;
+import com.webguys.ponzu.api.partition.set.PartitionMutableSet;
+import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.api.set.SetIterable;
+import com.webguys.ponzu.api.set.UnsortedSetIterable;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.collection.mutable.AbstractCollectionAdapter;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * CopyOnWriteUnifiedSet is a thread-safe MutableSet for sets which are read and iterated far more often than they are
+ * changed.  The elements are held in a UnifiedSet which is never changed once it has been published.  Every read,
+ * including forEach, filter, anySatisfy and the other internal iteration methods, runs against whichever UnifiedSet
+ * is current when it starts, without taking a lock.
+ * <p/>
+ * Every change copies the current UnifiedSet, makes the change to the copy and publishes it, under a lock which only
+ * writers take.  A change of many elements, such as withAll, removeAll or removeIf, makes a single copy, and any
+ * number of changes can be made with a single copy through {@link #withWriteLockAndDelegate(Procedure)}.
+ * <p/>
+ * The iterators of a CopyOnWriteUnifiedSet run over the UnifiedSet which was current when they were created.  Their
+ * remove method removes the last element returned from the set.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class CopyOnWriteUnifiedSet<T>
+        extends AbstractCollectionAdapter<T>
+        implements Externalizable, MutableSet<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock = new Object();
+
+    private volatile UnifiedSet<T> items;
+
+    @SuppressWarnings("UnusedDeclaration")
+    public CopyOnWriteUnifiedSet()
+    {
+        this(UnifiedSet.<T>newSet());
+    }
+
+    private CopyOnWriteUnifiedSet(UnifiedSet<T> newItems)
+    {
+        this.items = newItems;
+    }
+
+    public static <T> CopyOnWriteUnifiedSet<T> newSet()
+    {
+        return new CopyOnWriteUnifiedSet<T>();
+    }
+
+    public static <T> CopyOnWriteUnifiedSet<T> newSet(Iterable<? extends T> iterable)
+    {
+        return new CopyOnWriteUnifiedSet<T>(UnifiedSet.<T>newSet(iterable));
+    }
+
+    public static <T> CopyOnWriteUnifiedSet<T> newSetWith(T... elements)
+    {
+        return new CopyOnWriteUnifiedSet<T>(UnifiedSet.newSetWith(elements));
+    }
+
+    @Override
+    protected UnifiedSet<T> getDelegate()
+    {
+        return this.items;
+    }
+
+    /**
+     * Returns a copy of the current elements with room for the given number of elements more.
+     */
+    @GuardedBy("lock")
+    private UnifiedSet<T> copy(int extraCapacity)
+    {
+        UnifiedSet<T> current = this.items;
+        UnifiedSet<T> result = UnifiedSet.newSet(current.size() + extraCapacity);
+        result.addAll(current);
+        return result;
+    }
+
+    /**
+     * Applies the procedure to a copy of the set and publishes the copy once the procedure returns, so that readers
+     * see either none or all of its changes.  If the procedure throws, none of its changes are published.  The set
+     * passed to the procedure must not be used after it returns.
+     */
+    public void withWriteLockAndDelegate(Procedure<MutableSet<T>> procedure)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.copy(0);
+            procedure.value(copy);
+            this.items = copy;
+        }
+    }
+
+    @Override
+    public boolean add(T element)
+    {
+        synchronized (this.lock)
+        {
+            if (this.items.contains(element))
+            {
+                return false;
+            }
+            UnifiedSet<T> copy = this.copy(1);
+            copy.add(element);
+            this.items = copy;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection)
+    {
+        return this.addAllIterable(collection);
+    }
+
+    @Override
+    public boolean addAllIterable(Iterable<? extends T> iterable)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.copy(iterable instanceof Collection ? ((Collection<?>) iterable).size() : 0);
+            boolean changed = copy.addAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean remove(Object element)
+    {
+        synchronized (this.lock)
+        {
+            if (!this.items.contains(element))
+            {
+                return false;
+            }
+            UnifiedSet<T> copy = this.copy(0);
+            copy.remove(element);
+            this.items = copy;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        return this.removeAllIterable(collection);
+    }
+
+    @Override
+    public boolean removeAllIterable(Iterable<?> iterable)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.copy(0);
+            boolean changed = copy.removeAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        return this.retainAllIterable(collection);
+    }
+
+    @Override
+    public boolean retainAllIterable(Iterable<?> iterable)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.copy(0);
+            boolean changed = copy.retainAllIterable(iterable);
+            if (changed)
+            {
+                this.items = copy;
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public void removeIf(Predicate<? super T> predicate)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.items.filterNot(predicate);
+            if (copy.size() != this.items.size())
+            {
+                this.items = copy;
+            }
+        }
+    }
+
+    @Override
+    public <P> void removeIfWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        synchronized (this.lock)
+        {
+            UnifiedSet<T> copy = this.items.filterNotWith(predicate, parameter);
+            if (copy.size() != this.items.size())
+            {
+                this.items = copy;
+            }
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.items = UnifiedSet.newSet();
+        }
+    }
+
+    public CopyOnWriteUnifiedSet<T> with(T element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public CopyOnWriteUnifiedSet<T> with(T element1, T element2)
+    {
+        return this.withAll(UnifiedSet.newSetWith(element1, element2));
+    }
+
+    public CopyOnWriteUnifiedSet<T> with(T element1, T element2, T element3)
+    {
+        return this.withAll(UnifiedSet.newSetWith(element1, element2, element3));
+    }
+
+    public CopyOnWriteUnifiedSet<T> with(T... elements)
+    {
+        return this.withAll(UnifiedSet.newSetWith(elements));
+    }
+
+    public CopyOnWriteUnifiedSet<T> without(T element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public CopyOnWriteUnifiedSet<T> withAll(Iterable<? extends T> elements)
+    {
+        this.addAllIterable(elements);
+        return this;
+    }
+
+    public CopyOnWriteUnifiedSet<T> withoutAll(Iterable<? extends T> elements)
+    {
+        this.removeAllIterable(elements);
+        return this;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new SnapshotIterator();
+    }
+
+    public MutableSet<T> asUnmodifiable()
+    {
+        return UnmodifiableMutableSet.of(this);
+    }
+
+    public MutableSet<T> asSynchronized()
+    {
+        return SynchronizedMutableSet.of(this);
+    }
+
+    public ImmutableSet<T> toImmutable()
+    {
+        return this.items.toImmutable();
+    }
+
+    /**
+     * Returns a CopyOnWriteUnifiedSet with the same elements.  The copy and this set share the current elements until
+     * either of them is changed.
+     */
+    @Override
+    public CopyOnWriteUnifiedSet<T> clone()
+    {
+        return new CopyOnWriteUnifiedSet<T>(this.items);
+    }
+
+    public MutableSet<T> newEmpty()
+    {
+        return CopyOnWriteUnifiedSet.newSet();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        return this.items.equals(obj);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.items.hashCode();
+    }
+
+    @Override
+    public void forEach(Procedure<? super T> procedure)
+    {
+        this.items.forEach(procedure);
+    }
+
+    @Override
+    public void forEachWithIndex(ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        this.items.forEachWithIndex(objectIntProcedure);
+    }
+
+    @Override
+    public <P> void forEachWith(Procedure2<? super T, ? super P> procedure, P parameter)
+    {
+        this.items.forEachWith(procedure, parameter);
+    }
+
+    @Override
+    public T find(Predicate<? super T> predicate)
+    {
+        return this.items.find(predicate);
+    }
+
+    @Override
+    public T findIfNone(Predicate<? super T> predicate, Generator<? extends T> function)
+    {
+        return this.items.findIfNone(predicate, function);
+    }
+
+    @Override
+    public int count(Predicate<? super T> predicate)
+    {
+        return this.items.count(predicate);
+    }
+
+    @Override
+    public boolean anySatisfy(Predicate<? super T> predicate)
+    {
+        return this.items.anySatisfy(predicate);
+    }
+
+    @Override
+    public boolean allSatisfy(Predicate<? super T> predicate)
+    {
+        return this.items.allSatisfy(predicate);
+    }
+
+    @Override
+    public <IV> IV foldLeft(IV initialValue, Function2<? super IV, ? super T, ? extends IV> function)
+    {
+        return this.items.foldLeft(initialValue, function);
+    }
+
+    @Override
+    public MutableSet<T> filter(Predicate<? super T> predicate)
+    {
+        return this.items.filter(predicate);
+    }
+
+    @Override
+    public MutableSet<T> filterNot(Predicate<? super T> predicate)
+    {
+        return this.items.filterNot(predicate);
+    }
+
+    @Override
+    public <P> MutableSet<T> filterWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.items.filterWith(predicate, parameter);
+    }
+
+    @Override
+    public <P> MutableSet<T> filterNotWith(Predicate2<? super T, ? super P> predicate, P parameter)
+    {
+        return this.items.filterNotWith(predicate, parameter);
+    }
+
+    @Override
+    public PartitionMutableSet<T> partition(Predicate<? super T> predicate)
+    {
+        return this.items.partition(predicate);
+    }
+
+    @Override
+    public <V> MutableSet<V> transform(Function<? super T, ? extends V> function)
+    {
+        return this.items.transform(function);
+    }
+
+    @Override
+    public <V> MutableSet<V> flatTransform(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.items.flatTransform(function);
+    }
+
+    @Override
+    public <V> MutableSet<V> transformIf(
+            Predicate<? super T> predicate,
+            Function<? super T, ? extends V> function)
+    {
+        return this.items.transformIf(predicate, function);
+    }
+
+    @Override
+    public <P, V> MutableSet<V> transformWith(Function2<? super T, ? super P, ? extends V> function, P parameter)
+    {
+        return this.items.transformWith(function, parameter);
+    }
+
+    @Override
+    public <V> MutableSetMultimap<V, T> groupBy(Function<? super T, ? extends V> function)
+    {
+        return this.items.groupBy(function);
+    }
+
+    @Override
+    public <V> MutableSetMultimap<V, T> groupByEach(Function<? super T, ? extends Iterable<V>> function)
+    {
+        return this.items.groupByEach(function);
+    }
+
+    @Override
+    public <S> MutableSet<Pair<T, S>> zip(Iterable<S> that)
+    {
+        return this.items.zip(that);
+    }
+
+    @Override
+    public MutableSet<Pair<T, Integer>> zipWithIndex()
+    {
+        return this.items.zipWithIndex();
+    }
+
+    public MutableSet<T> union(SetIterable<? extends T> set)
+    {
+        return this.items.union(set);
+    }
+
+    public <R extends Set<T>> R unionInto(SetIterable<? extends T> set, R targetSet)
+    {
+        return this.items.unionInto(set, targetSet);
+    }
+
+    public MutableSet<T> intersect(SetIterable<? extends T> set)
+    {
+        return this.items.intersect(set);
+    }
+
+    public <R extends Set<T>> R intersectInto(SetIterable<? extends T> set, R targetSet)
+    {
+        return this.items.intersectInto(set, targetSet);
+    }
+
+    public MutableSet<T> difference(SetIterable<? extends T> subtrahendSet)
+    {
+        return this.items.difference(subtrahendSet);
+    }
+
+    public <R extends Set<T>> R differenceInto(SetIterable<? extends T> subtrahendSet, R targetSet)
+    {
+        return this.items.differenceInto(subtrahendSet, targetSet);
+    }
+
+    public MutableSet<T> symmetricDifference(SetIterable<? extends T> setB)
+    {
+        return this.items.symmetricDifference(setB);
+    }
+
+    public <R extends Set<T>> R symmetricDifferenceInto(SetIterable<? extends T> set, R targetSet)
+    {
+        return this.items.symmetricDifferenceInto(set, targetSet);
+    }
+
+    public boolean isSubsetOf(SetIterable<? extends T> candidateSuperset)
+    {
+        return this.items.isSubsetOf(candidateSuperset);
+    }
+
+    public boolean isProperSubsetOf(SetIterable<? extends T> candidateSuperset)
+    {
+        return this.items.isProperSubsetOf(candidateSuperset);
+    }
+
+    public MutableSet<UnsortedSetIterable<T>> powerSet()
+    {
+        return this.items.powerSet();
+    }
+
+    public <B> LazyIterable<Pair<T, B>> cartesianProduct(SetIterable<B> set)
+    {
+        return this.items.cartesianProduct(set);
+    }
+
+    private final class SnapshotIterator implements Iterator<T>
+    {
+        private final Iterator<T> delegate = CopyOnWriteUnifiedSet.this.items.iterator();
+        private T current;
+        private boolean canRemove;
+
+        public boolean hasNext()
+        {
+            return this.delegate.hasNext();
+        }
+
+        public T next()
+        {
+            this.current = this.delegate.next();
+            this.canRemove = true;
+            return this.current;
+        }
+
+        public void remove()
+        {
+            if (!this.canRemove)
+            {
+                throw new IllegalStateException();
+            }
+            CopyOnWriteUnifiedSet.this.remove(this.current);
+            this.canRemove = false;
+        }
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeObject(this.items);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        this.items = (UnifiedSet<T>) in.readObject();
+    }
+}
@@ -42,6 +42,7 @@ import com.webguys.ponzu.api.set.SetIterable;
 import com.webguys.ponzu.api.set.UnsortedSetIterable;
 import com.webguys.ponzu.api.tuple.Pair;
 import com.webguys.ponzu.impl.collection.mutable.AbstractMultiReaderMutableCollection;
+import com.webguys.ponzu.impl.collection.mutable.OptimisticReadWriteLock;
 import com.webguys.ponzu.impl.factory.Sets;
 import com.webguys.ponzu.impl.utility.LazyIterate;
 
@@ -56,6 +57,9 @@ import static com.webguys.ponzu.impl.factory.Iterables.*;
  * external pointer can ever reference the underlying UnifiedSet outside of a locked procedure.  In the case of the read
  * lock method, an Unmodifiable version of the collection is offered, which will throw UnsupportedOperationExceptions on
  * any write methods like add or remove.
+ * <p/>
+ * The lock may be chosen with newSet(ReadWriteLock); an {@link OptimisticReadWriteLock} lets constant time reads
+ * such as size and isEmpty go ahead without taking the read lock.
  */
 public final class MultiReaderUnifiedSet<T>
         extends AbstractMultiReaderMutableCollection<T>
@@ -98,6 +102,36 @@ public final class MultiReaderUnifiedSet<T>
         return new MultiReaderUnifiedSet<T>(UnifiedSet.<T>newSet(iterable));
     }
 
+    /**
+     * Returns an empty set guarded by the given lock.  Pass an {@link OptimisticReadWriteLock} for sets which are
+     * read far more often than they are written, so that short reads do not contend on the read lock.  The lock is
+     * not serialized; a deserialized set is guarded by a ReentrantReadWriteLock.
+     *
+     * @since 1.3
+     */
+    public static <T> MultiReaderUnifiedSet<T> newSet(ReadWriteLock lock)
+    {
+        return new MultiReaderUnifiedSet<T>(UnifiedSet.<T>newSet(), lock);
+    }
+
+    /**
+     * @see #newSet(ReadWriteLock)
+     * @since 1.3
+     */
+    public static <T> MultiReaderUnifiedSet<T> newSet(int capacity, ReadWriteLock lock)
+    {
+        return new MultiReaderUnifiedSet<T>(UnifiedSet.<T>newSet(capacity), lock);
+    }
+
+    /**
+     * @see #newSet(ReadWriteLock)
+     * @since 1.3
+     */
+    public static <T> MultiReaderUnifiedSet<T> newSet(Iterable<T> iterable, ReadWriteLock lock)
+    {
+        return new MultiReaderUnifiedSet<T>(UnifiedSet.<T>newSet(iterable), lock);
+    }
+
     public static <T> MultiReaderUnifiedSet<T> newSetWith(T... elements)
     {
         return new MultiReaderUnifiedSet<T>(UnifiedSet.<T>newSetWith(elements));
@@ -25,10 +25,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import com.webguys.ponzu.api.LazyIterable;
+import com.webguys.ponzu.api.ParallelIterable;
 import com.webguys.ponzu.api.RichIterable;
 import com.webguys.ponzu.api.bag.MutableBag;
 import com.webguys.ponzu.api.block.function.Function;
@@ -78,6 +82,8 @@ import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
 import com.webguys.ponzu.impl.map.sorted.mutable.TreeSortedMap;
 import com.webguys.ponzu.impl.multimap.set.UnifiedSetMultimap;
 import com.webguys.ponzu.impl.parallel.BatchIterable;
+import com.webguys.ponzu.impl.parallel.BucketRangePartition;
+import com.webguys.ponzu.impl.parallel.ParallelIterableAdapter;
 import com.webguys.ponzu.impl.partition.set.PartitionUnifiedSet;
 import com.webguys.ponzu.impl.set.sorted.mutable.TreeSortedSet;
 import com.webguys.ponzu.impl.tuple.Tuples;
@@ -194,6 +200,70 @@ public class UnifiedSet<K>
         return result;
     }
 
+    /**
+     * Builds a set of the elements of the iterable, using the executor to load a presized table in parallel.  The
+     * buckets of the elements are first computed in parallel chunks, and the elements are then grouped by the range of
+     * buckets they fall into so that each range of the table is filled by its own task without locking and without
+     * ever resizing.  Equal elements keep the first one, just as with a sequence of adds.  Small inputs are simply
+     * loaded on the calling thread.
+     *
+     * @since 1.3
+     */
+    public static <K> UnifiedSet<K> newSetParallel(Iterable<K> iterable, Executor executor)
+    {
+        final List<K> list = iterable instanceof List && iterable instanceof RandomAccess
+                ? (List<K>) iterable
+                : FastList.newList(iterable);
+        final int size = list.size();
+        final UnifiedSet<K> set = new UnifiedSet<K>(Math.max(size, DEFAULT_INITIAL_CAPACITY));
+        int capacity = set.table.length;
+        final int rangeCount = BucketRangePartition.rangeCount(size, capacity, executor);
+        if (rangeCount == 1)
+        {
+            set.addAll(list);
+            return set;
+        }
+
+        final int[] buckets = new int[size];
+        BucketRangePartition.forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer chunk)
+            {
+                int end = BucketRangePartition.chunkStart(size, rangeCount, chunk + 1);
+                for (int i = BucketRangePartition.chunkStart(size, rangeCount, chunk); i < end; i++)
+                {
+                    buckets[i] = set.index(toSentinelIfNull(list.get(i)));
+                }
+            }
+        }, executor);
+
+        final BucketRangePartition partition = BucketRangePartition.partition(buckets, capacity, rangeCount, executor);
+        final int[] added = new int[rangeCount];
+        BucketRangePartition.forEachTask(rangeCount, new Procedure<Integer>()
+        {
+            public void value(Integer range)
+            {
+                int count = 0;
+                int end = partition.getRangeEnd(range);
+                for (int position = partition.getRangeStart(range); position < end; position++)
+                {
+                    int i = partition.getSourceIndex(position);
+                    if (set.loadIntoBucket(toSentinelIfNull(list.get(i)), buckets[i]))
+                    {
+                        count++;
+                    }
+                }
+                added[range] = count;
+            }
+        }, executor);
+
+        for (int count : added)
+        {
+            set.occupied += count;
+        }
+        return set;
+    }
+
     public static <K> UnifiedSet<K> newSet(int size, float loadFactor)
     {
         return new UnifiedSet<K>(size, loadFactor);
@@ -283,7 +353,39 @@ public class UnifiedSet<K>
         return cur != realKey && !cur.equals(realKey) && this.chainedAdd(realKey, index);
     }
 
+    /**
+     * Adds the key to the bucket at the specified index without counting it or resizing the table.  Only used by a
+     * parallel load, whose tasks each own a separate range of buckets.
+     */
+    private boolean loadIntoBucket(Object realKey, int index)
+    {
+        Object cur = this.table[index];
+        if (cur == null)
+        {
+            this.table[index] = realKey;
+            return true;
+        }
+        return cur != realKey && !cur.equals(realKey) && this.addToChain(realKey, index);
+    }
+
     private boolean chainedAdd(Object realKey, int index)
+    {
+        if (this.addToChain(realKey, index))
+        {
+            if (++this.occupied > this.maxSize)
+            {
+                this.rehash();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the key to the chain of the bucket at the specified index, or starts a chain there, without counting it or
+     * resizing the table.
+     */
+    private boolean addToChain(Object realKey, int index)
     {
         if (this.table[index] instanceof ChainedBucket)
         {
@@ -297,10 +399,6 @@ public class UnifiedSet<K>
                 if (bucket.one == null)
                 {
                     bucket.one = realKey;
-                    if (++this.occupied > this.maxSize)
-                    {
-                        this.rehash();
-                    }
                     return true;
                 }
                 if (eq(bucket.one, realKey))
@@ -310,10 +408,6 @@ public class UnifiedSet<K>
                 if (bucket.two == null)
                 {
                     bucket.two = realKey;
-                    if (++this.occupied > this.maxSize)
-                    {
-                        this.rehash();
-                    }
                     return true;
                 }
                 if (eq(bucket.two, realKey))
@@ -328,10 +422,6 @@ public class UnifiedSet<K>
                 if (bucket.three == null)
                 {
                     bucket.three = realKey;
-                    if (++this.occupied > this.maxSize)
-                    {
-                        this.rehash();
-                    }
                     return true;
                 }
                 if (eq(bucket.three, realKey))
@@ -339,20 +429,12 @@ public class UnifiedSet<K>
                     return false;
                 }
                 bucket.three = new ChainedBucket(bucket.three, realKey);
-                if (++this.occupied > this.maxSize)
-                {
-                    this.rehash();
-                }
                 return true;
             }
             while (true);
         }
         ChainedBucket newBucket = new ChainedBucket(this.table[index], realKey);
         this.table[index] = newBucket;
-        if (++this.occupied > this.maxSize)
-        {
-            this.rehash();
-        }
         return true;
     }
 
@@ -1008,6 +1090,17 @@ public class UnifiedSet<K>
         return LazyIterate.adapt(this);
     }
 
+    /**
+     * Returns a deferred parallel view of this set.  Chained operations are fused and run in batches of roughly
+     * batchSize table slots on the executor when a terminal method is called.
+     *
+     * @since 1.3
+     */
+    public ParallelIterable<K> asParallel(Executor executor, int batchSize)
+    {
+        return new ParallelIterableAdapter<K>(this, executor, batchSize);
+    }
+
     public MutableSet<K> asUnmodifiable()
     {
         return UnmodifiableMutableSet.of(this);
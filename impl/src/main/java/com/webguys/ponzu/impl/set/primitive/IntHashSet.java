@@ -0,0 +1,878 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.primitive.IntArrayList;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * IntHashSet is the primitive int counterpart of {@link UnifiedSet}.  The elements are stored directly in a single
+ * int[] using open addressing with linear probing, so there are no boxed elements and no ChainedBucket objects, and
+ * neither add nor contains allocates unless the table has to grow.
+ * <p/>
+ * Two values are reserved as sentinels in the table: 0 marks an empty slot and 1 marks a removed slot.  The elements 0
+ * and 1 themselves are tracked by a pair of flags instead of being stored in the table.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class IntHashSet
+        implements MutableIntSet, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int EMPTY = 0;
+    private static final int REMOVED = 1;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    private int[] table;
+    private int occupiedWithData;
+    private int occupiedWithSentinels;
+    private boolean containsEmptyKey;
+    private boolean containsRemovedKey;
+
+    public IntHashSet()
+    {
+        this.allocateTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public IntHashSet(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("initial capacity cannot be less than 0");
+        }
+        this.allocateTable(smallestPowerOfTwoGreaterThan(initialCapacity + (initialCapacity >> 1) + 1));
+    }
+
+    public static IntHashSet newSet()
+    {
+        return new IntHashSet();
+    }
+
+    public static IntHashSet newSet(int initialCapacity)
+    {
+        return new IntHashSet(initialCapacity);
+    }
+
+    public static IntHashSet newSet(IntIterable source)
+    {
+        IntHashSet result = new IntHashSet(source.size());
+        result.addAll(source);
+        return result;
+    }
+
+    public static IntHashSet newSetWith(int... elements)
+    {
+        IntHashSet result = new IntHashSet(elements.length);
+        result.addAll(elements);
+        return result;
+    }
+
+    /**
+     * Creates a new set of the results of applying the function to each element of the iterable, without boxing the
+     * results.
+     */
+    public static <T> IntHashSet newSet(Iterable<T> iterable, final IntFunction<? super T> function)
+    {
+        final IntHashSet result = new IntHashSet(Iterate.sizeOf(iterable));
+        Iterate.forEach(iterable, new Procedure<T>()
+        {
+            public void value(T each)
+            {
+                result.add(function.intValueOf(each));
+            }
+        });
+        return result;
+    }
+
+    private static int smallestPowerOfTwoGreaterThan(int n)
+    {
+        return n > 1 ? Integer.highestOneBit(n - 1) << 1 : 1;
+    }
+
+    private void allocateTable(int sizeToAllocate)
+    {
+        this.table = new int[sizeToAllocate];
+    }
+
+    private int maxOccupiedWithData()
+    {
+        int capacity = this.table.length;
+        return Math.min(capacity - 1, capacity - (capacity >> 2));
+    }
+
+    private static boolean isNonSentinel(int value)
+    {
+        return value != EMPTY && value != REMOVED;
+    }
+
+    // exposed for testing
+    int spreadAndMask(int element)
+    {
+        // the finalization mix of MurmurHash3, so that keys which differ only in their high bits do not collide
+        int code = element;
+        code ^= code >>> 16;
+        code *= 0x85ebca6b;
+        code ^= code >>> 13;
+        code *= 0xc2b2ae35;
+        code ^= code >>> 16;
+        return code & (this.table.length - 1);
+    }
+
+    /**
+     * Returns the index of the slot holding the element, or if it is absent, the index of the first slot the element
+     * could be stored in.
+     */
+    private int probe(int element)
+    {
+        int mask = this.table.length - 1;
+        int index = this.spreadAndMask(element);
+        int removedIndex = -1;
+        while (true)
+        {
+            int current = this.table[index];
+            if (current == element)
+            {
+                return index;
+            }
+            if (current == EMPTY)
+            {
+                return removedIndex == -1 ? index : removedIndex;
+            }
+            if (current == REMOVED && removedIndex == -1)
+            {
+                removedIndex = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehashAndGrow()
+    {
+        int capacity = this.table.length;
+        // if most of the occupied slots are removed markers, rehashing into the same capacity reclaims them
+        this.rehash(this.occupiedWithData > this.maxOccupiedWithData() >> 1 ? capacity << 1 : capacity);
+    }
+
+    private void rehash(int newCapacity)
+    {
+        int[] old = this.table;
+        this.allocateTable(newCapacity);
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        for (int each : old)
+        {
+            if (isNonSentinel(each))
+            {
+                this.table[this.probe(each)] = each;
+                this.occupiedWithData++;
+            }
+        }
+    }
+
+    public boolean add(int element)
+    {
+        if (element == EMPTY)
+        {
+            boolean changed = !this.containsEmptyKey;
+            this.containsEmptyKey = true;
+            return changed;
+        }
+        if (element == REMOVED)
+        {
+            boolean changed = !this.containsRemovedKey;
+            this.containsRemovedKey = true;
+            return changed;
+        }
+        int index = this.probe(element);
+        int current = this.table[index];
+        if (current == element)
+        {
+            return false;
+        }
+        if (current == REMOVED)
+        {
+            this.occupiedWithSentinels--;
+        }
+        this.table[index] = element;
+        this.occupiedWithData++;
+        if (this.occupiedWithData + this.occupiedWithSentinels > this.maxOccupiedWithData())
+        {
+            this.rehashAndGrow();
+        }
+        return true;
+    }
+
+    public boolean addAll(int... source)
+    {
+        int oldSize = this.size();
+        for (int each : source)
+        {
+            this.add(each);
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean addAll(IntIterable source)
+    {
+        int oldSize = this.size();
+        if (source instanceof IntHashSet)
+        {
+            IntHashSet hashSet = (IntHashSet) source;
+            this.containsEmptyKey |= hashSet.containsEmptyKey;
+            this.containsRemovedKey |= hashSet.containsRemovedKey;
+            for (int each : hashSet.table)
+            {
+                if (isNonSentinel(each))
+                {
+                    this.add(each);
+                }
+            }
+        }
+        else
+        {
+            IntIterator iterator = source.intIterator();
+            while (iterator.hasNext())
+            {
+                this.add(iterator.next());
+            }
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean remove(int value)
+    {
+        if (value == EMPTY)
+        {
+            boolean changed = this.containsEmptyKey;
+            this.containsEmptyKey = false;
+            return changed;
+        }
+        if (value == REMOVED)
+        {
+            boolean changed = this.containsRemovedKey;
+            this.containsRemovedKey = false;
+            return changed;
+        }
+        int index = this.probe(value);
+        if (this.table[index] == value)
+        {
+            this.table[index] = REMOVED;
+            this.occupiedWithData--;
+            this.occupiedWithSentinels++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean removeAll(int... source)
+    {
+        int oldSize = this.size();
+        for (int each : source)
+        {
+            this.remove(each);
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean removeAll(IntIterable source)
+    {
+        int oldSize = this.size();
+        IntIterator iterator = source.intIterator();
+        while (iterator.hasNext())
+        {
+            this.remove(iterator.next());
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean retainAll(IntIterable source)
+    {
+        int oldSize = this.size();
+        IntSet sourceSet = source instanceof IntSet ? (IntSet) source : IntHashSet.newSet(source);
+        if (this.containsEmptyKey && !sourceSet.contains(EMPTY))
+        {
+            this.containsEmptyKey = false;
+        }
+        if (this.containsRemovedKey && !sourceSet.contains(REMOVED))
+        {
+            this.containsRemovedKey = false;
+        }
+        for (int i = 0; i < this.table.length; i++)
+        {
+            int each = this.table[i];
+            if (isNonSentinel(each) && !sourceSet.contains(each))
+            {
+                this.table[i] = REMOVED;
+                this.occupiedWithData--;
+                this.occupiedWithSentinels++;
+            }
+        }
+        return this.size() != oldSize;
+    }
+
+    public void clear()
+    {
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        this.containsEmptyKey = false;
+        this.containsRemovedKey = false;
+        Arrays.fill(this.table, EMPTY);
+    }
+
+    public IntHashSet with(int element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public IntHashSet without(int element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public IntHashSet withAll(IntIterable elements)
+    {
+        this.addAll(elements);
+        return this;
+    }
+
+    public int size()
+    {
+        return this.occupiedWithData + (this.containsEmptyKey ? 1 : 0) + (this.containsRemovedKey ? 1 : 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    public boolean contains(int value)
+    {
+        if (value == EMPTY)
+        {
+            return this.containsEmptyKey;
+        }
+        if (value == REMOVED)
+        {
+            return this.containsRemovedKey;
+        }
+        return this.table[this.probe(value)] == value;
+    }
+
+    public boolean containsAll(int... source)
+    {
+        for (int each : source)
+        {
+            if (!this.contains(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public IntIterator intIterator()
+    {
+        return new InternalIntIterator();
+    }
+
+    public void forEach(IntProcedure procedure)
+    {
+        if (this.containsEmptyKey)
+        {
+            procedure.value(EMPTY);
+        }
+        if (this.containsRemovedKey)
+        {
+            procedure.value(REMOVED);
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                procedure.value(each);
+            }
+        }
+    }
+
+    public int count(IntPredicate predicate)
+    {
+        int count = 0;
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            count++;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            count++;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(IntPredicate predicate)
+    {
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            return true;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            return true;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(IntPredicate predicate)
+    {
+        if (this.containsEmptyKey && !predicate.accept(EMPTY))
+        {
+            return false;
+        }
+        if (this.containsRemovedKey && !predicate.accept(REMOVED))
+        {
+            return false;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && !predicate.accept(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int find(IntPredicate predicate, int ifNone)
+    {
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            return EMPTY;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            return REMOVED;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                return each;
+            }
+        }
+        return ifNone;
+    }
+
+    public IntHashSet filter(IntPredicate predicate)
+    {
+        IntHashSet result = new IntHashSet();
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            result.containsEmptyKey = true;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            result.containsRemovedKey = true;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public IntHashSet filterNot(IntPredicate predicate)
+    {
+        IntHashSet result = new IntHashSet();
+        if (this.containsEmptyKey && !predicate.accept(EMPTY))
+        {
+            result.containsEmptyKey = true;
+        }
+        if (this.containsRemovedKey && !predicate.accept(REMOVED))
+        {
+            result.containsRemovedKey = true;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && !predicate.accept(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public <V> UnifiedSet<V> transform(IntToObjectFunction<? extends V> function)
+    {
+        UnifiedSet<V> target = UnifiedSet.newSet(this.size());
+        if (this.containsEmptyKey)
+        {
+            target.add(function.valueOf(EMPTY));
+        }
+        if (this.containsRemovedKey)
+        {
+            target.add(function.valueOf(REMOVED));
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                target.add(function.valueOf(each));
+            }
+        }
+        return target;
+    }
+
+    public long sum()
+    {
+        long result = this.containsRemovedKey ? REMOVED : EMPTY;
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                result += each;
+            }
+        }
+        return result;
+    }
+
+    public int min()
+    {
+        this.checkEmpty();
+        int min = this.containsEmptyKey ? EMPTY : this.containsRemovedKey ? REMOVED : Integer.MAX_VALUE;
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && each < min)
+            {
+                min = each;
+            }
+        }
+        return min;
+    }
+
+    public int max()
+    {
+        this.checkEmpty();
+        int max = this.containsRemovedKey ? REMOVED : this.containsEmptyKey ? EMPTY : Integer.MIN_VALUE;
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each) && each > max)
+            {
+                max = each;
+            }
+        }
+        return max;
+    }
+
+    private void checkEmpty()
+    {
+        if (this.isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty set");
+        }
+        return (double) this.sum() / (double) this.size();
+    }
+
+    public int[] toArray()
+    {
+        int[] result = new int[this.size()];
+        int index = 0;
+        if (this.containsEmptyKey)
+        {
+            result[index++] = EMPTY;
+        }
+        if (this.containsRemovedKey)
+        {
+            result[index++] = REMOVED;
+        }
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                result[index++] = each;
+            }
+        }
+        return result;
+    }
+
+    public int[] toSortedArray()
+    {
+        int[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public IntArrayList toList()
+    {
+        return IntArrayList.newListWith(this.toArray());
+    }
+
+    public IntHashSet union(IntSet set)
+    {
+        if (this.size() < set.size())
+        {
+            return IntHashSet.newSet(set).withAll(this);
+        }
+        return IntHashSet.newSet(this).withAll(set);
+    }
+
+    public IntHashSet intersect(IntSet set)
+    {
+        if (set.size() < this.size())
+        {
+            return IntHashSet.intersect(set, this);
+        }
+        return IntHashSet.intersect(this, set);
+    }
+
+    private static IntHashSet intersect(IntSet smallerSet, IntSet largerSet)
+    {
+        IntHashSet result = new IntHashSet();
+        IntIterator iterator = smallerSet.intIterator();
+        while (iterator.hasNext())
+        {
+            int each = iterator.next();
+            if (largerSet.contains(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public IntHashSet difference(final IntSet subtrahendSet)
+    {
+        return this.filterNot(new IntPredicate()
+        {
+            public boolean accept(int value)
+            {
+                return subtrahendSet.contains(value);
+            }
+        });
+    }
+
+    public IntHashSet symmetricDifference(IntSet setB)
+    {
+        IntHashSet result = this.difference(setB);
+        IntIterator iterator = setB.intIterator();
+        while (iterator.hasNext())
+        {
+            int each = iterator.next();
+            if (!this.contains(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public boolean isSubsetOf(final IntSet candidateSuperset)
+    {
+        return this.size() <= candidateSuperset.size() && this.allSatisfy(new IntPredicate()
+        {
+            public boolean accept(int value)
+            {
+                return candidateSuperset.contains(value);
+            }
+        });
+    }
+
+    public boolean isProperSubsetOf(IntSet candidateSuperset)
+    {
+        return this.size() < candidateSuperset.size() && this.isSubsetOf(candidateSuperset);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof IntSet))
+        {
+            return false;
+        }
+        final IntSet other = (IntSet) obj;
+        return this.size() == other.size() && this.allSatisfy(new IntPredicate()
+        {
+            public boolean accept(int value)
+            {
+                return other.contains(value);
+            }
+        });
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = this.containsRemovedKey ? 1 : 0;
+        for (int each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                hashCode += each;
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            builder.append(iterator.next());
+            if (iterator.hasNext())
+            {
+                builder.append(separator);
+            }
+        }
+        return builder.append(end).toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size());
+        IntIterator iterator = this.intIterator();
+        while (iterator.hasNext())
+        {
+            out.writeInt(iterator.next());
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException
+    {
+        int size = in.readInt();
+        this.allocateTable(smallestPowerOfTwoGreaterThan(size + (size >> 1) + 1));
+        for (int i = 0; i < size; i++)
+        {
+            this.add(in.readInt());
+        }
+    }
+
+    private class InternalIntIterator
+            implements IntIterator
+    {
+        private int count;
+        private int position;
+        private boolean handledEmptyKey;
+        private boolean handledRemovedKey;
+
+        public boolean hasNext()
+        {
+            return this.count < IntHashSet.this.size();
+        }
+
+        public int next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.count++;
+            if (!this.handledEmptyKey)
+            {
+                this.handledEmptyKey = true;
+                if (IntHashSet.this.containsEmptyKey)
+                {
+                    return EMPTY;
+                }
+            }
+            if (!this.handledRemovedKey)
+            {
+                this.handledRemovedKey = true;
+                if (IntHashSet.this.containsRemovedKey)
+                {
+                    return REMOVED;
+                }
+            }
+            int[] table = IntHashSet.this.table;
+            while (!isNonSentinel(table[this.position]))
+            {
+                this.position++;
+            }
+            return table[this.position++];
+        }
+    }
+}
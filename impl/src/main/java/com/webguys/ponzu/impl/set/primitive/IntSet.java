@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import com.webguys.ponzu.api.set.SetIterable;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.list.primitive.MutableIntList;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * A IntIterable with no duplicate elements.  Two IntSets are equal if they contain the same elements, and the
+ * hashCode is computed the same way as {@link java.util.Set#hashCode()} would for the boxed values.
+ *
+ * @since 1.3
+ */
+public interface IntSet
+        extends IntIterable
+{
+    IntSet filter(IntPredicate predicate);
+
+    IntSet filterNot(IntPredicate predicate);
+
+    <V> SetIterable<V> transform(IntToObjectFunction<? extends V> function);
+
+    /**
+     * Returns the set of all elements which are members of this set or of the given set.
+     */
+    IntSet union(IntSet set);
+
+    /**
+     * Returns the set of all elements which are members of both this set and the given set.
+     */
+    IntSet intersect(IntSet set);
+
+    /**
+     * Returns the set of all elements of this set which are not members of the subtrahend set.
+     */
+    IntSet difference(IntSet subtrahendSet);
+
+    /**
+     * Returns the set of all elements which are members of exactly one of this set and the given set.
+     */
+    IntSet symmetricDifference(IntSet setB);
+
+    /**
+     * Returns true if all of the elements of this set are also members of the candidate superset.
+     */
+    boolean isSubsetOf(IntSet candidateSuperset);
+
+    /**
+     * Returns true if this set is a subset of the candidate superset, and the candidate superset has at least one
+     * element which is not a member of this set.
+     */
+    boolean isProperSubsetOf(IntSet candidateSuperset);
+
+    MutableIntList toList();
+
+    boolean equals(Object o);
+
+    int hashCode();
+}
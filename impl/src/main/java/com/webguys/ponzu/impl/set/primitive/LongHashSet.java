@@ -0,0 +1,878 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.primitive.LongArrayList;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.utility.Iterate;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * LongHashSet is the primitive long counterpart of {@link UnifiedSet}.  The elements are stored directly in a single
+ * long[] using open addressing with linear probing, so there are no boxed elements and no ChainedBucket objects, and
+ * neither add nor contains allocates unless the table has to grow.
+ * <p/>
+ * Two values are reserved as sentinels in the table: 0 marks an empty slot and 1 marks a removed slot.  The elements 0
+ * and 1 themselves are tracked by a pair of flags instead of being stored in the table.
+ *
+ * @since 1.3
+ */
+@NotThreadSafe
+public final class LongHashSet
+        implements MutableLongSet, Externalizable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = 1L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    private long[] table;
+    private int occupiedWithData;
+    private int occupiedWithSentinels;
+    private boolean containsEmptyKey;
+    private boolean containsRemovedKey;
+
+    public LongHashSet()
+    {
+        this.allocateTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public LongHashSet(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("initial capacity cannot be less than 0");
+        }
+        this.allocateTable(smallestPowerOfTwoGreaterThan(initialCapacity + (initialCapacity >> 1) + 1));
+    }
+
+    public static LongHashSet newSet()
+    {
+        return new LongHashSet();
+    }
+
+    public static LongHashSet newSet(int initialCapacity)
+    {
+        return new LongHashSet(initialCapacity);
+    }
+
+    public static LongHashSet newSet(LongIterable source)
+    {
+        LongHashSet result = new LongHashSet(source.size());
+        result.addAll(source);
+        return result;
+    }
+
+    public static LongHashSet newSetWith(long... elements)
+    {
+        LongHashSet result = new LongHashSet(elements.length);
+        result.addAll(elements);
+        return result;
+    }
+
+    /**
+     * Creates a new set of the results of applying the function to each element of the iterable, without boxing the
+     * results.
+     */
+    public static <T> LongHashSet newSet(Iterable<T> iterable, final LongFunction<? super T> function)
+    {
+        final LongHashSet result = new LongHashSet(Iterate.sizeOf(iterable));
+        Iterate.forEach(iterable, new Procedure<T>()
+        {
+            public void value(T each)
+            {
+                result.add(function.longValueOf(each));
+            }
+        });
+        return result;
+    }
+
+    private static int smallestPowerOfTwoGreaterThan(int n)
+    {
+        return n > 1 ? Integer.highestOneBit(n - 1) << 1 : 1;
+    }
+
+    private void allocateTable(int sizeToAllocate)
+    {
+        this.table = new long[sizeToAllocate];
+    }
+
+    private int maxOccupiedWithData()
+    {
+        int capacity = this.table.length;
+        return Math.min(capacity - 1, capacity - (capacity >> 2));
+    }
+
+    private static boolean isNonSentinel(long value)
+    {
+        return value != EMPTY && value != REMOVED;
+    }
+
+    // exposed for testing
+    int spreadAndMask(long element)
+    {
+        // the finalization mix of MurmurHash3, so that keys which differ only in their high bits do not collide
+        long code = element;
+        code ^= code >>> 33;
+        code *= 0xff51afd7ed558ccdL;
+        code ^= code >>> 33;
+        code *= 0xc4ceb9fe1a85ec53L;
+        code ^= code >>> 33;
+        return (int) code & (this.table.length - 1);
+    }
+
+    /**
+     * Returns the index of the slot holding the element, or if it is absent, the index of the first slot the element
+     * could be stored in.
+     */
+    private int probe(long element)
+    {
+        int mask = this.table.length - 1;
+        int index = this.spreadAndMask(element);
+        int removedIndex = -1;
+        while (true)
+        {
+            long current = this.table[index];
+            if (current == element)
+            {
+                return index;
+            }
+            if (current == EMPTY)
+            {
+                return removedIndex == -1 ? index : removedIndex;
+            }
+            if (current == REMOVED && removedIndex == -1)
+            {
+                removedIndex = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehashAndGrow()
+    {
+        int capacity = this.table.length;
+        // if most of the occupied slots are removed markers, rehashing into the same capacity reclaims them
+        this.rehash(this.occupiedWithData > this.maxOccupiedWithData() >> 1 ? capacity << 1 : capacity);
+    }
+
+    private void rehash(int newCapacity)
+    {
+        long[] old = this.table;
+        this.allocateTable(newCapacity);
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        for (long each : old)
+        {
+            if (isNonSentinel(each))
+            {
+                this.table[this.probe(each)] = each;
+                this.occupiedWithData++;
+            }
+        }
+    }
+
+    public boolean add(long element)
+    {
+        if (element == EMPTY)
+        {
+            boolean changed = !this.containsEmptyKey;
+            this.containsEmptyKey = true;
+            return changed;
+        }
+        if (element == REMOVED)
+        {
+            boolean changed = !this.containsRemovedKey;
+            this.containsRemovedKey = true;
+            return changed;
+        }
+        int index = this.probe(element);
+        long current = this.table[index];
+        if (current == element)
+        {
+            return false;
+        }
+        if (current == REMOVED)
+        {
+            this.occupiedWithSentinels--;
+        }
+        this.table[index] = element;
+        this.occupiedWithData++;
+        if (this.occupiedWithData + this.occupiedWithSentinels > this.maxOccupiedWithData())
+        {
+            this.rehashAndGrow();
+        }
+        return true;
+    }
+
+    public boolean addAll(long... source)
+    {
+        int oldSize = this.size();
+        for (long each : source)
+        {
+            this.add(each);
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean addAll(LongIterable source)
+    {
+        int oldSize = this.size();
+        if (source instanceof LongHashSet)
+        {
+            LongHashSet hashSet = (LongHashSet) source;
+            this.containsEmptyKey |= hashSet.containsEmptyKey;
+            this.containsRemovedKey |= hashSet.containsRemovedKey;
+            for (long each : hashSet.table)
+            {
+                if (isNonSentinel(each))
+                {
+                    this.add(each);
+                }
+            }
+        }
+        else
+        {
+            LongIterator iterator = source.longIterator();
+            while (iterator.hasNext())
+            {
+                this.add(iterator.next());
+            }
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean remove(long value)
+    {
+        if (value == EMPTY)
+        {
+            boolean changed = this.containsEmptyKey;
+            this.containsEmptyKey = false;
+            return changed;
+        }
+        if (value == REMOVED)
+        {
+            boolean changed = this.containsRemovedKey;
+            this.containsRemovedKey = false;
+            return changed;
+        }
+        int index = this.probe(value);
+        if (this.table[index] == value)
+        {
+            this.table[index] = REMOVED;
+            this.occupiedWithData--;
+            this.occupiedWithSentinels++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean removeAll(long... source)
+    {
+        int oldSize = this.size();
+        for (long each : source)
+        {
+            this.remove(each);
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean removeAll(LongIterable source)
+    {
+        int oldSize = this.size();
+        LongIterator iterator = source.longIterator();
+        while (iterator.hasNext())
+        {
+            this.remove(iterator.next());
+        }
+        return this.size() != oldSize;
+    }
+
+    public boolean retainAll(LongIterable source)
+    {
+        int oldSize = this.size();
+        LongSet sourceSet = source instanceof LongSet ? (LongSet) source : LongHashSet.newSet(source);
+        if (this.containsEmptyKey && !sourceSet.contains(EMPTY))
+        {
+            this.containsEmptyKey = false;
+        }
+        if (this.containsRemovedKey && !sourceSet.contains(REMOVED))
+        {
+            this.containsRemovedKey = false;
+        }
+        for (int i = 0; i < this.table.length; i++)
+        {
+            long each = this.table[i];
+            if (isNonSentinel(each) && !sourceSet.contains(each))
+            {
+                this.table[i] = REMOVED;
+                this.occupiedWithData--;
+                this.occupiedWithSentinels++;
+            }
+        }
+        return this.size() != oldSize;
+    }
+
+    public void clear()
+    {
+        this.occupiedWithData = 0;
+        this.occupiedWithSentinels = 0;
+        this.containsEmptyKey = false;
+        this.containsRemovedKey = false;
+        Arrays.fill(this.table, EMPTY);
+    }
+
+    public LongHashSet with(long element)
+    {
+        this.add(element);
+        return this;
+    }
+
+    public LongHashSet without(long element)
+    {
+        this.remove(element);
+        return this;
+    }
+
+    public LongHashSet withAll(LongIterable elements)
+    {
+        this.addAll(elements);
+        return this;
+    }
+
+    public int size()
+    {
+        return this.occupiedWithData + (this.containsEmptyKey ? 1 : 0) + (this.containsRemovedKey ? 1 : 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    public boolean notEmpty()
+    {
+        return this.size() != 0;
+    }
+
+    public boolean contains(long value)
+    {
+        if (value == EMPTY)
+        {
+            return this.containsEmptyKey;
+        }
+        if (value == REMOVED)
+        {
+            return this.containsRemovedKey;
+        }
+        return this.table[this.probe(value)] == value;
+    }
+
+    public boolean containsAll(long... source)
+    {
+        for (long each : source)
+        {
+            if (!this.contains(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public LongIterator longIterator()
+    {
+        return new InternalLongIterator();
+    }
+
+    public void forEach(LongProcedure procedure)
+    {
+        if (this.containsEmptyKey)
+        {
+            procedure.value(EMPTY);
+        }
+        if (this.containsRemovedKey)
+        {
+            procedure.value(REMOVED);
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                procedure.value(each);
+            }
+        }
+    }
+
+    public int count(LongPredicate predicate)
+    {
+        int count = 0;
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            count++;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            count++;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean anySatisfy(LongPredicate predicate)
+    {
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            return true;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            return true;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean allSatisfy(LongPredicate predicate)
+    {
+        if (this.containsEmptyKey && !predicate.accept(EMPTY))
+        {
+            return false;
+        }
+        if (this.containsRemovedKey && !predicate.accept(REMOVED))
+        {
+            return false;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && !predicate.accept(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long find(LongPredicate predicate, long ifNone)
+    {
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            return EMPTY;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            return REMOVED;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                return each;
+            }
+        }
+        return ifNone;
+    }
+
+    public LongHashSet filter(LongPredicate predicate)
+    {
+        LongHashSet result = new LongHashSet();
+        if (this.containsEmptyKey && predicate.accept(EMPTY))
+        {
+            result.containsEmptyKey = true;
+        }
+        if (this.containsRemovedKey && predicate.accept(REMOVED))
+        {
+            result.containsRemovedKey = true;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && predicate.accept(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public LongHashSet filterNot(LongPredicate predicate)
+    {
+        LongHashSet result = new LongHashSet();
+        if (this.containsEmptyKey && !predicate.accept(EMPTY))
+        {
+            result.containsEmptyKey = true;
+        }
+        if (this.containsRemovedKey && !predicate.accept(REMOVED))
+        {
+            result.containsRemovedKey = true;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && !predicate.accept(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public <V> UnifiedSet<V> transform(LongToObjectFunction<? extends V> function)
+    {
+        UnifiedSet<V> target = UnifiedSet.newSet(this.size());
+        if (this.containsEmptyKey)
+        {
+            target.add(function.valueOf(EMPTY));
+        }
+        if (this.containsRemovedKey)
+        {
+            target.add(function.valueOf(REMOVED));
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                target.add(function.valueOf(each));
+            }
+        }
+        return target;
+    }
+
+    public long sum()
+    {
+        long result = this.containsRemovedKey ? REMOVED : EMPTY;
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                result += each;
+            }
+        }
+        return result;
+    }
+
+    public long min()
+    {
+        this.checkEmpty();
+        long min = this.containsEmptyKey ? EMPTY : this.containsRemovedKey ? REMOVED : Long.MAX_VALUE;
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && each < min)
+            {
+                min = each;
+            }
+        }
+        return min;
+    }
+
+    public long max()
+    {
+        this.checkEmpty();
+        long max = this.containsRemovedKey ? REMOVED : this.containsEmptyKey ? EMPTY : Long.MIN_VALUE;
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each) && each > max)
+            {
+                max = each;
+            }
+        }
+        return max;
+    }
+
+    private void checkEmpty()
+    {
+        if (this.isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+    }
+
+    public double average()
+    {
+        if (this.isEmpty())
+        {
+            throw new ArithmeticException("Cannot compute the average of an empty set");
+        }
+        return (double) this.sum() / (double) this.size();
+    }
+
+    public long[] toArray()
+    {
+        long[] result = new long[this.size()];
+        int index = 0;
+        if (this.containsEmptyKey)
+        {
+            result[index++] = EMPTY;
+        }
+        if (this.containsRemovedKey)
+        {
+            result[index++] = REMOVED;
+        }
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                result[index++] = each;
+            }
+        }
+        return result;
+    }
+
+    public long[] toSortedArray()
+    {
+        long[] array = this.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public LongArrayList toList()
+    {
+        return LongArrayList.newListWith(this.toArray());
+    }
+
+    public LongHashSet union(LongSet set)
+    {
+        if (this.size() < set.size())
+        {
+            return LongHashSet.newSet(set).withAll(this);
+        }
+        return LongHashSet.newSet(this).withAll(set);
+    }
+
+    public LongHashSet intersect(LongSet set)
+    {
+        if (set.size() < this.size())
+        {
+            return LongHashSet.intersect(set, this);
+        }
+        return LongHashSet.intersect(this, set);
+    }
+
+    private static LongHashSet intersect(LongSet smallerSet, LongSet largerSet)
+    {
+        LongHashSet result = new LongHashSet();
+        LongIterator iterator = smallerSet.longIterator();
+        while (iterator.hasNext())
+        {
+            long each = iterator.next();
+            if (largerSet.contains(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public LongHashSet difference(final LongSet subtrahendSet)
+    {
+        return this.filterNot(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return subtrahendSet.contains(value);
+            }
+        });
+    }
+
+    public LongHashSet symmetricDifference(LongSet setB)
+    {
+        LongHashSet result = this.difference(setB);
+        LongIterator iterator = setB.longIterator();
+        while (iterator.hasNext())
+        {
+            long each = iterator.next();
+            if (!this.contains(each))
+            {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    public boolean isSubsetOf(final LongSet candidateSuperset)
+    {
+        return this.size() <= candidateSuperset.size() && this.allSatisfy(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return candidateSuperset.contains(value);
+            }
+        });
+    }
+
+    public boolean isProperSubsetOf(LongSet candidateSuperset)
+    {
+        return this.size() < candidateSuperset.size() && this.isSubsetOf(candidateSuperset);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof LongSet))
+        {
+            return false;
+        }
+        final LongSet other = (LongSet) obj;
+        return this.size() == other.size() && this.allSatisfy(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return other.contains(value);
+            }
+        });
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = this.containsRemovedKey ? 1 : 0;
+        for (long each : this.table)
+        {
+            if (isNonSentinel(each))
+            {
+                hashCode += (int) (each ^ each >>> 32);
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.makeString("[", ", ", "]");
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, String separator, String end)
+    {
+        StringBuilder builder = new StringBuilder(start);
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            builder.append(iterator.next());
+            if (iterator.hasNext())
+            {
+                builder.append(separator);
+            }
+        }
+        return builder.append(end).toString();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeInt(this.size());
+        LongIterator iterator = this.longIterator();
+        while (iterator.hasNext())
+        {
+            out.writeLong(iterator.next());
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException
+    {
+        int size = in.readInt();
+        this.allocateTable(smallestPowerOfTwoGreaterThan(size + (size >> 1) + 1));
+        for (int i = 0; i < size; i++)
+        {
+            this.add(in.readLong());
+        }
+    }
+
+    private class InternalLongIterator
+            implements LongIterator
+    {
+        private int count;
+        private int position;
+        private boolean handledEmptyKey;
+        private boolean handledRemovedKey;
+
+        public boolean hasNext()
+        {
+            return this.count < LongHashSet.this.size();
+        }
+
+        public long next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            this.count++;
+            if (!this.handledEmptyKey)
+            {
+                this.handledEmptyKey = true;
+                if (LongHashSet.this.containsEmptyKey)
+                {
+                    return EMPTY;
+                }
+            }
+            if (!this.handledRemovedKey)
+            {
+                this.handledRemovedKey = true;
+                if (LongHashSet.this.containsRemovedKey)
+                {
+                    return REMOVED;
+                }
+            }
+            long[] table = LongHashSet.this.table;
+            while (!isNonSentinel(table[this.position]))
+            {
+                this.position++;
+            }
+            return table[this.position++];
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * A IntSet which may be modified in place.
+ *
+ * @since 1.3
+ */
+public interface MutableIntSet
+        extends IntSet
+{
+    /**
+     * Adds the value to the set, returning true if the set did not already contain it.
+     */
+    boolean add(int element);
+
+    boolean addAll(int... source);
+
+    boolean addAll(IntIterable source);
+
+    /**
+     * Removes the value from the set, returning true if the set contained it.
+     */
+    boolean remove(int value);
+
+    boolean removeAll(int... source);
+
+    boolean removeAll(IntIterable source);
+
+    /**
+     * Removes all of the elements which are not contained in the source, returning true if the set was changed.
+     */
+    boolean retainAll(IntIterable source);
+
+    void clear();
+
+    MutableIntSet with(int element);
+
+    MutableIntSet without(int element);
+
+    MutableIntSet withAll(IntIterable elements);
+
+    MutableIntSet filter(IntPredicate predicate);
+
+    MutableIntSet filterNot(IntPredicate predicate);
+
+    <V> MutableSet<V> transform(IntToObjectFunction<? extends V> function);
+
+    MutableIntSet union(IntSet set);
+
+    MutableIntSet intersect(IntSet set);
+
+    MutableIntSet difference(IntSet subtrahendSet);
+
+    MutableIntSet symmetricDifference(IntSet setB);
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+
+/**
+ * The factory behind {@link com.webguys.ponzu.impl.factory.IntSets#mutable}.
+ *
+ * @since 1.3
+ */
+public final class MutableIntSetFactory
+{
+    public MutableIntSet of()
+    {
+        return IntHashSet.newSet();
+    }
+
+    public MutableIntSet of(int... items)
+    {
+        return IntHashSet.newSetWith(items);
+    }
+
+    public MutableIntSet ofAll(IntIterable items)
+    {
+        return IntHashSet.newSet(items);
+    }
+
+    /**
+     * Returns a set of the results of applying the function to each element of the iterable.
+     */
+    public <T> MutableIntSet transform(Iterable<T> iterable, IntFunction<? super T> function)
+    {
+        return IntHashSet.newSet(iterable, function);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+
+/**
+ * A LongSet which may be modified in place.
+ *
+ * @since 1.3
+ */
+public interface MutableLongSet
+        extends LongSet
+{
+    /**
+     * Adds the value to the set, returning true if the set did not already contain it.
+     */
+    boolean add(long element);
+
+    boolean addAll(long... source);
+
+    boolean addAll(LongIterable source);
+
+    /**
+     * Removes the value from the set, returning true if the set contained it.
+     */
+    boolean remove(long value);
+
+    boolean removeAll(long... source);
+
+    boolean removeAll(LongIterable source);
+
+    /**
+     * Removes all of the elements which are not contained in the source, returning true if the set was changed.
+     */
+    boolean retainAll(LongIterable source);
+
+    void clear();
+
+    MutableLongSet with(long element);
+
+    MutableLongSet without(long element);
+
+    MutableLongSet withAll(LongIterable elements);
+
+    MutableLongSet filter(LongPredicate predicate);
+
+    MutableLongSet filterNot(LongPredicate predicate);
+
+    <V> MutableSet<V> transform(LongToObjectFunction<? extends V> function);
+
+    MutableLongSet union(LongSet set);
+
+    MutableLongSet intersect(LongSet set);
+
+    MutableLongSet difference(LongSet subtrahendSet);
+
+    MutableLongSet symmetricDifference(LongSet setB);
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.sorted.immutable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.block.procedure.Procedure2;
+import com.webguys.ponzu.api.set.sorted.ImmutableSortedSet;
+import com.webguys.ponzu.api.set.sorted.SortedSetIterable;
+import com.webguys.ponzu.impl.utility.internal.SortedSetIterables;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An ImmutableSortedSet which keeps its elements in a sorted array.  contains is a binary search over the array,
+ * first and last are O(1), and iteration walks the array with no per-element allocation.
+ * <p/>
+ * headSet, tailSet and subSet find their bounds by binary search and return a set over a range of the same array, so
+ * they cost O(log n) and never copy.  Such a set keeps the whole array reachable, and serializes only its own range.
+ *
+ * @since 1.3
+ */
+@Immutable
+final class ImmutableSortedArraySet<T>
+        extends AbstractImmutableSortedSet<T>
+        implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Comparator<? super T> comparator;
+    private final Object[] elements;
+    private final int from;
+    private final int to;
+
+    private ImmutableSortedArraySet(Comparator<? super T> comparator, Object[] elements, int from, int to)
+    {
+        this.comparator = comparator;
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static <T> ImmutableSortedSet<T> newSetWith(T... elements)
+    {
+        return ImmutableSortedArraySet.newSetWith(null, elements);
+    }
+
+    /**
+     * Sorts a copy of the elements and drops all but the first of any run of equal ones, as adding them to a
+     * TreeSortedSet in turn would.
+     */
+    public static <T> ImmutableSortedSet<T> newSetWith(Comparator<? super T> comparator, T... elements)
+    {
+        if (elements.length == 0)
+        {
+            return ImmutableSortedArraySet.empty(comparator);
+        }
+        Object[] sorted = elements.clone();
+        if (comparator == null)
+        {
+            for (Object each : sorted)
+            {
+                if (each == null)
+                {
+                    throw new NullPointerException("Natural ordering does not allow null elements");
+                }
+            }
+        }
+        Arrays.sort(sorted, (Comparator<Object>) comparator);
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++)
+        {
+            if (compare(comparator, sorted[i], sorted[size - 1]) != 0)
+            {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new ImmutableSortedArraySet<T>(comparator, sorted, 0, size);
+    }
+
+    /**
+     * Copies the elements of the sorted set, which are already in order, without comparing any of them.
+     */
+    public static <T> ImmutableSortedSet<T> newSet(SortedSet<T> set)
+    {
+        if (set.isEmpty())
+        {
+            return ImmutableSortedArraySet.empty(set.comparator());
+        }
+        Object[] elements = set.toArray();
+        return new ImmutableSortedArraySet<T>(set.comparator(), elements, 0, elements.length);
+    }
+
+    private static <T> ImmutableSortedSet<T> empty(Comparator<? super T> comparator)
+    {
+        if (comparator == null)
+        {
+            return (ImmutableSortedSet<T>) ImmutableEmptySortedSet.INSTANCE;
+        }
+        return new ImmutableEmptySortedSet<T>(comparator);
+    }
+
+    private static int compare(Comparator<?> comparator, Object one, Object two)
+    {
+        if (comparator == null)
+        {
+            return ((Comparable<Object>) one).compareTo(two);
+        }
+        return ((Comparator<Object>) comparator).compare(one, two);
+    }
+
+    private int indexOf(Object element)
+    {
+        return Arrays.binarySearch(this.elements, this.from, this.to, element, (Comparator<Object>) this.comparator);
+    }
+
+    /**
+     * Returns the index of the first element which is not less than the element.
+     */
+    private int lowerBound(Object element)
+    {
+        int index = this.indexOf(element);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private ImmutableSortedSet<T> range(int newFrom, int newTo)
+    {
+        if (newFrom >= newTo)
+        {
+            return ImmutableSortedArraySet.empty(this.comparator);
+        }
+        if (newFrom == this.from && newTo == this.to)
+        {
+            return this;
+        }
+        return new ImmutableSortedArraySet<T>(this.comparator, this.elements, newFrom, newTo);
+    }
+
+    public int size()
+    {
+        return this.to - this.from;
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return this.indexOf(object) >= 0;
+    }
+
+    public T first()
+    {
+        return (T) this.elements[this.from];
+    }
+
+    public T last()
+    {
+        return (T) this.elements[this.to - 1];
+    }
+
+    public Comparator<? super T> comparator()
+    {
+        return this.comparator;
+    }
+
+    @Override
+    public ImmutableSortedSet<T> newWith(T element)
+    {
+        int index = this.indexOf(element);
+        if (index >= 0)
+        {
+            return this;
+        }
+        int insertion = -index - 1;
+        Object[] result = new Object[this.size() + 1];
+        System.arraycopy(this.elements, this.from, result, 0, insertion - this.from);
+        result[insertion - this.from] = element;
+        System.arraycopy(this.elements, insertion, result, insertion - this.from + 1, this.to - insertion);
+        return new ImmutableSortedArraySet<T>(this.comparator, result, 0, result.length);
+    }
+
+    @Override
+    public ImmutableSortedSet<T> newWithout(T element)
+    {
+        int index = this.indexOf(element);
+        if (index < 0)
+        {
+            return this;
+        }
+        if (index == this.from)
+        {
+            return this.range(this.from + 1, this.to);
+        }
+        if (index == this.to - 1)
+        {
+            return this.range(this.from, this.to - 1);
+        }
+        Object[] result = new Object[this.size() - 1];
+        System.arraycopy(this.elements, this.from, result, 0, index - this.from);
+        System.arraycopy(this.elements, index + 1, result, index - this.from, this.to - index - 1);
+        return new ImmutableSortedArraySet<T>(this.comparator, result, 0, result.length);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement)
+    {
+        if (compare(this.comparator, fromElement, toElement) > 0)
+        {
+            throw new IllegalArgumentException("fromElement(" + fromElement + ") > toElement(" + toElement + ')');
+        }
+        return (SortedSet<T>) this.range(this.lowerBound(fromElement), this.lowerBound(toElement));
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement)
+    {
+        return (SortedSet<T>) this.range(this.from, this.lowerBound(toElement));
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement)
+    {
+        return (SortedSet<T>) this.range(this.lowerBound(fromElement), this.to);
+    }
+
+    public void forEach(Procedure<? super T> procedure)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            procedure.value((T) this.elements[i]);
+        }
+    }
+
+    @Override
+    public void forEachWithIndex(ObjectIntProcedure<? super T> objectIntProcedure)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            objectIntProcedure.value((T) this.elements[i], i - this.from);
+        }
+    }
+
+    @Override
+    public <P> void forEachWith(Procedure2<? super T, ? super P> procedure, P parameter)
+    {
+        for (int i = this.from; i < this.to; i++)
+        {
+            procedure.value((T) this.elements[i], parameter);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int index = ImmutableSortedArraySet.this.from;
+
+            public boolean hasNext()
+            {
+                return this.index < ImmutableSortedArraySet.this.to;
+            }
+
+            public T next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                return (T) ImmutableSortedArraySet.this.elements[this.index++];
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException("Cannot remove from an ImmutableSortedSet");
+            }
+        };
+    }
+
+    public int compareTo(SortedSetIterable<T> o)
+    {
+        return SortedSetIterables.compare(this, o);
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (!(object instanceof Set))
+        {
+            return false;
+        }
+        Set<?> other = (Set<?>) object;
+        if (other.size() != this.size())
+        {
+            return false;
+        }
+        try
+        {
+            return this.containsAll(other);
+        }
+        catch (ClassCastException ignored)
+        {
+            return false;
+        }
+        catch (NullPointerException ignored)
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 0;
+        for (int i = this.from; i < this.to; i++)
+        {
+            Object each = this.elements[i];
+            result += each == null ? 0 : each.hashCode();
+        }
+        return result;
+    }
+
+    private Object writeReplace()
+    {
+        return new SortedArraySetSerializationProxy<T>(this);
+    }
+
+    private static class SortedArraySetSerializationProxy<T> implements Externalizable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ImmutableSortedArraySet<T> set;
+
+        @SuppressWarnings("UnusedDeclaration")
+        public SortedArraySetSerializationProxy()
+        {
+            // For Externalizable use only
+        }
+
+        private SortedArraySetSerializationProxy(ImmutableSortedArraySet<T> set)
+        {
+            this.set = set;
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException
+        {
+            out.writeObject(this.set.comparator);
+            out.writeInt(this.set.size());
+            for (int i = this.set.from; i < this.set.to; i++)
+            {
+                out.writeObject(this.set.elements[i]);
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+        {
+            Comparator<? super T> comparator = (Comparator<? super T>) in.readObject();
+            Object[] elements = new Object[in.readInt()];
+            for (int i = 0; i < elements.length; i++)
+            {
+                elements[i] = in.readObject();
+            }
+            this.set = new ImmutableSortedArraySet<T>(comparator, elements, 0, elements.length);
+        }
+
+        protected Object readResolve()
+        {
+            return this.set;
+        }
+    }
+}
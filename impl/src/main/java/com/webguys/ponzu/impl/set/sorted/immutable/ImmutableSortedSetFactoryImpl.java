@@ -37,7 +37,7 @@ public final class ImmutableSortedSetFactoryImpl implements ImmutableSortedSetFa
             return this.of();
         }
 
-        return ImmutableTreeSet.newSetWith(items);
+        return ImmutableSortedArraySet.newSetWith(items);
     }
 
     public <T> ImmutableSortedSet<T> ofAll(Iterable<? extends T> items)
@@ -66,7 +66,7 @@ public final class ImmutableSortedSetFactoryImpl implements ImmutableSortedSetFa
             return this.of(comparator);
         }
 
-        return ImmutableTreeSet.newSetWith(comparator, items);
+        return ImmutableSortedArraySet.newSetWith(comparator, items);
     }
 
     public <T> ImmutableSortedSet<T> ofAll(Comparator<? super T> comparator, Iterable<? extends T> items)
@@ -84,6 +84,6 @@ public final class ImmutableSortedSetFactoryImpl implements ImmutableSortedSetFa
         {
             return this.of(set.comparator());
         }
-        return ImmutableTreeSet.newSet(set);
+        return ImmutableSortedArraySet.newSet(set);
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.strategy.mutable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import com.webguys.ponzu.api.block.HashingStrategy;
+import com.webguys.ponzu.api.set.Pool;
+import com.webguys.ponzu.impl.map.mutable.ConcurrentUnifiedMap;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * ConcurrentPoolWithHashingStrategy is the thread-safe counterpart of using a UnifiedSetWithHashingStrategy as a Pool:
+ * objects are pooled by the hash codes and equality of the HashingStrategy rather than their own.  Like
+ * {@link com.webguys.ponzu.impl.set.mutable.ConcurrentPool} it is built on a ConcurrentUnifiedMap, so get never blocks
+ * and put adds an object with a single compare-and-set, and a pool created by {@link #newWeakPool(HashingStrategy)}
+ * lets objects which are no longer used elsewhere be garbage collected.
+ * <p/>
+ * Null cannot be pooled.
+ *
+ * @since 1.3
+ */
+@ThreadSafe
+public final class ConcurrentPoolWithHashingStrategy<V>
+        implements Pool<V>
+{
+    private final HashingStrategy<? super V> hashingStrategy;
+
+    private final ConcurrentUnifiedMap<PooledKey<V>, PooledKey<V>> pooled;
+
+    /**
+     * The queue the collected objects of a weak pool are reported to, or null for a pool which holds its objects
+     * strongly.
+     */
+    private final ReferenceQueue<V> collected;
+
+    private ConcurrentPoolWithHashingStrategy(HashingStrategy<? super V> hashingStrategy, int initialCapacity, boolean weak)
+    {
+        if (hashingStrategy == null)
+        {
+            throw new IllegalArgumentException("Cannot Instantiate ConcurrentPoolWithHashingStrategy with null HashingStrategy");
+        }
+        this.hashingStrategy = hashingStrategy;
+        this.pooled = ConcurrentUnifiedMap.newMap(initialCapacity);
+        this.collected = weak ? new ReferenceQueue<V>() : null;
+    }
+
+    public static <V> ConcurrentPoolWithHashingStrategy<V> newPool(HashingStrategy<? super V> hashingStrategy)
+    {
+        return new ConcurrentPoolWithHashingStrategy<V>(hashingStrategy, 16, false);
+    }
+
+    public static <V> ConcurrentPoolWithHashingStrategy<V> newPool(
+            HashingStrategy<? super V> hashingStrategy,
+            int initialCapacity)
+    {
+        return new ConcurrentPoolWithHashingStrategy<V>(hashingStrategy, initialCapacity, false);
+    }
+
+    public static <V> ConcurrentPoolWithHashingStrategy<V> newWeakPool(HashingStrategy<? super V> hashingStrategy)
+    {
+        return new ConcurrentPoolWithHashingStrategy<V>(hashingStrategy, 16, true);
+    }
+
+    public static <V> ConcurrentPoolWithHashingStrategy<V> newWeakPool(
+            HashingStrategy<? super V> hashingStrategy,
+            int initialCapacity)
+    {
+        return new ConcurrentPoolWithHashingStrategy<V>(hashingStrategy, initialCapacity, true);
+    }
+
+    public HashingStrategy<? super V> hashingStrategy()
+    {
+        return this.hashingStrategy;
+    }
+
+    public V get(V key)
+    {
+        return valueOf(this.pooled.get(this.lookup(key)));
+    }
+
+    public V put(V key)
+    {
+        this.expungeCollected();
+        PooledKey<V> pooledKey = this.collected == null
+                ? this.lookup(key)
+                : new WeakKey<V>(key, this.hashingStrategy, this.collected);
+        while (true)
+        {
+            PooledKey<V> existing = this.pooled.putIfAbsent(pooledKey, pooledKey);
+            if (existing == null)
+            {
+                return key;
+            }
+            V existingValue = existing.value();
+            if (existingValue != null)
+            {
+                return existingValue;
+            }
+            this.pooled.remove(existing, existing);
+        }
+    }
+
+    public V removeFromPool(V key)
+    {
+        return valueOf(this.pooled.remove(this.lookup(key)));
+    }
+
+    public int size()
+    {
+        this.expungeCollected();
+        return this.pooled.size();
+    }
+
+    public void clear()
+    {
+        this.pooled.clear();
+    }
+
+    private StrongKey<V> lookup(V key)
+    {
+        if (key == null)
+        {
+            throw new NullPointerException("ConcurrentPoolWithHashingStrategy cannot pool null");
+        }
+        return new StrongKey<V>(key, this.hashingStrategy);
+    }
+
+    private static <V> V valueOf(PooledKey<V> pooledKey)
+    {
+        return pooledKey == null ? null : pooledKey.value();
+    }
+
+    private void expungeCollected()
+    {
+        if (this.collected != null)
+        {
+            for (Reference<? extends V> each = this.collected.poll(); each != null; each = this.collected.poll())
+            {
+                this.pooled.remove(each, each);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentPoolWithHashingStrategy{size=" + this.pooled.size() + '}';
+    }
+
+    /**
+     * A pooled object, or an object being looked up, wrapped so that the map hashes and compares it with the
+     * HashingStrategy.  A key whose object has been collected is equal only to itself, so that it can still be
+     * removed.
+     */
+    private interface PooledKey<V>
+    {
+        V value();
+    }
+
+    private static <V> boolean keysEqual(
+            PooledKey<V> key,
+            Object obj,
+            HashingStrategy<? super V> hashingStrategy)
+    {
+        if (key == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof PooledKey))
+        {
+            return false;
+        }
+        V value = key.value();
+        V other = ((PooledKey<V>) obj).value();
+        return value != null && other != null && hashingStrategy.equals(value, other);
+    }
+
+    private static final class StrongKey<V> implements PooledKey<V>
+    {
+        private final V value;
+        private final HashingStrategy<? super V> hashingStrategy;
+
+        private StrongKey(V value, HashingStrategy<? super V> hashingStrategy)
+        {
+            this.value = value;
+            this.hashingStrategy = hashingStrategy;
+        }
+
+        public V value()
+        {
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return keysEqual(this, obj, this.hashingStrategy);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashingStrategy.computeHashCode(this.value);
+        }
+    }
+
+    private static final class WeakKey<V> extends WeakReference<V> implements PooledKey<V>
+    {
+        private final int hashCode;
+        private final HashingStrategy<? super V> hashingStrategy;
+
+        private WeakKey(V value, HashingStrategy<? super V> hashingStrategy, ReferenceQueue<V> queue)
+        {
+            super(value, queue);
+            this.hashCode = hashingStrategy.computeHashCode(value);
+            this.hashingStrategy = hashingStrategy;
+        }
+
+        public V value()
+        {
+            return this.get();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return keysEqual(this, obj, this.hashingStrategy);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+    }
+}
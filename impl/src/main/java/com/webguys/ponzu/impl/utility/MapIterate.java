@@ -112,6 +112,10 @@ public final class MapIterate
             Function<? super P, ? extends V> function,
             P parameter)
     {
+        if (map instanceof MutableMap)
+        {
+            return ((MutableMap<K, V>) map).getIfAbsentPutWith(key, function, parameter);
+        }
         V result = map.get(key);
         if (MapIterate.isAbsent(result, map, key))
         {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.impl.bag.mutable.HashBag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counts occurrences with a HashBag and, as a baseline, with a HashMap of boxed counts.  Each key is added
+ * {@code occurrences} times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class BagBenchmark
+{
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"1", "10"})
+    public int occurrences;
+
+    @Param
+    public KeyDistribution distribution;
+
+    private Object[] keys;
+
+    @Setup
+    public void setUp()
+    {
+        this.keys = this.distribution.createKeys(this.size);
+    }
+
+    @Benchmark
+    public HashBag<Object> hashBag()
+    {
+        HashBag<Object> bag = HashBag.newBag();
+        for (int i = 0; i < this.occurrences; i++)
+        {
+            for (Object key : this.keys)
+            {
+                bag.add(key);
+            }
+        }
+        return bag;
+    }
+
+    @Benchmark
+    public Map<Object, Integer> hashMapOfCounts()
+    {
+        Map<Object, Integer> counts = new HashMap<Object, Integer>();
+        for (int i = 0; i < this.occurrences; i++)
+        {
+            for (Object key : this.keys)
+            {
+                Integer count = counts.get(key);
+                counts.put(key, count == null ? 1 : count + 1);
+            }
+        }
+        return counts;
+    }
+}
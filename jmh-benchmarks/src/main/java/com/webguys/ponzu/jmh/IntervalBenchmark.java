@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.primitive.IntInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterates over the boxed Interval, the primitive IntInterval and a plain for-loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class IntervalBenchmark
+{
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Interval interval;
+    private IntInterval intInterval;
+
+    @Setup
+    public void setUp()
+    {
+        this.interval = Interval.oneTo(this.size);
+        this.intInterval = IntInterval.oneTo(this.size);
+    }
+
+    @Benchmark
+    public void interval(final Blackhole blackhole)
+    {
+        this.interval.forEach(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                blackhole.consume(each);
+            }
+        });
+    }
+
+    @Benchmark
+    public void intInterval(final Blackhole blackhole)
+    {
+        this.intInterval.forEach(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                blackhole.consume(each);
+            }
+        });
+    }
+
+    @Benchmark
+    public void loop(Blackhole blackhole)
+    {
+        for (int i = 1; i <= this.size; i++)
+        {
+            blackhole.consume(i);
+        }
+    }
+
+    @Benchmark
+    public long intIntervalSum()
+    {
+        return this.intInterval.sum();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.Collections;
+import java.util.Random;
+
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+
+/**
+ * The shapes of key used to parameterize the hashing benchmarks.  Every distribution produces {@code size} distinct
+ * keys in a shuffled order, using a fixed seed so that runs of different versions see the same keys.
+ */
+public enum KeyDistribution
+{
+    /**
+     * Consecutive Integers, which spread perfectly over the buckets of a power of two table.
+     */
+    SEQUENTIAL
+            {
+                @Override
+                protected void addKeys(FastList<Object> keys, int size, Random random)
+                {
+                    for (int i = 0; i < size; i++)
+                    {
+                        keys.add(Integer.valueOf(i));
+                    }
+                }
+            },
+
+    /**
+     * Uniformly random Integers.
+     */
+    RANDOM
+            {
+                @Override
+                protected void addKeys(FastList<Object> keys, int size, Random random)
+                {
+                    UnifiedSet<Integer> seen = UnifiedSet.newSet(size);
+                    while (seen.size() < size)
+                    {
+                        Integer key = Integer.valueOf(random.nextInt());
+                        if (seen.add(key))
+                        {
+                            keys.add(key);
+                        }
+                    }
+                }
+            },
+
+    /**
+     * {@link CollidingInt}s where every four consecutive keys share a hash code, forcing chained buckets.
+     */
+    COLLIDING
+            {
+                @Override
+                protected void addKeys(FastList<Object> keys, int size, Random random)
+                {
+                    for (int i = 0; i < size; i++)
+                    {
+                        keys.add(new CollidingInt(i, 2));
+                    }
+                }
+            };
+
+    private static final long SEED = 0x5eedL;
+
+    protected abstract void addKeys(FastList<Object> keys, int size, Random random);
+
+    public Object[] createKeys(int size)
+    {
+        Random random = new Random(SEED);
+        FastList<Object> keys = FastList.newList(size);
+        this.addKeys(keys, size, random);
+        Collections.shuffle(keys, random);
+        return keys.toArray();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the same filter, transform and count chain lazily, eagerly and as a hand written loop, to show the cost of
+ * the lazy iterator chain and of the intermediate collections of the eager one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class LazyIterableBenchmark
+{
+    private static final Predicate<Integer> IS_EVEN = new Predicate<Integer>()
+    {
+        public boolean accept(Integer each)
+        {
+            return (each & 1) == 0;
+        }
+    };
+
+    private static final Function<Integer, Integer> SQUARE = new Function<Integer, Integer>()
+    {
+        public Integer valueOf(Integer each)
+        {
+            return each * each;
+        }
+    };
+
+    private static final Predicate<Integer> ENDS_IN_SIX = new Predicate<Integer>()
+    {
+        public boolean accept(Integer each)
+        {
+            return each % 10 == 6;
+        }
+    };
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private FastList<Integer> list;
+
+    @Setup
+    public void setUp()
+    {
+        this.list = FastList.newList(Interval.oneTo(this.size));
+    }
+
+    @Benchmark
+    public int lazy()
+    {
+        return LazyIterate.adapt(this.list).filter(IS_EVEN).transform(SQUARE).count(ENDS_IN_SIX);
+    }
+
+    @Benchmark
+    public int eager()
+    {
+        MutableList<Integer> squares = this.list.filter(IS_EVEN).transform(SQUARE);
+        return squares.count(ENDS_IN_SIX);
+    }
+
+    @Benchmark
+    public int loop()
+    {
+        int count = 0;
+        for (int i = 0; i < this.list.size(); i++)
+        {
+            Integer each = this.list.get(i);
+            if (IS_EVEN.accept(each) && ENDS_IN_SIX.accept(SQUARE.valueOf(each)))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares FastList with ArrayList for appending, indexed access and iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class ListBenchmark
+{
+    public enum Implementation
+    {
+        FAST_LIST
+                {
+                    @Override
+                    public List<Object> newList(int size)
+                    {
+                        return FastList.newList(size);
+                    }
+                },
+        ARRAY_LIST
+                {
+                    @Override
+                    public List<Object> newList(int size)
+                    {
+                        return new ArrayList<Object>(size);
+                    }
+                };
+
+        public abstract List<Object> newList(int size);
+    }
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param
+    public Implementation implementation;
+
+    private Object[] elements;
+    private List<Object> list;
+
+    @Setup
+    public void setUp()
+    {
+        this.elements = KeyDistribution.SEQUENTIAL.createKeys(this.size);
+        this.list = this.implementation.newList(this.size);
+        for (Object each : this.elements)
+        {
+            this.list.add(each);
+        }
+    }
+
+    @Benchmark
+    public List<Object> add()
+    {
+        List<Object> result = this.implementation.newList(0);
+        for (Object each : this.elements)
+        {
+            result.add(each);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole)
+    {
+        List<Object> local = this.list;
+        for (int i = 0; i < local.size(); i++)
+        {
+            blackhole.consume(local.get(i));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole)
+    {
+        for (Object each : this.list)
+        {
+            blackhole.consume(each);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares UnifiedMap with HashMap.  {@code put} starts from a default sized map, so it includes the cost of every
+ * resize, while {@code presizedPut} starts from a map that is already large enough.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class MapBenchmark
+{
+    public enum Implementation
+    {
+        UNIFIED_MAP
+                {
+                    @Override
+                    public Map<Object, Object> newMap()
+                    {
+                        return UnifiedMap.newMap();
+                    }
+
+                    @Override
+                    public Map<Object, Object> newMap(int size)
+                    {
+                        return UnifiedMap.newMap(size);
+                    }
+                },
+        HASH_MAP
+                {
+                    @Override
+                    public Map<Object, Object> newMap()
+                    {
+                        return new HashMap<Object, Object>();
+                    }
+
+                    @Override
+                    public Map<Object, Object> newMap(int size)
+                    {
+                        return new HashMap<Object, Object>(size);
+                    }
+                };
+
+        public abstract Map<Object, Object> newMap();
+
+        public abstract Map<Object, Object> newMap(int size);
+    }
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param
+    public KeyDistribution distribution;
+
+    @Param
+    public Implementation implementation;
+
+    private Object[] keys;
+    private Map<Object, Object> map;
+
+    @Setup
+    public void setUp()
+    {
+        this.keys = this.distribution.createKeys(this.size);
+        this.map = this.implementation.newMap(this.size);
+        for (Object key : this.keys)
+        {
+            this.map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Map<Object, Object> put()
+    {
+        Map<Object, Object> result = this.implementation.newMap();
+        for (Object key : this.keys)
+        {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<Object, Object> presizedPut()
+    {
+        Map<Object, Object> result = this.implementation.newMap(this.size);
+        for (Object key : this.keys)
+        {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole)
+    {
+        for (Object key : this.keys)
+        {
+            blackhole.consume(this.map.get(key));
+        }
+    }
+
+    @Benchmark
+    public void iterateEntries(Blackhole blackhole)
+    {
+        for (Map.Entry<Object, Object> entry : this.map.entrySet())
+        {
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.parallel.ParallelIterate;
+import com.webguys.ponzu.impl.utility.Iterate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ParallelIterate operations on both of its engines, the work-stealing ForkJoinPool and a plain thread
+ * pool, next to the serial Iterate equivalent of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class ParallelIterateBenchmark
+{
+    private static final Predicate<Integer> IS_EVEN = new Predicate<Integer>()
+    {
+        public boolean accept(Integer each)
+        {
+            return (each & 1) == 0;
+        }
+    };
+
+    private static final Function<Integer, Integer> MOD_1000 = new Function<Integer, Integer>()
+    {
+        public Integer valueOf(Integer each)
+        {
+            return each % 1000;
+        }
+    };
+
+    private static final IntFunction<Integer> INT_VALUE = new IntFunction<Integer>()
+    {
+        public int intValueOf(Integer each)
+        {
+            return each;
+        }
+    };
+
+    public enum Engine
+    {
+        FORK_JOIN
+                {
+                    @Override
+                    public ExecutorService newExecutor()
+                    {
+                        return ParallelIterate.newForkJoinPool(ParallelIterate.getDefaultMaxThreadPoolSize());
+                    }
+                },
+        THREAD_POOL
+                {
+                    @Override
+                    public ExecutorService newExecutor()
+                    {
+                        return ParallelIterate.newPooledExecutor("ParallelIterateBenchmark", true);
+                    }
+                };
+
+        public abstract ExecutorService newExecutor();
+    }
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"10000"})
+    public int batchSize;
+
+    @Param
+    public Engine engine;
+
+    private FastList<Integer> list;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp()
+    {
+        this.list = FastList.newList(Interval.oneTo(this.size));
+        this.executor = this.engine.newExecutor();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        this.executor.shutdown();
+    }
+
+    @Benchmark
+    public Collection<Integer> filter()
+    {
+        return ParallelIterate.filter(this.list, IS_EVEN, FastList.<Integer>newList(), this.batchSize, this.executor, false);
+    }
+
+    @Benchmark
+    public Collection<Integer> serialFilter()
+    {
+        return Iterate.filter(this.list, IS_EVEN);
+    }
+
+    @Benchmark
+    public Collection<Integer> transform()
+    {
+        return ParallelIterate.transform(this.list, MOD_1000, FastList.<Integer>newList(), this.batchSize, this.executor, false);
+    }
+
+    @Benchmark
+    public Collection<Integer> serialTransform()
+    {
+        return Iterate.transform(this.list, MOD_1000);
+    }
+
+    @Benchmark
+    public MutableMultimap<Integer, Integer> groupBy()
+    {
+        return ParallelIterate.groupBy(this.list, MOD_1000, this.batchSize, this.executor);
+    }
+
+    @Benchmark
+    public MutableMultimap<Integer, Integer> serialGroupBy()
+    {
+        return Iterate.groupBy(this.list, MOD_1000);
+    }
+
+    @Benchmark
+    public long sumOfInt()
+    {
+        return ParallelIterate.sumOfInt(this.list, INT_VALUE, this.batchSize, this.executor);
+    }
+
+    @Benchmark
+    public long serialSumOfInt()
+    {
+        long sum = 0L;
+        for (int i = 0; i < this.list.size(); i++)
+        {
+            sum += INT_VALUE.intValueOf(this.list.get(i));
+        }
+        return sum;
+    }
+}
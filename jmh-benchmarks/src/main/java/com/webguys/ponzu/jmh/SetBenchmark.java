@@ -0,0 +1,147 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.jmh;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares UnifiedSet with HashSet.  {@code add} starts from a default sized set, so it includes the cost of every
+ * resize, while {@code presizedAdd} starts from a set that is already large enough.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class SetBenchmark
+{
+    public enum Implementation
+    {
+        UNIFIED_SET
+                {
+                    @Override
+                    public Set<Object> newSet()
+                    {
+                        return UnifiedSet.newSet();
+                    }
+
+                    @Override
+                    public Set<Object> newSet(int size)
+                    {
+                        return UnifiedSet.newSet(size);
+                    }
+                },
+        HASH_SET
+                {
+                    @Override
+                    public Set<Object> newSet()
+                    {
+                        return new HashSet<Object>();
+                    }
+
+                    @Override
+                    public Set<Object> newSet(int size)
+                    {
+                        return new HashSet<Object>(size);
+                    }
+                };
+
+        public abstract Set<Object> newSet();
+
+        public abstract Set<Object> newSet(int size);
+    }
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param
+    public KeyDistribution distribution;
+
+    @Param
+    public Implementation implementation;
+
+    private Object[] keys;
+    private Set<Object> set;
+
+    @Setup
+    public void setUp()
+    {
+        this.keys = this.distribution.createKeys(this.size);
+        this.set = this.implementation.newSet(this.size);
+        for (Object key : this.keys)
+        {
+            this.set.add(key);
+        }
+    }
+
+    @Benchmark
+    public Set<Object> add()
+    {
+        Set<Object> result = this.implementation.newSet();
+        for (Object key : this.keys)
+        {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Set<Object> presizedAdd()
+    {
+        Set<Object> result = this.implementation.newSet(this.size);
+        for (Object key : this.keys)
+        {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole)
+    {
+        for (Object key : this.keys)
+        {
+            blackhole.consume(this.set.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole)
+    {
+        for (Object each : this.set)
+        {
+            blackhole.consume(each);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.bag.immutable;
+
+import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.ImmutableBagBuilder;
+import com.webguys.ponzu.impl.factory.Bags;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableBagBuilderTest
+{
+    @Test
+    public void build()
+    {
+        ImmutableBag<String> small = Bags.immutable.<String>builder(0).add("a").add("b").addOccurrences("a", 2).build();
+        Verify.assertInstanceOf(ImmutableArrayBag.class, small);
+        Assert.assertEquals(3, small.occurrencesOf("a"));
+        Assert.assertEquals(1, small.occurrencesOf("b"));
+
+        ImmutableBag<Integer> large = Bags.immutable.<Integer>builder(100).addAll(Interval.oneTo(100)).add(1).build();
+        Verify.assertInstanceOf(ImmutableHashBag.class, large);
+        Assert.assertEquals(101, large.size());
+        Assert.assertEquals(2, large.occurrencesOf(1));
+    }
+
+    @Test
+    public void merge()
+    {
+        ImmutableBagBuilder<Integer> small = Bags.immutable.<Integer>builder(0).addAll(Interval.oneTo(10));
+        ImmutableBagBuilder<Integer> large = Bags.immutable.<Integer>builder(0).addAll(Interval.oneTo(100));
+        ImmutableBag<Integer> bag = small.merge(large).build();
+        Assert.assertEquals(110, bag.size());
+        Assert.assertEquals(2, bag.occurrencesOf(10));
+        Assert.assertEquals(1, bag.occurrencesOf(11));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildAfterMerge()
+    {
+        ImmutableBagBuilder<Integer> other = Bags.immutable.<Integer>builder(0).add(1);
+        Bags.immutable.<Integer>builder(0).add(2).merge(other);
+        other.build();
+    }
+}
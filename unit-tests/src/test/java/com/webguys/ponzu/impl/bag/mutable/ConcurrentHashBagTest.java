@@ -0,0 +1,229 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.bag.mutable;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.bag.ImmutableBag;
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ConcurrentHashBag}.
+ */
+public class ConcurrentHashBagTest
+        extends MutableBagTestCase
+{
+    private static final int THREADS = 8;
+
+    @Override
+    protected <T> MutableBag<T> classUnderTest()
+    {
+        return ConcurrentHashBag.newBag();
+    }
+
+    @Test
+    public void newBagFromIterable()
+    {
+        assertBagsEqual(
+                HashBag.newBagWith(1, 2, 2, 3, 3, 3),
+                ConcurrentHashBag.newBag(FastList.<Integer>newListWith(1, 2, 2, 3, 3, 3)));
+    }
+
+    @Test
+    public void newBagFromBag()
+    {
+        assertBagsEqual(
+                HashBag.newBagWith(1, 2, 2, 3, 3, 3),
+                ConcurrentHashBag.newBag(HashBag.newBagWith(1, 2, 2, 3, 3, 3)));
+    }
+
+    @Test
+    public void nullItem()
+    {
+        ConcurrentHashBag<String> bag = ConcurrentHashBag.newBagWith(null, null, "a");
+        Assert.assertEquals(2, bag.occurrencesOf(null));
+        Assert.assertTrue(bag.contains(null));
+        Assert.assertTrue(bag.remove(null));
+        assertBagsEqual(HashBag.newBagWith(null, "a"), bag);
+        Assert.assertTrue(bag.removeOccurrences(null, 5));
+        Assert.assertFalse(bag.contains(null));
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        ConcurrentHashBag<String> bag = ConcurrentHashBag.newBagWith("a", "a", "b");
+        Iterator<String> iterator = bag.iterator();
+        while (iterator.hasNext())
+        {
+            if ("a".equals(iterator.next()))
+            {
+                iterator.remove();
+            }
+        }
+        assertBagsEqual(HashBag.newBagWith("b"), bag);
+    }
+
+    @Test
+    public void forEachWithOccurrencesMayModifyTheBag()
+    {
+        final ConcurrentHashBag<Integer> bag = ConcurrentHashBag.newBagWith(1, 2, 2);
+        bag.forEachWithOccurrences(new ObjectIntProcedure<Integer>()
+        {
+            public void value(Integer each, int occurrences)
+            {
+                bag.addOccurrences(each + 10, occurrences);
+            }
+        });
+        assertBagsEqual(HashBag.newBagWith(1, 2, 2, 11, 12, 12), bag);
+    }
+
+    @Test
+    public void concurrentAddOccurrences() throws InterruptedException
+    {
+        final ConcurrentHashBag<Integer> bag = ConcurrentHashBag.newBag();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 100000; i++)
+                    {
+                        bag.add(i % 10);
+                        bag.addOccurrences(-1, 2);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(11, bag.sizeDistinct());
+        Assert.assertEquals(THREADS * 200000, bag.occurrencesOf(-1));
+        for (int i = 0; i < 10; i++)
+        {
+            Assert.assertEquals(THREADS * 10000, bag.occurrencesOf(i));
+        }
+        Assert.assertEquals(THREADS * 300000, bag.size());
+    }
+
+    @Test
+    public void concurrentAddAndRemoveOccurrences() throws InterruptedException
+    {
+        final ConcurrentHashBag<String> bag = ConcurrentHashBag.newBag();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 20000; i++)
+                    {
+                        bag.addOccurrences("a", 3);
+                        Assert.assertTrue(bag.removeOccurrences("a", 2));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(THREADS * 20000, bag.occurrencesOf("a"));
+    }
+
+    /**
+     * Every writer adds "first" before "second", so a snapshot taken at a single point in time can never hold more of
+     * "second" than of "first".
+     */
+    @Test
+    public void snapshotsAreConsistent() throws InterruptedException
+    {
+        final ConcurrentHashBag<String> bag = ConcurrentHashBag.newBag();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger inconsistentSnapshots = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 50000; i++)
+                    {
+                        bag.add("first");
+                        bag.add("second");
+                    }
+                }
+            });
+        }
+        executor.execute(new Runnable()
+        {
+            public void run()
+            {
+                while (!done.get())
+                {
+                    ImmutableBag<String> snapshot = bag.toImmutable();
+                    if (snapshot.occurrencesOf("second") > snapshot.occurrencesOf("first"))
+                    {
+                        inconsistentSnapshots.incrementAndGet();
+                    }
+                    final int[] counts = new int[2];
+                    bag.forEachWithOccurrences(new ObjectIntProcedure<String>()
+                    {
+                        public void value(String each, int occurrences)
+                        {
+                            counts["first".equals(each) ? 0 : 1] = occurrences;
+                        }
+                    });
+                    if (counts[1] > counts[0])
+                    {
+                        inconsistentSnapshots.incrementAndGet();
+                    }
+                }
+            }
+        });
+        executor.shutdown();
+        while (bag.occurrencesOf("second") < THREADS * 50000)
+        {
+            Thread.sleep(10L);
+        }
+        done.set(true);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(0, inconsistentSnapshots.get());
+        Assert.assertEquals(THREADS * 50000, bag.occurrencesOf("first"));
+    }
+
+    @Test
+    public void serializationKeepsCounts()
+    {
+        ConcurrentHashBag<String> bag = ConcurrentHashBag.newBag();
+        bag.addOccurrences("a", 1000);
+        bag.add(null);
+        Verify.assertPostSerializedEqualsAndHashCode(bag);
+    }
+}
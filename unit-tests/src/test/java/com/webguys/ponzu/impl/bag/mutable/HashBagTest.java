@@ -17,6 +17,7 @@
 package com.webguys.ponzu.impl.bag.mutable;
 
 import java.util.Collections;
+import java.util.Iterator;
 
 import com.webguys.ponzu.api.bag.MutableBag;
 import com.webguys.ponzu.impl.list.mutable.FastList;
@@ -66,4 +67,36 @@ public class HashBagTest
                 HashBag.newBagWith(1, 2, 2, 3, 3, 3, 4, 4, 4, 4),
                 HashBag.newBag(HashBag.newBagWith(1, 2, 2, 3, 3, 3, 4, 4, 4, 4)));
     }
+
+    @Test
+    public void iteratorRemove()
+    {
+        HashBag<String> bag = HashBag.newBagWith("a", "a", "b");
+        Iterator<String> iterator = bag.iterator();
+        while (iterator.hasNext())
+        {
+            if ("a".equals(iterator.next()))
+            {
+                iterator.remove();
+            }
+        }
+        assertBagsEqual(HashBag.newBagWith("b"), bag);
+        Assert.assertEquals(1, bag.size());
+    }
+
+    @Test
+    public void countsLargerThanOne()
+    {
+        HashBag<String> bag = HashBag.newBag();
+        bag.addOccurrences("a", 1000000);
+        bag.add(null);
+        Assert.assertEquals(1000001, bag.size());
+        Assert.assertEquals(2, bag.sizeDistinct());
+        Assert.assertTrue(bag.removeOccurrences("a", 999999));
+        Assert.assertEquals(1, bag.occurrencesOf("a"));
+        Assert.assertTrue(bag.remove("a"));
+        Assert.assertFalse(bag.remove("a"));
+        Assert.assertEquals(0, bag.occurrencesOf("a"));
+        Assert.assertEquals(1, bag.occurrencesOf(null));
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.collection.mutable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link OptimisticReadWriteLock}.
+ */
+public class OptimisticReadWriteLockTest
+{
+    @Test
+    public void stampIsValidUntilTheWriteLockIsTaken()
+    {
+        OptimisticReadWriteLock lock = new OptimisticReadWriteLock();
+        long stamp = lock.tryOptimisticRead();
+        Assert.assertTrue(stamp != 0L);
+        Assert.assertTrue(lock.validate(stamp));
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        Assert.assertTrue(lock.validate(stamp));
+        lock.writeLock().lock();
+        Assert.assertFalse(lock.validate(stamp));
+        Assert.assertEquals(0L, lock.tryOptimisticRead());
+        lock.writeLock().unlock();
+        Assert.assertFalse(lock.validate(stamp));
+        long newStamp = lock.tryOptimisticRead();
+        Assert.assertTrue(newStamp != 0L);
+        Assert.assertTrue(lock.validate(newStamp));
+    }
+
+    @Test
+    public void zeroStampIsNeverValid()
+    {
+        Assert.assertFalse(new OptimisticReadWriteLock().validate(0L));
+    }
+
+    @Test
+    public void reentrantWriteLockStaysWriteLockedUntilTheLastUnlock()
+    {
+        OptimisticReadWriteLock lock = new OptimisticReadWriteLock();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        Assert.assertTrue(writeLock.tryLock());
+        writeLock.unlock();
+        Assert.assertEquals(0L, lock.tryOptimisticRead());
+        Assert.assertTrue(lock.isWriteLocked());
+        writeLock.unlock();
+        Assert.assertFalse(lock.isWriteLocked());
+        Assert.assertTrue(lock.tryOptimisticRead() != 0L);
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void unlockWithoutLockThrows()
+    {
+        new OptimisticReadWriteLock().writeLock().unlock();
+    }
+
+    @Test
+    public void failedTryLockKeepsStampsValid() throws InterruptedException
+    {
+        final OptimisticReadWriteLock lock = new OptimisticReadWriteLock();
+        lock.readLock().lock();
+        final long stamp = lock.tryOptimisticRead();
+        final boolean[] acquired = new boolean[1];
+        Thread writer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    acquired[0] = lock.writeLock().tryLock(10L, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        writer.start();
+        writer.join();
+        lock.readLock().unlock();
+        Assert.assertFalse(acquired[0]);
+        Assert.assertTrue(lock.validate(stamp));
+    }
+
+    @Test
+    public void awaitingAConditionKeepsStampsInvalid() throws InterruptedException
+    {
+        final OptimisticReadWriteLock lock = new OptimisticReadWriteLock();
+        final Condition condition = lock.writeLock().newCondition();
+        final long[] stampWhileAwaiting = new long[1];
+        lock.writeLock().lock();
+        Thread reader = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                stampWhileAwaiting[0] = lock.tryOptimisticRead();
+                lock.writeLock().lock();
+                condition.signal();
+                lock.writeLock().unlock();
+            }
+        });
+        reader.start();
+        condition.await();
+        lock.writeLock().unlock();
+        reader.join();
+        Assert.assertEquals(0L, stampWhileAwaiting[0]);
+        Assert.assertTrue(lock.tryOptimisticRead() != 0L);
+    }
+}
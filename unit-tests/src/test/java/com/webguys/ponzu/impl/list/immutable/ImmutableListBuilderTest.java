@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.immutable;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.ImmutableListBuilder;
+import com.webguys.ponzu.impl.factory.Lists;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableListBuilderTest
+{
+    private static ImmutableListBuilder<Integer> newBuilder(int from, int to)
+    {
+        return Lists.immutable.<Integer>builder(to - from + 1).addAll(Interval.fromTo(from, to));
+    }
+
+    @Test
+    public void buildSmall()
+    {
+        Assert.assertEquals(Interval.oneTo(10), newBuilder(1, 10).build());
+        ImmutableList<Integer> list = newBuilder(1, 50).build();
+        Verify.assertInstanceOf(ImmutableArrayList.class, list);
+        Assert.assertEquals(Interval.oneTo(50), list);
+        Verify.assertIterableEmpty(Lists.immutable.builder(0).build());
+    }
+
+    @Test
+    public void buildLarge()
+    {
+        for (int size : new int[]{ImmutableTreeList.THRESHOLD + 1, 1024, 1057, 5000})
+        {
+            ImmutableListBuilder<Integer> builder = Lists.immutable.builder(0);
+            for (int i = 1; i <= size; i++)
+            {
+                builder.add(i);
+            }
+            Assert.assertEquals(size, builder.size());
+            ImmutableList<Integer> list = builder.build();
+            Verify.assertInstanceOf(ImmutableTreeList.class, list);
+            Assert.assertEquals(Interval.oneTo(size), list);
+            Assert.assertEquals(Integer.valueOf(size), list.get(size - 1));
+            Assert.assertEquals(Interval.oneTo(size + 1), list.newWith(size + 1));
+        }
+    }
+
+    @Test
+    public void merge()
+    {
+        ImmutableListBuilder<Integer> builder = newBuilder(1, 100)
+                .merge(newBuilder(101, 1000))
+                .merge(newBuilder(1001, 1005))
+                .merge(newBuilder(1006, 3000));
+        Assert.assertEquals(3000, builder.size());
+        builder.add(3001);
+        Assert.assertEquals(Interval.oneTo(3001), builder.build());
+    }
+
+    @Test
+    public void mergeIsAssociative()
+    {
+        ImmutableList<Integer> left = newBuilder(1, 500).merge(newBuilder(501, 1200)).merge(newBuilder(1201, 2000)).build();
+        ImmutableList<Integer> right = newBuilder(1, 500).merge(newBuilder(501, 1200).merge(newBuilder(1201, 2000))).build();
+        Assert.assertEquals(Interval.oneTo(2000), left);
+        Assert.assertEquals(left, right);
+    }
+
+    @Test
+    public void mergeSmall()
+    {
+        Assert.assertEquals(Interval.oneTo(10), newBuilder(1, 4).merge(newBuilder(5, 10)).build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addAfterBuild()
+    {
+        ImmutableListBuilder<Integer> builder = newBuilder(1, 10);
+        builder.build();
+        builder.add(11);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildAfterMerge()
+    {
+        ImmutableListBuilder<Integer> other = newBuilder(11, 20);
+        newBuilder(1, 10).merge(other);
+        other.build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeIntoItself()
+    {
+        ImmutableListBuilder<Integer> builder = newBuilder(1, 10);
+        builder.merge(builder);
+    }
+}
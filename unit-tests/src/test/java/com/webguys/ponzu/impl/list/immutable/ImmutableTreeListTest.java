@@ -0,0 +1,227 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.immutable;
+
+import java.util.List;
+import java.util.Random;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.factory.Lists;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.set.sorted.mutable.TreeSortedSet;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableTreeListTest extends AbstractImmutableListTestCase
+{
+    @Override
+    protected ImmutableList<Integer> classUnderTest()
+    {
+        // Sliced so that the elements are in the tree rather than in the tail
+        return (ImmutableList<Integer>) ImmutableTreeList.newList(Interval.oneTo(100)).subList(0, 10);
+    }
+
+    @Override
+    @Test
+    public void toSortedSetBy()
+    {
+        MutableList<Integer> expected = TreeSortedSet.newSetWith("1", "2", "3", "4", "5", "6", "7", "8", "9", "10").transform(Functions.getStringToInteger());
+        MutableList<Integer> sortedList = this.classUnderTest().toSortedSetBy(Functions.getToString()).toList();
+        Verify.assertListsEqual(expected, sortedList);
+    }
+
+    private ImmutableList<Integer> newList(int size)
+    {
+        return ImmutableTreeList.newList(Interval.oneTo(size));
+    }
+
+    @Override
+    @Test
+    public void testSubList()
+    {
+        ImmutableList<Integer> list = this.classUnderTest();
+        Assert.assertEquals(FastList.newListWith(2, 3, 4), list.castToList().subList(1, 4));
+    }
+
+    @Test
+    public void factoryThreshold()
+    {
+        Verify.assertInstanceOf(ImmutableArrayList.class, Lists.immutable.ofAll(Interval.oneTo(ImmutableTreeList.THRESHOLD)));
+        Verify.assertInstanceOf(ImmutableTreeList.class, Lists.immutable.ofAll(Interval.oneTo(ImmutableTreeList.THRESHOLD + 1)));
+
+        ImmutableList<Integer> array = ImmutableArrayList.newList(Interval.oneTo(ImmutableTreeList.THRESHOLD));
+        ImmutableList<Integer> tree = array.newWith(0);
+        Verify.assertInstanceOf(ImmutableTreeList.class, tree);
+        Assert.assertEquals(Interval.oneTo(ImmutableTreeList.THRESHOLD).toList().with(0), tree);
+    }
+
+    @Test
+    public void newWithBuildsIncrementally()
+    {
+        ImmutableList<Integer> list = ImmutableTreeList.newListWith();
+        MutableList<ImmutableList<Integer>> versions = FastList.newList();
+        for (int i = 0; i < 40000; i++)
+        {
+            if (i % 1000 == 0)
+            {
+                versions.add(list);
+            }
+            list = list.newWith(i);
+        }
+        Assert.assertEquals(Interval.zeroTo(39999), list);
+        Verify.assertIterableEmpty(versions.get(0));
+        for (int i = 1; i < versions.size(); i++)
+        {
+            Verify.assertIterableSize(i * 1000, versions.get(i));
+            Assert.assertEquals(Integer.valueOf(i * 1000 - 1), versions.get(i).getLast());
+        }
+    }
+
+    @Test
+    public void newWithSet()
+    {
+        ImmutableList<Integer> list = this.newList(1000);
+        ImmutableList<Integer> set = list.newWithSet(0, -1).newWithSet(500, -501).newWithSet(999, -1000);
+        Assert.assertEquals(Integer.valueOf(1), list.get(0));
+        Assert.assertEquals(Integer.valueOf(-1), set.get(0));
+        Assert.assertEquals(Integer.valueOf(-501), set.get(500));
+        Assert.assertEquals(Integer.valueOf(-1000), set.get(999));
+        Assert.assertEquals(Integer.valueOf(502), set.get(501));
+        Verify.assertIterableSize(1000, set);
+
+        Verify.assertThrows(IndexOutOfBoundsException.class, new Runnable()
+        {
+            public void run()
+            {
+                ImmutableTreeListTest.this.newList(1000).newWithSet(1000, 0);
+            }
+        });
+    }
+
+    @Test
+    public void newWithoutAndSubListMatchFastList()
+    {
+        Random random = new Random(42L);
+        ImmutableList<Integer> list = this.newList(1000);
+        MutableList<Integer> expected = FastList.newList(list);
+        for (int i = 0; i < 600; i++)
+        {
+            Integer element = expected.get(random.nextInt(expected.size()));
+            expected.remove(element);
+            list = list.newWithout(element);
+            if (i % 50 == 0)
+            {
+                Assert.assertEquals(expected, list);
+            }
+        }
+        Assert.assertEquals(expected, list);
+        Assert.assertSame(list, list.newWithout(0));
+
+        List<Integer> big = ImmutableTreeList.newList(Interval.oneTo(50000));
+        for (int i = 0; i < 200; i++)
+        {
+            int from = random.nextInt(50001);
+            int to = from + random.nextInt(50001 - from);
+            List<Integer> subList = big.subList(from, to);
+            Verify.assertSize(to - from, subList);
+            if (from < to)
+            {
+                Assert.assertEquals(Integer.valueOf(from + 1), subList.get(0));
+                Assert.assertEquals(Integer.valueOf(to), subList.get(subList.size() - 1));
+            }
+            if (i % 20 == 0)
+            {
+                Assert.assertEquals(Interval.fromTo(from + 1, to), subList);
+            }
+        }
+    }
+
+    @Test
+    public void subListBounds()
+    {
+        final List<Integer> list = this.newList(1000).castToList();
+        Verify.assertEmpty(list.subList(1000, 1000));
+        Assert.assertEquals(list, list.subList(0, 1000));
+        Verify.assertThrows(IndexOutOfBoundsException.class, new Runnable()
+        {
+            public void run()
+            {
+                list.subList(-1, 5);
+            }
+        });
+        Verify.assertThrows(IndexOutOfBoundsException.class, new Runnable()
+        {
+            public void run()
+            {
+                list.subList(5, 1001);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                list.subList(6, 5);
+            }
+        });
+    }
+
+    @Test
+    public void concatenation()
+    {
+        Random random = new Random(7L);
+        ImmutableList<Integer> list = ImmutableTreeList.newListWith();
+        MutableList<Integer> expected = FastList.newList();
+        for (int i = 0; i < 300; i++)
+        {
+            int size = random.nextInt(i % 3 == 0 ? 5000 : 40);
+            if (size == 0)
+            {
+                Assert.assertSame(list, list.newWithAll(FastList.<Integer>newList()));
+                continue;
+            }
+            Interval piece = Interval.fromTo(expected.size(), expected.size() + size - 1);
+            if (random.nextBoolean())
+            {
+                list = list.newWithAll(ImmutableTreeList.newList(piece));
+            }
+            else
+            {
+                list = list.newWithAll(piece);
+            }
+            expected.addAll(piece);
+        }
+        Assert.assertEquals(expected, list);
+        Assert.assertEquals(expected.size() - 1, list.indexOf(expected.getLast()));
+
+        List<Integer> left = list.castToList().subList(0, 20000);
+        List<Integer> right = list.castToList().subList(20000, list.size());
+        Assert.assertEquals(expected, ((ImmutableList<Integer>) left).newWithAll(right));
+    }
+
+    @Test
+    public void serialization()
+    {
+        ImmutableList<Integer> list = this.newList(1000).newWith(null);
+        Verify.assertPostSerializedEqualsAndHashCode(list);
+        Verify.assertInstanceOf(ImmutableTreeList.class, SerializeTestHelper.serializeDeserialize(list));
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.mutable;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.factory.Predicates;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link CopyOnWriteFastList}.
+ */
+public class CopyOnWriteFastListTest extends AbstractListTestCase
+{
+    @Override
+    protected <T> CopyOnWriteFastList<T> classUnderTest()
+    {
+        return CopyOnWriteFastList.newList();
+    }
+
+    @Test
+    public void iteratorSeesTheListAsItWasWhenCreated()
+    {
+        CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(1, 2, 3);
+        Iterator<Integer> iterator = list.iterator();
+        list.add(4);
+        list.remove(Integer.valueOf(1));
+        MutableList<Integer> iterated = FastList.newList();
+        while (iterator.hasNext())
+        {
+            iterated.add(iterator.next());
+        }
+        Assert.assertEquals(FastList.newListWith(1, 2, 3), iterated);
+        Assert.assertEquals(FastList.newListWith(2, 3, 4), list);
+    }
+
+    @Test
+    public void forEachMayModifyTheList()
+    {
+        final CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(1, 2, 3);
+        list.forEach(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                list.add(each + 3);
+            }
+        });
+        Assert.assertEquals(FastList.newListWith(1, 2, 3, 4, 5, 6), list);
+    }
+
+    @Test
+    public void withWriteLockAndDelegate()
+    {
+        CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(3, 1, 2);
+        list.withWriteLockAndDelegate(new Procedure<MutableList<Integer>>()
+        {
+            public void value(MutableList<Integer> delegate)
+            {
+                delegate.add(4);
+                delegate.sortThis();
+                delegate.remove(0);
+            }
+        });
+        Assert.assertEquals(FastList.newListWith(2, 3, 4), list);
+    }
+
+    @Test
+    public void withWriteLockAndDelegatePublishesNothingWhenTheProcedureThrows()
+    {
+        final CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(1, 2, 3);
+        Verify.assertThrows(IllegalStateException.class, new Runnable()
+        {
+            public void run()
+            {
+                list.withWriteLockAndDelegate(new Procedure<MutableList<Integer>>()
+                {
+                    public void value(MutableList<Integer> delegate)
+                    {
+                        delegate.clear();
+                        throw new IllegalStateException();
+                    }
+                });
+            }
+        });
+        Assert.assertEquals(FastList.newListWith(1, 2, 3), list);
+    }
+
+    @Test
+    public void readersNeverSeePartOfABatch() throws InterruptedException
+    {
+        final CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newList();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger partialReads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 3; i++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    while (!done.get())
+                    {
+                        if (list.size() % 10 != 0 || list.count(Predicates.alwaysTrue()) % 10 != 0)
+                        {
+                            partialReads.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.execute(new Runnable()
+        {
+            public void run()
+            {
+                for (int i = 0; i < 1000; i++)
+                {
+                    list.withAll(Interval.oneTo(10));
+                    list.withAll(Interval.oneTo(10));
+                    list.removeIf(Predicates.lessThan(6));
+                    if (i % 100 == 99)
+                    {
+                        list.clear();
+                    }
+                }
+                done.set(true);
+            }
+        });
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(0, partialReads.get());
+    }
+
+    @Test
+    public void subListThrowsOnceTheListIsChangedElsewhere()
+    {
+        CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(1, 2, 3, 4);
+        final MutableList<Integer> subList = list.subList(1, 3);
+        subList.add(5);
+        Assert.assertEquals(FastList.newListWith(1, 2, 3, 5, 4), list);
+        list.add(6);
+        Verify.assertThrows(ConcurrentModificationException.class, new Runnable()
+        {
+            public void run()
+            {
+                subList.get(0);
+            }
+        });
+    }
+
+    @Test
+    public void cloneIsIndependent()
+    {
+        CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newListWith(1, 2, 3);
+        CopyOnWriteFastList<Integer> clone = list.clone();
+        clone.add(4);
+        Assert.assertEquals(FastList.newListWith(1, 2, 3), list);
+        Assert.assertEquals(FastList.newListWith(1, 2, 3, 4), clone);
+    }
+
+    @Test
+    public void addLeavesEarlierIteratorsAndClonesAlone()
+    {
+        CopyOnWriteFastList<Integer> list = CopyOnWriteFastList.newList();
+        list.add(1);
+        list.add(2);
+        list.add(3);
+        Iterator<Integer> iterator = list.iterator();
+        CopyOnWriteFastList<Integer> clone = list.clone();
+        list.add(4);
+        clone.add(5);
+        MutableList<Integer> iterated = FastList.newList();
+        while (iterator.hasNext())
+        {
+            iterated.add(iterator.next());
+        }
+        Assert.assertEquals(FastList.newListWith(1, 2, 3), iterated);
+        Assert.assertEquals(FastList.newListWith(1, 2, 3, 4), list);
+        Assert.assertEquals(FastList.newListWith(1, 2, 3, 5), clone);
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(CopyOnWriteFastList.newListWith(1, 2, 3));
+    }
+}
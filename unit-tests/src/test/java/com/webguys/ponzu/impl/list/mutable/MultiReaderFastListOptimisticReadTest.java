@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.mutable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.impl.collection.mutable.OptimisticReadWriteLock;
+import com.webguys.ponzu.impl.list.Interval;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link MultiReaderFastList} guarded by an {@link OptimisticReadWriteLock}.
+ */
+public class MultiReaderFastListOptimisticReadTest extends MultiReaderFastListTest
+{
+    private static final int READERS = 4;
+
+    @Override
+    protected <T> MultiReaderFastList<T> classUnderTest()
+    {
+        return MultiReaderFastList.newList(new OptimisticReadWriteLock());
+    }
+
+    @Test
+    public void readersSeeConsistentStateWhileTheListIsWritten() throws InterruptedException
+    {
+        final MultiReaderFastList<Integer> list =
+                MultiReaderFastList.newList(Interval.oneTo(10), new OptimisticReadWriteLock());
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger inconsistentReads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        for (int r = 0; r < READERS; r++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    while (!done.get())
+                    {
+                        int size = list.size();
+                        if (size < 10 || size > 1010
+                                || !list.contains(10)
+                                || list.indexOf(1) != 0
+                                || list.get(9) != 10
+                                || list.getFirst() != 1)
+                        {
+                            inconsistentReads.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < 200; i++)
+        {
+            for (int j = 11; j <= 1010; j++)
+            {
+                list.add(j);
+            }
+            list.removeAll(Interval.fromTo(11, 1010));
+        }
+        done.set(true);
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(0, inconsistentReads.get());
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.DoubleProcedure;
+import com.webguys.ponzu.impl.factory.DoubleLists;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.DoubleIterator;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Abstract JUnit test for {@link MutableDoubleList}s.
+ */
+public abstract class AbstractMutableDoubleListTestCase
+{
+    protected static final DoublePredicate IS_EVEN = new DoublePredicate()
+    {
+        public boolean accept(double value)
+        {
+            return value % 2 == 0;
+        }
+    };
+
+    protected abstract MutableDoubleList newWith(double... elements);
+
+    @Test
+    public void sizeAndEmpty()
+    {
+        Assert.assertEquals(0, this.newWith().size());
+        Assert.assertTrue(this.newWith().isEmpty());
+        Assert.assertFalse(this.newWith().notEmpty());
+        Assert.assertEquals(3, this.newWith(1, 2, 3).size());
+        Assert.assertTrue(this.newWith(1, 2, 3).notEmpty());
+    }
+
+    @Test
+    public void get()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 3);
+        Assert.assertEquals(1, list.get(0), 0.0);
+        Assert.assertEquals(3, list.get(2), 0.0);
+        Assert.assertEquals(1, list.getFirst(), 0.0);
+        Assert.assertEquals(3, list.getLast(), 0.0);
+        Verify.assertThrows(IndexOutOfBoundsException.class, new Runnable()
+        {
+            public void run()
+            {
+                AbstractMutableDoubleListTestCase.this.newWith(1, 2, 3).get(3);
+            }
+        });
+        Verify.assertThrows(NoSuchElementException.class, new Runnable()
+        {
+            public void run()
+            {
+                AbstractMutableDoubleListTestCase.this.newWith().getFirst();
+            }
+        });
+    }
+
+    @Test
+    public void indexOf()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 1);
+        Assert.assertEquals(0, list.indexOf(1));
+        Assert.assertEquals(2, list.lastIndexOf(1));
+        Assert.assertEquals(1, list.indexOf(2));
+        Assert.assertEquals(-1, list.indexOf(3));
+        Assert.assertTrue(list.contains(2));
+        Assert.assertFalse(list.contains(3));
+        Assert.assertTrue(list.containsAll(1, 2));
+        Assert.assertFalse(list.containsAll(1, 3));
+    }
+
+    @Test
+    public void add()
+    {
+        MutableDoubleList list = this.newWith();
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertTrue(list.add(i));
+        }
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(99, list.getLast(), 0.0);
+        list.addAtIndex(0, -1);
+        list.addAtIndex(101, 100);
+        Assert.assertEquals(-1, list.getFirst(), 0.0);
+        Assert.assertEquals(100, list.getLast(), 0.0);
+        Assert.assertTrue(list.addAll(101, 102));
+        Assert.assertFalse(list.addAll());
+        Assert.assertTrue(list.addAll(DoubleLists.mutable.of(103, 104)));
+        Assert.assertEquals(106, list.size());
+        Assert.assertEquals(104, list.getLast(), 0.0);
+    }
+
+    @Test
+    public void remove()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 3, 2);
+        Assert.assertTrue(list.remove(2));
+        Assert.assertEquals(DoubleLists.mutable.of(1, 3, 2), list);
+        Assert.assertFalse(list.remove(4));
+        Assert.assertEquals(3, list.removeAtIndex(1), 0.0);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2), list);
+        Assert.assertTrue(this.newWith(1, 2, 1, 3).removeAll(1, 3));
+        MutableDoubleList removeAll = this.newWith(1, 2, 1, 3);
+        removeAll.removeAll(1, 3);
+        Assert.assertEquals(DoubleLists.mutable.of(2), removeAll);
+        Assert.assertEquals(2, list.set(1, 5), 0.0);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 5), list);
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void withAndWithout()
+    {
+        MutableDoubleList list = this.newWith();
+        Assert.assertSame(list, list.with(1));
+        Assert.assertSame(list, list.withAll(DoubleLists.mutable.of(2, 3)));
+        Assert.assertSame(list, list.without(2));
+        Assert.assertEquals(DoubleLists.mutable.of(1, 3), list);
+    }
+
+    @Test
+    public void forEach()
+    {
+        final double[] sum = new double[1];
+        this.newWith(1, 2, 3).forEach(new DoubleProcedure()
+        {
+            public void value(double each)
+            {
+                sum[0] += each;
+            }
+        });
+        Assert.assertEquals(6, sum[0], 0.0);
+
+        final DoubleArrayList reversed = DoubleArrayList.newList();
+        this.newWith(1, 2, 3).reverseForEach(new DoubleProcedure()
+        {
+            public void value(double each)
+            {
+                reversed.add(each);
+            }
+        });
+        Assert.assertEquals(DoubleLists.mutable.of(3, 2, 1), reversed);
+
+        final double[] weighted = new double[1];
+        this.newWith(1, 2, 3).forEachWithIndex(new DoubleIntProcedure()
+        {
+            public void value(double each, int index)
+            {
+                weighted[0] += each * index;
+            }
+        });
+        Assert.assertEquals(8, weighted[0], 0.0);
+    }
+
+    @Test
+    public void iterator()
+    {
+        DoubleIterator iterator = this.newWith(1, 2).doubleIterator();
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals(1, iterator.next(), 0.0);
+        Assert.assertEquals(2, iterator.next(), 0.0);
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorThrowsWhenExhausted()
+    {
+        this.newWith().doubleIterator().next();
+    }
+
+    @Test
+    public void predicates()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 3, 4);
+        Assert.assertEquals(2, list.count(IS_EVEN));
+        Assert.assertTrue(list.anySatisfy(IS_EVEN));
+        Assert.assertFalse(list.allSatisfy(IS_EVEN));
+        Assert.assertTrue(this.newWith(2, 4).allSatisfy(IS_EVEN));
+        Assert.assertEquals(2, list.find(IS_EVEN, -1), 0.0);
+        Assert.assertEquals(-1, this.newWith(1, 3).find(IS_EVEN, -1), 0.0);
+        Assert.assertEquals(DoubleLists.mutable.of(2, 4), list.filter(IS_EVEN));
+        Assert.assertEquals(DoubleLists.mutable.of(1, 3), list.filterNot(IS_EVEN));
+    }
+
+    @Test
+    public void transform()
+    {
+        MutableList<String> strings = this.newWith(1, 2).transform(new DoubleToObjectFunction<String>()
+        {
+            public String valueOf(double each)
+            {
+                return String.valueOf(each);
+            }
+        });
+        Assert.assertEquals(FastList.newListWith(String.valueOf((double) 1), String.valueOf((double) 2)), strings);
+    }
+
+    @Test
+    public void aggregates()
+    {
+        MutableDoubleList list = this.newWith(3, 1, 4, 1, 5);
+        Assert.assertEquals(14, list.sum(), 0.0);
+        Assert.assertEquals(1, list.min(), 0.0);
+        Assert.assertEquals(5, list.max(), 0.0);
+        Assert.assertEquals(2.8, list.average(), 0.0);
+        Assert.assertEquals(0, this.newWith().sum(), 0.0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void minOnEmpty()
+    {
+        this.newWith().min();
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void averageOnEmpty()
+    {
+        this.newWith().average();
+    }
+
+    @Test
+    public void sortAndReverse()
+    {
+        MutableDoubleList list = this.newWith(3, 1, 2);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), list.toSortedList());
+        Assert.assertArrayEquals(new double[]{1, 2, 3}, list.toSortedArray(), 0.0);
+        Assert.assertArrayEquals(new double[]{3, 1, 2}, list.toArray(), 0.0);
+        list.sortThis();
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), list);
+        list.reverseThis();
+        Assert.assertEquals(DoubleLists.mutable.of(3, 2, 1), list);
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 3);
+        Verify.assertEqualsAndHashCode(DoubleArrayList.newListWith(1, 2, 3), list);
+        Verify.assertEqualsAndHashCode(DoubleLists.immutable.of(1, 2, 3), list);
+        Assert.assertEquals(FastList.newListWith(Double.valueOf(1), Double.valueOf(2), Double.valueOf(3)).hashCode(), list.hashCode());
+        Verify.assertNotEquals(DoubleLists.mutable.of(1, 2), list);
+        Verify.assertNotEquals(DoubleLists.mutable.of(1, 2, 4), list);
+    }
+
+    @Test
+    public void copies()
+    {
+        MutableDoubleList list = this.newWith(1, 2, 3);
+        ImmutableDoubleList immutable = list.toImmutable();
+        MutableDoubleList copy = list.toList();
+        list.add(4);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), immutable);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), copy);
+    }
+
+    @Test
+    public void makeString()
+    {
+        MutableDoubleList list = this.newWith(1, 2);
+        String one = String.valueOf((double) 1);
+        String two = String.valueOf((double) 2);
+        Assert.assertEquals("[" + one + ", " + two + "]", list.toString());
+        Assert.assertEquals(one + ", " + two, list.makeString());
+        Assert.assertEquals(one + "/" + two, list.makeString("/"));
+        Assert.assertEquals("{" + one + "/" + two + "}", list.makeString("{", "/", "}"));
+        Assert.assertEquals("[]", this.newWith().toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asUnmodifiable()
+    {
+        this.newWith(1).asUnmodifiable().add(2);
+    }
+
+    @Test
+    public void asSynchronized()
+    {
+        MutableDoubleList list = this.newWith(1);
+        MutableDoubleList synchronizedList = list.asSynchronized();
+        synchronizedList.add(2);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2), list);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.util.NoSuchElementException;
+
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.factory.IntLists;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Abstract JUnit test for {@link MutableIntList}s.
+ */
+public abstract class AbstractMutableIntListTestCase
+{
+    protected static final IntPredicate IS_EVEN = new IntPredicate()
+    {
+        public boolean accept(int value)
+        {
+            return value % 2 == 0;
+        }
+    };
+
+    protected abstract MutableIntList newWith(int... elements);
+
+    @Test
+    public void sizeAndEmpty()
+    {
+        Assert.assertEquals(0, this.newWith().size());
+        Assert.assertTrue(this.newWith().isEmpty());
+        Assert.assertFalse(this.newWith().notEmpty());
+        Assert.assertEquals(3, this.newWith(1, 2, 3).size());
+        Assert.assertTrue(this.newWith(1, 2, 3).notEmpty());
+    }
+
+    @Test
+    public void get()
+    {
+        MutableIntList list = this.newWith(1, 2, 3);
+        Assert.assertEquals(1, list.get(0));
+        Assert.assertEquals(3, list.get(2));
+        Assert.assertEquals(1, list.getFirst());
+        Assert.assertEquals(3, list.getLast());
+        Verify.assertThrows(IndexOutOfBoundsException.class, new Runnable()
+        {
+            public void run()
+            {
+                AbstractMutableIntListTestCase.this.newWith(1, 2, 3).get(3);
+            }
+        });
+        Verify.assertThrows(NoSuchElementException.class, new Runnable()
+        {
+            public void run()
+            {
+                AbstractMutableIntListTestCase.this.newWith().getFirst();
+            }
+        });
+    }
+
+    @Test
+    public void indexOf()
+    {
+        MutableIntList list = this.newWith(1, 2, 1);
+        Assert.assertEquals(0, list.indexOf(1));
+        Assert.assertEquals(2, list.lastIndexOf(1));
+        Assert.assertEquals(1, list.indexOf(2));
+        Assert.assertEquals(-1, list.indexOf(3));
+        Assert.assertTrue(list.contains(2));
+        Assert.assertFalse(list.contains(3));
+        Assert.assertTrue(list.containsAll(1, 2));
+        Assert.assertFalse(list.containsAll(1, 3));
+    }
+
+    @Test
+    public void add()
+    {
+        MutableIntList list = this.newWith();
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertTrue(list.add(i));
+        }
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(99, list.getLast());
+        list.addAtIndex(0, -1);
+        list.addAtIndex(101, 100);
+        Assert.assertEquals(-1, list.getFirst());
+        Assert.assertEquals(100, list.getLast());
+        Assert.assertTrue(list.addAll(101, 102));
+        Assert.assertFalse(list.addAll());
+        Assert.assertTrue(list.addAll(IntLists.mutable.of(103, 104)));
+        Assert.assertEquals(106, list.size());
+        Assert.assertEquals(104, list.getLast());
+    }
+
+    @Test
+    public void remove()
+    {
+        MutableIntList list = this.newWith(1, 2, 3, 2);
+        Assert.assertTrue(list.remove(2));
+        Assert.assertEquals(IntLists.mutable.of(1, 3, 2), list);
+        Assert.assertFalse(list.remove(4));
+        Assert.assertEquals(3, list.removeAtIndex(1));
+        Assert.assertEquals(IntLists.mutable.of(1, 2), list);
+        Assert.assertTrue(this.newWith(1, 2, 1, 3).removeAll(1, 3));
+        MutableIntList removeAll = this.newWith(1, 2, 1, 3);
+        removeAll.removeAll(1, 3);
+        Assert.assertEquals(IntLists.mutable.of(2), removeAll);
+        Assert.assertEquals(2, list.set(1, 5));
+        Assert.assertEquals(IntLists.mutable.of(1, 5), list);
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void withAndWithout()
+    {
+        MutableIntList list = this.newWith();
+        Assert.assertSame(list, list.with(1));
+        Assert.assertSame(list, list.withAll(IntLists.mutable.of(2, 3)));
+        Assert.assertSame(list, list.without(2));
+        Assert.assertEquals(IntLists.mutable.of(1, 3), list);
+    }
+
+    @Test
+    public void forEach()
+    {
+        final long[] sum = new long[1];
+        this.newWith(1, 2, 3).forEach(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                sum[0] += each;
+            }
+        });
+        Assert.assertEquals(6, sum[0]);
+
+        final IntArrayList reversed = IntArrayList.newList();
+        this.newWith(1, 2, 3).reverseForEach(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                reversed.add(each);
+            }
+        });
+        Assert.assertEquals(IntLists.mutable.of(3, 2, 1), reversed);
+
+        final long[] weighted = new long[1];
+        this.newWith(1, 2, 3).forEachWithIndex(new IntIntProcedure()
+        {
+            public void value(int each, int index)
+            {
+                weighted[0] += each * index;
+            }
+        });
+        Assert.assertEquals(8, weighted[0]);
+    }
+
+    @Test
+    public void iterator()
+    {
+        IntIterator iterator = this.newWith(1, 2).intIterator();
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals(1, iterator.next());
+        Assert.assertEquals(2, iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorThrowsWhenExhausted()
+    {
+        this.newWith().intIterator().next();
+    }
+
+    @Test
+    public void predicates()
+    {
+        MutableIntList list = this.newWith(1, 2, 3, 4);
+        Assert.assertEquals(2, list.count(IS_EVEN));
+        Assert.assertTrue(list.anySatisfy(IS_EVEN));
+        Assert.assertFalse(list.allSatisfy(IS_EVEN));
+        Assert.assertTrue(this.newWith(2, 4).allSatisfy(IS_EVEN));
+        Assert.assertEquals(2, list.find(IS_EVEN, -1));
+        Assert.assertEquals(-1, this.newWith(1, 3).find(IS_EVEN, -1));
+        Assert.assertEquals(IntLists.mutable.of(2, 4), list.filter(IS_EVEN));
+        Assert.assertEquals(IntLists.mutable.of(1, 3), list.filterNot(IS_EVEN));
+    }
+
+    @Test
+    public void transform()
+    {
+        MutableList<String> strings = this.newWith(1, 2).transform(new IntToObjectFunction<String>()
+        {
+            public String valueOf(int each)
+            {
+                return String.valueOf(each);
+            }
+        });
+        Assert.assertEquals(FastList.newListWith(String.valueOf((int) 1), String.valueOf((int) 2)), strings);
+    }
+
+    @Test
+    public void aggregates()
+    {
+        MutableIntList list = this.newWith(3, 1, 4, 1, 5);
+        Assert.assertEquals(14, list.sum());
+        Assert.assertEquals(1, list.min());
+        Assert.assertEquals(5, list.max());
+        Assert.assertEquals(2.8, list.average(), 0.0);
+        Assert.assertEquals(0, this.newWith().sum());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void minOnEmpty()
+    {
+        this.newWith().min();
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void averageOnEmpty()
+    {
+        this.newWith().average();
+    }
+
+    @Test
+    public void sortAndReverse()
+    {
+        MutableIntList list = this.newWith(3, 1, 2);
+        Assert.assertEquals(IntLists.mutable.of(1, 2, 3), list.toSortedList());
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, list.toSortedArray());
+        Assert.assertArrayEquals(new int[]{3, 1, 2}, list.toArray());
+        list.sortThis();
+        Assert.assertEquals(IntLists.mutable.of(1, 2, 3), list);
+        list.reverseThis();
+        Assert.assertEquals(IntLists.mutable.of(3, 2, 1), list);
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        MutableIntList list = this.newWith(1, 2, 3);
+        Verify.assertEqualsAndHashCode(IntArrayList.newListWith(1, 2, 3), list);
+        Verify.assertEqualsAndHashCode(IntLists.immutable.of(1, 2, 3), list);
+        Assert.assertEquals(FastList.newListWith(Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3)).hashCode(), list.hashCode());
+        Verify.assertNotEquals(IntLists.mutable.of(1, 2), list);
+        Verify.assertNotEquals(IntLists.mutable.of(1, 2, 4), list);
+    }
+
+    @Test
+    public void copies()
+    {
+        MutableIntList list = this.newWith(1, 2, 3);
+        ImmutableIntList immutable = list.toImmutable();
+        MutableIntList copy = list.toList();
+        list.add(4);
+        Assert.assertEquals(IntLists.mutable.of(1, 2, 3), immutable);
+        Assert.assertEquals(IntLists.mutable.of(1, 2, 3), copy);
+    }
+
+    @Test
+    public void makeString()
+    {
+        MutableIntList list = this.newWith(1, 2);
+        String one = String.valueOf((int) 1);
+        String two = String.valueOf((int) 2);
+        Assert.assertEquals("[" + one + ", " + two + "]", list.toString());
+        Assert.assertEquals(one + ", " + two, list.makeString());
+        Assert.assertEquals(one + "/" + two, list.makeString("/"));
+        Assert.assertEquals("{" + one + "/" + two + "}", list.makeString("{", "/", "}"));
+        Assert.assertEquals("[]", this.newWith().toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asUnmodifiable()
+    {
+        this.newWith(1).asUnmodifiable().add(2);
+    }
+
+    @Test
+    public void asSynchronized()
+    {
+        MutableIntList list = this.newWith(1);
+        MutableIntList synchronizedList = list.asSynchronized();
+        synchronizedList.add(2);
+        Assert.assertEquals(IntLists.mutable.of(1, 2), list);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.impl.factory.DoubleLists;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link DoubleArrayList}.
+ */
+public class DoubleArrayListTest extends AbstractMutableDoubleListTestCase
+{
+    @Override
+    protected DoubleArrayList newWith(double... elements)
+    {
+        return DoubleArrayList.wrapCopy(elements);
+    }
+
+    @Test
+    public void newListFromFunction()
+    {
+        DoubleArrayList list = DoubleArrayList.newList(FastList.newListWith("a", "bb", "ccc"), new DoubleFunction<String>()
+        {
+            public double doubleValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        });
+        Assert.assertEquals(DoubleArrayList.newListWith(1, 2, 3), list);
+        Assert.assertEquals(list, DoubleLists.mutable.transform(FastList.newListWith("a", "bb", "ccc"), new DoubleFunction<String>()
+        {
+            public double doubleValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        }));
+    }
+
+    @Test
+    public void newListWithUsesArray()
+    {
+        double[] array = {1, 2, 3};
+        DoubleArrayList list = DoubleArrayList.newListWith(array);
+        array[0] = 4;
+        Assert.assertEquals(4, list.getFirst(), 0.0);
+        DoubleArrayList copy = DoubleArrayList.wrapCopy(array);
+        array[0] = 5;
+        Assert.assertEquals(4, copy.getFirst(), 0.0);
+    }
+
+    @Test
+    public void capacity()
+    {
+        DoubleArrayList list = new DoubleArrayList(0);
+        list.ensureCapacity(100);
+        list.add(1);
+        list.trimToSize();
+        Assert.assertEquals(DoubleArrayList.newListWith(1), list);
+        list.addAtIndex(0, 0);
+        Assert.assertEquals(DoubleArrayList.newListWith(0, 1), list);
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith(1, 2, 3));
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith());
+    }
+
+    @Test
+    public void factory()
+    {
+        Verify.assertInstanceOf(DoubleArrayList.class, DoubleLists.mutable.of());
+        Assert.assertEquals(this.newWith(1, 2), DoubleLists.mutable.of(1, 2));
+        Assert.assertEquals(this.newWith(1, 2), DoubleLists.mutable.ofAll(DoubleLists.immutable.of(1, 2)));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.DoubleToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.DoublePredicate;
+import com.webguys.ponzu.impl.factory.DoubleLists;
+import com.webguys.ponzu.impl.factory.Lists;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ImmutableDoubleArrayList}.
+ */
+public class ImmutableDoubleArrayListTest
+{
+    @Test
+    public void newWithAndWithout()
+    {
+        ImmutableDoubleList list = DoubleLists.immutable.of(1, 2);
+        ImmutableDoubleList with = list.newWith(3);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2), list);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), with);
+        Assert.assertEquals(DoubleLists.mutable.of(1, 3), with.newWithout(2));
+        Assert.assertSame(list, list.newWithout(4));
+        Assert.assertSame(DoubleLists.immutable.of(), DoubleLists.immutable.of(1).newWithout(1));
+    }
+
+    @Test
+    public void copiesInput()
+    {
+        double[] array = {1, 2};
+        ImmutableDoubleList list = DoubleLists.immutable.of(array);
+        array[0] = 3;
+        Assert.assertEquals(1, list.getFirst(), 0.0);
+        double[] out = list.toArray();
+        out[1] = 3;
+        Assert.assertEquals(2, list.getLast(), 0.0);
+    }
+
+    @Test
+    public void readMethods()
+    {
+        ImmutableDoubleList list = DoubleLists.immutable.of(3, 1, 2);
+        Assert.assertEquals(6, list.sum(), 0.0);
+        Assert.assertEquals(1, list.min(), 0.0);
+        Assert.assertEquals(3, list.max(), 0.0);
+        Assert.assertEquals(2, list.indexOf(2));
+        Assert.assertTrue(list.containsAll(1, 3));
+        Assert.assertEquals(DoubleLists.mutable.of(2), list.filter(new DoublePredicate()
+        {
+            public boolean accept(double value)
+            {
+                return value % 2 == 0;
+            }
+        }));
+        ImmutableList<String> strings = list.transform(new DoubleToObjectFunction<String>()
+        {
+            public String valueOf(double each)
+            {
+                return each > 2 ? "big" : "small";
+            }
+        });
+        Assert.assertEquals(Lists.immutable.of("big", "small", "small"), strings);
+        Assert.assertSame(list, list.toImmutable());
+        Assert.assertSame(list, DoubleLists.immutable.ofAll(list));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(DoubleLists.mutable.of(1, 2, 3), DoubleLists.immutable.of(1, 2, 3));
+        Verify.assertPostSerializedEqualsAndHashCode(DoubleLists.immutable.of(1, 2, 3));
+        Verify.assertPostSerializedIdentity(DoubleLists.immutable.of());
+    }
+}
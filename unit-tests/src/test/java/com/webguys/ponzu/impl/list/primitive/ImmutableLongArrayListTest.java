@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.list.ImmutableList;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.factory.LongLists;
+import com.webguys.ponzu.impl.factory.Lists;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ImmutableLongArrayList}.
+ */
+public class ImmutableLongArrayListTest
+{
+    @Test
+    public void newWithAndWithout()
+    {
+        ImmutableLongList list = LongLists.immutable.of(1, 2);
+        ImmutableLongList with = list.newWith(3);
+        Assert.assertEquals(LongLists.mutable.of(1, 2), list);
+        Assert.assertEquals(LongLists.mutable.of(1, 2, 3), with);
+        Assert.assertEquals(LongLists.mutable.of(1, 3), with.newWithout(2));
+        Assert.assertSame(list, list.newWithout(4));
+        Assert.assertSame(LongLists.immutable.of(), LongLists.immutable.of(1).newWithout(1));
+    }
+
+    @Test
+    public void copiesInput()
+    {
+        long[] array = {1, 2};
+        ImmutableLongList list = LongLists.immutable.of(array);
+        array[0] = 3;
+        Assert.assertEquals(1, list.getFirst());
+        long[] out = list.toArray();
+        out[1] = 3;
+        Assert.assertEquals(2, list.getLast());
+    }
+
+    @Test
+    public void readMethods()
+    {
+        ImmutableLongList list = LongLists.immutable.of(3, 1, 2);
+        Assert.assertEquals(6, list.sum());
+        Assert.assertEquals(1, list.min());
+        Assert.assertEquals(3, list.max());
+        Assert.assertEquals(2, list.indexOf(2));
+        Assert.assertTrue(list.containsAll(1, 3));
+        Assert.assertEquals(LongLists.mutable.of(2), list.filter(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return value % 2 == 0;
+            }
+        }));
+        ImmutableList<String> strings = list.transform(new LongToObjectFunction<String>()
+        {
+            public String valueOf(long each)
+            {
+                return each > 2 ? "big" : "small";
+            }
+        });
+        Assert.assertEquals(Lists.immutable.of("big", "small", "small"), strings);
+        Assert.assertSame(list, list.toImmutable());
+        Assert.assertSame(list, LongLists.immutable.ofAll(list));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(LongLists.mutable.of(1, 2, 3), LongLists.immutable.of(1, 2, 3));
+        Verify.assertPostSerializedEqualsAndHashCode(LongLists.immutable.of(1, 2, 3));
+        Verify.assertPostSerializedIdentity(LongLists.immutable.of());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.impl.factory.IntLists;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link IntArrayList}.
+ */
+public class IntArrayListTest extends AbstractMutableIntListTestCase
+{
+    @Override
+    protected IntArrayList newWith(int... elements)
+    {
+        return IntArrayList.wrapCopy(elements);
+    }
+
+    @Test
+    public void newListFromFunction()
+    {
+        IntArrayList list = IntArrayList.newList(FastList.newListWith("a", "bb", "ccc"), new IntFunction<String>()
+        {
+            public int intValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        });
+        Assert.assertEquals(IntArrayList.newListWith(1, 2, 3), list);
+        Assert.assertEquals(list, IntLists.mutable.transform(FastList.newListWith("a", "bb", "ccc"), new IntFunction<String>()
+        {
+            public int intValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        }));
+    }
+
+    @Test
+    public void newListWithUsesArray()
+    {
+        int[] array = {1, 2, 3};
+        IntArrayList list = IntArrayList.newListWith(array);
+        array[0] = 4;
+        Assert.assertEquals(4, list.getFirst());
+        IntArrayList copy = IntArrayList.wrapCopy(array);
+        array[0] = 5;
+        Assert.assertEquals(4, copy.getFirst());
+    }
+
+    @Test
+    public void capacity()
+    {
+        IntArrayList list = new IntArrayList(0);
+        list.ensureCapacity(100);
+        list.add(1);
+        list.trimToSize();
+        Assert.assertEquals(IntArrayList.newListWith(1), list);
+        list.addAtIndex(0, 0);
+        Assert.assertEquals(IntArrayList.newListWith(0, 1), list);
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith(1, 2, 3));
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith());
+    }
+
+    @Test
+    public void factory()
+    {
+        Verify.assertInstanceOf(IntArrayList.class, IntLists.mutable.of());
+        Assert.assertEquals(this.newWith(1, 2), IntLists.mutable.of(1, 2));
+        Assert.assertEquals(this.newWith(1, 2), IntLists.mutable.ofAll(IntLists.immutable.of(1, 2)));
+    }
+}
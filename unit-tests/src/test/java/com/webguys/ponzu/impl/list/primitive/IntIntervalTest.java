@@ -0,0 +1,228 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link IntInterval}.
+ */
+public class IntIntervalTest
+{
+    @Test
+    public void fluentBuilder()
+    {
+        Assert.assertEquals(IntArrayList.newListWith(1, 2, 3, 4, 5), IntInterval.from(1).to(5));
+        Assert.assertEquals(IntArrayList.newListWith(1, 3, 5, 7, 9), IntInterval.from(1).to(10).by(2));
+        Assert.assertEquals(IntArrayList.newListWith(5, 4, 3), IntInterval.fromTo(5, 3));
+        Assert.assertEquals(IntArrayList.newListWith(0, 1, 2), IntInterval.zeroTo(2));
+        Assert.assertEquals(IntArrayList.newListWith(1, 4, 7, 10), IntInterval.oneToBy(10, 3));
+        Assert.assertEquals(IntArrayList.newListWith(2, 4, 6), IntInterval.evensFromTo(1, 7));
+        Assert.assertEquals(IntArrayList.newListWith(-3, -1, 1), IntInterval.oddsFromTo(-4, 2));
+        Assert.assertEquals(IntArrayList.newListWith(0), IntInterval.zero());
+    }
+
+    @Test
+    public void invalidRanges()
+    {
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                IntInterval.fromToBy(1, 5, 0);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                IntInterval.fromToBy(5, 1, 1);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                IntInterval.fromToBy(Integer.MIN_VALUE, Integer.MAX_VALUE, 1);
+            }
+        });
+    }
+
+    @Test
+    public void closedFormsMatchIteration()
+    {
+        IntInterval[] intervals = {
+                IntInterval.fromToBy(-17, 93, 7),
+                IntInterval.fromToBy(93, -17, -7),
+                IntInterval.fromToBy(10, 10, 3),
+                IntInterval.fromToBy(-5, 1000, 1)};
+        for (IntInterval interval : intervals)
+        {
+            IntArrayList expected = new IntArrayList();
+            IntIterator iterator = interval.intIterator();
+            while (iterator.hasNext())
+            {
+                expected.add(iterator.next());
+            }
+            Assert.assertEquals(expected, interval.toList());
+            Assert.assertEquals(expected.size(), interval.size());
+            Assert.assertEquals(expected.sum(), interval.sum());
+            Assert.assertEquals(expected.min(), interval.min());
+            Assert.assertEquals(expected.max(), interval.max());
+            Assert.assertEquals(expected.average(), interval.average(), 0.0);
+            Assert.assertEquals(expected.getLast(), interval.getLast());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                Assert.assertEquals(expected.get(i), interval.get(i));
+                Assert.assertEquals(i, interval.indexOf(expected.get(i)));
+            }
+            for (int value = interval.min() - 10; value <= interval.max() + 10; value++)
+            {
+                Assert.assertEquals(expected.contains(value), interval.contains(value));
+            }
+            Assert.assertEquals(expected, interval);
+            Assert.assertEquals(interval, expected);
+            Assert.assertEquals(expected.hashCode(), interval.hashCode());
+            Assert.assertEquals(expected.toString(), interval.toString());
+        }
+    }
+
+    @Test
+    public void extremeBounds()
+    {
+        IntInterval interval = IntInterval.fromTo(Integer.MAX_VALUE - 2, Integer.MAX_VALUE);
+        Assert.assertEquals(3, interval.size());
+        Assert.assertEquals(IntArrayList.newListWith(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE), interval);
+        Assert.assertEquals(3L * (Integer.MAX_VALUE - 1), interval.sum());
+        Assert.assertTrue(interval.contains(Integer.MAX_VALUE));
+        Assert.assertFalse(interval.contains(Integer.MIN_VALUE));
+        Assert.assertEquals(-1, interval.indexOf(Integer.MIN_VALUE));
+        IntInterval descending = IntInterval.fromTo(Integer.MIN_VALUE + 1, Integer.MIN_VALUE);
+        Assert.assertEquals(IntArrayList.newListWith(Integer.MIN_VALUE + 1, Integer.MIN_VALUE), descending);
+        Assert.assertEquals(Integer.MIN_VALUE, descending.min());
+    }
+
+    @Test
+    public void largeIntervalSumIsConstantTime()
+    {
+        IntInterval interval = IntInterval.oneTo(2000000000);
+        Assert.assertEquals(2000000000L * 2000000001L / 2L, interval.sum());
+        Assert.assertEquals(1000000000.5, interval.average(), 0.0);
+        Assert.assertTrue(interval.contains(1999999999));
+        Assert.assertEquals(1999999998, interval.indexOf(1999999999));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(IntInterval.oneTo(5), IntInterval.fromToBy(1, 5, 1));
+        Verify.assertEqualsAndHashCode(IntInterval.fromToBy(1, 1, 3), IntInterval.fromToBy(1, 1, -2));
+        Verify.assertEqualsAndHashCode(IntInterval.oneToBy(10, 2), ImmutableIntArrayList.newListWith(1, 3, 5, 7, 9));
+        Verify.assertNotEquals(IntInterval.oneTo(5), IntInterval.oneTo(4));
+        Verify.assertNotEquals(IntInterval.oneTo(5), IntInterval.fromTo(5, 1));
+        Verify.assertPostSerializedEqualsAndHashCode(IntInterval.fromToBy(-10, 10, 5));
+    }
+
+    @Test
+    public void filterTransformAndCopies()
+    {
+        IntInterval interval = IntInterval.oneTo(10);
+        Assert.assertEquals(IntArrayList.newListWith(2, 4, 6, 8, 10), interval.filter(new IntPredicate()
+        {
+            public boolean accept(int value)
+            {
+                return value % 2 == 0;
+            }
+        }));
+        Assert.assertEquals(Interval.oneTo(3), IntInterval.oneTo(3).transform(new IntToObjectFunction<Integer>()
+        {
+            public Integer valueOf(int value)
+            {
+                return (int) value;
+            }
+        }));
+        Assert.assertEquals(IntArrayList.newListWith(1, 2, 3, 4), IntInterval.oneTo(3).newWith(4));
+        Assert.assertEquals(IntArrayList.newListWith(1, 3), IntInterval.oneTo(3).newWithout(2));
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, IntInterval.fromTo(3, 1).toSortedArray());
+        Assert.assertEquals(IntInterval.fromTo(3, 1), IntInterval.oneTo(3).reverseThis());
+        Assert.assertSame(interval, interval.toImmutable());
+    }
+
+    @Test
+    public void parallelForEach()
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final AtomicLong sum = new AtomicLong();
+            final AtomicLong count = new AtomicLong();
+            IntInterval interval = IntInterval.fromToBy(-999, 100000, 3);
+            interval.forEach(new IntProcedure()
+            {
+                public void value(int each)
+                {
+                    sum.addAndGet(each);
+                    count.incrementAndGet();
+                }
+            }, 7, executor);
+            Assert.assertEquals(interval.sum(), sum.get());
+            Assert.assertEquals(interval.size(), count.get());
+
+            final AtomicLong smallSum = new AtomicLong();
+            IntInterval.oneTo(3).forEach(new IntProcedure()
+            {
+                public void value(int each)
+                {
+                    smallSum.addAndGet(each);
+                }
+            }, executor);
+            Assert.assertEquals(6L, smallSum.get());
+
+            Verify.assertThrows(RuntimeException.class, new Runnable()
+            {
+                public void run()
+                {
+                    IntInterval.oneTo(100).forEach(new IntProcedure()
+                    {
+                        public void value(int each)
+                        {
+                            if (each == 50)
+                            {
+                                throw new IllegalStateException();
+                            }
+                        }
+                    }, 4, executor);
+                }
+            });
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
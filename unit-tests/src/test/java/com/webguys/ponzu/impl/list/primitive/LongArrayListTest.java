@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.impl.factory.LongLists;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link LongArrayList}.
+ */
+public class LongArrayListTest extends AbstractMutableLongListTestCase
+{
+    @Override
+    protected LongArrayList newWith(long... elements)
+    {
+        return LongArrayList.wrapCopy(elements);
+    }
+
+    @Test
+    public void newListFromFunction()
+    {
+        LongArrayList list = LongArrayList.newList(FastList.newListWith("a", "bb", "ccc"), new LongFunction<String>()
+        {
+            public long longValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        });
+        Assert.assertEquals(LongArrayList.newListWith(1, 2, 3), list);
+        Assert.assertEquals(list, LongLists.mutable.transform(FastList.newListWith("a", "bb", "ccc"), new LongFunction<String>()
+        {
+            public long longValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        }));
+    }
+
+    @Test
+    public void newListWithUsesArray()
+    {
+        long[] array = {1, 2, 3};
+        LongArrayList list = LongArrayList.newListWith(array);
+        array[0] = 4;
+        Assert.assertEquals(4, list.getFirst());
+        LongArrayList copy = LongArrayList.wrapCopy(array);
+        array[0] = 5;
+        Assert.assertEquals(4, copy.getFirst());
+    }
+
+    @Test
+    public void capacity()
+    {
+        LongArrayList list = new LongArrayList(0);
+        list.ensureCapacity(100);
+        list.add(1);
+        list.trimToSize();
+        Assert.assertEquals(LongArrayList.newListWith(1), list);
+        list.addAtIndex(0, 0);
+        Assert.assertEquals(LongArrayList.newListWith(0, 1), list);
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith(1, 2, 3));
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith());
+    }
+
+    @Test
+    public void factory()
+    {
+        Verify.assertInstanceOf(LongArrayList.class, LongLists.mutable.of());
+        Assert.assertEquals(this.newWith(1, 2), LongLists.mutable.of(1, 2));
+        Assert.assertEquals(this.newWith(1, 2), LongLists.mutable.ofAll(LongLists.immutable.of(1, 2)));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link LongInterval}.
+ */
+public class LongIntervalTest
+{
+    @Test
+    public void fluentBuilder()
+    {
+        Assert.assertEquals(LongArrayList.newListWith(1, 2, 3, 4, 5), LongInterval.from(1).to(5));
+        Assert.assertEquals(LongArrayList.newListWith(1, 3, 5, 7, 9), LongInterval.from(1).to(10).by(2));
+        Assert.assertEquals(LongArrayList.newListWith(5, 4, 3), LongInterval.fromTo(5, 3));
+        Assert.assertEquals(LongArrayList.newListWith(0, 1, 2), LongInterval.zeroTo(2));
+        Assert.assertEquals(LongArrayList.newListWith(1, 4, 7, 10), LongInterval.oneToBy(10, 3));
+        Assert.assertEquals(LongArrayList.newListWith(2, 4, 6), LongInterval.evensFromTo(1, 7));
+        Assert.assertEquals(LongArrayList.newListWith(-3, -1, 1), LongInterval.oddsFromTo(-4, 2));
+        Assert.assertEquals(LongArrayList.newListWith(0), LongInterval.zero());
+    }
+
+    @Test
+    public void invalidRanges()
+    {
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                LongInterval.fromToBy(1, 5, 0);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                LongInterval.fromToBy(5, 1, 1);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                LongInterval.fromToBy(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+            }
+        });
+    }
+
+    @Test
+    public void closedFormsMatchIteration()
+    {
+        LongInterval[] intervals = {
+                LongInterval.fromToBy(-17, 93, 7),
+                LongInterval.fromToBy(93, -17, -7),
+                LongInterval.fromToBy(10, 10, 3),
+                LongInterval.fromToBy(-5, 1000, 1)};
+        for (LongInterval interval : intervals)
+        {
+            LongArrayList expected = new LongArrayList();
+            LongIterator iterator = interval.longIterator();
+            while (iterator.hasNext())
+            {
+                expected.add(iterator.next());
+            }
+            Assert.assertEquals(expected, interval.toList());
+            Assert.assertEquals(expected.size(), interval.size());
+            Assert.assertEquals(expected.sum(), interval.sum());
+            Assert.assertEquals(expected.min(), interval.min());
+            Assert.assertEquals(expected.max(), interval.max());
+            Assert.assertEquals(expected.average(), interval.average(), 0.0);
+            Assert.assertEquals(expected.getLast(), interval.getLast());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                Assert.assertEquals(expected.get(i), interval.get(i));
+                Assert.assertEquals(i, interval.indexOf(expected.get(i)));
+            }
+            for (long value = interval.min() - 10; value <= interval.max() + 10; value++)
+            {
+                Assert.assertEquals(expected.contains(value), interval.contains(value));
+            }
+            Assert.assertEquals(expected, interval);
+            Assert.assertEquals(interval, expected);
+            Assert.assertEquals(expected.hashCode(), interval.hashCode());
+            Assert.assertEquals(expected.toString(), interval.toString());
+        }
+    }
+
+    @Test
+    public void extremeBounds()
+    {
+        LongInterval interval = LongInterval.fromTo(Long.MAX_VALUE - 2, Long.MAX_VALUE);
+        Assert.assertEquals(3, interval.size());
+        Assert.assertEquals(LongArrayList.newListWith(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE), interval);
+        Assert.assertEquals(3L * (Long.MAX_VALUE - 1), interval.sum());
+        Assert.assertTrue(interval.contains(Long.MAX_VALUE));
+        Assert.assertFalse(interval.contains(Long.MIN_VALUE));
+        Assert.assertEquals(-1, interval.indexOf(Long.MIN_VALUE));
+        LongInterval descending = LongInterval.fromTo(Long.MIN_VALUE + 1, Long.MIN_VALUE);
+        Assert.assertEquals(LongArrayList.newListWith(Long.MIN_VALUE + 1, Long.MIN_VALUE), descending);
+        Assert.assertEquals(Long.MIN_VALUE, descending.min());
+    }
+
+    @Test
+    public void largeIntervalSumIsConstantTime()
+    {
+        LongInterval interval = LongInterval.oneTo(2000000000);
+        Assert.assertEquals(2000000000L * 2000000001L / 2L, interval.sum());
+        Assert.assertEquals(1000000000.5, interval.average(), 0.0);
+        Assert.assertTrue(interval.contains(1999999999));
+        Assert.assertEquals(1999999998, interval.indexOf(1999999999));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(LongInterval.oneTo(5), LongInterval.fromToBy(1, 5, 1));
+        Verify.assertEqualsAndHashCode(LongInterval.fromToBy(1, 1, 3), LongInterval.fromToBy(1, 1, -2));
+        Verify.assertEqualsAndHashCode(LongInterval.oneToBy(10, 2), ImmutableLongArrayList.newListWith(1, 3, 5, 7, 9));
+        Verify.assertNotEquals(LongInterval.oneTo(5), LongInterval.oneTo(4));
+        Verify.assertNotEquals(LongInterval.oneTo(5), LongInterval.fromTo(5, 1));
+        Verify.assertPostSerializedEqualsAndHashCode(LongInterval.fromToBy(-10, 10, 5));
+    }
+
+    @Test
+    public void filterTransformAndCopies()
+    {
+        LongInterval interval = LongInterval.oneTo(10);
+        Assert.assertEquals(LongArrayList.newListWith(2, 4, 6, 8, 10), interval.filter(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return value % 2 == 0;
+            }
+        }));
+        Assert.assertEquals(Interval.oneTo(3), LongInterval.oneTo(3).transform(new LongToObjectFunction<Integer>()
+        {
+            public Integer valueOf(long value)
+            {
+                return (int) value;
+            }
+        }));
+        Assert.assertEquals(LongArrayList.newListWith(1, 2, 3, 4), LongInterval.oneTo(3).newWith(4));
+        Assert.assertEquals(LongArrayList.newListWith(1, 3), LongInterval.oneTo(3).newWithout(2));
+        Assert.assertArrayEquals(new long[]{1, 2, 3}, LongInterval.fromTo(3, 1).toSortedArray());
+        Assert.assertEquals(LongInterval.fromTo(3, 1), LongInterval.oneTo(3).reverseThis());
+        Assert.assertSame(interval, interval.toImmutable());
+    }
+
+    @Test
+    public void parallelForEach()
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final AtomicLong sum = new AtomicLong();
+            final AtomicLong count = new AtomicLong();
+            LongInterval interval = LongInterval.fromToBy(-999, 100000, 3);
+            interval.forEach(new LongProcedure()
+            {
+                public void value(long each)
+                {
+                    sum.addAndGet(each);
+                    count.incrementAndGet();
+                }
+            }, 7, executor);
+            Assert.assertEquals(interval.sum(), sum.get());
+            Assert.assertEquals(interval.size(), count.get());
+
+            final AtomicLong smallSum = new AtomicLong();
+            LongInterval.oneTo(3).forEach(new LongProcedure()
+            {
+                public void value(long each)
+                {
+                    smallSum.addAndGet(each);
+                }
+            }, executor);
+            Assert.assertEquals(6L, smallSum.get());
+
+            Verify.assertThrows(RuntimeException.class, new Runnable()
+            {
+                public void run()
+                {
+                    LongInterval.oneTo(100).forEach(new LongProcedure()
+                    {
+                        public void value(long each)
+                        {
+                            if (each == 50)
+                            {
+                                throw new IllegalStateException();
+                            }
+                        }
+                    }, 4, executor);
+                }
+            });
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link SynchronizedDoubleList}.
+ */
+public class SynchronizedDoubleListTest extends AbstractMutableDoubleListTestCase
+{
+    @Override
+    protected MutableDoubleList newWith(double... elements)
+    {
+        return SynchronizedDoubleList.of(DoubleArrayList.wrapCopy(elements));
+    }
+
+    @Override
+    @Test
+    public void asSynchronized()
+    {
+        super.asSynchronized();
+        MutableDoubleList list = this.newWith(1);
+        Assert.assertSame(list, list.asSynchronized());
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(this.newWith(1, 2, 3));
+    }
+}
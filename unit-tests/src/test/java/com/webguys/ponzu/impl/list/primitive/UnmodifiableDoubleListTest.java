@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.list.primitive;
+
+import com.webguys.ponzu.impl.factory.DoubleLists;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link UnmodifiableDoubleList}.
+ */
+public class UnmodifiableDoubleListTest
+{
+    private MutableDoubleList mutableList;
+    private MutableDoubleList unmodifiableList;
+
+    @Before
+    public void setUp()
+    {
+        this.mutableList = DoubleLists.mutable.of(3, 1, 2);
+        this.unmodifiableList = UnmodifiableDoubleList.of(this.mutableList);
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(this.mutableList, this.unmodifiableList);
+        Verify.assertPostSerializedEqualsAndHashCode(this.unmodifiableList);
+    }
+
+    @Test
+    public void delegatingMethods()
+    {
+        Assert.assertEquals(3, this.unmodifiableList.size());
+        Assert.assertEquals(3, this.unmodifiableList.getFirst(), 0.0);
+        Assert.assertEquals(6, this.unmodifiableList.sum(), 0.0);
+        Assert.assertTrue(this.unmodifiableList.contains(2));
+        Assert.assertEquals(DoubleLists.mutable.of(1, 2, 3), this.unmodifiableList.toSortedList());
+        this.mutableList.add(4);
+        Assert.assertEquals(4, this.unmodifiableList.getLast(), 0.0);
+        Assert.assertSame(this.unmodifiableList, this.unmodifiableList.asUnmodifiable());
+    }
+
+    @Test
+    public void mutationMethodsThrow()
+    {
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            public void run()
+            {
+                UnmodifiableDoubleListTest.this.unmodifiableList.add(4);
+            }
+        });
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            public void run()
+            {
+                UnmodifiableDoubleListTest.this.unmodifiableList.remove(1);
+            }
+        });
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            public void run()
+            {
+                UnmodifiableDoubleListTest.this.unmodifiableList.set(0, 1);
+            }
+        });
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            public void run()
+            {
+                UnmodifiableDoubleListTest.this.unmodifiableList.sortThis();
+            }
+        });
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            public void run()
+            {
+                UnmodifiableDoubleListTest.this.unmodifiableList.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.immutable;
+
+import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableHashTrieMapTest extends ImmutableMapTestCase
+{
+    @Override
+    protected ImmutableMap<Integer, String> classUnderTest()
+    {
+        return ImmutableHashTrieMap.newMap(UnifiedMap.newWithKeysValues(1, "1", 2, "2", 3, "3", 4, "4"));
+    }
+
+    @Override
+    protected int size()
+    {
+        return 4;
+    }
+
+    @Test
+    @Override
+    public void testToString()
+    {
+        Assert.assertEquals("{1=1, 2=2, 3=3, 4=4}", this.classUnderTest().toString());
+    }
+
+    @Test
+    public void empty()
+    {
+        ImmutableMap<Integer, String> map = ImmutableHashTrieMap.empty();
+        Verify.assertEmpty(map);
+        Assert.assertEquals(UnifiedMap.newMap(), map);
+        Assert.assertSame(map, map.newWithoutKey(1));
+        Assert.assertEquals("{}", map.toString());
+    }
+
+    @Test
+    public void pointUpdatesMatchUnifiedMap()
+    {
+        MutableMap<Integer, Integer> expected = UnifiedMap.newMap();
+        ImmutableMap<Integer, Integer> map = ImmutableHashTrieMap.empty();
+        for (int i = 0; i < 20000; i++)
+        {
+            int key = i * 7919 % 12289;
+            expected.put(key, i);
+            map = map.newWithKeyValue(key, i);
+        }
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+        Verify.assertSize(expected.size(), map.keysView().toList());
+
+        for (int i = 0; i < 12289; i += 3)
+        {
+            expected.remove(i);
+            map = map.newWithoutKey(i);
+        }
+        Assert.assertEquals(expected, map);
+        Verify.assertSize(expected.size(), map);
+        Assert.assertEquals(expected.keySet(), map.castToMap().keySet());
+
+        for (Integer key : expected.keySet())
+        {
+            map = map.newWithoutKey(key);
+        }
+        Verify.assertEmpty(map);
+        Assert.assertFalse(map.keysView().iterator().hasNext());
+    }
+
+    @Test
+    public void structuralSharing()
+    {
+        ImmutableMap<Integer, String> map = ImmutableHashTrieMap.newMap(UnifiedMap.newWithKeysValues(1, "1", 2, "2"));
+        ImmutableMap<Integer, String> map2 = map.newWithKeyValue(3, "3");
+        ImmutableMap<Integer, String> map3 = map2.newWithKeyValue(1, "one");
+        ImmutableMap<Integer, String> map4 = map3.newWithoutKey(2);
+
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "1", 2, "2"), map);
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "1", 2, "2", 3, "3"), map2);
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "one", 2, "2", 3, "3"), map3);
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "one", 3, "3"), map4);
+
+        Assert.assertSame(map4, map4.newWithoutKey(2));
+        Assert.assertSame(map4, map4.newWithKeyValue(3, map4.get(3)));
+    }
+
+    @Test
+    public void hashCollisions()
+    {
+        // "Aa" and "BB" have the same hash code, so every one of these keys does
+        String[] keys = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        ImmutableMap<String, Integer> map = ImmutableHashTrieMap.empty();
+        for (int i = 0; i < keys.length; i++)
+        {
+            map = map.newWithKeyValue(keys[i], i);
+        }
+        map = map.newWithKeyValue(null, -1).newWithKeyValue("AaAa", 10);
+        Verify.assertSize(5, map);
+        Assert.assertEquals(Integer.valueOf(10), map.get("AaAa"));
+        Assert.assertEquals(Integer.valueOf(3), map.get("BBBB"));
+        Assert.assertEquals(Integer.valueOf(-1), map.get(null));
+        Assert.assertTrue(map.containsKey(null));
+        Assert.assertFalse(map.containsKey("BBBa"));
+        Assert.assertNull(map.get("Aa"));
+
+        ImmutableMap<String, Integer> removed = map.newWithoutAllKeys(FastList.newListWith("AaAa", "AaBB", "BBAa"));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(null, -1, "BBBB", 3), removed);
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("BBBB", 3), removed.newWithoutKey(null));
+        Verify.assertSize(5, map);
+    }
+
+    @Test
+    public void newWithAllKeyValuesDoesNotChangeTheOriginal()
+    {
+        ImmutableMap<Integer, Integer> map = ImmutableHashTrieMap.newMap(Interval.oneTo(1000).toMap(
+                Functions.<Integer>getPassThru(),
+                Functions.<Integer>getPassThru()));
+        ImmutableMap<Integer, Integer> bigger = map.newWithAllKeyValueArguments(
+                Tuples.pair(1, -1),
+                Tuples.pair(1001, 1001),
+                Tuples.pair(1002, 1002));
+        Verify.assertSize(1000, map);
+        Assert.assertEquals(Integer.valueOf(1), map.get(1));
+        Verify.assertSize(1002, bigger);
+        Assert.assertEquals(Integer.valueOf(-1), bigger.get(1));
+
+        ImmutableMap<Integer, Integer> smaller = bigger.newWithoutAllKeys(Interval.oneTo(990));
+        Verify.assertSize(12, smaller);
+        Verify.assertSize(1002, bigger);
+        Assert.assertEquals(Interval.fromTo(991, 1002).toSet(), smaller.castToMap().keySet());
+    }
+
+    @Test
+    public void serialization()
+    {
+        ImmutableMap<Integer, String> map = this.classUnderTest().newWithKeyValue(null, null);
+        Verify.assertPostSerializedEqualsAndHashCode(map);
+        Verify.assertInstanceOf(ImmutableHashTrieMap.class, SerializeTestHelper.serializeDeserialize(map));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.immutable;
+
+import com.webguys.ponzu.api.map.ImmutableMap;
+import com.webguys.ponzu.api.map.ImmutableMapBuilder;
+import com.webguys.ponzu.impl.factory.Maps;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableMapBuilderTest
+{
+    private static ImmutableMapBuilder<Integer, String> newBuilder(int from, int to, String suffix)
+    {
+        ImmutableMapBuilder<Integer, String> builder = Maps.immutable.builder(to - from + 1);
+        for (int i = from; i <= to; i++)
+        {
+            builder.put(i, i + suffix);
+        }
+        return builder;
+    }
+
+    @Test
+    public void build()
+    {
+        ImmutableMap<Integer, String> small = newBuilder(1, 2, "").build();
+        Verify.assertInstanceOf(ImmutableDoubletonMap.class, small);
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "1", 2, "2"), small);
+
+        ImmutableMap<Integer, String> large = newBuilder(1, 100, "").build();
+        Verify.assertInstanceOf(ImmutableUnifiedMap.class, large);
+        Verify.assertSize(100, large.castToMap());
+        Assert.assertEquals("100", large.get(100));
+    }
+
+    @Test
+    public void mergeKeepsLaterValues()
+    {
+        ImmutableMap<Integer, String> smallIntoLarge = newBuilder(1, 10, "a").merge(newBuilder(5, 100, "b")).build();
+        Assert.assertEquals("1a", smallIntoLarge.get(1));
+        Assert.assertEquals("5b", smallIntoLarge.get(5));
+        Assert.assertEquals("100b", smallIntoLarge.get(100));
+        Verify.assertSize(100, smallIntoLarge.castToMap());
+
+        ImmutableMap<Integer, String> largeIntoSmall = newBuilder(5, 100, "b").merge(newBuilder(1, 10, "a")).build();
+        Assert.assertEquals("1a", largeIntoSmall.get(1));
+        Assert.assertEquals("10a", largeIntoSmall.get(10));
+        Assert.assertEquals("11b", largeIntoSmall.get(11));
+        Verify.assertSize(100, largeIntoSmall.castToMap());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void putAfterBuild()
+    {
+        ImmutableMapBuilder<Integer, String> builder = newBuilder(1, 10, "");
+        builder.build();
+        builder.put(11, "11");
+    }
+}
@@ -19,6 +19,7 @@ package com.webguys.ponzu.impl.map.immutable;
 import com.webguys.ponzu.api.map.ImmutableMap;
 import com.webguys.ponzu.impl.block.factory.Predicates;
 import com.webguys.ponzu.impl.factory.Maps;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
 import com.webguys.ponzu.impl.test.Verify;
 import com.webguys.ponzu.impl.test.domain.Key;
 import org.junit.Assert;
@@ -109,4 +110,19 @@ public class ImmutableMapFactoryTest
         Verify.assertContainsAllKeyValues(map4, key, 4, new Key("still not a dupe"), 2, new Key("me neither"), 3);
         Assert.assertSame(key, map4.keysView().find(Predicates.equal(key)));
     }
+
+    @Test
+    public void createPersistent()
+    {
+        ImmutableMap<String, String> empty = Maps.immutable.ofPersistent();
+        Verify.assertEmpty(empty);
+        Verify.assertInstanceOf(ImmutableHashTrieMap.class, empty);
+
+        ImmutableMap<String, String> map = Maps.immutable.ofPersistentMap(UnifiedMap.newWithKeysValues("key1", "value1", "key2", "value2"));
+        Verify.assertInstanceOf(ImmutableHashTrieMap.class, map);
+        Verify.assertContainsAllKeyValues(map, "key1", "value1", "key2", "value2");
+        Assert.assertSame(map, Maps.immutable.ofPersistentMap(map.castToMap()));
+        Verify.assertInstanceOf(ImmutableHashTrieMap.class, map.newWithKeyValue("key3", "value3"));
+        Verify.assertInstanceOf(ImmutableHashTrieMap.class, map.newWithoutKey("key1"));
+    }
 }
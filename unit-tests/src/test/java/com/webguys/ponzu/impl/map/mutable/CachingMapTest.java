@@ -0,0 +1,308 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.block.function.Constant;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.tuple.ImmutableEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link CachingMap}.
+ */
+public class CachingMapTest extends MutableMapTestCase
+{
+    private static final Function2<Object, String, Integer> LENGTH = new Function2<Object, String, Integer>()
+    {
+        public Integer value(Object key, String value)
+        {
+            return value.length();
+        }
+    };
+
+    @Override
+    public <K, V> MutableMap<K, V> newMap()
+    {
+        return CachingMap.newLfuMap(100L);
+    }
+
+    @Override
+    public <K, V> MutableMap<K, V> newMapWithKeyValue(K key, V value)
+    {
+        return CachingMap.<K, V>newLfuMap(100L).withKeyValue(key, value);
+    }
+
+    @Override
+    public <K, V> MutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2)
+    {
+        return CachingMap.<K, V>newLfuMap(100L).withKeyValue(key1, value1).withKeyValue(key2, value2);
+    }
+
+    @Override
+    public <K, V> MutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3)
+    {
+        return CachingMap.<K, V>newLfuMap(100L)
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3);
+    }
+
+    @Override
+    public <K, V> MutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3, K key4, V value4)
+    {
+        return CachingMap.<K, V>newLfuMap(100L)
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3)
+                .withKeyValue(key4, value4);
+    }
+
+    @Test
+    public void lruEvictsTheLeastRecentlyUsedEntry()
+    {
+        CachingMap<Integer, String> map = CachingMap.newLruMap(3L);
+        map.put(1, "1");
+        map.put(2, "2");
+        map.put(3, "3");
+        Assert.assertEquals("1", map.get(1));
+        map.put(4, "4");
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "1", 3, "3", 4, "4"), map);
+        Assert.assertEquals(1L, map.getEvictionCount());
+    }
+
+    @Test
+    public void lfuKeepsFrequentlyUsedEntriesThroughAScan()
+    {
+        CachingMap<Integer, String> map = CachingMap.newLfuMap(100L);
+        for (int round = 0; round < 5; round++)
+        {
+            for (int i = 0; i < 50; i++)
+            {
+                map.getIfAbsentPut(i, new Constant<String>(String.valueOf(i)));
+            }
+        }
+        for (int i = 1000; i < 2000; i++)
+        {
+            map.getIfAbsentPut(i, new Constant<String>(String.valueOf(i)));
+        }
+        Assert.assertTrue(countRetained(map, 50) >= 45);
+        Verify.assertSize(100, map);
+
+        CachingMap<Integer, String> lru = CachingMap.newLruMap(100L);
+        for (int round = 0; round < 5; round++)
+        {
+            for (int i = 0; i < 50; i++)
+            {
+                lru.getIfAbsentPut(i, new Constant<String>(String.valueOf(i)));
+            }
+        }
+        for (int i = 1000; i < 2000; i++)
+        {
+            lru.getIfAbsentPut(i, new Constant<String>(String.valueOf(i)));
+        }
+        Assert.assertEquals(0, countRetained(lru, 50));
+    }
+
+    private static int countRetained(CachingMap<Integer, String> map, int keys)
+    {
+        int retained = 0;
+        for (int i = 0; i < keys; i++)
+        {
+            if (map.containsKey(i))
+            {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    @Test
+    public void weightedMapStaysWithinItsMaximumWeight()
+    {
+        CachingMap<Integer, String> map = CachingMap.newWeightedLruMap(10L, LENGTH);
+        map.put(1, "aaaa");
+        map.put(2, "bbbb");
+        map.put(3, "cc");
+        Verify.assertSize(3, map);
+        map.put(4, "ddd");
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(2, "bbbb", 3, "cc", 4, "ddd"), map);
+        map.put(2, "bbbbbbbbbbb");
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(3, "cc", 4, "ddd"), map);
+        Assert.assertEquals(2L, map.getEvictionCount());
+    }
+
+    @Test
+    public void negativeWeightsAreRejected()
+    {
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                CachingMap.newWeightedLfuMap(10L, new Function2<Integer, Integer, Integer>()
+                {
+                    public Integer value(Integer key, Integer value)
+                    {
+                        return -1;
+                    }
+                }).put(1, 1);
+            }
+        });
+    }
+
+    @Test
+    public void expireAfterWrite()
+    {
+        FakeClock clock = new FakeClock();
+        CachingMap<Integer, String> map =
+                new CachingMap<Integer, String>(false, 10L, null, clock).withExpireAfterWrite(10L, TimeUnit.NANOSECONDS);
+        map.put(1, "1");
+        clock.time = 5L;
+        map.put(2, "2");
+        clock.time = 10L;
+        Assert.assertNull(map.get(1));
+        Assert.assertEquals("2", map.get(2));
+        map.put(2, "two");
+        clock.time = 19L;
+        Assert.assertEquals("two", map.get(2));
+        Verify.assertSize(1, map);
+        clock.time = 20L;
+        Verify.assertEmpty(map);
+        Assert.assertEquals(2L, map.getEvictionCount());
+    }
+
+    @Test
+    public void countsHitsAndMisses()
+    {
+        CachingMap<Integer, String> map = CachingMap.newLfuMap(10L);
+        map.put(1, "1");
+        map.get(1);
+        map.get(2);
+        map.getIfAbsentPut(3, new Constant<String>(String.valueOf(3)));
+        map.getIfAbsentPut(3, new Constant<String>(String.valueOf(3)));
+        map.containsKey(1);
+        Assert.assertEquals(2L, map.getHitCount());
+        Assert.assertEquals(2L, map.getMissCount());
+        Assert.assertEquals(0L, map.getEvictionCount());
+    }
+
+    @Test
+    public void forEachMayReadTheMap()
+    {
+        final CachingMap<Integer, String> map = CachingMap.newLruMap(10L);
+        map.put(1, "1");
+        map.put(2, "2");
+        map.forEachKey(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                map.get(each);
+            }
+        });
+        Assert.assertEquals(2L, map.getHitCount());
+    }
+
+    @Test
+    public void serializationKeepsTheConfiguration()
+    {
+        CachingMap<Integer, String> map = CachingMap.newLruMap(2L);
+        map.put(1, "1");
+        map.put(2, "2");
+        CachingMap<Integer, String> copy = SerializeTestHelper.serializeDeserialize(map);
+        Assert.assertEquals(map, copy);
+        copy.get(1);
+        copy.put(3, "3");
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, "1", 3, "3"), copy);
+    }
+
+    @Test
+    public void nullKeysAndValuesAreRejected()
+    {
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                CachingMap.newLruMap(10L).put(null, 1);
+            }
+        });
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                CachingMap.newLruMap(10L).put(1, null);
+            }
+        });
+    }
+
+    @Override
+    @Test
+    public void removeFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().remove(ImmutableEntry.of("Two", 2)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+
+        Assert.assertFalse(map.entrySet().remove(ImmutableEntry.of("Four", 4)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+    }
+
+    @Override
+    @Test
+    public void removeAllFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().removeAll(FastList.newListWith(
+                ImmutableEntry.of("One", 1),
+                ImmutableEntry.of("Three", 3))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+
+        Assert.assertFalse(map.entrySet().removeAll(FastList.newListWith(ImmutableEntry.of("Four", 4))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+    }
+
+    @Override
+    @Test
+    public void removeNullFromValues()
+    {
+        // CachingMap does not support null values
+    }
+
+    @Override
+    @Test
+    public void removeNullFromKeySet()
+    {
+        // CachingMap does not support null keys
+    }
+
+    static final class FakeClock extends CachingMap.Clock
+    {
+        volatile long time;
+
+        @Override
+        long nanoTime()
+        {
+            return this.time;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.block.function.Constant;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.tuple.ImmutableEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ConcurrentCachingMap}.
+ */
+public class ConcurrentCachingMapTest extends ConcurrentMutableMapTestCase
+{
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMap()
+    {
+        return ConcurrentCachingMap.newLfuMap(1000L);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeyValue(K key, V value)
+    {
+        return ConcurrentCachingMap.<K, V>newLfuMap(1000L).withKeyValue(key, value);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2)
+    {
+        return ConcurrentCachingMap.<K, V>newLfuMap(1000L).withKeyValue(key1, value1).withKeyValue(key2, value2);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3)
+    {
+        return ConcurrentCachingMap.<K, V>newLfuMap(1000L)
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3, K key4, V value4)
+    {
+        return ConcurrentCachingMap.<K, V>newLfuMap(1000L)
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3)
+                .withKeyValue(key4, value4);
+    }
+
+    @Test
+    public void staysWithinItsMaximumSize()
+    {
+        ConcurrentCachingMap<Integer, String> map = ConcurrentCachingMap.newLruMap(1000L);
+        Assert.assertEquals(1000L, map.getMaximumWeight());
+        for (int i = 0; i < 5000; i++)
+        {
+            map.put(i, String.valueOf(i));
+        }
+        Verify.assertSize(1000, map);
+        Assert.assertEquals(4000L, map.getEvictionCount());
+    }
+
+    @Test
+    public void countsHitsAndMissesAcrossSegments()
+    {
+        ConcurrentCachingMap<Integer, String> map = ConcurrentCachingMap.newLfuMap(1000L);
+        for (int i = 0; i < 100; i++)
+        {
+            map.getIfAbsentPut(i, new Constant<String>(String.valueOf(i)));
+            map.get(i);
+        }
+        map.putIfAbsent(1, "one");
+        map.containsKey(1);
+        Assert.assertEquals(100L, map.getHitCount());
+        Assert.assertEquals(100L, map.getMissCount());
+    }
+
+    @Test
+    public void concurrentLoadsStayWithinTheMaximumSize() throws InterruptedException
+    {
+        final ConcurrentCachingMap<Integer, String> map = ConcurrentCachingMap.newLfuMap(256L);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++)
+        {
+            final int offset = t * 10000;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 10000; i++)
+                    {
+                        int key = i % 2 == 0 ? i % 64 : offset + i;
+                        Assert.assertEquals(String.valueOf(key), map.getIfAbsentPut(key, new Constant<String>(String.valueOf(key))));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertTrue(map.size() <= 256);
+        Assert.assertEquals(40000L, map.getHitCount() + map.getMissCount());
+    }
+
+    @Test
+    public void expireAfterWrite()
+    {
+        CachingMapTest.FakeClock clock = new CachingMapTest.FakeClock();
+        ConcurrentCachingMap<Integer, String> map = new ConcurrentCachingMap<Integer, String>(false, 1000L, null, clock)
+                .withExpireAfterWrite(10L, TimeUnit.NANOSECONDS);
+        map.put(1, "1");
+        clock.time = 9L;
+        Assert.assertEquals("1", map.get(1));
+        clock.time = 10L;
+        Assert.assertNull(map.get(1));
+        Verify.assertEmpty(map);
+    }
+
+    @Test
+    public void serializationKeepsTheConfiguration()
+    {
+        ConcurrentCachingMap<Integer, String> map = ConcurrentCachingMap.newLruMap(2L);
+        map.put(1, "1");
+        map.put(2, "2");
+        ConcurrentCachingMap<Integer, String> copy = SerializeTestHelper.serializeDeserialize(map);
+        Assert.assertEquals(map, copy);
+        copy.put(3, "3");
+        Verify.assertSize(2, copy);
+    }
+
+    @Override
+    @Test
+    public void removeFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().remove(ImmutableEntry.of("Two", 2)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+
+        Assert.assertFalse(map.entrySet().remove(ImmutableEntry.of("Four", 4)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+
+        Assert.assertFalse(map.entrySet().remove(null));
+        Assert.assertFalse(map.entrySet().remove(ImmutableEntry.of(null, 2)));
+    }
+
+    @Override
+    @Test
+    public void removeAllFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().removeAll(FastList.newListWith(
+                ImmutableEntry.of("One", 1),
+                ImmutableEntry.of("Three", 3))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+
+        Assert.assertFalse(map.entrySet().removeAll(FastList.newListWith(ImmutableEntry.of("Four", 4))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+    }
+
+    @Override
+    @Test
+    public void removeNullFromValues()
+    {
+        // ConcurrentCachingMap does not support null values
+    }
+
+    @Override
+    @Test
+    public void removeNullFromKeySet()
+    {
+        // ConcurrentCachingMap does not support null keys
+    }
+}
@@ -16,12 +16,16 @@
 
 package com.webguys.ponzu.impl.map.mutable;
 
+import com.webguys.ponzu.api.block.function.Generator;
 import com.webguys.ponzu.api.map.ConcurrentMutableMap;
 import com.webguys.ponzu.api.map.MapIterable;
 import com.webguys.ponzu.api.map.MutableMap;
 import com.webguys.ponzu.api.partition.PartitionIterable;
+import com.webguys.ponzu.impl.block.factory.Functions;
 import com.webguys.ponzu.impl.block.factory.IntegerPredicates;
+import com.webguys.ponzu.impl.block.function.Constant;
 import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
 import com.webguys.ponzu.impl.tuple.ImmutableEntry;
 import org.junit.Assert;
 import org.junit.Test;
@@ -31,7 +35,7 @@ import static com.webguys.ponzu.impl.factory.Iterables.*;
 /**
  * JUnit test for {@link ConcurrentMutableHashMap}.
  */
-public class ConcurrentMutableHashMapTest extends MutableMapTestCase
+public class ConcurrentMutableHashMapTest extends ConcurrentMutableMapTestCase
 {
     @Override
     public <K, V> ConcurrentMutableMap<K, V> newMap()
@@ -102,6 +106,18 @@ public class ConcurrentMutableHashMapTest extends MutableMapTestCase
         Assert.assertFalse(map.remove(2, 3));
     }
 
+    @Test
+    public void getIfAbsentPutAfterDeserialization()
+    {
+        ConcurrentMutableMap<Integer, Integer> map = SerializeTestHelper.serializeDeserialize(this.<Integer, Integer>newMapWithKeysValues(1, 1, 2, 2));
+        Generator<Integer> three = new Constant<Integer>(3);
+        Assert.assertEquals(Integer.valueOf(1), map.getIfAbsentPut(1, three));
+        Assert.assertEquals(Integer.valueOf(3), map.getIfAbsentPut(3, three));
+        Assert.assertEquals(Integer.valueOf(4), map.getIfAbsentPutWith(4, Functions.<Integer>getPassThru(), 4));
+        Assert.assertEquals(Integer.valueOf(3), map.updateValue(5, three, Functions.<Integer>getPassThru()));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues(1, 1, 2, 2, 3, 3, 4, 4).withKeyValue(5, 3), map);
+    }
+
     @Override
     @Test
     public void removeFromEntrySet()
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Abstract JUnit test for the atomic compute methods of {@link ConcurrentMutableMap}s.
+ */
+public abstract class ConcurrentMutableMapTestCase extends MutableMapTestCase
+{
+    private static final int THREADS = 8;
+    private static final int KEYS = 100;
+
+    private static final Function<Integer, Integer> INCREMENT = new Function<Integer, Integer>()
+    {
+        public Integer valueOf(Integer each)
+        {
+            return each + 1;
+        }
+    };
+
+    @Override
+    public abstract <K, V> ConcurrentMutableMap<K, V> newMap();
+
+    @Test
+    public void updateValue()
+    {
+        ConcurrentMutableMap<String, Integer> map = this.newMap();
+        Generator<Integer> zero = new Generator<Integer>()
+        {
+            public Integer value()
+            {
+                return 0;
+            }
+        };
+        Assert.assertEquals(Integer.valueOf(1), map.updateValue("one", zero, INCREMENT));
+        Assert.assertEquals(Integer.valueOf(2), map.updateValue("one", zero, INCREMENT));
+        Assert.assertEquals(Integer.valueOf(1), map.updateValue("two", zero, INCREMENT));
+        Assert.assertEquals(Integer.valueOf(2), map.get("one"));
+        Verify.assertSize(2, map);
+    }
+
+    @Test
+    public void getIfAbsentPutCallsTheGeneratorOncePerKey() throws InterruptedException
+    {
+        final ConcurrentMutableMap<Integer, Integer> map = this.newMap();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    awaitUninterruptibly(start);
+                    for (int i = 0; i < KEYS; i++)
+                    {
+                        final int key = i;
+                        Integer value = map.getIfAbsentPut(key, new Generator<Integer>()
+                        {
+                            public Integer value()
+                            {
+                                calls.incrementAndGet();
+                                Thread.yield();
+                                return key * 10;
+                            }
+                        });
+                        Assert.assertEquals(Integer.valueOf(key * 10), value);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(KEYS, calls.get());
+        Verify.assertSize(KEYS, map);
+    }
+
+    @Test
+    public void getIfAbsentPutWithCallsTheFunctionOncePerKey() throws InterruptedException
+    {
+        final ConcurrentMutableMap<Integer, Integer> map = this.newMap();
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<Integer, Integer> timesTen = new Function<Integer, Integer>()
+        {
+            public Integer valueOf(Integer each)
+            {
+                calls.incrementAndGet();
+                Thread.yield();
+                return each * 10;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < KEYS; i++)
+                    {
+                        map.getIfAbsentPutWith(i, timesTen, i);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(KEYS, calls.get());
+        for (int i = 0; i < KEYS; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i * 10), map.get(i));
+        }
+    }
+
+    @Test
+    public void concurrentUpdateValue() throws InterruptedException
+    {
+        final ConcurrentMutableMap<Integer, Integer> map = this.newMap();
+        final AtomicInteger factoryCalls = new AtomicInteger();
+        final Generator<Integer> zero = new Generator<Integer>()
+        {
+            public Integer value()
+            {
+                factoryCalls.incrementAndGet();
+                return 0;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 1000; i++)
+                    {
+                        map.updateValue(i % KEYS, zero, INCREMENT);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(KEYS, factoryCalls.get());
+        for (int i = 0; i < KEYS; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(THREADS * 1000 / KEYS), map.get(i));
+        }
+    }
+
+    @Test
+    public void getIfAbsentPutReleasesTheKeyWhenTheGeneratorThrows()
+    {
+        final ConcurrentMutableMap<String, String> map = this.newMap();
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                map.getIfAbsentPut("key", new Generator<String>()
+                {
+                    public String value()
+                    {
+                        throw new IllegalArgumentException();
+                    }
+                });
+            }
+        });
+        Verify.assertEmpty(map);
+        Assert.assertEquals("value", map.getIfAbsentPut("key", new Generator<String>()
+        {
+            public String value()
+            {
+                return "value";
+            }
+        }));
+    }
+
+    @Test
+    public void getIfAbsentPutOfTheSameKeyInsideTheGeneratorThrows()
+    {
+        final ConcurrentMutableMap<String, String> map = this.newMap();
+        Verify.assertThrows(IllegalStateException.class, new Runnable()
+        {
+            public void run()
+            {
+                map.getIfAbsentPut("key", new Generator<String>()
+                {
+                    public String value()
+                    {
+                        return map.getIfAbsentPut("key", this);
+                    }
+                });
+            }
+        });
+        Verify.assertEmpty(map);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
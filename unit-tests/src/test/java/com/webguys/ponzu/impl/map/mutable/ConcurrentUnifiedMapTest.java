@@ -0,0 +1,440 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.bag.MutableBag;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.map.ConcurrentMutableMap;
+import com.webguys.ponzu.api.map.MapIterable;
+import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.api.partition.PartitionIterable;
+import com.webguys.ponzu.impl.bag.mutable.HashBag;
+import com.webguys.ponzu.impl.block.factory.IntegerPredicates;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.parallel.BatchIterable;
+import com.webguys.ponzu.impl.parallel.ParallelIterate;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.tuple.ImmutableEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.webguys.ponzu.impl.factory.Iterables.*;
+
+/**
+ * JUnit test for {@link ConcurrentUnifiedMap}.
+ */
+public class ConcurrentUnifiedMapTest extends ConcurrentMutableMapTestCase
+{
+    private static final int THREADS = 8;
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMap()
+    {
+        return ConcurrentUnifiedMap.newMap();
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeyValue(K key, V value)
+    {
+        return ConcurrentUnifiedMap.<K, V>newMap().withKeyValue(key, value);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2)
+    {
+        return ConcurrentUnifiedMap.<K, V>newMap().withKeyValue(key1, value1).withKeyValue(key2, value2);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3)
+    {
+        return ConcurrentUnifiedMap.<K, V>newMap()
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3);
+    }
+
+    @Override
+    public <K, V> ConcurrentMutableMap<K, V> newMapWithKeysValues(K key1, V value1, K key2, V value2, K key3, V value3, K key4, V value4)
+    {
+        return ConcurrentUnifiedMap.<K, V>newMap()
+                .withKeyValue(key1, value1)
+                .withKeyValue(key2, value2)
+                .withKeyValue(key3, value3)
+                .withKeyValue(key4, value4);
+    }
+
+    @Test
+    public void putIfAbsent()
+    {
+        ConcurrentMutableMap<Integer, Integer> map = this.newMapWithKeysValues(1, 1, 2, 2);
+        Assert.assertEquals(Integer.valueOf(1), map.putIfAbsent(1, 1));
+        Assert.assertNull(map.putIfAbsent(3, 3));
+    }
+
+    @Test
+    public void replace()
+    {
+        ConcurrentMutableMap<Integer, Integer> map = this.newMapWithKeysValues(1, 1, 2, 2);
+        Assert.assertEquals(Integer.valueOf(1), map.replace(1, 1));
+        Assert.assertNull(map.replace(3, 3));
+    }
+
+    @Test
+    public void replaceWithOldValue()
+    {
+        ConcurrentMutableMap<Integer, Integer> map = this.newMapWithKeysValues(1, 1, 2, 2);
+        Assert.assertTrue(map.replace(1, 1, 1));
+        Assert.assertFalse(map.replace(2, 3, 3));
+    }
+
+    @Test
+    public void removeWithKeyValue()
+    {
+        ConcurrentMutableMap<Integer, Integer> map = this.newMapWithKeysValues(1, 1, 2, 2);
+        Assert.assertTrue(map.remove(1, 1));
+        Assert.assertFalse(map.remove(2, 3));
+    }
+
+    @Test
+    public void nullKeysAndValuesAreRejected()
+    {
+        final ConcurrentMutableMap<Integer, Integer> map = this.newMap();
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                map.put(null, 1);
+            }
+        });
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                map.put(1, null);
+            }
+        });
+        Verify.assertEmpty(map);
+    }
+
+    @Test
+    public void resizeKeepsAllEntries()
+    {
+        ConcurrentUnifiedMap<Integer, String> map = ConcurrentUnifiedMap.newMap(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertNull(map.put(i, String.valueOf(i)));
+        }
+        Verify.assertSize(10000, map);
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertEquals(String.valueOf(i), map.get(i));
+        }
+        for (int i = 0; i < 10000; i += 2)
+        {
+            Assert.assertEquals(String.valueOf(i), map.remove(i));
+        }
+        Verify.assertSize(5000, map);
+        Assert.assertEquals(Interval.fromToBy(1, 9999, 2).toSet(), map.keySet());
+    }
+
+    @Test
+    public void resizeWhenInsertingIntoEmptySlots()
+    {
+        ConcurrentUnifiedMap<Integer, String> map = ConcurrentUnifiedMap.newMap(12);
+        Assert.assertEquals(16, map.getBatchCount(1));
+        // Keys below 16 hash to distinct slots, so no insert below goes into an existing chain
+        for (int i = 0; i < 16; i++)
+        {
+            map.put(i, String.valueOf(i));
+        }
+        Assert.assertEquals(32, map.getBatchCount(1));
+        Verify.assertSize(16, map);
+    }
+
+    @Test
+    public void batchSectionsOfASnapshotVisitEachEntryOnceAcrossAResize()
+    {
+        ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap(0);
+        for (int i = 1; i <= 1000; i++)
+        {
+            map.put(i, i);
+        }
+        BatchIterable<Integer> snapshot = map.batchSnapshot();
+        final MutableBag<Integer> visited = HashBag.newBag();
+        Procedure<Integer> addToVisited = new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                if (each > 0)
+                {
+                    visited.add(each);
+                }
+            }
+        };
+        snapshot.batchForEach(addToVisited, 0, 3);
+        for (int i = 1; i <= 10000; i++)
+        {
+            map.put(-i, -i);
+        }
+        snapshot.batchForEach(addToVisited, 1, 3);
+        snapshot.batchForEach(addToVisited, 2, 3);
+        Assert.assertEquals(Interval.oneTo(1000).toBag(), visited);
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap();
+        for (int i = 0; i < 100; i++)
+        {
+            map.put(i, i);
+        }
+        Iterator<Integer> iterator = map.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next() % 2 == 0)
+            {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(Interval.fromToBy(1, 99, 2).toSet(), map.keySet());
+    }
+
+    @Test
+    public void concurrentPutsAndRemoves() throws InterruptedException
+    {
+        final ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap(0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int thread = t;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = thread; i < 100000; i += THREADS)
+                    {
+                        map.put(i, i);
+                    }
+                    for (int i = thread; i < 100000; i += THREADS * 2)
+                    {
+                        map.remove(i);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+
+        UnifiedSet<Integer> expected = UnifiedSet.newSet();
+        for (int t = 0; t < THREADS; t++)
+        {
+            for (int i = t + THREADS; i < 100000; i += THREADS * 2)
+            {
+                expected.add(i);
+            }
+        }
+        Verify.assertSize(expected.size(), map);
+        Assert.assertEquals(expected, map.keySet());
+        Assert.assertEquals(expected, UnifiedSet.newSet(map.values()));
+    }
+
+    @Test
+    public void concurrentPutIfAbsentHasOneWinnerPerKey() throws InterruptedException
+    {
+        final ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap(0);
+        final AtomicInteger wins = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int thread = t;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 20000; i++)
+                    {
+                        if (map.putIfAbsent(i, thread) == null)
+                        {
+                            wins.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(20000, wins.get());
+        Verify.assertSize(20000, map);
+    }
+
+    @Test
+    public void readersSeeEveryEntryWhileTheTableGrows() throws InterruptedException
+    {
+        final ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap(0);
+        for (int i = 0; i < 1000; i++)
+        {
+            map.put(i, i);
+        }
+        final AtomicInteger misses = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++)
+        {
+            final boolean writer = t % 2 == 0;
+            final int thread = t;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 50000; i++)
+                    {
+                        if (writer)
+                        {
+                            map.put(1000 + thread + i * THREADS, i);
+                        }
+                        else if (map.get(i % 1000) == null)
+                        {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(0, misses.get());
+        Verify.assertSize(1000 + THREADS / 2 * 50000, map);
+    }
+
+    @Test
+    public void forEachAndParallelIterate()
+    {
+        ConcurrentUnifiedMap<Integer, Integer> map = ConcurrentUnifiedMap.newMap();
+        for (int i = 1; i <= 10000; i++)
+        {
+            map.put(i, i);
+        }
+        final AtomicInteger sum = new AtomicInteger();
+        map.forEach(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                sum.addAndGet(each);
+            }
+        });
+        Assert.assertEquals(50005000, sum.get());
+
+        sum.set(0);
+        ParallelIterate.forEach(map, new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                sum.addAndGet(each);
+            }
+        }, 100);
+        Assert.assertEquals(50005000, sum.get());
+        Assert.assertEquals(50005000L, map.asParallel(ParallelIterate.newForkJoinPool(2), 64).sumOfInt(new IntegerToInt()));
+    }
+
+    @Test
+    public void serializationOfLargeMap()
+    {
+        ConcurrentUnifiedMap<Integer, String> map = ConcurrentUnifiedMap.newMap();
+        for (int i = 0; i < 1000; i++)
+        {
+            map.put(i, String.valueOf(i));
+        }
+        Verify.assertPostSerializedEqualsAndHashCode(map);
+    }
+
+    @Override
+    @Test
+    public void removeFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().remove(ImmutableEntry.of("Two", 2)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+
+        Assert.assertFalse(map.entrySet().remove(ImmutableEntry.of("Four", 4)));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("One", 1, "Three", 3), map);
+
+        Assert.assertFalse(map.entrySet().remove(null));
+        Assert.assertFalse(map.entrySet().remove(ImmutableEntry.of(null, 2)));
+    }
+
+    @Override
+    @Test
+    public void removeAllFromEntrySet()
+    {
+        MutableMap<String, Integer> map = this.newMapWithKeysValues("One", 1, "Two", 2, "Three", 3);
+        Assert.assertTrue(map.entrySet().removeAll(FastList.newListWith(
+                ImmutableEntry.of("One", 1),
+                ImmutableEntry.of("Three", 3))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+
+        Assert.assertFalse(map.entrySet().removeAll(FastList.newListWith(ImmutableEntry.of("Four", 4))));
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("Two", 2), map);
+    }
+
+    @Override
+    @Test
+    public void removeNullFromValues()
+    {
+        // ConcurrentUnifiedMap does not support null values
+    }
+
+    @Override
+    @Test
+    public void removeNullFromKeySet()
+    {
+        // ConcurrentUnifiedMap does not support null keys
+    }
+
+    @Override
+    @Test
+    public void partition_value()
+    {
+        MapIterable<String, Integer> map = this.newMapWithKeysValues(
+                "A", 1,
+                "B", 2,
+                "C", 3,
+                "D", 4);
+        PartitionIterable<Integer> partition = map.partition(IntegerPredicates.isEven());
+        Assert.assertEquals(iSet(2, 4), partition.getSelected().toSet());
+        Assert.assertEquals(iSet(1, 3), partition.getRejected().toSet());
+    }
+
+    private static final class IntegerToInt implements IntFunction<Integer>
+    {
+        private static final long serialVersionUID = 1L;
+
+        public int intValueOf(Integer each)
+        {
+            return each;
+        }
+    }
+}
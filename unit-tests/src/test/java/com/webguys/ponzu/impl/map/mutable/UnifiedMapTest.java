@@ -19,11 +19,16 @@ package com.webguys.ponzu.impl.map.mutable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.webguys.ponzu.api.block.function.Function;
 import com.webguys.ponzu.api.block.function.Generator;
 import com.webguys.ponzu.api.block.procedure.Procedure;
 import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.block.factory.Functions;
 import com.webguys.ponzu.impl.block.function.Constant;
+import com.webguys.ponzu.impl.list.Interval;
 import com.webguys.ponzu.impl.math.IntegerSum;
 import com.webguys.ponzu.impl.math.Sum;
 import com.webguys.ponzu.impl.math.SumProcedure;
@@ -357,6 +362,55 @@ public class UnifiedMapTest extends UnifiedMapTestCase
         Assert.assertEquals(this.mapWithCollisionsOfSize(5), map);
     }
 
+    @Test
+    public void newMapParallel()
+    {
+        Function<Integer, Integer> keyFunction = new Function<Integer, Integer>()
+        {
+            public Integer valueOf(Integer each)
+            {
+                return each % 7919 == 0 ? null : each % 30000;
+            }
+        };
+        Function<Object, String> valueFunction = Functions.getToString();
+        Interval source = Interval.oneTo(100000);
+        UnifiedMap<Integer, String> expected = UnifiedMap.newMap();
+        for (Integer each : source)
+        {
+            expected.put(keyFunction.valueOf(each), valueFunction.valueOf(each));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            UnifiedMap<Integer, String> map = UnifiedMap.newMapParallel(source, keyFunction, valueFunction, executor);
+            Assert.assertEquals(expected, map);
+            Verify.assertSize(expected.size(), map);
+            Assert.assertEquals("99991", map.get(9991));
+            Assert.assertEquals("95028", map.get(null));
+
+            UnifiedMap<Integer, String> fromFastList =
+                    UnifiedMap.newMapParallel(source.toList(), keyFunction, valueFunction, executor);
+            Assert.assertEquals(expected, fromFastList);
+
+            for (int i = 30000; i < 60000; i++)
+            {
+                map.put(i, "new");
+            }
+            Verify.assertSize(expected.size() + 30000, map);
+            Assert.assertEquals("99991", map.remove(9991));
+            Assert.assertEquals("89990", map.get(29990));
+
+            Assert.assertEquals(
+                    UnifiedMap.newWithKeysValues(1, "1", 2, "2"),
+                    UnifiedMap.newMapParallel(Interval.oneTo(2), Functions.<Integer>getPassThru(), valueFunction, executor));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     @Override
     protected UnifiedMap<Integer, Integer> mapWithCollisionsOfSize(int size)
     {
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.block.function.primitive.IntObjectToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntObjectPredicate;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntObjectProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.parallel.ParallelIterate;
+import com.webguys.ponzu.impl.primitive.IntIterable;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.set.primitive.IntHashSet;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link IntObjectHashMap}.
+ */
+public class IntObjectHashMapTest
+{
+    private static final Generator<String> NONE = new Generator<String>()
+    {
+        public String value()
+        {
+            return "none";
+        }
+    };
+
+    @Test
+    public void putAndGet()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newMap();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(0, "zero"));
+        Assert.assertNull(map.put(1, "one"));
+        Assert.assertNull(map.put(2, "two"));
+        Assert.assertNull(map.put(-1, null));
+        Assert.assertEquals("two", map.put(2, "TWO"));
+        Assert.assertEquals(4, map.size());
+        Assert.assertTrue(map.notEmpty());
+        Assert.assertEquals("zero", map.get(0));
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertEquals("TWO", map.get(2));
+        Assert.assertNull(map.get(-1));
+        Assert.assertNull(map.get(3));
+        Assert.assertTrue(map.containsKey(-1));
+        Assert.assertFalse(map.containsKey(3));
+        Assert.assertTrue(map.containsValue("one"));
+        Assert.assertTrue(map.containsValue(null));
+        Assert.assertFalse(map.containsValue("two"));
+        Assert.assertEquals("none", map.getIfAbsent(3, NONE));
+        Assert.assertEquals("zero", map.getIfAbsent(0, NONE));
+        Assert.assertEquals("3", map.getIfAbsentWith(3, Functions.getToString(), 3));
+    }
+
+    @Test
+    public void getIfAbsentPut()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newMap();
+        for (int key = 0; key < 3; key++)
+        {
+            Assert.assertEquals("none", map.getIfAbsentPut(key, NONE));
+            Assert.assertEquals("none", map.getIfAbsentPut(key, "other"));
+        }
+        Assert.assertEquals("a", map.getIfAbsentPut(10, "a"));
+        Function<String, String> toUpperCase = new Function<String, String>()
+        {
+            public String valueOf(String object)
+            {
+                return object.toUpperCase();
+            }
+        };
+        Assert.assertEquals("B", map.getIfAbsentPutWith(11, toUpperCase, "b"));
+        Assert.assertEquals("B", map.getIfAbsentPutWith(11, toUpperCase, "c"));
+        Assert.assertEquals("none", map.getIfAbsentPutWith(0, toUpperCase, "c"));
+        Assert.assertEquals(5, map.size());
+    }
+
+    @Test
+    public void removeKey()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        Assert.assertEquals("zero", map.removeKey(0));
+        Assert.assertNull(map.removeKey(0));
+        Assert.assertEquals("one", map.removeKey(1));
+        Assert.assertEquals("two", map.removeKey(2));
+        Assert.assertNull(map.removeKey(3));
+        Assert.assertTrue(map.isEmpty());
+        map.put(5, "five");
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(5));
+    }
+
+    @Test
+    public void matchesJdkMapUnderRandomOperations()
+    {
+        Random random = new Random(42L);
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<Integer>();
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 200000; i++)
+        {
+            int key = random.nextInt(2000) - 10;
+            if (random.nextInt(3) == 0)
+            {
+                Assert.assertEquals(expected.remove(key), map.removeKey(key));
+            }
+            else
+            {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet())
+        {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void largeAndCollidingKeys()
+    {
+        IntObjectHashMap<String> map = new IntObjectHashMap<String>(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            map.put((int) i << 16, String.valueOf(i));
+        }
+        Assert.assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertEquals(String.valueOf(i), map.get((int) i << 16));
+        }
+        map.put(Integer.MAX_VALUE, "max");
+        map.put(Integer.MIN_VALUE, "min");
+        Assert.assertEquals("max", map.get(Integer.MAX_VALUE));
+        Assert.assertEquals("min", map.get(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void forEach()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+
+        final UnifiedMap<Integer, String> keyValues = UnifiedMap.newMap();
+        map.forEachKeyValue(new IntObjectProcedure<String>()
+        {
+            public void value(int each, String parameter)
+            {
+                keyValues.put(each, parameter);
+            }
+        });
+        Assert.assertEquals(UnifiedMap.<Integer, String>newWithKeysValues((int) 0, "zero", (int) 1, "one", (int) 2, "two"), keyValues);
+
+        final IntHashSet keys = IntHashSet.newSet();
+        map.forEachKey(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                keys.add(each);
+            }
+        });
+        Assert.assertEquals(IntHashSet.newSetWith(0, 1, 2), keys);
+
+        UnifiedSet<String> values = UnifiedSet.newSet();
+        map.forEachValue(CollectionAddProcedure.on(values));
+        Assert.assertEquals(UnifiedSet.newSetWith("zero", "one", "two"), values);
+        Assert.assertEquals(values, UnifiedSet.newSet(map));
+        Assert.assertEquals(values, map.valuesView().toSet());
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        map.put(3, "three");
+        Iterator<String> iterator = map.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().startsWith("t"))
+            {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one"), map);
+    }
+
+    @Test
+    public void batchForEach()
+    {
+        IntObjectHashMap<Integer> map = IntObjectHashMap.newMap();
+        for (int i = 0; i < 1000; i++)
+        {
+            map.put(i, i);
+        }
+        int batchCount = map.getBatchCount(100);
+        Assert.assertTrue(batchCount > 1);
+        FastList<Integer> values = FastList.newList();
+        for (int i = 0; i < batchCount; i++)
+        {
+            map.batchForEach(CollectionAddProcedure.on(values), i, batchCount);
+        }
+        Verify.assertSize(1000, values);
+        Assert.assertEquals(UnifiedSet.newSet(map), UnifiedSet.newSet(values));
+        Assert.assertEquals(UnifiedSet.newSet(map), UnifiedSet.newSet(ParallelIterate.filter(map, new Predicate<Integer>()
+        {
+            public boolean accept(Integer each)
+            {
+                return true;
+            }
+        })));
+    }
+
+    @Test
+    public void filterAndTransformValues()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        map.put(3, "three");
+        IntObjectPredicate<String> evenKey = new IntObjectPredicate<String>()
+        {
+            public boolean accept(int each, String parameter)
+            {
+                return each % 2 == 0;
+            }
+        };
+        Assert.assertEquals(IntObjectHashMap.newWithKeysValues(0, "zero", 2, "two"), map.filter(evenKey));
+        Assert.assertEquals(IntObjectHashMap.newWithKeysValues(1, "one", 3, "three"), map.filterNot(evenKey));
+
+        map.removeKey(2);
+        IntObjectHashMap<String> transformed = map.transformValues(new IntObjectToObjectFunction<String, String>()
+        {
+            public String valueOf(int each, String parameter)
+            {
+                return parameter + each;
+            }
+        });
+        Assert.assertEquals(IntObjectHashMap.newWithKeysValues(0, "zero0", 1, "one1", 3, "three3"), transformed);
+        transformed.put(2, "two2");
+        Assert.assertEquals("two2", transformed.get(2));
+        Assert.assertEquals(4, transformed.size());
+    }
+
+    @Test
+    public void keysView()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 5, "five");
+        IntIterable keys = map.keysView();
+        Assert.assertEquals(3, keys.size());
+        Assert.assertTrue(keys.containsAll(0, 1, 5));
+        Assert.assertFalse(keys.contains(2));
+        Assert.assertEquals(6L, keys.sum());
+        Assert.assertEquals(5, keys.max());
+        Assert.assertEquals(0, keys.min());
+        Assert.assertArrayEquals(new int[]{0, 1, 5}, keys.toSortedArray());
+        Assert.assertEquals(2, keys.count(new IntPredicate()
+        {
+            public boolean accept(int value)
+            {
+                return value < 2;
+            }
+        }));
+        map.put(2, "two");
+        Assert.assertEquals(4, keys.size());
+        Assert.assertTrue(keys.contains(2));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(
+                IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two"),
+                IntObjectHashMap.newWithKeysValues(2, "two", 1, "one", 0, "zero"));
+        Assert.assertEquals(
+                UnifiedMap.newWithKeysValues((int) 0, "zero", (int) 1, "one", (int) 2, null).hashCode(),
+                IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, null).hashCode());
+        Verify.assertNotEquals(IntObjectHashMap.newWithKeysValues(0, "zero"), IntObjectHashMap.newWithKeysValues(0, "one"));
+        Verify.assertNotEquals(IntObjectHashMap.newWithKeysValues(0, "zero"), IntObjectHashMap.newWithKeysValues(1, "zero"));
+        Verify.assertPostSerializedEqualsAndHashCode(IntObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two"));
+    }
+
+    @Test
+    public void testToString()
+    {
+        Assert.assertEquals("{}", IntObjectHashMap.newMap().toString());
+        Assert.assertEquals("{0=zero, 1=one}", IntObjectHashMap.newWithKeysValues(1, "one", 0, "zero").toString());
+    }
+}
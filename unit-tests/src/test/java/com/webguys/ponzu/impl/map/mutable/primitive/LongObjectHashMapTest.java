@@ -0,0 +1,315 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.Generator;
+import com.webguys.ponzu.api.block.predicate.Predicate;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.block.function.primitive.LongObjectToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongObjectPredicate;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongObjectProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.parallel.ParallelIterate;
+import com.webguys.ponzu.impl.primitive.LongIterable;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.set.primitive.LongHashSet;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link LongObjectHashMap}.
+ */
+public class LongObjectHashMapTest
+{
+    private static final Generator<String> NONE = new Generator<String>()
+    {
+        public String value()
+        {
+            return "none";
+        }
+    };
+
+    @Test
+    public void putAndGet()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newMap();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(0, "zero"));
+        Assert.assertNull(map.put(1, "one"));
+        Assert.assertNull(map.put(2, "two"));
+        Assert.assertNull(map.put(-1, null));
+        Assert.assertEquals("two", map.put(2, "TWO"));
+        Assert.assertEquals(4, map.size());
+        Assert.assertTrue(map.notEmpty());
+        Assert.assertEquals("zero", map.get(0));
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertEquals("TWO", map.get(2));
+        Assert.assertNull(map.get(-1));
+        Assert.assertNull(map.get(3));
+        Assert.assertTrue(map.containsKey(-1));
+        Assert.assertFalse(map.containsKey(3));
+        Assert.assertTrue(map.containsValue("one"));
+        Assert.assertTrue(map.containsValue(null));
+        Assert.assertFalse(map.containsValue("two"));
+        Assert.assertEquals("none", map.getIfAbsent(3, NONE));
+        Assert.assertEquals("zero", map.getIfAbsent(0, NONE));
+        Assert.assertEquals("3", map.getIfAbsentWith(3, Functions.getToString(), 3));
+    }
+
+    @Test
+    public void getIfAbsentPut()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newMap();
+        for (long key = 0; key < 3; key++)
+        {
+            Assert.assertEquals("none", map.getIfAbsentPut(key, NONE));
+            Assert.assertEquals("none", map.getIfAbsentPut(key, "other"));
+        }
+        Assert.assertEquals("a", map.getIfAbsentPut(10, "a"));
+        Function<String, String> toUpperCase = new Function<String, String>()
+        {
+            public String valueOf(String object)
+            {
+                return object.toUpperCase();
+            }
+        };
+        Assert.assertEquals("B", map.getIfAbsentPutWith(11, toUpperCase, "b"));
+        Assert.assertEquals("B", map.getIfAbsentPutWith(11, toUpperCase, "c"));
+        Assert.assertEquals("none", map.getIfAbsentPutWith(0, toUpperCase, "c"));
+        Assert.assertEquals(5, map.size());
+    }
+
+    @Test
+    public void removeKey()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        Assert.assertEquals("zero", map.removeKey(0));
+        Assert.assertNull(map.removeKey(0));
+        Assert.assertEquals("one", map.removeKey(1));
+        Assert.assertEquals("two", map.removeKey(2));
+        Assert.assertNull(map.removeKey(3));
+        Assert.assertTrue(map.isEmpty());
+        map.put(5, "five");
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(5));
+    }
+
+    @Test
+    public void matchesJdkMapUnderRandomOperations()
+    {
+        Random random = new Random(42L);
+        LongObjectHashMap<Integer> map = new LongObjectHashMap<Integer>();
+        Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        for (int i = 0; i < 200000; i++)
+        {
+            long key = random.nextInt(2000) - 10;
+            if (random.nextInt(3) == 0)
+            {
+                Assert.assertEquals(expected.remove(key), map.removeKey(key));
+            }
+            else
+            {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet())
+        {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void largeAndCollidingKeys()
+    {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            map.put((long) i << 16, String.valueOf(i));
+        }
+        Assert.assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertEquals(String.valueOf(i), map.get((long) i << 16));
+        }
+        map.put(Long.MAX_VALUE, "max");
+        map.put(Long.MIN_VALUE, "min");
+        Assert.assertEquals("max", map.get(Long.MAX_VALUE));
+        Assert.assertEquals("min", map.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void forEach()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+
+        final UnifiedMap<Long, String> keyValues = UnifiedMap.newMap();
+        map.forEachKeyValue(new LongObjectProcedure<String>()
+        {
+            public void value(long each, String parameter)
+            {
+                keyValues.put(each, parameter);
+            }
+        });
+        Assert.assertEquals(UnifiedMap.<Long, String>newWithKeysValues((long) 0, "zero", (long) 1, "one", (long) 2, "two"), keyValues);
+
+        final LongHashSet keys = LongHashSet.newSet();
+        map.forEachKey(new LongProcedure()
+        {
+            public void value(long each)
+            {
+                keys.add(each);
+            }
+        });
+        Assert.assertEquals(LongHashSet.newSetWith(0, 1, 2), keys);
+
+        UnifiedSet<String> values = UnifiedSet.newSet();
+        map.forEachValue(CollectionAddProcedure.on(values));
+        Assert.assertEquals(UnifiedSet.newSetWith("zero", "one", "two"), values);
+        Assert.assertEquals(values, UnifiedSet.newSet(map));
+        Assert.assertEquals(values, map.valuesView().toSet());
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        map.put(3, "three");
+        Iterator<String> iterator = map.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().startsWith("t"))
+            {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one"), map);
+    }
+
+    @Test
+    public void batchForEach()
+    {
+        LongObjectHashMap<Integer> map = LongObjectHashMap.newMap();
+        for (int i = 0; i < 1000; i++)
+        {
+            map.put(i, i);
+        }
+        int batchCount = map.getBatchCount(100);
+        Assert.assertTrue(batchCount > 1);
+        FastList<Integer> values = FastList.newList();
+        for (int i = 0; i < batchCount; i++)
+        {
+            map.batchForEach(CollectionAddProcedure.on(values), i, batchCount);
+        }
+        Verify.assertSize(1000, values);
+        Assert.assertEquals(UnifiedSet.newSet(map), UnifiedSet.newSet(values));
+        Assert.assertEquals(UnifiedSet.newSet(map), UnifiedSet.newSet(ParallelIterate.filter(map, new Predicate<Integer>()
+        {
+            public boolean accept(Integer each)
+            {
+                return true;
+            }
+        })));
+    }
+
+    @Test
+    public void filterAndTransformValues()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two");
+        map.put(3, "three");
+        LongObjectPredicate<String> evenKey = new LongObjectPredicate<String>()
+        {
+            public boolean accept(long each, String parameter)
+            {
+                return each % 2 == 0;
+            }
+        };
+        Assert.assertEquals(LongObjectHashMap.newWithKeysValues(0, "zero", 2, "two"), map.filter(evenKey));
+        Assert.assertEquals(LongObjectHashMap.newWithKeysValues(1, "one", 3, "three"), map.filterNot(evenKey));
+
+        map.removeKey(2);
+        LongObjectHashMap<String> transformed = map.transformValues(new LongObjectToObjectFunction<String, String>()
+        {
+            public String valueOf(long each, String parameter)
+            {
+                return parameter + each;
+            }
+        });
+        Assert.assertEquals(LongObjectHashMap.newWithKeysValues(0, "zero0", 1, "one1", 3, "three3"), transformed);
+        transformed.put(2, "two2");
+        Assert.assertEquals("two2", transformed.get(2));
+        Assert.assertEquals(4, transformed.size());
+    }
+
+    @Test
+    public void keysView()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 5, "five");
+        LongIterable keys = map.keysView();
+        Assert.assertEquals(3, keys.size());
+        Assert.assertTrue(keys.containsAll(0, 1, 5));
+        Assert.assertFalse(keys.contains(2));
+        Assert.assertEquals(6L, keys.sum());
+        Assert.assertEquals(5, keys.max());
+        Assert.assertEquals(0, keys.min());
+        Assert.assertArrayEquals(new long[]{0, 1, 5}, keys.toSortedArray());
+        Assert.assertEquals(2, keys.count(new LongPredicate()
+        {
+            public boolean accept(long value)
+            {
+                return value < 2;
+            }
+        }));
+        map.put(2, "two");
+        Assert.assertEquals(4, keys.size());
+        Assert.assertTrue(keys.contains(2));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(
+                LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two"),
+                LongObjectHashMap.newWithKeysValues(2, "two", 1, "one", 0, "zero"));
+        Assert.assertEquals(
+                UnifiedMap.newWithKeysValues((long) 0, "zero", (long) 1, "one", (long) 2, null).hashCode(),
+                LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, null).hashCode());
+        Verify.assertNotEquals(LongObjectHashMap.newWithKeysValues(0, "zero"), LongObjectHashMap.newWithKeysValues(0, "one"));
+        Verify.assertNotEquals(LongObjectHashMap.newWithKeysValues(0, "zero"), LongObjectHashMap.newWithKeysValues(1, "zero"));
+        Verify.assertPostSerializedEqualsAndHashCode(LongObjectHashMap.newWithKeysValues(0, "zero", 1, "one", 2, "two"));
+    }
+
+    @Test
+    public void testToString()
+    {
+        Assert.assertEquals("{}", LongObjectHashMap.newMap().toString());
+        Assert.assertEquals("{0=zero, 1=one}", LongObjectHashMap.newWithKeysValues(1, "one", 0, "zero").toString());
+    }
+}
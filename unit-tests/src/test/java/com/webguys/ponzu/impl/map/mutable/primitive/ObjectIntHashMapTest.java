@@ -0,0 +1,223 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.mutable.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
+import com.webguys.ponzu.impl.block.procedure.CollectionAddProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.tuple.Tuples;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ObjectIntHashMap}.
+ */
+public class ObjectIntHashMapTest
+{
+    @Test
+    public void putAndGet()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newMap();
+        Assert.assertTrue(map.isEmpty());
+        map.put("one", 1);
+        map.put("two", 2);
+        map.put(null, 3);
+        Assert.assertEquals(3, map.size());
+        Assert.assertTrue(map.notEmpty());
+        Assert.assertEquals(1, map.get("one"));
+        Assert.assertEquals(2, map.get("two"));
+        Assert.assertEquals(3, map.get(null));
+        Assert.assertEquals(0, map.get("three"));
+        Assert.assertEquals(-1, map.getIfAbsent("three", -1));
+        map.put("one", 10);
+        Assert.assertEquals(10, map.get("one"));
+        Assert.assertEquals(3, map.size());
+        Assert.assertTrue(map.containsKey("one"));
+        Assert.assertTrue(map.containsKey(null));
+        Assert.assertFalse(map.containsKey("three"));
+        Assert.assertTrue(map.containsValue(10));
+        Assert.assertFalse(map.containsValue(1));
+    }
+
+    @Test
+    public void getIfAbsentPut()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newMap();
+        Assert.assertEquals(5, map.getIfAbsentPut("a", 5));
+        Assert.assertEquals(5, map.getIfAbsentPut("a", 6));
+        Assert.assertEquals(7, map.getIfAbsentPut(null, 7));
+        Assert.assertEquals(7, map.getIfAbsentPut(null, 8));
+        Assert.assertEquals(ObjectIntHashMap.newWithKeysValues("a", 5, null, 7), map);
+    }
+
+    @Test
+    public void addToValue()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newMap();
+        Assert.assertEquals(1, map.addToValue("a", 1));
+        Assert.assertEquals(3, map.addToValue("a", 2));
+        Assert.assertEquals(-2, map.addToValue("b", -2));
+        Assert.assertEquals(4, map.addToValue(null, 4));
+        Assert.assertEquals(ObjectIntHashMap.newWithKeysValues("a", 3, "b", -2, null, 4), map);
+    }
+
+    @Test
+    public void removeKey()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3);
+        map.removeKey("a");
+        map.removeKey("c");
+        Assert.assertEquals(ObjectIntHashMap.newWithKeysValues("b", 2, null, 3), map);
+        Assert.assertEquals(3, map.removeKeyIfAbsent(null, -1));
+        Assert.assertEquals(-1, map.removeKeyIfAbsent(null, -1));
+        Assert.assertEquals(ObjectIntHashMap.newWithKeysValues("b", 2), map);
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey("b"));
+    }
+
+    @Test
+    public void matchesJdkMapUnderRandomOperations()
+    {
+        Random random = new Random(42L);
+        ObjectIntHashMap<Integer> map = new ObjectIntHashMap<Integer>();
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 200000; i++)
+        {
+            Integer key = random.nextInt(2000);
+            if (random.nextInt(3) == 0)
+            {
+                expected.remove(key);
+                map.removeKey(key);
+            }
+            else
+            {
+                Integer oldValue = expected.get(key);
+                expected.put(key, oldValue == null ? 1 : oldValue + 1);
+                map.addToValue(key, 1);
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet())
+        {
+            Assert.assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+        }
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+        Assert.assertEquals(expected.keySet(), map.keySet());
+    }
+
+    @Test
+    public void collidingHashCodes()
+    {
+        ObjectIntHashMap<Long> map = new ObjectIntHashMap<Long>(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            map.put((long) i << 32, i);
+        }
+        Assert.assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertEquals(i, map.get((long) i << 32));
+        }
+    }
+
+    @Test
+    public void forEach()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3);
+        final UnifiedMap<String, Integer> keyValues = UnifiedMap.newMap();
+        map.forEachKeyValue(new ObjectIntProcedure<String>()
+        {
+            public void value(String each, int count)
+            {
+                keyValues.put(each, count);
+            }
+        });
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("a", 1, "b", 2, null, 3), keyValues);
+
+        UnifiedSet<String> keys = UnifiedSet.newSet();
+        map.forEachKey(CollectionAddProcedure.on(keys));
+        Assert.assertEquals(UnifiedSet.newSetWith("a", "b", null), keys);
+
+        final int[] sum = new int[1];
+        map.forEachValue(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                sum[0] += each;
+            }
+        });
+        Assert.assertEquals(6, sum[0]);
+    }
+
+    @Test
+    public void keySet()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3);
+        Assert.assertEquals(UnifiedSet.newSetWith("a", "b", null), map.keySet());
+        Assert.assertTrue(map.keySet().remove("a"));
+        Assert.assertFalse(map.keySet().remove("a"));
+        Assert.assertTrue(map.keySet().retainAll(FastList.newListWith("b")));
+        Assert.assertEquals(ObjectIntHashMap.newWithKeysValues("b", 2), map);
+
+        Iterator<String> iterator = map.keySet().iterator();
+        Assert.assertEquals("b", iterator.next());
+        iterator.remove();
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void keyValuesView()
+    {
+        ObjectIntHashMap<String> map = ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3);
+        Assert.assertEquals(
+                UnifiedSet.newSetWith(Tuples.pair("a", 1), Tuples.pair("b", 2), Tuples.pair((String) null, 3)),
+                map.keyValuesView().toSet());
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(
+                ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3),
+                ObjectIntHashMap.newWithKeysValues(null, 3, "b", 2, "a", 1));
+        Assert.assertEquals(
+                UnifiedMap.newWithKeysValues("a", 1, "b", 2, null, 3).hashCode(),
+                ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3).hashCode());
+        Verify.assertNotEquals(ObjectIntHashMap.newWithKeysValues("a", 1), ObjectIntHashMap.newWithKeysValues("a", 2));
+        Verify.assertNotEquals(ObjectIntHashMap.newWithKeysValues("a", 1), ObjectIntHashMap.newWithKeysValues("b", 1));
+        Verify.assertPostSerializedEqualsAndHashCode(ObjectIntHashMap.newWithKeysValues("a", 1, "b", 2, null, 3));
+    }
+
+    @Test
+    public void testToString()
+    {
+        Assert.assertEquals("{}", ObjectIntHashMap.newMap().toString());
+        Assert.assertEquals("{a=1}", ObjectIntHashMap.newWithKeysValues("a", 1).toString());
+        Assert.assertEquals("{null=1}", ObjectIntHashMap.newWithKeysValues(null, 1).toString());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.sorted.immutable;
+
+import java.util.Comparator;
+import java.util.SortedMap;
+
+import com.webguys.ponzu.api.map.sorted.ImmutableSortedMap;
+import com.webguys.ponzu.api.map.sorted.MutableSortedMap;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import com.webguys.ponzu.impl.factory.SortedMaps;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.sorted.ImmutableSortedMapTestCase;
+import com.webguys.ponzu.impl.map.sorted.mutable.TreeSortedMap;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableBalancedTreeMapTest extends ImmutableSortedMapTestCase
+{
+    @Override
+    protected ImmutableSortedMap<Integer, String> classUnderTest()
+    {
+        return SortedMaps.immutable.ofPersistentSortedMap(TreeSortedMap.newMapWith(1, "1", 2, "2", 3, "3", 4, "4"));
+    }
+
+    @Override
+    protected ImmutableSortedMap<Integer, String> classUnderTest(Comparator<? super Integer> comparator)
+    {
+        return SortedMaps.immutable.<Integer, String>ofPersistent(comparator)
+                .newWithKeyValue(1, "1")
+                .newWithKeyValue(2, "2")
+                .newWithKeyValue(3, "3")
+                .newWithKeyValue(4, "4");
+    }
+
+    @Override
+    protected int size()
+    {
+        return 4;
+    }
+
+    @Test
+    @Override
+    public void testToString()
+    {
+        Assert.assertEquals("{1=1, 2=2, 3=3, 4=4}", this.classUnderTest().toString());
+        Assert.assertEquals("{4=4, 3=3, 2=2, 1=1}", this.classUnderTest(Comparators.<Integer>reverseNaturalOrder()).toString());
+    }
+
+    private static ImmutableSortedMap<Integer, Integer> newMap(int size)
+    {
+        ImmutableSortedMap<Integer, Integer> map = SortedMaps.immutable.ofPersistent();
+        for (int i = 0; i < size; i++)
+        {
+            int key = i * 7919 % size;
+            map = map.newWithKeyValue(key, key);
+        }
+        return map;
+    }
+
+    @Test
+    public void pointUpdatesMatchTreeSortedMap()
+    {
+        MutableSortedMap<Integer, Integer> expected = TreeSortedMap.newMap();
+        ImmutableSortedMap<Integer, Integer> map = SortedMaps.immutable.ofPersistent();
+        for (int i = 0; i < 20000; i++)
+        {
+            int key = i * 7919 % 12289;
+            expected.put(key, i);
+            map = map.newWithKeyValue(key, i);
+        }
+        Assert.assertEquals(expected, map);
+        Verify.assertListsEqual(expected.keysView().toList(), map.keysView().toList());
+        Assert.assertEquals(expected.firstKey(), map.castToSortedMap().firstKey());
+        Assert.assertEquals(expected.lastKey(), map.castToSortedMap().lastKey());
+
+        for (int i = 0; i < 12289; i += 3)
+        {
+            expected.removeKey(i);
+            map = map.newWithoutKey(i);
+        }
+        Assert.assertEquals(expected, map);
+        Verify.assertListsEqual(expected.valuesView().toList(), map.valuesView().toList());
+        Verify.assertListsEqual(FastList.newList(expected.keySet()), FastList.newList(map.castToSortedMap().keySet()));
+
+        map = map.newWithoutAllKeys(expected.keySet());
+        Verify.assertEmpty(map.castToSortedMap());
+        Assert.assertFalse(map.keysView().iterator().hasNext());
+    }
+
+    @Test
+    public void structuralSharing()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest();
+        ImmutableSortedMap<Integer, String> map2 = map.newWithKeyValue(1, "one").newWithoutKey(4);
+        Assert.assertEquals(TreeSortedMap.newMapWith(1, "1", 2, "2", 3, "3", 4, "4"), map);
+        Assert.assertEquals(TreeSortedMap.newMapWith(1, "one", 2, "2", 3, "3"), map2);
+        Assert.assertSame(map2, map2.newWithoutKey(4));
+        Assert.assertSame(map2, map2.newWithKeyValue(2, map2.get(2)));
+    }
+
+    @Test
+    public void rangeViews()
+    {
+        ImmutableSortedMap<Integer, Integer> map = newMap(1000);
+        SortedMap<Integer, Integer> sortedMap = map.castToSortedMap();
+        MutableSortedMap<Integer, Integer> expected = TreeSortedMap.newMap(sortedMap);
+
+        Assert.assertEquals(expected.headMap(500), sortedMap.headMap(500));
+        Verify.assertSize(500, sortedMap.headMap(500));
+        Assert.assertEquals(expected.tailMap(500), sortedMap.tailMap(500));
+        Verify.assertSize(500, sortedMap.tailMap(500));
+        Assert.assertEquals(expected.subMap(100, 200), sortedMap.subMap(100, 200));
+        Verify.assertListsEqual(Interval.fromTo(100, 199), FastList.newList(sortedMap.subMap(100, 200).keySet()));
+        Assert.assertEquals(Integer.valueOf(100), sortedMap.subMap(100, 200).firstKey());
+        Assert.assertEquals(Integer.valueOf(199), sortedMap.subMap(100, 200).lastKey());
+
+        Verify.assertEmpty(sortedMap.headMap(0));
+        Verify.assertEmpty(sortedMap.subMap(10, 10));
+        Assert.assertSame(map, sortedMap.headMap(1000));
+        Assert.assertSame(map, sortedMap.tailMap(-1));
+        Verify.assertInstanceOf(ImmutableSortedMap.class, sortedMap.tailMap(990));
+        Assert.assertEquals(Integer.valueOf(990), ((ImmutableSortedMap<Integer, Integer>) sortedMap.tailMap(990)).get(990));
+    }
+
+    @Test
+    public void rangeViewsWithComparator()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest(Comparators.<Integer>reverseNaturalOrder());
+        Assert.assertEquals("{4=4, 3=3}", map.castToSortedMap().headMap(2).toString());
+        Assert.assertEquals("{2=2, 1=1}", map.castToSortedMap().tailMap(2).toString());
+        Assert.assertEquals("{3=3, 2=2}", map.castToSortedMap().subMap(3, 1).toString());
+        Assert.assertSame(map.comparator(), map.castToSortedMap().headMap(2).comparator());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMapThrowsWhenBoundsAreReversed()
+    {
+        this.classUnderTest().castToSortedMap().subMap(3, 1);
+    }
+
+    @Test
+    public void serialization()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest(Comparators.<Integer>reverseNaturalOrder());
+        Verify.assertPostSerializedEqualsAndHashCode(map);
+        ImmutableSortedMap<Integer, String> deserialized = SerializeTestHelper.serializeDeserialize(map);
+        Verify.assertInstanceOf(ImmutableBalancedTreeMap.class, deserialized);
+        Assert.assertEquals(map.toString(), deserialized.toString());
+    }
+}
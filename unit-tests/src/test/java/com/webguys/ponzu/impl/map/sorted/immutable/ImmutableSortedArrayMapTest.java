@@ -0,0 +1,134 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.map.sorted.immutable;
+
+import java.util.Comparator;
+import java.util.SortedMap;
+
+import com.webguys.ponzu.api.map.sorted.ImmutableSortedMap;
+import com.webguys.ponzu.api.map.sorted.MutableSortedMap;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.factory.SortedMaps;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.sorted.ImmutableSortedMapTestCase;
+import com.webguys.ponzu.impl.map.sorted.mutable.TreeSortedMap;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableSortedArrayMapTest extends ImmutableSortedMapTestCase
+{
+    @Override
+    protected ImmutableSortedMap<Integer, String> classUnderTest()
+    {
+        return SortedMaps.immutable.of(1, "1", 2, "2", 3, "3", 4, "4");
+    }
+
+    @Override
+    protected ImmutableSortedMap<Integer, String> classUnderTest(Comparator<? super Integer> comparator)
+    {
+        return SortedMaps.immutable.of(comparator, 1, "1", 2, "2", 3, "3", 4, "4");
+    }
+
+    @Override
+    protected int size()
+    {
+        return 4;
+    }
+
+    @Test
+    @Override
+    public void testToString()
+    {
+        Assert.assertEquals("{1=1, 2=2, 3=3, 4=4}", this.classUnderTest().toString());
+        Assert.assertEquals("{4=4, 3=3, 2=2, 1=1}", this.classUnderTest(Comparators.<Integer>reverseNaturalOrder()).toString());
+    }
+
+    @Test
+    public void factoryDefault()
+    {
+        Verify.assertInstanceOf(ImmutableSortedArrayMap.class, this.classUnderTest());
+        Verify.assertInstanceOf(ImmutableSortedArrayMap.class, TreeSortedMap.newMapWith(1, "1").toImmutable());
+    }
+
+    @Test
+    public void newWithKeyValueAndNewWithoutKey()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest();
+        Assert.assertEquals("{0=0, 1=1, 2=2, 3=3, 4=4}", map.newWithKeyValue(0, "0").toString());
+        Assert.assertEquals("{1=1, 2=2, 3=3, 4=4, 5=5}", map.newWithKeyValue(5, "5").toString());
+        Assert.assertEquals("{1=1, 2=two, 3=3, 4=4}", map.newWithKeyValue(2, "two").toString());
+        Assert.assertEquals("{1=1, 3=3, 4=4}", map.newWithoutKey(2).toString());
+        Assert.assertEquals("{2=2, 3=3, 4=4}", map.newWithoutKey(1).toString());
+        Assert.assertSame(map, map.newWithoutKey(5));
+        Assert.assertSame(map, map.newWithKeyValue(3, map.get(3)));
+        Assert.assertEquals("{1=1, 2=2, 3=3, 4=4}", map.toString());
+    }
+
+    @Test
+    public void rangeViews()
+    {
+        ImmutableSortedMap<Integer, Integer> map = SortedMaps.immutable.ofSortedMap(
+                Interval.oneTo(1000).toSortedMap(Functions.<Integer>getPassThru(), Functions.<Integer>getPassThru()));
+        SortedMap<Integer, Integer> sortedMap = map.castToSortedMap();
+        MutableSortedMap<Integer, Integer> expected = TreeSortedMap.newMap(sortedMap);
+
+        Assert.assertEquals(expected.headMap(500), sortedMap.headMap(500));
+        Assert.assertEquals(expected.tailMap(500), sortedMap.tailMap(500));
+        Assert.assertEquals(expected.subMap(100, 200), sortedMap.subMap(100, 200));
+        Assert.assertEquals(Integer.valueOf(100), sortedMap.subMap(100, 200).firstKey());
+        Assert.assertEquals(Integer.valueOf(199), sortedMap.subMap(100, 200).lastKey());
+        Assert.assertNull(sortedMap.subMap(100, 200).get(200));
+
+        SortedMap<Integer, Integer> range = sortedMap.tailMap(300).headMap(310);
+        Verify.assertListsEqual(Interval.fromTo(300, 309), FastList.newList(range.keySet()));
+        Verify.assertListsEqual(Interval.fromTo(300, 309), FastList.newList(range.values()));
+        Verify.assertEmpty(sortedMap.headMap(1));
+        Verify.assertEmpty(sortedMap.subMap(10, 10));
+        Assert.assertSame(map, sortedMap.headMap(1001));
+    }
+
+    @Test
+    public void rangeViewsWithComparator()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest(Comparators.<Integer>reverseNaturalOrder());
+        Assert.assertEquals("{4=4, 3=3}", map.castToSortedMap().headMap(2).toString());
+        Assert.assertEquals("{2=2, 1=1}", map.castToSortedMap().tailMap(2).toString());
+        Assert.assertEquals("{3=3, 2=2}", map.castToSortedMap().subMap(3, 1).toString());
+        Assert.assertSame(map.comparator(), map.castToSortedMap().headMap(2).comparator());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMapThrowsWhenBoundsAreReversed()
+    {
+        this.classUnderTest().castToSortedMap().subMap(3, 1);
+    }
+
+    @Test
+    public void serialization()
+    {
+        ImmutableSortedMap<Integer, String> map = this.classUnderTest(Comparators.<Integer>reverseNaturalOrder());
+        Verify.assertPostSerializedEqualsAndHashCode(map);
+        SortedMap<Integer, String> range = map.castToSortedMap().tailMap(2);
+        SortedMap<Integer, String> deserialized = SerializeTestHelper.serializeDeserialize(range);
+        Verify.assertInstanceOf(ImmutableSortedArrayMap.class, deserialized);
+        Assert.assertEquals("{2=2, 1=1}", deserialized.toString());
+    }
+}
@@ -20,8 +20,8 @@ import java.util.Comparator;
 
 import com.webguys.ponzu.api.map.sorted.ImmutableSortedMap;
 import com.webguys.ponzu.impl.block.factory.Comparators;
-import com.webguys.ponzu.impl.factory.SortedMaps;
 import com.webguys.ponzu.impl.map.sorted.ImmutableSortedMapTestCase;
+import com.webguys.ponzu.impl.map.sorted.mutable.TreeSortedMap;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -30,13 +30,13 @@ public class ImmutableTreeMapTest extends ImmutableSortedMapTestCase
     @Override
     protected ImmutableSortedMap<Integer, String> classUnderTest()
     {
-        return SortedMaps.immutable.of(1, "1", 2, "2", 3, "3", 4, "4");
+        return ImmutableTreeMap.newMap(TreeSortedMap.newMapWith(1, "1", 2, "2", 3, "3", 4, "4"));
     }
 
     @Override
     protected ImmutableSortedMap<Integer, String> classUnderTest(Comparator<? super Integer> comparator)
     {
-        return SortedMaps.immutable.of(comparator, 1, "1", 2, "2", 3, "3", 4, "4");
+        return ImmutableTreeMap.newMap(TreeSortedMap.<Integer, String>newMap(comparator).with(1, "1", 2, "2", 3, "3", 4, "4"));
     }
 
     @Override
@@ -45,7 +45,7 @@ import com.webguys.ponzu.impl.list.Interval;
 import com.webguys.ponzu.impl.list.mutable.FastList;
 import com.webguys.ponzu.impl.map.MapIterableTestCase;
 import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
-import com.webguys.ponzu.impl.map.sorted.immutable.ImmutableTreeMap;
+import com.webguys.ponzu.impl.map.sorted.immutable.ImmutableSortedArrayMap;
 import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
 import com.webguys.ponzu.impl.set.sorted.mutable.TreeSortedSet;
 import com.webguys.ponzu.impl.test.SerializeTestHelper;
@@ -116,7 +116,7 @@ public abstract class MutableSortedMapTestCase extends MapIterableTestCase
         ImmutableSortedMap<Integer, String> result = sortedMap.toImmutable();
         Verify.assertSize(1, result.castToSortedMap());
         Assert.assertEquals("One", result.get(1));
-        Verify.assertInstanceOf(ImmutableTreeMap.class, result);
+        Verify.assertInstanceOf(ImmutableSortedArrayMap.class, result);
     }
 
     @Test
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.multimap.list;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.webguys.ponzu.api.collection.MutableCollection;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.multimap.Multimap;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.api.tuple.Pair;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.multimap.AbstractMutableMultimapTestCase;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test of {@link ConcurrentFastListMultimap}.
+ */
+public class ConcurrentFastListMultimapTest extends AbstractMutableMultimapTestCase
+{
+    @Override
+    public <K, V> ConcurrentFastListMultimap<K, V> newMultimap()
+    {
+        return ConcurrentFastListMultimap.newMultimap();
+    }
+
+    @Override
+    public <K, V> ConcurrentFastListMultimap<K, V> newMultimapWithKeyValue(K key, V value)
+    {
+        ConcurrentFastListMultimap<K, V> mutableMultimap = this.newMultimap();
+        mutableMultimap.put(key, value);
+        return mutableMultimap;
+    }
+
+    @Override
+    public <K, V> ConcurrentFastListMultimap<K, V> newMultimapWithKeysValues(K key1, V value1, K key2, V value2)
+    {
+        ConcurrentFastListMultimap<K, V> mutableMultimap = this.newMultimap();
+        mutableMultimap.put(key1, value1);
+        mutableMultimap.put(key2, value2);
+        return mutableMultimap;
+    }
+
+    @Override
+    protected <V> MutableCollection<V> createCollection(V... args)
+    {
+        return FastList.newListWith(args);
+    }
+
+    @Override
+    public <K, V> Multimap<K, V> newMultimap(Pair<K, V>... pairs)
+    {
+        return ConcurrentFastListMultimap.newMultimap(pairs);
+    }
+
+    @Override
+    public <K, V> ConcurrentFastListMultimap<K, V> newMultimapWithKeysValues(
+            K key1, V value1,
+            K key2, V value2,
+            K key3, V value3)
+    {
+        ConcurrentFastListMultimap<K, V> mutableMultimap = this.newMultimap();
+        mutableMultimap.put(key1, value1);
+        mutableMultimap.put(key2, value2);
+        mutableMultimap.put(key3, value3);
+        return mutableMultimap;
+    }
+
+    @Override
+    public <K, V> ConcurrentFastListMultimap<K, V> newMultimapWithKeysValues(
+            K key1, V value1,
+            K key2, V value2,
+            K key3, V value3,
+            K key4, V value4)
+    {
+        ConcurrentFastListMultimap<K, V> mutableMultimap = this.newMultimap();
+        mutableMultimap.put(key1, value1);
+        mutableMultimap.put(key2, value2);
+        mutableMultimap.put(key3, value3);
+        mutableMultimap.put(key4, value4);
+        return mutableMultimap;
+    }
+
+    @Test
+    @Override
+    public void testClear()
+    {
+        MutableMultimap<Integer, Object> multimap =
+                this.<Integer, Object>newMultimapWithKeysValues(1, "One", 2, "Two", 3, "Three", 4, "Four");
+        multimap.clear();
+        Verify.assertEmpty(multimap);
+    }
+
+    @Test
+    @Override
+    public void testToString()
+    {
+        MutableMultimap<String, Integer> multimap =
+                this.newMultimapWithKeysValues("One", 1, "One", 2);
+        Assert.assertEquals("{One=[1, 2]}", multimap.toString());
+    }
+
+    @Test
+    public void concurrentPut() throws InterruptedException
+    {
+        final ConcurrentFastListMultimap<Integer, Integer> multimap = ConcurrentFastListMultimap.newMultimap();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 1000; i++)
+                    {
+                        multimap.put(i % 10, i);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(8000, multimap.size());
+        Assert.assertEquals(10, multimap.sizeDistinct());
+        for (int i = 0; i < 10; i++)
+        {
+            Verify.assertSize(800, multimap.get(i));
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void putManyValuesForOneKey()
+    {
+        ConcurrentFastListMultimap<Integer, Integer> multimap = ConcurrentFastListMultimap.newMultimap();
+        for (int i = 0; i < 200000; i++)
+        {
+            multimap.put(1, i);
+        }
+        Assert.assertEquals(200000, multimap.size());
+        Verify.assertSize(200000, multimap.get(1));
+    }
+
+    @Test
+    public void serializeWhileWriting() throws InterruptedException
+    {
+        final ConcurrentFastListMultimap<Integer, Integer> multimap = ConcurrentFastListMultimap.newMultimap();
+        final MutableList<Integer> values = Interval.oneTo(10).toList();
+        for (int i = 0; i < 100; i++)
+        {
+            multimap.putAll(i, values);
+        }
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                for (int i = 0; !done.get(); i++)
+                {
+                    int key = 100 + i % 1000;
+                    if (multimap.containsKey(key))
+                    {
+                        multimap.removeAll(key);
+                    }
+                    else
+                    {
+                        multimap.putAll(key, values);
+                    }
+                }
+            }
+        });
+        writer.start();
+        try
+        {
+            for (int i = 0; i < 50; i++)
+            {
+                ConcurrentFastListMultimap<Integer, Integer> copy = SerializeTestHelper.serializeDeserialize(multimap);
+                Assert.assertEquals(copy.sizeDistinct() * 10, copy.size());
+                for (int key = 0; key < 100; key++)
+                {
+                    Assert.assertEquals(values, copy.get(key));
+                }
+            }
+        }
+        finally
+        {
+            done.set(true);
+            writer.join();
+        }
+    }
+}
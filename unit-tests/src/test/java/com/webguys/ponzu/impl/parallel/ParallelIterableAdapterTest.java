@@ -0,0 +1,229 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webguys.ponzu.impl.parallel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.ParallelIterable;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.MutableList;
+import com.webguys.ponzu.api.multimap.MutableMultimap;
+import com.webguys.ponzu.impl.bag.mutable.HashBag;
+import com.webguys.ponzu.impl.block.factory.Functions;
+import com.webguys.ponzu.impl.block.factory.Predicates;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.multimap.list.FastListMultimap;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import com.webguys.ponzu.impl.utility.LazyIterate;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelIterableAdapterTest
+{
+    private static final Function<Integer, Integer> TIMES_TEN = new Function<Integer, Integer>()
+    {
+        public Integer valueOf(Integer each)
+        {
+            return each * 10;
+        }
+    };
+
+    private static final Function<Integer, Iterable<Integer>> WITH_NEXT = new Function<Integer, Iterable<Integer>>()
+    {
+        public Iterable<Integer> valueOf(Integer each)
+        {
+            return FastList.newListWith(each, each + 1);
+        }
+    };
+
+    private final ExecutorService threadPool = ParallelIterate.newPooledExecutor(4, "ParallelIterableAdapterTest", true);
+
+    @After
+    public void tearDown()
+    {
+        this.threadPool.shutdown();
+    }
+
+    @Test
+    public void fusedChainKeepsListOrder()
+    {
+        FastList<Integer> list = (FastList<Integer>) Interval.oneTo(10000).toList();
+        MutableList<Integer> expected = LazyIterate.adapt(list)
+                .filter(Predicates.greaterThan(100))
+                .transform(TIMES_TEN)
+                .flatTransform(WITH_NEXT)
+                .filterNot(Predicates.equal(2001))
+                .toList();
+        Assert.assertEquals(expected, list.asParallel(ParallelIterate.EXECUTOR_SERVICE, 97)
+                .filter(Predicates.greaterThan(100))
+                .transform(TIMES_TEN)
+                .flatTransform(WITH_NEXT)
+                .filterNot(Predicates.equal(2001))
+                .toList());
+        Assert.assertEquals(expected, list.asParallel(this.threadPool, 97)
+                .filter(Predicates.greaterThan(100))
+                .transform(TIMES_TEN)
+                .flatTransform(WITH_NEXT)
+                .filterNot(Predicates.equal(2001))
+                .toList());
+    }
+
+    @Test
+    public void eachStageRunsOncePerElement()
+    {
+        final AtomicInteger calls = new AtomicInteger();
+        FastList<Integer> list = (FastList<Integer>) Interval.oneTo(5000).toList();
+        int count = list.asParallel(ParallelIterate.EXECUTOR_SERVICE, 100)
+                .transform(new Function<Integer, Integer>()
+                {
+                    public Integer valueOf(Integer each)
+                    {
+                        calls.incrementAndGet();
+                        return each;
+                    }
+                })
+                .count(Predicates.lessThan(101));
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(5000, calls.get());
+    }
+
+    @Test
+    public void setAndMapSources()
+    {
+        UnifiedSet<Integer> set = UnifiedSet.newSet(Interval.oneTo(3000));
+        Assert.assertEquals(
+                UnifiedSet.newSet(Interval.fromToBy(10, 30000, 10)),
+                set.asParallel(this.threadPool, 64).transform(TIMES_TEN).toSet());
+
+        UnifiedMap<String, Integer> map = UnifiedMap.newMap();
+        for (int i = 1; i <= 3000; i++)
+        {
+            map.put(String.valueOf(i), i % 3);
+        }
+        Assert.assertEquals(
+                3000,
+                map.asParallel(ParallelIterate.EXECUTOR_SERVICE, 64).count(Predicates.alwaysTrue()));
+        HashBag<Integer> bag = HashBag.newBag();
+        bag.addOccurrences(0, 1000);
+        bag.addOccurrences(1, 1000);
+        bag.addOccurrences(2, 1000);
+        Assert.assertEquals(bag, map.asParallel(ParallelIterate.EXECUTOR_SERVICE, 64).toBag());
+        Assert.assertEquals(bag, map.asParallel(this.threadPool, 64).toBag());
+    }
+
+    @Test
+    public void groupBy()
+    {
+        FastList<Integer> list = (FastList<Integer>) Interval.oneTo(2000).toList();
+        Function<Integer, Integer> modThree = new Function<Integer, Integer>()
+        {
+            public Integer valueOf(Integer each)
+            {
+                return each % 3;
+            }
+        };
+        FastListMultimap<Integer, Integer> expected = FastListMultimap.newMultimap();
+        for (Integer each : list)
+        {
+            expected.put(each % 3, each);
+        }
+        MutableMultimap<Integer, Integer> actual = list.asParallel(ParallelIterate.EXECUTOR_SERVICE, 50).groupBy(modThree);
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(expected, list.asParallel(this.threadPool, 50).groupBy(modThree));
+    }
+
+    @Test
+    public void sums()
+    {
+        FastList<Integer> list = (FastList<Integer>) Interval.oneTo(10000).toList();
+        ParallelIterable<Integer> parallel = list.asParallel(ParallelIterate.EXECUTOR_SERVICE, 128).filter(Predicates.lessThan(5001));
+        Assert.assertEquals(5000L * 5001L / 2L, parallel.sumOfInt(new IntFunction<Integer>()
+        {
+            public int intValueOf(Integer each)
+            {
+                return each;
+            }
+        }));
+        Assert.assertEquals(5000L * 5001L / 2L * 1000000000L, parallel.sumOfLong(new LongFunction<Integer>()
+        {
+            public long longValueOf(Integer each)
+            {
+                return each * 1000000000L;
+            }
+        }));
+        Assert.assertEquals(500.0, parallel.sumOfDouble(new DoubleFunction<Integer>()
+        {
+            public double doubleValueOf(Integer each)
+            {
+                return 0.1;
+            }
+        }), 1.0e-10);
+    }
+
+    @Test
+    public void forEachAndShortCircuits()
+    {
+        FastList<Integer> list = (FastList<Integer>) Interval.oneTo(10000).toList();
+        final AtomicInteger total = new AtomicInteger();
+        list.asParallel(this.threadPool, 100).transform(Functions.getIntegerPassThru()).forEach(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                total.addAndGet(each);
+            }
+        });
+        Assert.assertEquals(50005000, total.get());
+
+        ParallelIterable<Integer> parallel = list.asParallel(ParallelIterate.EXECUTOR_SERVICE, 100);
+        Assert.assertTrue(parallel.anySatisfy(Predicates.equal(9999)));
+        Assert.assertFalse(parallel.filter(Predicates.lessThan(10)).anySatisfy(Predicates.equal(9999)));
+        Assert.assertTrue(parallel.allSatisfy(Predicates.lessThan(10001)));
+        Assert.assertFalse(parallel.allSatisfy(Predicates.lessThan(10000)));
+    }
+
+    @Test
+    public void emptySource()
+    {
+        ParallelIterable<Integer> parallel = FastList.<Integer>newList().asParallel(ParallelIterate.EXECUTOR_SERVICE, 10);
+        Verify.assertEmpty(parallel.toList());
+        Verify.assertEmpty(parallel.toSet());
+        Assert.assertEquals(0, parallel.count(Predicates.alwaysTrue()));
+        Assert.assertTrue(parallel.groupBy(Functions.getIntegerPassThru()).isEmpty());
+    }
+
+    @Test
+    public void invalidBatchSize()
+    {
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                FastList.newListWith(1, 2, 3).asParallel(ParallelIterate.EXECUTOR_SERVICE, 0);
+            }
+        });
+    }
+}
@@ -16,16 +16,36 @@
 
 package com.webguys.ponzu.impl.parallel;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.webguys.ponzu.api.LazyIterable;
 import com.webguys.ponzu.api.block.function.Function;
 import com.webguys.ponzu.api.block.function.Function2;
+import com.webguys.ponzu.api.block.function.primitive.DoubleFunction;
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
 import com.webguys.ponzu.api.block.predicate.Predicate;
 import com.webguys.ponzu.api.block.procedure.ObjectIntProcedure;
 import com.webguys.ponzu.api.block.procedure.Procedure;
@@ -34,6 +54,7 @@ import com.webguys.ponzu.api.map.MutableMap;
 import com.webguys.ponzu.api.multimap.Multimap;
 import com.webguys.ponzu.api.multimap.MutableMultimap;
 import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.impl.block.factory.Comparators;
 import com.webguys.ponzu.impl.block.factory.Functions;
 import com.webguys.ponzu.impl.block.factory.Predicates;
 import com.webguys.ponzu.impl.block.factory.StringFunctions;
@@ -351,6 +372,212 @@ public class ParallelIterateTest
         Verify.assertInstanceOf(List.class, result);
     }
 
+    @Test
+    public void forEachAsync() throws Exception
+    {
+        final AtomicInteger sum = new AtomicInteger();
+        Future<Void> future = ParallelIterate.forEachAsync(Interval.oneTo(20000), new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                sum.addAndGet(each);
+            }
+        }, 1000, ParallelIterate.EXECUTOR_SERVICE);
+        Assert.assertNull(future.get(1L, TimeUnit.MINUTES));
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(200010000, sum.get());
+
+        Assert.assertNull(ParallelIterate.forEachAsync(FastList.<Integer>newList(), EXCEPTION_PROCEDURE).get());
+    }
+
+    @Test
+    public void filterAndTransformAsync() throws Exception
+    {
+        Interval interval = Interval.oneTo(20000);
+        Future<Collection<Integer>> filtered = ParallelIterate.filterAsync(interval, Predicates.greaterThan(10000), 1000, ParallelIterate.EXECUTOR_SERVICE);
+        Future<Collection<String>> transformed = ParallelIterate.transformAsync(interval.toList(), Functions.getToString());
+        Future<Collection<Integer>> filteredSet = ParallelIterate.filterAsync(interval.toSet(), Predicates.lessThan(11));
+        Assert.assertEquals(Interval.fromTo(10001, 20000), filtered.get());
+        Assert.assertEquals(interval.transform(Functions.getToString()).toList(), transformed.get());
+        Assert.assertEquals(Interval.oneTo(10).toSet(), filteredSet.get());
+    }
+
+    @Test
+    public void groupByAsync() throws Exception
+    {
+        LazyIterable<Integer> iterable = Interval.oneTo(1000).concatenate(Interval.oneTo(1000)).concatenate(Interval.oneTo(1000));
+        Future<MutableMultimap<String, Integer>> future = ParallelIterate.groupByAsync(iterable.toList(), Functions.getToString(), 100, ParallelIterate.EXECUTOR_SERVICE);
+        Assert.assertEquals(iterable.toList().groupBy(Functions.getToString()), future.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Assert.assertEquals(
+                    iterable.toList().groupBy(Functions.getToString()),
+                    ParallelIterate.groupByAsync(iterable, Functions.getToString(), 100, executor).get());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncFailure() throws InterruptedException
+    {
+        Future<Void> future = ParallelIterate.forEachAsync(Interval.oneTo(20000), EXCEPTION_PROCEDURE, 1000, ParallelIterate.EXECUTOR_SERVICE);
+        try
+        {
+            future.get();
+            Assert.fail();
+        }
+        catch (ExecutionException e)
+        {
+            Assert.assertEquals("Thread death on its way!", e.getCause().getMessage());
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void asyncFailsWhenTheExecutorRejectsABatch() throws InterruptedException
+    {
+        final AtomicInteger executed = new AtomicInteger();
+        Executor executor = new Executor()
+        {
+            public void execute(Runnable command)
+            {
+                if (executed.incrementAndGet() > 2)
+                {
+                    throw new RejectedExecutionException("Full");
+                }
+                command.run();
+            }
+        };
+        final AtomicInteger processed = new AtomicInteger();
+        Future<Void> future = ParallelIterate.forEachAsync(Interval.oneTo(20000), new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                processed.incrementAndGet();
+            }
+        }, 1000, executor);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(2000, processed.get());
+        try
+        {
+            future.get();
+            Assert.fail();
+        }
+        catch (ExecutionException e)
+        {
+            Verify.assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void asyncCancellationSkipsUnstartedBatches() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        try
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        blocked.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            final AtomicInteger processed = new AtomicInteger();
+            Future<Void> future = ParallelIterate.forEachAsync(Interval.oneTo(100), new Procedure<Integer>()
+            {
+                public void value(Integer each)
+                {
+                    processed.incrementAndGet();
+                }
+            }, 10, executor);
+            Assert.assertFalse(future.isDone());
+            Assert.assertTrue(future.cancel(false));
+            Assert.assertTrue(future.isCancelled());
+            blocked.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+            Assert.assertEquals(0, processed.get());
+            try
+            {
+                future.get();
+                Assert.fail();
+            }
+            catch (CancellationException ignored)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            blocked.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncGetTimesOutUntilTheBatchesFinish() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        try
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        blocked.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            final AtomicInteger processed = new AtomicInteger();
+            Future<Void> future = ParallelIterate.forEachAsync(Interval.oneTo(100), new Procedure<Integer>()
+            {
+                public void value(Integer each)
+                {
+                    processed.incrementAndGet();
+                }
+            }, 10, executor);
+            try
+            {
+                future.get(10L, TimeUnit.MILLISECONDS);
+                Assert.fail();
+            }
+            catch (TimeoutException ignored)
+            {
+                // expected
+            }
+            blocked.countDown();
+            Assert.assertNull(future.get(1L, TimeUnit.MINUTES));
+            Assert.assertTrue(future.isDone());
+            Assert.assertFalse(future.isCancelled());
+            Assert.assertFalse(future.cancel(false));
+            Assert.assertEquals(100, processed.get());
+        }
+        finally
+        {
+            blocked.countDown();
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void groupByWithInterval()
     {
@@ -410,6 +637,40 @@ public class ParallelIterateTest
         });
     }
 
+    @Test
+    public void groupByKeepsSourceOrderWithinEachKey()
+    {
+        MutableList<Integer> source = Interval.oneTo(20000).toList();
+        Collections.shuffle(source, new Random(42));
+        Function<Integer, Integer> mod = new Function<Integer, Integer>()
+        {
+            public Integer valueOf(Integer each)
+            {
+                return each % 97;
+            }
+        };
+        MutableMultimap<Integer, Integer> expected = source.groupBy(mod);
+        Assert.assertEquals(expected, ParallelIterate.groupBy(source, mod, 100));
+        Assert.assertEquals(expected, ParallelIterate.groupBy(source, mod, 100, ParallelIterate.newForkJoinPool(3)));
+        Assert.assertEquals(expected, ParallelIterate.groupBy(source, mod, 100, ParallelIterate.newPooledExecutor(3, "groupBy", true)));
+        Assert.assertEquals(expected, ParallelIterate.groupBy(source, mod));
+    }
+
+    @Test
+    public void groupByEach()
+    {
+        MutableList<Integer> source = Interval.oneTo(20000).toList();
+        Collections.shuffle(source, new Random(42));
+        MutableMultimap<String, Integer> expected = source.groupByEach(INT_TO_TWO_STRINGS);
+        Assert.assertEquals(expected, ParallelIterate.groupByEach(source, INT_TO_TWO_STRINGS));
+        Assert.assertEquals(expected, ParallelIterate.groupByEach(source, INT_TO_TWO_STRINGS, 100));
+        Assert.assertEquals(expected, ParallelIterate.groupByEach(source, INT_TO_TWO_STRINGS, 100, ParallelIterate.newPooledExecutor(3, "groupByEach", true)));
+        Assert.assertEquals(
+                HashBagMultimap.newMultimap(expected),
+                ParallelIterate.groupByEach(source, INT_TO_TWO_STRINGS, SynchronizedPutHashBagMultimap.<String, Integer>newMultimap(), 100, ParallelIterate.EXECUTOR_SERVICE));
+        Verify.assertEmpty(ParallelIterate.groupByEach(FastList.<Integer>newList(), INT_TO_TWO_STRINGS).toMap());
+    }
+
     @Test
     public void testCollectUseCombineOne()
     {
@@ -489,6 +750,379 @@ public class ParallelIterateTest
         Verify.assertInstanceOf(Set.class, result);
     }
 
+    @Test
+    public void forEachOnForkJoinPoolCombinesInSourceOrder()
+    {
+        ForkJoinPool pool = ParallelIterate.newForkJoinPool(4);
+        try
+        {
+            MutableList<Integer> list = Interval.oneTo(1000).toList();
+            AppendCombiner listCombiner = new AppendCombiner(true);
+            ParallelIterate.forEach(list, new AppendProcedureFactory(), listCombiner, 1, 37, pool);
+            Assert.assertEquals(list, listCombiner.result);
+            Assert.assertSame(Thread.currentThread(), listCombiner.combiningThread);
+
+            AppendCombiner arrayCombiner = new AppendCombiner(false);
+            ParallelArrayIterate.forEachOn(list.toArray(new Integer[1000]), new AppendProcedureFactory(), arrayCombiner, 1, 37, pool);
+            Assert.assertEquals(list, arrayCombiner.result);
+
+            UnifiedSet<Integer> set = UnifiedSet.newSet(list);
+            AppendCombiner setCombiner = new AppendCombiner(true);
+            ParallelIterate.forEach(set, new AppendProcedureFactory(), setCombiner, 1, set.getBatchCount(13), pool);
+            Assert.assertEquals(set.toList(), setCombiner.result);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void forEachOnForkJoinPoolWithUnevenCost()
+    {
+        ForkJoinPool pool = ParallelIterate.newForkJoinPool(4);
+        try
+        {
+            final AtomicInteger total = new AtomicInteger();
+            ParallelIterate.forEach(Interval.oneTo(200), new Procedure<Integer>()
+            {
+                public void value(Integer each)
+                {
+                    if (each <= 4)
+                    {
+                        try
+                        {
+                            Thread.sleep(20L);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    total.addAndGet(each);
+                }
+            }, 1, 50, pool);
+            Assert.assertEquals(20100, total.get());
+
+            final Integer[] array = new Integer[200];
+            ObjectIntProcedure<Integer> procedure = new ObjectIntProcedure<Integer>()
+            {
+                public void value(Integer each, int index)
+                {
+                    array[index] = each;
+                }
+            };
+            ParallelIterate.forEachWithIndex(
+                    Interval.oneTo(200).toList(),
+                    new PassThruObjectIntProcedureFactory<ObjectIntProcedure<Integer>>(procedure),
+                    new PassThruCombiner<ObjectIntProcedure<Integer>>(),
+                    1,
+                    16,
+                    pool);
+            Assert.assertArrayEquals(Interval.oneTo(200).toArray(), array);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void forEachOnForkJoinPoolSharesASlowSectionBetweenWorkers()
+    {
+        ForkJoinPool pool = ParallelIterate.newForkJoinPool(2);
+        try
+        {
+            final Set<Thread> slowThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+            ParallelIterate.forEach(Interval.oneTo(400).toList(), new Procedure<Integer>()
+            {
+                public void value(Integer each)
+                {
+                    if (each <= 200)
+                    {
+                        slowThreads.add(Thread.currentThread());
+                        try
+                        {
+                            Thread.sleep(1L);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }, 1, 2, pool);
+            Assert.assertEquals(2, slowThreads.size());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void forEachOnForkJoinPoolWithException()
+    {
+        final ForkJoinPool pool = ParallelIterate.newForkJoinPool(2);
+        try
+        {
+            Verify.assertThrows(RuntimeException.class, new Runnable()
+            {
+                public void run()
+                {
+                    ParallelIterate.forEach(
+                            createIntegerList(100),
+                            new PassThruProcedureFactory<Procedure<Integer>>(EXCEPTION_PROCEDURE),
+                            new PassThruCombiner<Procedure<Integer>>(),
+                            1,
+                            10,
+                            pool);
+                }
+            });
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sumOf()
+    {
+        MutableList<Integer> list = Interval.oneTo(20000).toList();
+        UnifiedSet<Integer> set = UnifiedSet.newSet(list);
+        LazyIterable<Integer> lazy = LazyIterate.adapt(list);
+        IntFunction<Integer> intFunction = new IntFunction<Integer>()
+        {
+            public int intValueOf(Integer each)
+            {
+                return Integer.MAX_VALUE - each;
+            }
+        };
+        long expected = 20000L * Integer.MAX_VALUE - 20000L * 20001L / 2L;
+        Assert.assertEquals(expected, ParallelIterate.sumOfInt(list, intFunction));
+        Assert.assertEquals(expected, ParallelIterate.sumOfInt(set, intFunction, 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(expected, ParallelIterate.sumOfInt(lazy, intFunction, 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(0L, ParallelIterate.sumOfInt(FastList.<Integer>newList(), intFunction));
+
+        LongFunction<Integer> longFunction = new LongFunction<Integer>()
+        {
+            public long longValueOf(Integer each)
+            {
+                return each.longValue() * 1000000000L;
+            }
+        };
+        Assert.assertEquals(20000L * 20001L / 2L * 1000000000L, ParallelIterate.sumOfLong(list, longFunction, 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(20000L * 20001L / 2L * 1000000000L, ParallelIterate.sumOfLong(set, longFunction));
+    }
+
+    @Test
+    public void sumOfDoubleIsCompensated()
+    {
+        MutableList<Integer> list = Interval.oneTo(100000).toList();
+        DoubleFunction<Integer> function = new DoubleFunction<Integer>()
+        {
+            public double doubleValueOf(Integer each)
+            {
+                return each == 1 ? 1.0e10 : 0.1;
+            }
+        };
+        double naiveSum = 0.0;
+        for (Integer each : list)
+        {
+            naiveSum += function.doubleValueOf(each);
+        }
+        double expected = 1.0e10 + 9999.9;
+        double parallelSum = ParallelIterate.sumOfDouble(list, function, 1000, ParallelIterate.EXECUTOR_SERVICE);
+        Assert.assertEquals(expected, parallelSum, 1.0e-5);
+        Assert.assertTrue(Math.abs(expected - parallelSum) < Math.abs(expected - naiveSum));
+        Assert.assertEquals(expected, ParallelIterate.sumOfDouble(UnifiedSet.newSet(list), function), 1.0e-5);
+    }
+
+    @Test
+    public void minAndMax()
+    {
+        MutableList<Integer> list = Interval.oneTo(30000).toList();
+        Collections.shuffle(list);
+        UnifiedSet<Integer> set = UnifiedSet.newSet(list);
+        Assert.assertEquals(Integer.valueOf(1), ParallelIterate.min(list));
+        Assert.assertEquals(Integer.valueOf(30000), ParallelIterate.max(list));
+        Assert.assertEquals(Integer.valueOf(1), ParallelIterate.min(set, Comparators.naturalOrder(), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(Integer.valueOf(30000), ParallelIterate.max(LazyIterate.adapt(list), Comparators.naturalOrder(), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(Integer.valueOf(30000), ParallelIterate.min(list, Collections.reverseOrder()));
+
+        Function<Integer, Integer> distanceFrom12345 = new Function<Integer, Integer>()
+        {
+            public Integer valueOf(Integer each)
+            {
+                return Math.abs(each - 12345);
+            }
+        };
+        Assert.assertEquals(Integer.valueOf(12345), ParallelIterate.minBy(list, distanceFrom12345));
+        Assert.assertEquals(Integer.valueOf(30000), ParallelIterate.maxBy(set, distanceFrom12345));
+
+        MutableList<String> ties = FastList.newList(Collections.nCopies(20000, "b"));
+        ties.set(15000, "a1");
+        ties.set(17000, "a2");
+        Assert.assertEquals("a1", ParallelIterate.minBy(ties, StringFunctions.firstLetter()));
+
+        Verify.assertThrows(NoSuchElementException.class, new Runnable()
+        {
+            public void run()
+            {
+                ParallelIterate.min(FastList.<Integer>newList());
+            }
+        });
+    }
+
+    @Test
+    public void anySatisfyAllSatisfyAndFind()
+    {
+        MutableList<Integer> list = Interval.oneTo(50000).toList();
+        UnifiedSet<Integer> set = UnifiedSet.newSet(list);
+        Assert.assertTrue(ParallelIterate.anySatisfy(list, Predicates.equal(49999)));
+        Assert.assertFalse(ParallelIterate.anySatisfy(set, Predicates.greaterThan(50000)));
+        Assert.assertTrue(ParallelIterate.allSatisfy(set, Predicates.lessThan(50001)));
+        Assert.assertFalse(ParallelIterate.allSatisfy(LazyIterate.adapt(list), Predicates.lessThan(50000), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(Integer.valueOf(31415), ParallelIterate.find(list, Predicates.equal(31415)));
+        Assert.assertEquals(Integer.valueOf(31415), ParallelIterate.find(set, Predicates.equal(31415), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertNull(ParallelIterate.find(list, Predicates.greaterThan(50000)));
+        Assert.assertTrue(list.contains(ParallelIterate.find(list, Predicates.greaterThan(100))));
+        Assert.assertTrue(ParallelIterate.find(list, Predicates.greaterThan(100)) > 100);
+    }
+
+    @Test
+    public void anySatisfyStopsEvaluatingOnceFound()
+    {
+        final AtomicInteger evaluations = new AtomicInteger();
+        MutableList<Integer> list = Interval.oneTo(100000).toList();
+        Assert.assertTrue(ParallelIterate.anySatisfy(list, new Predicate<Integer>()
+        {
+            public boolean accept(Integer each)
+            {
+                evaluations.incrementAndGet();
+                return true;
+            }
+        }, 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertTrue(evaluations.get() < list.size());
+    }
+
+    @Test
+    public void anySatisfyAndFindStopIteratingOnceFound()
+    {
+        CountingList list = new CountingList(100000);
+        int leafCount = list.size() / 1000 * AbstractProcedureForkJoinTask.LEAVES_PER_TASK;
+        Assert.assertTrue(ParallelIterate.anySatisfy(list, Predicates.alwaysTrue(), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertTrue(list.getReads() <= leafCount);
+
+        list.resetReads();
+        Assert.assertNotNull(ParallelIterate.find(list, Predicates.alwaysTrue(), 1000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertTrue(list.getReads() <= leafCount);
+
+        list.resetReads();
+        Assert.assertFalse(ParallelIterate.allSatisfy(list, Predicates.alwaysFalse(), 200000, ParallelIterate.EXECUTOR_SERVICE));
+        Assert.assertEquals(1, list.getReads());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            list.resetReads();
+            Assert.assertTrue(ParallelIterate.anySatisfy(list, Predicates.alwaysTrue(), 1000, executor));
+            Assert.assertTrue(list.getReads() <= list.size() / 1000);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static final class CountingList extends AbstractList<Integer> implements RandomAccess
+    {
+        private final int size;
+        private final AtomicInteger reads = new AtomicInteger();
+
+        private CountingList(int size)
+        {
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(int index)
+        {
+            this.reads.incrementAndGet();
+            return index;
+        }
+
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+
+        public int getReads()
+        {
+            return this.reads.get();
+        }
+
+        public void resetReads()
+        {
+            this.reads.set(0);
+        }
+    }
+
+    private static final class AppendProcedure implements Procedure<Integer>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final MutableList<Integer> values = FastList.newList();
+
+        public void value(Integer each)
+        {
+            this.values.add(each);
+        }
+    }
+
+    private static final class AppendProcedureFactory implements ProcedureFactory<AppendProcedure>
+    {
+        public AppendProcedure create()
+        {
+            return new AppendProcedure();
+        }
+    }
+
+    private static final class AppendCombiner implements Combiner<AppendProcedure>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean useCombineOne;
+        private final MutableList<Integer> result = FastList.newList();
+        private Thread combiningThread;
+
+        private AppendCombiner(boolean useCombineOne)
+        {
+            this.useCombineOne = useCombineOne;
+        }
+
+        public void combineAll(Iterable<AppendProcedure> thingsToCombine)
+        {
+            for (AppendProcedure procedure : thingsToCombine)
+            {
+                this.combineOne(procedure);
+            }
+        }
+
+        public void combineOne(AppendProcedure thingToCombine)
+        {
+            this.combiningThread = Thread.currentThread();
+            this.result.addAll(thingToCombine.values);
+        }
+
+        public boolean useCombineOne()
+        {
+            return this.useCombineOne;
+        }
+    }
+
     public static final class IntegerSum
     {
         private int sum = 0;
@@ -22,7 +22,11 @@ import java.util.concurrent.Executors;
 
 import com.webguys.ponzu.api.block.procedure.Procedure2;
 import com.webguys.ponzu.api.map.MutableMap;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntObjectProcedure;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongObjectProcedure;
 import com.webguys.ponzu.impl.map.mutable.UnifiedMap;
+import com.webguys.ponzu.impl.map.mutable.primitive.IntObjectHashMap;
+import com.webguys.ponzu.impl.map.mutable.primitive.LongObjectHashMap;
 import com.webguys.ponzu.impl.test.Verify;
 import org.junit.Test;
 
@@ -117,4 +121,46 @@ public class ParallelMapIterateTest
         }, 5, 3);
         Verify.assertMapsEqual(concurrentMap, map);
     }
+
+    @Test
+    public void forEachKeyValueIntObjectHashMap()
+    {
+        IntObjectHashMap<String> map = IntObjectHashMap.newMap();
+        for (int i = 0; i < 10000; i++)
+        {
+            map.put(i, String.valueOf(i));
+        }
+        final ConcurrentMap<Integer, String> concurrentMap = new ConcurrentHashMap<Integer, String>();
+        IntObjectProcedure<String> procedure = new IntObjectProcedure<String>()
+        {
+            public void value(int each, String parameter)
+            {
+                concurrentMap.put(each, parameter);
+            }
+        };
+        ParallelMapIterate.forEachKeyValue(map, procedure, 1, 8, Executors.newFixedThreadPool(4));
+        Verify.assertSize(10000, concurrentMap);
+        for (int i = 0; i < 10000; i++)
+        {
+            Verify.assertContainsKeyValue(i, String.valueOf(i), concurrentMap);
+        }
+        concurrentMap.clear();
+        ParallelMapIterate.forEachKeyValue(map, procedure);
+        Verify.assertSize(10000, concurrentMap);
+    }
+
+    @Test
+    public void forEachKeyValueLongObjectHashMap()
+    {
+        LongObjectHashMap<String> map = LongObjectHashMap.newWithKeysValues(0L, "0", 1L, "1", 2L, "2");
+        final ConcurrentMap<Long, String> concurrentMap = new ConcurrentHashMap<Long, String>();
+        ParallelMapIterate.forEachKeyValue(map, new LongObjectProcedure<String>()
+        {
+            public void value(long each, String parameter)
+            {
+                concurrentMap.put(each, parameter);
+            }
+        }, 1, 3, Executors.newSingleThreadExecutor());
+        Verify.assertMapsEqual(concurrentMap, UnifiedMap.newWithKeysValues(0L, "0", 1L, "1", 2L, "2"));
+    }
 }
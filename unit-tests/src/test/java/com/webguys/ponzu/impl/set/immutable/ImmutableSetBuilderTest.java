@@ -0,0 +1,71 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.immutable;
+
+import com.webguys.ponzu.api.set.ImmutableSet;
+import com.webguys.ponzu.api.set.ImmutableSetBuilder;
+import com.webguys.ponzu.impl.factory.Sets;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableSetBuilderTest
+{
+    private static ImmutableSetBuilder<Integer> newBuilder(int from, int to)
+    {
+        return Sets.immutable.<Integer>builder(to - from + 1).addAll(Interval.fromTo(from, to));
+    }
+
+    @Test
+    public void build()
+    {
+        ImmutableSet<Integer> small = newBuilder(1, 3).add(1).build();
+        Verify.assertInstanceOf(ImmutableTripletonSet.class, small);
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3), small);
+
+        ImmutableSet<Integer> large = newBuilder(1, 100).build();
+        Verify.assertInstanceOf(ImmutableUnifiedSet.class, large);
+        Assert.assertEquals(Interval.toSet(1, 100), large);
+    }
+
+    @Test
+    public void merge()
+    {
+        ImmutableSetBuilder<Integer> small = newBuilder(1, 10);
+        ImmutableSetBuilder<Integer> large = newBuilder(5, 100);
+        Assert.assertEquals(Interval.toSet(1, 100), small.merge(large).build());
+        Assert.assertEquals(Interval.toSet(1, 100), newBuilder(5, 100).merge(newBuilder(1, 10)).build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addAfterBuild()
+    {
+        ImmutableSetBuilder<Integer> builder = newBuilder(1, 10);
+        builder.build();
+        builder.add(11);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildAfterMerge()
+    {
+        ImmutableSetBuilder<Integer> other = newBuilder(11, 20);
+        newBuilder(1, 10).merge(other);
+        other.build();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.mutable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ConcurrentPool}.
+ */
+public class ConcurrentPoolTest
+{
+    @Test
+    public void getReturnsNullIfObjectIsNotPooled()
+    {
+        Assert.assertNull(ConcurrentPool.<Integer>newPool().get(1));
+        Assert.assertNull(ConcurrentPool.<Integer>newWeakPool().get(1));
+    }
+
+    @Test
+    public void putReturnsThePooledObject()
+    {
+        this.assertPutReturnsThePooledObject(ConcurrentPool.<String>newPool());
+        this.assertPutReturnsThePooledObject(ConcurrentPool.<String>newWeakPool());
+    }
+
+    private void assertPutReturnsThePooledObject(ConcurrentPool<String> pool)
+    {
+        String first = new String("value");
+        String second = new String("value");
+        Assert.assertSame(first, pool.put(first));
+        Assert.assertSame(first, pool.put(second));
+        Assert.assertSame(first, pool.get(second));
+        Assert.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void removeFromPool()
+    {
+        this.assertRemoveFromPool(ConcurrentPool.<String>newPool());
+        this.assertRemoveFromPool(ConcurrentPool.<String>newWeakPool());
+    }
+
+    private void assertRemoveFromPool(ConcurrentPool<String> pool)
+    {
+        String first = new String("value");
+        pool.put(first);
+        Assert.assertSame(first, pool.removeFromPool(new String("value")));
+        Assert.assertNull(pool.removeFromPool(first));
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void clear()
+    {
+        ConcurrentPool<Integer> pool = ConcurrentPool.newPool();
+        pool.put(1);
+        pool.put(2);
+        pool.clear();
+        Assert.assertEquals(0, pool.size());
+        Assert.assertNull(pool.get(1));
+    }
+
+    @Test
+    public void nullCannotBePooled()
+    {
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                ConcurrentPool.newPool().put(null);
+            }
+        });
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                ConcurrentPool.newWeakPool().put(null);
+            }
+        });
+    }
+
+    @Test
+    public void weakPoolLetsUnusedObjectsBeCollected() throws InterruptedException
+    {
+        ConcurrentPool<String> pool = ConcurrentPool.newWeakPool();
+        String kept = pool.put(new String("kept"));
+        for (int i = 0; i < 100; i++)
+        {
+            pool.put(new String("dropped" + i));
+        }
+        for (int i = 0; i < 100 && pool.size() > 1; i++)
+        {
+            System.gc();
+            Thread.sleep(10L);
+        }
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(kept, pool.get(new String("kept")));
+        Assert.assertNull(pool.get("dropped0"));
+    }
+
+    @Test
+    public void concurrentPutsAgreeOnThePooledObject() throws InterruptedException
+    {
+        this.assertConcurrentPutsAgree(ConcurrentPool.<String>newPool());
+        this.assertConcurrentPutsAgree(ConcurrentPool.<String>newWeakPool());
+    }
+
+    private void assertConcurrentPutsAgree(final ConcurrentPool<String> pool) throws InterruptedException
+    {
+        final int threads = 4;
+        final int values = 10000;
+        final AtomicReferenceArray<String> firstSeen = new AtomicReferenceArray<String>(values);
+        final AtomicReferenceArray<String> mismatches = new AtomicReferenceArray<String>(values);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < values; i++)
+                    {
+                        String pooled = pool.put(String.valueOf(i));
+                        if (!firstSeen.compareAndSet(i, null, pooled) && firstSeen.get(i) != pooled)
+                        {
+                            mismatches.set(i, pooled);
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        for (int i = 0; i < values; i++)
+        {
+            Assert.assertNull(mismatches.get(i));
+        }
+        Assert.assertEquals(values, pool.size());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.mutable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webguys.ponzu.api.block.HashingStrategy;
+import com.webguys.ponzu.api.block.function.Function;
+import com.webguys.ponzu.impl.block.factory.HashingStrategies;
+import com.webguys.ponzu.impl.set.strategy.mutable.ConcurrentPoolWithHashingStrategy;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link ConcurrentPoolWithHashingStrategy}.
+ */
+public class ConcurrentPoolWithHashingStrategyTest
+{
+    private static final HashingStrategy<String> CASE_INSENSITIVE = HashingStrategies.fromFunction(
+            new Function<String, String>()
+            {
+                public String valueOf(String string)
+                {
+                    return string.toLowerCase();
+                }
+            });
+
+    @Test
+    public void poolsByTheHashingStrategy()
+    {
+        this.assertPoolsByTheHashingStrategy(ConcurrentPoolWithHashingStrategy.newPool(CASE_INSENSITIVE));
+        this.assertPoolsByTheHashingStrategy(ConcurrentPoolWithHashingStrategy.newWeakPool(CASE_INSENSITIVE));
+    }
+
+    private void assertPoolsByTheHashingStrategy(ConcurrentPoolWithHashingStrategy<String> pool)
+    {
+        Assert.assertNull(pool.get("ABC"));
+        String first = "abc";
+        Assert.assertSame(first, pool.put(first));
+        Assert.assertSame(first, pool.put("ABC"));
+        Assert.assertSame(first, pool.get("Abc"));
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(first, pool.removeFromPool("aBC"));
+        Assert.assertNull(pool.get("abc"));
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void clear()
+    {
+        ConcurrentPoolWithHashingStrategy<String> pool = ConcurrentPoolWithHashingStrategy.newPool(CASE_INSENSITIVE);
+        pool.put("a");
+        pool.put("b");
+        pool.clear();
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void nullCannotBePooled()
+    {
+        Verify.assertThrows(NullPointerException.class, new Runnable()
+        {
+            public void run()
+            {
+                ConcurrentPoolWithHashingStrategy.newPool(CASE_INSENSITIVE).put(null);
+            }
+        });
+        Verify.assertThrows(IllegalArgumentException.class, new Runnable()
+        {
+            public void run()
+            {
+                ConcurrentPoolWithHashingStrategy.newPool(null);
+            }
+        });
+    }
+
+    @Test
+    public void weakPoolLetsUnusedObjectsBeCollected() throws InterruptedException
+    {
+        ConcurrentPoolWithHashingStrategy<String> pool = ConcurrentPoolWithHashingStrategy.newWeakPool(CASE_INSENSITIVE);
+        String kept = pool.put(new String("kept"));
+        for (int i = 0; i < 100; i++)
+        {
+            pool.put(new String("dropped" + i));
+        }
+        for (int i = 0; i < 100 && pool.size() > 1; i++)
+        {
+            System.gc();
+            Thread.sleep(10L);
+        }
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(kept, pool.get("KEPT"));
+    }
+
+    @Test
+    public void concurrentPutsAddEachValueOnce() throws InterruptedException
+    {
+        final ConcurrentPoolWithHashingStrategy<String> pool = ConcurrentPoolWithHashingStrategy.newPool(CASE_INSENSITIVE);
+        final AtomicInteger added = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++)
+        {
+            final boolean upperCase = t % 2 == 0;
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 10000; i++)
+                    {
+                        String value = upperCase ? "V" + i : "v" + i;
+                        if (pool.put(value) == value)
+                        {
+                            added.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        Assert.assertEquals(10000, added.get());
+        Assert.assertEquals(10000, pool.size());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.mutable;
+
+import java.util.Iterator;
+
+import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.set.MutableSet;
+import com.webguys.ponzu.impl.block.factory.Predicates;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link CopyOnWriteUnifiedSet}.
+ */
+public class CopyOnWriteUnifiedSetTest extends AbstractMutableSetTestCase
+{
+    @Override
+    protected <T> CopyOnWriteUnifiedSet<T> classUnderTest()
+    {
+        return CopyOnWriteUnifiedSet.newSet();
+    }
+
+    @Test
+    public void iteratorSeesTheSetAsItWasWhenCreated()
+    {
+        CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        Iterator<Integer> iterator = set.iterator();
+        set.add(4);
+        set.remove(1);
+        MutableSet<Integer> iterated = UnifiedSet.newSet();
+        while (iterator.hasNext())
+        {
+            iterated.add(iterator.next());
+        }
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3), iterated);
+        Assert.assertEquals(UnifiedSet.newSetWith(2, 3, 4), set);
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        Iterator<Integer> iterator = set.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next() % 2 == 1)
+            {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(UnifiedSet.newSetWith(2), set);
+    }
+
+    @Test
+    public void forEachMayModifyTheSet()
+    {
+        final CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        set.forEach(new Procedure<Integer>()
+        {
+            public void value(Integer each)
+            {
+                set.add(each + 3);
+            }
+        });
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3, 4, 5, 6), set);
+    }
+
+    @Test
+    public void withWriteLockAndDelegate()
+    {
+        CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        set.withWriteLockAndDelegate(new Procedure<MutableSet<Integer>>()
+        {
+            public void value(MutableSet<Integer> delegate)
+            {
+                delegate.add(4);
+                delegate.removeIf(Predicates.lessThan(3));
+            }
+        });
+        Assert.assertEquals(UnifiedSet.newSetWith(3, 4), set);
+    }
+
+    @Test
+    public void withWriteLockAndDelegatePublishesNothingWhenTheProcedureThrows()
+    {
+        final CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        Verify.assertThrows(IllegalStateException.class, new Runnable()
+        {
+            public void run()
+            {
+                set.withWriteLockAndDelegate(new Procedure<MutableSet<Integer>>()
+                {
+                    public void value(MutableSet<Integer> delegate)
+                    {
+                        delegate.clear();
+                        throw new IllegalStateException();
+                    }
+                });
+            }
+        });
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3), set);
+    }
+
+    @Test
+    public void withAllKeepsTheCurrentElementsWhenNothingIsAdded()
+    {
+        CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSet(Interval.oneTo(5));
+        Assert.assertFalse(set.addAllIterable(Interval.oneTo(3)));
+        Assert.assertFalse(set.removeAllIterable(Interval.fromTo(6, 10)));
+        Assert.assertEquals(UnifiedSet.newSet(Interval.oneTo(5)), set);
+    }
+
+    @Test
+    public void cloneIsIndependent()
+    {
+        CopyOnWriteUnifiedSet<Integer> set = CopyOnWriteUnifiedSet.newSetWith(1, 2, 3);
+        CopyOnWriteUnifiedSet<Integer> clone = set.clone();
+        clone.add(4);
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3), set);
+        Assert.assertEquals(UnifiedSet.newSetWith(1, 2, 3, 4), clone);
+    }
+
+    @Test
+    public void serialization()
+    {
+        Verify.assertPostSerializedEqualsAndHashCode(CopyOnWriteUnifiedSet.newSetWith(1, 2, 3));
+    }
+}
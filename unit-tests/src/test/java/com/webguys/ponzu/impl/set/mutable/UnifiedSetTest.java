@@ -18,8 +18,11 @@ package com.webguys.ponzu.impl.set.mutable;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.webguys.ponzu.api.block.procedure.Procedure;
+import com.webguys.ponzu.api.list.MutableList;
 import com.webguys.ponzu.api.set.MutableSet;
 import com.webguys.ponzu.api.set.Pool;
 import com.webguys.ponzu.impl.block.factory.Comparators;
@@ -519,4 +522,44 @@ public class UnifiedSetTest extends AbstractMutableSetTestCase
         Assert.assertFalse(setWithNull.retainAll(FastList.newListWith((Object) null)));
         Assert.assertEquals(UnifiedSet.newSetWith((Object) null), setWithNull);
     }
+
+    @Test
+    public void newSetParallel()
+    {
+        MutableList<Object> source = FastList.newList();
+        for (int i = 0; i < 100000; i++)
+        {
+            source.add(i % 7919 == 0 ? null : i % 30000);
+        }
+        Key key = new Key("key");
+        Key duplicate = new Key("key");
+        source.add(key);
+        source.add(duplicate);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            UnifiedSet<Object> set = UnifiedSet.newSetParallel(source, executor);
+            Assert.assertEquals(UnifiedSet.newSet(source), set);
+            Verify.assertSize(30002, set);
+            Assert.assertSame(key, set.get(duplicate));
+            Assert.assertTrue(set.contains(null));
+
+            for (int i = 30000; i < 60000; i++)
+            {
+                set.add(i);
+            }
+            Verify.assertSize(60002, set);
+            Assert.assertTrue(set.remove(29999));
+            Assert.assertFalse(set.contains(29999));
+
+            Assert.assertEquals(
+                    UnifiedSet.newSetWith(1, 2),
+                    UnifiedSet.newSetParallel(FastList.newListWith(1, 2, 1), executor));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import com.webguys.ponzu.api.block.function.primitive.IntFunction;
+import com.webguys.ponzu.impl.block.function.primitive.IntToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.IntPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.IntProcedure;
+import com.webguys.ponzu.impl.factory.IntLists;
+import com.webguys.ponzu.impl.factory.IntSets;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.IntIterator;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link IntHashSet}.
+ */
+public class IntHashSetTest
+{
+    private static final IntPredicate IS_EVEN = new IntPredicate()
+    {
+        public boolean accept(int value)
+        {
+            return value % 2 == 0;
+        }
+    };
+
+    @Test
+    public void addAndContains()
+    {
+        IntHashSet set = IntHashSet.newSet();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(2));
+        Assert.assertTrue(set.add(-1));
+        Assert.assertFalse(set.add(0));
+        Assert.assertFalse(set.add(1));
+        Assert.assertFalse(set.add(2));
+        Assert.assertEquals(4, set.size());
+        Assert.assertTrue(set.contains(0));
+        Assert.assertTrue(set.contains(1));
+        Assert.assertTrue(set.contains(2));
+        Assert.assertTrue(set.contains(-1));
+        Assert.assertFalse(set.contains(3));
+        Assert.assertTrue(set.containsAll(0, 1, 2));
+        Assert.assertFalse(set.containsAll(0, 3));
+    }
+
+    @Test
+    public void remove()
+    {
+        IntHashSet set = IntHashSet.newSetWith(0, 1, 2, 3);
+        Assert.assertTrue(set.remove(0));
+        Assert.assertFalse(set.remove(0));
+        Assert.assertTrue(set.remove(1));
+        Assert.assertTrue(set.remove(2));
+        Assert.assertFalse(set.remove(4));
+        Assert.assertEquals(IntHashSet.newSetWith(3), set);
+        Assert.assertTrue(set.removeAll(3, 4));
+        Assert.assertTrue(set.isEmpty());
+        set.addAll(5, 6, 7);
+        Assert.assertTrue(set.removeAll(IntLists.mutable.of(5, 6)));
+        Assert.assertEquals(IntHashSet.newSetWith(7), set);
+        set.clear();
+        Assert.assertEquals(0, set.size());
+        Assert.assertFalse(set.contains(7));
+    }
+
+    @Test
+    public void retainAll()
+    {
+        IntHashSet set = IntHashSet.newSetWith(0, 1, 2, 3, 4);
+        Assert.assertTrue(set.retainAll(IntLists.mutable.of(1, 3, 5)));
+        Assert.assertEquals(IntHashSet.newSetWith(1, 3), set);
+        Assert.assertFalse(set.retainAll(IntHashSet.newSetWith(1, 3)));
+    }
+
+    @Test
+    public void matchesJdkSetUnderRandomOperations()
+    {
+        Random random = new Random(42L);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 0; i < 200000; i++)
+        {
+            int value = random.nextInt(2000) - 10;
+            if (random.nextBoolean())
+            {
+                Assert.assertEquals(expected.add(value), set.add(value));
+            }
+            else
+            {
+                Assert.assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+        Assert.assertEquals(expected.size(), set.size());
+        for (Integer each : expected)
+        {
+            Assert.assertTrue(set.contains(each));
+        }
+        Assert.assertEquals(expected.hashCode(), set.hashCode());
+        Assert.assertEquals(expected.size(), set.toArray().length);
+    }
+
+    @Test
+    public void largeAndCollidingValues()
+    {
+        IntHashSet set = new IntHashSet(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            set.add((int) i << 16);
+        }
+        Assert.assertEquals(10000, set.size());
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertTrue(set.contains((int) i << 16));
+            Assert.assertFalse(set.contains(((int) i << 16) + 1));
+        }
+        Assert.assertTrue(set.add(Integer.MAX_VALUE));
+        Assert.assertTrue(set.add(Integer.MIN_VALUE));
+        Assert.assertEquals(Integer.MAX_VALUE, set.max());
+        Assert.assertEquals(Integer.MIN_VALUE, set.min());
+    }
+
+    @Test
+    public void removedSlotsAreReclaimed()
+    {
+        IntHashSet set = new IntHashSet();
+        for (int i = 2; i < 100000; i++)
+        {
+            set.add(i);
+            set.remove(i);
+        }
+        Assert.assertTrue(set.isEmpty());
+        set.add(42);
+        Assert.assertTrue(set.contains(42));
+    }
+
+    @Test
+    public void iterator()
+    {
+        IntHashSet set = IntHashSet.newSetWith(0, 1, 2, 3);
+        IntHashSet seen = new IntHashSet();
+        IntIterator iterator = set.intIterator();
+        while (iterator.hasNext())
+        {
+            Assert.assertTrue(seen.add(iterator.next()));
+        }
+        Assert.assertEquals(set, seen);
+        Verify.assertThrows(NoSuchElementException.class, new Runnable()
+        {
+            public void run()
+            {
+                IntHashSet.newSet().intIterator().next();
+            }
+        });
+    }
+
+    @Test
+    public void forEachAndPredicates()
+    {
+        IntHashSet set = IntHashSet.newSetWith(0, 1, 2, 3, 4);
+        final long[] sum = new long[1];
+        set.forEach(new IntProcedure()
+        {
+            public void value(int each)
+            {
+                sum[0] += each;
+            }
+        });
+        Assert.assertEquals(10, sum[0]);
+        Assert.assertEquals(10, set.sum());
+        Assert.assertEquals(3, set.count(IS_EVEN));
+        Assert.assertTrue(set.anySatisfy(IS_EVEN));
+        Assert.assertFalse(set.allSatisfy(IS_EVEN));
+        Assert.assertTrue(IntHashSet.newSetWith(0, 2).allSatisfy(IS_EVEN));
+        Assert.assertEquals(-1, IntHashSet.newSetWith(1, 3).find(IS_EVEN, -1));
+        Assert.assertTrue(IS_EVEN.accept(set.find(IS_EVEN, -1)));
+        Assert.assertEquals(IntHashSet.newSetWith(0, 2, 4), set.filter(IS_EVEN));
+        Assert.assertEquals(IntHashSet.newSetWith(1, 3), set.filterNot(IS_EVEN));
+        Assert.assertEquals(0, set.min());
+        Assert.assertEquals(4, set.max());
+        Assert.assertEquals(2.0, set.average(), 0.0);
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 3, 4}, set.toSortedArray());
+        Assert.assertEquals(IntLists.mutable.of(0, 1, 2, 3, 4), set.toList().sortThis());
+    }
+
+    @Test
+    public void transform()
+    {
+        UnifiedSet<String> strings = IntHashSet.newSetWith(0, 1, 11).transform(new IntToObjectFunction<String>()
+        {
+            public String valueOf(int each)
+            {
+                return String.valueOf(each).substring(0, 1);
+            }
+        });
+        Assert.assertEquals(UnifiedSet.newSetWith("0", "1"), strings);
+
+        Assert.assertEquals(IntHashSet.newSetWith(1, 3), IntSets.mutable.transform(FastList.newListWith("a", "abc", "bbb"), new IntFunction<String>()
+        {
+            public int intValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        }));
+    }
+
+    @Test
+    public void setAlgebra()
+    {
+        IntHashSet setA = IntHashSet.newSetWith(0, 1, 2, 3);
+        IntHashSet setB = IntHashSet.newSetWith(2, 3, 4);
+        Assert.assertEquals(IntHashSet.newSetWith(0, 1, 2, 3, 4), setA.union(setB));
+        Assert.assertEquals(IntHashSet.newSetWith(2, 3), setA.intersect(setB));
+        Assert.assertEquals(IntHashSet.newSetWith(2, 3), setB.intersect(setA));
+        Assert.assertEquals(IntHashSet.newSetWith(0, 1), setA.difference(setB));
+        Assert.assertEquals(IntHashSet.newSetWith(0, 1, 4), setA.symmetricDifference(setB));
+        Assert.assertEquals(IntHashSet.newSetWith(0, 1, 2, 3), setA);
+        Assert.assertEquals(IntHashSet.newSetWith(2, 3, 4), setB);
+
+        Assert.assertEquals(setA.union(setB), IntSets.union(setA, setB));
+        Assert.assertEquals(setA.intersect(setB), IntSets.intersect(setA, setB));
+        Assert.assertEquals(setA.difference(setB), IntSets.difference(setA, setB));
+        Assert.assertEquals(setA.symmetricDifference(setB), IntSets.symmetricDifference(setA, setB));
+
+        Assert.assertTrue(IntHashSet.newSetWith(1, 2).isSubsetOf(setA));
+        Assert.assertTrue(IntHashSet.newSetWith(1, 2).isProperSubsetOf(setA));
+        Assert.assertTrue(setA.isSubsetOf(setA));
+        Assert.assertFalse(setA.isProperSubsetOf(setA));
+        Assert.assertFalse(setB.isSubsetOf(setA));
+        Assert.assertTrue(IntSets.isSubsetOf(IntHashSet.newSetWith(1, 2), setA));
+        Assert.assertFalse(IntSets.isProperSubsetOf(setA, setA));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(IntHashSet.newSetWith(0, 1, 2, 100), IntSets.mutable.of(100, 2, 1, 0));
+        Assert.assertEquals(UnifiedSet.newSetWith(Integer.valueOf(0), Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(100)).hashCode(), IntHashSet.newSetWith(0, 1, 2, 100).hashCode());
+        Verify.assertNotEquals(IntHashSet.newSetWith(0, 1), IntHashSet.newSetWith(0, 2));
+        Verify.assertPostSerializedEqualsAndHashCode(IntHashSet.newSetWith(0, 1, 2, 100));
+    }
+
+    @Test
+    public void makeString()
+    {
+        Assert.assertEquals("[]", IntHashSet.newSet().toString());
+        Assert.assertEquals("[0, 1]", IntHashSet.newSetWith(1, 0).toString());
+        Assert.assertEquals("0/1", IntHashSet.newSetWith(1, 0).makeString("/"));
+    }
+}
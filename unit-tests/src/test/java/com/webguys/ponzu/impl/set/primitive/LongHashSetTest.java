@@ -0,0 +1,275 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.primitive;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import com.webguys.ponzu.api.block.function.primitive.LongFunction;
+import com.webguys.ponzu.impl.block.function.primitive.LongToObjectFunction;
+import com.webguys.ponzu.impl.block.predicate.primitive.LongPredicate;
+import com.webguys.ponzu.impl.block.procedure.primitive.LongProcedure;
+import com.webguys.ponzu.impl.factory.LongLists;
+import com.webguys.ponzu.impl.factory.LongSets;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.primitive.LongIterator;
+import com.webguys.ponzu.impl.set.mutable.UnifiedSet;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link LongHashSet}.
+ */
+public class LongHashSetTest
+{
+    private static final LongPredicate IS_EVEN = new LongPredicate()
+    {
+        public boolean accept(long value)
+        {
+            return value % 2 == 0;
+        }
+    };
+
+    @Test
+    public void addAndContains()
+    {
+        LongHashSet set = LongHashSet.newSet();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(2));
+        Assert.assertTrue(set.add(-1));
+        Assert.assertFalse(set.add(0));
+        Assert.assertFalse(set.add(1));
+        Assert.assertFalse(set.add(2));
+        Assert.assertEquals(4, set.size());
+        Assert.assertTrue(set.contains(0));
+        Assert.assertTrue(set.contains(1));
+        Assert.assertTrue(set.contains(2));
+        Assert.assertTrue(set.contains(-1));
+        Assert.assertFalse(set.contains(3));
+        Assert.assertTrue(set.containsAll(0, 1, 2));
+        Assert.assertFalse(set.containsAll(0, 3));
+    }
+
+    @Test
+    public void remove()
+    {
+        LongHashSet set = LongHashSet.newSetWith(0, 1, 2, 3);
+        Assert.assertTrue(set.remove(0));
+        Assert.assertFalse(set.remove(0));
+        Assert.assertTrue(set.remove(1));
+        Assert.assertTrue(set.remove(2));
+        Assert.assertFalse(set.remove(4));
+        Assert.assertEquals(LongHashSet.newSetWith(3), set);
+        Assert.assertTrue(set.removeAll(3, 4));
+        Assert.assertTrue(set.isEmpty());
+        set.addAll(5, 6, 7);
+        Assert.assertTrue(set.removeAll(LongLists.mutable.of(5, 6)));
+        Assert.assertEquals(LongHashSet.newSetWith(7), set);
+        set.clear();
+        Assert.assertEquals(0, set.size());
+        Assert.assertFalse(set.contains(7));
+    }
+
+    @Test
+    public void retainAll()
+    {
+        LongHashSet set = LongHashSet.newSetWith(0, 1, 2, 3, 4);
+        Assert.assertTrue(set.retainAll(LongLists.mutable.of(1, 3, 5)));
+        Assert.assertEquals(LongHashSet.newSetWith(1, 3), set);
+        Assert.assertFalse(set.retainAll(LongHashSet.newSetWith(1, 3)));
+    }
+
+    @Test
+    public void matchesJdkSetUnderRandomOperations()
+    {
+        Random random = new Random(42L);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<Long>();
+        for (int i = 0; i < 200000; i++)
+        {
+            long value = random.nextInt(2000) - 10;
+            if (random.nextBoolean())
+            {
+                Assert.assertEquals(expected.add(value), set.add(value));
+            }
+            else
+            {
+                Assert.assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+        Assert.assertEquals(expected.size(), set.size());
+        for (Long each : expected)
+        {
+            Assert.assertTrue(set.contains(each));
+        }
+        Assert.assertEquals(expected.hashCode(), set.hashCode());
+        Assert.assertEquals(expected.size(), set.toArray().length);
+    }
+
+    @Test
+    public void largeAndCollidingValues()
+    {
+        LongHashSet set = new LongHashSet(0);
+        for (int i = 0; i < 10000; i++)
+        {
+            set.add((long) i << 16);
+        }
+        Assert.assertEquals(10000, set.size());
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertTrue(set.contains((long) i << 16));
+            Assert.assertFalse(set.contains(((long) i << 16) + 1));
+        }
+        Assert.assertTrue(set.add(Long.MAX_VALUE));
+        Assert.assertTrue(set.add(Long.MIN_VALUE));
+        Assert.assertEquals(Long.MAX_VALUE, set.max());
+        Assert.assertEquals(Long.MIN_VALUE, set.min());
+    }
+
+    @Test
+    public void removedSlotsAreReclaimed()
+    {
+        LongHashSet set = new LongHashSet();
+        for (int i = 2; i < 100000; i++)
+        {
+            set.add(i);
+            set.remove(i);
+        }
+        Assert.assertTrue(set.isEmpty());
+        set.add(42);
+        Assert.assertTrue(set.contains(42));
+    }
+
+    @Test
+    public void iterator()
+    {
+        LongHashSet set = LongHashSet.newSetWith(0, 1, 2, 3);
+        LongHashSet seen = new LongHashSet();
+        LongIterator iterator = set.longIterator();
+        while (iterator.hasNext())
+        {
+            Assert.assertTrue(seen.add(iterator.next()));
+        }
+        Assert.assertEquals(set, seen);
+        Verify.assertThrows(NoSuchElementException.class, new Runnable()
+        {
+            public void run()
+            {
+                LongHashSet.newSet().longIterator().next();
+            }
+        });
+    }
+
+    @Test
+    public void forEachAndPredicates()
+    {
+        LongHashSet set = LongHashSet.newSetWith(0, 1, 2, 3, 4);
+        final long[] sum = new long[1];
+        set.forEach(new LongProcedure()
+        {
+            public void value(long each)
+            {
+                sum[0] += each;
+            }
+        });
+        Assert.assertEquals(10, sum[0]);
+        Assert.assertEquals(10, set.sum());
+        Assert.assertEquals(3, set.count(IS_EVEN));
+        Assert.assertTrue(set.anySatisfy(IS_EVEN));
+        Assert.assertFalse(set.allSatisfy(IS_EVEN));
+        Assert.assertTrue(LongHashSet.newSetWith(0, 2).allSatisfy(IS_EVEN));
+        Assert.assertEquals(-1, LongHashSet.newSetWith(1, 3).find(IS_EVEN, -1));
+        Assert.assertTrue(IS_EVEN.accept(set.find(IS_EVEN, -1)));
+        Assert.assertEquals(LongHashSet.newSetWith(0, 2, 4), set.filter(IS_EVEN));
+        Assert.assertEquals(LongHashSet.newSetWith(1, 3), set.filterNot(IS_EVEN));
+        Assert.assertEquals(0, set.min());
+        Assert.assertEquals(4, set.max());
+        Assert.assertEquals(2.0, set.average(), 0.0);
+        Assert.assertArrayEquals(new long[]{0, 1, 2, 3, 4}, set.toSortedArray());
+        Assert.assertEquals(LongLists.mutable.of(0, 1, 2, 3, 4), set.toList().sortThis());
+    }
+
+    @Test
+    public void transform()
+    {
+        UnifiedSet<String> strings = LongHashSet.newSetWith(0, 1, 11).transform(new LongToObjectFunction<String>()
+        {
+            public String valueOf(long each)
+            {
+                return String.valueOf(each).substring(0, 1);
+            }
+        });
+        Assert.assertEquals(UnifiedSet.newSetWith("0", "1"), strings);
+
+        Assert.assertEquals(LongHashSet.newSetWith(1, 3), LongSets.mutable.transform(FastList.newListWith("a", "abc", "bbb"), new LongFunction<String>()
+        {
+            public long longValueOf(String anObject)
+            {
+                return anObject.length();
+            }
+        }));
+    }
+
+    @Test
+    public void setAlgebra()
+    {
+        LongHashSet setA = LongHashSet.newSetWith(0, 1, 2, 3);
+        LongHashSet setB = LongHashSet.newSetWith(2, 3, 4);
+        Assert.assertEquals(LongHashSet.newSetWith(0, 1, 2, 3, 4), setA.union(setB));
+        Assert.assertEquals(LongHashSet.newSetWith(2, 3), setA.intersect(setB));
+        Assert.assertEquals(LongHashSet.newSetWith(2, 3), setB.intersect(setA));
+        Assert.assertEquals(LongHashSet.newSetWith(0, 1), setA.difference(setB));
+        Assert.assertEquals(LongHashSet.newSetWith(0, 1, 4), setA.symmetricDifference(setB));
+        Assert.assertEquals(LongHashSet.newSetWith(0, 1, 2, 3), setA);
+        Assert.assertEquals(LongHashSet.newSetWith(2, 3, 4), setB);
+
+        Assert.assertEquals(setA.union(setB), LongSets.union(setA, setB));
+        Assert.assertEquals(setA.intersect(setB), LongSets.intersect(setA, setB));
+        Assert.assertEquals(setA.difference(setB), LongSets.difference(setA, setB));
+        Assert.assertEquals(setA.symmetricDifference(setB), LongSets.symmetricDifference(setA, setB));
+
+        Assert.assertTrue(LongHashSet.newSetWith(1, 2).isSubsetOf(setA));
+        Assert.assertTrue(LongHashSet.newSetWith(1, 2).isProperSubsetOf(setA));
+        Assert.assertTrue(setA.isSubsetOf(setA));
+        Assert.assertFalse(setA.isProperSubsetOf(setA));
+        Assert.assertFalse(setB.isSubsetOf(setA));
+        Assert.assertTrue(LongSets.isSubsetOf(LongHashSet.newSetWith(1, 2), setA));
+        Assert.assertFalse(LongSets.isProperSubsetOf(setA, setA));
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        Verify.assertEqualsAndHashCode(LongHashSet.newSetWith(0, 1, 2, 100), LongSets.mutable.of(100, 2, 1, 0));
+        Assert.assertEquals(UnifiedSet.newSetWith(Long.valueOf(0), Long.valueOf(1), Long.valueOf(2), Long.valueOf(100)).hashCode(), LongHashSet.newSetWith(0, 1, 2, 100).hashCode());
+        Verify.assertNotEquals(LongHashSet.newSetWith(0, 1), LongHashSet.newSetWith(0, 2));
+        Verify.assertPostSerializedEqualsAndHashCode(LongHashSet.newSetWith(0, 1, 2, 100));
+    }
+
+    @Test
+    public void makeString()
+    {
+        Assert.assertEquals("[]", LongHashSet.newSet().toString());
+        Assert.assertEquals("[0, 1]", LongHashSet.newSetWith(1, 0).toString());
+        Assert.assertEquals("0/1", LongHashSet.newSetWith(1, 0).makeString("/"));
+    }
+}
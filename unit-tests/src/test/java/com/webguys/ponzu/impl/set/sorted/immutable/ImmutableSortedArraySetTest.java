@@ -0,0 +1,138 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webguys.ponzu.impl.set.sorted.immutable;
+
+import java.util.Comparator;
+import java.util.SortedSet;
+
+import com.webguys.ponzu.api.set.sorted.ImmutableSortedSet;
+import com.webguys.ponzu.impl.block.factory.Comparators;
+import com.webguys.ponzu.impl.factory.SortedSets;
+import com.webguys.ponzu.impl.list.Interval;
+import com.webguys.ponzu.impl.list.mutable.FastList;
+import com.webguys.ponzu.impl.set.sorted.mutable.TreeSortedSet;
+import com.webguys.ponzu.impl.test.SerializeTestHelper;
+import com.webguys.ponzu.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableSortedArraySetTest
+        extends AbstractImmutableSortedSetTestCase
+{
+    @Override
+    protected ImmutableSortedSet<Integer> classUnderTest()
+    {
+        return SortedSets.immutable.of(1, 2, 3, 4);
+    }
+
+    @Override
+    protected ImmutableSortedSet<Integer> classUnderTest(Comparator<? super Integer> comparator)
+    {
+        return SortedSets.immutable.of(comparator, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void factoryDefault()
+    {
+        Verify.assertInstanceOf(ImmutableSortedArraySet.class, this.classUnderTest());
+        Verify.assertInstanceOf(ImmutableSortedArraySet.class, TreeSortedSet.newSetWith(1, 2).toImmutable());
+    }
+
+    @Test
+    public void duplicatesAndOrder()
+    {
+        ImmutableSortedSet<Integer> set = SortedSets.immutable.of(3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5);
+        Verify.assertListsEqual(FastList.newListWith(1, 2, 3, 4, 5, 6, 9), set.toList());
+        Assert.assertEquals(Integer.valueOf(1), set.getFirst());
+        Assert.assertEquals(Integer.valueOf(9), set.getLast());
+        Assert.assertTrue(set.contains(6));
+        Assert.assertFalse(set.contains(7));
+    }
+
+    @Test
+    public void newWithAndNewWithout()
+    {
+        ImmutableSortedSet<Integer> set = SortedSets.immutable.of(1, 3, 5);
+        Verify.assertListsEqual(FastList.newListWith(1, 2, 3, 5), set.newWith(2).toList());
+        Verify.assertListsEqual(FastList.newListWith(1, 5), set.newWithout(3).toList());
+        Verify.assertListsEqual(FastList.newListWith(3, 5), set.newWithout(1).toList());
+        Assert.assertSame(set, set.newWith(3));
+        Assert.assertSame(set, set.newWithout(4));
+    }
+
+    @Override
+    @Test
+    public void subSet()
+    {
+        SortedSet<Integer> set = this.classUnderTest().castToSortedSet();
+        Assert.assertEquals(TreeSortedSet.newSetWith(2, 3), set.subSet(2, 4));
+        Verify.assertEmpty(set.subSet(2, 2));
+        Assert.assertSame(set, set.subSet(0, 5));
+        Assert.assertEquals(
+                TreeSortedSet.newSetWith(Comparators.<Integer>reverseNaturalOrder(), 3, 2),
+                this.classUnderTest(Comparators.<Integer>reverseNaturalOrder()).castToSortedSet().subSet(3, 1));
+    }
+
+    @Override
+    @Test
+    public void headSet()
+    {
+        SortedSet<Integer> set = this.classUnderTest().castToSortedSet();
+        Assert.assertEquals(TreeSortedSet.newSetWith(1, 2, 3), set.headSet(4));
+        Verify.assertEmpty(set.headSet(1));
+        Assert.assertEquals(Integer.valueOf(3), set.headSet(4).last());
+    }
+
+    @Override
+    @Test
+    public void tailSet()
+    {
+        SortedSet<Integer> set = this.classUnderTest().castToSortedSet();
+        Assert.assertEquals(TreeSortedSet.newSetWith(2, 3, 4), set.tailSet(2));
+        Verify.assertEmpty(set.tailSet(5));
+        Assert.assertEquals(Integer.valueOf(2), set.tailSet(2).first());
+    }
+
+    @Test
+    public void rangesOfRanges()
+    {
+        ImmutableSortedSet<Integer> set = SortedSets.immutable.ofAll(Interval.oneTo(1000));
+        SortedSet<Integer> range = set.castToSortedSet().subSet(100, 900).tailSet(500).headSet(600);
+        Verify.assertListsEqual(Interval.fromTo(500, 599), FastList.newList(range));
+        Verify.assertContains(550, range);
+        Assert.assertFalse(range.contains(600));
+        Assert.assertFalse(range.contains(499));
+        Verify.assertListsEqual(FastList.newListWith(500, 501, 599), ((ImmutableSortedSet<Integer>) range).newWithoutAll(Interval.fromTo(502, 598)).toList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subSetThrowsWhenBoundsAreReversed()
+    {
+        this.classUnderTest().castToSortedSet().subSet(3, 1);
+    }
+
+    @Test
+    public void serialization()
+    {
+        ImmutableSortedSet<Integer> set = this.classUnderTest(Comparators.<Integer>reverseNaturalOrder());
+        Verify.assertPostSerializedEqualsAndHashCode(set);
+        SortedSet<Integer> range = set.castToSortedSet().headSet(2);
+        SortedSet<Integer> deserialized = SerializeTestHelper.serializeDeserialize(range);
+        Verify.assertInstanceOf(ImmutableSortedArraySet.class, deserialized);
+        Verify.assertListsEqual(FastList.newListWith(4, 3), FastList.newList(deserialized));
+    }
+}